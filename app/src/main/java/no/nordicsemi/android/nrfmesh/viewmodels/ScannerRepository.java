@@ -40,8 +40,6 @@ import javax.inject.Inject;
 import androidx.annotation.NonNull;
 import dagger.hilt.android.qualifiers.ApplicationContext;
 import no.nordicsemi.android.mesh.MeshManagerApi;
-import no.nordicsemi.android.mesh.MeshNetwork;
-import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 import no.nordicsemi.android.nrfmesh.ble.BleMeshManager;
 import no.nordicsemi.android.nrfmesh.utils.Utils;
 import no.nordicsemi.android.support.v18.scanner.BluetoothLeScannerCompat;
@@ -243,14 +241,6 @@ public class ScannerRepository {
      * @return true if the node identity matches or false otherwise
      */
     private boolean checkIfNodeIdentityMatches(final byte[] serviceData) {
-        final MeshNetwork network = mMeshManagerApi.getMeshNetwork();
-        if (network != null) {
-            for (ProvisionedMeshNode node : network.getNodes()) {
-                if (mMeshManagerApi.nodeIdentityMatches(node, serviceData)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return mMeshManagerApi.resolveNodeIdentity(serviceData) != null;
     }
 }
\ No newline at end of file
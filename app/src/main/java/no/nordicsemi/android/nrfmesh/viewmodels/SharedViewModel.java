@@ -55,6 +55,7 @@ public class SharedViewModel extends BaseViewModel implements NetworkExportUtils
     protected void onCleared() {
         super.onCleared();
         mNrfMeshRepository.disconnect();
+        mNrfMeshRepository.getMeshManagerApi().flushAsync();
         mScannerRepository.unregisterBroadcastReceivers();
     }
 
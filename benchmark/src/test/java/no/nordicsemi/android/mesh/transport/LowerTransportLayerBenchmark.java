@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2018, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package no.nordicsemi.android.mesh.transport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Benchmarks the reassembly of received lower transport access pdus.
+ * <p>
+ * The replay protection of the node is reset before every message so that the same pdus can be parsed repeatedly.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LowerTransportLayerBenchmark {
+
+    //Message #16
+    private static final int UNSEGMENTED_IV_INDEX = 0x12345678;
+    private static final int UNSEGMENTED_SRC = 0x1201;
+    private static final byte[] UNSEGMENTED_SEQUENCE_NUMBER = MeshParserUtils.toByteArray("000006");
+    private static final byte[] UNSEGMENTED_PDU = MeshParserUtils.toByteArray("00680b00000612010003" + "0089511bf1d1a81c11dcef");
+    private static final byte[] UNSEGMENTED_UPPER_TRANSPORT_PDU = MeshParserUtils.toByteArray("89511bf1d1a81c11dcef");
+
+    // Upper transport pdu of Message #6 sent as two segments to a group address, which does not require acknowledgements
+    private static final int SEGMENTED_IV_INDEX = 0x12345678;
+    private static final int SEGMENTED_SRC = 0x0003;
+    private static final int SEQ_ZERO = 0x29ab & 0x1FFF;
+    private static final byte[] SEGMENTED_UPPER_TRANSPORT_PDU = MeshParserUtils.toByteArray("ee9dddfd2169326d23f3afdfcfdc18c52fdef772e0e17308");
+    private static final byte[] SEGMENTED_SEQUENCE_NUMBER_0 = MeshParserUtils.toByteArray("3129ab");
+    private static final byte[] SEGMENTED_SEQUENCE_NUMBER_1 = MeshParserUtils.toByteArray("3129ac");
+    private static final byte[] SEGMENTED_PDU_0 = createSegment(SEGMENTED_SEQUENCE_NUMBER_0, 0);
+    private static final byte[] SEGMENTED_PDU_1 = createSegment(SEGMENTED_SEQUENCE_NUMBER_1, 1);
+
+    private final ProvisionedMeshNode node = new ProvisionedMeshNode();
+    private MeshTransport meshTransport;
+
+    @Setup
+    public void setUp() {
+        meshTransport = new MeshTransport(new VirtualClockScheduler(), node);
+
+        // Make sure the benchmarks measure a path that produces the sample data
+        final AccessMessage unsegmented = parseUnsegmentedMessage();
+        assertNotNull(unsegmented);
+        meshTransport.reassembleLowerTransportAccessPDU(unsegmented);
+        assertArrayEquals(UNSEGMENTED_UPPER_TRANSPORT_PDU, unsegmented.getUpperTransportPdu());
+        final AccessMessage segmented = parseSegmentedMessage();
+        assertNotNull(segmented);
+        meshTransport.reassembleLowerTransportAccessPDU(segmented);
+        assertArrayEquals(SEGMENTED_UPPER_TRANSPORT_PDU, segmented.getUpperTransportPdu());
+    }
+
+    @Benchmark
+    public AccessMessage reassembleUnsegmentedAccessMessage() {
+        final AccessMessage message = parseUnsegmentedMessage();
+        meshTransport.reassembleLowerTransportAccessPDU(message);
+        return message;
+    }
+
+    @Benchmark
+    public AccessMessage reassembleSegmentedAccessMessage() {
+        final AccessMessage message = parseSegmentedMessage();
+        meshTransport.reassembleLowerTransportAccessPDU(message);
+        return message;
+    }
+
+    private AccessMessage parseUnsegmentedMessage() {
+        node.setSeqAuth(UNSEGMENTED_SRC, -1);
+        return meshTransport.parseUnsegmentedAccessLowerTransportPDU(UNSEGMENTED_PDU, UNSEGMENTED_IV_INDEX, UNSEGMENTED_SEQUENCE_NUMBER);
+    }
+
+    private AccessMessage parseSegmentedMessage() {
+        node.setSeqAuth(SEGMENTED_SRC, -1);
+        assertNull(meshTransport.parseSegmentedAccessLowerTransportPDU(4, SEGMENTED_PDU_0, SEGMENTED_PDU_0,
+                SEGMENTED_IV_INDEX, SEGMENTED_SEQUENCE_NUMBER_0));
+        return meshTransport.parseSegmentedAccessLowerTransportPDU(4, SEGMENTED_PDU_1, SEGMENTED_PDU_1,
+                SEGMENTED_IV_INDEX, SEGMENTED_SEQUENCE_NUMBER_1);
+    }
+
+    /**
+     * Creates a decrypted network pdu carrying a segment of the segmented upper transport pdu.
+     */
+    private static byte[] createSegment(final byte[] sequenceNumber, final int segO) {
+        final int segN = 1;
+        final int offset = segO * 12;
+        final int length = Math.min(12, SEGMENTED_UPPER_TRANSPORT_PDU.length - offset);
+        return ByteBuffer.allocate(14 + length).order(ByteOrder.BIG_ENDIAN)
+                .put((byte) 0x00)
+                .put((byte) 0x68)
+                .put((byte) 0x04)
+                .put(sequenceNumber)
+                .putShort((short) SEGMENTED_SRC)
+                .putShort((short) 0xC000)
+                .put((byte) 0x80)
+                .put((byte) ((SEQ_ZERO >> 6) & 0x7F))
+                .put((byte) (((SEQ_ZERO << 2) & 0xFC) | ((segO >> 3) & 0x03)))
+                .put((byte) (((segO << 5) & 0xE0) | (segN & 0x1F)))
+                .put(SEGMENTED_UPPER_TRANSPORT_PDU, offset, length)
+                .array();
+    }
+}
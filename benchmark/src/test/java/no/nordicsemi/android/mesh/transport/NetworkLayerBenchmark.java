@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2018, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package no.nordicsemi.android.mesh.transport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.NetworkKey;
+import no.nordicsemi.android.mesh.Provisioner;
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmarks the network layer encryption and obfuscation using the Mesh Profile sample data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkLayerBenchmark {
+
+    private static final byte[] NET_KEY = MeshParserUtils.toByteArray("7dd7364cd842ad18c17c2b820c84c3d6");
+    private static final byte[] IV_INDEX = MeshParserUtils.toByteArray("12345678");
+
+    //Message #16
+    private static final byte[] UNSEGMENTED_SEQUENCE_NUMBER = MeshParserUtils.toByteArray("000006");
+    private static final byte[] UNSEGMENTED_LOWER_TRANSPORT_PDU = MeshParserUtils.toByteArray("0089511bf1d1a81c11dcef");
+    private static final byte[] UNSEGMENTED_NETWORK_PDU = MeshParserUtils.toByteArray("0068e80e5da5af0e6b9be7f5a642f2f98680e61c3a8b47f228");
+    private static final byte[] UNSEGMENTED_NETWORK_HEADER = MeshParserUtils.toByteArray("0b0000061201");
+
+    //Message #6
+    private static final byte[] SEGMENTED_SEQUENCE_NUMBER = MeshParserUtils.toByteArray("3129ab");
+    private static final byte[] SEGMENTED_LOWER_TRANSPORT_PDU_0 = MeshParserUtils.toByteArray("8026ac01ee9dddfd2169326d23f3afdf");
+    private static final byte[] SEGMENTED_LOWER_TRANSPORT_PDU_1 = MeshParserUtils.toByteArray("8026ac21cfdc18c52fdef772e0e17308");
+    private static final byte[] SEGMENTED_NETWORK_PDU_0 = MeshParserUtils.toByteArray("0068cab5c5348a230afba8c63d4e686364979deaf4fd40961145939cda0e");
+    private static final byte[] SEGMENTED_NETWORK_PDU_1 = MeshParserUtils.toByteArray("00681615b5dd4a846cae0c032bf0746f44f1b8cc8ce5edc57e55beed49c0");
+
+    private final ProvisionedMeshNode node = new ProvisionedMeshNode();
+    private MeshTransport meshTransport;
+    private byte[] privacyKey;
+    private AccessMessage unsegmentedMessage;
+    private AccessMessage segmentedMessage;
+
+    @Setup
+    public void setUp() {
+        final NetworkKey networkKey = new NetworkKey(0, NET_KEY);
+        privacyKey = networkKey.getTxDerivatives().getPrivacyKey();
+        meshTransport = new MeshTransport(new VirtualClockScheduler(), node);
+        meshTransport.setNetworkLayerCallbacks(new NetworkLayerCallbacks() {
+            @Override
+            public Provisioner getProvisioner() {
+                return null;
+            }
+
+            @Override
+            public Provisioner getProvisioner(final int unicastAddress) {
+                return null;
+            }
+
+            @Override
+            public NetworkKey getPrimaryNetworkKey() {
+                return networkKey;
+            }
+
+            @Override
+            public NetworkKey getNetworkKey(final int keyIndex) {
+                return networkKey;
+            }
+
+            @Override
+            public List<NetworkKey> getNetworkKeys() {
+                return Collections.singletonList(networkKey);
+            }
+        });
+        meshTransport.setUpperTransportLayerCallbacks(new UpperTransportLayerCallbacks() {
+            @Override
+            public ProvisionedMeshNode getNode(final int unicastAddress) {
+                return node;
+            }
+
+            @Override
+            public byte[] getIvIndex() {
+                return IV_INDEX;
+            }
+
+            @Override
+            public byte[] getApplicationKey(final int aid) {
+                return null;
+            }
+
+            @Override
+            public List<ApplicationKey> getApplicationKeys(final int boundNetKeyIndex) {
+                return Collections.emptyList();
+            }
+
+            @NonNull
+            @Override
+            public List<UUID> getVirtualGroupLabels(final int address) {
+                return Collections.emptyList();
+            }
+        });
+
+        // Make sure the benchmarks measure a path that produces the sample data
+        final SortedMap<Integer, byte[]> unsegmentedPdu = meshTransport.createNetworkLayerPDU(createUnsegmentedMessage()).getNetworkLayerPduMap();
+        assertArrayEquals(UNSEGMENTED_NETWORK_PDU, unsegmentedPdu.get(0));
+        final SortedMap<Integer, byte[]> segmentedPdu = meshTransport.createNetworkLayerPDU(createSegmentedMessage()).getNetworkLayerPduMap();
+        assertEquals(2, segmentedPdu.size());
+        assertArrayEquals(SEGMENTED_NETWORK_PDU_0, segmentedPdu.get(0));
+        assertArrayEquals(SEGMENTED_NETWORK_PDU_1, segmentedPdu.get(1));
+        assertArrayEquals(UNSEGMENTED_NETWORK_HEADER, NetworkLayer.deObfuscateNetworkHeader(UNSEGMENTED_NETWORK_PDU, IV_INDEX, privacyKey));
+        unsegmentedMessage = createUnsegmentedMessage();
+        segmentedMessage = createSegmentedMessage();
+    }
+
+    @Benchmark
+    public Message createUnsegmentedNetworkLayerPdu() {
+        return meshTransport.createNetworkLayerPDU(unsegmentedMessage);
+    }
+
+    @Benchmark
+    public Message createSegmentedNetworkLayerPdu() {
+        // Every segment after the first one increments the sequence number of the message
+        segmentedMessage.setSequenceNumber(SEGMENTED_SEQUENCE_NUMBER);
+        return meshTransport.createNetworkLayerPDU(segmentedMessage);
+    }
+
+    @Benchmark
+    public byte[] deObfuscateNetworkHeader() {
+        return NetworkLayer.deObfuscateNetworkHeader(UNSEGMENTED_NETWORK_PDU, IV_INDEX, privacyKey);
+    }
+
+    private static AccessMessage createUnsegmentedMessage() {
+        final SortedMap<Integer, byte[]> lowerTransportAccessPdu = new TreeMap<>();
+        lowerTransportAccessPdu.put(0, UNSEGMENTED_LOWER_TRANSPORT_PDU);
+        return createMessage(0x0b, 0x1201, 0x0003, UNSEGMENTED_SEQUENCE_NUMBER, lowerTransportAccessPdu);
+    }
+
+    private static AccessMessage createSegmentedMessage() {
+        final SortedMap<Integer, byte[]> lowerTransportAccessPdu = new TreeMap<>();
+        lowerTransportAccessPdu.put(0, SEGMENTED_LOWER_TRANSPORT_PDU_0);
+        lowerTransportAccessPdu.put(1, SEGMENTED_LOWER_TRANSPORT_PDU_1);
+        return createMessage(0x04, 0x0003, 0x1201, SEGMENTED_SEQUENCE_NUMBER, lowerTransportAccessPdu);
+    }
+
+    private static AccessMessage createMessage(final int ttl,
+                                               final int src,
+                                               final int dst,
+                                               final byte[] sequenceNumber,
+                                               final SortedMap<Integer, byte[]> lowerTransportAccessPdu) {
+        final AccessMessage accessMessage = new AccessMessage();
+        accessMessage.setTtl(ttl);
+        accessMessage.setSrc(src);
+        accessMessage.setDst(dst);
+        accessMessage.setSequenceNumber(sequenceNumber);
+        accessMessage.setIvIndex(IV_INDEX);
+        accessMessage.setLowerTransportAccessPduMap(lowerTransportAccessPdu);
+        return accessMessage;
+    }
+}
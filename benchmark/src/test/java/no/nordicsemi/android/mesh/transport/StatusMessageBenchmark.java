@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package no.nordicsemi.android.mesh.transport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Benchmarks the decoding of status messages with variable length parameters.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatusMessageBenchmark {
+
+    private static final int SRC = 0x1201;
+
+    // Composition data page 0 of a Nordic node with two elements. The primary element contains the Configuration Server,
+    // Health Server, Generic OnOff Server and Generic Level Server models and a vendor model, the secondary element
+    // contains a Generic OnOff Server model.
+    private static final byte[] COMPOSITION_DATA_ACCESS_PDU = MeshParserUtils.toByteArray("0200" +
+            "59000100010028000700" +
+            "0000" + "04" + "01" + "0000" + "0200" + "0010" + "0210" + "59000000" +
+            "0000" + "01" + "00" + "0010");
+
+    // Present Ambient Temperature and Motion Sensed values, both marshalled using the Format A property id.
+    private static final byte[] SENSOR_STATUS_PARAMETERS = MeshParserUtils.toByteArray("E00928" + "400864");
+
+    private AccessMessage compositionDataMessage;
+    private AccessMessage sensorStatusMessage;
+
+    @Setup
+    public void setUp() {
+        compositionDataMessage = new AccessMessage();
+        compositionDataMessage.setSrc(SRC);
+        compositionDataMessage.setAccessPdu(COMPOSITION_DATA_ACCESS_PDU);
+
+        sensorStatusMessage = new AccessMessage();
+        sensorStatusMessage.setSrc(SRC);
+        sensorStatusMessage.setParameters(SENSOR_STATUS_PARAMETERS);
+
+        // Make sure the benchmarks decode the complete messages
+        final ConfigCompositionDataStatus compositionData = new ConfigCompositionDataStatus(compositionDataMessage);
+        assertEquals(0x0059, compositionData.getCompanyIdentifier());
+        assertEquals(2, compositionData.getElements().size());
+        assertEquals(5, compositionData.getElements().get(SRC).getMeshModels().size());
+        assertEquals(2, new SensorStatus(sensorStatusMessage).getMarshalledSensorData().size());
+    }
+
+    @Benchmark
+    public ConfigCompositionDataStatus parseConfigCompositionDataStatus() {
+        return new ConfigCompositionDataStatus(compositionDataMessage);
+    }
+
+    @Benchmark
+    public SensorStatus parseSensorStatus() {
+        return new SensorStatus(sensorStatusMessage);
+    }
+}
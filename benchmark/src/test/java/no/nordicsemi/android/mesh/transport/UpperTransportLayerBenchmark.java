@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018, Nordic Semiconductor
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its contributors may be used to endorse or promote products derived from this
+ * software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+ * HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+ * LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON
+ * ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE
+ * USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package no.nordicsemi.android.mesh.transport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * Benchmarks the encryption and decryption of device key secured upper transport pdus using Message #16 of the
+ * Mesh Profile sample data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UpperTransportLayerBenchmark {
+
+    private static final byte[] DEVICE_KEY = MeshParserUtils.toByteArray("9d6dd0e96eb25dc19a40ed9914f8f03f");
+    private static final byte[] IV_INDEX = MeshParserUtils.toByteArray("12345678");
+    private static final byte[] SEQUENCE_NUMBER = MeshParserUtils.toByteArray("000006");
+    private static final int SRC = 0x1201;
+    private static final int DST = 0x0003;
+    private static final byte[] ACCESS_PDU = MeshParserUtils.toByteArray("800300563412");
+    private static final byte[] UPPER_TRANSPORT_PDU = MeshParserUtils.toByteArray("89511bf1d1a81c11dcef");
+    private static final byte[] LOWER_TRANSPORT_PDU = MeshParserUtils.toByteArray("0089511bf1d1a81c11dcef");
+
+    private MeshTransport meshTransport;
+    private AccessMessage outgoingMessage;
+
+    @Setup
+    public void setUp() throws ExtendedInvalidCipherTextException {
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setDeviceKey(DEVICE_KEY);
+        meshTransport = new MeshTransport(new VirtualClockScheduler(), node);
+
+        // Make sure the benchmarks measure a path that produces the sample data
+        final AccessMessage encrypted = createOutgoingMessage();
+        meshTransport.createUpperTransportPDU(encrypted);
+        assertArrayEquals(UPPER_TRANSPORT_PDU, encrypted.getUpperTransportPdu());
+        final AccessMessage decrypted = createIncomingMessage();
+        meshTransport.parseUpperTransportPDU(decrypted);
+        assertArrayEquals(ACCESS_PDU, decrypted.getAccessPdu());
+        outgoingMessage = createOutgoingMessage();
+    }
+
+    @Benchmark
+    public byte[] encryptUpperTransportPdu() {
+        meshTransport.createUpperTransportPDU(outgoingMessage);
+        return outgoingMessage.getUpperTransportPdu();
+    }
+
+    @Benchmark
+    public byte[] decryptUpperTransportPdu() throws ExtendedInvalidCipherTextException {
+        // Parsing strips the lower transport header in place, every received pdu arrives in a new message.
+        final AccessMessage message = createIncomingMessage();
+        meshTransport.parseUpperTransportPDU(message);
+        return message.getAccessPdu();
+    }
+
+    private static AccessMessage createOutgoingMessage() {
+        final AccessMessage accessMessage = createMessage();
+        accessMessage.setDeviceKey(DEVICE_KEY);
+        accessMessage.setAccessPdu(ACCESS_PDU);
+        return accessMessage;
+    }
+
+    private static AccessMessage createIncomingMessage() {
+        final SortedMap<Integer, byte[]> lowerTransportAccessPdu = new TreeMap<>();
+        lowerTransportAccessPdu.put(0, LOWER_TRANSPORT_PDU);
+        final AccessMessage accessMessage = createMessage();
+        accessMessage.setSegmented(false);
+        accessMessage.setLowerTransportAccessPduMap(lowerTransportAccessPdu);
+        return accessMessage;
+    }
+
+    private static AccessMessage createMessage() {
+        final AccessMessage accessMessage = new AccessMessage();
+        accessMessage.setSrc(SRC);
+        accessMessage.setDst(DST);
+        accessMessage.setSequenceNumber(SEQUENCE_NUMBER);
+        accessMessage.setIvIndex(IV_INDEX);
+        accessMessage.setAkf(0);
+        accessMessage.setAszmic(0);
+        return accessMessage;
+    }
+}
@@ -534,6 +534,171 @@ public class ApplicationMessageOpCodes {
     public static final int TIME_STATUS = 0x5D;
 
 
+    /**
+     * Opcode for the "BLOB Transfer Get" message
+     */
+    public static final int BLOB_TRANSFER_GET = 0x8300;
+
+    /**
+     * Opcode for the "BLOB Transfer Start" message
+     */
+    public static final int BLOB_TRANSFER_START = 0x8301;
+
+    /**
+     * Opcode for the "BLOB Transfer Cancel" message
+     */
+    public static final int BLOB_TRANSFER_CANCEL = 0x8302;
+
+    /**
+     * Opcode for the "BLOB Transfer Status" message
+     */
+    public static final int BLOB_TRANSFER_STATUS = 0x8303;
+
+    /**
+     * Opcode for the "BLOB Block Start" message
+     */
+    public static final int BLOB_BLOCK_START = 0x8304;
+
+    /**
+     * Opcode for the "BLOB Block Get" message
+     */
+    public static final int BLOB_BLOCK_GET = 0x8305;
+
+    /**
+     * Opcode for the "BLOB Information Get" message
+     */
+    public static final int BLOB_INFORMATION_GET = 0x8306;
+
+    /**
+     * Opcode for the "BLOB Information Status" message
+     */
+    public static final int BLOB_INFORMATION_STATUS = 0x8307;
+
+    /**
+     * Opcode for the "BLOB Partial Block Report" message
+     */
+    public static final int BLOB_PARTIAL_BLOCK_REPORT = 0x65;
+
+    /**
+     * Opcode for the "BLOB Chunk Transfer" message
+     */
+    public static final int BLOB_CHUNK_TRANSFER = 0x66;
+
+    /**
+     * Opcode for the "BLOB Block Status" message
+     */
+    public static final int BLOB_BLOCK_STATUS = 0x67;
+
+    /**
+     * Opcode for the "Firmware Update Information Get" message
+     */
+    public static final int FIRMWARE_UPDATE_INFORMATION_GET = 0x8308;
+
+    /**
+     * Opcode for the "Firmware Update Information Status" message
+     */
+    public static final int FIRMWARE_UPDATE_INFORMATION_STATUS = 0x8309;
+
+    /**
+     * Opcode for the "Firmware Update Get" message
+     */
+    public static final int FIRMWARE_UPDATE_GET = 0x830C;
+
+    /**
+     * Opcode for the "Firmware Update Start" message
+     */
+    public static final int FIRMWARE_UPDATE_START = 0x830D;
+
+    /**
+     * Opcode for the "Firmware Update Cancel" message
+     */
+    public static final int FIRMWARE_UPDATE_CANCEL = 0x830E;
+
+    /**
+     * Opcode for the "Firmware Update Apply" message
+     */
+    public static final int FIRMWARE_UPDATE_APPLY = 0x830F;
+
+    /**
+     * Opcode for the "Firmware Update Status" message
+     */
+    public static final int FIRMWARE_UPDATE_STATUS = 0x8310;
+
+    /**
+     * Opcode for the "Firmware Distribution Receivers Add" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_RECEIVERS_ADD = 0x8311;
+
+    /**
+     * Opcode for the "Firmware Distribution Receivers Delete All" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_RECEIVERS_DELETE_ALL = 0x8312;
+
+    /**
+     * Opcode for the "Firmware Distribution Receivers Status" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_RECEIVERS_STATUS = 0x8313;
+
+    /**
+     * Opcode for the "Firmware Distribution Receivers Get" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_RECEIVERS_GET = 0x8314;
+
+    /**
+     * Opcode for the "Firmware Distribution Receivers List" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_RECEIVERS_LIST = 0x8315;
+
+    /**
+     * Opcode for the "Firmware Distribution Get" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_GET = 0x8318;
+
+    /**
+     * Opcode for the "Firmware Distribution Start" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_START = 0x8319;
+
+    /**
+     * Opcode for the "Firmware Distribution Cancel" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_CANCEL = 0x831B;
+
+    /**
+     * Opcode for the "Firmware Distribution Apply" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_APPLY = 0x831C;
+
+    /**
+     * Opcode for the "Firmware Distribution Status" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_STATUS = 0x831D;
+
+    /**
+     * Opcode for the "Firmware Distribution Upload Get" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_UPLOAD_GET = 0x831E;
+
+    /**
+     * Opcode for the "Firmware Distribution Upload Start" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_UPLOAD_START = 0x831F;
+
+    /**
+     * Opcode for the "Firmware Distribution Upload Status" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_UPLOAD_STATUS = 0x8322;
+
+    /**
+     * Opcode for the "Firmware Distribution Firmware Get" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_FIRMWARE_GET = 0x8323;
+
+    /**
+     * Opcode for the "Firmware Distribution Firmware Status" message
+     */
+    public static final int FIRMWARE_DISTRIBUTION_FIRMWARE_STATUS = 0x8327;
+
     /**
      * Opcode for the "Health Current Status" message
      */
@@ -379,4 +379,14 @@ public class ConfigMessageOpCodes {
      */
     public static final int CONFIG_VENDOR_MODEL_APP_LIST = 0x804E;
 
+    /**
+     * Opcode for the "Opcodes Aggregator Sequence" message.
+     */
+    public static final int OPCODES_AGGREGATOR_SEQUENCE = 0xB809;
+
+    /**
+     * Opcode for the "Opcodes Aggregator Status" message.
+     */
+    public static final int OPCODES_AGGREGATOR_STATUS = 0xB810;
+
 }
@@ -0,0 +1,39 @@
+package no.nordicsemi.android.mesh.timer;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Scheduler running tasks on a {@link ScheduledExecutorService}, which does not require an Android Looper.
+ * <p>
+ * A single threaded executor should be used, as tasks scheduled by the mesh stack are not expected to run concurrently.
+ * </p>
+ */
+public final class ExecutorScheduler implements MeshScheduler {
+
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Constructs the scheduler.
+     *
+     * @param executor Executor the tasks are scheduled on.
+     */
+    public ExecutorScheduler(@NonNull final ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    @NonNull
+    @Override
+    public Cancellable schedule(@NonNull final Runnable task, final long delay) {
+        final ScheduledFuture<?> future = executor.schedule(task, Math.max(0, delay), TimeUnit.MILLISECONDS);
+        return () -> future.cancel(false);
+    }
+}
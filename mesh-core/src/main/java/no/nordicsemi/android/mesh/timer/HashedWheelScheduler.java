@@ -0,0 +1,222 @@
+package no.nordicsemi.android.mesh.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Hashed timing wheel serving any number of timers with a single timer of an underlying scheduler.
+ * <p>
+ * Timers are placed in the bucket of the tick their deadline falls in, so that scheduling and cancelling a timer
+ * take constant time regardless of the number of timers pending, which suits the many short lived timers of the
+ * segmentation and reassembly procedures. The underlying scheduler is only woken up at ticks that have timers,
+ * and timers run on the thread of the underlying scheduler, at most one tick after their deadline.
+ * </p>
+ */
+public final class HashedWheelScheduler implements MeshScheduler {
+
+    public static final long DEFAULT_TICK_DURATION = 10;
+    public static final int DEFAULT_TICKS_PER_WHEEL = 512;
+
+    private final MeshScheduler scheduler;
+    private final long tickDuration;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startTime;
+    private final Runnable wakeUpTask = this::onWakeUp;
+    // Next tick to be processed
+    private long tick;
+    private int pendingCount;
+    private Cancellable wakeUp;
+    private long wakeUpTick = Long.MAX_VALUE;
+
+    private final class Timeout implements Cancellable {
+        private final Runnable task;
+        private final long deadlineTick;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+        private volatile boolean cancelled;
+
+        private Timeout(@NonNull final Runnable task, final long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            synchronized (HashedWheelScheduler.this) {
+                if (bucket != null) {
+                    bucket.remove(this);
+                    pendingCount--;
+                }
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(@NonNull final Timeout timeout) {
+            timeout.bucket = this;
+            timeout.previous = tail;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        private void remove(@NonNull final Timeout timeout) {
+            if (timeout.previous == null) {
+                head = timeout.next;
+            } else {
+                timeout.previous.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.previous;
+            } else {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        private void expire(final long currentTick, @NonNull final List<Timeout> expired) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                final Timeout next = timeout.next;
+                // Timers further away than a rotation of the wheel stay in the bucket
+                if (timeout.deadlineTick <= currentTick) {
+                    remove(timeout);
+                    expired.add(timeout);
+                }
+                timeout = next;
+            }
+        }
+
+        private boolean isEmpty() {
+            return head == null;
+        }
+    }
+
+    /**
+     * Constructs the scheduler with a tick of {@link #DEFAULT_TICK_DURATION} ms and {@link #DEFAULT_TICKS_PER_WHEEL} ticks.
+     *
+     * @param scheduler Underlying scheduler.
+     */
+    public HashedWheelScheduler(@NonNull final MeshScheduler scheduler) {
+        this(scheduler, DEFAULT_TICK_DURATION, DEFAULT_TICKS_PER_WHEEL);
+    }
+
+    /**
+     * Constructs the scheduler.
+     *
+     * @param scheduler     Underlying scheduler.
+     * @param tickDuration  Duration of a tick in milliseconds, which is the resolution of the timers.
+     * @param ticksPerWheel Number of buckets of the wheel, rounded up to a power of 2.
+     * @throws IllegalArgumentException if the tick duration or the number of ticks is not positive.
+     */
+    public HashedWheelScheduler(@NonNull final MeshScheduler scheduler, final long tickDuration, final int ticksPerWheel) {
+        if (tickDuration <= 0)
+            throw new IllegalArgumentException("Tick duration must be greater than 0");
+        if (ticksPerWheel <= 0 || ticksPerWheel > 1 << 30)
+            throw new IllegalArgumentException("Ticks per wheel must be between 1 and 2^30");
+        this.scheduler = scheduler;
+        this.tickDuration = tickDuration;
+        int length = 1;
+        while (length < ticksPerWheel) {
+            length <<= 1;
+        }
+        wheel = new Bucket[length];
+        for (int i = 0; i < length; i++) {
+            wheel[i] = new Bucket();
+        }
+        mask = length - 1;
+        startTime = scheduler.now();
+    }
+
+    @Override
+    public long now() {
+        return scheduler.now();
+    }
+
+    @NonNull
+    @Override
+    public Cancellable schedule(@NonNull final Runnable task, final long delay) {
+        synchronized (this) {
+            final long deadline = scheduler.now() + Math.max(0, delay);
+            // First tick at which the deadline has passed
+            final long deadlineTick = Math.max(tick, (deadline - startTime + tickDuration - 1) / tickDuration);
+            final Timeout timeout = new Timeout(task, deadlineTick);
+            getBucket(deadlineTick).add(timeout);
+            pendingCount++;
+            scheduleWakeUp(deadlineTick);
+            return timeout;
+        }
+    }
+
+    /**
+     * Returns the number of timers that have not run yet.
+     */
+    public synchronized int getPendingTaskCount() {
+        return pendingCount;
+    }
+
+    private Bucket getBucket(final long tick) {
+        return wheel[(int) (tick & mask)];
+    }
+
+    private void scheduleWakeUp(final long targetTick) {
+        if (targetTick >= wakeUpTick)
+            return;
+        if (wakeUp != null) {
+            wakeUp.cancel();
+        }
+        wakeUpTick = targetTick;
+        wakeUp = scheduler.schedule(wakeUpTask, startTime + targetTick * tickDuration - scheduler.now());
+    }
+
+    private void onWakeUp() {
+        final List<Timeout> expired = new ArrayList<>();
+        synchronized (this) {
+            wakeUp = null;
+            wakeUpTick = Long.MAX_VALUE;
+            final long currentTick = (scheduler.now() - startTime) / tickDuration;
+            // A single rotation visits every bucket, even if the wake up was late by more than a rotation
+            final long lastTick = Math.min(currentTick, tick + wheel.length - 1);
+            for (long t = tick; t <= lastTick; t++) {
+                getBucket(t).expire(currentTick, expired);
+            }
+            tick = Math.max(tick, currentTick + 1);
+            pendingCount -= expired.size();
+            final long nextTick = findNextTick();
+            if (nextTick >= 0) {
+                scheduleWakeUp(nextTick);
+            }
+        }
+        for (Timeout timeout : expired) {
+            if (!timeout.cancelled) {
+                timeout.task.run();
+            }
+        }
+    }
+
+    /**
+     * Returns the first tick whose bucket has timers or -1 if there are no timers.
+     */
+    private long findNextTick() {
+        if (pendingCount == 0)
+            return -1;
+        for (long t = tick; t < tick + wheel.length; t++) {
+            if (!getBucket(t).isEmpty())
+                return t;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,41 @@
+package no.nordicsemi.android.mesh.timer;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Schedules the timers of the mesh stack, such as the segmentation and reassembly timers of the transport layers,
+ * the proxy protocol SAR timer and the transaction timeouts.
+ * <p>
+ * Tasks are run on the thread of the implementation, i.e. the thread of the {@code android.os.Handler} for the
+ * {@code HandlerScheduler}, a thread of the executor for the {@link ExecutorScheduler} or the thread advancing the
+ * clock for the {@link VirtualClockScheduler}.
+ * </p>
+ */
+public interface MeshScheduler {
+
+    /**
+     * A scheduled task that may be cancelled.
+     */
+    interface Cancellable {
+        /**
+         * Cancels the task if it has not run yet.
+         */
+        void cancel();
+    }
+
+    /**
+     * Returns the current time of the scheduler in milliseconds, which is only meaningful relative to other values
+     * returned by the same scheduler.
+     */
+    long now();
+
+    /**
+     * Schedules a task to be run once the delay has elapsed.
+     *
+     * @param task  Task to run.
+     * @param delay Delay in milliseconds, a negative delay is treated as 0.
+     * @return the scheduled task, that may be used to cancel it.
+     */
+    @NonNull
+    Cancellable schedule(@NonNull final Runnable task, final long delay);
+}
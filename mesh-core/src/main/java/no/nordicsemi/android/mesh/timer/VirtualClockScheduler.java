@@ -0,0 +1,93 @@
+package no.nordicsemi.android.mesh.timer;
+
+import java.util.PriorityQueue;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Scheduler driven by a virtual clock, that only moves when it is advanced.
+ * <p>
+ * Tasks are run on the thread advancing the clock, in the order of their deadlines, and tasks with the same deadline
+ * in the order they were scheduled. This makes timing deterministic in tests and benchmarks.
+ * </p>
+ */
+public final class VirtualClockScheduler implements MeshScheduler {
+
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+
+    private final class Task implements Cancellable, Comparable<Task> {
+        private final Runnable runnable;
+        private final long deadline;
+        private final long sequenceNumber;
+
+        private Task(@NonNull final Runnable runnable, final long deadline, final long sequenceNumber) {
+            this.runnable = runnable;
+            this.deadline = deadline;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (VirtualClockScheduler.this) {
+                tasks.remove(this);
+            }
+        }
+
+        @Override
+        public int compareTo(@NonNull final Task task) {
+            if (deadline != task.deadline)
+                return deadline < task.deadline ? -1 : 1;
+            return sequenceNumber < task.sequenceNumber ? -1 : (sequenceNumber == task.sequenceNumber ? 0 : 1);
+        }
+    }
+
+    @Override
+    public synchronized long now() {
+        return now;
+    }
+
+    @NonNull
+    @Override
+    public synchronized Cancellable schedule(@NonNull final Runnable task, final long delay) {
+        final Task scheduledTask = new Task(task, now + Math.max(0, delay), sequence++);
+        tasks.add(scheduledTask);
+        return scheduledTask;
+    }
+
+    /**
+     * Returns the number of tasks that have not run yet.
+     */
+    public synchronized int getPendingTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Advances the clock, running the tasks whose deadline is reached, including tasks scheduled while advancing.
+     *
+     * @param duration Duration in milliseconds.
+     * @throws IllegalArgumentException if the duration is negative.
+     */
+    public void advanceBy(final long duration) {
+        if (duration < 0)
+            throw new IllegalArgumentException("Duration cannot be negative");
+        final long time;
+        synchronized (this) {
+            time = now + duration;
+        }
+        while (true) {
+            final Task task;
+            synchronized (this) {
+                task = tasks.peek();
+                if (task == null || task.deadline > time) {
+                    now = time;
+                    return;
+                }
+                tasks.poll();
+                now = task.deadline;
+            }
+            task.runnable.run();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package no.nordicsemi.android.mesh.utils;
+
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.engines.AESEngine;
+import org.spongycastle.crypto.macs.CMac;
+import org.spongycastle.crypto.params.KeyParameter;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Keyed crypto context holding an AES engine with an already expanded key schedule.
+ * <p>
+ * A context is created once per key and may be reused for any number of AES-ECB, AES-CMAC and AES-CCM operations
+ * using that key, avoiding the engine, parameter and key schedule allocations on every call. All operations write
+ * into caller supplied buffers so that the hot path of encrypting and decrypting PDUs does not allocate.
+ * </p>
+ * <p>
+ * Instances are not thread safe and must be confined to a single thread. Use {@link MeshCrypto#getCryptoContext(byte[])}
+ * to obtain the context of a key for the calling thread.
+ * </p>
+ */
+public final class CryptoContext {
+
+    private static final int BLOCK_SIZE = 16;
+    private static final int MAX_ADDITIONAL_DATA_LENGTH = 0xFF00;
+
+    private final byte[] key;
+    private final AESEngine engine;
+    private final CMac cmac;
+    private final byte[] counterBlock = new byte[BLOCK_SIZE];
+    private final byte[] keyStream = new byte[BLOCK_SIZE];
+    private final byte[] macBlock = new byte[BLOCK_SIZE];
+    private final byte[] inputBlock = new byte[BLOCK_SIZE];
+    private final byte[] receivedMic = new byte[BLOCK_SIZE];
+
+    /**
+     * Constructs a crypto context for the given key.
+     *
+     * @param key 128-bit AES key
+     */
+    public CryptoContext(@NonNull final byte[] key) {
+        if (key.length != BLOCK_SIZE)
+            throw new IllegalArgumentException("Key must be 16-bytes long.");
+        this.key = key.clone();
+        final KeyParameter keyParameter = new KeyParameter(this.key);
+        engine = new AESEngine();
+        engine.init(true, keyParameter);
+        cmac = new CMac(new AESEngine());
+        cmac.init(keyParameter);
+    }
+
+    /**
+     * Returns a copy of the key of this context.
+     */
+    public byte[] getKey() {
+        return key.clone();
+    }
+
+    /**
+     * Encrypts a single 16-byte block using AES-ECB.
+     *
+     * @param in     input buffer
+     * @param inOff  offset of the block in the input buffer
+     * @param out    output buffer
+     * @param outOff offset in the output buffer
+     */
+    public void encryptBlock(@NonNull final byte[] in, final int inOff, @NonNull final byte[] out, final int outOff) {
+        engine.processBlock(in, inOff, out, outOff);
+    }
+
+    /**
+     * Calculates the AES-CMAC of the given data.
+     *
+     * @param in     input buffer
+     * @param inOff  offset of the data in the input buffer
+     * @param len    length of the data
+     * @param out    output buffer, must have room for 16 bytes
+     * @param outOff offset in the output buffer
+     */
+    public void calculateCmac(@NonNull final byte[] in, final int inOff, final int len,
+                              @NonNull final byte[] out, final int outOff) {
+        cmac.update(in, inOff, len);
+        cmac.doFinal(out, outOff);
+    }
+
+    /**
+     * Encrypts and authenticates the given data using AES-CCM. The encrypted data followed by the MIC is written to the output buffer.
+     *
+     * @param nonce          nonce, 7 to 13 bytes long
+     * @param additionalData additional data to be authenticated, may be null
+     * @param micSize        size of the MIC in bytes
+     * @param in             input buffer
+     * @param inOff          offset of the data in the input buffer
+     * @param len            length of the data
+     * @param out            output buffer, must have room for len + micSize bytes
+     * @param outOff         offset in the output buffer
+     * @return number of bytes written to the output buffer
+     */
+    public int encryptCcm(@NonNull final byte[] nonce,
+                          @Nullable final byte[] additionalData,
+                          final int micSize,
+                          @NonNull final byte[] in, final int inOff, final int len,
+                          @NonNull final byte[] out, final int outOff) {
+        validateCcmParameters(nonce, additionalData, micSize);
+        // The MIC must be calculated before encrypting as the output may overlap the input
+        calculateCcmMac(nonce, additionalData, micSize, in, inOff, len);
+        transformCcm(nonce, in, inOff, len, out, outOff);
+        setCounter(nonce, 0);
+        engine.processBlock(counterBlock, 0, keyStream, 0);
+        for (int i = 0; i < micSize; i++) {
+            out[outOff + len + i] = (byte) (macBlock[i] ^ keyStream[i]);
+        }
+        return len + micSize;
+    }
+
+    /**
+     * Decrypts and verifies the given data using AES-CCM.
+     *
+     * @param nonce          nonce, 7 to 13 bytes long
+     * @param additionalData additional data to be authenticated, may be null
+     * @param micSize        size of the MIC in bytes
+     * @param in             input buffer containing the encrypted data followed by the MIC
+     * @param inOff          offset of the data in the input buffer
+     * @param len            length of the encrypted data including the MIC
+     * @param out            output buffer, must have room for len - micSize bytes
+     * @param outOff         offset in the output buffer
+     * @return number of bytes written to the output buffer
+     * @throws InvalidCipherTextException if the MIC does not match
+     */
+    public int decryptCcm(@NonNull final byte[] nonce,
+                          @Nullable final byte[] additionalData,
+                          final int micSize,
+                          @NonNull final byte[] in, final int inOff, final int len,
+                          @NonNull final byte[] out, final int outOff) throws InvalidCipherTextException {
+        final int length = tryDecryptCcm(nonce, additionalData, micSize, in, inOff, len, out, outOff);
+        if (length < 0)
+            throw new InvalidCipherTextException("mac check in CCM failed");
+        return length;
+    }
+
+    /**
+     * Decrypts and verifies the given data using AES-CCM without throwing if the MIC does not match.
+     * <p>
+     * This is to be used when a message is expected to fail authentication with some of the candidate keys or labels,
+     * such as when trying the label UUIDs of a virtual address.
+     * </p>
+     *
+     * @param nonce          nonce, 7 to 13 bytes long
+     * @param additionalData additional data to be authenticated, may be null
+     * @param micSize        size of the MIC in bytes
+     * @param in             input buffer containing the encrypted data followed by the MIC
+     * @param inOff          offset of the data in the input buffer
+     * @param len            length of the encrypted data including the MIC
+     * @param out            output buffer, must have room for len - micSize bytes
+     * @param outOff         offset in the output buffer
+     * @return number of bytes written to the output buffer or -1 if the data is too short or the MIC does not match
+     */
+    public int tryDecryptCcm(@NonNull final byte[] nonce,
+                             @Nullable final byte[] additionalData,
+                             final int micSize,
+                             @NonNull final byte[] in, final int inOff, final int len,
+                             @NonNull final byte[] out, final int outOff) {
+        validateCcmParameters(nonce, additionalData, micSize);
+        final int dataLength = len - micSize;
+        if (dataLength < 0)
+            return -1;
+
+        // The MIC is copied first as the output may overlap the input
+        System.arraycopy(in, inOff + dataLength, receivedMic, 0, micSize);
+        transformCcm(nonce, in, inOff, dataLength, out, outOff);
+        calculateCcmMac(nonce, additionalData, micSize, out, outOff, dataLength);
+        setCounter(nonce, 0);
+        engine.processBlock(counterBlock, 0, keyStream, 0);
+        int diff = 0;
+        for (int i = 0; i < micSize; i++) {
+            diff |= (macBlock[i] ^ keyStream[i]) ^ receivedMic[i];
+        }
+        if (diff != 0) {
+            Arrays.fill(out, outOff, outOff + dataLength, (byte) 0);
+            return -1;
+        }
+        return dataLength;
+    }
+
+    private static void validateCcmParameters(@NonNull final byte[] nonce, @Nullable final byte[] additionalData, final int micSize) {
+        if (nonce.length < 7 || nonce.length > 13)
+            throw new IllegalArgumentException("Nonce must be 7 to 13 bytes long.");
+        if (micSize < 4 || micSize > BLOCK_SIZE || (micSize & 1) != 0)
+            throw new IllegalArgumentException("Invalid MIC size: " + micSize);
+        if (additionalData != null && additionalData.length >= MAX_ADDITIONAL_DATA_LENGTH)
+            throw new IllegalArgumentException("Additional data too long.");
+    }
+
+    /**
+     * Calculates the CBC-MAC of the CCM mode in to {@link #macBlock}.
+     */
+    private void calculateCcmMac(@NonNull final byte[] nonce,
+                                 @Nullable final byte[] additionalData,
+                                 final int micSize,
+                                 @NonNull final byte[] data, final int dataOff, final int dataLength) {
+        final int q = BLOCK_SIZE - 1 - nonce.length;
+        final boolean hasAdditionalData = additionalData != null && additionalData.length > 0;
+
+        // B0
+        inputBlock[0] = (byte) ((hasAdditionalData ? 0x40 : 0x00) | (((micSize - 2) / 2) << 3) | (q - 1));
+        System.arraycopy(nonce, 0, inputBlock, 1, nonce.length);
+        int length = dataLength;
+        for (int i = BLOCK_SIZE - 1; i > nonce.length; i--) {
+            inputBlock[i] = (byte) length;
+            length >>>= 8;
+        }
+        engine.processBlock(inputBlock, 0, macBlock, 0);
+
+        if (hasAdditionalData) {
+            int blockOffset = 2;
+            inputBlock[0] = (byte) (additionalData.length >> 8);
+            inputBlock[1] = (byte) additionalData.length;
+            for (int i = 0; i < additionalData.length; i++) {
+                inputBlock[blockOffset++] = additionalData[i];
+                if (blockOffset == BLOCK_SIZE) {
+                    chainMacBlock(BLOCK_SIZE);
+                    blockOffset = 0;
+                }
+            }
+            if (blockOffset > 0) {
+                chainMacBlock(blockOffset);
+            }
+        }
+
+        for (int offset = 0; offset < dataLength; offset += BLOCK_SIZE) {
+            final int blockLength = Math.min(BLOCK_SIZE, dataLength - offset);
+            System.arraycopy(data, dataOff + offset, inputBlock, 0, blockLength);
+            chainMacBlock(blockLength);
+        }
+    }
+
+    /**
+     * Xors the first length bytes of {@link #inputBlock}, zero padded, in to the MAC and encrypts it.
+     */
+    private void chainMacBlock(final int length) {
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            macBlock[i] ^= i < length ? inputBlock[i] : 0;
+        }
+        engine.processBlock(macBlock, 0, macBlock, 0);
+    }
+
+    /**
+     * Encrypts or decrypts the data using the counter mode of CCM starting with counter 1.
+     */
+    private void transformCcm(@NonNull final byte[] nonce,
+                              @NonNull final byte[] in, final int inOff, final int len,
+                              @NonNull final byte[] out, final int outOff) {
+        int counter = 1;
+        for (int offset = 0; offset < len; offset += BLOCK_SIZE) {
+            setCounter(nonce, counter++);
+            engine.processBlock(counterBlock, 0, keyStream, 0);
+            final int blockLength = Math.min(BLOCK_SIZE, len - offset);
+            for (int i = 0; i < blockLength; i++) {
+                out[outOff + offset + i] = (byte) (in[inOff + offset + i] ^ keyStream[i]);
+            }
+        }
+    }
+
+    private void setCounter(@NonNull final byte[] nonce, int counter) {
+        counterBlock[0] = (byte) (BLOCK_SIZE - 2 - nonce.length);
+        System.arraycopy(nonce, 0, counterBlock, 1, nonce.length);
+        for (int i = BLOCK_SIZE - 1; i > nonce.length; i--) {
+            counterBlock[i] = (byte) counter;
+            counter >>>= 8;
+        }
+    }
+}
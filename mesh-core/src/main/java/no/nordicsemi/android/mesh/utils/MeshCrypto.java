@@ -0,0 +1,590 @@
+package no.nordicsemi.android.mesh.utils;
+
+import org.spongycastle.crypto.InvalidCipherTextException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Mesh security toolbox and network layer crypto that only depend on the JVM.
+ * <p>
+ * This covers the salt generation, AES-CMAC and AES-CCM functions, the k1 to k4 key derivation functions, the identity
+ * and beacon keys, the network and proxy nonces and the obfuscation of the network header. {@code SecureUtils} of the
+ * Android library delegates to this class, so the network, transport and provisioning code of both use the same
+ * per-thread crypto contexts.
+ * </p>
+ */
+@SuppressWarnings({"WeakerAccess", "CharsetObjectCanBeUsed"})
+public final class MeshCrypto {
+
+    private static final byte[] SALT_KEY = new byte[16];
+    private static final byte[] SMK2 = "smk2".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] SMK3 = "smk3".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] SMK3_DATA = "id64".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] SMK4 = "smk4".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] SMK4_DATA = "id6".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] NKIK = "nkik".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] NKBK = "nkbk".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] ID128 = "id128".getBytes(Charset.forName("US-ASCII"));
+    private static final byte[] HASH_PADDING = {0x00, 0x00, 0x00, 0x00, 0x00, 0x00};
+    private static final int HASH_LENGTH = 8;
+    private static final byte NONCE_TYPE_NETWORK = 0x00;
+    private static final byte NONCE_TYPE_PROXY = 0x03;
+    private static final int NETWORK_HEADER_LENGTH = 6;
+    private static final int PRIVACY_RANDOM_LENGTH = 7;
+    /**
+     * Maximum number of crypto contexts cached per thread
+     */
+    private static final int CRYPTO_CONTEXT_CACHE_SIZE = 32;
+    /**
+     * Incremented when the cached crypto contexts of all threads must be discarded
+     */
+    private static final AtomicInteger CRYPTO_CONTEXT_GENERATION = new AtomicInteger();
+    private static final ThreadLocal<CryptoContextCache> CRYPTO_CONTEXTS = new ThreadLocal<CryptoContextCache>() {
+        @Override
+        protected CryptoContextCache initialValue() {
+            return new CryptoContextCache();
+        }
+    };
+
+    private MeshCrypto() {
+    }
+
+    /**
+     * Returns 16 random bytes from a {@link SecureRandom}.
+     */
+    public static byte[] generateRandomNumber() {
+        final byte[] randomBytes = new byte[16];
+        new SecureRandom().nextBytes(randomBytes);
+        return randomBytes;
+    }
+
+    /**
+     * Calculates the salt s1 of the given data.
+     *
+     * @param data data
+     */
+    public static byte[] calculateSalt(@NonNull final byte[] data) {
+        return calculateCMAC(data, SALT_KEY);
+    }
+
+    /**
+     * Calculates the AES-CMAC of the given data.
+     * <p>
+     * This is used by the key derivation and provisioning functions where the key is mostly a transient value, hence
+     * the crypto context of the key is not cached.
+     * </p>
+     *
+     * @param data data
+     * @param key  key
+     */
+    public static byte[] calculateCMAC(@NonNull final byte[] data, @NonNull final byte[] key) {
+        final byte[] cmac = new byte[16];
+        new CryptoContext(key).calculateCmac(data, 0, data.length, cmac, 0);
+        return cmac;
+    }
+
+    /**
+     * Calculates the AES-CMAC of the given data without allocating
+     *
+     * @param in     input buffer
+     * @param inOff  offset of the data in the input buffer
+     * @param len    length of the data
+     * @param key    key
+     * @param out    output buffer, must have room for 16 bytes
+     * @param outOff offset in the output buffer
+     */
+    public static void calculateCMAC(@NonNull final byte[] in, final int inOff, final int len,
+                                     @NonNull final byte[] key,
+                                     @NonNull final byte[] out, final int outOff) {
+        getCryptoContext(key).calculateCmac(in, inOff, len, out, outOff);
+    }
+
+    /**
+     * Encrypts the given data using AES-CCM
+     *
+     * @param data           data
+     * @param key            key
+     * @param nonce          nonce
+     * @param additionalData additional data, may be null
+     * @param micSize        size of the MIC
+     * @return encrypted data followed by the MIC
+     */
+    public static byte[] encryptCCM(@NonNull final byte[] data,
+                                    @NonNull final byte[] key,
+                                    @NonNull final byte[] nonce,
+                                    @Nullable final byte[] additionalData,
+                                    final int micSize) {
+        final byte[] ccm = new byte[data.length + micSize];
+        encryptCCM(data, 0, data.length, key, nonce, additionalData, micSize, ccm, 0);
+        return ccm;
+    }
+
+    /**
+     * Encrypts the given data using AES-CCM without allocating
+     *
+     * @param in             input buffer
+     * @param inOff          offset of the data in the input buffer
+     * @param len            length of the data
+     * @param key            key
+     * @param nonce          nonce
+     * @param additionalData additional data, may be null
+     * @param micSize        size of the MIC
+     * @param out            output buffer, must have room for len + micSize bytes
+     * @param outOff         offset in the output buffer
+     * @return number of bytes written
+     */
+    public static int encryptCCM(@NonNull final byte[] in, final int inOff, final int len,
+                                 @NonNull final byte[] key,
+                                 @NonNull final byte[] nonce,
+                                 @Nullable final byte[] additionalData,
+                                 final int micSize,
+                                 @NonNull final byte[] out, final int outOff) {
+        return getCryptoContext(key).encryptCcm(nonce, additionalData, micSize, in, inOff, len, out, outOff);
+    }
+
+    /**
+     * Decrypts the given data using AES-CCM
+     *
+     * @param data           encrypted data followed by the MIC
+     * @param key            key
+     * @param nonce          nonce
+     * @param additionalData additional data, may be null
+     * @param micSize        size of the MIC
+     * @return decrypted data
+     * @throws InvalidCipherTextException if the MIC does not match
+     */
+    public static byte[] decryptCCM(@NonNull final byte[] data,
+                                    @NonNull final byte[] key,
+                                    @NonNull final byte[] nonce,
+                                    @Nullable final byte[] additionalData,
+                                    final int micSize) throws InvalidCipherTextException {
+        final byte[] ccm = new byte[data.length - micSize];
+        decryptCCM(data, 0, data.length, key, nonce, additionalData, micSize, ccm, 0);
+        return ccm;
+    }
+
+    /**
+     * Decrypts the given data using AES-CCM without allocating
+     *
+     * @param in             input buffer containing the encrypted data followed by the MIC
+     * @param inOff          offset of the data in the input buffer
+     * @param len            length of the data including the MIC
+     * @param key            key
+     * @param nonce          nonce
+     * @param additionalData additional data, may be null
+     * @param micSize        size of the MIC
+     * @param out            output buffer, must have room for len - micSize bytes
+     * @param outOff         offset in the output buffer
+     * @return number of bytes written
+     * @throws InvalidCipherTextException if the MIC does not match
+     */
+    public static int decryptCCM(@NonNull final byte[] in, final int inOff, final int len,
+                                 @NonNull final byte[] key,
+                                 @NonNull final byte[] nonce,
+                                 @Nullable final byte[] additionalData,
+                                 final int micSize,
+                                 @NonNull final byte[] out, final int outOff) throws InvalidCipherTextException {
+        return getCryptoContext(key).decryptCcm(nonce, additionalData, micSize, in, inOff, len, out, outOff);
+    }
+
+    /**
+     * Decrypts and verifies the given data using AES-CCM without throwing if the MIC does not match.
+     *
+     * @param data           encrypted data followed by the MIC
+     * @param key            128-bit key
+     * @param nonce          nonce
+     * @param additionalData additional data to be authenticated, may be null
+     * @param micSize        size of the MIC in bytes
+     * @return decrypted data or null if the MIC does not match
+     */
+    @Nullable
+    public static byte[] tryDecryptCCM(@NonNull final byte[] data,
+                                       @NonNull final byte[] key,
+                                       @NonNull final byte[] nonce,
+                                       @Nullable final byte[] additionalData,
+                                       final int micSize) {
+        if (data.length < micSize)
+            return null;
+        final byte[] ccm = new byte[data.length - micSize];
+        if (getCryptoContext(key).tryDecryptCcm(nonce, additionalData, micSize, data, 0, data.length, ccm, 0) < 0)
+            return null;
+        return ccm;
+    }
+
+    /**
+     * Encrypts a single block using AES-ECB
+     *
+     * @param data 16-byte block
+     * @param key  key
+     */
+    public static byte[] encryptWithAES(@NonNull final byte[] data, @NonNull final byte[] key) {
+        final byte[] encrypted = new byte[data.length];
+        getCryptoContext(key).encryptBlock(data, 0, encrypted, 0);
+        return encrypted;
+    }
+
+    /**
+     * Returns the crypto context of a given key for the calling thread.
+     * <p>
+     * Contexts hold the expanded AES key schedule and are cached per thread, so that repeated operations with the same
+     * network, application or device key do not expand the key again. The least recently used context is evicted once
+     * {@link #CRYPTO_CONTEXT_CACHE_SIZE} keys are cached.
+     * </p>
+     *
+     * @param key 128-bit key
+     */
+    public static CryptoContext getCryptoContext(@NonNull final byte[] key) {
+        final CryptoContextCache contexts = CRYPTO_CONTEXTS.get();
+        final int generation = CRYPTO_CONTEXT_GENERATION.get();
+        if (contexts.generation != generation) {
+            contexts.clear();
+            contexts.generation = generation;
+        }
+        CryptoContext context = contexts.get(ByteBuffer.wrap(key));
+        if (context == null) {
+            context = new CryptoContext(key);
+            contexts.put(ByteBuffer.wrap(context.getKey()), context);
+        }
+        return context;
+    }
+
+    /**
+     * Discards the cached crypto contexts so that expanded keys are not retained once a key is removed or the network is reset.
+     * <p>
+     * The contexts cached by the calling thread are discarded immediately, while the contexts cached by other threads are
+     * discarded the next time those threads obtain a crypto context.
+     * </p>
+     */
+    public static void clearCryptoContexts() {
+        CRYPTO_CONTEXT_GENERATION.incrementAndGet();
+        CRYPTO_CONTEXTS.get().clear();
+    }
+
+    /**
+     * Calculate k1
+     *
+     * @param ecdh             input keying material
+     * @param confirmationSalt salt
+     * @param text             info
+     */
+    public static byte[] calculateK1(@NonNull final byte[] ecdh, @NonNull final byte[] confirmationSalt, @NonNull final byte[] text) {
+        return calculateCMAC(text, calculateCMAC(ecdh, confirmationSalt));
+    }
+
+    /**
+     * Calculate k2
+     *
+     * @param data network key
+     * @param p    master input
+     * @return the NID, encryption key and privacy key or null if the network key or master input is null
+     */
+    @Nullable
+    public static K2 calculateK2(@Nullable final byte[] data, @Nullable final byte[] p) {
+        if (data == null || p == null)
+            return null;
+
+        final byte[] t = calculateCMAC(data, calculateSalt(SMK2));
+
+        final byte[] t1 = calculateCMAC(ByteBuffer.allocate(p.length + 1).put(p).put((byte) 0x01).array(), t);
+        final byte nid = (byte) (t1[15] & 0x7F);
+
+        final byte[] encryptionKey = calculateCMAC(ByteBuffer.allocate(t1.length + p.length + 1)
+                .put(t1).put(p).put((byte) 0x02).array(), t);
+        final byte[] privacyKey = calculateCMAC(ByteBuffer.allocate(encryptionKey.length + p.length + 1)
+                .put(encryptionKey).put(p).put((byte) 0x03).array(), t);
+
+        return new K2(nid, encryptionKey, privacyKey);
+    }
+
+    /**
+     * Calculate k3
+     *
+     * @param n network key
+     * @return the 8-byte network id or null if the network key is null
+     */
+    @Nullable
+    public static byte[] calculateK3(@Nullable final byte[] n) {
+        if (n == null)
+            return null;
+
+        final byte[] t = calculateCMAC(n, calculateSalt(SMK3));
+        final byte[] result = calculateCMAC(ByteBuffer.allocate(SMK3_DATA.length + 1).put(SMK3_DATA).put((byte) 0x01).array(), t);
+
+        //Only the least significant 8 bytes are returned
+        final byte[] networkId = new byte[8];
+        System.arraycopy(result, result.length - networkId.length, networkId, 0, networkId.length);
+        return networkId;
+    }
+
+    /**
+     * Calculate k4
+     *
+     * @param n key
+     * @return the 6-bit application key identifier
+     */
+    public static byte calculateK4(final byte[] n) {
+        if (n == null || n.length != 16)
+            throw new IllegalArgumentException("Key cannot be empty and must be 16-bytes long.");
+
+        final byte[] t = calculateCMAC(n, calculateSalt(SMK4));
+        final byte[] result = calculateCMAC(ByteBuffer.allocate(SMK4_DATA.length + 1).put(SMK4_DATA).put((byte) 0x01).array(), t);
+
+        //Only the least significant 6 bits are returned
+        return (byte) ((result[15]) & 0x3F);
+    }
+
+    /**
+     * Calculates the identity key
+     *
+     * @param n network key
+     * @return identity key or null if the network key is null
+     */
+    @Nullable
+    public static byte[] calculateIdentityKey(@Nullable final byte[] n) {
+        if (n == null)
+            return null;
+        return calculateK1(n, calculateSalt(NKIK), ByteBuffer.allocate(ID128.length + 1).put(ID128).put((byte) 0x01).array());
+    }
+
+    /**
+     * Calculates the beacon key
+     *
+     * @param n network key
+     */
+    public static byte[] calculateBeaconKey(@NonNull final byte[] n) {
+        return calculateK1(n, calculateSalt(NKBK), ByteBuffer.allocate(ID128.length + 1).put(ID128).put((byte) 0x01).array());
+    }
+
+    /**
+     * Calculates the authentication value of secure network beacon
+     *
+     * @param n         network key
+     * @param flags     flags
+     * @param networkId network id of the network
+     * @param ivIndex   ivindex of the network
+     */
+    public static byte[] calculateAuthValueSecureNetBeacon(@NonNull final byte[] n,
+                                                           final int flags,
+                                                           @NonNull final byte[] networkId,
+                                                           final int ivIndex) {
+        final byte[] input = ByteBuffer.allocate(1 + networkId.length + 4)
+                .put((byte) flags)
+                .put(networkId)
+                .putInt(ivIndex)
+                .array();
+        return calculateCMAC(input, calculateBeaconKey(n));
+    }
+
+    /**
+     * Calculates the secure network beacon
+     *
+     * @param n          network key
+     * @param beaconType beacon type
+     * @param flags      network flags, this represents the current state of hte network if key refresh/iv update is ongoing or complete
+     * @param networkId  unique id of the network
+     * @param ivIndex    iv index of the network
+     */
+    public static byte[] calculateSecureNetworkBeacon(@NonNull final byte[] n,
+                                                      final int beaconType,
+                                                      final int flags,
+                                                      @NonNull final byte[] networkId,
+                                                      final int ivIndex) {
+        final byte[] authentication = calculateAuthValueSecureNetBeacon(n, flags, networkId, ivIndex);
+        return ByteBuffer.allocate(1 + 1 + networkId.length + 4 + 8)
+                .put((byte) beaconType)
+                .put((byte) flags)
+                .put(networkId)
+                .putInt(ivIndex)
+                .put(authentication, 0, 8)
+                .array();
+    }
+
+    /**
+     * Calculates hash value for advertising with node id
+     *
+     * @param identityKey resolving identity key
+     * @param random      64-bit random value
+     * @param src         unicast address of the node
+     * @return hash value
+     */
+    public static byte[] calculateHash(@NonNull final byte[] identityKey, @NonNull final byte[] random, @NonNull final byte[] src) {
+        final byte[] hashInput = ByteBuffer.allocate(HASH_PADDING.length + random.length + src.length)
+                .order(ByteOrder.BIG_ENDIAN)
+                .put(HASH_PADDING)
+                .put(random)
+                .put(src)
+                .array();
+        final byte[] hash = encryptWithAES(hashInput, identityKey);
+        final byte[] result = new byte[HASH_LENGTH];
+        System.arraycopy(hash, 8, result, 0, HASH_LENGTH);
+        return result;
+    }
+
+    /**
+     * Gets the network MIC length based on the ctl value
+     *
+     * @param ctl message type, 0 for access messages and 1 for control messages
+     */
+    public static int getNetMicLength(final int ctl) {
+        return ctl == 0 ? 4 : 8;
+    }
+
+    /**
+     * Gets the transport MIC length based on the aszmic value
+     *
+     * @param aszmic application size message integrity check
+     */
+    public static int getTransMicLength(final int aszmic) {
+        return aszmic == 0 ? 4 : 8;
+    }
+
+    /**
+     * Creates the network nonce
+     *
+     * @param ctlTTL         Combined ctl and ttl value
+     * @param sequenceNumber 3-byte sequence number of the message
+     * @param src            Source address
+     * @param ivIndex        4-byte iv index
+     * @return Network nonce
+     */
+    public static byte[] createNetworkNonce(final byte ctlTTL, @NonNull final byte[] sequenceNumber, final int src, @NonNull final byte[] ivIndex) {
+        return ByteBuffer.allocate(13)
+                .put(NONCE_TYPE_NETWORK)
+                .put(ctlTTL)
+                .put(sequenceNumber)
+                .putShort((short) src)
+                .putShort((short) 0) //PAD
+                .put(ivIndex)
+                .array();
+    }
+
+    /**
+     * Creates the proxy nonce
+     *
+     * @param sequenceNumber 3-byte sequence number of the message
+     * @param src            Source address
+     * @param ivIndex        4-byte iv index
+     * @return Proxy nonce
+     */
+    public static byte[] createProxyNonce(@NonNull final byte[] sequenceNumber, final int src, @NonNull final byte[] ivIndex) {
+        return ByteBuffer.allocate(13)
+                .put(NONCE_TYPE_PROXY)
+                .put((byte) 0x00) //PAD
+                .put(sequenceNumber)
+                .putShort((short) src)
+                .putShort((short) 0) //PAD
+                .put(ivIndex)
+                .array();
+    }
+
+    /**
+     * Creates the PECB used to obfuscate the network header
+     *
+     * @param ivIndex       4-byte iv index
+     * @param privacyRandom the first 7 bytes of the encrypted network payload
+     * @param privacyKey    privacy key derived from the network key
+     */
+    public static byte[] createPECB(@NonNull final byte[] ivIndex, @NonNull final byte[] privacyRandom, @NonNull final byte[] privacyKey) {
+        final byte[] input = ByteBuffer.allocate(5 + ivIndex.length + privacyRandom.length)
+                .put(new byte[5])
+                .put(ivIndex)
+                .put(privacyRandom)
+                .array();
+        return encryptWithAES(input, privacyKey);
+    }
+
+    /**
+     * Obfuscates the network header
+     *
+     * @param ctlTTL         Message type and ttl bit
+     * @param sequenceNumber 3-byte sequence number of the message
+     * @param src            Source address
+     * @param pecb           Value derived from the privacy random
+     * @return Obfuscated network header
+     */
+    public static byte[] obfuscateNetworkHeader(final byte ctlTTL, @NonNull final byte[] sequenceNumber, final int src, @NonNull final byte[] pecb) {
+        final byte[] header = ByteBuffer.allocate(NETWORK_HEADER_LENGTH)
+                .order(ByteOrder.BIG_ENDIAN)
+                .put(ctlTTL)
+                .put(sequenceNumber)
+                .putShort((short) src)
+                .array();
+        for (int i = 0; i < NETWORK_HEADER_LENGTH; i++)
+            header[i] ^= pecb[i];
+        return header;
+    }
+
+    /**
+     * De-obfuscates the network header of a network pdu
+     *
+     * @param pdu        network pdu prefixed with the mesh beacon/proxy pdu type, i.e. the header starts at offset 2
+     * @param ivIndex    4-byte iv index
+     * @param privacyKey privacy key derived from the network key
+     * @return the CTL, TTL, sequence number and source address
+     */
+    public static byte[] deObfuscateNetworkHeader(@NonNull final byte[] pdu,
+                                                  @NonNull final byte[] ivIndex,
+                                                  @NonNull final byte[] privacyKey) {
+        final byte[] privacyRandom = new byte[PRIVACY_RANDOM_LENGTH];
+        System.arraycopy(pdu, 2 + NETWORK_HEADER_LENGTH, privacyRandom, 0, PRIVACY_RANDOM_LENGTH);
+        final byte[] pecb = createPECB(ivIndex, privacyRandom, privacyKey);
+
+        final byte[] header = new byte[NETWORK_HEADER_LENGTH];
+        for (int i = 0; i < NETWORK_HEADER_LENGTH; i++)
+            header[i] = (byte) (pdu[2 + i] ^ pecb[i]);
+        return header;
+    }
+
+    /**
+     * Output of the k2 function.
+     */
+    public static final class K2 {
+        private final byte nid;
+        private final byte[] encryptionKey;
+        private final byte[] privacyKey;
+
+        K2(final byte nid, @NonNull final byte[] encryptionKey, @NonNull final byte[] privacyKey) {
+            this.nid = nid;
+            this.encryptionKey = encryptionKey;
+            this.privacyKey = privacyKey;
+        }
+
+        public byte getNid() {
+            return nid;
+        }
+
+        public byte[] getEncryptionKey() {
+            return encryptionKey;
+        }
+
+        public byte[] getPrivacyKey() {
+            return privacyKey;
+        }
+    }
+
+    /**
+     * Least recently used crypto contexts of a thread.
+     */
+    private static final class CryptoContextCache extends LinkedHashMap<ByteBuffer, CryptoContext> {
+
+        private int generation = CRYPTO_CONTEXT_GENERATION.get();
+
+        CryptoContextCache() {
+            super(CRYPTO_CONTEXT_CACHE_SIZE, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, CryptoContext> eldest) {
+            return size() > CRYPTO_CONTEXT_CACHE_SIZE;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package no.nordicsemi.android.mesh.timer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HashedWheelSchedulerTest {
+
+    private final VirtualClockScheduler clock = new VirtualClockScheduler();
+    private final HashedWheelScheduler wheel = new HashedWheelScheduler(clock, 10, 8);
+    private final List<Long> fired = new ArrayList<>();
+
+    @Test
+    public void testTimersRunAtTheirDeadlineTick() {
+        schedule(25);
+        schedule(5);
+        schedule(10);
+        // A single timer of the underlying scheduler is pending at any time
+        assertEquals(1, clock.getPendingTaskCount());
+        assertEquals(3, wheel.getPendingTaskCount());
+
+        clock.advanceBy(30);
+        assertEquals(Arrays.asList(10L, 10L, 30L), fired);
+        assertEquals(0, wheel.getPendingTaskCount());
+        assertEquals(0, clock.getPendingTaskCount());
+    }
+
+    @Test
+    public void testTimersBeyondARotation() {
+        // 8 ticks of 10 ms make a rotation of 80 ms
+        schedule(85);
+        schedule(250);
+        clock.advanceBy(80);
+        assertTrue(fired.isEmpty());
+        clock.advanceBy(10);
+        assertEquals(Arrays.asList(90L), fired);
+        clock.advanceBy(1000);
+        assertEquals(Arrays.asList(90L, 250L), fired);
+    }
+
+    @Test
+    public void testCancelledTimersDoNotRun() {
+        final MeshScheduler.Cancellable first = schedule(20);
+        schedule(40);
+        first.cancel();
+        assertEquals(1, wheel.getPendingTaskCount());
+        clock.advanceBy(100);
+        assertEquals(Arrays.asList(40L), fired);
+    }
+
+    @Test
+    public void testTimersScheduledFromATimer() {
+        wheel.schedule(() -> schedule(15), 10);
+        clock.advanceBy(50);
+        assertEquals(Arrays.asList(30L), fired);
+    }
+
+    private MeshScheduler.Cancellable schedule(final long delay) {
+        return wheel.schedule(() -> fired.add(clock.now()), delay);
+    }
+}
@@ -0,0 +1,153 @@
+package no.nordicsemi.android.mesh.utils;
+
+import org.junit.Test;
+import org.spongycastle.crypto.InvalidCipherTextException;
+import org.spongycastle.crypto.engines.AESEngine;
+import org.spongycastle.crypto.modes.CCMBlockCipher;
+import org.spongycastle.crypto.params.AEADParameters;
+import org.spongycastle.crypto.params.KeyParameter;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class CryptoContextTest {
+
+    private static final int[] MIC_SIZES = {4, 6, 8, 10, 12, 14, 16};
+
+    @Test
+    public void testCcmMatchesReferenceImplementation() throws InvalidCipherTextException {
+        final Random random = new Random(0x5EED);
+        for (int i = 0; i < 2000; i++) {
+            final byte[] key = randomBytes(random, 16);
+            final byte[] nonce = randomBytes(random, 7 + random.nextInt(7));
+            final byte[] data = randomBytes(random, random.nextInt(80));
+            final int micSize = MIC_SIZES[random.nextInt(MIC_SIZES.length)];
+            final byte[] additionalData;
+            switch (random.nextInt(3)) {
+                case 0:
+                    additionalData = null;
+                    break;
+                case 1:
+                    additionalData = new byte[0];
+                    break;
+                default:
+                    additionalData = randomBytes(random, 1 + random.nextInt(40));
+                    break;
+            }
+
+            final byte[] expected = referenceCcm(true, key, nonce, additionalData, micSize, data);
+            final CryptoContext context = new CryptoContext(key);
+            final byte[] encrypted = new byte[data.length + micSize];
+            assertEquals(encrypted.length, context.encryptCcm(nonce, additionalData, micSize, data, 0, data.length, encrypted, 0));
+            assertArrayEquals(expected, encrypted);
+
+            final byte[] decrypted = new byte[data.length];
+            assertEquals(data.length, context.decryptCcm(nonce, additionalData, micSize, encrypted, 0, encrypted.length, decrypted, 0));
+            assertArrayEquals(data, decrypted);
+            assertArrayEquals(data, referenceCcm(false, key, nonce, additionalData, micSize, encrypted));
+
+            encrypted[random.nextInt(encrypted.length)] ^= (byte) (1 + random.nextInt(0xFF));
+            assertEquals(-1, context.tryDecryptCcm(nonce, additionalData, micSize, encrypted, 0, encrypted.length, decrypted, 0));
+        }
+    }
+
+    @Test
+    public void testCcmInPlaceMatchesReferenceImplementation() throws InvalidCipherTextException {
+        final Random random = new Random(0xCC3);
+        for (int i = 0; i < 500; i++) {
+            final byte[] key = randomBytes(random, 16);
+            final byte[] nonce = randomBytes(random, 13);
+            final byte[] additionalData = random.nextBoolean() ? randomBytes(random, 16) : null;
+            final byte[] data = randomBytes(random, random.nextInt(64));
+            final int micSize = random.nextBoolean() ? 4 : 8;
+            final int offset = random.nextInt(10);
+
+            final byte[] buffer = new byte[offset + data.length + micSize];
+            System.arraycopy(data, 0, buffer, offset, data.length);
+            MeshCrypto.encryptCCM(buffer, offset, data.length, key, nonce, additionalData, micSize, buffer, offset);
+            assertArrayEquals(referenceCcm(true, key, nonce, additionalData, micSize, data),
+                    Arrays.copyOfRange(buffer, offset, buffer.length));
+
+            MeshCrypto.decryptCCM(buffer, offset, data.length + micSize, key, nonce, additionalData, micSize, buffer, offset);
+            assertArrayEquals(data, Arrays.copyOfRange(buffer, offset, offset + data.length));
+        }
+    }
+
+    @Test
+    public void testCcmOffsetsWithMeshSampleData() throws InvalidCipherTextException {
+        // Message #16, device key secured upper transport pdu
+        final byte[] deviceKey = toByteArray("9d6dd0e96eb25dc19a40ed9914f8f03f");
+        final byte[] deviceNonce = toByteArray("02000000061201000312345678");
+        final byte[] accessPayload = toByteArray("800300563412");
+        final byte[] upperTransportPdu = toByteArray("89511bf1d1a81c11dcef");
+
+        // The access payload is placed after a lower transport header, as it is when a pdu is assembled
+        final byte[] buffer = new byte[1 + upperTransportPdu.length];
+        System.arraycopy(accessPayload, 0, buffer, 1, accessPayload.length);
+        assertEquals(upperTransportPdu.length,
+                MeshCrypto.encryptCCM(buffer, 1, accessPayload.length, deviceKey, deviceNonce, null, 4, buffer, 1));
+        assertArrayEquals(upperTransportPdu, Arrays.copyOfRange(buffer, 1, buffer.length));
+
+        final byte[] decrypted = new byte[3 + accessPayload.length];
+        assertEquals(accessPayload.length,
+                MeshCrypto.decryptCCM(buffer, 1, upperTransportPdu.length, deviceKey, deviceNonce, null, 4, decrypted, 3));
+        assertArrayEquals(accessPayload, Arrays.copyOfRange(decrypted, 3, decrypted.length));
+    }
+
+    @Test
+    public void testClearCryptoContexts() throws InterruptedException {
+        final byte[] key = toByteArray("63964771734fbd76e3b40519d1d94a48");
+        final CryptoContext context = MeshCrypto.getCryptoContext(key);
+        assertSame(context, MeshCrypto.getCryptoContext(key));
+
+        final AtomicReference<CryptoContext> otherThreadContext = new AtomicReference<>();
+        final Thread thread = new Thread(() -> otherThreadContext.set(MeshCrypto.getCryptoContext(key)));
+        thread.start();
+        thread.join();
+        assertNotSame(context, otherThreadContext.get());
+
+        MeshCrypto.clearCryptoContexts();
+        final CryptoContext newContext = MeshCrypto.getCryptoContext(key);
+        assertNotSame(context, newContext);
+        assertSame(newContext, MeshCrypto.getCryptoContext(key));
+    }
+
+    @Test
+    public void testTransientKeysAreNotCached() {
+        final byte[] key = toByteArray("63964771734fbd76e3b40519d1d94a48");
+        final CryptoContext context = MeshCrypto.getCryptoContext(key);
+        // Key derivation must not evict the contexts of the keys used to secure pdus
+        for (int i = 0; i < 64; i++) {
+            MeshCrypto.calculateK4(MeshCrypto.generateRandomNumber());
+        }
+        assertSame(context, MeshCrypto.getCryptoContext(key));
+    }
+
+    private static byte[] referenceCcm(final boolean encrypt, final byte[] key, final byte[] nonce, final byte[] additionalData,
+                                       final int micSize, final byte[] data) throws InvalidCipherTextException {
+        final CCMBlockCipher cipher = new CCMBlockCipher(new AESEngine());
+        cipher.init(encrypt, new AEADParameters(new KeyParameter(key), micSize * 8, nonce, additionalData));
+        final byte[] out = new byte[cipher.getOutputSize(data.length)];
+        cipher.doFinal(out, cipher.processBytes(data, 0, data.length, out, 0));
+        return out;
+    }
+
+    private static byte[] randomBytes(final Random random, final int length) {
+        final byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    static byte[] toByteArray(final String hex) {
+        final byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++)
+            bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+        return bytes;
+    }
+}
@@ -0,0 +1,63 @@
+package no.nordicsemi.android.mesh.utils;
+
+import org.junit.Test;
+
+import static no.nordicsemi.android.mesh.utils.CryptoContextTest.toByteArray;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Sample data of the Mesh Profile specification, section 8.
+ */
+public class MeshCryptoTest {
+
+    private static final byte[] NETWORK_KEY = toByteArray("7dd7364cd842ad18c17c2b820c84c3d6");
+    private static final byte[] IV_INDEX = toByteArray("12345678");
+
+    @Test
+    public void testSalt() {
+        assertArrayEquals(toByteArray("b73cefbd641ef2ea598c2b6efb62f79c"), MeshCrypto.calculateSalt("test".getBytes()));
+    }
+
+    @Test
+    public void testK2() {
+        final MeshCrypto.K2 k2 = MeshCrypto.calculateK2(NETWORK_KEY, new byte[]{0x00});
+        assertEquals(0x68, k2.getNid());
+        assertArrayEquals(toByteArray("0953fa93e7caac9638f58820220a398e"), k2.getEncryptionKey());
+        assertArrayEquals(toByteArray("8b84eedec100067d670971dd2aa700cf"), k2.getPrivacyKey());
+        assertNull(MeshCrypto.calculateK2(null, new byte[]{0x00}));
+    }
+
+    @Test
+    public void testK3() {
+        assertArrayEquals(toByteArray("ff046958233db014"), MeshCrypto.calculateK3(toByteArray("f7a2a44f8e8a8029064f173ddc1e2b00")));
+    }
+
+    @Test
+    public void testK4() {
+        assertEquals(0x38, MeshCrypto.calculateK4(toByteArray("3216d1509884b533248541792b877f98")));
+    }
+
+    @Test
+    public void testNetworkNonce() {
+        assertArrayEquals(toByteArray("00800000011201000012345678"),
+                MeshCrypto.createNetworkNonce((byte) 0x80, toByteArray("000001"), 0x1201, IV_INDEX));
+    }
+
+    @Test
+    public void testNetworkHeaderObfuscation() {
+        final byte[] privacyKey = MeshCrypto.calculateK2(NETWORK_KEY, new byte[]{0x00}).getPrivacyKey();
+        // Message #1, prefixed with the network pdu type
+        final byte[] pdu = toByteArray("0068eca487516765b5e5bfdacbaf6cb7fb6bff871f035444ce83a670df");
+        final byte[] header = toByteArray("800000011201");
+        assertArrayEquals(header, MeshCrypto.deObfuscateNetworkHeader(pdu, IV_INDEX, privacyKey));
+
+        final byte[] privacyRandom = new byte[7];
+        System.arraycopy(pdu, 8, privacyRandom, 0, privacyRandom.length);
+        final byte[] pecb = MeshCrypto.createPECB(IV_INDEX, privacyRandom, privacyKey);
+        final byte[] obfuscated = new byte[6];
+        System.arraycopy(pdu, 2, obfuscated, 0, obfuscated.length);
+        assertArrayEquals(obfuscated, MeshCrypto.obfuscateNetworkHeader((byte) 0x80, toByteArray("000001"), 0x1201, pecb));
+    }
+}
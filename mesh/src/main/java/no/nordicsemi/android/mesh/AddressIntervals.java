@@ -0,0 +1,168 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import androidx.annotation.Nullable;
+
+/**
+ * Set of occupied addresses, or scene numbers, kept as sorted, disjoint and non-adjacent intervals.
+ * <p>
+ * Adjacent intervals are merged as they are added, so a block of consecutively allocated addresses is stored as a
+ * single interval and looking up the first free block in a range costs O(log n) plus one step for each gap that is too
+ * small for the requested size.
+ * </p>
+ */
+final class AddressIntervals {
+
+    // Low bound of each interval mapped to its high bound, both inclusive
+    private final TreeMap<Integer, Integer> intervals = new TreeMap<>();
+
+    /**
+     * Removes all intervals.
+     */
+    void clear() {
+        intervals.clear();
+    }
+
+    /**
+     * Returns the number of disjoint intervals in the set.
+     */
+    int getIntervalCount() {
+        return intervals.size();
+    }
+
+    /**
+     * Marks an address as occupied.
+     *
+     * @param address Address.
+     */
+    void add(final int address) {
+        add(address, address);
+    }
+
+    /**
+     * Marks a range of addresses as occupied.
+     *
+     * @param low  Low address, inclusive.
+     * @param high High address, inclusive.
+     * @throws IllegalArgumentException if the low address is greater than the high address.
+     */
+    void add(final int low, final int high) {
+        if (low > high)
+            throw new IllegalArgumentException("Low address must not be greater than the high address.");
+        int mergedLow = low;
+        int mergedHigh = high;
+        final Map.Entry<Integer, Integer> floor = intervals.floorEntry(low);
+        if (floor != null && floor.getValue() >= low - 1) {
+            if (floor.getValue() >= high)
+                return;
+            mergedLow = floor.getKey();
+            mergedHigh = Math.max(high, floor.getValue());
+            intervals.remove(floor.getKey());
+        }
+        Map.Entry<Integer, Integer> next = intervals.higherEntry(mergedLow);
+        while (next != null && next.getKey() <= mergedHigh + 1) {
+            mergedHigh = Math.max(mergedHigh, next.getValue());
+            intervals.remove(next.getKey());
+            next = intervals.higherEntry(mergedLow);
+        }
+        intervals.put(mergedLow, mergedHigh);
+    }
+
+    /**
+     * Returns true if the address is occupied.
+     *
+     * @param address Address.
+     */
+    boolean contains(final int address) {
+        final Map.Entry<Integer, Integer> floor = intervals.floorEntry(address);
+        return floor != null && floor.getValue() >= address;
+    }
+
+    /**
+     * Returns the lowest address of the first free block of the given size within a range or -1 if there is none.
+     *
+     * @param low  Low address of the range, inclusive.
+     * @param high High address of the range, inclusive.
+     * @param size Number of consecutive addresses required.
+     */
+    int firstFit(final int low, final int high, final int size) {
+        int start = low;
+        final Map.Entry<Integer, Integer> floor = intervals.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            start = floor.getValue() + 1;
+        }
+        while (start + size - 1 <= high) {
+            // The start address is free, so the next occupied interval begins after it
+            final Map.Entry<Integer, Integer> next = intervals.higherEntry(start);
+            if (next == null || next.getKey() - start >= size) {
+                return start;
+            }
+            start = next.getValue() + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the lowest address of the smallest free block of at least the given size within a range, or -1 if there is none.
+     *
+     * @param low  Low address of the range, inclusive.
+     * @param high High address of the range, inclusive.
+     * @param size Number of consecutive addresses required.
+     */
+    int bestFit(final int low, final int high, final int size) {
+        int best = -1;
+        int bestSize = Integer.MAX_VALUE;
+        int start = low;
+        for (Map.Entry<Integer, Integer> interval : intervals.tailMap(getFloorKey(low), true).entrySet()) {
+            if (interval.getValue() < start)
+                continue;
+            if (interval.getKey() > high)
+                break;
+            final int gap = interval.getKey() - start;
+            if (gap >= size && gap < bestSize) {
+                best = start;
+                bestSize = gap;
+            }
+            start = interval.getValue() + 1;
+        }
+        final int gap = high - start + 1;
+        if (gap >= size && gap < bestSize) {
+            best = start;
+        }
+        return best;
+    }
+
+    /**
+     * Returns the largest free block within a range as an array containing its low and high addresses, or null if the
+     * range is fully occupied.
+     *
+     * @param low  Low address of the range, inclusive.
+     * @param high High address of the range, inclusive.
+     */
+    @Nullable
+    int[] largestGap(final int low, final int high) {
+        int[] largest = null;
+        int start = low;
+        for (Map.Entry<Integer, Integer> interval : intervals.tailMap(getFloorKey(low), true).entrySet()) {
+            if (interval.getValue() < start)
+                continue;
+            if (interval.getKey() > high)
+                break;
+            if (interval.getKey() > start && (largest == null || interval.getKey() - start > largest[1] - largest[0] + 1)) {
+                largest = new int[]{start, interval.getKey() - 1};
+            }
+            start = interval.getValue() + 1;
+        }
+        if (start <= high && (largest == null || high - start > largest[1] - largest[0])) {
+            largest = new int[]{start, high};
+        }
+        return largest;
+    }
+
+    private int getFloorKey(final int address) {
+        final Integer floor = intervals.floorKey(address);
+        return floor == null ? address : floor;
+    }
+}
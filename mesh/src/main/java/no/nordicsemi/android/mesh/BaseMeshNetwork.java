@@ -26,6 +26,7 @@ import androidx.room.Ignore;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.transport.CompositionDataTemplate;
 import no.nordicsemi.android.mesh.transport.ConfigAppKeyUpdate;
 import no.nordicsemi.android.mesh.transport.ConfigKeyRefreshPhaseSet;
 import no.nordicsemi.android.mesh.transport.ConfigNetKeyUpdate;
@@ -132,6 +133,18 @@ abstract class BaseMeshNetwork {
     @Expose(serialize = false, deserialize = false)
     private ProxyFilter proxyFilter;
     @Ignore
+    private final NodeIndex nodeIndex = new NodeIndex();
+    @Ignore
+    private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+    @Ignore
+    private final UnicastAddressAllocator unicastAddressAllocator = new UnicastAddressAllocator();
+    @Ignore
+    final VirtualAddressIndex virtualAddressIndex = new VirtualAddressIndex();
+    @Ignore
+    final SecureNetworkBeaconCache secureNetworkBeaconCache = new SecureNetworkBeaconCache();
+    @Ignore
+    final MeshNetworkChanges changes = new MeshNetworkChanges();
+    @Ignore
     protected final Comparator<ProvisionedMeshNode> nodeComparator = (node1, node2) ->
             Integer.compare(node1.getUnicastAddress(), node2.getUnicastAddress());
     @Ignore
@@ -187,6 +200,7 @@ abstract class BaseMeshNetwork {
         } else {
             newNetKey.setMeshUuid(meshUUID);
             netKeys.add(newNetKey);
+            NetworkKey.onKeysChanged();
             notifyNetKeyAdded(newNetKey);
         }
         return true;
@@ -197,6 +211,7 @@ abstract class BaseMeshNetwork {
             return 0;
         } else {
             Collections.sort(netKeys, netKeyComparator);
+            NetworkKey.onKeysChanged();
             final int index = netKeys.size() - 1;
             return netKeys.get(index).getKeyIndex() + 1;
         }
@@ -393,6 +408,8 @@ abstract class BaseMeshNetwork {
     public boolean removeNetKey(@NonNull final NetworkKey networkKey) throws IllegalArgumentException {
         if (!isKeyInUse(networkKey)) {
             if (netKeys.remove(networkKey)) {
+                NetworkKey.onKeysChanged();
+                SecureUtils.clearCryptoContexts();
                 notifyNetKeyDeleted(networkKey);
                 return true;
             } else {
@@ -636,6 +653,7 @@ abstract class BaseMeshNetwork {
                 if (tempKey.getKeyIndex() == key.getKeyIndex()) {
                     netKey = (NetworkKey) key;
                     netKeys.set(i, netKey);
+                    NetworkKey.onKeysChanged();
                     break;
                 }
             }
@@ -659,6 +677,7 @@ abstract class BaseMeshNetwork {
             throw new IllegalArgumentException("Unable to delete an app key that's in use.");
         } else {
             if (appKeys.remove(appKey)) {
+                SecureUtils.clearCryptoContexts();
                 notifyAppKeyDeleted(appKey);
                 return true;
             } else {
@@ -740,12 +759,8 @@ abstract class BaseMeshNetwork {
         if (address == null)
             return false;
 
-        for (ProvisionedMeshNode node : nodes) {
-            if (address == node.getUnicastAddress()) {
-                return true;
-            }
-        }
-        return false;
+        final ProvisionedMeshNode node = getNode(address);
+        return node != null && node.getUnicastAddress() == address;
     }
 
     public int getGlobalTtl() {
@@ -863,6 +878,9 @@ abstract class BaseMeshNetwork {
         if (provisioner.getProvisionerAddress() != null) {
             final ProvisionedMeshNode node = new ProvisionedMeshNode(provisioner, netKeys, appKeys);
             nodes.add(node);
+            nodeIndex.add(nodes, node);
+            subscriptionIndex.add(nodes, node);
+            unicastAddressAllocator.add(nodes, node);
             notifyNodeAdded(node);
         }
         return true;
@@ -928,6 +946,9 @@ abstract class BaseMeshNetwork {
                 if (node == null) {
                     node = new ProvisionedMeshNode(provisioner, netKeys, appKeys);
                     nodes.add(node);
+                    nodeIndex.add(nodes, node);
+                    subscriptionIndex.add(nodes, node);
+                    unicastAddressAllocator.add(nodes, node);
                     notifyNodeAdded(node);
                 } else {
                     for (int i = 0; i < nodes.size(); i++) {
@@ -942,6 +963,9 @@ abstract class BaseMeshNetwork {
                             node = new ProvisionedMeshNode(provisioner, netKeys, appKeys);
                             node.setSequenceNumber(sequenceNumber);
                             nodes.set(i, node);
+                            nodeIndex.replace(nodes, meshNode, node);
+                            subscriptionIndex.replace(nodes, meshNode, node);
+                            unicastAddressAllocator.remove();
                             notifyNodeUpdated(node);
                             break;
                         }
@@ -969,6 +993,9 @@ abstract class BaseMeshNetwork {
         if (node == null)
             return true;
         else if (nodes.remove(node)) {
+            nodeIndex.remove(nodes, node);
+            subscriptionIndex.remove(nodes, node);
+            unicastAddressAllocator.remove();
             provisioner.assignProvisionerAddress(null);
             notifyNodeDeleted(node);
             return true;
@@ -1069,6 +1096,93 @@ abstract class BaseMeshNetwork {
      */
     void setNodes(@NonNull List<ProvisionedMeshNode> nodes) {
         this.nodes = nodes;
+        nodeIndex.rebuild(nodes);
+        subscriptionIndex.invalidate();
+        unicastAddressAllocator.invalidate();
+    }
+
+    /**
+     * Returns the node index, rebuilding it if the list of nodes has changed since it was last indexed.
+     */
+    private NodeIndex getNodeIndex() {
+        if (!nodeIndex.isIndexed(nodes)) {
+            nodeIndex.rebuild(nodes);
+        }
+        return nodeIndex;
+    }
+
+    /**
+     * Returns the subscription index, rebuilding it if the list of nodes has changed since it was last indexed.
+     */
+    SubscriptionIndex getSubscriptionIndex() {
+        if (!subscriptionIndex.isIndexed(nodes)) {
+            subscriptionIndex.rebuild(nodes);
+        }
+        return subscriptionIndex;
+    }
+
+    /**
+     * Returns the unicast address allocator, rebuilding it if the list of nodes, the exclusion list or the IV Index have
+     * changed since it was last built.
+     */
+    private UnicastAddressAllocator getUnicastAddressAllocator() {
+        if (!unicastAddressAllocator.isIndexed(nodes, networkExclusions, ivIndex.getIvIndex())) {
+            unicastAddressAllocator.rebuild(nodes, networkExclusions, ivIndex.getIvIndex());
+        }
+        return unicastAddressAllocator;
+    }
+
+    /**
+     * Returns the next available unicast address for the given number of elements within the given ranges.
+     *
+     * @param elementCount Number of elements.
+     * @param ranges       Allocated unicast ranges.
+     * @return Allocated unicast address or -1 if none
+     */
+    int nextAvailableUnicastAddress(final int elementCount, @NonNull final List<AllocatedUnicastRange> ranges) {
+        return getUnicastAddressAllocator().nextAvailableAddress(elementCount, ranges);
+    }
+
+    /**
+     * Invalidates the node indexes and the unicast address allocator. This must be called when the list of nodes has
+     * been modified directly.
+     */
+    void invalidateNodeIndex() {
+        nodeIndex.invalidate();
+        subscriptionIndex.invalidate();
+        unicastAddressAllocator.invalidate();
+    }
+
+    /**
+     * Updates the node indexes after the elements or the subscriptions of a node have changed.
+     *
+     * @param node Node that was updated.
+     */
+    void updateNodeIndexes(@NonNull final ProvisionedMeshNode node) {
+        subscriptionIndex.update(nodes, node);
+        unicastAddressAllocator.update(nodes, node);
+    }
+
+    /**
+     * Adds a newly provisioned node to the list of nodes, replacing a node with the same UUID if there is one.
+     *
+     * @param meshNode Provisioned node.
+     */
+    void addProvisionedNode(@NonNull final ProvisionedMeshNode meshNode) {
+        for (int i = 0; i < nodes.size(); i++) {
+            final ProvisionedMeshNode node = nodes.get(i);
+            if (meshNode.getUuid().equals(node.getUuid())) {
+                nodes.remove(i);
+                nodeIndex.remove(nodes, node);
+                subscriptionIndex.remove(nodes, node);
+                unicastAddressAllocator.remove();
+                break;
+            }
+        }
+        nodes.add(meshNode);
+        nodeIndex.add(nodes, meshNode);
+        subscriptionIndex.add(nodes, meshNode);
+        unicastAddressAllocator.add(nodes, meshNode);
     }
 
     /**
@@ -1094,12 +1208,7 @@ abstract class BaseMeshNetwork {
      * @param unicastAddress unicast address of the node
      */
     public ProvisionedMeshNode getNode(@NonNull final byte[] unicastAddress) {
-        for (ProvisionedMeshNode node : nodes) {
-            if (node.hasUnicastAddress(MeshAddress.addressBytesToInt(unicastAddress))) {
-                return node;
-            }
-        }
-        return null;
+        return getNode((int) MeshAddress.addressBytesToInt(unicastAddress));
     }
 
     /**
@@ -1110,12 +1219,24 @@ abstract class BaseMeshNetwork {
     public ProvisionedMeshNode getNode(final Integer unicastAddress) {
         if(unicastAddress == null)
             return null;
-        for (ProvisionedMeshNode node : nodes) {
-            if (node.hasUnicastAddress(unicastAddress)) {
-                return node;
-            }
-        }
-        return null;
+        ProvisionedMeshNode node = getNodeIndex().getNode(unicastAddress);
+        if (node == null || node.hasUnicastAddress(unicastAddress))
+            return node;
+        // The elements of the node have changed since it was indexed
+        nodeIndex.rebuild(nodes);
+        node = nodeIndex.getNode(unicastAddress);
+        return node != null && node.hasUnicastAddress(unicastAddress) ? node : null;
+    }
+
+    /**
+     * Returns the element with the corresponding unicast address
+     *
+     * @param address unicast address of the element
+     */
+    @Nullable
+    public Element getElement(final int address) {
+        final ProvisionedMeshNode node = getNode(address);
+        return node == null ? null : node.getElements().get(address);
     }
 
     /**
@@ -1124,11 +1245,9 @@ abstract class BaseMeshNetwork {
      * @param uuid unicast address of the node
      */
     public ProvisionedMeshNode getNode(final String uuid) {
-        for (ProvisionedMeshNode node : nodes) {
-            if (node.getUuid().equalsIgnoreCase(uuid)) {
-                return node;
-            }
-        }
+        final ProvisionedMeshNode node = getNodeIndex().getNode(uuid);
+        if (node != null && node.getUuid().equalsIgnoreCase(uuid))
+            return node;
         return null;
     }
 
@@ -1150,6 +1269,73 @@ abstract class BaseMeshNetwork {
         return true;
     }
 
+    /**
+     * Returns the composition data template of the product with the given identifiers, or null if the composition
+     * data of such product has not been received yet.
+     *
+     * @param companyIdentifier 16-bit company identifier assigned by Bluetooth SIG
+     * @param productIdentifier 16-bit vendor assigned product identifier
+     * @param versionIdentifier 16-bit vendor assigned product version identifier
+     * @return {@link CompositionDataTemplate} or null otherwise
+     */
+    @Nullable
+    public CompositionDataTemplate getCompositionDataTemplate(final int companyIdentifier,
+                                                              final int productIdentifier,
+                                                              final int versionIdentifier) {
+        final CompositionDataTemplate template = CompositionDataTemplate.find(companyIdentifier, productIdentifier, versionIdentifier);
+        if (template != null)
+            return template;
+        // Templates are not persisted, so look for a node of the same product that was configured in a previous session
+        for (ProvisionedMeshNode node : nodes) {
+            final Integer cid = node.getCompanyIdentifier();
+            final Integer pid = node.getProductIdentifier();
+            final Integer vid = node.getVersionIdentifier();
+            if (cid != null && cid == companyIdentifier &&
+                    pid != null && pid == productIdentifier &&
+                    vid != null && vid == versionIdentifier &&
+                    !node.getElements().isEmpty()) {
+                return CompositionDataTemplate.fromNode(node);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Applies the composition data of a product to a node of the same product, so that the node does not have to
+     * be sent a {@link no.nordicsemi.android.mesh.transport.ConfigCompositionDataGet}.
+     *
+     * @param node     {@link ProvisionedMeshNode}
+     * @param template Composition data template of the product
+     * @return true if successful and false if the node is not part of the network or its composition data is already known
+     */
+    public boolean applyCompositionDataTemplate(@NonNull final ProvisionedMeshNode node,
+                                                @NonNull final CompositionDataTemplate template) {
+        final ProvisionedMeshNode meshNode = getNode(node.getUuid());
+        if (meshNode == null)
+            return false;
+        // Elements of a node that has already been configured must not be replaced, as that would drop its configuration
+        if (hasCompositionData(meshNode))
+            return false;
+        meshNode.setCompositionData(template);
+        updateNodeIndexes(meshNode);
+        notifyNodeUpdated(meshNode);
+        return true;
+    }
+
+    /**
+     * Returns true if the composition data of the node is known. Nodes that have just been provisioned only contain
+     * placeholder elements without models occupying their addresses.
+     */
+    private static boolean hasCompositionData(@NonNull final ProvisionedMeshNode node) {
+        if (node.getCompanyIdentifier() != null)
+            return true;
+        for (Element element : node.getElements().values()) {
+            if (!element.getMeshModels().isEmpty())
+                return true;
+        }
+        return false;
+    }
+
     /**
      * Adds a mesh node to the list of provisioned nodes
      *
@@ -1194,12 +1380,18 @@ abstract class BaseMeshNetwork {
         for (ProvisionedMeshNode node : nodes) {
             if (node.getUuid().equalsIgnoreCase(meshNode.getUuid())) {
                 nodes.set(index, meshNode); //replace a node if uuid matches
+                nodeIndex.replace(nodes, node, meshNode);
+                subscriptionIndex.replace(nodes, node, meshNode);
+                unicastAddressAllocator.remove();
                 notifyNodeUpdated(meshNode);
                 return true;
             }
             index++;
         }
         if (nodes.add(meshNode)) {
+            nodeIndex.add(nodes, meshNode);
+            subscriptionIndex.add(nodes, meshNode);
+            unicastAddressAllocator.add(nodes, meshNode);
             notifyNodeAdded(meshNode);
             return true;
         }
@@ -1235,6 +1427,10 @@ abstract class BaseMeshNetwork {
             if(node != null){
                 excludeNode(node);
                 if(nodes.remove(node)){
+                    SecureUtils.clearCryptoContexts();
+                    nodeIndex.remove(nodes, node);
+                    subscriptionIndex.remove(nodes, node);
+                    unicastAddressAllocator.remove();
                     notifyNodeDeleted(node);
                 }
             } else {
@@ -1244,6 +1440,10 @@ abstract class BaseMeshNetwork {
             return true;
         }
         if(node != null && nodes.remove(node)) {
+            SecureUtils.clearCryptoContexts();
+            nodeIndex.remove(nodes, node);
+            subscriptionIndex.remove(nodes, node);
+            unicastAddressAllocator.remove();
             excludeNode(node);
             if(provisioner != null){
                 if(provisioners.remove(provisioner)){
@@ -0,0 +1,221 @@
+package no.nordicsemi.android.mesh;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Source of the BLOB sent by a {@link BlobTransfer}.
+ * <p>
+ * The transfer reads the BLOB one block at a time, in increasing order, and keeps only the current block in memory
+ * for as long as its chunks may have to be retransmitted, so that large images are never loaded as a whole.
+ * </p>
+ */
+public abstract class BlobSource {
+
+    /**
+     * Opens an input stream positioned at the beginning of the BLOB, each time the BLOB has to be read from the start.
+     */
+    public interface InputStreamProvider {
+
+        /**
+         * Opens a new input stream positioned at the beginning of the BLOB.
+         *
+         * @throws IOException if the stream could not be opened.
+         */
+        @NonNull
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Returns the size of the BLOB in octets.
+     */
+    public abstract long getSize();
+
+    /**
+     * Reads a range of the BLOB. Ranges are requested in increasing order and never overlap, except when a suspended
+     * transfer is resumed, which may read the BLOB again from the first block that has not been received.
+     *
+     * @param position Position of the first octet in the BLOB.
+     * @param buffer   Buffer to read into.
+     * @param offset   Offset in the buffer.
+     * @param length   Number of octets to read.
+     * @throws IOException if the range could not be read.
+     */
+    public abstract void read(final long position,
+                              @NonNull final byte[] buffer,
+                              final int offset,
+                              final int length) throws IOException;
+
+    /**
+     * Returns a source reading the BLOB from an input stream, which is read once from the beginning.
+     * <p>
+     * The source cannot be read again, so it cannot be used by a {@link FirmwareDistribution}, which may have to
+     * resume the transfer of the firmware image. Use {@link #fromInputStream(InputStreamProvider, long)} instead.
+     * </p>
+     *
+     * @param inputStream Input stream positioned at the beginning of the BLOB.
+     * @param size        Size of the BLOB in octets.
+     */
+    @NonNull
+    public static BlobSource fromInputStream(@NonNull final InputStream inputStream, final long size) {
+        return new InputStreamSource(null, inputStream, size);
+    }
+
+    /**
+     * Returns a source reading the BLOB from input streams opened by the given provider. A new stream is opened
+     * whenever a range preceding the current position is read, such as when a transfer is resumed.
+     *
+     * @param provider Provider opening input streams positioned at the beginning of the BLOB.
+     * @param size     Size of the BLOB in octets.
+     */
+    @NonNull
+    public static BlobSource fromInputStream(@NonNull final InputStreamProvider provider, final long size) {
+        return new InputStreamSource(provider, null, size);
+    }
+
+    /**
+     * Returns a source reading the BLOB from a file channel using positional reads, so the position of the channel is
+     * not changed.
+     *
+     * @param channel File channel containing the BLOB from position 0.
+     * @throws IOException if the size of the channel could not be read.
+     */
+    @NonNull
+    public static BlobSource fromFileChannel(@NonNull final FileChannel channel) throws IOException {
+        return new FileChannelSource(channel, channel.size());
+    }
+
+    /**
+     * Returns a source reading the BLOB from memory.
+     *
+     * @param data BLOB.
+     */
+    @NonNull
+    public static BlobSource fromByteArray(@NonNull final byte[] data) {
+        return new ByteArraySource(data);
+    }
+
+    /**
+     * Returns true if ranges of the BLOB may be read more than once.
+     */
+    boolean isRereadable() {
+        return true;
+    }
+
+    private static final class InputStreamSource extends BlobSource {
+        @Nullable
+        private final InputStreamProvider provider;
+        @Nullable
+        private InputStream inputStream;
+        private final long size;
+        private long position;
+
+        private InputStreamSource(@Nullable final InputStreamProvider provider,
+                                  @Nullable final InputStream inputStream,
+                                  final long size) {
+            this.provider = provider;
+            this.inputStream = inputStream;
+            this.size = size;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        boolean isRereadable() {
+            return provider != null;
+        }
+
+        @Override
+        public void read(final long position, @NonNull final byte[] buffer, final int offset, final int length) throws IOException {
+            if (inputStream == null || position < this.position) {
+                reopen();
+            }
+            final InputStream inputStream = this.inputStream;
+            while (this.position < position) {
+                final long skipped = inputStream.skip(position - this.position);
+                if (skipped <= 0) {
+                    if (inputStream.read() < 0)
+                        throw new IOException("Unexpected end of input stream");
+                    this.position++;
+                } else {
+                    this.position += skipped;
+                }
+            }
+            int read = 0;
+            while (read < length) {
+                final int count = inputStream.read(buffer, offset + read, length - read);
+                if (count < 0)
+                    throw new IOException("Unexpected end of input stream");
+                read += count;
+            }
+            this.position += length;
+        }
+
+        private void reopen() throws IOException {
+            if (provider == null)
+                throw new IOException("Input stream cannot be read backwards");
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException ignored) {
+                    // The stream is not used anymore
+                }
+            }
+            inputStream = null;
+            position = 0;
+            inputStream = provider.open();
+        }
+    }
+
+    private static final class FileChannelSource extends BlobSource {
+        private final FileChannel channel;
+        private final long size;
+
+        private FileChannelSource(@NonNull final FileChannel channel, final long size) {
+            this.channel = channel;
+            this.size = size;
+        }
+
+        @Override
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public void read(final long position, @NonNull final byte[] buffer, final int offset, final int length) throws IOException {
+            final ByteBuffer target = ByteBuffer.wrap(buffer, offset, length);
+            while (target.hasRemaining()) {
+                if (channel.read(target, position + target.position() - offset) < 0)
+                    throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private static final class ByteArraySource extends BlobSource {
+        private final byte[] data;
+
+        private ByteArraySource(@NonNull final byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public long getSize() {
+            return data.length;
+        }
+
+        @Override
+        public void read(final long position, @NonNull final byte[] buffer, final int offset, final int length) throws IOException {
+            if (position < 0 || position + length > data.length)
+                throw new IOException("Range out of bounds");
+            System.arraycopy(data, (int) position, buffer, offset, length);
+        }
+    }
+}
@@ -0,0 +1,829 @@
+package no.nordicsemi.android.mesh;
+
+import java.io.IOException;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
+import no.nordicsemi.android.mesh.transport.BlobBlockGet;
+import no.nordicsemi.android.mesh.transport.BlobBlockStart;
+import no.nordicsemi.android.mesh.transport.BlobBlockStatus;
+import no.nordicsemi.android.mesh.transport.BlobChunkTransfer;
+import no.nordicsemi.android.mesh.transport.BlobInformationGet;
+import no.nordicsemi.android.mesh.transport.BlobInformationStatus;
+import no.nordicsemi.android.mesh.transport.BlobPartialBlockReport;
+import no.nordicsemi.android.mesh.transport.BlobTransferCancel;
+import no.nordicsemi.android.mesh.transport.BlobTransferGet;
+import no.nordicsemi.android.mesh.transport.BlobTransferStart;
+import no.nordicsemi.android.mesh.transport.BlobTransferStatus;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * BLOB Transfer Client procedure, sending a BLOB to one or more BLOB Transfer Servers (see Mesh Model Spec. v1.1
+ * Section 7).
+ * <p>
+ * The capabilities of all receivers are retrieved first and the block and chunk sizes are chosen to suit all of them,
+ * see {@link BlobTransferPlan}. The BLOB is then sent one block at a time. Receivers in push mode are sent the chunks
+ * they are missing in rounds, each followed by a BLOB Block Get to learn which chunks are still missing. When more
+ * than one push receiver needs the block and a multicast address is set, the chunks missing on any of them are sent
+ * once to the multicast address instead of once per receiver. Receivers in pull mode request their chunks using
+ * BLOB Partial Block Reports. Acknowledged messages are sent using the {@link MeshTransactionManager}, so they are
+ * retried and pipelined with other transactions, while chunks are sent directly, spaced by the chunk interval.
+ * </p>
+ * <p>
+ * A receiver that rejects a message, stops responding or exceeds the number of retries of a block is excluded from
+ * the rest of the transfer, which continues with the remaining receivers. Receivers that already hold some blocks,
+ * for example after an interrupted transfer of the same BLOB, are only sent the blocks they are missing.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class BlobTransfer {
+
+    private static final String TAG = BlobTransfer.class.getSimpleName();
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({STATE_IDLE, STATE_RETRIEVING_CAPABILITIES, STATE_STARTING, STATE_TRANSFERRING, STATE_VERIFYING,
+            STATE_COMPLETED, STATE_FAILED, STATE_CANCELLED})
+    public @interface TransferState {
+    }
+
+    public static final int STATE_IDLE = 0; //Not started yet
+    public static final int STATE_RETRIEVING_CAPABILITIES = 1; //Waiting for the BLOB Information Status of all receivers
+    public static final int STATE_STARTING = 2; //Waiting for the BLOB Transfer Status of all receivers
+    public static final int STATE_TRANSFERRING = 3; //Sending blocks
+    public static final int STATE_VERIFYING = 4; //Waiting for all receivers to confirm the BLOB is complete
+    public static final int STATE_COMPLETED = 5; //At least one receiver has received the BLOB
+    public static final int STATE_FAILED = 6; //All receivers have failed
+    public static final int STATE_CANCELLED = 7; //Cancelled by the user
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({FAILURE_TIMEOUT, FAILURE_TRANSMISSION, FAILURE_REJECTED, FAILURE_UNSUPPORTED, FAILURE_SOURCE})
+    public @interface FailureReason {
+    }
+
+    public static final int FAILURE_TIMEOUT = 0; //No response received or block not completed after all retries
+    public static final int FAILURE_TRANSMISSION = 1; //A message could not be sent
+    public static final int FAILURE_REJECTED = 2; //The receiver responded with an error status
+    public static final int FAILURE_UNSUPPORTED = 3; //The receiver does not support the transfer mode or sizes
+    public static final int FAILURE_SOURCE = 4; //The BLOB could not be read from the source
+
+    public static final long DEFAULT_CHUNK_INTERVAL = 50;
+    public static final long DEFAULT_PULL_TIMEOUT = 30000;
+    public static final int DEFAULT_MAX_BLOCK_RETRIES = 5;
+
+    private static final int NO_STATUS = -1;
+
+    private final MeshScheduler mScheduler;
+    private final MeshTransactionManager mTransactionManager;
+    private final MeshTransactionManager.MeshMessageSender mSender;
+    private final ApplicationKey mAppKey;
+    private final long mBlobId;
+    private final BlobSource mSource;
+    private final BlobTransferCallbacks mCallbacks;
+    // Sorted by address, so that receivers are always sent messages in the same order
+    private final Map<Integer, Receiver> mReceivers = new TreeMap<>();
+    private final ArrayDeque<Chunk> mChunkQueue = new ArrayDeque<>();
+    private int mMulticastAddress = MeshAddress.UNASSIGNED_ADDRESS;
+    private long mChunkInterval = DEFAULT_CHUNK_INTERVAL;
+    private long mPullTimeout = DEFAULT_PULL_TIMEOUT;
+    private int mMaxBlockRetries = DEFAULT_MAX_BLOCK_RETRIES;
+    private int mMaxChunkSize = BlobTransferPlan.MAX_ACCESS_PDU_SIZE;
+    private int mState = STATE_IDLE;
+    private BlobTransferPlan mPlan;
+    // Limits common to all receivers, merged from their BLOB Information Status
+    private int mMinBlockSizeLog;
+    private int mMaxBlockSizeLog;
+    private int mMaxTotalChunks;
+    private int mMaxReceiverChunkSize;
+    private int mMtuSize;
+    // Current block
+    private byte[] mBlock;
+    private int mBlockNumber;
+    private int mBlockSize;
+    private int mChunkCount;
+    private boolean mBlockStarting;
+    private boolean mRoundInProgress;
+    private int mRound;
+    private int mQueuedPushChunks;
+    private MeshScheduler.Cancellable mChunkTask;
+
+    private static final class Receiver {
+        private final int address;
+        private int transferMode;
+        private boolean failed;
+        private boolean completed;
+        // Blocks the receiver still needs, null until known
+        private BitSet blocksNotReceived;
+        private BitSet missingChunks = new BitSet();
+        private boolean blockDone;
+        private int pullRetries;
+        private MeshTransaction transaction;
+        private MeshScheduler.Cancellable pullTimer;
+
+        private Receiver(final int address, final int transferMode) {
+            this.address = address;
+            this.transferMode = transferMode;
+        }
+
+        private boolean isActive() {
+            return !failed && !completed;
+        }
+
+        private boolean isPush() {
+            return transferMode == BlobTransferStart.TRANSFER_MODE_PUSH;
+        }
+
+        private boolean needsBlock(final int blockNumber) {
+            return blocksNotReceived == null || blocksNotReceived.get(blockNumber);
+        }
+    }
+
+    private static final class Chunk {
+        private final int dst;
+        private final int number;
+        private final boolean push;
+
+        private Chunk(final int dst, final int number, final boolean push) {
+            this.dst = dst;
+            this.number = number;
+            this.push = push;
+        }
+    }
+
+    BlobTransfer(@NonNull final MeshScheduler scheduler,
+                 @NonNull final MeshTransactionManager transactionManager,
+                 @NonNull final MeshTransactionManager.MeshMessageSender sender,
+                 @NonNull final ApplicationKey appKey,
+                 final long blobId,
+                 @NonNull final BlobSource source,
+                 @NonNull final BlobTransferCallbacks callbacks) {
+        this.mScheduler = scheduler;
+        this.mTransactionManager = transactionManager;
+        this.mSender = sender;
+        this.mAppKey = appKey;
+        this.mBlobId = blobId;
+        this.mSource = source;
+        this.mCallbacks = callbacks;
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB.
+     */
+    public long getBlobId() {
+        return mBlobId;
+    }
+
+    /**
+     * Returns the state of the transfer.
+     */
+    @TransferState
+    public synchronized int getState() {
+        return mState;
+    }
+
+    /**
+     * Returns true if the transfer has completed, failed or was cancelled.
+     */
+    public synchronized boolean isFinished() {
+        return mState == STATE_COMPLETED || mState == STATE_FAILED || mState == STATE_CANCELLED;
+    }
+
+    /**
+     * Returns the block and chunk sizes of the transfer or null if the capabilities of the receivers are not known yet.
+     */
+    @Nullable
+    public synchronized BlobTransferPlan getPlan() {
+        return mPlan;
+    }
+
+    /**
+     * Adds a receiver using the push transfer mode.
+     *
+     * @param address Unicast address of the element containing the BLOB Transfer Server model.
+     * @throws IllegalArgumentException if the address is not a unicast address.
+     * @throws IllegalStateException    if the transfer has been started.
+     */
+    public void addReceiver(final int address) {
+        addReceiver(address, BlobTransferStart.TRANSFER_MODE_PUSH);
+    }
+
+    /**
+     * Adds a receiver. If the receiver does not support the given transfer mode the other mode is used instead.
+     *
+     * @param address      Unicast address of the element containing the BLOB Transfer Server model.
+     * @param transferMode Preferred transfer mode, {@link BlobTransferStart#TRANSFER_MODE_PULL} should be used for
+     *                     Low Power nodes.
+     * @throws IllegalArgumentException if the address is not a unicast address.
+     * @throws IllegalStateException    if the transfer has been started.
+     */
+    public synchronized void addReceiver(final int address, @BlobTransferStart.TransferMode final int transferMode) {
+        checkIdle();
+        if (!MeshAddress.isValidUnicastAddress(address))
+            throw new IllegalArgumentException("Receiver address must be a unicast address.");
+        if (transferMode != BlobTransferStart.TRANSFER_MODE_PUSH && transferMode != BlobTransferStart.TRANSFER_MODE_PULL)
+            throw new IllegalArgumentException("Invalid transfer mode: " + transferMode);
+        mReceivers.put(address, new Receiver(address, transferMode));
+    }
+
+    /**
+     * Sets the group or virtual address all push receivers are subscribed to, used to send chunks needed by more than
+     * one receiver only once.
+     *
+     * @param address Group or virtual address or {@link MeshAddress#UNASSIGNED_ADDRESS} to send all chunks to each
+     *                receiver.
+     * @throws IllegalStateException if the transfer has been started.
+     */
+    public synchronized void setMulticastAddress(final int address) {
+        checkIdle();
+        if (address != MeshAddress.UNASSIGNED_ADDRESS && !MeshAddress.isValidGroupAddress(address)
+                && !MeshAddress.isValidVirtualAddress(address))
+            throw new IllegalArgumentException("Multicast address must be a group or a virtual address.");
+        mMulticastAddress = address;
+    }
+
+    /**
+     * Sets the interval between two chunks, which should allow the segments of a chunk to be relayed before the next
+     * chunk is sent.
+     *
+     * @param interval Interval in milliseconds.
+     * @throws IllegalStateException if the transfer has been started.
+     */
+    public synchronized void setChunkInterval(final long interval) {
+        checkIdle();
+        if (interval < 0)
+            throw new IllegalArgumentException("Chunk interval cannot be negative.");
+        mChunkInterval = interval;
+    }
+
+    /**
+     * Limits the size of chunks below what the receivers support, for example to use unsegmented chunks.
+     *
+     * @param maxChunkSize Maximum chunk size in octets.
+     * @throws IllegalStateException if the transfer has been started.
+     */
+    public synchronized void setMaxChunkSize(final int maxChunkSize) {
+        checkIdle();
+        if (maxChunkSize < 1)
+            throw new IllegalArgumentException("Chunk size must be greater than 0.");
+        mMaxChunkSize = maxChunkSize;
+    }
+
+    /**
+     * Sets the time to wait for a BLOB Partial Block Report from a receiver in pull mode before polling it using a
+     * BLOB Block Get.
+     *
+     * @param timeout Timeout in milliseconds.
+     * @throws IllegalStateException if the transfer has been started.
+     */
+    public synchronized void setPullTimeout(final long timeout) {
+        checkIdle();
+        if (timeout <= 0)
+            throw new IllegalArgumentException("Timeout must be greater than 0.");
+        mPullTimeout = timeout;
+    }
+
+    /**
+     * Sets the number of times the missing chunks of a block are resent before a receiver is considered failed.
+     *
+     * @param maxBlockRetries Number of retries.
+     * @throws IllegalStateException if the transfer has been started.
+     */
+    public synchronized void setMaxBlockRetries(final int maxBlockRetries) {
+        checkIdle();
+        if (maxBlockRetries < 0)
+            throw new IllegalArgumentException("Number of retries cannot be negative.");
+        mMaxBlockRetries = maxBlockRetries;
+    }
+
+    /**
+     * Returns the addresses of the receivers that have received the whole BLOB.
+     */
+    @NonNull
+    public synchronized List<Integer> getCompletedReceivers() {
+        final List<Integer> receivers = new ArrayList<>();
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.completed) {
+                receivers.add(receiver.address);
+            }
+        }
+        return receivers;
+    }
+
+    /**
+     * Starts the transfer.
+     *
+     * @throws IllegalStateException if the transfer has already been started, there are no receivers or the size of
+     *                               the BLOB is not supported.
+     */
+    public synchronized void start() {
+        checkIdle();
+        if (mReceivers.isEmpty())
+            throw new IllegalStateException("At least one receiver must be added.");
+        final long blobSize = mSource.getSize();
+        if (blobSize < 1 || blobSize > 0xFFFFFFFFL)
+            throw new IllegalStateException("BLOB size must be in range 1 to 0xFFFFFFFF.");
+        mMinBlockSizeLog = BlobTransferStart.MIN_BLOCK_SIZE_LOG;
+        mMaxBlockSizeLog = BlobTransferStart.MAX_BLOCK_SIZE_LOG;
+        mMaxTotalChunks = 0xFFFF;
+        mMaxReceiverChunkSize = 0xFFFF;
+        mMtuSize = 0xFFFF;
+        mState = STATE_RETRIEVING_CAPABILITIES;
+        MeshLogger.debug(TAG, () -> "Starting transfer of BLOB " + Long.toHexString(mBlobId) + " to " + mReceivers.size() + " receivers");
+        for (Receiver receiver : mReceivers.values()) {
+            sendAcknowledged(receiver, new BlobInformationGet(mAppKey));
+        }
+    }
+
+    /**
+     * Cancels the transfer. Receivers that have started the transfer are sent a BLOB Transfer Cancel, without waiting
+     * for their response.
+     */
+    public synchronized void cancel() {
+        if (mState == STATE_IDLE || isFinished())
+            return;
+        final boolean started = mState != STATE_RETRIEVING_CAPABILITIES;
+        mState = STATE_CANCELLED;
+        stopChunks();
+        for (Receiver receiver : mReceivers.values()) {
+            cancelPending(receiver);
+            if (started && receiver.isActive()) {
+                mTransactionManager.send(receiver.address, new BlobTransferCancel(mAppKey, mBlobId), null);
+            }
+        }
+        mBlock = null;
+        mCallbacks.onTransferFinished(this);
+    }
+
+    /**
+     * Handles BLOB Partial Block Reports sent by receivers in pull mode. Responses to acknowledged messages are
+     * received through the {@link MeshTransactionManager}.
+     */
+    synchronized void onMeshMessageReceived(final int src, @NonNull final MeshMessage meshMessage) {
+        if (!(meshMessage instanceof BlobPartialBlockReport) || mState != STATE_TRANSFERRING)
+            return;
+        final Receiver receiver = mReceivers.get(src);
+        if (receiver == null || !receiver.isActive() || receiver.isPush() || receiver.blockDone
+                || !receiver.needsBlock(mBlockNumber))
+            return;
+        final BlobPartialBlockReport report = (BlobPartialBlockReport) meshMessage;
+        receiver.pullRetries = 0;
+        if (report.isBlockComplete()) {
+            receiver.blockDone = true;
+            cancelPullTimer(receiver);
+            checkProgress();
+        } else {
+            final BitSet requestedChunks = report.getRequestedChunks();
+            requestedChunks.clear(mChunkCount, Math.max(mChunkCount, requestedChunks.length()));
+            queuePullChunks(receiver, requestedChunks);
+            startPullTimer(receiver);
+        }
+    }
+
+    private void checkIdle() {
+        if (mState != STATE_IDLE)
+            throw new IllegalStateException("The transfer has already been started.");
+    }
+
+    private void sendAcknowledged(@NonNull final Receiver receiver, @NonNull final MeshMessage meshMessage) {
+        receiver.transaction = mTransactionManager.send(receiver.address, meshMessage, new MeshTransactionCallbacks() {
+            @Override
+            public void onTransactionCompleted(@NonNull final MeshTransaction transaction, @Nullable final MeshMessage response) {
+                onResponse(receiver, transaction, response);
+            }
+
+            @Override
+            public void onTransactionFailed(@NonNull final MeshTransaction transaction, final int reason) {
+                onNoResponse(receiver, transaction, reason);
+            }
+        });
+    }
+
+    private synchronized void onResponse(@NonNull final Receiver receiver,
+                                         @NonNull final MeshTransaction transaction,
+                                         @Nullable final MeshMessage response) {
+        if (receiver.transaction != transaction || isFinished())
+            return;
+        receiver.transaction = null;
+        if (response instanceof BlobInformationStatus) {
+            onInformationStatus(receiver, (BlobInformationStatus) response);
+        } else if (response instanceof BlobTransferStatus) {
+            onTransferStatus(receiver, (BlobTransferStatus) response);
+        } else if (response instanceof BlobBlockStatus) {
+            onBlockStatus(receiver, (BlobBlockStatus) response);
+        }
+        checkProgress();
+    }
+
+    private synchronized void onNoResponse(@NonNull final Receiver receiver,
+                                           @NonNull final MeshTransaction transaction,
+                                           final int reason) {
+        if (receiver.transaction != transaction || isFinished())
+            return;
+        receiver.transaction = null;
+        failReceiver(receiver, reason == MeshTransaction.FAILURE_TRANSMISSION ? FAILURE_TRANSMISSION : FAILURE_TIMEOUT, NO_STATUS);
+        checkProgress();
+    }
+
+    private void onInformationStatus(@NonNull final Receiver receiver, @NonNull final BlobInformationStatus status) {
+        if (!status.isTransferModeSupported(receiver.transferMode)) {
+            final int otherMode = receiver.isPush() ? BlobTransferStart.TRANSFER_MODE_PULL : BlobTransferStart.TRANSFER_MODE_PUSH;
+            if (!status.isTransferModeSupported(otherMode)) {
+                failReceiver(receiver, FAILURE_UNSUPPORTED, NO_STATUS);
+                return;
+            }
+            receiver.transferMode = otherMode;
+        }
+        if (status.getMaxBlobSize() < mSource.getSize()) {
+            failReceiver(receiver, FAILURE_REJECTED, BlobTransferStatus.STATUS_BLOB_TOO_LARGE);
+            return;
+        }
+        mMinBlockSizeLog = Math.max(mMinBlockSizeLog, status.getMinBlockSizeLog());
+        mMaxBlockSizeLog = Math.min(mMaxBlockSizeLog, status.getMaxBlockSizeLog());
+        mMaxTotalChunks = Math.min(mMaxTotalChunks, status.getMaxTotalChunks());
+        mMaxReceiverChunkSize = Math.min(mMaxReceiverChunkSize, status.getMaxChunkSize());
+        mMtuSize = Math.min(mMtuSize, status.getMtuSize());
+    }
+
+    private void onTransferStatus(@NonNull final Receiver receiver, @NonNull final BlobTransferStatus status) {
+        if (!status.isSuccessful()) {
+            failReceiver(receiver, FAILURE_REJECTED, status.getStatus());
+            return;
+        }
+        if (mState == STATE_STARTING) {
+            if (status.getTransferPhase() == BlobTransferStatus.PHASE_COMPLETE) {
+                // The receiver already holds the whole BLOB from a previous transfer
+                receiver.blocksNotReceived = new BitSet();
+            } else {
+                receiver.blocksNotReceived = status.getBlocksNotReceived();
+            }
+        } else if (mState == STATE_VERIFYING) {
+            if (status.getTransferPhase() == BlobTransferStatus.PHASE_COMPLETE) {
+                receiver.completed = true;
+            } else {
+                failReceiver(receiver, FAILURE_REJECTED, NO_STATUS);
+            }
+        }
+    }
+
+    private void onBlockStatus(@NonNull final Receiver receiver, @NonNull final BlobBlockStatus status) {
+        if (!status.isSuccessful()) {
+            failReceiver(receiver, FAILURE_REJECTED, status.getStatus());
+            return;
+        }
+        receiver.missingChunks = status.getMissingChunks(mChunkCount);
+        receiver.blockDone = receiver.missingChunks.isEmpty();
+        if (receiver.isPush() || mBlockStarting)
+            return;
+        // A receiver in pull mode polled after the pull timeout
+        if (receiver.blockDone) {
+            cancelPullTimer(receiver);
+        } else {
+            queuePullChunks(receiver, receiver.missingChunks);
+            startPullTimer(receiver);
+        }
+    }
+
+    /**
+     * Moves the transfer forward once the responses it is waiting for have been received.
+     */
+    private void checkProgress() {
+        if (isFinished())
+            return;
+        if (!hasActiveReceivers()) {
+            finish();
+            return;
+        }
+        switch (mState) {
+            case STATE_RETRIEVING_CAPABILITIES:
+                if (!isWaitingForResponses(false))
+                    onCapabilitiesRetrieved();
+                break;
+            case STATE_STARTING:
+                if (!isWaitingForResponses(false)) {
+                    mState = STATE_TRANSFERRING;
+                    mBlockNumber = -1;
+                    startNextBlock();
+                }
+                break;
+            case STATE_TRANSFERRING:
+                if (mBlockStarting) {
+                    if (!isWaitingForResponses(false))
+                        onBlockStarted();
+                } else if (isBlockDone()) {
+                    onBlockDone();
+                } else if (mRoundInProgress && mQueuedPushChunks == 0 && !isWaitingForResponses(true)) {
+                    mRoundInProgress = false;
+                    startRound();
+                }
+                break;
+            case STATE_VERIFYING:
+                if (!isWaitingForResponses(false))
+                    finish();
+                break;
+        }
+    }
+
+    private void onCapabilitiesRetrieved() {
+        final int maxChunkSize = Math.min(mMaxChunkSize, mMaxReceiverChunkSize);
+        mPlan = BlobTransferPlan.create(mSource.getSize(), mMinBlockSizeLog, mMaxBlockSizeLog, mMaxTotalChunks,
+                maxChunkSize, mMtuSize);
+        if (mPlan == null) {
+            MeshLogger.warn(TAG, "No block size satisfies the capabilities of all receivers");
+            for (Receiver receiver : mReceivers.values()) {
+                failReceiver(receiver, FAILURE_UNSUPPORTED, NO_STATUS);
+            }
+            finish();
+            return;
+        }
+        MeshLogger.debug(TAG, () -> "Transfer plan: " + mPlan);
+        mState = STATE_STARTING;
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.isActive()) {
+                sendAcknowledged(receiver, new BlobTransferStart(mAppKey, receiver.transferMode, mBlobId,
+                        mPlan.getBlobSize(), mPlan.getBlockSizeLog(), BlobTransferPlan.MAX_ACCESS_PDU_SIZE));
+            }
+        }
+    }
+
+    private void startNextBlock() {
+        final int blockCount = mPlan.getBlockCount();
+        while (++mBlockNumber < blockCount) {
+            if (isBlockNeeded(mBlockNumber))
+                break;
+        }
+        if (mBlockNumber >= blockCount) {
+            mBlock = null;
+            mState = STATE_VERIFYING;
+            for (Receiver receiver : mReceivers.values()) {
+                if (receiver.isActive()) {
+                    sendAcknowledged(receiver, new BlobTransferGet(mAppKey));
+                }
+            }
+            return;
+        }
+        mBlockSize = mPlan.getBlockSize(mBlockNumber);
+        mChunkCount = mPlan.getChunkCount(mBlockNumber);
+        if (mBlock == null) {
+            mBlock = new byte[mPlan.getBlockSize()];
+        }
+        try {
+            mSource.read((long) mBlockNumber << mPlan.getBlockSizeLog(), mBlock, 0, mBlockSize);
+        } catch (IOException e) {
+            MeshLogger.error(TAG, "Unable to read block " + mBlockNumber, e);
+            for (Receiver receiver : mReceivers.values()) {
+                failReceiver(receiver, FAILURE_SOURCE, NO_STATUS);
+            }
+            finish();
+            return;
+        }
+        mBlockStarting = true;
+        mRound = 0;
+        for (Receiver receiver : mReceivers.values()) {
+            receiver.missingChunks = new BitSet();
+            receiver.pullRetries = 0;
+            receiver.blockDone = !receiver.needsBlock(mBlockNumber);
+            if (receiver.isActive() && !receiver.blockDone) {
+                sendAcknowledged(receiver, new BlobBlockStart(mAppKey, mBlockNumber, mPlan.getChunkSize()));
+            }
+        }
+    }
+
+    private void onBlockStarted() {
+        mBlockStarting = false;
+        for (Receiver receiver : mReceivers.values()) {
+            // Receivers in pull mode request the chunks themselves
+            if (receiver.isActive() && !receiver.isPush() && !receiver.blockDone) {
+                startPullTimer(receiver);
+            }
+        }
+        if (isBlockDone()) {
+            onBlockDone();
+        } else {
+            startRound();
+        }
+    }
+
+    private void onBlockDone() {
+        stopChunks();
+        final int blockNumber = mBlockNumber;
+        for (Receiver receiver : mReceivers.values()) {
+            cancelPullTimer(receiver);
+            if (receiver.blocksNotReceived != null) {
+                receiver.blocksNotReceived.clear(blockNumber);
+            }
+        }
+        mCallbacks.onBlockTransferred(this, blockNumber, mPlan.getBlockCount());
+        if (!isFinished()) {
+            startNextBlock();
+        }
+    }
+
+    /**
+     * Sends the chunks of the current block missing on the receivers in push mode.
+     */
+    private void startRound() {
+        final List<Receiver> receivers = new ArrayList<>();
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.isActive() && receiver.isPush() && !receiver.blockDone) {
+                receivers.add(receiver);
+            }
+        }
+        if (receivers.isEmpty())
+            return;
+        if (mRound++ > mMaxBlockRetries) {
+            for (Receiver receiver : receivers) {
+                failReceiver(receiver, FAILURE_TIMEOUT, NO_STATUS);
+            }
+            checkProgress();
+            return;
+        }
+        mRoundInProgress = true;
+        if (receivers.size() > 1 && mMulticastAddress != MeshAddress.UNASSIGNED_ADDRESS) {
+            final BitSet missingChunks = new BitSet();
+            for (Receiver receiver : receivers) {
+                missingChunks.or(receiver.missingChunks);
+            }
+            queueChunks(mMulticastAddress, missingChunks, true);
+        } else {
+            for (Receiver receiver : receivers) {
+                queueChunks(receiver.address, receiver.missingChunks, true);
+            }
+        }
+        if (mQueuedPushChunks == 0) {
+            onRoundSent();
+        }
+    }
+
+    /**
+     * Asks the receivers in push mode which chunks are still missing once all chunks of a round are sent.
+     */
+    private void onRoundSent() {
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.isActive() && receiver.isPush() && !receiver.blockDone) {
+                sendAcknowledged(receiver, new BlobBlockGet(mAppKey));
+            }
+        }
+        checkProgress();
+    }
+
+    private void queuePullChunks(@NonNull final Receiver receiver, @NonNull final BitSet chunks) {
+        // Chunks already queued for the receiver are not queued again
+        final BitSet queued = new BitSet();
+        for (Chunk chunk : mChunkQueue) {
+            if (chunk.dst == receiver.address) {
+                queued.set(chunk.number);
+            }
+        }
+        final BitSet missingChunks = (BitSet) chunks.clone();
+        missingChunks.andNot(queued);
+        queueChunks(receiver.address, missingChunks, false);
+    }
+
+    private void queueChunks(final int dst, @NonNull final BitSet chunks, final boolean push) {
+        for (int chunk = chunks.nextSetBit(0); chunk >= 0 && chunk < mChunkCount; chunk = chunks.nextSetBit(chunk + 1)) {
+            mChunkQueue.add(new Chunk(dst, chunk, push));
+            if (push) {
+                mQueuedPushChunks++;
+            }
+        }
+        if (mChunkTask == null && !mChunkQueue.isEmpty()) {
+            mChunkTask = mScheduler.schedule(this::sendNextChunk, 0);
+        }
+    }
+
+    private synchronized void sendNextChunk() {
+        mChunkTask = null;
+        final Chunk chunk = mChunkQueue.poll();
+        if (chunk == null || mState != STATE_TRANSFERRING)
+            return;
+        final int offset = chunk.number * mPlan.getChunkSize();
+        final int length = Math.min(mPlan.getChunkSize(), mBlockSize - offset);
+        try {
+            mSender.send(chunk.dst, new BlobChunkTransfer(mAppKey, chunk.number, mBlock, offset, length));
+        } catch (IllegalArgumentException e) {
+            MeshLogger.error(TAG, "Unable to send chunk " + chunk.number + " to " + MeshAddress.formatAddress(chunk.dst, true), e);
+            onChunkFailed(chunk);
+        }
+        if (!mChunkQueue.isEmpty()) {
+            mChunkTask = mScheduler.schedule(this::sendNextChunk, mChunkInterval);
+        }
+        if (chunk.push && --mQueuedPushChunks == 0 && mState == STATE_TRANSFERRING && mRoundInProgress) {
+            onRoundSent();
+        }
+    }
+
+    private void onChunkFailed(@NonNull final Chunk chunk) {
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.isActive() && (receiver.address == chunk.dst || (chunk.dst == mMulticastAddress && receiver.isPush()))) {
+                failReceiver(receiver, FAILURE_TRANSMISSION, NO_STATUS);
+            }
+        }
+        checkProgress();
+    }
+
+    private void stopChunks() {
+        if (mChunkTask != null) {
+            mChunkTask.cancel();
+            mChunkTask = null;
+        }
+        mChunkQueue.clear();
+        mQueuedPushChunks = 0;
+        mRoundInProgress = false;
+    }
+
+    private void startPullTimer(@NonNull final Receiver receiver) {
+        cancelPullTimer(receiver);
+        receiver.pullTimer = mScheduler.schedule(() -> onPullTimeout(receiver), mPullTimeout);
+    }
+
+    private void cancelPullTimer(@NonNull final Receiver receiver) {
+        if (receiver.pullTimer != null) {
+            receiver.pullTimer.cancel();
+            receiver.pullTimer = null;
+        }
+    }
+
+    private synchronized void onPullTimeout(@NonNull final Receiver receiver) {
+        receiver.pullTimer = null;
+        if (mState != STATE_TRANSFERRING || !receiver.isActive() || receiver.blockDone || receiver.transaction != null)
+            return;
+        if (receiver.pullRetries++ >= mMaxBlockRetries) {
+            failReceiver(receiver, FAILURE_TIMEOUT, NO_STATUS);
+            checkProgress();
+            return;
+        }
+        sendAcknowledged(receiver, new BlobBlockGet(mAppKey));
+    }
+
+    private void failReceiver(@NonNull final Receiver receiver, @FailureReason final int reason, final int status) {
+        if (!receiver.isActive())
+            return;
+        receiver.failed = true;
+        cancelPending(receiver);
+        MeshLogger.warn(TAG, "Receiver " + MeshAddress.formatAddress(receiver.address, true) + " failed, reason: " + reason + ", status: " + status);
+        mCallbacks.onReceiverFailed(this, receiver.address, reason, status);
+    }
+
+    private void cancelPending(@NonNull final Receiver receiver) {
+        cancelPullTimer(receiver);
+        final MeshTransaction transaction = receiver.transaction;
+        receiver.transaction = null;
+        if (transaction != null) {
+            transaction.cancel();
+        }
+    }
+
+    private void finish() {
+        if (isFinished())
+            return;
+        stopChunks();
+        mBlock = null;
+        mState = getCompletedReceivers().isEmpty() ? STATE_FAILED : STATE_COMPLETED;
+        MeshLogger.debug(TAG, () -> "Transfer of BLOB " + Long.toHexString(mBlobId) + " finished, completed receivers: " + getCompletedReceivers());
+        mCallbacks.onTransferFinished(this);
+    }
+
+    private boolean hasActiveReceivers() {
+        for (Receiver receiver : mReceivers.values()) {
+            // Completed receivers are only known once the transfer is verified
+            if (receiver.isActive() || receiver.completed)
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isWaitingForResponses(final boolean pushOnly) {
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.transaction != null && (!pushOnly || receiver.isPush()))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isBlockNeeded(final int blockNumber) {
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.isActive() && receiver.needsBlock(blockNumber))
+                return true;
+        }
+        return false;
+    }
+
+    private boolean isBlockDone() {
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.isActive() && !receiver.blockDone)
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Callbacks notifying the progress of a {@link BlobTransfer}.
+ */
+public interface BlobTransferCallbacks {
+
+    /**
+     * Notifies that a block has been received by all receivers that have not failed.
+     *
+     * @param transfer    BLOB transfer.
+     * @param blockNumber Number of the block.
+     * @param blockCount  Total number of blocks.
+     */
+    void onBlockTransferred(@NonNull final BlobTransfer transfer, final int blockNumber, final int blockCount);
+
+    /**
+     * Notifies that a receiver has failed and is excluded from the rest of the transfer.
+     *
+     * @param transfer BLOB transfer.
+     * @param address  Address of the receiver.
+     * @param reason   Reason of the failure.
+     * @param status   Status code reported by the receiver for {@link BlobTransfer#FAILURE_REJECTED}, otherwise -1.
+     */
+    void onReceiverFailed(@NonNull final BlobTransfer transfer,
+                          final int address,
+                          @BlobTransfer.FailureReason final int reason,
+                          final int status);
+
+    /**
+     * Notifies that the transfer has ended, either with some receivers having received the whole BLOB or with all
+     * receivers having failed, which can be told using {@link BlobTransfer#getCompletedReceivers()}.
+     *
+     * @param transfer BLOB transfer.
+     */
+    void onTransferFinished(@NonNull final BlobTransfer transfer);
+}
@@ -0,0 +1,145 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.transport.BlobTransferStart;
+
+/**
+ * Block and chunk sizes of a BLOB transfer, chosen from the capabilities reported by all receivers.
+ * <p>
+ * Chunks are made as large as the receivers and the access layer allow, rounded down so that each chunk fills its
+ * lower transport segments completely, as a segment costs the same air time whether it is full or not. Blocks are
+ * made as large as the receivers allow, as each block costs a round trip to every receiver for the block start and
+ * the missing chunks.
+ * </p>
+ */
+public final class BlobTransferPlan {
+
+    // Largest access PDU, 32 segments of 12 octets less the 32-bit TransMIC
+    static final int MAX_ACCESS_PDU_SIZE = 380;
+    // The chunk transfer message carries a single octet opcode and a 16-bit chunk number
+    private static final int CHUNK_OVERHEAD = 3;
+    private static final int TRANS_MIC_SIZE = 4;
+    private static final int SEGMENT_SIZE = 12;
+    // Largest chunk that fits in an unsegmented access message of 11 octets
+    private static final int MAX_UNSEGMENTED_CHUNK_SIZE = 8;
+    private static final int MAX_BLOCK_COUNT = 0x10000;
+    // The current block is kept in memory for retransmissions, so blocks are limited to 1 MB
+    private static final int MAX_BUFFERED_BLOCK_SIZE_LOG = 20;
+
+    private final long blobSize;
+    private final int blockSizeLog;
+    private final int chunkSize;
+
+    private BlobTransferPlan(final long blobSize, final int blockSizeLog, final int chunkSize) {
+        this.blobSize = blobSize;
+        this.blockSizeLog = blockSizeLog;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Plans a transfer within the given limits, which are the most restrictive of the limits of all receivers.
+     *
+     * @param blobSize        Size of the BLOB in octets.
+     * @param minBlockSizeLog Minimum block size supported by all receivers as a power of 2.
+     * @param maxBlockSizeLog Maximum block size supported by all receivers as a power of 2.
+     * @param maxTotalChunks  Maximum number of chunks in a block supported by all receivers.
+     * @param maxChunkSize    Maximum chunk size supported by all receivers and the client.
+     * @param mtuSize         Maximum access PDU size supported by all receivers.
+     * @return the plan or null if no block size satisfies all limits.
+     */
+    @Nullable
+    static BlobTransferPlan create(final long blobSize,
+                                   final int minBlockSizeLog,
+                                   final int maxBlockSizeLog,
+                                   final int maxTotalChunks,
+                                   final int maxChunkSize,
+                                   final int mtuSize) {
+        final int chunkSize = getChunkSize(Math.min(maxChunkSize, Math.min(mtuSize, MAX_ACCESS_PDU_SIZE) - CHUNK_OVERHEAD));
+        if (chunkSize < 1 || maxTotalChunks < 1)
+            return null;
+        final int from = Math.min(maxBlockSizeLog, MAX_BUFFERED_BLOCK_SIZE_LOG);
+        final int to = Math.max(minBlockSizeLog, BlobTransferStart.MIN_BLOCK_SIZE_LOG);
+        for (int blockSizeLog = from; blockSizeLog >= to; blockSizeLog--) {
+            final long blockSize = 1L << blockSizeLog;
+            if ((blockSize + chunkSize - 1) / chunkSize > maxTotalChunks)
+                continue;
+            if ((blobSize + blockSize - 1) / blockSize > MAX_BLOCK_COUNT)
+                return null;
+            return new BlobTransferPlan(blobSize, blockSizeLog, chunkSize);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the largest chunk size not exceeding the limit whose chunk transfer message fills whole segments.
+     */
+    private static int getChunkSize(final int limit) {
+        if (limit <= MAX_UNSEGMENTED_CHUNK_SIZE)
+            return limit;
+        final int segments = (limit + CHUNK_OVERHEAD + TRANS_MIC_SIZE) / SEGMENT_SIZE;
+        final int aligned = segments * SEGMENT_SIZE - CHUNK_OVERHEAD - TRANS_MIC_SIZE;
+        return Math.max(aligned, MAX_UNSEGMENTED_CHUNK_SIZE);
+    }
+
+    /**
+     * Returns the size of the BLOB in octets.
+     */
+    public long getBlobSize() {
+        return blobSize;
+    }
+
+    /**
+     * Returns the block size as a power of 2.
+     */
+    public int getBlockSizeLog() {
+        return blockSizeLog;
+    }
+
+    /**
+     * Returns the block size in octets.
+     */
+    public int getBlockSize() {
+        return 1 << blockSizeLog;
+    }
+
+    /**
+     * Returns the chunk size in octets.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Returns the number of blocks of the BLOB.
+     */
+    public int getBlockCount() {
+        final long blockSize = 1L << blockSizeLog;
+        return (int) ((blobSize + blockSize - 1) / blockSize);
+    }
+
+    /**
+     * Returns the size of the given block in octets, the last block may be shorter than the others.
+     *
+     * @param blockNumber Block number.
+     */
+    public int getBlockSize(final int blockNumber) {
+        final long blockSize = 1L << blockSizeLog;
+        return (int) Math.min(blockSize, blobSize - blockNumber * blockSize);
+    }
+
+    /**
+     * Returns the number of chunks of the given block.
+     *
+     * @param blockNumber Block number.
+     */
+    public int getChunkCount(final int blockNumber) {
+        return (getBlockSize(blockNumber) + chunkSize - 1) / chunkSize;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "BlobTransferPlan{blobSize=" + blobSize + ", blockSizeLog=" + blockSizeLog + ", chunkSize=" + chunkSize + "}";
+    }
+}
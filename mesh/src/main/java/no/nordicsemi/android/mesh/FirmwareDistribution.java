@@ -0,0 +1,1127 @@
+package no.nordicsemi.android.mesh;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
+import no.nordicsemi.android.mesh.transport.BlobTransferStart;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionApply;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionCancel;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionFirmwareGet;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionFirmwareStatus;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionGet;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionReceiversAdd;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionReceiversDeleteAll;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionReceiversGet;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionReceiversList;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionReceiversStatus;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionStart;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionStatus;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionUploadStart;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionUploadStatus;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateApply;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateCancel;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateGet;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateStart;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateStatus;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * Firmware update of a set of nodes, as a Firmware Update Initiator (see Mesh DFU Spec. v1.0 Section 6).
+ * <p>
+ * When a distributor is set, the firmware image is uploaded to the Firmware Distribution Server of the distributor,
+ * which then updates all receivers on its own, sending the image to a group address so that all receivers are updated
+ * in parallel. The initiator only polls the distributor for the phase and progress of each receiver, so it does not
+ * need to stay connected for the duration of the distribution. Without a distributor, the initiator updates the
+ * receivers itself using their Firmware Update Servers and a single {@link BlobTransfer} to all of them.
+ * </p>
+ * <p>
+ * Losing the connection to the network suspends the distribution instead of failing it. Calling {@link #start()}
+ * again, on this or a new instance with the same parameters, first retrieves the state of the distributor or the
+ * receivers and continues from there: a firmware image already stored on the distributor is not uploaded again, an
+ * ongoing distribution is only monitored and BLOB transfers resume from the first missing block.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class FirmwareDistribution {
+
+    private static final String TAG = FirmwareDistribution.class.getSimpleName();
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({STATE_IDLE, STATE_SYNCHRONIZING, STATE_UPLOADING, STATE_STARTING, STATE_TRANSFERRING, STATE_VERIFYING,
+            STATE_VERIFIED, STATE_APPLYING, STATE_COMPLETED, STATE_FAILED, STATE_SUSPENDED, STATE_CANCELLED})
+    public @interface DistributionState {
+    }
+
+    public static final int STATE_IDLE = 0; //Not started yet
+    public static final int STATE_SYNCHRONIZING = 1; //Retrieving the state of the distributor or the receivers
+    public static final int STATE_UPLOADING = 2; //Uploading the firmware image to the distributor
+    public static final int STATE_STARTING = 3; //Starting the update on the distributor or the receivers
+    public static final int STATE_TRANSFERRING = 4; //Sending the firmware image to the receivers
+    public static final int STATE_VERIFYING = 5; //Waiting for the receivers to verify the firmware image
+    public static final int STATE_VERIFIED = 6; //Waiting for apply() as the update policy is verify only
+    public static final int STATE_APPLYING = 7; //Applying the firmware image on the receivers
+    public static final int STATE_COMPLETED = 8; //At least one receiver has been updated
+    public static final int STATE_FAILED = 9; //No receiver has been updated
+    public static final int STATE_SUSPENDED = 10; //Connection lost, resumed using start()
+    public static final int STATE_CANCELLED = 11; //Cancelled by the user
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({FAILURE_TIMEOUT, FAILURE_REJECTED, FAILURE_TRANSFER, FAILURE_VERIFICATION})
+    public @interface FailureReason {
+    }
+
+    public static final int FAILURE_TIMEOUT = 0; //The receiver did not respond
+    public static final int FAILURE_REJECTED = 1; //The receiver or the distributor responded with an error status
+    public static final int FAILURE_TRANSFER = 2; //The firmware image could not be transferred
+    public static final int FAILURE_VERIFICATION = 3; //The receiver rejected the firmware image
+
+    // Use the default TTL of the distributor
+    public static final int DEFAULT_TTL = 0xFF;
+    // BLOB transfer timeout of 10 * (timeout base + 2) seconds, 2 minutes
+    public static final int DEFAULT_TIMEOUT_BASE = 10;
+    public static final long DEFAULT_POLL_INTERVAL = 10000;
+
+    // Receiver entries of 5 octets that fit in the largest access message, along with the opcode and list header
+    private static final int RECEIVERS_PAGE_SIZE = 74;
+    private static final int NO_STATUS = -1;
+
+    private static final int STEP_NONE = 0;
+    private static final int STEP_SYNCHRONIZE = 1;
+    private static final int STEP_FIND_FIRMWARE = 2;
+    private static final int STEP_START_UPLOAD = 3;
+    private static final int STEP_UPLOAD = 4;
+    private static final int STEP_ADD_RECEIVERS = 5;
+    private static final int STEP_START_DISTRIBUTION = 6;
+    private static final int STEP_POLL_DISTRIBUTION = 7;
+    private static final int STEP_APPLY_DISTRIBUTION = 8;
+    private static final int STEP_START_UPDATE = 9;
+    private static final int STEP_TRANSFER = 10;
+    private static final int STEP_VERIFY = 11;
+    private static final int STEP_APPLY_UPDATE = 12;
+
+    // Progress of a receiver updated directly by the initiator
+    private static final int STAGE_START = 0;
+    private static final int STAGE_TRANSFER = 1;
+    private static final int STAGE_VERIFY = 2;
+    private static final int STAGE_VERIFIED = 3;
+    private static final int STAGE_APPLIED = 4;
+
+    private interface ResponseHandler {
+        void onResponse(final int src, @Nullable final MeshMessage response);
+    }
+
+    private final MeshScheduler mScheduler;
+    private final MeshTransactionManager mTransactionManager;
+    private final MeshTransactionManager.MeshMessageSender mSender;
+    private final ApplicationKey mAppKey;
+    private final FirmwareId mFirmwareId;
+    private final long mBlobId;
+    private final BlobSource mSource;
+    private final FirmwareDistributionCallbacks mCallbacks;
+    // Sorted by address, so that receivers are always sent messages in the same order
+    private final Map<Integer, Receiver> mReceivers = new TreeMap<>();
+    private final List<MeshTransaction> mPendingTransactions = new ArrayList<>();
+    private int mDistributorAddress = MeshAddress.UNASSIGNED_ADDRESS;
+    private int mMulticastAddress = MeshAddress.UNASSIGNED_ADDRESS;
+    private int mTransferMode = BlobTransferStart.TRANSFER_MODE_PUSH;
+    private int mUpdatePolicy = FirmwareDistributionStart.UPDATE_POLICY_VERIFY_AND_APPLY;
+    private int mTtl = DEFAULT_TTL;
+    private int mTimeoutBase = DEFAULT_TIMEOUT_BASE;
+    private int mAppKeyIndex;
+    private long mPollInterval = DEFAULT_POLL_INTERVAL;
+    private byte[] mMetadata;
+    private int mState = STATE_IDLE;
+    // Responses to messages sent during a step are ignored once the step is over
+    private int mStepCount;
+    private int mStep = STEP_NONE;
+    private BlobTransfer mBlobTransfer;
+    private boolean mTransferTimedOut;
+    private MeshScheduler.Cancellable mPollTask;
+    private int mUploadProgress = -1;
+    // State of the distributor
+    private int mDistributionPhase = FirmwareDistributionStatus.PHASE_IDLE;
+    private int mFirmwareImageIndex = FirmwareDistributionFirmwareStatus.FIRMWARE_IMAGE_INDEX_NOT_FOUND;
+    private boolean mUploadStarted;
+    private boolean mDistributionStarted;
+
+    private static final class Receiver {
+        private final int address;
+        private final int firmwareImageIndex;
+        private int stage = STAGE_START;
+        private int updatePhase = FirmwareUpdateStatus.PHASE_IDLE;
+        private int transferProgress;
+        private boolean failed;
+        private int failureReason;
+
+        private Receiver(final int address, final int firmwareImageIndex) {
+            this.address = address;
+            this.firmwareImageIndex = firmwareImageIndex;
+        }
+    }
+
+    /**
+     * State of a receiver of the distribution.
+     */
+    public static final class ReceiverState {
+        private final int address;
+        private final int firmwareImageIndex;
+        private final int updatePhase;
+        private final int transferProgress;
+        private final boolean failed;
+
+        private ReceiverState(@NonNull final Receiver receiver) {
+            this.address = receiver.address;
+            this.firmwareImageIndex = receiver.firmwareImageIndex;
+            this.updatePhase = receiver.updatePhase;
+            this.transferProgress = receiver.transferProgress;
+            this.failed = receiver.failed;
+        }
+
+        /**
+         * Returns the unicast address of the receiver.
+         */
+        public int getAddress() {
+            return address;
+        }
+
+        /**
+         * Returns the index of the firmware image updated on the receiver.
+         */
+        public int getFirmwareImageIndex() {
+            return firmwareImageIndex;
+        }
+
+        /**
+         * Returns the last known update phase of the receiver, one of the phases of {@link FirmwareUpdateStatus}.
+         */
+        public int getUpdatePhase() {
+            return updatePhase;
+        }
+
+        /**
+         * Returns the progress of the transfer of the firmware image to the receiver in percent.
+         */
+        public int getTransferProgress() {
+            return transferProgress;
+        }
+
+        /**
+         * Returns true if the receiver has failed.
+         */
+        public boolean isFailed() {
+            return failed;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "ReceiverState{address=" + MeshAddress.formatAddress(address, true) + ", updatePhase=" + updatePhase +
+                    ", transferProgress=" + transferProgress + "%, failed=" + failed + "}";
+        }
+    }
+
+    FirmwareDistribution(@NonNull final MeshScheduler scheduler,
+                         @NonNull final MeshTransactionManager transactionManager,
+                         @NonNull final MeshTransactionManager.MeshMessageSender sender,
+                         @NonNull final ApplicationKey appKey,
+                         @NonNull final FirmwareId firmwareId,
+                         final long blobId,
+                         @NonNull final BlobSource source,
+                         @NonNull final FirmwareDistributionCallbacks callbacks) {
+        // A suspended distribution resumes the transfer, which reads the firmware image again
+        if (!source.isRereadable())
+            throw new IllegalArgumentException("The source of the firmware image must be readable more than once.");
+        this.mScheduler = scheduler;
+        this.mTransactionManager = transactionManager;
+        this.mSender = sender;
+        this.mAppKey = appKey;
+        this.mFirmwareId = firmwareId;
+        this.mBlobId = blobId;
+        this.mSource = source;
+        this.mCallbacks = callbacks;
+        this.mAppKeyIndex = appKey.getKeyIndex();
+    }
+
+    /**
+     * Returns the Firmware ID of the firmware image.
+     */
+    @NonNull
+    public FirmwareId getFirmwareId() {
+        return mFirmwareId;
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB containing the firmware image.
+     */
+    public long getBlobId() {
+        return mBlobId;
+    }
+
+    /**
+     * Returns the state of the distribution.
+     */
+    @DistributionState
+    public synchronized int getState() {
+        return mState;
+    }
+
+    /**
+     * Returns true if the distribution has completed, failed or was cancelled.
+     */
+    public synchronized boolean isFinished() {
+        return mState == STATE_COMPLETED || mState == STATE_FAILED || mState == STATE_CANCELLED;
+    }
+
+    /**
+     * Returns the state of all receivers.
+     */
+    @NonNull
+    public synchronized List<ReceiverState> getReceivers() {
+        final List<ReceiverState> receivers = new ArrayList<>(mReceivers.size());
+        for (Receiver receiver : mReceivers.values()) {
+            receivers.add(new ReceiverState(receiver));
+        }
+        return Collections.unmodifiableList(receivers);
+    }
+
+    /**
+     * Adds a receiver.
+     *
+     * @param address            Unicast address of the element containing the Firmware Update Server model.
+     * @param firmwareImageIndex Index of the firmware image to be updated on the receiver.
+     * @throws IllegalArgumentException if any illegal arguments are passed.
+     * @throws IllegalStateException    if the distribution has been started.
+     */
+    public synchronized void addReceiver(final int address, final int firmwareImageIndex) {
+        checkIdle();
+        if (!MeshAddress.isValidUnicastAddress(address))
+            throw new IllegalArgumentException("Receiver address must be a unicast address.");
+        if (firmwareImageIndex < 0 || firmwareImageIndex > 0xFF)
+            throw new IllegalArgumentException("Firmware image index must be an 8-bit value.");
+        mReceivers.put(address, new Receiver(address, firmwareImageIndex));
+    }
+
+    /**
+     * Sets the distributor updating the receivers on behalf of the initiator.
+     *
+     * @param address Unicast address of the element containing the Firmware Distribution Server model, or
+     *                {@link MeshAddress#UNASSIGNED_ADDRESS} to update the receivers directly.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setDistributor(final int address) {
+        checkIdle();
+        if (address != MeshAddress.UNASSIGNED_ADDRESS && !MeshAddress.isValidUnicastAddress(address))
+            throw new IllegalArgumentException("Distributor address must be a unicast address.");
+        mDistributorAddress = address;
+    }
+
+    /**
+     * Sets the group address all receivers are subscribed to, used to send the firmware image to all receivers at once.
+     *
+     * @param address Group address or {@link MeshAddress#UNASSIGNED_ADDRESS} to send the image to each receiver.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setMulticastAddress(final int address) {
+        checkIdle();
+        if (address != MeshAddress.UNASSIGNED_ADDRESS && !MeshAddress.isValidGroupAddress(address))
+            throw new IllegalArgumentException("Multicast address must be a group address.");
+        mMulticastAddress = address;
+    }
+
+    /**
+     * Sets the BLOB transfer mode used to send the firmware image to the receivers.
+     *
+     * @param transferMode {@link BlobTransferStart#TRANSFER_MODE_PUSH} or {@link BlobTransferStart#TRANSFER_MODE_PULL}.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setTransferMode(@BlobTransferStart.TransferMode final int transferMode) {
+        checkIdle();
+        if (transferMode != BlobTransferStart.TRANSFER_MODE_PUSH && transferMode != BlobTransferStart.TRANSFER_MODE_PULL)
+            throw new IllegalArgumentException("Invalid transfer mode: " + transferMode);
+        mTransferMode = transferMode;
+    }
+
+    /**
+     * Sets whether the receivers apply the firmware once verified or wait for {@link #apply()}.
+     *
+     * @param updatePolicy {@link FirmwareDistributionStart#UPDATE_POLICY_VERIFY_AND_APPLY} or
+     *                     {@link FirmwareDistributionStart#UPDATE_POLICY_VERIFY_ONLY}.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setUpdatePolicy(@FirmwareDistributionStart.UpdatePolicy final int updatePolicy) {
+        checkIdle();
+        if (updatePolicy != FirmwareDistributionStart.UPDATE_POLICY_VERIFY_ONLY
+                && updatePolicy != FirmwareDistributionStart.UPDATE_POLICY_VERIFY_AND_APPLY)
+            throw new IllegalArgumentException("Invalid update policy: " + updatePolicy);
+        mUpdatePolicy = updatePolicy;
+    }
+
+    /**
+     * Sets the TTL and timeout base used by the distributor and the receivers for the BLOB transfers.
+     *
+     * @param ttl         TTL, or {@link #DEFAULT_TTL} to use the default TTL.
+     * @param timeoutBase Timeout base, the timeout being 10 * (timeout base + 2) seconds.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setTransferParameters(final int ttl, final int timeoutBase) {
+        checkIdle();
+        if (ttl < 0 || ttl > 0xFF)
+            throw new IllegalArgumentException("TTL must be an 8-bit value.");
+        if (timeoutBase < 0 || timeoutBase > 0xFFFF)
+            throw new IllegalArgumentException("Timeout base must be a 16-bit value.");
+        mTtl = ttl;
+        mTimeoutBase = timeoutBase;
+    }
+
+    /**
+     * Sets the index of the application key the distributor uses to communicate with the receivers, by default the
+     * index of the application key used by the initiator.
+     *
+     * @param appKeyIndex Application key index.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setDistributionAppKeyIndex(final int appKeyIndex) {
+        checkIdle();
+        if (appKeyIndex < 0 || appKeyIndex > 0xFFF)
+            throw new IllegalArgumentException("Application key index must be a 12-bit value.");
+        mAppKeyIndex = appKeyIndex;
+    }
+
+    /**
+     * Sets the metadata of the firmware image, passed to the receivers to check the image before it is transferred.
+     *
+     * @param metadata Metadata or null.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setMetadata(@Nullable final byte[] metadata) {
+        checkIdle();
+        if (metadata != null && metadata.length > FirmwareUpdateStart.MAX_METADATA_LENGTH)
+            throw new IllegalArgumentException("Metadata cannot be longer than " + FirmwareUpdateStart.MAX_METADATA_LENGTH + " octets.");
+        mMetadata = metadata == null ? null : metadata.clone();
+    }
+
+    /**
+     * Sets the interval between two polls of the distributor, or of the receivers while they verify the image.
+     *
+     * @param interval Interval in milliseconds.
+     * @throws IllegalStateException if the distribution has been started.
+     */
+    public synchronized void setPollInterval(final long interval) {
+        checkIdle();
+        if (interval <= 0)
+            throw new IllegalArgumentException("Poll interval must be greater than 0.");
+        mPollInterval = interval;
+    }
+
+    /**
+     * Starts the distribution, or resumes it once suspended.
+     *
+     * @throws IllegalStateException if the distribution is in progress or finished, or there are no receivers.
+     */
+    public synchronized void start() {
+        if (mState != STATE_IDLE && mState != STATE_SUSPENDED)
+            throw new IllegalStateException("The distribution is in progress or finished.");
+        if (mReceivers.isEmpty())
+            throw new IllegalStateException("At least one receiver must be added.");
+        if (mState == STATE_SUSPENDED) {
+            // Receivers that could not be reached are given another chance
+            for (Receiver receiver : mReceivers.values()) {
+                if (receiver.failed && receiver.failureReason == FAILURE_TIMEOUT) {
+                    receiver.failed = false;
+                }
+            }
+        }
+        MeshLogger.debug(TAG, () -> "Starting distribution of " + mFirmwareId + " to " + mReceivers.size() + " receivers");
+        nextStep(STEP_SYNCHRONIZE, STATE_SYNCHRONIZING);
+        if (isDirect()) {
+            for (Receiver receiver : mReceivers.values()) {
+                if (!receiver.failed) {
+                    send(receiver.address, new FirmwareUpdateGet(mAppKey), this::onUpdateSynchronized);
+                }
+            }
+        } else {
+            send(mDistributorAddress, new FirmwareDistributionGet(mAppKey), this::onDistributionSynchronized);
+        }
+        checkStepCompleted();
+    }
+
+    /**
+     * Applies the verified firmware on the receivers when the update policy is verify only.
+     *
+     * @throws IllegalStateException if the firmware has not been verified.
+     */
+    public synchronized void apply() {
+        if (mState != STATE_VERIFIED)
+            throw new IllegalStateException("The firmware has not been verified.");
+        if (isDirect()) {
+            applyUpdates();
+        } else {
+            nextStep(STEP_APPLY_DISTRIBUTION, STATE_APPLYING);
+            send(mDistributorAddress, new FirmwareDistributionApply(mAppKey), this::onDistributionStatus);
+        }
+    }
+
+    /**
+     * Cancels the distribution on the distributor or the receivers, without waiting for their response.
+     */
+    public synchronized void cancel() {
+        if (mState == STATE_IDLE || isFinished())
+            return;
+        stop();
+        if (isDirect()) {
+            for (Receiver receiver : mReceivers.values()) {
+                if (!receiver.failed && receiver.stage > STAGE_START && receiver.stage < STAGE_APPLIED) {
+                    mTransactionManager.send(receiver.address, new FirmwareUpdateCancel(mAppKey), null);
+                }
+            }
+        } else if (mDistributionStarted) {
+            mTransactionManager.send(mDistributorAddress, new FirmwareDistributionCancel(mAppKey), null);
+        }
+        setState(STATE_CANCELLED);
+    }
+
+    /**
+     * Forwards BLOB Partial Block Reports to the BLOB transfer in progress.
+     */
+    void onMeshMessageReceived(final int src, @NonNull final MeshMessage meshMessage) {
+        final BlobTransfer transfer;
+        synchronized (this) {
+            transfer = mBlobTransfer;
+        }
+        // The transfer is not locked while holding the lock of the distribution, see onBlobTransferFinished
+        if (transfer != null) {
+            transfer.onMeshMessageReceived(src, meshMessage);
+        }
+    }
+
+    private boolean isDirect() {
+        return mDistributorAddress == MeshAddress.UNASSIGNED_ADDRESS;
+    }
+
+    private void checkIdle() {
+        if (mState != STATE_IDLE)
+            throw new IllegalStateException("The distribution has already been started.");
+    }
+
+    private void setState(@DistributionState final int state) {
+        if (mState == state)
+            return;
+        mState = state;
+        MeshLogger.debug(TAG, () -> "Distribution state: " + state);
+        mCallbacks.onStateChanged(this, state);
+    }
+
+    /**
+     * Starts a step, ignoring any response to messages sent during the previous step.
+     */
+    private void nextStep(final int step, @DistributionState final int state) {
+        mStepCount++;
+        mStep = step;
+        mPendingTransactions.clear();
+        setState(state);
+    }
+
+    private void send(final int dst, @NonNull final MeshMessage meshMessage, @NonNull final ResponseHandler handler) {
+        final int stepCount = mStepCount;
+        mPendingTransactions.add(mTransactionManager.send(dst, meshMessage, new MeshTransactionCallbacks() {
+            @Override
+            public void onTransactionCompleted(@NonNull final MeshTransaction transaction, @Nullable final MeshMessage response) {
+                onResponse(stepCount, transaction, handler, response);
+            }
+
+            @Override
+            public void onTransactionFailed(@NonNull final MeshTransaction transaction, final int reason) {
+                onNoResponse(stepCount, transaction);
+            }
+        }));
+    }
+
+    private synchronized void onResponse(final int stepCount,
+                                         @NonNull final MeshTransaction transaction,
+                                         @NonNull final ResponseHandler handler,
+                                         @Nullable final MeshMessage response) {
+        if (stepCount != mStepCount || !mPendingTransactions.remove(transaction))
+            return;
+        handler.onResponse(transaction.getDst(), response);
+        if (stepCount == mStepCount) {
+            checkStepCompleted();
+        }
+    }
+
+    private synchronized void onNoResponse(final int stepCount, @NonNull final MeshTransaction transaction) {
+        if (stepCount != mStepCount || !mPendingTransactions.remove(transaction))
+            return;
+        final int dst = transaction.getDst();
+        if (dst == mDistributorAddress) {
+            suspend();
+            return;
+        }
+        final Receiver receiver = mReceivers.get(dst);
+        if (receiver != null) {
+            failReceiver(receiver, FAILURE_TIMEOUT, NO_STATUS);
+        }
+        checkStepCompleted();
+    }
+
+    /**
+     * Moves to the next step once all responses of the current step have been received.
+     */
+    private void checkStepCompleted() {
+        if (!mPendingTransactions.isEmpty() || isFinished() || mState == STATE_SUSPENDED)
+            return;
+        if (isDirect() && !hasActiveReceivers()) {
+            finishWithoutReceivers();
+            return;
+        }
+        switch (mStep) {
+            case STEP_SYNCHRONIZE:
+                if (isDirect()) {
+                    startUpdates();
+                } else if (isDistributionActive(mDistributionPhase)) {
+                    // The distribution was started before the connection was lost
+                    mDistributionStarted = true;
+                    pollDistribution();
+                } else if (mDistributionPhase == FirmwareDistributionStatus.PHASE_TRANSFER_SUSPENDED) {
+                    startDistribution();
+                } else {
+                    findFirmware();
+                }
+                break;
+            case STEP_FIND_FIRMWARE:
+                if (mFirmwareImageIndex != FirmwareDistributionFirmwareStatus.FIRMWARE_IMAGE_INDEX_NOT_FOUND) {
+                    addReceivers();
+                } else if (!mUploadStarted) {
+                    startUpload();
+                } else {
+                    fail(FAILURE_TRANSFER, NO_STATUS);
+                }
+                break;
+            case STEP_START_UPLOAD:
+                upload();
+                break;
+            case STEP_ADD_RECEIVERS:
+                startDistribution();
+                break;
+            case STEP_START_DISTRIBUTION:
+            case STEP_APPLY_DISTRIBUTION:
+                pollDistribution();
+                break;
+            case STEP_POLL_DISTRIBUTION:
+                onDistributionPolled();
+                break;
+            case STEP_START_UPDATE:
+                transfer();
+                break;
+            case STEP_VERIFY:
+                onUpdatesVerified();
+                break;
+            case STEP_APPLY_UPDATE:
+                finish();
+                break;
+        }
+    }
+
+    // Distribution using a distributor
+
+    private void onDistributionSynchronized(final int src, @Nullable final MeshMessage response) {
+        if (!(response instanceof FirmwareDistributionStatus))
+            return;
+        final FirmwareDistributionStatus status = (FirmwareDistributionStatus) response;
+        mDistributionPhase = status.getDistributionPhase();
+        if (isDistributionActive(mDistributionPhase) || mDistributionPhase == FirmwareDistributionStatus.PHASE_TRANSFER_SUSPENDED) {
+            mFirmwareImageIndex = status.getFirmwareImageIndex();
+        }
+    }
+
+    private void findFirmware() {
+        nextStep(STEP_FIND_FIRMWARE, STATE_UPLOADING);
+        send(mDistributorAddress, new FirmwareDistributionFirmwareGet(mAppKey, mFirmwareId), (src, response) -> {
+            if (response instanceof FirmwareDistributionFirmwareStatus) {
+                mFirmwareImageIndex = ((FirmwareDistributionFirmwareStatus) response).getFirmwareImageIndex();
+            }
+        });
+    }
+
+    private void startUpload() {
+        nextStep(STEP_START_UPLOAD, STATE_UPLOADING);
+        mUploadStarted = true;
+        // Starting the upload of the same image again resumes the upload in progress
+        send(mDistributorAddress, new FirmwareDistributionUploadStart(mAppKey, mTtl, mTimeoutBase, mBlobId,
+                mSource.getSize(), mMetadata, mFirmwareId), (src, response) -> {
+            if (response instanceof FirmwareDistributionUploadStatus) {
+                final FirmwareDistributionUploadStatus status = (FirmwareDistributionUploadStatus) response;
+                if (!status.isSuccessful()) {
+                    fail(FAILURE_REJECTED, status.getStatus());
+                }
+            }
+        });
+    }
+
+    private void upload() {
+        nextStep(STEP_UPLOAD, STATE_UPLOADING);
+        mTransferTimedOut = false;
+        mBlobTransfer = createBlobTransfer();
+        mBlobTransfer.addReceiver(mDistributorAddress, BlobTransferStart.TRANSFER_MODE_PUSH);
+        mBlobTransfer.start();
+    }
+
+    private void addReceivers() {
+        nextStep(STEP_ADD_RECEIVERS, STATE_STARTING);
+        send(mDistributorAddress, new FirmwareDistributionReceiversDeleteAll(mAppKey), this::onReceiversStatus);
+        final List<Receiver> receivers = new ArrayList<>();
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed) {
+                receivers.add(receiver);
+            }
+        }
+        // Receivers are added in batches as large as a single access message allows
+        for (int from = 0; from < receivers.size(); from += FirmwareDistributionReceiversAdd.MAX_RECEIVERS) {
+            final int count = Math.min(FirmwareDistributionReceiversAdd.MAX_RECEIVERS, receivers.size() - from);
+            final int[] addresses = new int[count];
+            final int[] firmwareImageIndexes = new int[count];
+            for (int i = 0; i < count; i++) {
+                addresses[i] = receivers.get(from + i).address;
+                firmwareImageIndexes[i] = receivers.get(from + i).firmwareImageIndex;
+            }
+            send(mDistributorAddress, new FirmwareDistributionReceiversAdd(mAppKey, addresses, firmwareImageIndexes),
+                    this::onReceiversStatus);
+        }
+    }
+
+    private void onReceiversStatus(final int src, @Nullable final MeshMessage response) {
+        if (response instanceof FirmwareDistributionReceiversStatus) {
+            final FirmwareDistributionReceiversStatus status = (FirmwareDistributionReceiversStatus) response;
+            if (!status.isSuccessful()) {
+                fail(FAILURE_REJECTED, status.getStatus());
+            }
+        }
+    }
+
+    private void startDistribution() {
+        nextStep(STEP_START_DISTRIBUTION, STATE_STARTING);
+        mDistributionStarted = true;
+        send(mDistributorAddress, new FirmwareDistributionStart(mAppKey, mAppKeyIndex, mTtl, mTimeoutBase, mTransferMode,
+                mUpdatePolicy, mFirmwareImageIndex, mMulticastAddress), this::onDistributionStatus);
+    }
+
+    private void onDistributionStatus(final int src, @Nullable final MeshMessage response) {
+        if (!(response instanceof FirmwareDistributionStatus))
+            return;
+        final FirmwareDistributionStatus status = (FirmwareDistributionStatus) response;
+        if (!status.isSuccessful()) {
+            fail(FAILURE_REJECTED, status.getStatus());
+            return;
+        }
+        mDistributionPhase = status.getDistributionPhase();
+    }
+
+    private void pollDistribution() {
+        nextStep(STEP_POLL_DISTRIBUTION, getDistributionState(mDistributionPhase));
+        send(mDistributorAddress, new FirmwareDistributionReceiversGet(mAppKey, 0, RECEIVERS_PAGE_SIZE), this::onReceiversList);
+        send(mDistributorAddress, new FirmwareDistributionGet(mAppKey), this::onDistributionStatus);
+    }
+
+    private void onReceiversList(final int src, @Nullable final MeshMessage response) {
+        if (!(response instanceof FirmwareDistributionReceiversList))
+            return;
+        final FirmwareDistributionReceiversList list = (FirmwareDistributionReceiversList) response;
+        for (FirmwareDistributionReceiversList.ReceiverEntry entry : list.getReceivers()) {
+            final Receiver receiver = mReceivers.get(entry.getAddress());
+            if (receiver == null || receiver.failed)
+                continue;
+            receiver.updatePhase = entry.getUpdatePhase();
+            receiver.transferProgress = entry.getTransferProgress();
+            if (entry.getUpdatePhase() == FirmwareUpdateStatus.PHASE_TRANSFER_ERROR) {
+                failReceiver(receiver, FAILURE_TRANSFER, entry.getTransferStatus());
+            } else if (entry.getUpdatePhase() == FirmwareUpdateStatus.PHASE_VERIFICATION_FAILED) {
+                failReceiver(receiver, FAILURE_VERIFICATION, entry.getUpdateStatus());
+            }
+        }
+        mCallbacks.onReceiversUpdated(this);
+        final int next = list.getFirstIndex() + list.getReceivers().size();
+        if (!list.getReceivers().isEmpty() && next < list.getReceiversListCount()) {
+            send(mDistributorAddress, new FirmwareDistributionReceiversGet(mAppKey, next, RECEIVERS_PAGE_SIZE), this::onReceiversList);
+        }
+    }
+
+    private void onDistributionPolled() {
+        switch (mDistributionPhase) {
+            case FirmwareDistributionStatus.PHASE_COMPLETED:
+                finish();
+                return;
+            case FirmwareDistributionStatus.PHASE_FAILED:
+            case FirmwareDistributionStatus.PHASE_IDLE:
+                fail(FAILURE_TRANSFER, NO_STATUS);
+                return;
+            case FirmwareDistributionStatus.PHASE_TRANSFER_SUSPENDED:
+                suspend();
+                return;
+            case FirmwareDistributionStatus.PHASE_TRANSFER_SUCCESS:
+                if (mUpdatePolicy == FirmwareDistributionStart.UPDATE_POLICY_VERIFY_ONLY) {
+                    nextStep(STEP_NONE, STATE_VERIFIED);
+                    return;
+                }
+                break;
+        }
+        setState(getDistributionState(mDistributionPhase));
+        schedulePoll(this::pollDistribution);
+    }
+
+    private static boolean isDistributionActive(final int phase) {
+        return phase == FirmwareDistributionStatus.PHASE_TRANSFER_ACTIVE
+                || phase == FirmwareDistributionStatus.PHASE_TRANSFER_SUCCESS
+                || phase == FirmwareDistributionStatus.PHASE_APPLYING_UPDATE
+                || phase == FirmwareDistributionStatus.PHASE_CANCELLING_UPDATE;
+    }
+
+    @DistributionState
+    private static int getDistributionState(final int phase) {
+        switch (phase) {
+            case FirmwareDistributionStatus.PHASE_TRANSFER_SUCCESS:
+                return STATE_VERIFYING;
+            case FirmwareDistributionStatus.PHASE_APPLYING_UPDATE:
+                return STATE_APPLYING;
+            default:
+                return STATE_TRANSFERRING;
+        }
+    }
+
+    // Distribution by the initiator
+
+    private void onUpdateSynchronized(final int src, @Nullable final MeshMessage response) {
+        final Receiver receiver = mReceivers.get(src);
+        if (receiver == null || !(response instanceof FirmwareUpdateStatus))
+            return;
+        final FirmwareUpdateStatus status = (FirmwareUpdateStatus) response;
+        receiver.updatePhase = status.getUpdatePhase();
+        final Long blobId = status.getBlobId();
+        if (blobId == null || blobId != mBlobId || status.getFirmwareImageIndex() != receiver.firmwareImageIndex) {
+            receiver.stage = STAGE_START;
+            return;
+        }
+        // The update of this firmware image was started before the connection was lost
+        switch (status.getUpdatePhase()) {
+            case FirmwareUpdateStatus.PHASE_TRANSFER_ACTIVE:
+                receiver.stage = STAGE_TRANSFER;
+                break;
+            case FirmwareUpdateStatus.PHASE_VERIFICATION_ACTIVE:
+                receiver.stage = STAGE_VERIFY;
+                break;
+            case FirmwareUpdateStatus.PHASE_VERIFICATION_SUCCEEDED:
+                receiver.stage = STAGE_VERIFIED;
+                break;
+            case FirmwareUpdateStatus.PHASE_APPLYING_UPDATE:
+                receiver.stage = STAGE_APPLIED;
+                break;
+            default:
+                receiver.stage = STAGE_START;
+                break;
+        }
+    }
+
+    private void startUpdates() {
+        nextStep(STEP_START_UPDATE, STATE_STARTING);
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed && receiver.stage == STAGE_START) {
+                send(receiver.address, new FirmwareUpdateStart(mAppKey, mTtl, mTimeoutBase, mBlobId,
+                        receiver.firmwareImageIndex, mMetadata), this::onUpdateStarted);
+            }
+        }
+        checkStepCompleted();
+    }
+
+    private void onUpdateStarted(final int src, @Nullable final MeshMessage response) {
+        final Receiver receiver = mReceivers.get(src);
+        if (receiver == null || !(response instanceof FirmwareUpdateStatus))
+            return;
+        final FirmwareUpdateStatus status = (FirmwareUpdateStatus) response;
+        receiver.updatePhase = status.getUpdatePhase();
+        if (status.isSuccessful()) {
+            receiver.stage = STAGE_TRANSFER;
+        } else {
+            failReceiver(receiver, FAILURE_REJECTED, status.getStatus());
+        }
+    }
+
+    private void transfer() {
+        if (!hasStage(STAGE_TRANSFER)) {
+            verifyUpdates();
+            return;
+        }
+        nextStep(STEP_TRANSFER, STATE_TRANSFERRING);
+        mTransferTimedOut = false;
+        final BlobTransfer transfer = createBlobTransfer();
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed && receiver.stage == STAGE_TRANSFER) {
+                transfer.addReceiver(receiver.address, mTransferMode);
+            }
+        }
+        if (mMulticastAddress != MeshAddress.UNASSIGNED_ADDRESS) {
+            transfer.setMulticastAddress(mMulticastAddress);
+        }
+        mBlobTransfer = transfer;
+        transfer.start();
+    }
+
+    private void verifyUpdates() {
+        nextStep(STEP_VERIFY, STATE_VERIFYING);
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed && receiver.stage == STAGE_VERIFY) {
+                send(receiver.address, new FirmwareUpdateGet(mAppKey), this::onUpdateVerified);
+            }
+        }
+        checkStepCompleted();
+    }
+
+    private void onUpdateVerified(final int src, @Nullable final MeshMessage response) {
+        final Receiver receiver = mReceivers.get(src);
+        if (receiver == null || !(response instanceof FirmwareUpdateStatus))
+            return;
+        final FirmwareUpdateStatus status = (FirmwareUpdateStatus) response;
+        receiver.updatePhase = status.getUpdatePhase();
+        switch (status.getUpdatePhase()) {
+            case FirmwareUpdateStatus.PHASE_VERIFICATION_SUCCEEDED:
+                receiver.stage = STAGE_VERIFIED;
+                break;
+            case FirmwareUpdateStatus.PHASE_APPLYING_UPDATE:
+                receiver.stage = STAGE_APPLIED;
+                break;
+            case FirmwareUpdateStatus.PHASE_VERIFICATION_ACTIVE:
+            case FirmwareUpdateStatus.PHASE_TRANSFER_ACTIVE:
+                break;
+            default:
+                failReceiver(receiver, FAILURE_VERIFICATION, status.getStatus());
+                break;
+        }
+    }
+
+    private void onUpdatesVerified() {
+        mCallbacks.onReceiversUpdated(this);
+        if (hasStage(STAGE_VERIFY)) {
+            schedulePoll(this::verifyUpdates);
+        } else if (mUpdatePolicy == FirmwareDistributionStart.UPDATE_POLICY_VERIFY_AND_APPLY) {
+            applyUpdates();
+        } else {
+            nextStep(STEP_NONE, STATE_VERIFIED);
+        }
+    }
+
+    private void applyUpdates() {
+        nextStep(STEP_APPLY_UPDATE, STATE_APPLYING);
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed && receiver.stage == STAGE_VERIFIED) {
+                send(receiver.address, new FirmwareUpdateApply(mAppKey), this::onUpdateApplied);
+            }
+        }
+        checkStepCompleted();
+    }
+
+    private void onUpdateApplied(final int src, @Nullable final MeshMessage response) {
+        final Receiver receiver = mReceivers.get(src);
+        if (receiver == null || !(response instanceof FirmwareUpdateStatus))
+            return;
+        final FirmwareUpdateStatus status = (FirmwareUpdateStatus) response;
+        receiver.updatePhase = status.getUpdatePhase();
+        if (status.isSuccessful()) {
+            receiver.stage = STAGE_APPLIED;
+        } else {
+            failReceiver(receiver, FAILURE_REJECTED, status.getStatus());
+        }
+    }
+
+    // BLOB transfers to the distributor or the receivers
+
+    @NonNull
+    private BlobTransfer createBlobTransfer() {
+        // BLOB transfer callbacks are invoked while the transfer holds its lock, so they are handled on the scheduler
+        // to always lock the distribution before the transfer
+        return new BlobTransfer(mScheduler, mTransactionManager, mSender, mAppKey, mBlobId, mSource, new BlobTransferCallbacks() {
+            @Override
+            public void onBlockTransferred(@NonNull final BlobTransfer transfer, final int blockNumber, final int blockCount) {
+                mScheduler.schedule(() -> onBlobBlockTransferred(transfer, blockNumber, blockCount), 0);
+            }
+
+            @Override
+            public void onReceiverFailed(@NonNull final BlobTransfer transfer, final int address, final int reason, final int status) {
+                mScheduler.schedule(() -> onBlobReceiverFailed(transfer, address, reason, status), 0);
+            }
+
+            @Override
+            public void onTransferFinished(@NonNull final BlobTransfer transfer) {
+                mScheduler.schedule(() -> onBlobTransferFinished(transfer), 0);
+            }
+        });
+    }
+
+    private synchronized void onBlobBlockTransferred(@NonNull final BlobTransfer transfer, final int blockNumber, final int blockCount) {
+        if (transfer != mBlobTransfer)
+            return;
+        final int progress = (blockNumber + 1) * 100 / blockCount;
+        if (mStep == STEP_UPLOAD) {
+            setUploadProgress(progress);
+            return;
+        }
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed && receiver.stage == STAGE_TRANSFER) {
+                receiver.transferProgress = progress;
+            }
+        }
+        mCallbacks.onReceiversUpdated(this);
+    }
+
+    private synchronized void onBlobReceiverFailed(@NonNull final BlobTransfer transfer, final int address, final int reason, final int status) {
+        if (transfer != mBlobTransfer)
+            return;
+        final boolean timedOut = reason == BlobTransfer.FAILURE_TIMEOUT || reason == BlobTransfer.FAILURE_TRANSMISSION;
+        mTransferTimedOut |= timedOut;
+        final Receiver receiver = mReceivers.get(address);
+        if (receiver != null) {
+            failReceiver(receiver, timedOut ? FAILURE_TIMEOUT : FAILURE_TRANSFER, status);
+        }
+    }
+
+    private synchronized void onBlobTransferFinished(@NonNull final BlobTransfer transfer) {
+        if (transfer != mBlobTransfer)
+            return;
+        mBlobTransfer = null;
+        final List<Integer> completed = transfer.getCompletedReceivers();
+        if (mStep == STEP_UPLOAD) {
+            if (!completed.isEmpty()) {
+                setUploadProgress(100);
+                findFirmware();
+            } else if (mTransferTimedOut) {
+                suspend();
+            } else {
+                fail(FAILURE_TRANSFER, NO_STATUS);
+            }
+            return;
+        }
+        for (int address : completed) {
+            final Receiver receiver = mReceivers.get(address);
+            receiver.stage = STAGE_VERIFY;
+            receiver.transferProgress = 100;
+        }
+        mCallbacks.onReceiversUpdated(this);
+        if (completed.isEmpty() && mTransferTimedOut) {
+            suspend();
+        } else {
+            verifyUpdates();
+        }
+    }
+
+    private void setUploadProgress(final int progress) {
+        if (mUploadProgress != progress) {
+            mUploadProgress = progress;
+            mCallbacks.onUploadProgress(this, progress);
+        }
+    }
+
+    // Outcome
+
+    private void schedulePoll(@NonNull final Runnable poll) {
+        final int stepCount = mStepCount;
+        mPollTask = mScheduler.schedule(() -> {
+            synchronized (FirmwareDistribution.this) {
+                mPollTask = null;
+                if (stepCount == mStepCount && !isFinished() && mState != STATE_SUSPENDED) {
+                    poll.run();
+                }
+            }
+        }, mPollInterval);
+    }
+
+    private void failReceiver(@NonNull final Receiver receiver, @FailureReason final int reason, final int status) {
+        if (receiver.failed)
+            return;
+        receiver.failed = true;
+        receiver.failureReason = reason;
+        MeshLogger.warn(TAG, "Receiver " + MeshAddress.formatAddress(receiver.address, true) + " failed, reason: " + reason + ", status: " + status);
+        mCallbacks.onReceiverFailed(this, receiver.address, reason, status);
+    }
+
+    /**
+     * Stops all activity of the distribution, leaving the distributor and the receivers as they are.
+     */
+    private void stop() {
+        mStepCount++;
+        mStep = STEP_NONE;
+        final List<MeshTransaction> transactions = new ArrayList<>(mPendingTransactions);
+        mPendingTransactions.clear();
+        for (MeshTransaction transaction : transactions) {
+            transaction.cancel();
+        }
+        if (mPollTask != null) {
+            mPollTask.cancel();
+            mPollTask = null;
+        }
+        final BlobTransfer transfer = mBlobTransfer;
+        mBlobTransfer = null;
+        if (transfer != null) {
+            transfer.cancel();
+        }
+    }
+
+    private void suspend() {
+        stop();
+        MeshLogger.warn(TAG, "Distribution suspended");
+        setState(STATE_SUSPENDED);
+    }
+
+    /**
+     * Fails the distribution after the distributor rejected a request.
+     */
+    private void fail(@FailureReason final int reason, final int status) {
+        stop();
+        for (Receiver receiver : mReceivers.values()) {
+            failReceiver(receiver, reason, status);
+        }
+        setState(STATE_FAILED);
+    }
+
+    private void finish() {
+        stop();
+        setState(hasActiveReceivers() ? STATE_COMPLETED : STATE_FAILED);
+    }
+
+    /**
+     * Finishes the distribution once all receivers have failed, suspending it instead if none of them could be reached.
+     */
+    private void finishWithoutReceivers() {
+        for (Receiver receiver : mReceivers.values()) {
+            if (receiver.failureReason != FAILURE_TIMEOUT) {
+                stop();
+                setState(STATE_FAILED);
+                return;
+            }
+        }
+        suspend();
+    }
+
+    private boolean hasActiveReceivers() {
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed)
+                return true;
+        }
+        return false;
+    }
+
+    private boolean hasStage(final int stage) {
+        for (Receiver receiver : mReceivers.values()) {
+            if (!receiver.failed && receiver.stage == stage)
+                return true;
+        }
+        return false;
+    }
+}
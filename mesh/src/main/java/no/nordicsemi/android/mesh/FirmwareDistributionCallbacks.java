@@ -0,0 +1,46 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Callbacks notifying the progress of a {@link FirmwareDistribution}.
+ */
+public interface FirmwareDistributionCallbacks {
+
+    /**
+     * Notifies that the state of the distribution has changed.
+     *
+     * @param distribution Firmware distribution.
+     * @param state        New state.
+     */
+    void onStateChanged(@NonNull final FirmwareDistribution distribution,
+                        @FirmwareDistribution.DistributionState final int state);
+
+    /**
+     * Notifies that the progress of the upload of the firmware image to the distributor has changed.
+     *
+     * @param distribution Firmware distribution.
+     * @param progress     Progress in percent.
+     */
+    void onUploadProgress(@NonNull final FirmwareDistribution distribution, final int progress);
+
+    /**
+     * Notifies that the phase or progress of some receivers has changed, see {@link FirmwareDistribution#getReceivers()}.
+     *
+     * @param distribution Firmware distribution.
+     */
+    void onReceiversUpdated(@NonNull final FirmwareDistribution distribution);
+
+    /**
+     * Notifies that a receiver has failed and is excluded from the rest of the distribution.
+     *
+     * @param distribution Firmware distribution.
+     * @param address      Address of the receiver.
+     * @param reason       Reason of the failure.
+     * @param status       Status code reported for {@link FirmwareDistribution#FAILURE_REJECTED}, otherwise -1.
+     */
+    void onReceiverFailed(@NonNull final FirmwareDistribution distribution,
+                          final int address,
+                          @FirmwareDistribution.FailureReason final int reason,
+                          final int status);
+}
@@ -1,21 +1,36 @@
 package no.nordicsemi.android.mesh;
 
-import android.content.ContentResolver;
-import android.net.Uri;
-
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Locale;
+import java.util.Set;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -26,19 +41,44 @@ import no.nordicsemi.android.mesh.transport.MeshModel;
 import no.nordicsemi.android.mesh.transport.MeshModelListDeserializer;
 import no.nordicsemi.android.mesh.transport.NodeDeserializer;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.PublicationSettings;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
 
-import static no.nordicsemi.android.mesh.utils.MeshAddress.isValidGroupAddress;
+import static no.nordicsemi.android.mesh.utils.MeshParserUtils.formatTimeStamp;
+import static no.nordicsemi.android.mesh.utils.MeshParserUtils.uuidToHex;
 
 /**
  * Utility class to handle network imports and exports
+ * <p>
+ * The network is read and written as a stream. Nodes, which make up most of the configuration database, are parsed and
+ * serialized one at a time and the export configurations are applied while writing, so neither a json tree of the whole
+ * network nor a copy of the network is ever created.
+ * </p>
  */
 class ImportExportUtils {
 
     private static final String TAG = ImportExportUtils.class.getSimpleName();
+    @SuppressWarnings("CharsetObjectCanBeUsed")
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private final Type mNodeListType = new TypeToken<List<ProvisionedMeshNode>>() {
+    }.getType();
+    private final MeshNetworkDeserializer mNetworkDeserializer = new MeshNetworkDeserializer();
     private final Gson mGson;
+    private final JsonSerializationContext mSerializationContext;
 
     ImportExportUtils() {
         mGson = initGson();
+        mSerializationContext = new JsonSerializationContext() {
+            @Override
+            public JsonElement serialize(final Object src) {
+                return mGson.toJsonTree(src);
+            }
+
+            @Override
+            public JsonElement serialize(final Object src, final Type typeOfSrc) {
+                return mGson.toJsonTree(src, typeOfSrc);
+            }
+        };
     }
 
     /**
@@ -55,8 +95,6 @@ class ImportExportUtils {
         }.getType();
         Type allocatedSceneRange = new TypeToken<List<AllocatedSceneRange>>() {
         }.getType();
-        Type nodeList = new TypeToken<List<ProvisionedMeshNode>>() {
-        }.getType();
         Type meshModelList = new TypeToken<List<MeshModel>>() {
         }.getType();
         Type elementList = new TypeToken<List<Element>>() {
@@ -66,10 +104,10 @@ class ImportExportUtils {
                 .registerTypeAdapter(allocatedUnicastRange, new AllocatedUnicastRangeDeserializer())
                 .registerTypeAdapter(allocatedGroupRange, new AllocatedGroupRangeDeserializer())
                 .registerTypeAdapter(allocatedSceneRange, new AllocatedSceneRangeDeserializer())
-                .registerTypeAdapter(nodeList, new NodeDeserializer())
+                .registerTypeAdapter(mNodeListType, new NodeDeserializer())
                 .registerTypeAdapter(elementList, new InternalElementListDeserializer())
                 .registerTypeAdapter(meshModelList, new MeshModelListDeserializer())
-                .registerTypeAdapter(MeshNetwork.class, new MeshNetworkDeserializer())
+                .registerTypeAdapter(MeshNetwork.class, mNetworkDeserializer)
                 .serializeNulls()
                 .setPrettyPrinting()
                 .create();
@@ -78,31 +116,67 @@ class ImportExportUtils {
     /**
      * Imports the network from the Mesh Provisioning/Configuration Database json file
      */
-    protected MeshNetwork importNetwork(@NonNull final String networkJson) throws JsonSyntaxException {
-        return mGson.fromJson(networkJson, MeshNetwork.class);
+    protected MeshNetwork importNetwork(@NonNull final String networkJson) throws JsonParseException {
+        try {
+            return importNetwork(new StringReader(networkJson));
+        } catch (IOException ex) {
+            throw new JsonSyntaxException(ex);
+        }
     }
 
     /**
-     * Reads and returns the json string from URI.
+     * Imports the network from a Mesh Provisioning/Configuration Database json stream encoded in UTF-8.
+     * The stream is not closed.
      *
-     * @param contentResolver ContentResolver
-     * @param uri             URI
+     * @param inputStream Input stream.
      * @throws IOException in case of failure
      */
-    protected String readJsonStringFromUri(@NonNull final ContentResolver contentResolver, @NonNull final Uri uri) throws IOException {
-        final StringBuilder stringBuilder = new StringBuilder();
-        final InputStream inputStream = contentResolver.openInputStream(uri);
-        if (inputStream != null) {
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(
-                    inputStream));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                stringBuilder.append(line);
+    MeshNetwork importNetwork(@NonNull final InputStream inputStream) throws IOException, JsonParseException {
+        return importNetwork(new InputStreamReader(inputStream, UTF_8));
+    }
+
+    /**
+     * Imports the network from a Mesh Provisioning/Configuration Database json reader.
+     * <p>
+     * All properties except the nodes are collected in to a json object which is deserialized once the document has
+     * been read. Nodes are parsed one at a time as they are read.
+     * </p>
+     *
+     * @param reader Reader.
+     * @throws IOException in case of failure
+     */
+    private MeshNetwork importNetwork(@NonNull final Reader reader) throws IOException, JsonParseException {
+        final JsonReader jsonReader = mGson.newJsonReader(reader);
+        jsonReader.setLenient(true);
+        final JsonObject jsonNetwork = new JsonObject();
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
+        jsonReader.beginObject();
+        while (jsonReader.hasNext()) {
+            final String name = jsonReader.nextName();
+            if (name.equals("nodes")) {
+                jsonReader.beginArray();
+                while (jsonReader.hasNext()) {
+                    final JsonArray jsonNode = new JsonArray();
+                    jsonNode.add(JsonParser.parseReader(jsonReader));
+                    final List<ProvisionedMeshNode> node = mGson.fromJson(jsonNode, mNodeListType);
+                    nodes.addAll(node);
+                }
+                jsonReader.endArray();
+                // Nodes are validated and assigned to the network once the remaining properties are deserialized.
+                jsonNetwork.add(name, new JsonArray());
+            } else {
+                jsonNetwork.add(name, JsonParser.parseReader(jsonReader));
             }
-            reader.close();
-            inputStream.close();
         }
-        return stringBuilder.toString();
+        jsonReader.endObject();
+
+        final MeshNetwork network = mGson.fromJson(jsonNetwork, MeshNetwork.class);
+        for (ProvisionedMeshNode node : nodes) {
+            node.setMeshUuid(network.getMeshUUID());
+        }
+        network.nodes = nodes;
+        mNetworkDeserializer.assignProvisionerAddresses(network);
+        return network;
     }
 
     /**
@@ -114,17 +188,28 @@ class ImportExportUtils {
     @Nullable
     protected String export(@NonNull final MeshNetwork network, final boolean partial) {
         try {
+            final StringWriter writer = new StringWriter();
             network.setPartial(partial);
-            return mGson.toJson(network);
-        } catch (final com.google.gson.JsonSyntaxException ex) {
-            MeshLogger.error(TAG, "Error: " + ex.getMessage());
-            return null;
+            writeNetwork(writer, network, new Selection(network, partial));
+            return writer.toString();
         } catch (final Exception e) {
             MeshLogger.error(TAG, "Error: " + e.getMessage());
             return null;
         }
     }
 
+    /**
+     * Exports the mesh network to a stream encoded in UTF-8. The stream is flushed but not closed.
+     *
+     * @param network      Mesh network to be exported
+     * @param outputStream Output stream.
+     * @throws IOException in case of failure
+     */
+    void export(@NonNull final MeshNetwork network, @NonNull final OutputStream outputStream) throws IOException {
+        network.setPartial(false);
+        writeNetwork(new OutputStreamWriter(outputStream, UTF_8), network, new Selection(network, false));
+    }
+
     @Nullable
     protected String export(@NonNull final MeshNetwork network,
                             @NonNull final NetworkKeysConfig networkKeysConfig,
@@ -133,243 +218,386 @@ class ImportExportUtils {
                             @NonNull final ProvisionersConfig provisionersConfig,
                             @NonNull final GroupsConfig groupsConfig,
                             @NonNull final ScenesConfig scenesConfig) {
-        //Let's use Gson to make a temporary copy of the network and apply the export configurations.
-        final MeshNetwork temp = mGson.fromJson(mGson.toJson(network), MeshNetwork.class);
-        return export(prepareNetwork(temp, networkKeysConfig, applicationKeysConfig, nodesConfig,
-                provisionersConfig, groupsConfig, scenesConfig), true);
+        try {
+            final StringWriter writer = new StringWriter();
+            writeNetwork(writer, network, new Selection(network, networkKeysConfig, applicationKeysConfig,
+                    nodesConfig, provisionersConfig, groupsConfig, scenesConfig));
+            return writer.toString();
+        } catch (final Exception e) {
+            MeshLogger.error(TAG, "Error: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Configures and returns a network with the export configuration provided.
+     * Exports a partial mesh network to a stream encoded in UTF-8 with the provided export configuration.
+     * The stream is flushed but not closed.
      *
-     * @param network               MeshNetwork.
+     * @param network               Mesh network to be exported.
+     * @param outputStream          Output stream.
      * @param networkKeysConfig     Network Keys configuration.
      * @param applicationKeysConfig Application Keys configuration.
      * @param nodesConfig           Nodes configuration.
      * @param provisionersConfig    Provisioners configuration.
      * @param groupsConfig          Groups configuration.
      * @param scenesConfig          Scenes configuration.
+     * @throws IOException in case of failure
      */
-    private MeshNetwork prepareNetwork(@NonNull final MeshNetwork network,
-                                       @NonNull final NetworkKeysConfig networkKeysConfig,
-                                       @NonNull final ApplicationKeysConfig applicationKeysConfig,
-                                       @NonNull final NodesConfig nodesConfig,
-                                       @NonNull final ProvisionersConfig provisionersConfig,
-                                       @NonNull final GroupsConfig groupsConfig,
-                                       @NonNull final ScenesConfig scenesConfig) {
-
-        // Initial list of nodes to export
-        if (nodesConfig.getConfig() instanceof NodesConfig.ExportWithoutDeviceKey) {
-            for (ProvisionedMeshNode node : network.nodes)
-                node.setDeviceKey(null);
-        } else if (nodesConfig.getConfig() instanceof NodesConfig.ExportSome) {
-            network.nodes.clear();
-            final List<ProvisionedMeshNode> withDeviceKey = ((NodesConfig.ExportSome) nodesConfig.getConfig()).getWithDeviceKey();
-            final List<ProvisionedMeshNode> withoutDeviceKey = ((NodesConfig.ExportSome) nodesConfig.getConfig()).getWithoutDeviceKey();
-            for (ProvisionedMeshNode node : withoutDeviceKey)
-                node.setDeviceKey(null);
-            network.nodes.addAll(withDeviceKey);
-            network.nodes.addAll(withoutDeviceKey);
-
-            // Add any missing provisioner nodes if they were not selected when selecting nodes.
-            for (Provisioner provisioner : network.provisioners) {
-                if (!isProvisionerExistsInNodes(provisioner, network.nodes)) {
-                    network.nodes.add(new ProvisionedMeshNode(provisioner, network.netKeys, network.appKeys));
+    void export(@NonNull final MeshNetwork network,
+                @NonNull final OutputStream outputStream,
+                @NonNull final NetworkKeysConfig networkKeysConfig,
+                @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                @NonNull final NodesConfig nodesConfig,
+                @NonNull final ProvisionersConfig provisionersConfig,
+                @NonNull final GroupsConfig groupsConfig,
+                @NonNull final ScenesConfig scenesConfig) throws IOException {
+        writeNetwork(new OutputStreamWriter(outputStream, UTF_8), network, new Selection(network, networkKeysConfig,
+                applicationKeysConfig, nodesConfig, provisionersConfig, groupsConfig, scenesConfig));
+    }
+
+    /**
+     * Writes the selected parts of the network in the Mesh Provisioning/Configuration Database format.
+     *
+     * @param writer    Writer.
+     * @param network   Mesh network.
+     * @param selection Parts of the network to be exported.
+     */
+    private void writeNetwork(@NonNull final Writer writer,
+                              @NonNull final MeshNetwork network,
+                              @NonNull final Selection selection) throws IOException {
+        final JsonWriter jsonWriter = mGson.newJsonWriter(writer);
+        jsonWriter.beginObject();
+        jsonWriter.name("$schema").value(network.getSchema());
+        jsonWriter.name("id").value(network.getId());
+        jsonWriter.name("version").value(network.getVersion());
+        jsonWriter.name("meshUUID").value(network.getMeshUUID().toUpperCase(Locale.US));
+        jsonWriter.name("meshName").value(network.getMeshName());
+        jsonWriter.name("timestamp").value(formatTimeStamp(network.getTimestamp()));
+        jsonWriter.name("partial").value(selection.partial);
+        jsonWriter.name("netKeys");
+        mGson.toJson(mNetworkDeserializer.serializeNetKeys(mSerializationContext, selection.netKeys), jsonWriter);
+        jsonWriter.name("appKeys");
+        mGson.toJson(mNetworkDeserializer.serializeAppKeys(mSerializationContext, selection.appKeys), jsonWriter);
+        jsonWriter.name("provisioners");
+        mGson.toJson(mNetworkDeserializer.serializeProvisioners(mSerializationContext, selection.provisioners), jsonWriter);
+        jsonWriter.name("nodes");
+        jsonWriter.beginArray();
+        for (ProvisionedMeshNode node : selection.nodes) {
+            final JsonObject jsonNode = mNetworkDeserializer
+                    .serializeNodes(mSerializationContext, Collections.singletonList(node))
+                    .getAsJsonArray().get(0).getAsJsonObject();
+            selection.filter(node, jsonNode);
+            mGson.toJson(jsonNode, jsonWriter);
+        }
+        jsonWriter.endArray();
+        jsonWriter.name("groups");
+        mGson.toJson(mNetworkDeserializer.serializeGroups(selection.groups), jsonWriter);
+        jsonWriter.name("scenes");
+        mGson.toJson(mNetworkDeserializer.serializeScenes(selection.scenes), jsonWriter);
+        jsonWriter.name("networkExclusions");
+        mGson.toJson(mNetworkDeserializer.serializeExclusionList(network.getNetworkExclusions()), jsonWriter);
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Parts of a network selected for export.
+     * <p>
+     * The selection only holds references to the objects in the network. Device keys, application keys and group
+     * addresses that are not exported are removed from the json representation of each node while it is written.
+     * </p>
+     */
+    private static final class Selection {
+        final boolean partial;
+        final List<NetworkKey> netKeys;
+        final List<ApplicationKey> appKeys;
+        final List<Provisioner> provisioners;
+        final List<ProvisionedMeshNode> nodes;
+        final List<Group> groups;
+        final List<Scene> scenes;
+        // Nodes exported without the device key
+        private final List<ProvisionedMeshNode> nodesWithoutDeviceKey = new ArrayList<>();
+        // Exported application key indexes, or null if bindings and publications are exported as they are
+        private Set<Integer> appKeyIndexes;
+        // Exported group addresses as formatted in the json, or null if subscriptions and publications are exported as they are
+        private Set<String> groupAddresses;
+
+        /**
+         * Selects the complete network.
+         */
+        Selection(@NonNull final MeshNetwork network, final boolean partial) {
+            this.partial = partial;
+            netKeys = network.getNetKeys();
+            appKeys = network.getAppKeys();
+            provisioners = network.getProvisioners();
+            nodes = network.getNodes();
+            groups = network.getGroups();
+            scenes = network.getScenes();
+        }
+
+        /**
+         * Selects the parts of the network matching the export configurations.
+         */
+        Selection(@NonNull final MeshNetwork network,
+                  @NonNull final NetworkKeysConfig networkKeysConfig,
+                  @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                  @NonNull final NodesConfig nodesConfig,
+                  @NonNull final ProvisionersConfig provisionersConfig,
+                  @NonNull final GroupsConfig groupsConfig,
+                  @NonNull final ScenesConfig scenesConfig) {
+            partial = true;
+
+            // Initial list of nodes to export
+            final List<ProvisionedMeshNode> selectedNodes = new ArrayList<>();
+            if (nodesConfig.getConfig() instanceof NodesConfig.ExportSome) {
+                final NodesConfig.ExportSome config = (NodesConfig.ExportSome) nodesConfig.getConfig();
+                selectedNodes.addAll(config.getWithDeviceKey());
+                selectedNodes.addAll(config.getWithoutDeviceKey());
+                nodesWithoutDeviceKey.addAll(config.getWithoutDeviceKey());
+
+                // Add any missing provisioner nodes if they were not selected when selecting nodes.
+                for (Provisioner provisioner : network.getProvisioners()) {
+                    if (!isProvisionerExistsInNodes(provisioner, selectedNodes)) {
+                        selectedNodes.add(new ProvisionedMeshNode(provisioner, network.getNetKeys(), network.getAppKeys()));
+                    }
+                }
+            } else {
+                selectedNodes.addAll(network.getNodes());
+                if (nodesConfig.getConfig() instanceof NodesConfig.ExportWithoutDeviceKey) {
+                    nodesWithoutDeviceKey.addAll(selectedNodes);
                 }
             }
-        }
 
-        // Include the selected provisioners
-        // List of provisioners to export
-        if (provisionersConfig.getConfig() instanceof ProvisionersConfig.ExportSome) {
-            // First Let's exclude provisioners that are not nodes
-            final ListIterator<Provisioner> provisionerListIterator = network.provisioners.listIterator();
-            while (provisionerListIterator.hasNext()) {
-                final Provisioner provisioner = provisionerListIterator.next();
-                if (!isProvisionerExistsInNodes(provisioner, network.nodes)) {
-                    provisionerListIterator.remove();
+            // List of provisioners to export
+            if (provisionersConfig.getConfig() instanceof ProvisionersConfig.ExportSome) {
+                // Provisioners that are nodes followed by the selected ones, without duplicates
+                provisioners = new ArrayList<>();
+                for (Provisioner provisioner : network.getProvisioners()) {
+                    if (isProvisionerExistsInNodes(provisioner, selectedNodes)) {
+                        provisioners.add(provisioner);
+                    }
                 }
+                final List<Provisioner> selectedProvisioners = ((ProvisionersConfig.ExportSome) provisionersConfig.getConfig()).getProvisioners();
+                for (Provisioner provisioner : selectedProvisioners) {
+                    if (!isProvisionerUuidInUse(provisioners, provisioner.getProvisionerUuid())) {
+                        provisioners.add(provisioner);
+                    }
+                }
+            } else {
+                provisioners = network.getProvisioners();
+            }
+
+            // List of Network Keys to export
+            if (networkKeysConfig.getConfig() instanceof NetworkKeysConfig.ExportSome) {
+                netKeys = ((NetworkKeysConfig.ExportSome) networkKeysConfig.getConfig()).getKeys();
+            } else {
+                netKeys = network.getNetKeys();
             }
 
-            // Now let's add the selected ones
-            // We must go through all items to ensure there are no duplicates
-            final List<Provisioner> selectedProvisioners = ((ProvisionersConfig.ExportSome) provisionersConfig.getConfig()).getProvisioners();
-            for (Provisioner provisioner : selectedProvisioners) {
-                if (!network.isProvisionerUuidInUse(provisioner.getProvisionerUuid())) {
-                    network.provisioners.add(provisioner);
+            // List of Application Keys to export, only the keys that are bound to an exported network key are exported.
+            if (applicationKeysConfig.getConfig() instanceof ApplicationKeysConfig.ExportSome) {
+                appKeys = new ArrayList<>();
+                for (ApplicationKey key : ((ApplicationKeysConfig.ExportSome) applicationKeysConfig.getConfig()).getKeys()) {
+                    if (isApplicationKeyBound(netKeys, key)) {
+                        appKeys.add(key);
+                    }
                 }
+            } else {
+                appKeys = network.getAppKeys();
+            }
+            appKeyIndexes = new HashSet<>();
+            for (ApplicationKey key : appKeys) {
+                appKeyIndexes.add(key.getKeyIndex());
             }
-        }
 
-        // List of Network Keys to export
-        if (networkKeysConfig.getConfig() instanceof NetworkKeysConfig.ExportSome) {
-            network.setNetKeys(((NetworkKeysConfig.ExportSome) networkKeysConfig.getConfig()).getKeys());
-        }
+            // Exclude nodes unknown to network keys
+            nodes = new ArrayList<>();
+            for (ProvisionedMeshNode node : selectedNodes) {
+                if (isNetworkKeyAdded(node, netKeys)) {
+                    nodes.add(node);
+                }
+            }
 
-        // List of Application Keys to export
-        if (applicationKeysConfig.getConfig() instanceof ApplicationKeysConfig.ExportSome) {
-            network.appKeys.clear();
-            // List of application keys set in the configuration, but we must only export the keys that are bound to that network key.
-            final List<ApplicationKey> keys = ((ApplicationKeysConfig.ExportSome) applicationKeysConfig.getConfig()).getKeys();
-            for (ApplicationKey key : keys) {
-                if (isApplicationKeyBound(network.getNetKeys(), key)) {
-                    network.appKeys.add(key);
+            if (groupsConfig.getConfig() instanceof GroupsConfig.ExportRelated) {
+                groups = getRelatedGroups(network.getGroups());
+            } else if (groupsConfig.getConfig() instanceof GroupsConfig.ExportSome) {
+                // Subscriptions and publications to groups that are not exported are removed.
+                groups = ((GroupsConfig.ExportSome) groupsConfig.getConfig()).getGroups();
+                groupAddresses = new HashSet<>();
+                for (Group group : groups) {
+                    groupAddresses.add(formatGroupAddress(group));
                 }
+            } else {
+                groups = network.getGroups();
+            }
+
+            final List<Scene> selectedScenes;
+            if (scenesConfig.getConfig() instanceof ScenesConfig.ExportSome) {
+                selectedScenes = ((ScenesConfig.ExportSome) scenesConfig.getConfig()).getScenes();
+            } else {
+                selectedScenes = network.getScenes();
             }
+            scenes = removeExcludedNodesFromScenes(selectedScenes);
         }
 
-        // Exclude nodes unknown to network keys
-        // TODO what will happen to the provisioner if the node is to excluded due to an unknown network key?
-        final ListIterator<ProvisionedMeshNode> nodeListIterator = network.nodes.listIterator();
-        while (nodeListIterator.hasNext()) {
-            final ProvisionedMeshNode node = nodeListIterator.next();
-            if (!isNetworkKeyAdded(node, network.getNetKeys())) {
-                nodeListIterator.remove();
-                continue;
+        /**
+         * Removes the device key, application keys and group addresses that are not exported from the json
+         * representation of a node.
+         *
+         * @param node     Mesh node.
+         * @param jsonNode Json representation of the node.
+         */
+        void filter(@NonNull final ProvisionedMeshNode node, @NonNull final JsonObject jsonNode) {
+            if (nodesWithoutDeviceKey.contains(node)) {
+                jsonNode.addProperty("deviceKey", "");
+            }
+            if ((appKeyIndexes == null && groupAddresses == null) || !jsonNode.has("elements"))
+                return;
+            for (JsonElement jsonElement : jsonNode.getAsJsonArray("elements")) {
+                final JsonObject element = jsonElement.getAsJsonObject();
+                if (!element.has("models"))
+                    continue;
+                for (JsonElement jsonModel : element.getAsJsonArray("models")) {
+                    filterModel(jsonModel.getAsJsonObject());
+                }
             }
-            excludeAppKeys(node, network.appKeys);
         }
 
-        if (groupsConfig.getConfig() instanceof GroupsConfig.ExportRelated) {
-            excludeNonRelatedGroups(network);
-        } else if (groupsConfig.getConfig() instanceof GroupsConfig.ExportSome) {
-            network.groups = ((GroupsConfig.ExportSome) groupsConfig.getConfig()).getGroups();
-            // If subscriptions/publications uses any excluded group addresses, let's remove them.
-            for (ProvisionedMeshNode node : network.getNodes()) {
-                for (Element element : node.getElements().values()) {
-                    for (MeshModel model : element.getMeshModels().values()) {
-                        for (Group group : network.groups) {
-                            if (model.getPublicationSettings() != null &&
-                                    isValidGroupAddress(model.getPublicationSettings().getPublishAddress()) &&
-                                    model.getPublicationSettings().getPublishAddress() != group.getAddress()) {
-                                model.setPublicationSettings(null);
-                            }
-                            model.getSubscribedAddresses().remove((Integer) group.getAddress());
-                        }
+        private void filterModel(@NonNull final JsonObject model) {
+            if (appKeyIndexes != null && model.has("bind")) {
+                final Iterator<JsonElement> boundKeyIndexes = model.getAsJsonArray("bind").iterator();
+                while (boundKeyIndexes.hasNext()) {
+                    if (!appKeyIndexes.contains(boundKeyIndexes.next().getAsInt())) {
+                        boundKeyIndexes.remove();
                     }
                 }
             }
+            if (groupAddresses != null && model.has("subscribe")) {
+                final Iterator<JsonElement> addresses = model.getAsJsonArray("subscribe").iterator();
+                while (addresses.hasNext()) {
+                    if (isExcludedGroupAddress(addresses.next().getAsString())) {
+                        addresses.remove();
+                    }
+                }
+            }
+            if (model.has("publish") && model.get("publish").isJsonObject()) {
+                final JsonObject publish = model.getAsJsonObject("publish");
+                if ((appKeyIndexes != null && !appKeyIndexes.contains(publish.get("index").getAsInt())) ||
+                        isExcludedGroupAddress(publish.get("address").getAsString())) {
+                    model.remove("publish");
+                }
+            }
         }
 
-        if (scenesConfig.getConfig() instanceof ScenesConfig.ExportSome) {
-            network.scenes = ((ScenesConfig.ExportSome) scenesConfig.getConfig()).getScenes();
+        /**
+         * Returns true if the address is a group or virtual address that is not exported.
+         *
+         * @param address Address as formatted in the json.
+         */
+        private boolean isExcludedGroupAddress(@NonNull final String address) {
+            if (groupAddresses == null || groupAddresses.contains(address))
+                return false;
+            // Virtual addresses are exported as Label UUIDs
+            if (address.length() == 32)
+                return true;
+            final int value = Integer.parseInt(address, 16);
+            return MeshAddress.isValidGroupAddress(value) && !MeshAddress.isValidFixedGroupAddress(value);
         }
-        removeExcludedNodesFromScenes(network.nodes, network.scenes);
-        return network;
-    }
 
-    /**
-     * Check if the provisioner exists in the nodes list
-     *
-     * @param provisioner Provisioner
-     * @param nodes       List of nodes
-     * @return returns true if the provisioner exists in the selected list of nodes or false otherwise.
-     */
-    private boolean isProvisionerExistsInNodes(@NonNull final Provisioner provisioner, @NonNull final List<ProvisionedMeshNode> nodes) {
-        if (provisioner.getProvisionerAddress() != null) {
+        /**
+         * Returns the groups that are subscribed to or published to by the exported nodes.
+         *
+         * @param networkGroups Groups in the network.
+         */
+        private List<Group> getRelatedGroups(@NonNull final List<Group> networkGroups) {
+            final Set<Integer> addresses = new HashSet<>();
             for (ProvisionedMeshNode node : nodes) {
-                if (node.getUuid().equalsIgnoreCase(provisioner.getProvisionerUuid()))
-                    return true;
+                for (Element element : node.getElements().values()) {
+                    for (MeshModel model : element.getMeshModels().values()) {
+                        final PublicationSettings settings = model.getPublicationSettings();
+                        if (settings != null && appKeyIndexes.contains(settings.getAppKeyIndex())) {
+                            addresses.add(settings.getPublishAddress());
+                        }
+                        addresses.addAll(model.getSubscribedAddresses());
+                    }
+                }
             }
-        }
-        return false;
-    }
-
-    /**
-     * Excludes groups that are not related tot he list of nodes.
-     *
-     * @param network Mesh network.
-     */
-    private void excludeNonRelatedGroups(@NonNull final MeshNetwork network) {
-        final List<Group> groups = new ArrayList<>();
-        for (Group group : network.getGroups()) {
-            for (ProvisionedMeshNode node : network.getNodes()) {
-                if (isGroupInUse(node, group)) {
+            final List<Group> groups = new ArrayList<>();
+            for (Group group : networkGroups) {
+                if (addresses.contains(group.getAddress())) {
                     groups.add(group);
                 }
             }
+            return groups;
         }
-        network.groups = groups;
-    }
 
-    /**
-     * Checks if the node has subscribed or publishes to the group.
-     *
-     * @param node  Node
-     * @param group Group
-     * @return true if is in use or false otherwise.
-     */
-    private boolean isGroupInUse(@NonNull final ProvisionedMeshNode node, @NonNull final Group group) {
-        for (final Element element : node.getElements().values()) {
-            for (final MeshModel model : element.getMeshModels().values()) {
-                if (model.getPublicationSettings().getPublishAddress() == group.getAddress() ||
-                        model.getSubscribedAddresses().contains((Integer) group.getAddress())) {
-                    return true;
+        /**
+         * Returns copies of the scenes without the addresses of nodes that are not exported.
+         *
+         * @param selectedScenes Selected scenes.
+         */
+        private List<Scene> removeExcludedNodesFromScenes(@NonNull final List<Scene> selectedScenes) {
+            final Set<Integer> unicastAddresses = new HashSet<>();
+            for (ProvisionedMeshNode node : nodes) {
+                unicastAddresses.add(node.getUnicastAddress());
+            }
+            final List<Scene> scenes = new ArrayList<>();
+            for (Scene selectedScene : selectedScenes) {
+                final List<Integer> addresses = new ArrayList<>();
+                for (Integer address : selectedScene.getAddresses()) {
+                    if (unicastAddresses.contains(address)) {
+                        addresses.add(address);
+                    }
                 }
+                final Scene scene = new Scene(selectedScene.getNumber(), addresses, selectedScene.getMeshUuid());
+                scene.setName(selectedScene.getName());
+                scenes.add(scene);
             }
+            return scenes;
         }
-        return false;
     }
 
     /**
-     * Removes excluded node from a scene addresses.
+     * Returns the address of a group as formatted in the json.
      *
-     * @param nodes  List of nodes in the network.
-     * @param scenes List of scenes in the network.
+     * @param group Group
      */
-    private void removeExcludedNodesFromScenes(@NonNull List<ProvisionedMeshNode> nodes, @NonNull List<Scene> scenes) {
-        ListIterator<Integer> addresses;
-        Integer address;
-        for (Scene scene : scenes) {
-            addresses = scene.getAddresses().listIterator();
-            while (addresses.hasNext()) {
-                address = addresses.next();
-                if (!isNodeAddressExistsInScene(nodes, address)) {
-                    addresses.remove();
-                }
-            }
+    private static String formatGroupAddress(@NonNull final Group group) {
+        if (group.getAddressLabel() == null) {
+            return MeshAddress.formatAddress(group.getAddress(), false);
         }
+        return uuidToHex(group.getAddressLabel());
     }
 
     /**
-     * Checks if a scene address exists exists in the list of nodes in the network.
+     * Check if the provisioner exists in the nodes list
      *
-     * @param nodes   List of nodes in the network.
-     * @param address Scene address.
-     * @return true if node address is included in scene.
+     * @param provisioner Provisioner
+     * @param nodes       List of nodes
+     * @return returns true if the provisioner exists in the selected list of nodes or false otherwise.
      */
-    private boolean isNodeAddressExistsInScene(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final Integer address) {
-        for (ProvisionedMeshNode node : nodes) {
-            if (address == node.getUnicastAddress()) {
-                return true;
+    private static boolean isProvisionerExistsInNodes(@NonNull final Provisioner provisioner, @NonNull final List<ProvisionedMeshNode> nodes) {
+        if (provisioner.getProvisionerAddress() != null) {
+            for (ProvisionedMeshNode node : nodes) {
+                if (node.getUuid().equalsIgnoreCase(provisioner.getProvisionerUuid()))
+                    return true;
             }
         }
         return false;
     }
 
     /**
-     * Exclude application keys that may be bound or used for publication by the models in the node that are not in the list.
+     * Checks if a provisioner with the given UUID exists in the list of provisioners.
      *
-     * @param node            Mesh node.
-     * @param applicationKeys Selected Application keys.
+     * @param provisioners List of provisioners.
+     * @param uuid         Provisioner UUID.
      */
-    private void excludeAppKeys(@NonNull final ProvisionedMeshNode node, @NonNull final List<ApplicationKey> applicationKeys) {
-        int index;
-        for (Element element : node.getElements().values()) {
-            for (MeshModel model : element.getMeshModels().values()) {
-                final ListIterator<Integer> boundKeyIndexes = model.getBoundAppKeyIndexes().listIterator();
-                while (boundKeyIndexes.hasNext()) {
-                    index = boundKeyIndexes.next();
-                    if (!isApplicationKeyBound(index, applicationKeys)) {
-                        boundKeyIndexes.remove();
-                        if (model.getPublicationSettings() != null && model.getPublicationSettings().getAppKeyIndex() == index) {
-                            model.setPublicationSettings(null);
-                        }
-                    }
-
-                }
-            }
+    private static boolean isProvisionerUuidInUse(@NonNull final List<Provisioner> provisioners, @NonNull final String uuid) {
+        for (Provisioner provisioner : provisioners) {
+            if (provisioner.getProvisionerUuid().equalsIgnoreCase(uuid))
+                return true;
         }
+        return false;
     }
 
     /**
@@ -379,17 +607,9 @@ class ImportExportUtils {
      * @param applicationKey Application key.
      * @return true if bound and false otherwise
      */
-    private boolean isApplicationKeyBound(@NonNull final List<NetworkKey> networkKeys, @NonNull final ApplicationKey applicationKey) {
+    private static boolean isApplicationKeyBound(@NonNull final List<NetworkKey> networkKeys, @NonNull final ApplicationKey applicationKey) {
         for (NetworkKey networkKey : networkKeys) {
-            if (networkKey.keyIndex == applicationKey.keyIndex) return true;
-        }
-        return false;
-    }
-
-    private boolean isApplicationKeyBound(@NonNull final Integer index, @NonNull final List<ApplicationKey> keys) {
-        for (ApplicationKey key : keys) {
-            if (index == key.getKeyIndex())
-                return true;
+            if (networkKey.getKeyIndex() == applicationKey.getBoundNetKeyIndex()) return true;
         }
         return false;
     }
@@ -401,7 +621,7 @@ class ImportExportUtils {
      * @param networkKeys Network keys.
      * @return true if bound and false otherwise
      */
-    private boolean isNetworkKeyAdded(@NonNull final ProvisionedMeshNode node, @NonNull final List<NetworkKey> networkKeys) {
+    private static boolean isNetworkKeyAdded(@NonNull final ProvisionedMeshNode node, @NonNull final List<NetworkKey> networkKeys) {
         for (NetworkKey networkKey : networkKeys) {
             for (NodeKey nodeKey : node.getAddedNetKeys()) {
                 if (nodeKey.getIndex() == networkKey.getKeyIndex()) return true;
@@ -27,6 +27,9 @@ import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.security.Security;
@@ -38,6 +41,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map.Entry;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -56,11 +62,19 @@ import no.nordicsemi.android.mesh.data.SceneDao;
 import no.nordicsemi.android.mesh.data.ScenesDao;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
 import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.timer.HandlerScheduler;
+import no.nordicsemi.android.mesh.timer.HashedWheelScheduler;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
+import no.nordicsemi.android.mesh.transport.ConfigNetKeyStatus;
+import no.nordicsemi.android.mesh.transport.ControlMessage;
 import no.nordicsemi.android.mesh.transport.MeshMessage;
 import no.nordicsemi.android.mesh.transport.NetworkLayerCallbacks;
+import no.nordicsemi.android.mesh.transport.OpCodeRegistry;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 import no.nordicsemi.android.mesh.transport.UpperTransportLayerCallbacks;
+import no.nordicsemi.android.mesh.transport.VendorModelMessageStatus;
 import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
 import no.nordicsemi.android.mesh.utils.InputOOBAction;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
@@ -82,19 +96,17 @@ public class MeshManagerApi implements MeshMngrApi {
     public static final byte PDU_TYPE_MESH_BEACON = 0x01;
     public static final byte PDU_TYPE_PROXY_CONFIGURATION = 0x02;
     //GATT level segmentation
-    private static final byte GATT_SAR_COMPLETE = 0b00;
     private static final byte GATT_SAR_START = 0b01;
     private static final byte GATT_SAR_CONTINUATION = 0b10;
     private static final byte GATT_SAR_END = 0b11;
     //GATT level segmentation mask
-    private static final int GATT_SAR_MASK = 0xC0;
     private static final int GATT_SAR_UNMASK = 0x3F;
-    private static final int SAR_BIT_OFFSET = 6;
 
     private static final long PROXY_SAR_TRANSFER_TIME_OUT = 20 * 1000; // According to the spec the proxy protocol must contain an SAR timeout of 20 seconds.
     private final static int HASH_RANDOM_NUMBER_LENGTH = 64; // Length of the random number required to calculate the hash containing the node id in bits
     private static final int ADVERTISEMENT_TYPE_NETWORK_ID = 0x00;
     private static final int ADVERTISEMENT_TYPE_NODE_IDENTITY = 0x01;
+    private static final long DEFAULT_NETWORK_UPDATE_DELAY = 250;
     private final static int ADVERTISED_HASH_OFFSET = 1; // Offset of the hash contained in the advertisement service data
     private final static int ADVERTISED_HASH_LENGTH = 8; // Length of the hash contained in the advertisement service data
     private final static int ADVERTISED_RANDOM_OFFSET = 9; // Offset of the hash contained in the advertisement service data
@@ -104,14 +116,20 @@ public class MeshManagerApi implements MeshMngrApi {
 
     private final Context mContext;
     private final Handler mHandler;
+    private MeshScheduler mScheduler;
     private MeshManagerCallbacks mMeshManagerCallbacks;
     private final MeshProvisioningHandler mMeshProvisioningHandler;
     private final MeshMessageHandler mMeshMessageHandler;
+    private final MeshTransactionManager mTransactionManager;
+    private final List<BlobTransfer> mBlobTransfers = new CopyOnWriteArrayList<>();
+    private final List<FirmwareDistribution> mFirmwareDistributions = new CopyOnWriteArrayList<>();
+    private MeshStatusCallbacks mMeshStatusCallbacks;
     private final ImportExportUtils mImportExportUtils;
-    private byte[] mIncomingBuffer;
-    private int mIncomingBufferOffset;
-    private byte[] mOutgoingBuffer;
-    private int mOutgoingBufferOffset;
+    private final NodeIdentityResolver mNodeIdentityResolver = new NodeIdentityResolver();
+    // Reassembly buffers for segmented Proxy PDUs, by PDU type
+    private final ProxySarBuffer[] mIncomingBuffers = new ProxySarBuffer[GATT_SAR_UNMASK + 1];
+    private final ProxySarBuffer[] mOutgoingBuffers = new ProxySarBuffer[GATT_SAR_UNMASK + 1];
+    private final MeshScheduler.Cancellable[] mProxyProtocolTimeouts = new MeshScheduler.Cancellable[GATT_SAR_UNMASK + 1];
     private MeshNetwork mMeshNetwork;
     private boolean ivUpdateTestModeActive = false;
     private boolean allowIvIndexRecoveryOver42 = false;
@@ -130,15 +148,9 @@ public class MeshManagerApi implements MeshMngrApi {
     private GroupsDao mGroupsDao;
     private SceneDao mSceneDao;
     private ScenesDao mScenesDao;
+    private long mNetworkUpdateDelay = DEFAULT_NETWORK_UPDATE_DELAY;
     private boolean isNetworkImportInProgress = false;
 
-    private final Runnable mProxyProtocolTimeoutRunnable = new Runnable() {
-        @Override
-        public void run() {
-            mMeshMessageHandler.onIncompleteTimerExpired(MeshAddress.UNASSIGNED_ADDRESS);
-        }
-    };
-
     /**
      * The mesh manager api constructor.
      *
@@ -147,8 +159,11 @@ public class MeshManagerApi implements MeshMngrApi {
     public MeshManagerApi(@NonNull final Context context) {
         this.mContext = context;
         mHandler = new Handler(Looper.getMainLooper());
+        mScheduler = new HashedWheelScheduler(new HandlerScheduler(mHandler));
         mMeshProvisioningHandler = new MeshProvisioningHandler(context, internalTransportCallbacks, internalMeshMgrCallbacks);
-        mMeshMessageHandler = new MeshMessageHandler(context, internalTransportCallbacks, networkLayerCallbacks, upperTransportLayerCallbacks);
+        mMeshMessageHandler = new MeshMessageHandler(mScheduler, internalTransportCallbacks, networkLayerCallbacks, upperTransportLayerCallbacks);
+        mMeshMessageHandler.setMeshStatusCallbacks(meshStatusCallbacks);
+        mTransactionManager = new MeshTransactionManager(mScheduler, this::createMeshPdu);
         mImportExportUtils = new ImportExportUtils();
         initBouncyCastle();
         //Init database
@@ -167,7 +182,7 @@ public class MeshManagerApi implements MeshMngrApi {
 
     @Override
     public void setMeshStatusCallbacks(@NonNull final MeshStatusCallbacks callbacks) {
-        mMeshMessageHandler.setMeshStatusCallbacks(callbacks);
+        mMeshStatusCallbacks = callbacks;
     }
 
     @Override
@@ -196,6 +211,64 @@ public class MeshManagerApi implements MeshMngrApi {
         this.allowIvIndexRecoveryOver42 = allowIvIndexRecoveryOver42;
     }
 
+    @Override
+    public void setMaxConcurrentReassemblies(final int maxConcurrentReassemblies) {
+        mMeshMessageHandler.setMaxConcurrentReassemblies(maxConcurrentReassemblies);
+    }
+
+    @Override
+    public void setScheduler(@NonNull final MeshScheduler scheduler) {
+        mScheduler = scheduler;
+        mMeshMessageHandler.setScheduler(scheduler);
+        mTransactionManager.setScheduler(scheduler);
+    }
+
+    @Override
+    public void setReceiveExecutor(@Nullable final Executor executor) {
+        mMeshMessageHandler.setReceiveExecutor(executor, mHandler::post);
+    }
+
+    @Override
+    public void setNodeIdentityExecutor(@Nullable final Executor executor) {
+        mNodeIdentityResolver.setExecutor(executor);
+    }
+
+    @Override
+    public void registerVendorModelStatus(final int companyIdentifier,
+                                          final int opCode,
+                                          @NonNull final OpCodeRegistry.StatusDecoder<? extends VendorModelMessageStatus> decoder) {
+        mMeshMessageHandler.getOpCodeRegistry().registerVendorModelStatus(companyIdentifier, opCode, decoder);
+    }
+
+    @Override
+    public void unregisterVendorModelStatus(final int companyIdentifier, final int opCode) {
+        mMeshMessageHandler.getOpCodeRegistry().unregisterVendorModelStatus(companyIdentifier, opCode);
+    }
+
+    @Override
+    public void setNetworkUpdateDelay(final long delay) {
+        if (delay < 0)
+            throw new IllegalArgumentException("Network update delay cannot be negative.");
+        mNetworkUpdateDelay = delay;
+    }
+
+    @Override
+    public void flush() {
+        try {
+            mMeshNetworkDb.flush().get();
+        } catch (ExecutionException e) {
+            MeshLogger.error(TAG, "Error while writing the mesh network: " + e.getMessage());
+        } catch (InterruptedException e) {
+            MeshLogger.error(TAG, "Interrupted while writing the mesh network: " + e.getMessage());
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void flushAsync() {
+        mMeshNetworkDb.flush();
+    }
+
     private void initBouncyCastle() {
         Security.insertProviderAt(new org.spongycastle.jce.provider.BouncyCastleProvider(), 1);
     }
@@ -235,33 +308,70 @@ public class MeshManagerApi implements MeshMngrApi {
     @Override
     public final void handleNotifications(final int mtuSize, @NonNull final byte[] data) {
         byte[] unsegmentedPdu;
-        if (!isGattSegmented(data)) {
+        if (!ProxySarBuffer.isSegmented(data)) {
             unsegmentedPdu = data;
         } else {
-            final byte[] combinedPdu = appendPdu(mtuSize, data);
-            if (combinedPdu == null) {
-                //Start the timer
-                toggleProxyProtocolSarTimeOut(data);
+            final ProxySarBuffer buffer = getSarBuffer(mIncomingBuffers, data);
+            final boolean complete = buffer.append(data, Math.min(data.length, mtuSize));
+            toggleProxyProtocolSarTimeOut(buffer, data);
+            if (!complete)
                 return;
-            } else {
-                toggleProxyProtocolSarTimeOut(data);
-                unsegmentedPdu = removeSegmentation(mtuSize, combinedPdu);
-            }
+            unsegmentedPdu = buffer.getPdu();
         }
         parseNotifications(unsegmentedPdu);
     }
 
     /**
-     * Toggles the Segmentation and Reassembly timeout for proxy configuration messages received via proxy protocol
+     * Returns the reassembly buffer for the PDU type of a segment, creating it when the first segment of that type is
+     * received.
      *
-     * @param data pdu
+     * @param buffers Reassembly buffers by PDU type.
+     * @param segment Segmented pdu.
      */
-    private void toggleProxyProtocolSarTimeOut(final byte[] data) {
-        final int pduType = MeshParserUtils.unsignedByteToInt(data[0]);
-        if (pduType == ((GATT_SAR_START << SAR_BIT_OFFSET) | MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION)) {
-            mHandler.postDelayed(mProxyProtocolTimeoutRunnable, PROXY_SAR_TRANSFER_TIME_OUT);
-        } else if (pduType == ((GATT_SAR_END << SAR_BIT_OFFSET) | MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION)) {
-            mHandler.removeCallbacks(mProxyProtocolTimeoutRunnable);
+    private ProxySarBuffer getSarBuffer(@NonNull final ProxySarBuffer[] buffers, @NonNull final byte[] segment) {
+        final int pduType = ProxySarBuffer.getPduType(segment);
+        ProxySarBuffer buffer = buffers[pduType];
+        if (buffer == null) {
+            buffer = new ProxySarBuffer(pduType);
+            buffers[pduType] = buffer;
+        }
+        return buffer;
+    }
+
+    /**
+     * Toggles the Segmentation and Reassembly timeout of the PDU type of a message received via proxy protocol.
+     * Each PDU type is reassembled in a buffer of its own and times out independently of the others.
+     *
+     * @param buffer Reassembly buffer of the PDU type.
+     * @param data   pdu
+     */
+    private void toggleProxyProtocolSarTimeOut(@NonNull final ProxySarBuffer buffer, final byte[] data) {
+        final int pduType = buffer.getPduType();
+        if (ProxySarBuffer.isFirstSegment(data)) {
+            cancelProxyProtocolSarTimeOut(pduType);
+            mProxyProtocolTimeouts[pduType] = mScheduler.schedule(() -> {
+                MeshLogger.debug(TAG, () -> "Proxy protocol SAR timeout for PDU type " + pduType);
+                mProxyProtocolTimeouts[pduType] = null;
+                buffer.reset();
+                if (pduType == PDU_TYPE_PROXY_CONFIGURATION) {
+                    mMeshMessageHandler.onIncompleteTimerExpired(MeshAddress.UNASSIGNED_ADDRESS);
+                }
+            }, PROXY_SAR_TRANSFER_TIME_OUT);
+        } else if (!buffer.isInProgress()) {
+            cancelProxyProtocolSarTimeOut(pduType);
+        }
+    }
+
+    /**
+     * Cancels the Segmentation and Reassembly timeout of a PDU type.
+     *
+     * @param pduType PDU type.
+     */
+    private void cancelProxyProtocolSarTimeOut(final int pduType) {
+        final MeshScheduler.Cancellable timeout = mProxyProtocolTimeouts[pduType];
+        if (timeout != null) {
+            timeout.cancel();
+            mProxyProtocolTimeouts[pduType] = null;
         }
     }
 
@@ -275,27 +385,25 @@ public class MeshManagerApi implements MeshMngrApi {
             switch (unsegmentedPdu[0]) {
                 case PDU_TYPE_NETWORK:
                     //MeshNetwork PDU
-                    MeshLogger.verbose(TAG, "Received network pdu: " + MeshParserUtils.bytesToHex(unsegmentedPdu, true));
+                    MeshLogger.verbose(TAG, () -> "Received network pdu: " + MeshParserUtils.bytesToHex(unsegmentedPdu, true));
                     mMeshMessageHandler.parseMeshPduNotifications(unsegmentedPdu, mMeshNetwork);
                     break;
                 case PDU_TYPE_MESH_BEACON:
+                    final byte[] receivedBeaconData = new byte[unsegmentedPdu.length - 1];
+                    System.arraycopy(unsegmentedPdu, 1, receivedBeaconData, 0, receivedBeaconData.length);
+                    //Proxies repeat the same beacon, which has no effect once it has been processed
+                    if (mMeshNetwork.secureNetworkBeaconCache.contains(receivedBeaconData)) {
+                        MeshLogger.verbose(TAG, "Ignoring Secure Network Beacon that has already been processed");
+                        break;
+                    }
+                    final SecureNetworkBeacon receivedBeacon = new SecureNetworkBeacon(receivedBeaconData);
+                    MeshLogger.debug(TAG, () -> "Received mesh beacon: " + receivedBeacon);
                     //Validate SNBs against all network keys
                     NetworkKey networkKey;
                     for (int i = 0; i < mMeshNetwork.getNetKeys().size(); i++) {
                         networkKey = mMeshNetwork.getNetKeys().get(i);
-                        final byte[] receivedBeaconData = new byte[unsegmentedPdu.length - 1];
-                        System.arraycopy(unsegmentedPdu, 1, receivedBeaconData, 0, receivedBeaconData.length);
-                        final SecureNetworkBeacon receivedBeacon = new SecureNetworkBeacon(receivedBeaconData);
-
-                        final byte[] n = networkKey.getTxNetworkKey();
-                        final int flags = receivedBeacon.getFlags();
-                        final byte[] networkId = SecureUtils.calculateK3(n);
-                        final int ivIndex = receivedBeacon.getIvIndex().getIvIndex();
-                        MeshLogger.debug(TAG, "Received mesh beacon: " + receivedBeacon);
-
-                        final SecureNetworkBeacon localSecureNetworkBeacon = SecureUtils.createSecureNetworkBeacon(n, flags, networkId, ivIndex);
-                        //Check the the beacon received is a valid by matching the authentication values
-                        if (Arrays.equals(receivedBeacon.getAuthenticationValue(), localSecureNetworkBeacon.getAuthenticationValue())) {
+                        //Check the the beacon received is a valid by matching the network id and the authentication values
+                        if (receivedBeacon.isAuthenticatedBy(networkKey)) {
                             MeshLogger.debug(TAG, "Secure Network Beacon authenticated.");
 
                             //  The library does not retransmit Secure Network Beacon.
@@ -309,7 +417,7 @@ public class MeshManagerApi implements MeshMngrApi {
                             // Get the last IV Index.
                             /// The last used IV Index for this mesh network.
                             final IvIndex lastIvIndex = mMeshNetwork.getIvIndex();
-                            MeshLogger.debug(TAG, "Last IV Index: " + lastIvIndex.getIvIndex());
+                            MeshLogger.debug(TAG, () -> "Last IV Index: " + lastIvIndex.getIvIndex());
                             /// The date of the last change of IV Index or IV Update Flag.
                             final Calendar lastTransitionDate = lastIvIndex.getTransitionDate();
                             /// A flag whether the IV has recently been updated using IV Recovery procedure.
@@ -372,17 +480,22 @@ public class MeshManagerApi implements MeshMngrApi {
                                     }
                                 }
                             }
+                            // Only a beacon describing the resulting state may be ignored when it is received again
+                            if (receivedBeacon.matches(mMeshNetwork.ivIndex)) {
+                                mMeshNetwork.secureNetworkBeaconCache.add(receivedBeaconData);
+                            }
+                            break;
                         }
                     }
                     break;
                 case PDU_TYPE_PROXY_CONFIGURATION:
                     //Proxy configuration
-                    MeshLogger.verbose(TAG, "Received proxy configuration message: " + MeshParserUtils.bytesToHex(unsegmentedPdu, true));
+                    MeshLogger.verbose(TAG, () -> "Received proxy configuration message: " + MeshParserUtils.bytesToHex(unsegmentedPdu, true));
                     mMeshMessageHandler.parseMeshPduNotifications(unsegmentedPdu, mMeshNetwork);
                     break;
                 case PDU_TYPE_PROVISIONING:
                     //Provisioning PDU
-                    MeshLogger.verbose(TAG, "Received provisioning message: " + MeshParserUtils.bytesToHex(unsegmentedPdu, true));
+                    MeshLogger.verbose(TAG, () -> "Received provisioning message: " + MeshParserUtils.bytesToHex(unsegmentedPdu, true));
                     mMeshProvisioningHandler.parseProvisioningNotifications(unsegmentedPdu);
                     break;
             }
@@ -396,15 +509,13 @@ public class MeshManagerApi implements MeshMngrApi {
     @Override
     public final void handleWriteCallbacks(final int mtuSize, @NonNull final byte[] data) {
         byte[] unsegmentedPdu;
-        if (!isGattSegmented(data)) {
+        if (!ProxySarBuffer.isSegmented(data)) {
             unsegmentedPdu = data;
         } else {
-            final byte[] combinedPdu = appendWritePdu(mtuSize, data);
-            if (combinedPdu == null)
+            final ProxySarBuffer buffer = getSarBuffer(mOutgoingBuffers, data);
+            if (!buffer.append(data, Math.min(data.length, mtuSize)))
                 return;
-            else {
-                unsegmentedPdu = removeSegmentation(mtuSize, combinedPdu);
-            }
+            unsegmentedPdu = buffer.getPdu();
         }
         handleWriteCallbacks(unsegmentedPdu);
     }
@@ -417,92 +528,21 @@ public class MeshManagerApi implements MeshMngrApi {
     private void handleWriteCallbacks(final byte[] data) {
         switch (data[0]) {
             case PDU_TYPE_NETWORK: // MeshNetwork PDU
-                MeshLogger.verbose(TAG, "MeshNetwork pdu sent: " + MeshParserUtils.bytesToHex(data, true));
+                MeshLogger.verbose(TAG, () -> "MeshNetwork pdu sent: " + MeshParserUtils.bytesToHex(data, true));
                 break;
             case PDU_TYPE_MESH_BEACON: // MESH BEACON
-                MeshLogger.verbose(TAG, "Mesh beacon pdu sent: " + MeshParserUtils.bytesToHex(data, true));
+                MeshLogger.verbose(TAG, () -> "Mesh beacon pdu sent: " + MeshParserUtils.bytesToHex(data, true));
                 break;
             case PDU_TYPE_PROXY_CONFIGURATION: // Proxy configuration
-                MeshLogger.verbose(TAG, "Proxy configuration pdu sent: " + MeshParserUtils.bytesToHex(data, true));
+                MeshLogger.verbose(TAG, () -> "Proxy configuration pdu sent: " + MeshParserUtils.bytesToHex(data, true));
                 break;
             case PDU_TYPE_PROVISIONING: // Provisioning PDU
-                MeshLogger.verbose(TAG, "Provisioning pdu sent: " + MeshParserUtils.bytesToHex(data, true));
+                MeshLogger.verbose(TAG, () -> "Provisioning pdu sent: " + MeshParserUtils.bytesToHex(data, true));
                 mMeshProvisioningHandler.handleProvisioningWriteCallbacks();
                 break;
         }
     }
 
-    @SuppressWarnings("BooleanMethodIsAlwaysInverted")
-    private boolean isGattSegmented(final byte[] pdu) {
-        final int gattSar = (pdu[0] & GATT_SAR_MASK) >> SAR_BIT_OFFSET;
-        switch (gattSar) {
-            case GATT_SAR_START:
-            case GATT_SAR_CONTINUATION:
-            case GATT_SAR_END:
-                return true;
-            default:
-                return false;
-        }
-    }
-
-    /**
-     * Appends the PDUs that are segmented at gatt layer.
-     *
-     * @param mtuSize mtu size supported by the device/node
-     * @param pdu     pdu received by the provisioner
-     * @return the combine pdu or returns null if not complete.
-     */
-    private byte[] appendPdu(final int mtuSize, final byte[] pdu) {
-        final int length = Math.min(pdu.length, mtuSize);
-        if (mIncomingBuffer == null) {
-            mIncomingBufferOffset = 0;
-            mIncomingBufferOffset += length;
-            mIncomingBuffer = pdu;
-        } else {
-            final byte[] buffer = new byte[mIncomingBuffer.length + length];
-            System.arraycopy(mIncomingBuffer, 0, buffer, 0, mIncomingBufferOffset);
-            System.arraycopy(pdu, 0, buffer, mIncomingBufferOffset, length);
-            mIncomingBufferOffset += length;
-            mIncomingBuffer = buffer;
-            final int sar = MeshParserUtils.unsignedByteToInt(pdu[0]) >> SAR_BIT_OFFSET;
-            if (sar == GATT_SAR_END) {
-                final byte[] packet = mIncomingBuffer;
-                mIncomingBuffer = null;
-                return packet;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Appends the PDUs that are segmented at gatt layer.
-     *
-     * @param mtuSize mtu size supported by the device/node
-     * @param pdu     pdu received by the provisioner
-     * @return the combine pdu or returns null if not complete.
-     */
-    private byte[] appendWritePdu(final int mtuSize, final byte[] pdu) {
-        if (mOutgoingBuffer == null) {
-            final int length = Math.min(pdu.length, mtuSize);
-            mOutgoingBufferOffset = 0;
-            mOutgoingBufferOffset += length;
-            mOutgoingBuffer = pdu;
-        } else {
-            final int length = Math.min(pdu.length, mtuSize);
-            final byte[] buffer = new byte[mOutgoingBuffer.length + length];
-            System.arraycopy(mOutgoingBuffer, 0, buffer, 0, mOutgoingBufferOffset);
-            System.arraycopy(pdu, 0, buffer, mOutgoingBufferOffset, length);
-            mOutgoingBufferOffset += length;
-            mOutgoingBuffer = buffer;
-            if (length < mtuSize) {
-                final byte[] packet = mOutgoingBuffer;
-                mOutgoingBuffer = null;
-                return packet;
-            }
-        }
-        return null;
-    }
-
     private byte[] applySegmentation(final int mtuSize, final byte[] pdu) {
         int srcOffset = 0;
         int dstOffset = 0;
@@ -534,34 +574,6 @@ public class MeshManagerApi implements MeshMngrApi {
         return pdu;
     }
 
-    private byte[] removeSegmentation(final int mtuSize, final byte[] data) {
-        int srcOffset = 0;
-        int dstOffset = 0;
-        final int chunks = (data.length + (mtuSize - 1)) / mtuSize;
-        if (chunks > 1) {
-            final byte[] buffer = new byte[data.length - (chunks - 1)];
-            int length;
-            for (int i = 0; i < chunks; i++) {
-                // when removing segmentation bits we only remove the start because the pdu type would be the same for each segment.
-                // Therefore we can ignore this pdu type byte as they are already put together in the ble
-                length = Math.min(buffer.length - dstOffset, mtuSize);
-                if (i == 0) {
-                    System.arraycopy(data, srcOffset, buffer, dstOffset, length);
-                    buffer[0] = (byte) (buffer[0] & GATT_SAR_UNMASK);
-                } else if (i == chunks - 1) {
-                    System.arraycopy(data, srcOffset + 1, buffer, dstOffset, length);
-                } else {
-                    length = length - 1;
-                    System.arraycopy(data, srcOffset + 1, buffer, dstOffset, length);
-                }
-                srcOffset += mtuSize;
-                dstOffset += length;
-            }
-            return buffer;
-        }
-        return data;
-    }
-
     @Override
     public void identifyNode(@NonNull final UUID deviceUUID) throws IllegalArgumentException {
         identifyNode(deviceUUID, MeshProvisioningHandler.ATTENTION_TIMER);
@@ -704,6 +716,13 @@ public class MeshManagerApi implements MeshMngrApi {
         return false;
     }
 
+    @Nullable
+    @Override
+    public NodeIdentity resolveNodeIdentity(@NonNull final byte[] serviceData) {
+        if (mMeshNetwork == null || !isAdvertisedWithNodeIdentity(serviceData))
+            return null;
+        return mNodeIdentityResolver.resolve(mMeshNetwork, getAdvertisedHash(serviceData), getAdvertisedRandom(serviceData));
+    }
 
     @Override
     public boolean isAdvertisedWithNodeIdentity(@Nullable final byte[] serviceData) {
@@ -794,6 +813,7 @@ public class MeshManagerApi implements MeshMngrApi {
         allowIvIndexRecoveryOver42 = false;
         final MeshNetwork meshNet = mMeshNetwork;
         deleteMeshNetworkFromDb(meshNet);
+        SecureUtils.clearCryptoContexts();
         final MeshNetwork newMeshNetwork = generateMeshNetwork();
         newMeshNetwork.setCallbacks(callbacks);
         insertNetwork(newMeshNetwork);
@@ -892,6 +912,45 @@ public class MeshManagerApi implements MeshMngrApi {
         }
     }
 
+    @NonNull
+    @Override
+    public MeshTransactionManager getTransactionManager() {
+        return mTransactionManager;
+    }
+
+    @NonNull
+    @Override
+    public MeshTransaction sendMeshMessage(final int dst,
+                                           @NonNull final MeshMessage meshMessage,
+                                           @Nullable final MeshTransactionCallbacks callbacks) {
+        return mTransactionManager.send(dst, meshMessage, callbacks);
+    }
+
+    @NonNull
+    @Override
+    public BlobTransfer createBlobTransfer(@NonNull final ApplicationKey appKey,
+                                           final long blobId,
+                                           @NonNull final BlobSource source,
+                                           @NonNull final BlobTransferCallbacks callbacks) {
+        final BlobTransfer transfer = new BlobTransfer(mScheduler, mTransactionManager, this::createMeshPdu,
+                appKey, blobId, source, callbacks);
+        mBlobTransfers.add(transfer);
+        return transfer;
+    }
+
+    @NonNull
+    @Override
+    public FirmwareDistribution createFirmwareDistribution(@NonNull final ApplicationKey appKey,
+                                                           @NonNull final FirmwareId firmwareId,
+                                                           final long blobId,
+                                                           @NonNull final BlobSource source,
+                                                           @NonNull final FirmwareDistributionCallbacks callbacks) {
+        final FirmwareDistribution distribution = new FirmwareDistribution(mScheduler, mTransactionManager, this::createMeshPdu,
+                appKey, firmwareId, blobId, source, callbacks);
+        mFirmwareDistributions.add(distribution);
+        return distribution;
+    }
+
     @Override
     public String exportMeshNetwork() {
         try {
@@ -903,6 +962,17 @@ public class MeshManagerApi implements MeshMngrApi {
         return null;
     }
 
+    @Override
+    public boolean exportMeshNetwork(@NonNull final OutputStream outputStream) {
+        try {
+            mImportExportUtils.export(mMeshNetwork, outputStream);
+            return true;
+        } catch (Exception ex) {
+            mMeshManagerCallbacks.onNetworkImportFailed(ex.getMessage());
+        }
+        return false;
+    }
+
     @Override
     public String exportMeshNetwork(@NonNull final NetworkKeysConfig networkKeysConfig,
                                     @NonNull final ApplicationKeysConfig applicationKeysConfig,
@@ -920,11 +990,48 @@ public class MeshManagerApi implements MeshMngrApi {
         return null;
     }
 
+    @Override
+    public boolean exportMeshNetwork(@NonNull final OutputStream outputStream,
+                                     @NonNull final NetworkKeysConfig networkKeysConfig,
+                                     @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                                     @NonNull final NodesConfig nodesConfig,
+                                     @NonNull final ProvisionersConfig provisionersConfig,
+                                     @NonNull final GroupsConfig groupsConfig,
+                                     @NonNull final ScenesConfig scenesConfig) {
+        try {
+            mImportExportUtils.export(mMeshNetwork, outputStream, networkKeysConfig, applicationKeysConfig,
+                    nodesConfig, provisionersConfig, groupsConfig, scenesConfig);
+            return true;
+        } catch (Exception ex) {
+            mMeshManagerCallbacks.onNetworkImportFailed(ex.getMessage());
+        }
+        return false;
+    }
+
     @Override
     public void importMeshNetwork(@NonNull final Uri uri) {
         try {
             isNetworkImportInProgress = true;
-            importMeshNetworkJson(mImportExportUtils.readJsonStringFromUri(mContext.getContentResolver(), uri));
+            final InputStream inputStream = mContext.getContentResolver().openInputStream(uri);
+            if (inputStream == null)
+                throw new IOException("Unable to open " + uri);
+            try {
+                loadImportedNetwork(mImportExportUtils.importNetwork(inputStream));
+            } finally {
+                inputStream.close();
+            }
+            isNetworkImportInProgress = false;
+        } catch (Exception ex) {
+            isNetworkImportInProgress = false;
+            mMeshManagerCallbacks.onNetworkImportFailed(ex.getMessage());
+        }
+    }
+
+    @Override
+    public void importMeshNetwork(@NonNull final InputStream inputStream) {
+        try {
+            isNetworkImportInProgress = true;
+            loadImportedNetwork(mImportExportUtils.importNetwork(inputStream));
             isNetworkImportInProgress = false;
         } catch (Exception ex) {
             isNetworkImportInProgress = false;
@@ -936,28 +1043,7 @@ public class MeshManagerApi implements MeshMngrApi {
     public void importMeshNetworkJson(@NonNull String networkJson) {
         try {
             isNetworkImportInProgress = true;
-            final MeshNetwork importedNetwork = mImportExportUtils.importNetwork(networkJson);
-            importedNetwork.setCallbacks(callbacks);
-            final MeshNetwork network = mMeshNetworkDb.getMeshNetwork(mMeshNetworkDao, importedNetwork.getMeshUUID());
-            if (network != null) {
-                final List<ProvisionedMeshNode> nodes = mMeshNetworkDb.getNodes(mProvisionedNodesDao, importedNetwork.getMeshUUID());
-                importedNetwork.unicastAddress = network.unicastAddress;
-                for (ProvisionedMeshNode meshNode : importedNetwork.getNodes()) {
-                    for (ProvisionedMeshNode node : nodes) {
-                        if (node.getUuid().equalsIgnoreCase(meshNode.getUuid())) {
-                            meshNode.setSequenceNumber(node.getSequenceNumber());
-                        }
-                    }
-                }
-                importedNetwork.loadSequenceNumbers();
-                // Load the last known ivIndex.
-                // Note: The iv index will be updated based on the secure network beacon after connecting to a proxy.
-                importedNetwork.ivIndex = network.ivIndex;
-            }
-            mMeshNetworkDb.update(mMeshNetworkDao, importedNetwork, false);
-            insertNetwork(importedNetwork);
-            mMeshNetwork = importedNetwork;
-            mMeshManagerCallbacks.onNetworkImported(importedNetwork);
+            loadImportedNetwork(mImportExportUtils.importNetwork(networkJson));
             isNetworkImportInProgress = false;
         } catch (Exception ex) {
             isNetworkImportInProgress = false;
@@ -965,6 +1051,35 @@ public class MeshManagerApi implements MeshMngrApi {
         }
     }
 
+    /**
+     * Merges the imported network with the last known state of the same network, if any, and loads it.
+     *
+     * @param importedNetwork Imported mesh network.
+     */
+    private void loadImportedNetwork(@NonNull final MeshNetwork importedNetwork) throws ExecutionException, InterruptedException {
+        importedNetwork.setCallbacks(callbacks);
+        final MeshNetwork network = mMeshNetworkDb.getMeshNetwork(mMeshNetworkDao, importedNetwork.getMeshUUID());
+        if (network != null) {
+            final List<ProvisionedMeshNode> nodes = mMeshNetworkDb.getNodes(mProvisionedNodesDao, importedNetwork.getMeshUUID());
+            importedNetwork.unicastAddress = network.unicastAddress;
+            for (ProvisionedMeshNode meshNode : importedNetwork.getNodes()) {
+                for (ProvisionedMeshNode node : nodes) {
+                    if (node.getUuid().equalsIgnoreCase(meshNode.getUuid())) {
+                        meshNode.setSequenceNumber(node.getSequenceNumber());
+                    }
+                }
+            }
+            importedNetwork.loadSequenceNumbers();
+            // Load the last known ivIndex.
+            // Note: The iv index will be updated based on the secure network beacon after connecting to a proxy.
+            importedNetwork.ivIndex = network.ivIndex;
+        }
+        mMeshNetworkDb.update(mMeshNetworkDao, importedNetwork, false);
+        insertNetwork(importedNetwork);
+        mMeshNetwork = importedNetwork;
+        mMeshManagerCallbacks.onNetworkImported(importedNetwork);
+    }
+
     @SuppressWarnings("FieldCanBeLocal")
     private final InternalTransportCallbacks internalTransportCallbacks = new InternalTransportCallbacks() {
 
@@ -993,8 +1108,12 @@ public class MeshManagerApi implements MeshMngrApi {
         public void onMeshPduCreated(final int dst, final byte[] pdu) {
             //We must save the mesh network state for every message that is being sent out.
             //This will specifically save the sequence number for every message sent.
-            final ProvisionedMeshNode meshNode = mMeshNetwork.getNode(dst);
-            updateNetwork(meshNode);
+            final ProvisionedMeshNode provisionerNode = mMeshNetwork.getNode(mMeshNetwork.getSelectedProvisioner().getProvisionerAddress());
+            if (provisionerNode != null) {
+                mMeshNetwork.changes.markSequenceNumberChanged(provisionerNode);
+            }
+            scheduleNetworkUpdate();
+            mMeshManagerCallbacks.onNetworkUpdated(mMeshNetwork);
             final int mtu = mMeshManagerCallbacks.getMtu();
             mMeshManagerCallbacks.onMeshPduCreated(applySegmentation(mtu, pdu));
         }
@@ -1011,6 +1130,10 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void updateMeshNetwork(final MeshMessage message) {
+            if (message instanceof ConfigNetKeyStatus) {
+                // Network keys may be marked as insecure when added to a node
+                mMeshNetwork.changes.markNetKeysChanged();
+            }
             final ProvisionedMeshNode meshNode = mMeshNetwork.getNode(message.getSrc());
             updateNetwork(meshNode);
         }
@@ -1037,6 +1160,7 @@ public class MeshManagerApi implements MeshMngrApi {
             final Scene scene = mMeshNetwork.getScene(currentScene);
             if (scene != null && !scene.getAddresses().contains(address)) {
                 scene.addresses.add(address);
+                mMeshNetwork.changes.markScenesChanged();
             }
         }
 
@@ -1045,6 +1169,7 @@ public class MeshManagerApi implements MeshMngrApi {
             final Scene scene = mMeshNetwork.getScene(currentScene);
             if (scene != null && scene.getAddresses().contains(address)) {
                 scene.addresses.remove((Integer) address);
+                mMeshNetwork.changes.markScenesChanged();
             }
         }
 
@@ -1052,17 +1177,31 @@ public class MeshManagerApi implements MeshMngrApi {
             if (meshNode != null) {
                 for (int i = 0; i < mMeshNetwork.nodes.size(); i++) {
                     if (meshNode.getUnicastAddress() == mMeshNetwork.nodes.get(i).getUnicastAddress()) {
-                        mMeshNetwork.nodes.set(i, meshNode);
+                        if (mMeshNetwork.nodes.get(i) != meshNode) {
+                            mMeshNetwork.nodes.set(i, meshNode);
+                            mMeshNetwork.invalidateNodeIndex();
+                        }
                         break;
                     }
                 }
+                // Subscriptions or elements of the node may have been changed by the received status
+                mMeshNetwork.updateNodeIndexes(meshNode);
+                mMeshNetwork.changes.markNodeChanged(meshNode);
             }
-            mMeshNetworkDb.update(mMeshNetwork, mMeshNetworkDao, mNetworkKeysDao, mApplicationKeysDao, mProvisionersDao, mProvisionedNodesDao,
-                    mGroupsDao, mScenesDao);
+            scheduleNetworkUpdate();
             mMeshManagerCallbacks.onNetworkUpdated(mMeshNetwork);
         }
     };
 
+    /**
+     * Schedules writing the changes marked on the mesh network, changes made within the network update delay are
+     * written together.
+     */
+    private void scheduleNetworkUpdate() {
+        mMeshNetworkDb.scheduleUpdate(mMeshNetwork, mMeshNetworkDao, mNetworkKeysDao, mApplicationKeysDao, mProvisionersDao,
+                mProvisionedNodesDao, mProvisionedNodeDao, mGroupsDao, mScenesDao, mNetworkUpdateDelay);
+    }
+
     /**
      * Deletes an address from the scenes in the network. This is to be called when resetting or deleting a node from the network.
      *
@@ -1071,7 +1210,7 @@ public class MeshManagerApi implements MeshMngrApi {
     private void deleteSceneAddress(final int address) {
         for (Scene scene : mMeshNetwork.getScenes()) {
             if (scene.addresses.remove((Integer) address)) {
-                MeshLogger.debug(TAG, "Node removed from " + scene.getName());
+                MeshLogger.debug(TAG, () -> "Node removed from " + scene.getName());
             }
         }
     }
@@ -1092,14 +1231,7 @@ public class MeshManagerApi implements MeshMngrApi {
         }
 
         private void updateProvisionedNodeList(final ProvisionedMeshNode meshNode) {
-            for (int i = 0; i < mMeshNetwork.nodes.size(); i++) {
-                final ProvisionedMeshNode node = mMeshNetwork.nodes.get(i);
-                if (meshNode.getUuid().equals(node.getUuid())) {
-                    mMeshNetwork.nodes.remove(i);
-                    break;
-                }
-            }
-            mMeshNetwork.nodes.add(meshNode);
+            mMeshNetwork.addProvisionedNode(meshNode);
             updateNetworkKeySecurity(meshNode);
         }
     };
@@ -1122,6 +1254,80 @@ public class MeshManagerApi implements MeshMngrApi {
         }
     }
 
+    private final MeshStatusCallbacks meshStatusCallbacks = new MeshStatusCallbacks() {
+        @Override
+        public void onTransactionFailed(final int dst, final boolean hasIncompleteTimerExpired) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onTransactionFailed(dst, hasIncompleteTimerExpired);
+            }
+            mTransactionManager.onTransactionFailed(dst);
+        }
+
+        @Override
+        public void onUnknownPduReceived(final int src, final byte[] accessPayload) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onUnknownPduReceived(src, accessPayload);
+            }
+        }
+
+        @Override
+        public void onBlockAcknowledgementProcessed(final int dst, @NonNull final ControlMessage message) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onBlockAcknowledgementProcessed(dst, message);
+            }
+        }
+
+        @Override
+        public void onBlockAcknowledgementReceived(final int src, @NonNull final ControlMessage message) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onBlockAcknowledgementReceived(src, message);
+            }
+        }
+
+        @Override
+        public void onHeartbeatMessageReceived(final int src, @NonNull final ControlMessage message) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onHeartbeatMessageReceived(src, message);
+            }
+        }
+
+        @Override
+        public void onMeshMessageProcessed(final int dst, @NonNull final MeshMessage meshMessage) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onMeshMessageProcessed(dst, meshMessage);
+            }
+        }
+
+        @Override
+        public void onMeshMessageReceived(final int src, @NonNull final MeshMessage meshMessage) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onMeshMessageReceived(src, meshMessage);
+            }
+            mTransactionManager.onMeshMessageReceived(src, meshMessage);
+            for (BlobTransfer transfer : mBlobTransfers) {
+                if (transfer.isFinished()) {
+                    mBlobTransfers.remove(transfer);
+                } else {
+                    transfer.onMeshMessageReceived(src, meshMessage);
+                }
+            }
+            for (FirmwareDistribution distribution : mFirmwareDistributions) {
+                if (distribution.isFinished()) {
+                    mFirmwareDistributions.remove(distribution);
+                } else {
+                    distribution.onMeshMessageReceived(src, meshMessage);
+                }
+            }
+        }
+
+        @Override
+        public void onMessageDecryptionFailed(final String meshLayer, final String errorMessage) {
+            if (mMeshStatusCallbacks != null) {
+                mMeshStatusCallbacks.onMessageDecryptionFailed(meshLayer, errorMessage);
+            }
+        }
+    };
+
     @SuppressWarnings("FieldCanBeLocal")
     private final NetworkLayerCallbacks networkLayerCallbacks = new NetworkLayerCallbacks() {
 
@@ -1192,8 +1398,8 @@ public class MeshManagerApi implements MeshMngrApi {
         }
 
         @Override
-        public List<Group> gerVirtualGroups() {
-            return mMeshNetwork.getGroups();
+        public List<UUID> getVirtualGroupLabels(final int address) {
+            return mMeshNetwork.getVirtualGroupLabels(address);
         }
     };
 
@@ -1232,7 +1438,8 @@ public class MeshManagerApi implements MeshMngrApi {
         mMeshMessageHandler.resetState(meshNode.getUnicastAddress());
         mMeshNetworkDb.deleteNode(mProvisionedNodeDao, meshNode);
         mMeshNetwork.setTimestamp(System.currentTimeMillis());
-        mMeshNetworkDb.update(mMeshNetworkDao, mMeshNetwork);
+        mMeshNetwork.changes.markNetworkChanged();
+        scheduleNetworkUpdate();
         mMeshManagerCallbacks.onNetworkUpdated(mMeshNetwork);
     }
 
@@ -1244,7 +1451,9 @@ public class MeshManagerApi implements MeshMngrApi {
         public void onMeshNetworkUpdated() {
             if (!isNetworkImportInProgress)
                 mMeshNetwork.setTimestamp(System.currentTimeMillis());
-            mMeshNetworkDb.update(mMeshNetworkDao, mMeshNetwork);
+            // Rows are inserted and deleted right away, updates are written by the network writer
+            mMeshNetwork.changes.markNetworkChanged();
+            scheduleNetworkUpdate();
             mMeshManagerCallbacks.onNetworkUpdated(mMeshNetwork);
         }
 
@@ -1256,7 +1465,7 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void onNetworkKeyUpdated(@NonNull final NetworkKey networkKey) {
-            mMeshNetworkDb.update(mNetworkKeyDao, networkKey);
+            mMeshNetwork.changes.markNetKeysChanged();
             onMeshNetworkUpdated();
         }
 
@@ -1274,7 +1483,7 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void onApplicationKeyUpdated(@NonNull final ApplicationKey applicationKey) {
-            mMeshNetworkDb.update(mApplicationKeyDao, applicationKey);
+            mMeshNetwork.changes.markAppKeysChanged();
             onMeshNetworkUpdated();
         }
 
@@ -1292,13 +1501,13 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void onProvisionerUpdated(@NonNull final Provisioner provisioner) {
-            mMeshNetworkDb.update(mProvisionerDao, provisioner);
+            mMeshNetwork.changes.markProvisionersChanged();
             onMeshNetworkUpdated();
         }
 
         @Override
         public void onProvisionersUpdated(@NonNull final List<Provisioner> provisioners) {
-            mMeshNetworkDb.update(mProvisionerDao, provisioners);
+            mMeshNetwork.changes.markProvisionersChanged();
             onMeshNetworkUpdated();
         }
 
@@ -1331,7 +1540,7 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void onNodeUpdated(@NonNull final ProvisionedMeshNode meshNode) {
-            mMeshNetworkDb.update(mProvisionedNodeDao, meshNode);
+            mMeshNetwork.changes.markNodeChanged(meshNode);
             onMeshNetworkUpdated();
         }
 
@@ -1343,7 +1552,7 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void onGroupUpdated(@NonNull final Group group) {
-            mMeshNetworkDb.update(mGroupDao, group);
+            mMeshNetwork.changes.markGroupsChanged();
             onMeshNetworkUpdated();
         }
 
@@ -1361,7 +1570,7 @@ public class MeshManagerApi implements MeshMngrApi {
 
         @Override
         public void onSceneUpdated(@NonNull final Scene scene) {
-            mMeshNetworkDb.update(mSceneDao, scene);
+            mMeshNetwork.changes.markScenesChanged();
             onMeshNetworkUpdated();
         }
 
@@ -22,9 +22,9 @@
 
 package no.nordicsemi.android.mesh;
 
-import android.content.Context;
 import androidx.annotation.NonNull;
 
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
 import no.nordicsemi.android.mesh.transport.BaseMeshMessageHandler;
 import no.nordicsemi.android.mesh.transport.NetworkLayerCallbacks;
 import no.nordicsemi.android.mesh.transport.UpperTransportLayerCallbacks;
@@ -38,16 +38,16 @@ final class MeshMessageHandler extends BaseMeshMessageHandler {
     /**
      * Constructs MeshMessageHandler
      *
-     * @param context                      Context
+     * @param scheduler                    Scheduler running the segmentation and reassembly timers of the transports
      * @param internalTransportCallbacks   {@link InternalTransportCallbacks} Callbacks
      * @param networkLayerCallbacks        {@link NetworkLayerCallbacks} network layer callbacks
      * @param upperTransportLayerCallbacks {@link UpperTransportLayerCallbacks} upper transport layer callbacks
      */
-    MeshMessageHandler(@NonNull final Context context,
+    MeshMessageHandler(@NonNull final MeshScheduler scheduler,
                        @NonNull final InternalTransportCallbacks internalTransportCallbacks,
                        @NonNull final NetworkLayerCallbacks networkLayerCallbacks,
                        @NonNull final UpperTransportLayerCallbacks upperTransportLayerCallbacks) {
-        super(context, internalTransportCallbacks, networkLayerCallbacks, upperTransportLayerCallbacks);
+        super(scheduler, internalTransportCallbacks, networkLayerCallbacks, upperTransportLayerCallbacks);
     }
 
     @Override
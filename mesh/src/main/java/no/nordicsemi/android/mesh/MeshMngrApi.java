@@ -2,13 +2,20 @@ package no.nordicsemi.android.mesh;
 
 import android.net.Uri;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
 import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.OpCodeRegistry;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.VendorModelMessageStatus;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
 import no.nordicsemi.android.mesh.utils.InputOOBAction;
 import no.nordicsemi.android.mesh.utils.OutputOOBAction;
 
@@ -176,6 +183,19 @@ interface MeshMngrApi {
      */
     boolean nodeIdentityMatches(@NonNull final ProvisionedMeshNode meshNode, @NonNull final byte[] serviceData);
 
+    /**
+     * Returns the node advertising with Node Identity and the network key its identity was generated with.
+     * <p>
+     * Use this instead of calling {@link #nodeIdentityMatches(ProvisionedMeshNode, byte[])} for every node in the network.
+     * Resolved identities are cached, so repeated advertisements of a node are resolved without recalculating the hashes.
+     * </p>
+     *
+     * @param serviceData advertised service data
+     * @return the resolved node identity or null if no node in the network matches the advertised hash
+     */
+    @Nullable
+    NodeIdentity resolveNodeIdentity(@NonNull final byte[] serviceData);
+
     /**
      * Checks if the node is advertising with Node Identity
      *
@@ -219,6 +239,71 @@ interface MeshMngrApi {
      */
     void createMeshPdu(final int dst, @NonNull final MeshMessage meshMessage) throws IllegalArgumentException;
 
+    /**
+     * Returns the transaction manager used to queue mesh messages per destination, match their responses and retry them.
+     */
+    @NonNull
+    MeshTransactionManager getTransactionManager();
+
+    /**
+     * Queues the specified mesh message to the destination using the {@link MeshTransactionManager}.
+     * <p>
+     * Unlike {@link #createMeshPdu(int, MeshMessage)} the message is sent once the previous transaction to the same
+     * destination has completed and is resent if the expected response is not received.
+     * </p>
+     *
+     * @param dst         destination address
+     * @param meshMessage {@link MeshMessage} Mesh message containing the message opcode and message parameters
+     * @param callbacks   callbacks notified when the transaction completes or fails
+     * @return the queued transaction
+     */
+    @NonNull
+    MeshTransaction sendMeshMessage(final int dst,
+                                    @NonNull final MeshMessage meshMessage,
+                                    @Nullable final MeshTransactionCallbacks callbacks);
+
+    /**
+     * Creates a BLOB transfer sending a BLOB to one or more nodes containing the BLOB Transfer Server model.
+     * <p>
+     * Receivers are added to the returned transfer before it is started using {@link BlobTransfer#start()}.
+     * </p>
+     *
+     * @param appKey    application key bound to the BLOB Transfer Server models
+     * @param blobId    64-bit identifier of the BLOB
+     * @param source    source of the BLOB
+     * @param callbacks callbacks notified of the progress of the transfer
+     * @return the transfer
+     */
+    @NonNull
+    BlobTransfer createBlobTransfer(@NonNull final ApplicationKey appKey,
+                                    final long blobId,
+                                    @NonNull final BlobSource source,
+                                    @NonNull final BlobTransferCallbacks callbacks);
+
+    /**
+     * Creates a firmware distribution updating the firmware of one or more nodes containing the Firmware Update Server
+     * model, either directly or through a node containing the Firmware Distribution Server model.
+     * <p>
+     * Receivers and an optional distributor are set on the returned distribution before it is started using
+     * {@link FirmwareDistribution#start()}.
+     * </p>
+     *
+     * @param appKey     application key bound to the Firmware Update and BLOB Transfer models
+     * @param firmwareId Firmware ID of the new firmware image
+     * @param blobId     64-bit identifier of the BLOB containing the firmware image
+     * @param source     source of the firmware image, which must be readable more than once so that a suspended
+     *                   distribution can be resumed, see {@link BlobSource#fromInputStream(BlobSource.InputStreamProvider, long)}
+     * @param callbacks  callbacks notified of the progress of the distribution
+     * @return the distribution
+     * @throws IllegalArgumentException if the source is an input stream that can only be read once.
+     */
+    @NonNull
+    FirmwareDistribution createFirmwareDistribution(@NonNull final ApplicationKey appKey,
+                                                    @NonNull final FirmwareId firmwareId,
+                                                    final long blobId,
+                                                    @NonNull final BlobSource source,
+                                                    @NonNull final FirmwareDistributionCallbacks callbacks);
+
     /**
      * Loads the mesh network from the local database.
      * <p>
@@ -270,12 +355,129 @@ interface MeshMngrApi {
      */
     void allowIvIndexRecoveryOver42(final boolean allowIvIndexRecoveryOver42);
 
+    /**
+     * Sets the maximum number of segmented messages that may be reassembled at the same time.
+     * <p>
+     * Segmented messages received from different nodes, or different segmented messages received from the same node,
+     * are reassembled independently of each other, each with its own timers and block acknowledgement. Segments of
+     * new messages are ignored while this limit is reached and will be retransmitted by the sender.
+     * </p>
+     *
+     * @param maxConcurrentReassemblies Maximum number of concurrent reassemblies, the default value is 8.
+     * @throws IllegalArgumentException if the value is less than 1.
+     */
+    void setMaxConcurrentReassemblies(final int maxConcurrentReassemblies);
+
+    /**
+     * Sets the scheduler running the timers of the mesh stack, such as the segmentation and reassembly timers, the
+     * proxy protocol SAR timer and the timeouts of the transactions.
+     * <p>
+     * By default the timers are served by a {@link no.nordicsemi.android.mesh.timer.HashedWheelScheduler} running on
+     * the main thread. A {@link no.nordicsemi.android.mesh.timer.ExecutorScheduler} keeps the timers off the main
+     * thread and a {@link no.nordicsemi.android.mesh.timer.VirtualClockScheduler} makes timing deterministic in tests.
+     * Timers lock the transport of the node they belong to, so they may run on another thread than the one
+     * notifications are handled on. The scheduler should be set before messages are sent or received, as timers
+     * already running are not moved.
+     * </p>
+     *
+     * @param scheduler Scheduler.
+     */
+    void setScheduler(@NonNull final MeshScheduler scheduler);
+
+    /**
+     * Sets an executor on which received network pdus are decoded in parallel.
+     * <p>
+     * Network layer de-obfuscation and decryption of the pdus run in parallel on the executor. Segments and upper
+     * transport decryption of the messages received from a node are processed on the executor one message at a time,
+     * in the order the messages were received, so messages from different nodes are processed in parallel. The mesh
+     * network is still updated and {@link MeshStatusCallbacks} are still invoked on the main thread. This is useful
+     * when notifications are received from several proxies connected to the same network.
+     * </p>
+     *
+     * @param executor Executor or null to decode the pdus on the thread calling {@link #handleNotifications(int, byte[])},
+     *                 which is the default.
+     */
+    void setReceiveExecutor(@Nullable final Executor executor);
+
+    /**
+     * Sets an executor on which the hashes of the nodes are calculated in parallel when resolving a node identity.
+     * <p>
+     * {@link #resolveNodeIdentity(byte[])} still returns the result to the calling thread, which takes part in the search.
+     * The work is only spread over the executor for large networks.
+     * </p>
+     *
+     * @param executor Executor or null to calculate the hashes on the calling thread only, which is the default.
+     */
+    void setNodeIdentityExecutor(@Nullable final Executor executor);
+
+    /**
+     * Registers the status message of a vendor model.
+     * <p>
+     * Status messages received with the given opcode and company identifier are decoded using the given decoder
+     * and delivered via {@link MeshStatusCallbacks#onMeshMessageReceived(int, MeshMessage)} as the decoded type,
+     * instead of a {@link VendorModelMessageStatus} wrapping the raw parameters.
+     * </p>
+     *
+     * @param companyIdentifier 16-bit company identifier of the vendor model.
+     * @param opCode            Vendor opcode of the status message.
+     * @param decoder           Decoder creating the status message from the received access message.
+     * @throws IllegalArgumentException if the company identifier or the opcode is invalid.
+     */
+    void registerVendorModelStatus(final int companyIdentifier,
+                                   final int opCode,
+                                   @NonNull final OpCodeRegistry.StatusDecoder<? extends VendorModelMessageStatus> decoder);
+
+    /**
+     * Removes a vendor model status message registered using {@link #registerVendorModelStatus(int, int, OpCodeRegistry.StatusDecoder)}.
+     *
+     * @param companyIdentifier 16-bit company identifier of the vendor model.
+     * @param opCode            Vendor opcode of the status message.
+     * @throws IllegalArgumentException if the company identifier or the opcode is invalid.
+     */
+    void unregisterVendorModelStatus(final int companyIdentifier, final int opCode);
+
+    /**
+     * Sets the delay after which changes to the mesh network are written to the database.
+     * <p>
+     * Changes made within this delay, such as sequence number increments, node updates from status messages or
+     * updates made through {@link MeshNetwork}, are coalesced and only the changed nodes, keys, provisioners, groups
+     * and scenes are written in a single transaction. Added and removed entries are written right away.
+     * Call {@link #flush()} before the application is closed to write any pending changes.
+     * </p>
+     *
+     * @param delay Delay in milliseconds, the default value is 250 ms. Use 0 to write the changes as soon as possible.
+     * @throws IllegalArgumentException if the delay is negative.
+     */
+    void setNetworkUpdateDelay(final long delay);
+
+    /**
+     * Writes any pending changes of the mesh network to the database and waits until they have been written.
+     * <p>
+     * This blocks the calling thread, use {@link #flushAsync()} on the main thread.
+     * </p>
+     */
+    void flush();
+
+    /**
+     * Writes any pending changes of the mesh network to the database without waiting until they have been written.
+     */
+    void flushAsync();
+
     /**
      * Exports full mesh network to a json String.
      */
     @Nullable
     String exportMeshNetwork();
 
+    /**
+     * Exports full mesh network as json to a stream encoded in UTF-8.
+     * The stream is flushed but not closed, nodes are written one at a time without building the json of the whole network.
+     *
+     * @param outputStream Output stream the json is written to.
+     * @return true if the network was exported or false otherwise.
+     */
+    boolean exportMeshNetwork(@NonNull final OutputStream outputStream);
+
     /**
      * Exports a partial mesh network to a json String with the provided export configuration.
      *
@@ -294,6 +496,28 @@ interface MeshMngrApi {
                              @NonNull final GroupsConfig groupsConfig,
                              @NonNull final ScenesConfig scenesConfig);
 
+    /**
+     * Exports a partial mesh network as json to a stream encoded in UTF-8 with the provided export configuration.
+     * The export configuration is applied while the network is written and the network is not copied.
+     * The stream is flushed but not closed.
+     *
+     * @param outputStream          Output stream the json is written to.
+     * @param networkKeysConfig     Export configuration for Network Keys.
+     * @param applicationKeysConfig Export configuration for Application Keys.
+     * @param nodesConfig           Export configuration for Nodes.
+     * @param provisionersConfig    Export configuration for Provisioners.
+     * @param groupsConfig          Export configuration for Groups.
+     * @param scenesConfig          Export configuration for scenes.
+     * @return true if the network was exported or false otherwise.
+     */
+    boolean exportMeshNetwork(@NonNull final OutputStream outputStream,
+                              @NonNull final NetworkKeysConfig networkKeysConfig,
+                              @NonNull final ApplicationKeysConfig applicationKeysConfig,
+                              @NonNull final NodesConfig nodesConfig,
+                              @NonNull final ProvisionersConfig provisionersConfig,
+                              @NonNull final GroupsConfig groupsConfig,
+                              @NonNull final ScenesConfig scenesConfig);
+
     /**
      * Starts an asynchronous task that imports a network from the mesh configuration db json
      *
@@ -301,6 +525,13 @@ interface MeshMngrApi {
      */
     void importMeshNetwork(@NonNull final Uri uri);
 
+    /**
+     * Imports a network from a mesh configuration db json stream encoded in UTF-8. The stream is not closed.
+     *
+     * @param inputStream stream containing the mesh configuration database json.
+     */
+    void importMeshNetwork(@NonNull final InputStream inputStream);
+
     /**
      * Starts an asynchronous task that imports a network from the mesh configuration db json
      *
@@ -4,9 +4,12 @@ package no.nordicsemi.android.mesh;
 import android.text.TextUtils;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import androidx.annotation.NonNull;
@@ -17,6 +20,7 @@ import no.nordicsemi.android.mesh.transport.Element;
 import no.nordicsemi.android.mesh.transport.MeshModel;
 import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.ProxyFilter;
 
 import static no.nordicsemi.android.mesh.AddressRange.isAddressInAnyRanges;
 
@@ -58,6 +62,8 @@ public final class MeshNetwork extends BaseMeshNetwork {
 
     public void setIvIndex(final IvIndex ivIndex) {
         this.ivIndex = ivIndex;
+        // Beacons processed with the previous IV Index may have a different outcome now
+        secureNetworkBeaconCache.clear();
         notifyNetworkUpdated();
     }
 
@@ -125,6 +131,7 @@ public final class MeshNetwork extends BaseMeshNetwork {
 
     void setGroups(final List<Group> groups) {
         this.groups = groups;
+        virtualAddressIndex.rebuild(groups);
     }
 
     /**
@@ -145,59 +152,7 @@ public final class MeshNetwork extends BaseMeshNetwork {
             throw new IllegalArgumentException("Please allocate a unicast address range to the provisioner");
         }
 
-        // Populate all addresses that are currently in use
-        final ArrayList<Integer> usedAddresses = new ArrayList<>();
-        for (ProvisionedMeshNode node : nodes) {
-            //There could be devices that are provisioned but does not have the number of elements yet so let's check for that.
-            if (node.getElements().size() > 0)
-                usedAddresses.addAll(node.getElements().keySet());
-            else
-                usedAddresses.add(node.getUnicastAddress());
-        }
-        // Excluded addresses with the current IvIndex and current IvIndex - 1 must be considered as addresses in use.
-        final List<Integer> addressesWithCurrentIvIndex = networkExclusions.get(ivIndex.getIvIndex());
-        if (addressesWithCurrentIvIndex != null)
-            usedAddresses.addAll(addressesWithCurrentIvIndex);
-        final List<Integer> addressesWithCurrentIvIndexMinusOne = networkExclusions.get(ivIndex.getIvIndex() - 1);
-        if (addressesWithCurrentIvIndexMinusOne != null)
-            usedAddresses.addAll(addressesWithCurrentIvIndexMinusOne);
-
-        Collections.sort(usedAddresses);
-        // Iterate through all nodes just once, while iterating over ranges.
-        int index = 0;
-        for (AllocatedUnicastRange range : provisioner.getAllocatedUnicastRanges()) {
-            // Start from the beginning of the current range.
-            int address = range.getLowAddress();
-
-            // Iterate through nodes that weren't checked yet in essence the used addresses which include the excluded adresses
-            for (int usedAddress : usedAddresses) {
-
-                // Skip nodes with addresses below the range.
-                if (address > usedAddress) {
-                    continue;
-                }
-
-                // If we found a space before the current node, return the address.
-                if (usedAddress > (address + (elementCount - 1))) {
-                    return address;
-                }
-
-                // Else, move the address to the next available address.
-                address = usedAddress + 1;
-
-                // If the new address is outside of the range, go to the next one.
-                if (range.highAddress < address + (elementCount - 1)) {
-                    break;
-                }
-            }
-
-            if (range.getHighAddress() >= address + (elementCount - 1)) {
-                return address;
-            }
-        }
-
-        // No address was found :(
-        return -1;
+        return nextAvailableUnicastAddress(elementCount, provisioner.getAllocatedUnicastRanges());
     }
 
     /**
@@ -206,13 +161,14 @@ public final class MeshNetwork extends BaseMeshNetwork {
      * @param rangeSize Element count
      */
     public AllocatedUnicastRange nextAvailableUnicastAddressRange(final int rangeSize) {
-        final List<AllocatedUnicastRange> ranges = new ArrayList<>();
+        final AddressIntervals allocated = new AddressIntervals();
         for (Provisioner provisioner : provisioners) {
-            ranges.addAll(provisioner.getAllocatedUnicastRanges());
+            for (AllocatedUnicastRange range : provisioner.getAllocatedUnicastRanges()) {
+                allocated.add(range.getLowAddress(), range.getHighAddress());
+            }
         }
-        Collections.sort(ranges, unicastRangeComparator);
-        return getNextAvailableUnicastRange(rangeSize,
-                new AllocatedUnicastRange(MeshAddress.START_UNICAST_ADDRESS, MeshAddress.END_UNICAST_ADDRESS), ranges);
+        final int[] range = nextAvailableRange(allocated, rangeSize, MeshAddress.START_UNICAST_ADDRESS, MeshAddress.END_UNICAST_ADDRESS);
+        return range == null ? null : new AllocatedUnicastRange(range[0], range[1]);
     }
 
     /**
@@ -221,13 +177,14 @@ public final class MeshNetwork extends BaseMeshNetwork {
      * @param rangeSize Range size
      */
     public AllocatedGroupRange nextAvailableGroupAddressRange(final int rangeSize) {
-        final List<AllocatedGroupRange> ranges = new ArrayList<>();
+        final AddressIntervals allocated = new AddressIntervals();
         for (Provisioner provisioner : provisioners) {
-            ranges.addAll(provisioner.getAllocatedGroupRanges());
+            for (AllocatedGroupRange range : provisioner.getAllocatedGroupRanges()) {
+                allocated.add(range.getLowAddress(), range.getHighAddress());
+            }
         }
-        Collections.sort(ranges, groupRangeComparator);
-        return getNextAvailableGroupRange(rangeSize,
-                new AllocatedGroupRange(MeshAddress.START_GROUP_ADDRESS, MeshAddress.END_GROUP_ADDRESS), ranges);
+        final int[] range = nextAvailableRange(allocated, rangeSize, MeshAddress.START_GROUP_ADDRESS, MeshAddress.END_GROUP_ADDRESS);
+        return range == null ? null : new AllocatedGroupRange(range[0], range[1]);
     }
 
     /**
@@ -237,110 +194,33 @@ public final class MeshNetwork extends BaseMeshNetwork {
      */
     @Nullable
     public AllocatedSceneRange nextAvailableSceneAddressRange(final int rangeSize) {
-        final List<AllocatedSceneRange> ranges = new ArrayList<>();
+        final AddressIntervals allocated = new AddressIntervals();
         for (Provisioner provisioner : provisioners) {
-            ranges.addAll(provisioner.getAllocatedSceneRanges());
-        }
-        Collections.sort(ranges, sceneRangeComparator);
-        return getNextAvailableSceneRange(rangeSize, new AllocatedSceneRange(0x0001, 0xFFFF), ranges);
-    }
-
-    @Nullable
-    private AllocatedUnicastRange getNextAvailableUnicastRange(final int size,
-                                                               @NonNull final AllocatedUnicastRange bound,
-                                                               @NonNull final List<AllocatedUnicastRange> ranges) {
-        AllocatedUnicastRange bestRange = null;
-        int lastUpperBound = bound.lowAddress - 1;
-
-        // Go through all ranges looking for a gaps.
-        for (AllocatedUnicastRange range : ranges) {
-            // If there is a space available before this range, return it.
-            if (lastUpperBound + size < range.lowAddress) {
-                return new AllocatedUnicastRange(lastUpperBound + 1, lastUpperBound + size);
+            for (AllocatedSceneRange range : provisioner.getAllocatedSceneRanges()) {
+                allocated.add(range.getFirstScene(), range.getLastScene());
             }
-
-            // If the space exists, but it's not as big as requested, compare
-            // it with the best range so far and replace if it's bigger.
-            if (range.lowAddress - lastUpperBound > 1) {
-                final AllocatedUnicastRange newRange = new AllocatedUnicastRange(lastUpperBound + 1, range.lowAddress - 1);
-                if (bestRange == null || newRange.range() > bestRange.range()) {
-                    bestRange = newRange;
-                }
-            }
-            lastUpperBound = range.highAddress;
         }
-
-        // If if we didn't return earlier, check after the last range.
-        if (lastUpperBound + size < bound.highAddress) {
-            return new AllocatedUnicastRange(lastUpperBound + 1, lastUpperBound + size - 1);
-        }
-        // The gap of requested size hasn't been found. Return the best found.
-        return bestRange;
-    }
-
-    @Nullable
-    private AllocatedGroupRange getNextAvailableGroupRange(final int size,
-                                                           @NonNull final AllocatedGroupRange bound,
-                                                           @NonNull final List<AllocatedGroupRange> ranges) {
-        AllocatedGroupRange bestRange = null;
-        int lastUpperBound = bound.lowAddress - 1;
-
-        // Go through all ranges looking for a gaps.
-        for (AllocatedGroupRange range : ranges) {
-            if (lastUpperBound + size < range.lowAddress) {
-                return new AllocatedGroupRange(lastUpperBound + 1, lastUpperBound + size);
-            }
-
-            // If the space exists, but it's not as big as requested, compare
-            // it with the best range so far and replace if it's bigger.
-            if (range.lowAddress - lastUpperBound > 1) {
-                final AllocatedGroupRange newRange = new AllocatedGroupRange(lastUpperBound + 1, range.lowAddress - 1);
-                if (bestRange == null || newRange.range() > bestRange.range()) {
-                    bestRange = newRange;
-                }
-            }
-            lastUpperBound = range.highAddress;
-        }
-
-        // If if we didn't return earlier, check after the last range.
-        if (lastUpperBound + size < bound.highAddress) {
-            return new AllocatedGroupRange(lastUpperBound + 1, lastUpperBound + size - 1);
-        }
-        // The gap of requested size hasn't been found. Return the best found.
-        return bestRange;
+        final int[] range = nextAvailableRange(allocated, rangeSize, 0x0001, 0xFFFF);
+        return range == null ? null : new AllocatedSceneRange(range[0], range[1]);
     }
 
+    /**
+     * Returns the first free range of the requested size within the bounds or, if there is none, the largest free range.
+     *
+     * @param allocated Ranges already allocated to the provisioners.
+     * @param size      Requested range size.
+     * @param low       Lowest address of the bounds.
+     * @param high      Highest address of the bounds.
+     * @return An array containing the low and high address of the range, or null if there is no space left
+     */
     @Nullable
-    private AllocatedSceneRange getNextAvailableSceneRange(final int size,
-                                                           @NonNull final AllocatedSceneRange bound,
-                                                           @NonNull final List<AllocatedSceneRange> ranges) {
-        AllocatedSceneRange bestRange = null;
-        int lastUpperBound = bound.getFirstScene() - 1;
-
-        // Go through all ranges looking for a gaps.
-        for (AllocatedSceneRange range : ranges) {
-            // If there is a space available before this range, return it.
-            if (lastUpperBound + size < range.getFirstScene()) {
-                return new AllocatedSceneRange(lastUpperBound + 1, lastUpperBound + size);
-            }
-
-            // If the space exists, but it's not as big as requested, compare
-            // it with the best range so far and replace if it's bigger.
-            if (range.getFirstScene() - lastUpperBound > 1) {
-                final AllocatedSceneRange newRange = new AllocatedSceneRange(lastUpperBound + 1, range.getFirstScene() - 1);
-                if (bestRange == null || newRange.range() > bestRange.range()) {
-                    bestRange = newRange;
-                }
-            }
-            lastUpperBound = range.getLastScene();
-        }
-
-        // If if we didn't return earlier, check after the last range.
-        if (lastUpperBound + size < bound.getLastScene()) {
-            return new AllocatedSceneRange(lastUpperBound + 1, lastUpperBound + size - 1);
+    private static int[] nextAvailableRange(@NonNull final AddressIntervals allocated, final int size, final int low, final int high) {
+        final int address = allocated.firstFit(low, high, size);
+        if (address != -1) {
+            return new int[]{address, address + size - 1};
         }
         // The gap of requested size hasn't been found. Return the best found.
-        return bestRange;
+        return allocated.largestGap(low, high);
     }
 
     /**
@@ -355,33 +235,19 @@ public final class MeshNetwork extends BaseMeshNetwork {
             throw new IllegalArgumentException("Provisioner has no group range allocated.");
         }
 
-        Collections.sort(groups, groupComparator);
+        final AddressIntervals usedAddresses = new AddressIntervals();
+        for (Group group : groups) {
+            usedAddresses.add(group.getAddress());
+        }
         for (AllocatedGroupRange range : provisioner.getAllocatedGroupRanges()) {
-            //If the list of groups are empty we can start with the lowest address of the range
-            if (groups.isEmpty()) {
-                return range.getLowAddress();
-            }
-
-            for (int address = range.lowAddress; address < range.getHighAddress(); address++) {
-                //if the address is not in use, return it as the next available address to create a group
-                if (!isGroupAddressInUse(address)) {
-                    return address;
-                }
+            final int address = usedAddresses.firstFit(range.getLowAddress(), range.getHighAddress(), 1);
+            if (address != -1) {
+                return address;
             }
         }
         return null;
     }
 
-    private boolean isGroupAddressInUse(final int address) {
-        for (Group group : groups) {
-            //if the address is not in use, return it as the next available address to create a group
-            if (group.getAddress() == address) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     /**
      * Creates a group using the next available group address based on the provisioners allocated group range
      *
@@ -479,6 +345,7 @@ public final class MeshNetwork extends BaseMeshNetwork {
     private boolean insertGroup(@NonNull final Group group) {
         if (!isGroupExist(group)) {
             this.groups.add(group);
+            virtualAddressIndex.add(groups, group);
             notifyGroupAdded(group);
             return true;
         }
@@ -498,6 +365,24 @@ public final class MeshNetwork extends BaseMeshNetwork {
         return null;
     }
 
+    /**
+     * Returns the label UUIDs of the virtual groups with the given virtual address
+     * <p>
+     * Distinct label UUIDs may hash to the same virtual address, hence a message sent to a virtual address is
+     * authenticated using each of them in turn.
+     * </p>
+     *
+     * @param address Virtual address
+     * @return label UUIDs, or an empty list if there is no virtual group with the given address
+     */
+    @NonNull
+    public List<UUID> getVirtualGroupLabels(final int address) {
+        if (!virtualAddressIndex.isIndexed(groups)) {
+            virtualAddressIndex.rebuild(groups);
+        }
+        return virtualAddressIndex.getLabelUuids(address);
+    }
+
     /**
      * Updates a group in the mesh network
      *
@@ -518,6 +403,7 @@ public final class MeshNetwork extends BaseMeshNetwork {
      */
     public boolean removeGroup(@NonNull final Group group) {
         if (groups.remove(group)) {
+            virtualAddressIndex.remove(groups, group);
             notifyGroupDeleted(group);
             return true;
         }
@@ -568,39 +454,13 @@ public final class MeshNetwork extends BaseMeshNetwork {
             throw new IllegalArgumentException("Please allocate a scene range to the provisioner!");
         }
 
-        Collections.sort(scenes, sceneComparator);
-        // Iterate through all nodes just once, while iterating over ranges.
-        int index = 0;
+        final AddressIntervals usedNumbers = new AddressIntervals();
+        for (Scene scene : scenes) {
+            usedNumbers.add(scene.getNumber());
+        }
         for (AllocatedSceneRange sceneRange : provisioner.getAllocatedSceneRanges()) {
-            // Start from the beginning of the current range.
-            int number = sceneRange.getFirstScene();
-
-            // Iterate through nodes that weren't checked yet.
-            int currentIndex = index;
-            for (int i = currentIndex; i < scenes.size(); i++) {
-                final Scene scene = scenes.get(i);
-                index += i;
-
-                // Skip scenes with number below the range.
-                if (number > scene.getNumber()) {
-                    continue;
-                }
-
-                // If we found a space before the current scene, return the scene number.
-                if (number < scene.getNumber()) {
-                    return number;
-                }
-
-                // Else, move the address to the next available address.
-                number = scene.getNumber() + 1;
-
-                // If the new address is outside of the range, go to the next one.
-                if (number > sceneRange.getLastScene()) {
-                    break;
-                }
-            }
-            // If the range has available space, return the address.
-            if (number <= sceneRange.getLastScene()) {
+            final int number = usedNumbers.firstFit(sceneRange.getFirstScene(), sceneRange.getLastScene(), 1);
+            if (number != -1) {
                 return number;
             }
         }
@@ -795,25 +655,7 @@ public final class MeshNetwork extends BaseMeshNetwork {
      * @param group group
      */
     public List<Element> getElements(final Group group) {
-        final List<Element> elements = new ArrayList<>();
-        for (final ProvisionedMeshNode node : nodes) {
-            for (Map.Entry<Integer, Element> elementEntry : node.getElements().entrySet()) {
-                final Element element = elementEntry.getValue();
-                for (Map.Entry<Integer, MeshModel> modelEntry : element.getMeshModels().entrySet()) {
-                    final MeshModel model = modelEntry.getValue();
-                    if (model != null) {
-                        final List<Integer> subscriptionAddresses = model.getSubscribedAddresses();
-                        for (Integer subscriptionAddress : subscriptionAddresses) {
-                            if (group.getAddress() == subscriptionAddress) {
-                                if (!elements.contains(element))
-                                    elements.add(element);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return elements;
+        return getSubscriptionIndex().getElements(group);
     }
 
     /**
@@ -822,25 +664,32 @@ public final class MeshNetwork extends BaseMeshNetwork {
      * @param group group
      */
     public List<MeshModel> getModels(final Group group) {
-        final List<MeshModel> models = new ArrayList<>();
-        for (final ProvisionedMeshNode node : nodes) {
-            for (Map.Entry<Integer, Element> elementEntry : node.getElements().entrySet()) {
-                final Element element = elementEntry.getValue();
-                for (Map.Entry<Integer, MeshModel> modelEntry : element.getMeshModels().entrySet()) {
-                    final MeshModel model = modelEntry.getValue();
-                    if (model != null) {
-                        final List<Integer> subscriptionAddresses = model.getSubscribedAddresses();
-                        for (Integer subscriptionAddress : subscriptionAddresses) {
-                            if (group.getAddress() == subscriptionAddress) {
-                                if (!models.contains(model))
-                                    models.add(model);
-                            }
-                        }
-                    }
+        return getSubscriptionIndex().getModels(group);
+    }
+
+    /**
+     * Returns the addresses a proxy filter must let through for a provisioner to receive the messages sent to it. These
+     * are the unicast addresses of its elements, the addresses its models are subscribed to and the all-nodes address.
+     * Use {@link ProxyFilter#createSyncMessages(Collection)} to update the proxy filter.
+     *
+     * @param provisioner provisioner
+     */
+    @NonNull
+    public List<Integer> getProxyFilterAddresses(@NonNull final Provisioner provisioner) {
+        final Set<Integer> addresses = new LinkedHashSet<>();
+        final ProvisionedMeshNode node = getNode(provisioner.getProvisionerUuid());
+        if (node != null) {
+            for (Element element : node.getElements().values()) {
+                addresses.add(element.getElementAddress());
+                for (MeshModel model : element.getMeshModels().values()) {
+                    addresses.addAll(model.getSubscribedAddresses());
                 }
             }
+        } else if (provisioner.getProvisionerAddress() != null) {
+            addresses.add(provisioner.getProvisionerAddress());
         }
-        return models;
+        addresses.add(MeshAddress.ALL_NODES_ADDRESS);
+        return new ArrayList<>(addresses);
     }
 
     /**
@@ -880,6 +729,7 @@ public final class MeshNetwork extends BaseMeshNetwork {
 
     void setNetKeys(@NonNull final List<NetworkKey> netKeys) {
         this.netKeys = netKeys;
+        NetworkKey.onKeysChanged();
     }
 
     /**
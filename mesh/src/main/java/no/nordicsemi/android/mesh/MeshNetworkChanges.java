@@ -0,0 +1,145 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+/**
+ * Tracks the parts of a mesh network that have changed since they were last written to the database.
+ * <p>
+ * Changes are accumulated until they are drained by the database writer, which then writes only the rows, and for
+ * sequence numbers only the column, that have been marked as changed. All methods are thread safe.
+ * </p>
+ */
+final class MeshNetworkChanges {
+
+    private boolean network;
+    private boolean netKeys;
+    private boolean appKeys;
+    private boolean provisioners;
+    private boolean groups;
+    private boolean scenes;
+    private final Map<String, ProvisionedMeshNode> nodes = new LinkedHashMap<>();
+    private final Map<String, ProvisionedMeshNode> sequenceNumbers = new LinkedHashMap<>();
+
+    /**
+     * Marks the mesh network row as changed.
+     */
+    synchronized void markNetworkChanged() {
+        network = true;
+    }
+
+    synchronized void markNetKeysChanged() {
+        netKeys = true;
+    }
+
+    synchronized void markAppKeysChanged() {
+        appKeys = true;
+    }
+
+    synchronized void markProvisionersChanged() {
+        provisioners = true;
+    }
+
+    synchronized void markGroupsChanged() {
+        groups = true;
+    }
+
+    synchronized void markScenesChanged() {
+        scenes = true;
+    }
+
+    /**
+     * Marks a node as changed, the whole row of the node will be written.
+     *
+     * @param node Node that has changed.
+     */
+    synchronized void markNodeChanged(@NonNull final ProvisionedMeshNode node) {
+        sequenceNumbers.remove(node.getUuid());
+        nodes.put(node.getUuid(), node);
+    }
+
+    /**
+     * Marks the sequence number of a node as changed. Only the sequence number column will be written unless the
+     * node has been marked as changed.
+     *
+     * @param node Node whose sequence number has changed.
+     */
+    synchronized void markSequenceNumberChanged(@NonNull final ProvisionedMeshNode node) {
+        if (!nodes.containsKey(node.getUuid())) {
+            sequenceNumbers.put(node.getUuid(), node);
+        }
+    }
+
+    /**
+     * Returns true if there are no changes to be written.
+     */
+    synchronized boolean isEmpty() {
+        return !network && !netKeys && !appKeys && !provisioners && !groups && !scenes
+                && nodes.isEmpty() && sequenceNumbers.isEmpty();
+    }
+
+    /**
+     * Returns the accumulated changes and clears them.
+     */
+    @NonNull
+    synchronized MeshNetworkChanges drain() {
+        final MeshNetworkChanges changes = new MeshNetworkChanges();
+        changes.network = network;
+        changes.netKeys = netKeys;
+        changes.appKeys = appKeys;
+        changes.provisioners = provisioners;
+        changes.groups = groups;
+        changes.scenes = scenes;
+        changes.nodes.putAll(nodes);
+        changes.sequenceNumbers.putAll(sequenceNumbers);
+        network = netKeys = appKeys = provisioners = groups = scenes = false;
+        nodes.clear();
+        sequenceNumbers.clear();
+        return changes;
+    }
+
+    synchronized boolean isNetworkChanged() {
+        return network;
+    }
+
+    synchronized boolean isNetKeysChanged() {
+        return netKeys;
+    }
+
+    synchronized boolean isAppKeysChanged() {
+        return appKeys;
+    }
+
+    synchronized boolean isProvisionersChanged() {
+        return provisioners;
+    }
+
+    synchronized boolean isGroupsChanged() {
+        return groups;
+    }
+
+    synchronized boolean isScenesChanged() {
+        return scenes;
+    }
+
+    /**
+     * Returns the nodes that have changed.
+     */
+    @NonNull
+    synchronized List<ProvisionedMeshNode> getChangedNodes() {
+        return new ArrayList<>(nodes.values());
+    }
+
+    /**
+     * Returns the nodes of which only the sequence number has changed.
+     */
+    @NonNull
+    synchronized List<ProvisionedMeshNode> getChangedSequenceNumbers() {
+        return new ArrayList<>(sequenceNumbers.values());
+    }
+}
@@ -18,6 +18,8 @@ import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RestrictTo;
@@ -88,6 +90,9 @@ abstract class MeshNetworkDb extends RoomDatabase {
     private static final int NUMBER_OF_THREADS = 4;
     private static final ExecutorService databaseWriteExecutor =
             Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    private static final ScheduledExecutorService databaseUpdateScheduler =
+            Executors.newSingleThreadScheduledExecutor();
+    private final MeshNetworkWriter networkWriter = new MeshNetworkWriter(databaseUpdateScheduler);
 
     /**
      * Returns the mesh database
@@ -191,13 +196,6 @@ abstract class MeshNetworkDb extends RoomDatabase {
         return databaseWriteExecutor.submit(meshNetworkDao::getMeshNetworks).get();
     }
 
-    void update(@NonNull final MeshNetworkDao dao, @NonNull final MeshNetwork network) {
-        databaseWriteExecutor.execute(() -> dao.update(network.meshUUID, network.meshName, network.timestamp,
-                network.partial, MeshTypeConverters.ivIndexToJson(network.ivIndex),
-                network.lastSelected,
-                MeshTypeConverters.networkExclusionsToJson(new HashMap<>(network.getNetworkExclusions()))));
-    }
-
     void update(@NonNull final MeshNetworkDao dao, @NonNull final MeshNetwork meshNetwork, final boolean lastSelected) throws ExecutionException, InterruptedException {
         databaseWriteExecutor.submit(() -> dao.update(meshNetwork.meshUUID, lastSelected)).get();
     }
@@ -206,26 +204,83 @@ abstract class MeshNetworkDb extends RoomDatabase {
         databaseWriteExecutor.execute(() -> dao.update(meshNetworks));
     }
 
-    void update(@NonNull final MeshNetwork network,
-                @NonNull final MeshNetworkDao networkDao,
-                @NonNull final NetworkKeysDao netKeyDao,
-                @NonNull final ApplicationKeysDao appKeyDao,
-                @NonNull final ProvisionersDao provisionersDao,
-                @NonNull final ProvisionedMeshNodesDao nodesDao,
-                @NonNull final GroupsDao groupsDao,
-                @NonNull final ScenesDao sceneDao) {
-        databaseWriteExecutor.execute(() -> {
+    /**
+     * Schedules writing the changes tracked on the mesh network to the database.
+     * <p>
+     * Changes made within the given delay are coalesced and written in a single transaction. Only the rows marked as
+     * changed in {@link MeshNetworkChanges} are written.
+     * </p>
+     *
+     * @param network Mesh network.
+     * @param delay   Delay in milliseconds before the changes are written.
+     */
+    void scheduleUpdate(@NonNull final MeshNetwork network,
+                        @NonNull final MeshNetworkDao networkDao,
+                        @NonNull final NetworkKeysDao netKeyDao,
+                        @NonNull final ApplicationKeysDao appKeyDao,
+                        @NonNull final ProvisionersDao provisionersDao,
+                        @NonNull final ProvisionedMeshNodesDao nodesDao,
+                        @NonNull final ProvisionedMeshNodeDao nodeDao,
+                        @NonNull final GroupsDao groupsDao,
+                        @NonNull final ScenesDao sceneDao,
+                        final long delay) {
+        networkWriter.schedule(() -> {
+            final MeshNetworkChanges changes = network.changes.drain();
+            if (changes.isEmpty())
+                return;
+            runInTransaction(() -> update(network, changes, networkDao, netKeyDao, appKeyDao,
+                    provisionersDao, nodesDao, nodeDao, groupsDao, sceneDao));
+        }, delay);
+    }
+
+    /**
+     * Writes any changes scheduled by {@link #scheduleUpdate} immediately, including those marked while a write is
+     * already running.
+     *
+     * @return a future that completes once the changes have been written.
+     */
+    Future<?> flush() {
+        return networkWriter.flush();
+    }
+
+    private void update(@NonNull final MeshNetwork network,
+                        @NonNull final MeshNetworkChanges changes,
+                        @NonNull final MeshNetworkDao networkDao,
+                        @NonNull final NetworkKeysDao netKeyDao,
+                        @NonNull final ApplicationKeysDao appKeyDao,
+                        @NonNull final ProvisionersDao provisionersDao,
+                        @NonNull final ProvisionedMeshNodesDao nodesDao,
+                        @NonNull final ProvisionedMeshNodeDao nodeDao,
+                        @NonNull final GroupsDao groupsDao,
+                        @NonNull final ScenesDao sceneDao) {
+        if (changes.isNetworkChanged()) {
             networkDao.update(network.meshUUID, network.meshName, network.timestamp,
                     network.partial, MeshTypeConverters.ivIndexToJson(network.ivIndex),
                     network.lastSelected,
                     MeshTypeConverters.networkExclusionsToJson(new HashMap<>(network.getNetworkExclusions())));
+        }
+        if (changes.isNetKeysChanged()) {
             netKeyDao.update(new ArrayList<>(network.netKeys));
+        }
+        if (changes.isAppKeysChanged()) {
             appKeyDao.update(new ArrayList<>(network.appKeys));
+        }
+        if (changes.isProvisionersChanged()) {
             provisionersDao.update(new ArrayList<>(network.provisioners));
-            nodesDao.update(new ArrayList<>(network.nodes));
+        }
+        final List<ProvisionedMeshNode> nodes = changes.getChangedNodes();
+        if (!nodes.isEmpty()) {
+            nodesDao.update(nodes);
+        }
+        for (ProvisionedMeshNode node : changes.getChangedSequenceNumbers()) {
+            nodeDao.updateSequenceNumber(node.getUuid(), node.getSequenceNumber());
+        }
+        if (changes.isGroupsChanged()) {
             groupsDao.update(new ArrayList<>(network.groups));
+        }
+        if (changes.isScenesChanged()) {
             sceneDao.update(new ArrayList<>(network.scenes));
-        });
+        }
     }
 
     void delete(@NonNull final MeshNetworkDao dao, @NonNull final MeshNetwork meshNetwork) {
@@ -236,10 +291,6 @@ abstract class MeshNetworkDb extends RoomDatabase {
         databaseWriteExecutor.execute(() -> dao.insert(networkKey));
     }
 
-    void update(@NonNull final NetworkKeyDao dao, @NonNull final NetworkKey networkKey) {
-        databaseWriteExecutor.execute(() -> dao.update(networkKey));
-    }
-
     void delete(@NonNull final NetworkKeyDao dao, @NonNull final NetworkKey networkKey) {
         databaseWriteExecutor.execute(() -> dao.delete(networkKey.getKeyIndex()));
     }
@@ -248,10 +299,6 @@ abstract class MeshNetworkDb extends RoomDatabase {
         databaseWriteExecutor.execute(() -> dao.insert(applicationKey));
     }
 
-    void update(@NonNull final ApplicationKeyDao dao, @NonNull final ApplicationKey applicationKey) {
-        databaseWriteExecutor.execute(() -> dao.update(applicationKey));
-    }
-
     void delete(@NonNull final ApplicationKeyDao dao, @NonNull final ApplicationKey applicationKey) {
         databaseWriteExecutor.execute(() -> dao.delete(applicationKey));
     }
@@ -264,10 +311,6 @@ abstract class MeshNetworkDb extends RoomDatabase {
         databaseWriteExecutor.execute(() -> dao.update(provisioner));
     }
 
-    void update(@NonNull final ProvisionerDao dao, @NonNull final List<Provisioner> provisioners) {
-        databaseWriteExecutor.execute(() -> dao.update(provisioners));
-    }
-
     void delete(@NonNull final ProvisionerDao dao, @NonNull final Provisioner provisioner) {
         databaseWriteExecutor.execute(() -> dao.delete(provisioner));
     }
@@ -280,10 +323,6 @@ abstract class MeshNetworkDb extends RoomDatabase {
         databaseWriteExecutor.execute(() -> dao.insert(node));
     }
 
-    void update(@NonNull final ProvisionedMeshNodeDao dao, @NonNull final ProvisionedMeshNode node) {
-        databaseWriteExecutor.execute(() -> dao.update(node));
-    }
-
     void update(@NonNull final ProvisionedMeshNodesDao dao, @NonNull final List<ProvisionedMeshNode> nodes) {
         databaseWriteExecutor.execute(() -> dao.update(nodes));
     }
@@ -296,10 +335,6 @@ abstract class MeshNetworkDb extends RoomDatabase {
         databaseWriteExecutor.execute(() -> dao.insert(group));
     }
 
-    void update(@NonNull final GroupDao dao, @NonNull final Group group) {
-        databaseWriteExecutor.execute(() -> dao.update(group));
-    }
-
     void delete(@NonNull final GroupDao dao, @NonNull final Group group) {
         databaseWriteExecutor.execute(() -> dao.delete(group.getAddress()));
     }
@@ -308,10 +343,6 @@ abstract class MeshNetworkDb extends RoomDatabase {
         databaseWriteExecutor.execute(() -> dao.insert(scene));
     }
 
-    void update(@NonNull final SceneDao dao, @NonNull final Scene scene) {
-        databaseWriteExecutor.execute(() -> dao.update(scene));
-    }
-
     void delete(@NonNull final SceneDao dao, @NonNull final Scene scene) {
         databaseWriteExecutor.execute(() -> dao.delete(scene.getNumber()));
     }
@@ -0,0 +1,97 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Debounces writing the changes of a mesh network to the database.
+ * <p>
+ * Writes scheduled while a write is pending are coalesced in to the pending write. The write task drains the changes
+ * itself, so changes marked while a write is running are picked up by the next write which is scheduled once the
+ * running one has started. Writes run on a single threaded executor, hence a flush submitted while a write is running
+ * completes only after the running write.
+ * </p>
+ */
+final class MeshNetworkWriter {
+
+    private final ScheduledExecutorService executor;
+    private final Object lock = new Object();
+    private Runnable write;
+    private PendingWrite pendingWrite;
+
+    /**
+     * Constructs the writer.
+     *
+     * @param executor Single threaded executor on which the writes are run.
+     */
+    MeshNetworkWriter(@NonNull final ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Schedules a write unless one is already pending.
+     *
+     * @param write Task draining and writing the changes of the network.
+     * @param delay Delay in milliseconds before the changes are written.
+     */
+    void schedule(@NonNull final Runnable write, final long delay) {
+        synchronized (lock) {
+            this.write = write;
+            if (pendingWrite != null)
+                return;
+            final PendingWrite pending = new PendingWrite(write);
+            pending.future = executor.schedule(pending, delay, TimeUnit.MILLISECONDS);
+            pendingWrite = pending;
+        }
+    }
+
+    /**
+     * Writes the pending changes immediately.
+     * <p>
+     * The returned future completes once the changes marked before this call have been written, including those being
+     * written by a write that is already running.
+     * </p>
+     */
+    @NonNull
+    Future<?> flush() {
+        synchronized (lock) {
+            if (pendingWrite != null) {
+                pendingWrite.future.cancel(false);
+                pendingWrite = null;
+            }
+            if (write == null) {
+                final FutureTask<Void> done = new FutureTask<>(() -> {
+                }, null);
+                done.run();
+                return done;
+            }
+            return executor.submit(write);
+        }
+    }
+
+    private final class PendingWrite implements Runnable {
+
+        private final Runnable write;
+        private ScheduledFuture<?> future;
+
+        PendingWrite(@NonNull final Runnable write) {
+            this.write = write;
+        }
+
+        @Override
+        public void run() {
+            synchronized (lock) {
+                // A flush may have replaced this write just as it started
+                if (pendingWrite != this)
+                    return;
+                pendingWrite = null;
+            }
+            write.run();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package no.nordicsemi.android.mesh;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.VendorModelMessageAcked;
+import no.nordicsemi.android.mesh.transport.VendorModelMessageStatus;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * A mesh message queued to a destination by the {@link MeshTransactionManager}.
+ * <p>
+ * The transaction tracks the state of the message from the moment it is queued until the response is received, all
+ * retries have been exhausted or it is cancelled.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class MeshTransaction {
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({STATE_QUEUED, STATE_IN_PROGRESS, STATE_COMPLETED, STATE_FAILED})
+    public @interface TransactionState {
+    }
+
+    public static final int STATE_QUEUED = 0; //Waiting in the queue of the destination
+    public static final int STATE_IN_PROGRESS = 1; //Sent and waiting for the response
+    public static final int STATE_COMPLETED = 2; //Sent and acknowledged if a response was expected
+    public static final int STATE_FAILED = 3; //Failed or cancelled
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({FAILURE_TIMEOUT, FAILURE_TRANSMISSION, FAILURE_CANCELLED})
+    public @interface FailureReason {
+    }
+
+    public static final int FAILURE_TIMEOUT = 0; //No response received after all retries
+    public static final int FAILURE_TRANSMISSION = 1; //The message could not be sent
+    public static final int FAILURE_CANCELLED = 2; //Cancelled by the user
+
+    /**
+     * Response opcode used for messages that are not acknowledged.
+     */
+    public static final int NO_RESPONSE = -1;
+    /**
+     * Response opcode used for acknowledged vendor messages accepting any vendor status of the same company.
+     */
+    static final int ANY_VENDOR_RESPONSE = -2;
+
+    private final MeshTransactionManager mTransactionManager;
+    private final int mDst;
+    private final MeshMessage mMeshMessage;
+    private final int mResponseOpCode;
+    private final MeshTransactionCallbacks mCallbacks;
+    private int mState = STATE_QUEUED;
+    private int mAttempt;
+    private MeshMessage mResponse;
+    private int mFailureReason;
+    final Runnable timeoutRunnable;
+    MeshScheduler.Cancellable timeout;
+
+    MeshTransaction(@NonNull final MeshTransactionManager transactionManager,
+                    final int dst,
+                    @NonNull final MeshMessage meshMessage,
+                    final int responseOpCode,
+                    @Nullable final MeshTransactionCallbacks callbacks) {
+        this.mTransactionManager = transactionManager;
+        this.mDst = dst;
+        this.mMeshMessage = meshMessage;
+        this.mResponseOpCode = responseOpCode;
+        this.mCallbacks = callbacks;
+        this.timeoutRunnable = () -> transactionManager.onTimeout(this);
+    }
+
+    /**
+     * Returns the destination address of the message.
+     */
+    public int getDst() {
+        return mDst;
+    }
+
+    /**
+     * Returns the mesh message sent by this transaction.
+     */
+    @NonNull
+    public MeshMessage getMeshMessage() {
+        return mMeshMessage;
+    }
+
+    /**
+     * Returns the opcode of the expected response or {@link #NO_RESPONSE} if no response is expected.
+     */
+    public int getResponseOpCode() {
+        return mResponseOpCode;
+    }
+
+    /**
+     * Returns the state of the transaction.
+     */
+    @TransactionState
+    public int getState() {
+        return mState;
+    }
+
+    /**
+     * Returns true if the transaction has completed, failed or was cancelled.
+     */
+    public boolean isDone() {
+        return mState == STATE_COMPLETED || mState == STATE_FAILED;
+    }
+
+    /**
+     * Returns the number of retries sent so far.
+     */
+    public int getRetryCount() {
+        return mAttempt;
+    }
+
+    /**
+     * Returns the received response or null if the transaction has not completed or did not expect a response.
+     */
+    @Nullable
+    public MeshMessage getResponse() {
+        return mResponse;
+    }
+
+    /**
+     * Cancels the transaction. A message that has already been sent can not be recalled, however its response will be ignored.
+     *
+     * @return true if the transaction was cancelled or false if it was already done.
+     */
+    public boolean cancel() {
+        return mTransactionManager.cancel(this);
+    }
+
+    void setAttempt(final int attempt) {
+        mAttempt = attempt;
+    }
+
+    void setState(@TransactionState final int state) {
+        mState = state;
+    }
+
+    /**
+     * Returns true if a response is expected for this transaction. Acknowledged messages sent to group or virtual
+     * addresses may be answered by any number of nodes and are completed once they are sent.
+     */
+    boolean awaitsResponse() {
+        return mResponseOpCode != NO_RESPONSE && MeshAddress.isValidUnicastAddress(mDst);
+    }
+
+    /**
+     * Returns true if the given message received from the given source is the response to this transaction.
+     *
+     * @param src     Source address of the received message.
+     * @param message Received message.
+     */
+    boolean isResponse(final int src, @NonNull final MeshMessage message) {
+        if (src != mDst)
+            return false;
+        if (mMeshMessage instanceof VendorModelMessageAcked) {
+            if (!(message instanceof VendorModelMessageStatus))
+                return false;
+            final VendorModelMessageStatus status = (VendorModelMessageStatus) message;
+            return status.getCompanyIdentifier() == ((VendorModelMessageAcked) mMeshMessage).getCompanyIdentifier() &&
+                    (mResponseOpCode == ANY_VENDOR_RESPONSE || (status.getOpCode() & 0x3F) == (mResponseOpCode & 0x3F));
+        }
+        return message.getOpCode() == mResponseOpCode;
+    }
+
+    void complete(@Nullable final MeshMessage response) {
+        mResponse = response;
+        mState = STATE_COMPLETED;
+    }
+
+    void fail(@FailureReason final int reason) {
+        mFailureReason = reason;
+        mState = STATE_FAILED;
+    }
+
+    /**
+     * Notifies the callbacks of the outcome of the transaction once it is done.
+     */
+    void notifyCallbacks() {
+        if (mCallbacks == null)
+            return;
+        if (mState == STATE_COMPLETED) {
+            mCallbacks.onTransactionCompleted(this, mResponse);
+        } else if (mState == STATE_FAILED) {
+            mCallbacks.onTransactionFailed(this, mFailureReason);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+
+/**
+ * Callbacks to notify the outcome of a {@link MeshTransaction} sent using the {@link MeshTransactionManager}
+ */
+public interface MeshTransactionCallbacks {
+
+    /**
+     * Notifies that a transaction has completed.
+     *
+     * @param transaction Completed transaction.
+     * @param response    Response received for an acknowledged message or null if no response was expected.
+     */
+    void onTransactionCompleted(@NonNull final MeshTransaction transaction, @Nullable final MeshMessage response);
+
+    /**
+     * Notifies that a transaction has failed or was cancelled.
+     *
+     * @param transaction Failed transaction.
+     * @param reason      Reason of the failure, one of {@link MeshTransaction#FAILURE_TIMEOUT},
+     *                    {@link MeshTransaction#FAILURE_TRANSMISSION} or {@link MeshTransaction#FAILURE_CANCELLED}.
+     */
+    void onTransactionFailed(@NonNull final MeshTransaction transaction, @MeshTransaction.FailureReason final int reason);
+}
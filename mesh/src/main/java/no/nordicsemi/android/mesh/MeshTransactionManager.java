@@ -0,0 +1,606 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.VendorModelMessageAcked;
+
+/**
+ * Schedules mesh messages as transactions, allowing requests to different nodes to be pipelined safely.
+ * <p>
+ * Each destination has its own queue and only one transaction per destination is in progress at any time, as the
+ * response received from a node is interpreted against the last message sent to it. Acknowledged transactions to
+ * different nodes run concurrently up to {@link #getMaxConcurrentTransactions()}. A transaction is completed when a
+ * message with the expected response opcode is received from its destination. If no response is received within the
+ * timeout or the segmented message could not be delivered the message is resent, doubling the timeout on each retry.
+ * Unacknowledged messages, and acknowledged messages sent to group or virtual addresses, are completed once sent.
+ * </p>
+ * <p>
+ * Callbacks are invoked after the manager has released its lock, so they may send or cancel transactions and take
+ * locks of their own. They are never invoked before {@link #send} returns, transactions finished while being queued
+ * are notified on the scheduler.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class MeshTransactionManager {
+
+    public static final int DEFAULT_MAX_CONCURRENT_TRANSACTIONS = 4;
+    public static final long DEFAULT_TIMEOUT = 10000;
+    public static final int DEFAULT_MAX_RETRIES = 2;
+    private static final int MAX_RETRIES = 10;
+    private static final Map<Integer, Integer> RESPONSE_OPCODES = new HashMap<>();
+
+    static {
+        putResponse(ConfigMessageOpCodes.CONFIG_APPKEY_STATUS,
+                ConfigMessageOpCodes.CONFIG_APPKEY_ADD, ConfigMessageOpCodes.CONFIG_APPKEY_UPDATE,
+                ConfigMessageOpCodes.CONFIG_APPKEY_DELETE);
+        putResponse(ConfigMessageOpCodes.CONFIG_APPKEY_LIST,
+                ConfigMessageOpCodes.CONFIG_APPKEY_GET);
+        putResponse(ConfigMessageOpCodes.CONFIG_BEACON_STATUS,
+                ConfigMessageOpCodes.CONFIG_BEACON_GET, ConfigMessageOpCodes.CONFIG_BEACON_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS,
+                ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_GET);
+        putResponse(ConfigMessageOpCodes.CONFIG_DEFAULT_TTL_STATUS,
+                ConfigMessageOpCodes.CONFIG_DEFAULT_TTL_GET, ConfigMessageOpCodes.CONFIG_DEFAULT_TTL_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_FRIEND_STATUS,
+                ConfigMessageOpCodes.CONFIG_FRIEND_GET, ConfigMessageOpCodes.CONFIG_FRIEND_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_GATT_PROXY_STATUS,
+                ConfigMessageOpCodes.CONFIG_GATT_PROXY_GET, ConfigMessageOpCodes.CONFIG_GATT_PROXY_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_STATUS,
+                ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_GET,
+                ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_HEARTBEAT_SUBSCRIPTION_STATUS,
+                ConfigMessageOpCodes.CONFIG_HEARTBEAT_SUBSCRIPTION_GET,
+                ConfigMessageOpCodes.CONFIG_HEARTBEAT_SUBSCRIPTION_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_KEY_REFRESH_PHASE_STATUS,
+                ConfigMessageOpCodes.CONFIG_KEY_REFRESH_PHASE_GET, ConfigMessageOpCodes.CONFIG_KEY_REFRESH_PHASE_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_LOW_POWER_NODE_POLLTIMEOUT_STATUS,
+                ConfigMessageOpCodes.CONFIG_LOW_POWER_NODE_POLLTIMEOUT_GET);
+        putResponse(ConfigMessageOpCodes.CONFIG_MODEL_APP_STATUS,
+                ConfigMessageOpCodes.CONFIG_MODEL_APP_BIND, ConfigMessageOpCodes.CONFIG_MODEL_APP_UNBIND);
+        putResponse(ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_STATUS,
+                ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_GET, ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_SET,
+                ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_VIRTUAL_ADDRESS_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_STATUS,
+                ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_ADD,
+                ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_DELETE,
+                ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_DELETE_ALL,
+                ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_OVERWRITE,
+                ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_VIRTUAL_ADDRESS_ADD,
+                ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_VIRTUAL_ADDRESS_DELETE,
+                ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_VIRTUAL_ADDRESS_OVERWRITE);
+        putResponse(ConfigMessageOpCodes.CONFIG_NETKEY_STATUS,
+                ConfigMessageOpCodes.CONFIG_NETKEY_ADD, ConfigMessageOpCodes.CONFIG_NETKEY_UPDATE,
+                ConfigMessageOpCodes.CONFIG_NETKEY_DELETE);
+        putResponse(ConfigMessageOpCodes.CONFIG_NETKEY_LIST,
+                ConfigMessageOpCodes.CONFIG_NETKEY_GET);
+        putResponse(ConfigMessageOpCodes.CONFIG_NETWORK_TRANSMIT_STATUS,
+                ConfigMessageOpCodes.CONFIG_NETWORK_TRANSMIT_GET, ConfigMessageOpCodes.CONFIG_NETWORK_TRANSMIT_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_NODE_IDENTITY_STATUS,
+                ConfigMessageOpCodes.CONFIG_NODE_IDENTITY_GET, ConfigMessageOpCodes.CONFIG_NODE_IDENTITY_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS,
+                ConfigMessageOpCodes.CONFIG_NODE_RESET);
+        putResponse(ConfigMessageOpCodes.CONFIG_RELAY_STATUS,
+                ConfigMessageOpCodes.CONFIG_RELAY_GET, ConfigMessageOpCodes.CONFIG_RELAY_SET);
+        putResponse(ConfigMessageOpCodes.CONFIG_SIG_MODEL_APP_LIST,
+                ConfigMessageOpCodes.CONFIG_SIG_MODEL_APP_GET);
+        putResponse(ConfigMessageOpCodes.CONFIG_SIG_MODEL_SUBSCRIPTION_LIST,
+                ConfigMessageOpCodes.CONFIG_SIG_MODEL_SUBSCRIPTION_GET);
+        putResponse(ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_APP_LIST,
+                ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_APP_GET);
+        putResponse(ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_SUBSCRIPTION_LIST,
+                ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_SUBSCRIPTION_GET);
+        putResponse(ConfigMessageOpCodes.OPCODES_AGGREGATOR_STATUS,
+                ConfigMessageOpCodes.OPCODES_AGGREGATOR_SEQUENCE);
+
+        putResponse(ApplicationMessageOpCodes.GENERIC_ON_OFF_STATUS,
+                ApplicationMessageOpCodes.GENERIC_ON_OFF_GET, ApplicationMessageOpCodes.GENERIC_ON_OFF_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_LEVEL_STATUS,
+                ApplicationMessageOpCodes.GENERIC_LEVEL_GET, ApplicationMessageOpCodes.GENERIC_LEVEL_SET,
+                ApplicationMessageOpCodes.GENERIC_DELTA_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_POWER_LEVEL_STATUS,
+                ApplicationMessageOpCodes.GENERIC_POWER_LEVEL_GET, ApplicationMessageOpCodes.GENERIC_POWER_LEVEL_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_LOCATION_GLOBAL_STATUS,
+                ApplicationMessageOpCodes.GENERIC_LOCATION_GLOBAL_GET,
+                ApplicationMessageOpCodes.GENERIC_LOCATION_GLOBAL_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_BATTERY_STATUS,
+                ApplicationMessageOpCodes.GENERIC_BATTERY_GET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_DEFAULT_TRANSITION_TIME_STATUS,
+                ApplicationMessageOpCodes.GENERIC_DEFAULT_TRANSITION_TIME_GET,
+                ApplicationMessageOpCodes.GENERIC_DEFAULT_TRANSITION_TIME_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_ON_POWER_UP_STATUS,
+                ApplicationMessageOpCodes.GENERIC_ON_POWER_UP_GET, ApplicationMessageOpCodes.GENERIC_ON_POWER_UP_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_ADMIN_PROPERTY_STATUS,
+                ApplicationMessageOpCodes.GENERIC_ADMIN_PROPERTY_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_MANUFACTURER_PROPERTY_STATUS,
+                ApplicationMessageOpCodes.GENERIC_MANUFACTURER_PROPERTY_SET);
+        putResponse(ApplicationMessageOpCodes.GENERIC_USER_PROPERTY_STATUS,
+                ApplicationMessageOpCodes.GENERIC_USER_PROPERTY_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_LIGHTNESS_STATUS,
+                ApplicationMessageOpCodes.LIGHT_LIGHTNESS_GET, ApplicationMessageOpCodes.LIGHT_LIGHTNESS_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_CTL_STATUS,
+                ApplicationMessageOpCodes.LIGHT_CTL_GET, ApplicationMessageOpCodes.LIGHT_CTL_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_CTL_TEMPERATURE_RANGE_STATUS,
+                ApplicationMessageOpCodes.LIGHT_CTL_TEMPERATURE_RANGE_GET,
+                ApplicationMessageOpCodes.LIGHT_CTL_TEMPERATURE_RANGE_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_HSL_STATUS,
+                ApplicationMessageOpCodes.LIGHT_HSL_GET, ApplicationMessageOpCodes.LIGHT_HSL_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_LC_MODE_STATUS,
+                ApplicationMessageOpCodes.LIGHT_LC_MODE_GET, ApplicationMessageOpCodes.LIGHT_LC_MODE_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_LC_OCCUPANCY_MODE_STATUS,
+                ApplicationMessageOpCodes.LIGHT_LC_OCCUPANCY_MODE_GET,
+                ApplicationMessageOpCodes.LIGHT_LC_OCCUPANCY_MODE_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_LC_LIGHT_ON_OFF_STATUS,
+                ApplicationMessageOpCodes.LIGHT_LC_LIGHT_ON_OFF_GET, ApplicationMessageOpCodes.LIGHT_LC_LIGHT_ON_OFF_SET);
+        putResponse(ApplicationMessageOpCodes.LIGHT_LC_PROPERTY_STATUS,
+                ApplicationMessageOpCodes.LIGHT_LC_PROPERTY_GET, ApplicationMessageOpCodes.LIGHT_LC_PROPERTY_SET);
+        putResponse(ApplicationMessageOpCodes.SCENE_STATUS,
+                ApplicationMessageOpCodes.SCENE_GET, ApplicationMessageOpCodes.SCENE_RECALL);
+        putResponse(ApplicationMessageOpCodes.SCENE_REGISTER_STATUS,
+                ApplicationMessageOpCodes.SCENE_REGISTER_GET, ApplicationMessageOpCodes.SCENE_STORE,
+                ApplicationMessageOpCodes.SCENE_DELETE);
+        putResponse(ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_STATUS,
+                ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_GET);
+        putResponse(ApplicationMessageOpCodes.SENSOR_STATUS,
+                ApplicationMessageOpCodes.SENSOR_GET);
+        putResponse(ApplicationMessageOpCodes.SENSOR_COLUMN_STATUS,
+                ApplicationMessageOpCodes.SENSOR_COLUMN_GET);
+        putResponse(ApplicationMessageOpCodes.SENSOR_SERIES_STATUS,
+                ApplicationMessageOpCodes.SENSOR_SERIES_GET);
+        putResponse(ApplicationMessageOpCodes.SENSOR_CADENCE_STATUS,
+                ApplicationMessageOpCodes.SENSOR_CADENCE_GET, ApplicationMessageOpCodes.SENSOR_CADENCE_SET);
+        putResponse(ApplicationMessageOpCodes.SENSOR_SETTINGS_STATUS,
+                ApplicationMessageOpCodes.SENSOR_SETTINGS_GET);
+        putResponse(ApplicationMessageOpCodes.SENSOR_SETTING_STATUS,
+                ApplicationMessageOpCodes.SENSOR_SETTING_GET, ApplicationMessageOpCodes.SENSOR_SETTING_SET);
+        putResponse(ApplicationMessageOpCodes.SCHEDULER_STATUS,
+                ApplicationMessageOpCodes.SCHEDULER_GET);
+        putResponse(ApplicationMessageOpCodes.SCHEDULER_ACTION_STATUS,
+                ApplicationMessageOpCodes.SCHEDULER_ACTION_GET, ApplicationMessageOpCodes.SCHEDULER_ACTION_SET);
+        putResponse(ApplicationMessageOpCodes.TIME_STATUS,
+                ApplicationMessageOpCodes.TIME_GET, ApplicationMessageOpCodes.TIME_SET);
+        putResponse(ApplicationMessageOpCodes.TIME_ZONE_STATUS,
+                ApplicationMessageOpCodes.TIME_ZONE_GET, ApplicationMessageOpCodes.TIME_ZONE_SET);
+        putResponse(ApplicationMessageOpCodes.BLOB_INFORMATION_STATUS,
+                ApplicationMessageOpCodes.BLOB_INFORMATION_GET);
+        putResponse(ApplicationMessageOpCodes.BLOB_TRANSFER_STATUS,
+                ApplicationMessageOpCodes.BLOB_TRANSFER_GET, ApplicationMessageOpCodes.BLOB_TRANSFER_START,
+                ApplicationMessageOpCodes.BLOB_TRANSFER_CANCEL);
+        putResponse(ApplicationMessageOpCodes.BLOB_BLOCK_STATUS,
+                ApplicationMessageOpCodes.BLOB_BLOCK_START, ApplicationMessageOpCodes.BLOB_BLOCK_GET);
+        putResponse(ApplicationMessageOpCodes.FIRMWARE_UPDATE_INFORMATION_STATUS,
+                ApplicationMessageOpCodes.FIRMWARE_UPDATE_INFORMATION_GET);
+        putResponse(ApplicationMessageOpCodes.FIRMWARE_UPDATE_STATUS,
+                ApplicationMessageOpCodes.FIRMWARE_UPDATE_GET, ApplicationMessageOpCodes.FIRMWARE_UPDATE_START,
+                ApplicationMessageOpCodes.FIRMWARE_UPDATE_CANCEL, ApplicationMessageOpCodes.FIRMWARE_UPDATE_APPLY);
+        putResponse(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_STATUS,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_ADD,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_DELETE_ALL);
+        putResponse(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_LIST,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_GET);
+        putResponse(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_STATUS,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_GET, ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_START,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_CANCEL, ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_APPLY);
+        putResponse(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_UPLOAD_STATUS,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_UPLOAD_GET,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_UPLOAD_START);
+        putResponse(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_FIRMWARE_STATUS,
+                ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_FIRMWARE_GET);
+    }
+
+    /**
+     * Sends the mesh message of a transaction.
+     */
+    interface MeshMessageSender {
+        /**
+         * Sends a mesh message to the given destination.
+         *
+         * @param dst         Destination address.
+         * @param meshMessage Mesh message.
+         * @throws IllegalArgumentException if the message could not be sent.
+         */
+        void send(final int dst, @NonNull final MeshMessage meshMessage) throws IllegalArgumentException;
+    }
+
+    private MeshScheduler mScheduler;
+    private final MeshMessageSender mSender;
+    private final Map<Integer, ArrayDeque<MeshTransaction>> mQueues = new HashMap<>();
+    private final Map<Integer, MeshTransaction> mActiveTransactions = new HashMap<>();
+    private final ArrayDeque<Integer> mReadyDestinations = new ArrayDeque<>();
+    private final List<MeshTransaction> mFinishedTransactions = new ArrayList<>();
+    private int mMaxConcurrentTransactions = DEFAULT_MAX_CONCURRENT_TRANSACTIONS;
+    private long mTimeout = DEFAULT_TIMEOUT;
+    private int mMaxRetries = DEFAULT_MAX_RETRIES;
+    private boolean mDispatching;
+
+    MeshTransactionManager(@NonNull final MeshScheduler scheduler, @NonNull final MeshMessageSender sender) {
+        this.mScheduler = scheduler;
+        this.mSender = sender;
+    }
+
+    private static void putResponse(final int responseOpCode, final int... requestOpCodes) {
+        for (int requestOpCode : requestOpCodes) {
+            RESPONSE_OPCODES.put(requestOpCode, responseOpCode);
+        }
+    }
+
+    /**
+     * Returns the opcode of the response to the given message, {@link MeshTransaction#NO_RESPONSE} if the message
+     * is not acknowledged.
+     *
+     * @param meshMessage Mesh message.
+     */
+    static int getResponseOpCode(@NonNull final MeshMessage meshMessage) {
+        if (meshMessage instanceof VendorModelMessageAcked)
+            return MeshTransaction.ANY_VENDOR_RESPONSE;
+        final Integer responseOpCode = RESPONSE_OPCODES.get(meshMessage.getOpCode());
+        return responseOpCode == null ? MeshTransaction.NO_RESPONSE : responseOpCode;
+    }
+
+    /**
+     * Returns the maximum number of acknowledged transactions awaiting a response at the same time.
+     */
+    public synchronized int getMaxConcurrentTransactions() {
+        return mMaxConcurrentTransactions;
+    }
+
+    /**
+     * Sets the maximum number of acknowledged transactions awaiting a response at the same time. Each transaction is
+     * sent to a different destination.
+     *
+     * @param maxConcurrentTransactions Maximum number of concurrent transactions.
+     * @throws IllegalArgumentException if the value is less than 1.
+     */
+    public void setMaxConcurrentTransactions(final int maxConcurrentTransactions) {
+        if (maxConcurrentTransactions < 1)
+            throw new IllegalArgumentException("At least one concurrent transaction must be allowed.");
+        synchronized (this) {
+            mMaxConcurrentTransactions = maxConcurrentTransactions;
+            dispatch();
+        }
+        notifyFinishedTransactions();
+    }
+
+    /**
+     * Returns the time in milliseconds to wait for the response to the first attempt of a transaction.
+     */
+    public synchronized long getTimeout() {
+        return mTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds to wait for the response to the first attempt of a transaction. The timeout is
+     * doubled on every retry.
+     *
+     * @param timeout Timeout in milliseconds.
+     * @throws IllegalArgumentException if the timeout is not positive.
+     */
+    public synchronized void setTimeout(final long timeout) {
+        if (timeout <= 0)
+            throw new IllegalArgumentException("Timeout must be greater than 0.");
+        mTimeout = timeout;
+    }
+
+    /**
+     * Sets the scheduler running the timeouts of the transactions sent from now on.
+     *
+     * @param scheduler Scheduler.
+     */
+    synchronized void setScheduler(@NonNull final MeshScheduler scheduler) {
+        mScheduler = scheduler;
+    }
+
+    /**
+     * Returns the number of times a message is resent if no response is received.
+     */
+    public synchronized int getMaxRetries() {
+        return mMaxRetries;
+    }
+
+    /**
+     * Sets the number of times a message is resent if no response is received.
+     *
+     * @param maxRetries Number of retries, from 0 to 10.
+     * @throws IllegalArgumentException if the number of retries is out of range.
+     */
+    public synchronized void setMaxRetries(final int maxRetries) {
+        if (maxRetries < 0 || maxRetries > MAX_RETRIES)
+            throw new IllegalArgumentException("Number of retries must be in range 0 to " + MAX_RETRIES + ".");
+        mMaxRetries = maxRetries;
+    }
+
+    /**
+     * Queues a mesh message to the given destination. The expected response is derived from the message opcode, an
+     * acknowledged vendor message is completed by any vendor status of the same company received from the destination.
+     *
+     * @param dst         Destination address.
+     * @param meshMessage Mesh message.
+     * @param callbacks   Callbacks notified when the transaction completes or fails.
+     * @return the queued transaction.
+     */
+    @NonNull
+    public MeshTransaction send(final int dst,
+                                @NonNull final MeshMessage meshMessage,
+                                @Nullable final MeshTransactionCallbacks callbacks) {
+        return send(dst, meshMessage, getResponseOpCode(meshMessage), callbacks);
+    }
+
+    /**
+     * Queues a mesh message to the given destination expecting the given response.
+     *
+     * @param dst            Destination address.
+     * @param meshMessage    Mesh message.
+     * @param responseOpCode Opcode of the expected response or {@link MeshTransaction#NO_RESPONSE}.
+     *                       For vendor messages only the 6-bit opcode is compared.
+     * @param callbacks      Callbacks notified when the transaction completes or fails.
+     * @return the queued transaction.
+     */
+    @NonNull
+    public synchronized MeshTransaction send(final int dst,
+                                             @NonNull final MeshMessage meshMessage,
+                                             final int responseOpCode,
+                                             @Nullable final MeshTransactionCallbacks callbacks) {
+        final MeshTransaction transaction = new MeshTransaction(this, dst, meshMessage, responseOpCode, callbacks);
+        ArrayDeque<MeshTransaction> queue = mQueues.get(dst);
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            mQueues.put(dst, queue);
+        }
+        if (queue.isEmpty() && mActiveTransactions.get(dst) == null) {
+            mReadyDestinations.add(dst);
+        }
+        queue.add(transaction);
+        dispatch();
+        // The caller may be holding its own lock and has not seen the transaction yet
+        final List<MeshTransaction> finished = takeFinishedTransactions();
+        if (!finished.isEmpty()) {
+            mScheduler.schedule(() -> notifyCallbacks(finished), 0);
+        }
+        return transaction;
+    }
+
+    /**
+     * Returns the number of transactions waiting in the queues.
+     */
+    public synchronized int getQueuedTransactionCount() {
+        int count = 0;
+        for (ArrayDeque<MeshTransaction> queue : mQueues.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of transactions awaiting a response.
+     */
+    public synchronized int getActiveTransactionCount() {
+        return mActiveTransactions.size();
+    }
+
+    /**
+     * Cancels all queued and active transactions, for example when the connection to the proxy node is lost.
+     */
+    public void cancelAll() {
+        synchronized (this) {
+            final ArrayDeque<MeshTransaction> cancelled = new ArrayDeque<>();
+            for (MeshTransaction transaction : mActiveTransactions.values()) {
+                cancelTimeout(transaction);
+                cancelled.add(transaction);
+            }
+            for (ArrayDeque<MeshTransaction> queue : mQueues.values()) {
+                cancelled.addAll(queue);
+            }
+            mActiveTransactions.clear();
+            mQueues.clear();
+            mReadyDestinations.clear();
+            for (MeshTransaction transaction : cancelled) {
+                fail(transaction, MeshTransaction.FAILURE_CANCELLED);
+            }
+        }
+        notifyFinishedTransactions();
+    }
+
+    boolean cancel(@NonNull final MeshTransaction transaction) {
+        final boolean cancelled = remove(transaction);
+        notifyFinishedTransactions();
+        return cancelled;
+    }
+
+    private synchronized boolean remove(@NonNull final MeshTransaction transaction) {
+        final int dst = transaction.getDst();
+        if (transaction.getState() == MeshTransaction.STATE_QUEUED) {
+            final ArrayDeque<MeshTransaction> queue = mQueues.get(dst);
+            if (queue == null || !queue.remove(transaction))
+                return false;
+            if (queue.isEmpty()) {
+                mQueues.remove(dst);
+            }
+        } else if (transaction.getState() == MeshTransaction.STATE_IN_PROGRESS) {
+            if (mActiveTransactions.get(dst) != transaction)
+                return false;
+            cancelTimeout(transaction);
+            mActiveTransactions.remove(dst);
+            onDestinationIdle(dst);
+        } else {
+            return false;
+        }
+        fail(transaction, MeshTransaction.FAILURE_CANCELLED);
+        dispatch();
+        return true;
+    }
+
+    /**
+     * Completes the active transaction of the source if the received message is its response.
+     *
+     * @param src         Source address.
+     * @param meshMessage Received mesh message.
+     */
+    void onMeshMessageReceived(final int src, @NonNull final MeshMessage meshMessage) {
+        synchronized (this) {
+            final MeshTransaction transaction = mActiveTransactions.get(src);
+            if (transaction == null || !transaction.isResponse(src, meshMessage))
+                return;
+            cancelTimeout(transaction);
+            mActiveTransactions.remove(src);
+            onDestinationIdle(src);
+            complete(transaction, meshMessage);
+            dispatch();
+        }
+        notifyFinishedTransactions();
+    }
+
+    /**
+     * Retries the active transaction of the destination after the delivery of a segmented message has failed.
+     *
+     * @param dst Destination address.
+     */
+    void onTransactionFailed(final int dst) {
+        synchronized (this) {
+            final MeshTransaction transaction = mActiveTransactions.get(dst);
+            if (transaction == null)
+                return;
+            cancelTimeout(transaction);
+            retry(transaction);
+        }
+        notifyFinishedTransactions();
+    }
+
+    void onTimeout(@NonNull final MeshTransaction transaction) {
+        synchronized (this) {
+            if (mActiveTransactions.get(transaction.getDst()) != transaction)
+                return;
+            retry(transaction);
+        }
+        notifyFinishedTransactions();
+    }
+
+    private void retry(@NonNull final MeshTransaction transaction) {
+        final int dst = transaction.getDst();
+        if (transaction.getRetryCount() < mMaxRetries) {
+            transaction.setAttempt(transaction.getRetryCount() + 1);
+            if (transmit(transaction))
+                return;
+            mActiveTransactions.remove(dst);
+            onDestinationIdle(dst);
+            fail(transaction, MeshTransaction.FAILURE_TRANSMISSION);
+        } else {
+            mActiveTransactions.remove(dst);
+            onDestinationIdle(dst);
+            fail(transaction, MeshTransaction.FAILURE_TIMEOUT);
+        }
+        dispatch();
+    }
+
+    private void dispatch() {
+        if (mDispatching)
+            return;
+        mDispatching = true;
+        try {
+            while (!mReadyDestinations.isEmpty() && mActiveTransactions.size() < mMaxConcurrentTransactions) {
+                final int dst = mReadyDestinations.poll();
+                final ArrayDeque<MeshTransaction> queue = mQueues.get(dst);
+                if (queue == null || mActiveTransactions.get(dst) != null)
+                    continue;
+                final MeshTransaction transaction = queue.poll();
+                if (queue.isEmpty()) {
+                    mQueues.remove(dst);
+                }
+                start(transaction);
+            }
+        } finally {
+            mDispatching = false;
+        }
+    }
+
+    private void start(@NonNull final MeshTransaction transaction) {
+        final int dst = transaction.getDst();
+        transaction.setState(MeshTransaction.STATE_IN_PROGRESS);
+        if (transaction.awaitsResponse()) {
+            mActiveTransactions.put(dst, transaction);
+            if (!transmit(transaction)) {
+                mActiveTransactions.remove(dst);
+                onDestinationIdle(dst);
+                fail(transaction, MeshTransaction.FAILURE_TRANSMISSION);
+            }
+            return;
+        }
+        final boolean sent = transmit(transaction);
+        onDestinationIdle(dst);
+        if (sent) {
+            complete(transaction, null);
+        } else {
+            fail(transaction, MeshTransaction.FAILURE_TRANSMISSION);
+        }
+    }
+
+    private void complete(@NonNull final MeshTransaction transaction, @Nullable final MeshMessage response) {
+        transaction.complete(response);
+        mFinishedTransactions.add(transaction);
+    }
+
+    private void fail(@NonNull final MeshTransaction transaction, @MeshTransaction.FailureReason final int reason) {
+        transaction.fail(reason);
+        mFinishedTransactions.add(transaction);
+    }
+
+    @NonNull
+    private List<MeshTransaction> takeFinishedTransactions() {
+        if (mFinishedTransactions.isEmpty())
+            return Collections.emptyList();
+        final List<MeshTransaction> finished = new ArrayList<>(mFinishedTransactions);
+        mFinishedTransactions.clear();
+        return finished;
+    }
+
+    /**
+     * Notifies the callbacks of the finished transactions, must not be called while holding the lock.
+     */
+    private void notifyFinishedTransactions() {
+        final List<MeshTransaction> finished;
+        synchronized (this) {
+            finished = takeFinishedTransactions();
+        }
+        notifyCallbacks(finished);
+    }
+
+    private static void notifyCallbacks(@NonNull final List<MeshTransaction> transactions) {
+        for (MeshTransaction transaction : transactions) {
+            transaction.notifyCallbacks();
+        }
+    }
+
+    private boolean transmit(@NonNull final MeshTransaction transaction) {
+        try {
+            mSender.send(transaction.getDst(), transaction.getMeshMessage());
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+        if (transaction.awaitsResponse()) {
+            transaction.timeout = mScheduler.schedule(transaction.timeoutRunnable, mTimeout << transaction.getRetryCount());
+        }
+        return true;
+    }
+
+    private static void cancelTimeout(@NonNull final MeshTransaction transaction) {
+        if (transaction.timeout != null) {
+            transaction.timeout.cancel();
+            transaction.timeout = null;
+        }
+    }
+
+    private void onDestinationIdle(final int dst) {
+        if (mQueues.get(dst) != null) {
+            mReadyDestinations.add(dst);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.google.gson.annotations.Expose;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
@@ -44,6 +45,9 @@ public final class NetworkKey extends MeshKey {
     public static final int USE_NEW_KEYS = 2; //Normal operation
     public static final int REVOKE_OLD_KEYS = 3; //Key Distribution
 
+    // Incremented whenever the key material of a network key or the network keys of a mesh network change
+    private static final AtomicInteger KEYS_VERSION = new AtomicInteger();
+
     @ColumnInfo(name = "phase")
     @Expose
     private int phase = NORMAL_OPERATION;
@@ -68,6 +72,27 @@ public final class NetworkKey extends MeshKey {
     @Ignore
     private SecureUtils.K2Output oldDerivatives;
 
+    @Ignore
+    private BeaconKeys beaconKeys;
+
+    @Ignore
+    private BeaconKeys oldBeaconKeys;
+
+    /**
+     * Network ID and beacon key derived from a network key, used to authenticate Secure Network Beacons.
+     */
+    static final class BeaconKeys {
+        final byte[] key;
+        final byte[] networkId;
+        final byte[] beaconKey;
+
+        private BeaconKeys(@NonNull final byte[] key) {
+            this.key = key;
+            networkId = SecureUtils.calculateK3(key);
+            beaconKey = SecureUtils.calculateBeaconKey(key);
+        }
+    }
+
     /**
      * Constructs a NetworkKey object with a given key index and network key
      *
@@ -151,6 +176,8 @@ public final class NetworkKey extends MeshKey {
         super.setKey(key);
         identityKey = SecureUtils.calculateIdentityKey(key);
         derivatives = SecureUtils.calculateK2(key, SecureUtils.K2_MASTER_INPUT);
+        beaconKeys = null;
+        onKeysChanged();
     }
 
     @Override
@@ -158,6 +185,21 @@ public final class NetworkKey extends MeshKey {
         super.setOldKey(oldKey);
         oldIdentityKey = SecureUtils.calculateIdentityKey(oldKey);
         oldDerivatives = SecureUtils.calculateK2(oldKey, SecureUtils.K2_MASTER_INPUT);
+        oldBeaconKeys = null;
+        onKeysChanged();
+    }
+
+    /**
+     * Returns the version of the network keys, which changes whenever a network key is updated or refreshed, or a
+     * network key is added to or removed from a mesh network.
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static int getKeysVersion() {
+        return KEYS_VERSION.get();
+    }
+
+    static void onKeysChanged() {
+        KEYS_VERSION.incrementAndGet();
     }
 
     /**
@@ -330,12 +372,55 @@ public final class NetworkKey extends MeshKey {
     }
 
     byte[] getNetworkId() {
-        return SecureUtils.calculateK3(key);
+        return getBeaconKeys().networkId;
     }
 
     @Nullable
     byte[] getOldNetworkId() {
-        return SecureUtils.calculateK3(oldKey);
+        final BeaconKeys oldBeaconKeys = getOldBeaconKeys();
+        return oldBeaconKeys == null ? null : oldBeaconKeys.networkId;
+    }
+
+    /**
+     * Returns the network ID and beacon key derived from the NetworkKey based on the key refresh procedure phase.
+     */
+    @Nullable
+    BeaconKeys getTxBeaconKeys() {
+        switch (phase) {
+            case KEY_DISTRIBUTION:
+                return getOldBeaconKeys();
+            case USING_NEW_KEYS:
+            default:
+                return getBeaconKeys();
+        }
+    }
+
+    /**
+     * Returns the network ID and beacon key derived from the current key, these are calculated once for each key value.
+     */
+    @NonNull
+    private BeaconKeys getBeaconKeys() {
+        BeaconKeys beaconKeys = this.beaconKeys;
+        if (beaconKeys == null || beaconKeys.key != key) {
+            beaconKeys = new BeaconKeys(key);
+            this.beaconKeys = beaconKeys;
+        }
+        return beaconKeys;
+    }
+
+    /**
+     * Returns the network ID and beacon key derived from the old key, or null if there is no old key.
+     */
+    @Nullable
+    private BeaconKeys getOldBeaconKeys() {
+        if (oldKey == null)
+            return null;
+        BeaconKeys oldBeaconKeys = this.oldBeaconKeys;
+        if (oldBeaconKeys == null || oldBeaconKeys.key != oldKey) {
+            oldBeaconKeys = new BeaconKeys(oldKey);
+            this.oldBeaconKeys = oldBeaconKeys;
+        }
+        return oldBeaconKeys;
     }
 
 
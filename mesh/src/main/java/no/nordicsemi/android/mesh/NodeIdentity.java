@@ -0,0 +1,46 @@
+package no.nordicsemi.android.mesh;
+
+import androidx.annotation.NonNull;
+
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+/**
+ * A node found advertising with Node Identity and the network key its identity was resolved with.
+ */
+@SuppressWarnings("unused")
+public final class NodeIdentity {
+
+    private final ProvisionedMeshNode node;
+    private final NetworkKey networkKey;
+    private final boolean oldKey;
+
+    NodeIdentity(@NonNull final ProvisionedMeshNode node, @NonNull final NetworkKey networkKey, final boolean oldKey) {
+        this.node = node;
+        this.networkKey = networkKey;
+        this.oldKey = oldKey;
+    }
+
+    /**
+     * Returns the node advertising with Node Identity.
+     */
+    @NonNull
+    public ProvisionedMeshNode getNode() {
+        return node;
+    }
+
+    /**
+     * Returns the network key the advertised hash was generated with.
+     */
+    @NonNull
+    public NetworkKey getNetworkKey() {
+        return networkKey;
+    }
+
+    /**
+     * Returns true if the advertised hash was generated with the old key of the network key during a key refresh
+     * procedure, or false if it was generated with the current key.
+     */
+    public boolean isOldKey() {
+        return oldKey;
+    }
+}
@@ -0,0 +1,245 @@
+package no.nordicsemi.android.mesh;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.CryptoContext;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+/**
+ * Resolves the node advertising with Node Identity from the advertised hash and random.
+ * <p>
+ * The hash of every node is calculated with the identity keys cached by each {@link NetworkKey}, reusing the AES
+ * context of a key for all nodes. Large networks are split into partitions searched in parallel on the executor, if
+ * one is set, while the calling thread searches the partitions that have not been picked up yet. Resolved identities
+ * are kept in a least recently used cache keyed by the hash and random, so that the repeated advertisements of a node
+ * are resolved without any cryptography for as long as the node and its network key are unchanged.
+ * </p>
+ */
+final class NodeIdentityResolver {
+
+    static final int DEFAULT_CAPACITY = 64;
+    // Number of hashes below which searching in parallel costs more than it saves
+    static final int PARALLEL_THRESHOLD = 512;
+
+    private static final int HASH_LENGTH = 8;
+    private static final int RANDOM_LENGTH = 8;
+    private static final int BLOCK_SIZE = 16;
+    private static final int RANDOM_OFFSET = 6; // The random follows 48 bits of padding
+    private static final int ADDRESS_OFFSET = RANDOM_OFFSET + RANDOM_LENGTH;
+    private static final int HASH_OFFSET = BLOCK_SIZE - HASH_LENGTH;
+
+    private final Map<ByteBuffer, Resolved> identities;
+    private volatile Executor executor;
+
+    NodeIdentityResolver() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    NodeIdentityResolver(final int capacity) {
+        identities = new LinkedHashMap<ByteBuffer, Resolved>(capacity + 1, 1.0f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, Resolved> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Sets the executor used to search large networks in parallel.
+     *
+     * @param executor Executor or null to search on the calling thread only.
+     */
+    void setExecutor(@Nullable final Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the node of the network advertising the given hash and random together with the network key that
+     * generated the hash, or null if none of the nodes matches.
+     *
+     * @param network Mesh network.
+     * @param hash    64-bit advertised hash.
+     * @param random  64-bit advertised random.
+     */
+    @Nullable
+    NodeIdentity resolve(@NonNull final BaseMeshNetwork network, @NonNull final byte[] hash, @NonNull final byte[] random) {
+        final ByteBuffer advertisement = ByteBuffer.wrap(ByteBuffer.allocate(HASH_LENGTH + RANDOM_LENGTH)
+                .put(hash)
+                .put(random)
+                .array());
+        synchronized (this) {
+            final Resolved resolved = identities.get(advertisement);
+            if (resolved != null) {
+                if (isValid(network, resolved)) {
+                    return resolved.identity;
+                }
+                identities.remove(advertisement);
+            }
+        }
+
+        final List<IdentityKey> keys = new ArrayList<>();
+        for (NetworkKey networkKey : network.netKeys) {
+            if (networkKey.getIdentityKey() != null) {
+                keys.add(new IdentityKey(networkKey, networkKey.getIdentityKey(), false));
+            }
+            if (networkKey.getOldIdentityKey() != null) {
+                keys.add(new IdentityKey(networkKey, networkKey.getOldIdentityKey(), true));
+            }
+        }
+        final ProvisionedMeshNode[] nodes = network.nodes.toArray(new ProvisionedMeshNode[0]);
+        final Resolved resolved = search(nodes, keys, hash, random);
+        if (resolved == null)
+            return null;
+
+        synchronized (this) {
+            identities.put(advertisement, resolved);
+        }
+        return resolved.identity;
+    }
+
+    /**
+     * Removes all resolved identities from the cache.
+     */
+    synchronized void clear() {
+        identities.clear();
+    }
+
+    /**
+     * Returns true if the node and the identity key of a cached identity are still part of the network.
+     */
+    private static boolean isValid(@NonNull final BaseMeshNetwork network, @NonNull final Resolved resolved) {
+        final NodeIdentity identity = resolved.identity;
+        final ProvisionedMeshNode node = identity.getNode();
+        if (network.getNode(node.getUnicastAddress()) != node)
+            return false;
+        final NetworkKey networkKey = identity.getNetworkKey();
+        if (!network.netKeys.contains(networkKey))
+            return false;
+        // Identity keys are derived again whenever the key changes
+        final byte[] identityKey = identity.isOldKey() ? networkKey.getOldIdentityKey() : networkKey.getIdentityKey();
+        return identityKey == resolved.identityKey;
+    }
+
+    private Resolved search(@NonNull final ProvisionedMeshNode[] nodes,
+                            @NonNull final List<IdentityKey> keys,
+                            @NonNull final byte[] hash,
+                            @NonNull final byte[] random) {
+        final Executor executor = this.executor;
+        final int hashes = nodes.length * keys.size();
+        if (executor == null || hashes < 2 * PARALLEL_THRESHOLD) {
+            return search(nodes, 0, nodes.length, keys, hash, random, null);
+        }
+
+        final int partitionCount = Math.min(Runtime.getRuntime().availableProcessors() + 1, hashes / PARALLEL_THRESHOLD);
+        final int partitionSize = (nodes.length + partitionCount - 1) / partitionCount;
+        final AtomicReference<Resolved> result = new AtomicReference<>();
+        final AtomicInteger nextPartition = new AtomicInteger();
+        final CountDownLatch searched = new CountDownLatch(partitionCount);
+        final Runnable searcher = () -> {
+            int partition;
+            while ((partition = nextPartition.getAndIncrement()) < partitionCount) {
+                try {
+                    final int from = partition * partitionSize;
+                    final int to = Math.min(nodes.length, from + partitionSize);
+                    final Resolved resolved = search(nodes, from, to, keys, hash, random, result);
+                    if (resolved != null) {
+                        result.compareAndSet(null, resolved);
+                    }
+                } finally {
+                    searched.countDown();
+                }
+            }
+        };
+        for (int i = 1; i < partitionCount; i++) {
+            executor.execute(searcher);
+        }
+        // Partitions not picked up by the executor are searched here, so only the ones in progress are waited for
+        searcher.run();
+        try {
+            searched.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result.get();
+    }
+
+    /**
+     * Searches a range of nodes for the node advertising the given hash.
+     *
+     * @param nodes  Nodes of the network.
+     * @param from   Index of the first node to search.
+     * @param to     Index after the last node to search.
+     * @param keys   Identity keys of the network.
+     * @param hash   Advertised hash.
+     * @param random Advertised random.
+     * @param result Result of a parallel search, checked to stop searching once a node has been found elsewhere.
+     */
+    @Nullable
+    private static Resolved search(@NonNull final ProvisionedMeshNode[] nodes,
+                                   final int from,
+                                   final int to,
+                                   @NonNull final List<IdentityKey> keys,
+                                   @NonNull final byte[] hash,
+                                   @NonNull final byte[] random,
+                                   @Nullable final AtomicReference<Resolved> result) {
+        final byte[] input = new byte[BLOCK_SIZE];
+        final byte[] output = new byte[BLOCK_SIZE];
+        System.arraycopy(random, 0, input, RANDOM_OFFSET, RANDOM_LENGTH);
+        for (IdentityKey key : keys) {
+            final CryptoContext context = SecureUtils.getCryptoContext(key.identityKey);
+            for (int i = from; i < to; i++) {
+                if (result != null && result.get() != null)
+                    return null;
+                final int address = nodes[i].getUnicastAddress();
+                input[ADDRESS_OFFSET] = (byte) (address >> 8);
+                input[ADDRESS_OFFSET + 1] = (byte) address;
+                context.encryptBlock(input, 0, output, 0);
+                if (matches(output, hash)) {
+                    return new Resolved(new NodeIdentity(nodes[i], key.networkKey, key.old), key.identityKey);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(@NonNull final byte[] output, @NonNull final byte[] hash) {
+        for (int i = 0; i < HASH_LENGTH; i++) {
+            if (output[HASH_OFFSET + i] != hash[i])
+                return false;
+        }
+        return true;
+    }
+
+    private static final class IdentityKey {
+        private final NetworkKey networkKey;
+        private final byte[] identityKey;
+        private final boolean old;
+
+        private IdentityKey(@NonNull final NetworkKey networkKey, @NonNull final byte[] identityKey, final boolean old) {
+            this.networkKey = networkKey;
+            this.identityKey = identityKey;
+            this.old = old;
+        }
+    }
+
+    private static final class Resolved {
+        private final NodeIdentity identity;
+        private final byte[] identityKey;
+
+        private Resolved(@NonNull final NodeIdentity identity, @NonNull final byte[] identityKey) {
+            this.identity = identity;
+            this.identityKey = identityKey;
+        }
+    }
+}
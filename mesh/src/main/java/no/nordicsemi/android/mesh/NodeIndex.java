@@ -0,0 +1,196 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+/**
+ * Index of the provisioned nodes in a mesh network.
+ * <p>
+ * Nodes are indexed by the unicast address range covered by their elements, kept as sorted primitive arrays so that a
+ * node can be resolved from any of its element addresses using a binary search, and by their UUID.
+ * The index is bound to the list of nodes it was built from and is rebuilt whenever a different list is used or the
+ * number of nodes in the list changes.
+ * </p>
+ */
+final class NodeIndex {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] lowAddresses = new int[INITIAL_CAPACITY];
+    private int[] highAddresses = new int[INITIAL_CAPACITY];
+    private ProvisionedMeshNode[] owners = new ProvisionedMeshNode[INITIAL_CAPACITY];
+    private int size;
+    private final Map<String, ProvisionedMeshNode> uuids = new HashMap<>();
+    private List<ProvisionedMeshNode> indexedNodes;
+    private int indexedCount;
+
+    /**
+     * Returns true if the index is up to date with the given list of nodes.
+     *
+     * @param nodes List of nodes.
+     */
+    boolean isIndexed(@NonNull final List<ProvisionedMeshNode> nodes) {
+        return indexedNodes == nodes && indexedCount == nodes.size();
+    }
+
+    /**
+     * Marks the index as outdated, forcing it to be rebuilt on the next lookup.
+     */
+    void invalidate() {
+        indexedNodes = null;
+    }
+
+    /**
+     * Rebuilds the index from the given list of nodes.
+     *
+     * @param nodes List of nodes.
+     */
+    void rebuild(@NonNull final List<ProvisionedMeshNode> nodes) {
+        Arrays.fill(owners, 0, size, null);
+        size = 0;
+        uuids.clear();
+        for (ProvisionedMeshNode node : nodes) {
+            insert(node);
+        }
+        indexedNodes = nodes;
+        indexedCount = nodes.size();
+    }
+
+    /**
+     * Adds a node that has been added to the given list of nodes.
+     *
+     * @param nodes List of nodes the node was added to.
+     * @param node  Node that was added.
+     */
+    void add(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ProvisionedMeshNode node) {
+        if (indexedNodes != nodes || indexedCount + 1 != nodes.size()) {
+            invalidate();
+            return;
+        }
+        insert(node);
+        indexedCount++;
+    }
+
+    /**
+     * Removes a node that has been removed from the given list of nodes.
+     *
+     * @param nodes List of nodes the node was removed from.
+     * @param node  Node that was removed.
+     */
+    void remove(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ProvisionedMeshNode node) {
+        if (indexedNodes != nodes || indexedCount - 1 != nodes.size()) {
+            invalidate();
+            return;
+        }
+        delete(node);
+        indexedCount--;
+    }
+
+    /**
+     * Replaces a node in the index with a node that has taken its place in the given list of nodes.
+     *
+     * @param nodes   List of nodes.
+     * @param oldNode Node that was replaced.
+     * @param newNode Node replacing the old node.
+     */
+    void replace(@NonNull final List<ProvisionedMeshNode> nodes,
+                 @NonNull final ProvisionedMeshNode oldNode,
+                 @NonNull final ProvisionedMeshNode newNode) {
+        if (!isIndexed(nodes)) {
+            invalidate();
+            return;
+        }
+        delete(oldNode);
+        insert(newNode);
+    }
+
+    /**
+     * Returns the node owning the given unicast address or null if no such node is indexed.
+     *
+     * @param address Unicast address of the node or one of its elements.
+     */
+    @Nullable
+    ProvisionedMeshNode getNode(final int address) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            if (lowAddresses[mid] > address) {
+                high = mid - 1;
+            } else if (highAddresses[mid] < address) {
+                low = mid + 1;
+            } else {
+                return owners[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the node with the given UUID or null if no such node is indexed.
+     *
+     * @param uuid UUID of the node.
+     */
+    @Nullable
+    ProvisionedMeshNode getNode(@Nullable final String uuid) {
+        if (uuid == null)
+            return null;
+        return uuids.get(uuid.toUpperCase(Locale.US));
+    }
+
+    private void insert(@NonNull final ProvisionedMeshNode node) {
+        if (node.getUuid() != null) {
+            uuids.put(node.getUuid().toUpperCase(Locale.US), node);
+        }
+        final int lowAddress = node.getUnicastAddress();
+        int highAddress = lowAddress;
+        for (Element element : node.getElements().values()) {
+            highAddress = Math.max(highAddress, element.getElementAddress());
+        }
+        if (size == owners.length) {
+            final int capacity = size * 2;
+            lowAddresses = Arrays.copyOf(lowAddresses, capacity);
+            highAddresses = Arrays.copyOf(highAddresses, capacity);
+            owners = Arrays.copyOf(owners, capacity);
+        }
+        int index = size;
+        while (index > 0 && lowAddresses[index - 1] > lowAddress) {
+            index--;
+        }
+        final int count = size - index;
+        System.arraycopy(lowAddresses, index, lowAddresses, index + 1, count);
+        System.arraycopy(highAddresses, index, highAddresses, index + 1, count);
+        System.arraycopy(owners, index, owners, index + 1, count);
+        lowAddresses[index] = lowAddress;
+        highAddresses[index] = highAddress;
+        owners[index] = node;
+        size++;
+    }
+
+    private void delete(@NonNull final ProvisionedMeshNode node) {
+        if (node.getUuid() != null) {
+            final String key = node.getUuid().toUpperCase(Locale.US);
+            if (uuids.get(key) == node) {
+                uuids.remove(key);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (owners[i] == node) {
+                final int count = size - i - 1;
+                System.arraycopy(lowAddresses, i + 1, lowAddresses, i, count);
+                System.arraycopy(highAddresses, i + 1, highAddresses, i, count);
+                System.arraycopy(owners, i + 1, owners, i, count);
+                owners[--size] = null;
+                return;
+            }
+        }
+    }
+}
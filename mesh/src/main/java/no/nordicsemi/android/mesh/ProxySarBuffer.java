@@ -0,0 +1,149 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Reassembly buffer for a Proxy PDU segmented at the proxy protocol level.
+ * <p>
+ * The buffer is allocated once, sized to the largest Proxy PDU exchanged by the library, and reused for every message of
+ * the same PDU type. The SAR header of each segment is stripped as the segment is appended, so the reassembled PDU
+ * starts with the PDU type followed by the message, without a separate pass to remove the segmentation.
+ * </p>
+ */
+final class ProxySarBuffer {
+
+    // PDU type, Provisioning PDU type and the 64-octet Provisioning Public Key, the largest PDU sent over the proxy protocol
+    static final int MAX_PROXY_PDU_LENGTH = 1 + 1 + 64;
+
+    private static final int SAR_COMPLETE = 0b00;
+    private static final int SAR_START = 0b01;
+    private static final int SAR_END = 0b11;
+    private static final int SAR_MASK = 0xC0;
+    private static final int PDU_TYPE_MASK = 0x3F;
+    private static final int SAR_BIT_OFFSET = 6;
+
+    private final int pduType;
+    private byte[] buffer = new byte[MAX_PROXY_PDU_LENGTH];
+    private int length;
+    private boolean inProgress;
+
+    /**
+     * Constructs the reassembly buffer for a PDU type.
+     *
+     * @param pduType Proxy PDU type.
+     */
+    ProxySarBuffer(final int pduType) {
+        this.pduType = pduType;
+    }
+
+    /**
+     * Returns the SAR field of a Proxy PDU.
+     *
+     * @param pdu Proxy PDU.
+     */
+    static int getSar(@NonNull final byte[] pdu) {
+        return (pdu[0] & SAR_MASK) >> SAR_BIT_OFFSET;
+    }
+
+    /**
+     * Returns the PDU type of a Proxy PDU.
+     *
+     * @param pdu Proxy PDU.
+     */
+    static int getPduType(@NonNull final byte[] pdu) {
+        return pdu[0] & PDU_TYPE_MASK;
+    }
+
+    /**
+     * Returns true if the Proxy PDU is a segment of a message.
+     *
+     * @param pdu Proxy PDU.
+     */
+    static boolean isSegmented(@NonNull final byte[] pdu) {
+        return getSar(pdu) != SAR_COMPLETE;
+    }
+
+    /**
+     * Returns true if the Proxy PDU is the first segment of a message.
+     *
+     * @param pdu Proxy PDU.
+     */
+    static boolean isFirstSegment(@NonNull final byte[] pdu) {
+        return getSar(pdu) == SAR_START;
+    }
+
+    /**
+     * Returns the PDU type of the messages reassembled in this buffer.
+     */
+    int getPduType() {
+        return pduType;
+    }
+
+    /**
+     * Returns true if the first segment of a message has been received and the last one has not.
+     */
+    boolean isInProgress() {
+        return inProgress;
+    }
+
+    /**
+     * Discards the message being reassembled.
+     */
+    void reset() {
+        length = 0;
+        inProgress = false;
+    }
+
+    /**
+     * Appends a segment to the message being reassembled. A first segment discards any incomplete message, while
+     * continuation and last segments received without a first segment are ignored.
+     *
+     * @param segment       Segmented Proxy PDU.
+     * @param segmentLength Number of octets of the segment to be appended, including the SAR header.
+     * @return true if the segment completed the message
+     * @throws IllegalArgumentException if the segment is not a segment of this PDU type.
+     */
+    boolean append(@NonNull final byte[] segment, final int segmentLength) {
+        if (!isSegmented(segment) || getPduType(segment) != pduType)
+            throw new IllegalArgumentException("Segment does not belong to a segmented message of PDU type " + pduType);
+
+        final int sar = getSar(segment);
+        if (sar == SAR_START) {
+            length = 0;
+            inProgress = true;
+            ensureCapacity(segmentLength);
+            buffer[length++] = (byte) pduType;
+        } else if (!inProgress) {
+            return false;
+        } else {
+            ensureCapacity(length + segmentLength - 1);
+        }
+        System.arraycopy(segment, 1, buffer, length, segmentLength - 1);
+        length += segmentLength - 1;
+        if (sar == SAR_END) {
+            inProgress = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the reassembled Proxy PDU, starting with the PDU type, once the message is complete.
+     * <p>
+     * Parsers may hold on to the PDU, therefore it is returned in an array of its own while the buffer is kept for the
+     * next message.
+     * </p>
+     */
+    @NonNull
+    byte[] getPdu() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private void ensureCapacity(final int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+        }
+    }
+}
@@ -6,9 +6,11 @@ import android.os.Parcelable;
 import androidx.annotation.NonNull;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Calendar;
 
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
 
 /**
  * Contains the information related to a secure network beacon.
@@ -93,6 +95,31 @@ public class SecureNetworkBeacon extends MeshBeacon {
         return authenticationValue;
     }
 
+    /**
+     * Returns true if the beacon was authenticated with the given network key, based on the key refresh procedure phase.
+     * <p>
+     * The Network ID of the beacon is compared with the one derived from the key before the authentication value is
+     * calculated, so that beacons of other subnets are rejected without a CMAC.
+     * </p>
+     *
+     * @param networkKey Network key.
+     */
+    boolean isAuthenticatedBy(@NonNull final NetworkKey networkKey) {
+        final NetworkKey.BeaconKeys beaconKeys = networkKey.getTxBeaconKeys();
+        if (beaconKeys == null || !Arrays.equals(networkId, beaconKeys.networkId))
+            return false;
+        final ByteBuffer buffer = ByteBuffer.allocate(1 + networkId.length + 4);
+        buffer.put((byte) flags);
+        buffer.put(networkId);
+        buffer.putInt(ivIndex.getIvIndex());
+        final byte[] authentication = SecureUtils.calculateCMAC(buffer.array(), beaconKeys.beaconKey);
+        for (int i = 0; i < authenticationValue.length; i++) {
+            if (authentication[i] != authenticationValue[i])
+                return false;
+        }
+        return true;
+    }
+
     @Override
     public int describeContents() {
         return 0;
@@ -167,6 +194,17 @@ public class SecureNetworkBeacon extends MeshBeacon {
         }
     }
 
+    /**
+     * Returns true if the IV Index and the IV Update Active flag of this Secure Network Beacon are those of the given
+     * IV Index, in which case the beacon has no effect on a network using that IV Index.
+     *
+     * @param ivIndex The IV Index to compare.
+     */
+    protected boolean matches(final IvIndex ivIndex) {
+        return this.ivIndex.getIvIndex() == ivIndex.getIvIndex() &&
+                this.ivIndex.isIvUpdateActive() == ivIndex.isIvUpdateActive();
+    }
+
     private boolean isMinimumTimeRequirementCompleted(final IvIndex ivIndex,
                                                       final Calendar updatedAt,
                                                       final boolean isIvRecoveryActive,
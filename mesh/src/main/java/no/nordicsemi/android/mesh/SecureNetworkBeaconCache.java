@@ -0,0 +1,60 @@
+package no.nordicsemi.android.mesh;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Cache of the Secure Network Beacons that were recently authenticated and processed.
+ * <p>
+ * Proxies repeat the same beacon every few seconds, which leaves the state of the network unchanged once it has been
+ * processed, so a beacon found in the cache is ignored without being authenticated again. The least recently seen
+ * beacon is evicted once the cache is full.
+ * </p>
+ */
+final class SecureNetworkBeaconCache {
+
+    static final int DEFAULT_CAPACITY = 16;
+
+    private final Map<ByteBuffer, Boolean> beacons;
+
+    SecureNetworkBeaconCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    SecureNetworkBeaconCache(final int capacity) {
+        beacons = new LinkedHashMap<ByteBuffer, Boolean>(capacity + 1, 1.0f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, Boolean> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns true if the beacon has been processed recently, refreshing its position in the cache.
+     *
+     * @param beaconData Beacon data.
+     */
+    synchronized boolean contains(@NonNull final byte[] beaconData) {
+        return beacons.get(ByteBuffer.wrap(beaconData)) != null;
+    }
+
+    /**
+     * Adds a beacon that has been authenticated and processed.
+     *
+     * @param beaconData Beacon data.
+     */
+    synchronized void add(@NonNull final byte[] beaconData) {
+        beacons.put(ByteBuffer.wrap(beaconData.clone()), Boolean.TRUE);
+    }
+
+    /**
+     * Removes all beacons from the cache, so that they are authenticated and processed again.
+     */
+    synchronized void clear() {
+        beacons.clear();
+    }
+}
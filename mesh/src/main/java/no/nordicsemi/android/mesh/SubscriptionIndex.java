@@ -0,0 +1,232 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.MeshModel;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+/**
+ * Reverse index of the subscriptions of the models in a mesh network.
+ * <p>
+ * Models, and the elements containing them, are indexed by the addresses they are subscribed to so that the members of
+ * a group can be resolved without walking every node in the network. Virtual addresses are indexed by their 16-bit
+ * address and the Label UUID of the group is checked against the model when it is resolved.
+ * The index is bound to the list of nodes it was built from and is rebuilt whenever a different list is used or the
+ * number of nodes in the list changes. A node whose subscriptions have changed must be updated using
+ * {@link #update(List, ProvisionedMeshNode)}.
+ * </p>
+ */
+final class SubscriptionIndex {
+
+    // Subscribed models by subscription address, in the order they were indexed
+    private final Map<Integer, Map<MeshModel, Element>> members = new HashMap<>();
+    // Subscriptions indexed for each node, used to remove them when the node is updated or removed
+    private final Map<ProvisionedMeshNode, List<Subscription>> subscriptions = new IdentityHashMap<>();
+    private List<ProvisionedMeshNode> indexedNodes;
+    private int indexedCount;
+
+    private static final class Subscription {
+        final MeshModel model;
+        final int address;
+
+        Subscription(@NonNull final MeshModel model, final int address) {
+            this.model = model;
+            this.address = address;
+        }
+    }
+
+    /**
+     * Returns true if the index is up to date with the given list of nodes.
+     *
+     * @param nodes List of nodes.
+     */
+    boolean isIndexed(@NonNull final List<ProvisionedMeshNode> nodes) {
+        return indexedNodes == nodes && indexedCount == nodes.size();
+    }
+
+    /**
+     * Marks the index as outdated, forcing it to be rebuilt on the next lookup.
+     */
+    void invalidate() {
+        indexedNodes = null;
+    }
+
+    /**
+     * Rebuilds the index from the given list of nodes.
+     *
+     * @param nodes List of nodes.
+     */
+    void rebuild(@NonNull final List<ProvisionedMeshNode> nodes) {
+        members.clear();
+        subscriptions.clear();
+        for (ProvisionedMeshNode node : nodes) {
+            insert(node);
+        }
+        indexedNodes = nodes;
+        indexedCount = nodes.size();
+    }
+
+    /**
+     * Adds a node that has been added to the given list of nodes.
+     *
+     * @param nodes List of nodes the node was added to.
+     * @param node  Node that was added.
+     */
+    void add(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ProvisionedMeshNode node) {
+        if (indexedNodes != nodes || indexedCount + 1 != nodes.size()) {
+            invalidate();
+            return;
+        }
+        insert(node);
+        indexedCount++;
+    }
+
+    /**
+     * Removes a node that has been removed from the given list of nodes.
+     *
+     * @param nodes List of nodes the node was removed from.
+     * @param node  Node that was removed.
+     */
+    void remove(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ProvisionedMeshNode node) {
+        if (indexedNodes != nodes || indexedCount - 1 != nodes.size()) {
+            invalidate();
+            return;
+        }
+        delete(node);
+        indexedCount--;
+    }
+
+    /**
+     * Replaces a node in the index with a node that has taken its place in the given list of nodes.
+     *
+     * @param nodes   List of nodes.
+     * @param oldNode Node that was replaced.
+     * @param newNode Node replacing the old node.
+     */
+    void replace(@NonNull final List<ProvisionedMeshNode> nodes,
+                 @NonNull final ProvisionedMeshNode oldNode,
+                 @NonNull final ProvisionedMeshNode newNode) {
+        if (!isIndexed(nodes)) {
+            invalidate();
+            return;
+        }
+        delete(oldNode);
+        insert(newNode);
+    }
+
+    /**
+     * Re-indexes the subscriptions of a node in the given list of nodes, after its elements or the subscriptions of its
+     * models have changed.
+     *
+     * @param nodes List of nodes.
+     * @param node  Node that was updated.
+     */
+    void update(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ProvisionedMeshNode node) {
+        if (!isIndexed(nodes))
+            return;
+        if (!subscriptions.containsKey(node)) {
+            // The node is not the one that was indexed, it may have been replaced directly in the list
+            invalidate();
+            return;
+        }
+        delete(node);
+        insert(node);
+    }
+
+    /**
+     * Returns the elements containing at least one model subscribed to the given group.
+     *
+     * @param group Group.
+     */
+    @NonNull
+    List<Element> getElements(@NonNull final Group group) {
+        final Map<MeshModel, Element> subscribers = members.get(group.getAddress());
+        if (subscribers == null)
+            return new ArrayList<>();
+        final List<Element> elements = new ArrayList<>();
+        final Set<Element> added = Collections.newSetFromMap(new IdentityHashMap<Element, Boolean>());
+        for (Map.Entry<MeshModel, Element> entry : subscribers.entrySet()) {
+            if (isSubscribed(entry.getKey(), group) && added.add(entry.getValue())) {
+                elements.add(entry.getValue());
+            }
+        }
+        return elements;
+    }
+
+    /**
+     * Returns the models subscribed to the given group.
+     *
+     * @param group Group.
+     */
+    @NonNull
+    List<MeshModel> getModels(@NonNull final Group group) {
+        final Map<MeshModel, Element> subscribers = members.get(group.getAddress());
+        if (subscribers == null)
+            return new ArrayList<>();
+        final List<MeshModel> models = new ArrayList<>(subscribers.size());
+        for (MeshModel model : subscribers.keySet()) {
+            if (isSubscribed(model, group)) {
+                models.add(model);
+            }
+        }
+        return models;
+    }
+
+    /**
+     * Returns false if the model is subscribed to a different Label UUID sharing the virtual address of the group.
+     */
+    private static boolean isSubscribed(@NonNull final MeshModel model, @NonNull final Group group) {
+        final UUID label = group.getAddressLabel();
+        if (label == null)
+            return true;
+        final UUID modelLabel = model.getLabelUUID(group.getAddress());
+        return modelLabel == null || model.getLabelUUID().contains(label);
+    }
+
+    private void insert(@NonNull final ProvisionedMeshNode node) {
+        final List<Subscription> nodeSubscriptions = new ArrayList<>();
+        for (Element element : node.getElements().values()) {
+            for (MeshModel model : element.getMeshModels().values()) {
+                if (model == null)
+                    continue;
+                for (Integer address : model.getSubscribedAddresses()) {
+                    Map<MeshModel, Element> subscribers = members.get(address);
+                    if (subscribers == null) {
+                        // Models do not override equals, hence they are compared by identity
+                        subscribers = new LinkedHashMap<>();
+                        members.put(address, subscribers);
+                    }
+                    if (subscribers.put(model, element) == null) {
+                        nodeSubscriptions.add(new Subscription(model, address));
+                    }
+                }
+            }
+        }
+        subscriptions.put(node, nodeSubscriptions);
+    }
+
+    private void delete(@NonNull final ProvisionedMeshNode node) {
+        final List<Subscription> nodeSubscriptions = subscriptions.remove(node);
+        if (nodeSubscriptions == null)
+            return;
+        for (Subscription subscription : nodeSubscriptions) {
+            final Map<MeshModel, Element> subscribers = members.get(subscription.address);
+            if (subscribers != null) {
+                subscribers.remove(subscription.model);
+                if (subscribers.isEmpty()) {
+                    members.remove(subscription.address);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+/**
+ * Allocator of unicast addresses in a mesh network.
+ * <p>
+ * Addresses of the elements of the provisioned nodes and the addresses excluded with the current IV Index and the
+ * previous IV Index are kept as {@link AddressIntervals}, so that the next free block of addresses for a node can be
+ * found without sorting and scanning every address in use.
+ * The allocator is bound to the list of nodes and the exclusion list it was built from, as well as the IV Index, and is
+ * rebuilt whenever any of them change. Removing a node forces a rebuild, while adding or updating a node only marks its
+ * addresses as occupied.
+ * </p>
+ */
+final class UnicastAddressAllocator {
+
+    private final AddressIntervals usedAddresses = new AddressIntervals();
+    private List<ProvisionedMeshNode> indexedNodes;
+    private int indexedCount;
+    private Map<Integer, List<Integer>> indexedExclusions;
+    private int indexedIvIndex;
+
+    /**
+     * Returns true if the allocator is up to date with the given list of nodes, exclusion list and IV Index.
+     *
+     * @param nodes      List of nodes.
+     * @param exclusions Excluded addresses by IV Index.
+     * @param ivIndex    Current IV Index.
+     */
+    boolean isIndexed(@NonNull final List<ProvisionedMeshNode> nodes,
+                      @NonNull final Map<Integer, List<Integer>> exclusions,
+                      final int ivIndex) {
+        return indexedNodes == nodes && indexedCount == nodes.size() &&
+                indexedExclusions == exclusions && indexedIvIndex == ivIndex;
+    }
+
+    /**
+     * Marks the allocator as outdated, forcing it to be rebuilt on the next allocation.
+     */
+    void invalidate() {
+        indexedNodes = null;
+    }
+
+    /**
+     * Rebuilds the allocator from the given list of nodes and exclusion list.
+     *
+     * @param nodes      List of nodes.
+     * @param exclusions Excluded addresses by IV Index.
+     * @param ivIndex    Current IV Index.
+     */
+    void rebuild(@NonNull final List<ProvisionedMeshNode> nodes,
+                 @NonNull final Map<Integer, List<Integer>> exclusions,
+                 final int ivIndex) {
+        usedAddresses.clear();
+        for (ProvisionedMeshNode node : nodes) {
+            insert(node);
+        }
+        // Excluded addresses with the current IvIndex and current IvIndex - 1 must be considered as addresses in use.
+        insert(exclusions.get(ivIndex));
+        insert(exclusions.get(ivIndex - 1));
+        indexedNodes = nodes;
+        indexedCount = nodes.size();
+        indexedExclusions = exclusions;
+        indexedIvIndex = ivIndex;
+    }
+
+    /**
+     * Adds a node that has been added to the given list of nodes.
+     *
+     * @param nodes List of nodes the node was added to.
+     * @param node  Node that was added.
+     */
+    void add(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ProvisionedMeshNode node) {
+        if (indexedNodes != nodes || indexedCount + 1 != nodes.size()) {
+            invalidate();
+            return;
+        }
+        insert(node);
+        indexedCount++;
+    }
+
+    /**
+     * Removes a node that has been removed from the given list of nodes. Addresses are merged into intervals as they
+     * are added, hence the allocator is rebuilt on the next allocation.
+     */
+    void remove() {
+        invalidate();
+    }
+
+    /**
+     * Updates the allocator after the elements of a node in the given list of nodes have changed.
+     *
+     * @param nodes List of nodes.
+     * @param node  Node that was updated.
+     */
+    void update(@NonNull final List<ProvisionedMeshNode> nodes, @NonNull final ProvisionedMeshNode node) {
+        if (indexedNodes == nodes && indexedCount == nodes.size()) {
+            // Addresses no longer used by the node stay reserved until the allocator is rebuilt
+            insert(node);
+        }
+    }
+
+    /**
+     * Returns the lowest address of the first free block of addresses for the given number of elements within the
+     * given ranges, or -1 if there is none.
+     *
+     * @param elementCount Number of elements.
+     * @param ranges       Allocated unicast ranges, in the order they are to be searched.
+     */
+    int nextAvailableAddress(final int elementCount, @NonNull final List<AllocatedUnicastRange> ranges) {
+        for (AllocatedUnicastRange range : ranges) {
+            final int address = usedAddresses.firstFit(range.getLowAddress(), range.getHighAddress(), elementCount);
+            if (address != -1) {
+                return address;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(@NonNull final ProvisionedMeshNode node) {
+        //There could be devices that are provisioned but does not have the number of elements yet so let's check for that.
+        if (node.getElements().size() > 0) {
+            for (Integer address : node.getElements().keySet()) {
+                usedAddresses.add(address);
+            }
+        } else {
+            usedAddresses.add(node.getUnicastAddress());
+        }
+    }
+
+    private void insert(final List<Integer> addresses) {
+        if (addresses != null) {
+            for (Integer address : addresses) {
+                usedAddresses.add(address);
+            }
+        }
+    }
+}
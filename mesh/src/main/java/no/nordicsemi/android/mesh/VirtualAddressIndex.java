@@ -0,0 +1,120 @@
+package no.nordicsemi.android.mesh;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Index of the label UUIDs of the virtual groups in a mesh network, keyed by their virtual address.
+ * <p>
+ * A virtual address is a hash of its label UUID, hence distinct label UUIDs may share the same virtual address and each
+ * address maps to the list of label UUIDs hashing to it. The lists are replaced rather than modified, so a list
+ * returned by {@link #getLabelUuids(int)} does not change when groups are added or removed. The index is bound to the list of groups it was built from and is rebuilt whenever a different list is used or the
+ * number of groups in the list changes.
+ * </p>
+ */
+final class VirtualAddressIndex {
+
+    private final Map<Integer, List<UUID>> labels = new HashMap<>();
+    private List<Group> indexedGroups;
+    private int indexedCount;
+
+    /**
+     * Returns true if the index is up to date with the given list of groups.
+     *
+     * @param groups List of groups.
+     */
+    boolean isIndexed(@NonNull final List<Group> groups) {
+        return indexedGroups == groups && indexedCount == groups.size();
+    }
+
+    /**
+     * Marks the index as outdated, forcing it to be rebuilt on the next lookup.
+     */
+    void invalidate() {
+        indexedGroups = null;
+    }
+
+    /**
+     * Rebuilds the index from the given list of groups.
+     *
+     * @param groups List of groups.
+     */
+    void rebuild(@NonNull final List<Group> groups) {
+        labels.clear();
+        for (Group group : groups) {
+            insert(group);
+        }
+        indexedGroups = groups;
+        indexedCount = groups.size();
+    }
+
+    /**
+     * Adds a group that has been added to the given list of groups.
+     *
+     * @param groups List of groups the group was added to.
+     * @param group  Group that was added.
+     */
+    void add(@NonNull final List<Group> groups, @NonNull final Group group) {
+        if (indexedGroups != groups || indexedCount + 1 != groups.size()) {
+            invalidate();
+            return;
+        }
+        insert(group);
+        indexedCount++;
+    }
+
+    /**
+     * Removes a group that has been removed from the given list of groups.
+     *
+     * @param groups List of groups the group was removed from.
+     * @param group  Group that was removed.
+     */
+    void remove(@NonNull final List<Group> groups, @NonNull final Group group) {
+        if (indexedGroups != groups || indexedCount - 1 != groups.size()) {
+            invalidate();
+            return;
+        }
+        final UUID label = group.getAddressLabel();
+        if (label != null) {
+            final List<UUID> uuids = labels.get(group.getAddress());
+            if (uuids != null) {
+                final List<UUID> updated = new ArrayList<>(uuids);
+                updated.remove(label);
+                if (updated.isEmpty()) {
+                    labels.remove(group.getAddress());
+                } else {
+                    labels.put(group.getAddress(), Collections.unmodifiableList(updated));
+                }
+            }
+        }
+        indexedCount--;
+    }
+
+    /**
+     * Returns the label UUIDs of the virtual groups with the given virtual address, which is empty if no virtual group
+     * with that address is indexed.
+     *
+     * @param address Virtual address.
+     */
+    @NonNull
+    List<UUID> getLabelUuids(final int address) {
+        final List<UUID> uuids = labels.get(address);
+        return uuids == null ? Collections.<UUID>emptyList() : uuids;
+    }
+
+    private void insert(@NonNull final Group group) {
+        final UUID label = group.getAddressLabel();
+        if (label != null) {
+            final List<UUID> uuids = labels.get(group.getAddress());
+            final List<UUID> updated = uuids == null ? new ArrayList<UUID>(1) : new ArrayList<>(uuids);
+            updated.add(label);
+            labels.put(group.getAddress(), Collections.unmodifiableList(updated));
+        }
+    }
+}
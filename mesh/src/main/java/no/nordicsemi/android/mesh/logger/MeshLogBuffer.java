@@ -0,0 +1,132 @@
+package no.nordicsemi.android.mesh.logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Bounded in-memory log keeping the most recent log messages, to be set using {@link MeshLogger#setLogBuffer(MeshLogBuffer)}.
+ * <p>
+ * Messages are written to a ring buffer without locking, so that the log can be captured from any thread with little
+ * overhead and inspected after a failure. Once the buffer is full the oldest messages are overwritten.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class MeshLogBuffer implements MeshLogger.LogHandler {
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * A log message captured by the buffer.
+     */
+    public static final class Entry {
+        private final long sequenceNumber;
+        private final long timestamp;
+        private final int priority;
+        private final String tag;
+        private final String message;
+
+        Entry(final long sequenceNumber, final long timestamp, final int priority, final String tag, final String message) {
+            this.sequenceNumber = sequenceNumber;
+            this.timestamp = timestamp;
+            this.priority = priority;
+            this.tag = tag;
+            this.message = message;
+        }
+
+        /**
+         * Returns the position of the message among all messages logged to the buffer.
+         */
+        public long getSequenceNumber() {
+            return sequenceNumber;
+        }
+
+        /**
+         * Returns the time the message was logged, in milliseconds since the epoch.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Returns the priority/type of the message.
+         */
+        public int getPriority() {
+            return priority;
+        }
+
+        /**
+         * Returns the tag identifying the source of the message.
+         */
+        public String getTag() {
+            return tag;
+        }
+
+        /**
+         * Returns the message.
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * Constructs the log buffer.
+     *
+     * @param capacity Number of messages kept in the buffer.
+     * @throws IllegalArgumentException if the capacity is not positive.
+     */
+    public MeshLogBuffer(final int capacity) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be greater than 0");
+        entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Returns the number of messages kept in the buffer.
+     */
+    public int getCapacity() {
+        return entries.length();
+    }
+
+    @Override
+    public void log(final int priority, final String tag, final String message) {
+        final long sequenceNumber = sequence.getAndIncrement();
+        entries.set((int) (sequenceNumber % entries.length()),
+                new Entry(sequenceNumber, System.currentTimeMillis(), priority, tag, message));
+    }
+
+    /**
+     * Returns a snapshot of the messages in the buffer, oldest first.
+     */
+    @NonNull
+    public List<Entry> getEntries() {
+        final long last = sequence.get();
+        final long first = Math.max(0, last - entries.length());
+        final List<Entry> snapshot = new ArrayList<>(entries.length());
+        for (int i = 0; i < entries.length(); i++) {
+            final Entry entry = entries.get(i);
+            // Skip slots being overwritten by messages logged after the snapshot was started
+            if (entry != null && entry.sequenceNumber >= first && entry.sequenceNumber < last) {
+                snapshot.add(entry);
+            }
+        }
+        Collections.sort(snapshot, (entry1, entry2) ->
+                entry1.sequenceNumber < entry2.sequenceNumber ? -1 : (entry1.sequenceNumber == entry2.sequenceNumber ? 0 : 1));
+        return snapshot;
+    }
+
+    /**
+     * Removes all messages from the buffer.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, null);
+        }
+    }
+}
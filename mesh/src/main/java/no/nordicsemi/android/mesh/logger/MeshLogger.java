@@ -2,6 +2,7 @@ package no.nordicsemi.android.mesh.logger;
 
 import android.util.Log;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RestrictTo;
 
@@ -17,20 +18,61 @@ public final class MeshLogger {
          */
         void log(int priority, String tag, String message);
     }
-    
+
+    /**
+     * Builds a log message only when the message is going to be logged.
+     */
+    public interface MessageSupplier {
+        /**
+         * Returns the message to be logged.
+         */
+        String get();
+    }
+
+    @Nullable
+    private static volatile LogHandler logHandler = null;
     @Nullable
-    private static LogHandler logHandler = null;
+    private static volatile MeshLogBuffer logBuffer = null;
+    private static volatile int minLevel = Log.VERBOSE;
 
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     public static void verbose(String tag, String message) {
         log(Log.VERBOSE, tag, message, null);
     }
 
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void verbose(String tag, @NonNull MessageSupplier message) {
+        if (isLoggable(Log.VERBOSE)) {
+            log(Log.VERBOSE, tag, message.get(), null);
+        }
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void verbose(String tag, String format, Object... args) {
+        if (isLoggable(Log.VERBOSE)) {
+            log(Log.VERBOSE, tag, String.format(format, args), null);
+        }
+    }
+
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     public static void debug(String tag, String message) {
         log(Log.DEBUG, tag, message, null);
     }
 
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void debug(String tag, @NonNull MessageSupplier message) {
+        if (isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, message.get(), null);
+        }
+    }
+
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public static void debug(String tag, String format, Object... args) {
+        if (isLoggable(Log.DEBUG)) {
+            log(Log.DEBUG, tag, String.format(format, args), null);
+        }
+    }
+
     @RestrictTo(RestrictTo.Scope.LIBRARY)
     public static void info(String tag, String message) {
         log(Log.INFO, tag, message, null);
@@ -55,11 +97,55 @@ public final class MeshLogger {
         MeshLogger.logHandler = logHandler;
     }
 
+    /**
+     * Sets a buffer keeping the most recent log messages, in addition to the log handler, so that they can be
+     * retrieved after a failure.
+     *
+     * @param logBuffer Log buffer or null to stop capturing log messages.
+     */
+    public static void setLogBuffer(@Nullable MeshLogBuffer logBuffer) {
+        MeshLogger.logBuffer = logBuffer;
+    }
+
+    /**
+     * Sets the lowest priority of the messages to be logged. Messages with a lower priority are dropped before they
+     * are formatted. Defaults to {@link Log#VERBOSE}.
+     *
+     * @param priority Possible values are {@link Log#VERBOSE}, {@link Log#DEBUG}, {@link Log#INFO}, {@link Log#WARN},
+     *                 {@link Log#ERROR} or {@link Log#ASSERT} to disable logging.
+     */
+    public static void setMinLevel(int priority) {
+        MeshLogger.minLevel = priority;
+    }
+
+    /**
+     * Returns the lowest priority of the messages to be logged.
+     */
+    public static int getMinLevel() {
+        return minLevel;
+    }
+
+    /**
+     * Returns true if messages of the given priority are logged.
+     *
+     * @param priority The priority/type of the log message.
+     */
+    public static boolean isLoggable(int priority) {
+        return priority >= minLevel;
+    }
+
     private static void log(int priority, String tag, String message, @Nullable Throwable throwable) {
+        if (!isLoggable(priority))
+            return;
         String fullMessage = message;
         if (throwable != null) {
             fullMessage = fullMessage + "\n" + Log.getStackTraceString(throwable);
         }
+        final MeshLogBuffer logBuffer = MeshLogger.logBuffer;
+        if (logBuffer != null) {
+            logBuffer.log(priority, tag, fullMessage);
+        }
+        final LogHandler logHandler = MeshLogger.logHandler;
         if (logHandler != null) {
             logHandler.log(priority, tag, fullMessage);
         } else {
@@ -24,7 +24,6 @@ package no.nordicsemi.android.mesh.models;
 
 import android.os.Parcel;
 
-import java.util.Collections;
 import java.util.List;
 
 @SuppressWarnings("WeakerAccess")
@@ -68,7 +67,7 @@ public class SceneServer extends SigModel {
     }
 
     public List<Integer> getScenesNumbers() {
-        return Collections.unmodifiableList(sceneNumbers);
+        return getSceneNumbers();
     }
 
     public int getCurrentScene() {
@@ -0,0 +1,37 @@
+package no.nordicsemi.android.mesh.timer;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Scheduler running tasks on the thread of an Android {@link Handler}.
+ */
+public final class HandlerScheduler implements MeshScheduler {
+
+    private final Handler handler;
+
+    /**
+     * Constructs the scheduler.
+     *
+     * @param handler Handler the tasks are posted to.
+     */
+    public HandlerScheduler(@NonNull final Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public long now() {
+        return SystemClock.uptimeMillis();
+    }
+
+    @NonNull
+    @Override
+    public Cancellable schedule(@NonNull final Runnable task, final long delay) {
+        // A runnable of its own, so that cancelling does not remove other posts of the same task
+        final Runnable runnable = () -> task.run();
+        handler.postDelayed(runnable, Math.max(0, delay));
+        return () -> handler.removeCallbacks(runnable);
+    }
+}
@@ -22,8 +22,6 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.content.Context;
-import android.os.Handler;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
 
 import java.nio.ByteBuffer;
@@ -31,6 +29,7 @@ import java.nio.ByteOrder;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
 
 import static no.nordicsemi.android.mesh.utils.MeshParserUtils.bytesToHex;
 import static no.nordicsemi.android.mesh.utils.MeshParserUtils.createVendorOpCode;
@@ -47,12 +46,9 @@ import static no.nordicsemi.android.mesh.utils.MeshParserUtils.unsignedByteToInt
 abstract class AccessLayer {
 
     private static final String TAG = AccessLayer.class.getSimpleName();
-    protected Context mContext;
-    Handler mHandler;
+    MeshScheduler mScheduler;
     ProvisionedMeshNode mMeshNode;
 
-    protected abstract void initHandler();
-
     /**
      * Creates an access message
      *
@@ -90,7 +86,7 @@ abstract class AccessLayer {
         }
         final byte[] accessPdu = accessMessageBuffer.array();
 
-        MeshLogger.verbose(TAG, "Created Access PDU " + bytesToHex(accessPdu, false));
+        MeshLogger.verbose(TAG, () -> "Created Access PDU " + bytesToHex(accessPdu, false));
         accessMessage.setAccessPdu(accessMessageBuffer.array());
     }
 
@@ -114,7 +110,7 @@ abstract class AccessLayer {
             accessMessageBuffer.put(vendorOpcode);
         }
         final byte[] accessPdu = accessMessageBuffer.array();
-        MeshLogger.verbose(TAG, "Created Access PDU " + bytesToHex(accessPdu, false));
+        MeshLogger.verbose(TAG, () -> "Created Access PDU " + bytesToHex(accessPdu, false));
         accessMessage.setAccessPdu(accessPdu);
     }
 
@@ -123,7 +119,7 @@ abstract class AccessLayer {
      *
      * @param message underlying message containing the access pdu
      */
-    final void parseAccessLayerPDU(@NonNull final AccessMessage message) {
+    static void parseAccessLayerPDU(@NonNull final AccessMessage message) {
         //MSB of the first octet defines the length of opcodes.
         //if MSB = 0 length is 1 and so forth
         final byte[] accessPayload = message.getAccessPdu();
@@ -136,6 +132,6 @@ abstract class AccessLayer {
         final ByteBuffer paramsBuffer = ByteBuffer.allocate(length).order(ByteOrder.BIG_ENDIAN);
         paramsBuffer.put(accessPayload, opCodeLength, length);
         message.setParameters(paramsBuffer.array());
-        MeshLogger.verbose(TAG, "Received Access PDU " + bytesToHex(accessPayload, false));
+        MeshLogger.verbose(TAG, () -> "Received Access PDU " + bytesToHex(accessPayload, false));
     }
 }
@@ -26,6 +26,8 @@ import android.os.Parcel;
 import android.os.ParcelUuid;
 import android.util.SparseArray;
 
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import androidx.annotation.NonNull;
@@ -34,7 +36,7 @@ import androidx.annotation.NonNull;
 public final class AccessMessage extends Message {
 
     private UUID label;                                // Label UUID for destination address
-    protected SparseArray<byte[]> lowerTransportAccessPdu = new SparseArray<>();
+    protected SortedMap<Integer, byte[]> lowerTransportAccessPdu = new TreeMap<>();
     private byte[] accessPdu;
     private byte[] transportPdu;
 
@@ -60,7 +62,7 @@ public final class AccessMessage extends Message {
         if (parcelUuid != null) {
             label = parcelUuid.getUuid();
         }
-        lowerTransportAccessPdu = readSparseArrayToParcelable(source);
+        lowerTransportAccessPdu = readSegmentsFromParcel(source);
         accessPdu = source.createByteArray();
         transportPdu = source.createByteArray();
     }
@@ -74,7 +76,7 @@ public final class AccessMessage extends Message {
     public void writeToParcel(final Parcel dest, final int flags) {
         super.writeToParcel(dest, flags);
         dest.writeParcelable(new ParcelUuid(label), flags);
-        writeSparseArrayToParcelable(dest, lowerTransportAccessPdu);
+        writeSegmentsToParcel(dest, lowerTransportAccessPdu);
         dest.writeByteArray(accessPdu);
         dest.writeByteArray(transportPdu);
     }
@@ -108,11 +110,22 @@ public final class AccessMessage extends Message {
         this.transportPdu = transportPdu;
     }
 
+    /**
+     * Returns a copy of the lower transport pdus of this message keyed by the segment offset.
+     */
     public final SparseArray<byte[]> getLowerTransportAccessPdu() {
-        return lowerTransportAccessPdu;
+        return toSparseArray(lowerTransportAccessPdu);
     }
 
     public final void setLowerTransportAccessPdu(final SparseArray<byte[]> lowerTransportAccessPdu) {
+        this.lowerTransportAccessPdu = toSortedMap(lowerTransportAccessPdu);
+    }
+
+    final SortedMap<Integer, byte[]> getLowerTransportAccessPduMap() {
+        return lowerTransportAccessPdu;
+    }
+
+    final void setLowerTransportAccessPduMap(final SortedMap<Integer, byte[]> lowerTransportAccessPdu) {
         this.lowerTransportAccessPdu = lowerTransportAccessPdu;
     }
 }
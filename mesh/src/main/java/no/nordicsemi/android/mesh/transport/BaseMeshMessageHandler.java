@@ -22,16 +22,18 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.content.Context;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
-import android.util.SparseArray;
 
 import org.spongycastle.crypto.InvalidCipherTextException;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Executor;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -39,7 +41,7 @@ import no.nordicsemi.android.mesh.InternalTransportCallbacks;
 import no.nordicsemi.android.mesh.MeshManagerApi;
 import no.nordicsemi.android.mesh.MeshNetwork;
 import no.nordicsemi.android.mesh.MeshStatusCallbacks;
-import no.nordicsemi.android.mesh.NetworkKey;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
 import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
@@ -56,30 +58,37 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
 
     private static final String TAG = BaseMeshMessageHandler.class.getSimpleName();
 
-    protected final Context mContext;
     protected final InternalTransportCallbacks mInternalTransportCallbacks;
     private final NetworkLayerCallbacks networkLayerCallbacks;
     private final UpperTransportLayerCallbacks upperTransportLayerCallbacks;
     protected MeshStatusCallbacks mStatusCallbacks;
-    private final SparseArray<MeshTransport> transportSparseArray = new SparseArray<>();
-    private final SparseArray<MeshMessageState> stateSparseArray = new SparseArray<>();
+    // Guarded by states, as the timers of the transports may run on another thread than messages are received on.
+    // The lock is never held while locking a transport.
+    private final Map<Integer, MeshTransport> transports = new HashMap<>();
+    private final Map<Integer, MeshMessageState> states = new HashMap<>();
+    private int mMaxConcurrentReassemblies = LowerTransportLayer.DEFAULT_MAX_CONCURRENT_REASSEMBLIES;
+    private final OpCodeRegistry opCodeRegistry = new OpCodeRegistry();
+    private final NidLookupTable nidLookupTable = new NidLookupTable();
+    @Nullable
+    private volatile ReceivePipeline receivePipeline;
+    private MeshScheduler mScheduler;
 
     /**
      * Constructs BaseMessageHandler
      *
-     * @param context                      Context
+     * @param scheduler                    Scheduler running the segmentation and reassembly timers of the transports
      * @param internalTransportCallbacks   {@link InternalTransportCallbacks} Callbacks
      * @param networkLayerCallbacks        {@link NetworkLayerCallbacks} network layer callbacks
      * @param upperTransportLayerCallbacks {@link UpperTransportLayerCallbacks} upper transport layer callbacks
      */
-    protected BaseMeshMessageHandler(@NonNull final Context context,
+    protected BaseMeshMessageHandler(@NonNull final MeshScheduler scheduler,
                                      @NonNull final InternalTransportCallbacks internalTransportCallbacks,
                                      @NonNull final NetworkLayerCallbacks networkLayerCallbacks,
                                      @NonNull final UpperTransportLayerCallbacks upperTransportLayerCallbacks) {
-        this.mContext = context;
         this.mInternalTransportCallbacks = internalTransportCallbacks;
         this.networkLayerCallbacks = networkLayerCallbacks;
         this.upperTransportLayerCallbacks = upperTransportLayerCallbacks;
+        this.mScheduler = scheduler;
     }
 
     /**
@@ -89,6 +98,68 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      */
     protected abstract void setMeshStatusCallbacks(@NonNull final MeshStatusCallbacks statusCallbacks);
 
+    /**
+     * Sets the maximum number of segmented messages that may be reassembled concurrently by each transport.
+     *
+     * @param maxConcurrentReassemblies maximum number of concurrent reassemblies.
+     */
+    public void setMaxConcurrentReassemblies(final int maxConcurrentReassemblies) {
+        if (maxConcurrentReassemblies < 1)
+            throw new IllegalArgumentException("At least one reassembly context is required");
+        final List<MeshTransport> currentTransports;
+        synchronized (states) {
+            mMaxConcurrentReassemblies = maxConcurrentReassemblies;
+            currentTransports = new ArrayList<>(transports.values());
+        }
+        for (MeshTransport transport : currentTransports) {
+            synchronized (transport) {
+                transport.setMaxConcurrentReassemblies(maxConcurrentReassemblies);
+            }
+        }
+    }
+
+    /**
+     * Sets the scheduler running the segmentation and reassembly timers of the transports created from now on.
+     *
+     * @param scheduler Scheduler.
+     */
+    public void setScheduler(@NonNull final MeshScheduler scheduler) {
+        mScheduler = scheduler;
+    }
+
+    /**
+     * Returns the registry of status messages that may be decoded from received access messages.
+     */
+    @NonNull
+    @Override
+    public OpCodeRegistry getOpCodeRegistry() {
+        return opCodeRegistry;
+    }
+
+    /**
+     * Sets the executor network pdus are decoded on.
+     * <p>
+     * When set, network pdus are de-obfuscated and decrypted in parallel on the executor, and reassembled on the delivery
+     * executor. The upper transport pdus of the messages received from a source address are decrypted on the executor one
+     * message at a time, in the order the messages were received, using a snapshot of the keys of the network, and the
+     * decrypted messages are handled on the delivery executor. Proxy configuration messages are always processed on the
+     * calling thread.
+     * </p>
+     *
+     * @param executor         Executor or null to process network pdus on the calling thread.
+     * @param deliveryExecutor Executor running one task at a time, on which the mesh network is updated and the
+     *                         status callbacks are invoked. This should be the thread the mesh network is used on.
+     */
+    public void setReceiveExecutor(@Nullable final Executor executor, @NonNull final Executor deliveryExecutor) {
+        if (executor == null) {
+            receivePipeline = null;
+        } else {
+            receivePipeline = new ReceivePipeline(executor, deliveryExecutor,
+                    (pdu, candidates, ivIndex) -> decodeNetworkPdu(pdu, candidates, ivIndex, null),
+                    this::onNetworkPduDecoded);
+        }
+    }
+
     /**
      * Parse the mesh network/proxy pdus
      * <p>
@@ -99,90 +170,171 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      * @param network {@link MeshNetwork}
      */
     protected void parseMeshPduNotifications(@NonNull final byte[] pdu, @NonNull final MeshNetwork network) throws ExtendedInvalidCipherTextException {
-        final List<NetworkKey> networkKeys = network.getNetKeys();
         final int ivi = ((pdu[1] & 0xFF) >>> 7) & 0x01;
         final int nid = pdu[1] & 0x7F;
+        final NidLookupTable.Candidate[] candidates = nidLookupTable.getCandidates(network, nid);
+        if (candidates.length == 0)
+            return;
+
+        // The IVI field contains the least significant bit of the IV Index used to secure the message, which selects
+        // between the accepted IV Index and the previous one that is still accepted during the IV Update procedure.
         final int acceptedIvIndex = network.getIvIndex().getIvIndex();
-        int ivIndex = acceptedIvIndex == 0 ? 0 : acceptedIvIndex - 1;
-        int tempIvIndex = ivIndex;
-        NetworkKey networkKey = null;
-        SecureUtils.K2Output k2Output = null;
-        byte[] networkHeader = null;
-        int ctlTtl = 0;
-        int ctl = 0;
-        int src = 0;
-        ProvisionedMeshNode node = null;
-        while (tempIvIndex <= ivIndex + 1) {
-            //Here we go through all the network keys and filter out network keys based on the nid.
-            for (int i = 0; i < networkKeys.size(); i++) {
-                networkKey = networkKeys.get(i);
-                k2Output = getMatchingK2Output(networkKey, nid);
-                if (k2Output != null) {
-                    networkHeader = deObfuscateNetworkHeader(pdu, MeshParserUtils.intToBytes(tempIvIndex), k2Output.getPrivacyKey());
-                    ctlTtl = networkHeader[0];
-                    ctl = (ctlTtl >> 7) & 0x01;
-                    src = MeshParserUtils.unsignedBytesToInt(networkHeader[5], networkHeader[4]);
-                    // Check if the src is known to the network and if found let's break
-                    // Note a node may not be found if there are two provisioners are operating independently without syncing the network.
-                    node = network.getNode(src);
-                    if (node != null) {
-                        break;
-                    }
-                }
-            }
-            // IF the node was found we can safely try to decrypt message with the network key which we found src of the message.
-            if(node != null && k2Output != null) {
-                final byte[] sequenceNumber = ByteBuffer.allocate(3).order(ByteOrder.BIG_ENDIAN).put(networkHeader, 1, 3).array();
-                MeshLogger.verbose(TAG, "Sequence number of received Network PDU: " + MeshParserUtils.convert24BitsToInt(sequenceNumber));
-                //TODO validate ivi
-                byte[] nonce;
-                try {
-                    final int networkPayloadLength = pdu.length - (2 + networkHeader.length);
-                    final byte[] transportPdu = new byte[networkPayloadLength];
-                    System.arraycopy(pdu, 8, transportPdu, 0, networkPayloadLength);
-                    final byte[] decryptedPayload;
-                    final MeshMessageState state;
-                    if (pdu[0] == MeshManagerApi.PDU_TYPE_NETWORK) {
-                        nonce = createNetworkNonce((byte) ctlTtl, sequenceNumber, src, MeshParserUtils.intToBytes(tempIvIndex));
-                        decryptedPayload = SecureUtils.decryptCCM(transportPdu, k2Output.getEncryptionKey(), nonce, SecureUtils.getNetMicLength(ctl));
-                        state = getState(src);
-                    } else {
-                        nonce = createProxyNonce(sequenceNumber, src, MeshParserUtils.intToBytes(tempIvIndex));
-                        decryptedPayload = SecureUtils.decryptCCM(transportPdu, k2Output.getEncryptionKey(), nonce, SecureUtils.getNetMicLength(ctl));
-                        state = getState(MeshAddress.UNASSIGNED_ADDRESS);
-                    }
-                    if (state != null) {
-                        //TODO look in to proxy filter messages
-                        ((DefaultNoOperationMessageState) state).parseMeshPdu(networkKey, node, pdu, networkHeader, decryptedPayload, tempIvIndex, sequenceNumber);
-                        return;
-                    }
-                } catch (InvalidCipherTextException ex) {
-                    throw new ExtendedInvalidCipherTextException(ex.getMessage(), ex.getCause(), TAG);
+        final int ivIndex;
+        if ((acceptedIvIndex & 0x01) == ivi) {
+            ivIndex = acceptedIvIndex;
+        } else if (acceptedIvIndex > 0) {
+            ivIndex = acceptedIvIndex - 1;
+        } else {
+            // There is no IV Index preceding 0, the pdu was secured using an IV Index that is not accepted
+            return;
+        }
+        final ReceivePipeline pipeline = receivePipeline;
+        if (pipeline != null && pdu[0] == MeshManagerApi.PDU_TYPE_NETWORK) {
+            pipeline.submit(pdu, candidates, ivIndex);
+            return;
+        }
+        final DecodedNetworkPdu decodedPdu = decodeNetworkPdu(pdu, candidates, ivIndex, network);
+        if (decodedPdu != null) {
+            final MeshMessageState state = getState(pdu[0] == MeshManagerApi.PDU_TYPE_NETWORK ? decodedPdu.src : MeshAddress.UNASSIGNED_ADDRESS);
+            if (state != null) {
+                // The transport is also used by the timers of the lower transport layer, which may run on another thread
+                synchronized (state.getMeshTransport()) {
+                    //TODO look in to proxy filter messages
+                    ((DefaultNoOperationMessageState) state).parseMeshPdu(decodedPdu.networkKey, network.getNode(decodedPdu.src),
+                            pdu, decodedPdu.networkHeader, decodedPdu.decryptedPayload, ivIndex, decodedPdu.sequenceNumber);
                 }
             }
-            tempIvIndex++;
         }
     }
 
     /**
-     * Returns the K2output for a given Network Key matching the received NID
+     * De-obfuscates and decrypts a network pdu using the candidate network keys.
      *
-     * @param networkKey NetworkKey
-     * @param nid        NID
-     * @return {@link SecureUtils.K2Output} or null if the NID doesn't match.
+     * @param pdu        mesh pdu that was received
+     * @param candidates network keys whose NID matches the NID of the pdu
+     * @param ivIndex    IV Index used to secure the pdu
+     * @param network    {@link MeshNetwork} used to skip keys that de-obfuscate the header to an unknown source address,
+     *                   or null if the network may not be accessed from the calling thread
+     * @return the decoded pdu or null if the pdu could not be decoded
      */
-    private SecureUtils.K2Output getMatchingK2Output(@NonNull final NetworkKey networkKey, final int nid) {
-        if (nid == networkKey.getDerivatives().getNid())
-            return networkKey.getDerivatives();
-        else if (networkKey.getOldDerivatives() != null && nid == networkKey.getOldDerivatives().getNid())
-            return networkKey.getOldDerivatives();
+    @Nullable
+    private static DecodedNetworkPdu decodeNetworkPdu(@NonNull final byte[] pdu,
+                                                      @NonNull final NidLookupTable.Candidate[] candidates,
+                                                      final int ivIndex,
+                                                      @Nullable final MeshNetwork network) throws ExtendedInvalidCipherTextException {
+        final byte[] ivIndexBytes = MeshParserUtils.intToBytes(ivIndex);
+        ExtendedInvalidCipherTextException exception = null;
+        for (NidLookupTable.Candidate candidate : candidates) {
+            final byte[] networkHeader = deObfuscateNetworkHeader(pdu, ivIndexBytes, candidate.k2Output.getPrivacyKey());
+            final int ctlTtl = networkHeader[0];
+            final int ctl = (ctlTtl >> 7) & 0x01;
+            final int src = MeshParserUtils.unsignedBytesToInt(networkHeader[5], networkHeader[4]);
+            // Check if the src is known to the network, if not the header was not obfuscated using this key.
+            // Note a node may not be found if there are two provisioners are operating independently without syncing the network.
+            if (network != null && network.getNode(src) == null)
+                continue;
+
+            final byte[] sequenceNumber = ByteBuffer.allocate(3).order(ByteOrder.BIG_ENDIAN).put(networkHeader, 1, 3).array();
+            MeshLogger.verbose(TAG, () -> "Sequence number of received Network PDU: " + MeshParserUtils.convert24BitsToInt(sequenceNumber));
+            final byte[] nonce;
+            if (pdu[0] == MeshManagerApi.PDU_TYPE_NETWORK) {
+                nonce = createNetworkNonce((byte) ctlTtl, sequenceNumber, src, ivIndexBytes);
+            } else {
+                nonce = createProxyNonce(sequenceNumber, src, ivIndexBytes);
+            }
+            final int networkPayloadOffset = 2 + networkHeader.length;
+            final int networkPayloadLength = pdu.length - networkPayloadOffset;
+            final int netMicLength = SecureUtils.getNetMicLength(ctl);
+            // The pdu is too short for the NetMIC of the ctl de-obfuscated using this key, another key may still match
+            if (networkPayloadLength < netMicLength)
+                continue;
+            final byte[] decryptedPayload = new byte[networkPayloadLength - netMicLength];
+            try {
+                SecureUtils.decryptCCM(pdu, networkPayloadOffset, networkPayloadLength, candidate.k2Output.getEncryptionKey(),
+                        nonce, null, netMicLength, decryptedPayload, 0);
+            } catch (InvalidCipherTextException ex) {
+                // Another key with the same NID may have been used to secure the message
+                exception = new ExtendedInvalidCipherTextException(ex.getMessage(), ex.getCause(), TAG);
+                continue;
+            }
+            return new DecodedNetworkPdu(candidate.networkKey, pdu, networkHeader, decryptedPayload, ivIndex, sequenceNumber, src);
+        }
+        if (exception != null)
+            throw exception;
         return null;
     }
 
+    /**
+     * Handles a network pdu decoded by the receive pipeline on the delivery executor.
+     * <p>
+     * The lower transport pdu is parsed on the delivery executor, as reassembly updates the SeqAuth of the source, sends
+     * segment acknowledgements and uses the mesh network. Only the decryption of the upper transport pdu of an access
+     * message runs on the actor of the source address, using a snapshot of the keys taken here, after which the message
+     * is handled on the delivery executor.
+     * </p>
+     *
+     * @param decodedPdu Decoded network pdu.
+     */
+    private void onNetworkPduDecoded(@NonNull final DecodedNetworkPdu decodedPdu) {
+        final ReceivePipeline pipeline = receivePipeline;
+        final ProvisionedMeshNode node = mInternalTransportCallbacks.getNode(decodedPdu.src);
+        if (pipeline == null || node == null)
+            return;
+
+        final int src = decodedPdu.src;
+        final MeshTransport transport = getState(src).getMeshTransport();
+        final Message message;
+        final UpperTransportKeys keys;
+        try {
+            // The transport is also used by the timers of the lower transport layer and when sending messages to the source
+            synchronized (transport) {
+                message = transport.parseLowerTransportMessage(decodedPdu.networkKey, node, decodedPdu.pdu, decodedPdu.networkHeader,
+                        decodedPdu.decryptedPayload, decodedPdu.ivIndex, decodedPdu.sequenceNumber);
+                keys = message instanceof AccessMessage ? transport.getUpperTransportKeys((AccessMessage) message) : null;
+            }
+        } catch (ExtendedInvalidCipherTextException ex) {
+            ((DefaultNoOperationMessageState) getState(src)).onMeshMessageDecryptionFailed(ex);
+            return;
+        } catch (IllegalArgumentException ex) {
+            MeshLogger.error(TAG, "Parsing message from " + MeshAddress.formatAddress(src, true) + " failed - " + ex.getMessage());
+            return;
+        }
+        if (message == null) {
+            MeshLogger.verbose(TAG, "Message reassembly may not be completed yet!");
+            return;
+        }
+
+        // Messages are decrypted in order by the actor of the source, which keeps them in order when handled
+        pipeline.executeForSource(src, () -> {
+            ExtendedInvalidCipherTextException failure = null;
+            if (keys != null) {
+                try {
+                    UpperTransportLayer.decryptAccessMessage((AccessMessage) message, keys);
+                } catch (ExtendedInvalidCipherTextException ex) {
+                    failure = ex;
+                } catch (IllegalArgumentException ex) {
+                    MeshLogger.error(TAG, "Parsing message from " + MeshAddress.formatAddress(src, true) + " failed - " + ex.getMessage());
+                    return;
+                }
+            }
+            final ExtendedInvalidCipherTextException decryptionFailure = failure;
+            pipeline.getDeliveryExecutor().execute(() -> {
+                final DefaultNoOperationMessageState state = (DefaultNoOperationMessageState) getState(src);
+                if (decryptionFailure != null) {
+                    state.onMeshMessageDecryptionFailed(decryptionFailure);
+                } else {
+                    state.onMeshMessageParsed(message);
+                }
+            });
+        });
+    }
+
     @Override
     public final void onIncompleteTimerExpired(final int address) {
         //We switch no operation state if the incomplete timer has expired so that we don't wait on the same state if a particular message fails.
-        stateSparseArray.put(address, toggleState(getTransport(address), getState(address).getMeshMessage()));
+        synchronized (states) {
+            states.put(address, toggleState(getTransport(address), getState(address).getMeshMessage()));
+        }
     }
 
     /**
@@ -201,13 +353,21 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      * @param address address of the node
      */
     protected MeshMessageState getState(final int address) {
-        MeshMessageState state = stateSparseArray.get(address);
-        if (state == null) {
-            state = new DefaultNoOperationMessageState(null, getTransport(address),
-                    this, mInternalTransportCallbacks, mStatusCallbacks);
-            stateSparseArray.put(address, state);
+        synchronized (states) {
+            MeshMessageState state = states.get(address);
+            if (state == null) {
+                state = new DefaultNoOperationMessageState(null, getTransport(address),
+                        this, mInternalTransportCallbacks, mStatusCallbacks);
+                states.put(address, state);
+            }
+            return state;
+        }
+    }
+
+    private void putState(final int address, @NonNull final MeshMessageState state) {
+        synchronized (states) {
+            states.put(address, state);
         }
-        return state;
     }
 
     /**
@@ -216,14 +376,17 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      * @param address address of the node
      */
     private MeshTransport getTransport(final int address) {
-        MeshTransport transport = transportSparseArray.get(address);
-        if (transport == null) {
-            transport = new MeshTransport(mContext);
-            transport.setNetworkLayerCallbacks(networkLayerCallbacks);
-            transport.setUpperTransportLayerCallbacks(upperTransportLayerCallbacks);
-            transportSparseArray.put(address, transport);
+        synchronized (states) {
+            MeshTransport transport = transports.get(address);
+            if (transport == null) {
+                transport = new MeshTransport(mScheduler);
+                transport.setNetworkLayerCallbacks(networkLayerCallbacks);
+                transport.setUpperTransportLayerCallbacks(upperTransportLayerCallbacks);
+                transport.setMaxConcurrentReassemblies(mMaxConcurrentReassemblies);
+                transports.put(address, transport);
+            }
+            return transport;
         }
-        return transport;
     }
 
     /**
@@ -232,21 +395,31 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
      * @param address unicast address of the node
      */
     public void resetState(final int address) {
-        stateSparseArray.remove(address);
-        transportSparseArray.remove(address);
+        synchronized (states) {
+            states.remove(address);
+            transports.remove(address);
+        }
+        final ReceivePipeline pipeline = receivePipeline;
+        if (pipeline != null) {
+            // The actors are only accessed on the delivery executor
+            pipeline.getDeliveryExecutor().execute(() -> pipeline.removeSource(address));
+        }
     }
 
     @Override
     public void createMeshMessage(final int src, final int dst, @Nullable final UUID label, @NonNull final MeshMessage meshMessage) {
-        if (meshMessage instanceof ProxyConfigMessage) {
-            createProxyConfigMeshMessage(src, dst, (ProxyConfigMessage) meshMessage);
-        } else if (meshMessage instanceof ConfigMessage) {
-            createConfigMeshMessage(src, dst, (ConfigMessage) meshMessage);
-        } else if (meshMessage instanceof ApplicationMessage) {
-            if (label == null) {
-                createAppMeshMessage(src, dst, (ApplicationMessage) meshMessage);
-            } else {
-                createAppMeshMessage(src, dst, label, (ApplicationMessage) meshMessage);
+        // The receive pipeline may be parsing a message from the destination using the same transport
+        synchronized (getTransport(dst)) {
+            if (meshMessage instanceof ProxyConfigMessage) {
+                createProxyConfigMeshMessage(src, dst, (ProxyConfigMessage) meshMessage);
+            } else if (meshMessage instanceof ConfigMessage) {
+                createConfigMeshMessage(src, dst, (ConfigMessage) meshMessage);
+            } else if (meshMessage instanceof ApplicationMessage) {
+                if (label == null) {
+                    createAppMeshMessage(src, dst, (ApplicationMessage) meshMessage);
+                } else {
+                    createAppMeshMessage(src, dst, label, (ApplicationMessage) meshMessage);
+                }
             }
         }
     }
@@ -259,7 +432,7 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
     private void createProxyConfigMeshMessage(final int src, final int dst, @NonNull final ProxyConfigMessage configurationMessage) {
         final ProxyConfigMessageState currentState = new ProxyConfigMessageState(src, dst, configurationMessage,
                 getTransport(dst), this, mInternalTransportCallbacks, mStatusCallbacks);
-        stateSparseArray.put(dst, toggleState(currentState.getMeshTransport(), configurationMessage));
+        putState(dst, toggleState(currentState.getMeshTransport(), configurationMessage));
         currentState.executeSend();
     }
 
@@ -277,7 +450,7 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
         final ConfigMessageState currentState = new ConfigMessageState(src, dst, node.getDeviceKey(), configurationMessage,
                 getTransport(dst), this, mInternalTransportCallbacks, mStatusCallbacks);
         if (MeshAddress.isValidUnicastAddress(dst)) {
-            stateSparseArray.put(dst, toggleState(getTransport(dst), configurationMessage));
+            putState(dst, toggleState(getTransport(dst), configurationMessage));
         }
         currentState.executeSend();
     }
@@ -306,7 +479,7 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
                     this, mInternalTransportCallbacks, mStatusCallbacks);
         }
         if (MeshAddress.isValidUnicastAddress(dst)) {
-            stateSparseArray.put(dst, toggleState(getTransport(dst), applicationMessage));
+            putState(dst, toggleState(getTransport(dst), applicationMessage));
         }
         currentState.executeSend();
     }
@@ -337,7 +510,7 @@ public abstract class BaseMeshMessageHandler implements MeshMessageHandlerApi, I
                     this, mInternalTransportCallbacks, mStatusCallbacks);
         }
         if (MeshAddress.isValidUnicastAddress(dst)) {
-            stateSparseArray.put(dst, toggleState(getTransport(dst), applicationMessage));
+            putState(dst, toggleState(getTransport(dst), applicationMessage));
         }
         currentState.executeSend();
     }
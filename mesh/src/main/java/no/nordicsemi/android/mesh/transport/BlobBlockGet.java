@@ -0,0 +1,34 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class BlobBlockGet extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_BLOCK_GET;
+
+    /**
+     * BLOB Block Get is an acknowledged message used to get the chunks of the current block missing on a BLOB Transfer Server (see Mesh Model Spec. v1.1 Section 7.3).
+     * The response to the BLOB Block Get message is a {@link BlobBlockStatus} message.
+     *
+     * @param appKey {@link ApplicationKey} key for this message
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public BlobBlockGet(@NonNull final ApplicationKey appKey) throws IllegalArgumentException {
+        super(appKey);
+        assembleMessageParameters();
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+}
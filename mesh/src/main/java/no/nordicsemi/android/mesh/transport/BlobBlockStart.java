@@ -0,0 +1,68 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class BlobBlockStart extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_BLOCK_START;
+    private static final int BLOB_BLOCK_START_PARAMS_LENGTH = 4;
+
+    private final int mBlockNumber;
+    private final int mChunkSize;
+
+    /**
+     * BLOB Block Start is an acknowledged message used to start the transfer of a block (see Mesh Model Spec. v1.1 Section 7.3).
+     * The response to the BLOB Block Start message is a {@link BlobBlockStatus} message.
+     *
+     * @param appKey      {@link ApplicationKey} key for this message
+     * @param blockNumber Number of the block, starting from 0
+     * @param chunkSize   Size of the chunks of the block in octets
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public BlobBlockStart(@NonNull final ApplicationKey appKey,
+                          final int blockNumber,
+                          final int chunkSize) throws IllegalArgumentException {
+        super(appKey);
+        if (blockNumber < 0 || blockNumber > 0xFFFF)
+            throw new IllegalArgumentException("Block number must be a 16-bit value");
+        if (chunkSize < 1 || chunkSize > 0xFFFF)
+            throw new IllegalArgumentException("Chunk size must be in range 1 to 0xFFFF");
+        this.mBlockNumber = blockNumber;
+        this.mChunkSize = chunkSize;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = ByteBuffer.allocate(BLOB_BLOCK_START_PARAMS_LENGTH).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) mBlockNumber)
+                .putShort((short) mChunkSize)
+                .array();
+    }
+
+    /**
+     * Returns the number of the block.
+     */
+    public int getBlockNumber() {
+        return mBlockNumber;
+    }
+
+    /**
+     * Returns the size of the chunks of the block in octets.
+     */
+    public int getChunkSize() {
+        return mChunkSize;
+    }
+}
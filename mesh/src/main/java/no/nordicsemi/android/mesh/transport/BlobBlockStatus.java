@@ -0,0 +1,152 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the BlobBlockStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class BlobBlockStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = BlobBlockStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_BLOCK_STATUS;
+    private static final int MISSING_CHUNKS_OFFSET = 5;
+
+    public static final int FORMAT_ALL_CHUNKS_MISSING = 0x00;
+    public static final int FORMAT_NO_CHUNKS_MISSING = 0x01;
+    public static final int FORMAT_SOME_CHUNKS_MISSING = 0x02;
+    public static final int FORMAT_ENCODED_MISSING_CHUNKS = 0x03;
+
+    private int mStatus;
+    private int mFormat;
+    private int mBlockNumber;
+    private int mChunkSize;
+    private BitSet mMissingChunks;
+
+    private static final Creator<BlobBlockStatus> CREATOR = new Creator<BlobBlockStatus>() {
+        @Override
+        public BlobBlockStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new BlobBlockStatus(message);
+        }
+
+        @Override
+        public BlobBlockStatus[] newArray(int size) {
+            return new BlobBlockStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the BlobBlockStatus message.
+     *
+     * @param message Access Message
+     */
+    public BlobBlockStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        MeshLogger.verbose(TAG, () -> "Received BLOB block status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true));
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters).order(ByteOrder.LITTLE_ENDIAN);
+        final int octet = buffer.get() & 0xFF;
+        mStatus = octet & 0x0F;
+        mFormat = octet >> 6;
+        mBlockNumber = buffer.getShort() & 0xFFFF;
+        mChunkSize = buffer.getShort() & 0xFFFF;
+        switch (mFormat) {
+            case FORMAT_SOME_CHUNKS_MISSING:
+                mMissingChunks = BlobChunkDecoder.decodeBitField(mParameters, MISSING_CHUNKS_OFFSET);
+                break;
+            case FORMAT_ENCODED_MISSING_CHUNKS:
+                mMissingChunks = BlobChunkDecoder.decodeChunkList(mParameters, MISSING_CHUNKS_OFFSET);
+                break;
+            default:
+                mMissingChunks = new BitSet();
+                break;
+        }
+        MeshLogger.verbose(TAG, () -> "Status: " + mStatus + ", block: " + mBlockNumber + ", format: " + mFormat +
+                ", missing chunks: " + mMissingChunks);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the status code of the last operation, see {@link BlobTransferStatus}.
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns true if the last operation was successful.
+     */
+    public boolean isSuccessful() {
+        return mStatus == BlobTransferStatus.STATUS_SUCCESS;
+    }
+
+    /**
+     * Returns the format in which the missing chunks are reported.
+     */
+    public int getFormat() {
+        return mFormat;
+    }
+
+    /**
+     * Returns the number of the current block.
+     */
+    public int getBlockNumber() {
+        return mBlockNumber;
+    }
+
+    /**
+     * Returns the size of the chunks of the current block in octets.
+     */
+    public int getChunkSize() {
+        return mChunkSize;
+    }
+
+    /**
+     * Returns the chunks of the current block that are missing on the server.
+     *
+     * @param chunkCount Number of chunks in the current block, used if all chunks are reported missing.
+     */
+    @NonNull
+    public BitSet getMissingChunks(final int chunkCount) {
+        if (mFormat == FORMAT_ALL_CHUNKS_MISSING) {
+            final BitSet missingChunks = new BitSet(chunkCount);
+            missingChunks.set(0, chunkCount);
+            return missingChunks;
+        }
+        final BitSet missingChunks = (BitSet) mMissingChunks.clone();
+        // Bits beyond the last chunk only pad the bit field to whole octets
+        missingChunks.clear(chunkCount, Math.max(chunkCount, missingChunks.length()));
+        return missingChunks;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,76 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.BitSet;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Decodes the lists of blocks and chunks reported by BLOB Transfer Servers.
+ */
+final class BlobChunkDecoder {
+
+    private BlobChunkDecoder() {
+    }
+
+    /**
+     * Decodes a bit field in which bit N of the field, counting from the least significant bit of the first octet,
+     * is set if block or chunk N is reported.
+     *
+     * @param data   Message parameters.
+     * @param offset Offset of the bit field.
+     */
+    @NonNull
+    static BitSet decodeBitField(@NonNull final byte[] data, final int offset) {
+        final BitSet bits = new BitSet();
+        for (int i = offset; i < data.length; i++) {
+            final int octet = data[i] & 0xFF;
+            for (int bit = 0; bit < 8; bit++) {
+                if ((octet & (1 << bit)) != 0) {
+                    bits.set((i - offset) * 8 + bit);
+                }
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Decodes a list of chunk numbers, each encoded as a UTF-8 character.
+     *
+     * @param data   Message parameters.
+     * @param offset Offset of the list.
+     * @throws IllegalArgumentException if the list is not valid UTF-8.
+     */
+    @NonNull
+    static BitSet decodeChunkList(@NonNull final byte[] data, final int offset) {
+        final BitSet chunks = new BitSet();
+        int i = offset;
+        while (i < data.length) {
+            final int first = data[i] & 0xFF;
+            final int length;
+            int value;
+            if (first < 0x80) {
+                length = 1;
+                value = first;
+            } else if ((first & 0xE0) == 0xC0) {
+                length = 2;
+                value = first & 0x1F;
+            } else if ((first & 0xF0) == 0xE0) {
+                length = 3;
+                value = first & 0x0F;
+            } else {
+                throw new IllegalArgumentException("Invalid encoded chunk number at offset " + i);
+            }
+            if (i + length > data.length)
+                throw new IllegalArgumentException("Truncated encoded chunk number at offset " + i);
+            for (int j = 1; j < length; j++) {
+                final int next = data[i + j] & 0xFF;
+                if ((next & 0xC0) != 0x80)
+                    throw new IllegalArgumentException("Invalid encoded chunk number at offset " + i);
+                value = value << 6 | (next & 0x3F);
+            }
+            chunks.set(value);
+            i += length;
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,60 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+
+public class BlobChunkTransfer extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_CHUNK_TRANSFER;
+    private static final int CHUNK_NUMBER_LENGTH = 2;
+
+    private final int mChunkNumber;
+
+    /**
+     * BLOB Chunk Transfer is an unacknowledged message used to deliver a chunk of the current block (see Mesh Model Spec. v1.1 Section 7.3).
+     *
+     * @param appKey      {@link ApplicationKey} key for this message
+     * @param chunkNumber Number of the chunk within the block, starting from 0
+     * @param data        Buffer containing the chunk data
+     * @param offset      Offset of the chunk data in the buffer
+     * @param length      Length of the chunk data
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public BlobChunkTransfer(@NonNull final ApplicationKey appKey,
+                             final int chunkNumber,
+                             @NonNull final byte[] data,
+                             final int offset,
+                             final int length) throws IllegalArgumentException {
+        super(appKey);
+        if (chunkNumber < 0 || chunkNumber > 0xFFFF)
+            throw new IllegalArgumentException("Chunk number must be a 16-bit value");
+        if (length < 1 || offset < 0 || offset + length > data.length)
+            throw new IllegalArgumentException("Invalid chunk data");
+        this.mChunkNumber = chunkNumber;
+        // The chunk is copied straight into the parameters, so the data is copied only once
+        mParameters = new byte[CHUNK_NUMBER_LENGTH + length];
+        mParameters[0] = (byte) chunkNumber;
+        mParameters[1] = (byte) (chunkNumber >> 8);
+        System.arraycopy(data, offset, mParameters, CHUNK_NUMBER_LENGTH, length);
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        // Chunks are sent in large numbers, so the AID cached by the key is used instead of deriving it every time
+        mAid = (byte) mAppKey.getAid();
+    }
+
+    /**
+     * Returns the number of the chunk within the block.
+     */
+    public int getChunkNumber() {
+        return mChunkNumber;
+    }
+}
@@ -0,0 +1,138 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the BlobInformationStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class BlobInformationStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = BlobInformationStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_INFORMATION_STATUS;
+
+    private int mMinBlockSizeLog;
+    private int mMaxBlockSizeLog;
+    private int mMaxTotalChunks;
+    private int mMaxChunkSize;
+    private long mMaxBlobSize;
+    private int mMtuSize;
+    private int mSupportedTransferModes;
+
+    private static final Creator<BlobInformationStatus> CREATOR = new Creator<BlobInformationStatus>() {
+        @Override
+        public BlobInformationStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new BlobInformationStatus(message);
+        }
+
+        @Override
+        public BlobInformationStatus[] newArray(int size) {
+            return new BlobInformationStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the BlobInformationStatus message.
+     *
+     * @param message Access Message
+     */
+    public BlobInformationStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        MeshLogger.verbose(TAG, () -> "Received BLOB information status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true));
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters).order(ByteOrder.LITTLE_ENDIAN);
+        mMinBlockSizeLog = buffer.get() & 0xFF;
+        mMaxBlockSizeLog = buffer.get() & 0xFF;
+        mMaxTotalChunks = buffer.getShort() & 0xFFFF;
+        mMaxChunkSize = buffer.getShort() & 0xFFFF;
+        mMaxBlobSize = buffer.getInt() & 0xFFFFFFFFL;
+        mMtuSize = buffer.getShort() & 0xFFFF;
+        mSupportedTransferModes = buffer.get() & 0x03;
+        MeshLogger.verbose(TAG, () -> "Block size log: " + mMinBlockSizeLog + " to " + mMaxBlockSizeLog +
+                ", max total chunks: " + mMaxTotalChunks + ", max chunk size: " + mMaxChunkSize +
+                ", max BLOB size: " + mMaxBlobSize + ", MTU size: " + mMtuSize +
+                ", supported transfer modes: " + mSupportedTransferModes);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the minimum block size supported by the server as a power of 2.
+     */
+    public int getMinBlockSizeLog() {
+        return mMinBlockSizeLog;
+    }
+
+    /**
+     * Returns the maximum block size supported by the server as a power of 2.
+     */
+    public int getMaxBlockSizeLog() {
+        return mMaxBlockSizeLog;
+    }
+
+    /**
+     * Returns the maximum number of chunks in a block supported by the server.
+     */
+    public int getMaxTotalChunks() {
+        return mMaxTotalChunks;
+    }
+
+    /**
+     * Returns the maximum chunk size supported by the server in octets.
+     */
+    public int getMaxChunkSize() {
+        return mMaxChunkSize;
+    }
+
+    /**
+     * Returns the maximum BLOB size supported by the server in octets.
+     */
+    public long getMaxBlobSize() {
+        return mMaxBlobSize;
+    }
+
+    /**
+     * Returns the maximum size of an access PDU the server is able to receive.
+     */
+    public int getMtuSize() {
+        return mMtuSize;
+    }
+
+    /**
+     * Returns true if the server supports the given transfer mode.
+     *
+     * @param transferMode {@link BlobTransferStart#TRANSFER_MODE_PUSH} or {@link BlobTransferStart#TRANSFER_MODE_PULL}
+     */
+    public boolean isTransferModeSupported(@BlobTransferStart.TransferMode final int transferMode) {
+        return (mSupportedTransferModes & transferMode) != 0;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
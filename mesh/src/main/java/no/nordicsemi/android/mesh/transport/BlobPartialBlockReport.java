@@ -0,0 +1,89 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.BitSet;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the BlobPartialBlockReport Message.
+ * <p>
+ * The report is sent by a BLOB Transfer Server in pull mode to request the chunks it is missing. An empty report
+ * indicates that all chunks of the current block have been received.
+ * </p>
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class BlobPartialBlockReport extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = BlobPartialBlockReport.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_PARTIAL_BLOCK_REPORT;
+
+    private BitSet mRequestedChunks;
+
+    private static final Creator<BlobPartialBlockReport> CREATOR = new Creator<BlobPartialBlockReport>() {
+        @Override
+        public BlobPartialBlockReport createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new BlobPartialBlockReport(message);
+        }
+
+        @Override
+        public BlobPartialBlockReport[] newArray(int size) {
+            return new BlobPartialBlockReport[size];
+        }
+    };
+
+    /**
+     * Constructs the BlobPartialBlockReport message.
+     *
+     * @param message Access Message
+     */
+    public BlobPartialBlockReport(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        mRequestedChunks = mParameters == null ? new BitSet() : BlobChunkDecoder.decodeChunkList(mParameters, 0);
+        MeshLogger.verbose(TAG, () -> "Received BLOB partial block report from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", requested chunks: " + mRequestedChunks);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the chunks of the current block requested by the server.
+     */
+    @NonNull
+    public BitSet getRequestedChunks() {
+        return (BitSet) mRequestedChunks.clone();
+    }
+
+    /**
+     * Returns true if the server has received all chunks of the current block.
+     */
+    public boolean isBlockComplete() {
+        return mRequestedChunks.isEmpty();
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,51 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class BlobTransferCancel extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_TRANSFER_CANCEL;
+    private static final int BLOB_TRANSFER_CANCEL_PARAMS_LENGTH = 8;
+
+    private final long mBlobId;
+
+    /**
+     * BLOB Transfer Cancel is an acknowledged message used to cancel the ongoing BLOB transfer (see Mesh Model Spec. v1.1 Section 7.3).
+     * The response to the BLOB Transfer Cancel message is a {@link BlobTransferStatus} message.
+     *
+     * @param appKey {@link ApplicationKey} key for this message
+     * @param blobId 64-bit identifier of the BLOB being transferred
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public BlobTransferCancel(@NonNull final ApplicationKey appKey, final long blobId) throws IllegalArgumentException {
+        super(appKey);
+        this.mBlobId = blobId;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = ByteBuffer.allocate(BLOB_TRANSFER_CANCEL_PARAMS_LENGTH).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(mBlobId)
+                .array();
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB.
+     */
+    public long getBlobId() {
+        return mBlobId;
+    }
+}
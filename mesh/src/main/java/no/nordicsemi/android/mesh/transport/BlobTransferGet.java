@@ -0,0 +1,34 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class BlobTransferGet extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_TRANSFER_GET;
+
+    /**
+     * BLOB Transfer Get is an acknowledged message used to get the state of the BLOB transfer of a BLOB Transfer Server (see Mesh Model Spec. v1.1 Section 7.3).
+     * The response to the BLOB Transfer Get message is a {@link BlobTransferStatus} message.
+     *
+     * @param appKey {@link ApplicationKey} key for this message
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public BlobTransferGet(@NonNull final ApplicationKey appKey) throws IllegalArgumentException {
+        super(appKey);
+        assembleMessageParameters();
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+}
@@ -0,0 +1,127 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class BlobTransferStart extends ApplicationMessage {
+
+    private static final String TAG = BlobTransferStart.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_TRANSFER_START;
+    private static final int BLOB_TRANSFER_START_PARAMS_LENGTH = 16;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({TRANSFER_MODE_PUSH, TRANSFER_MODE_PULL})
+    public @interface TransferMode {
+    }
+
+    public static final int TRANSFER_MODE_PUSH = 0x01; //Chunks are pushed by the client
+    public static final int TRANSFER_MODE_PULL = 0x02; //Chunks are requested by the server, used by Low Power nodes
+
+    public static final int MIN_BLOCK_SIZE_LOG = 0x06;
+    public static final int MAX_BLOCK_SIZE_LOG = 0x20;
+
+    private final int mTransferMode;
+    private final long mBlobId;
+    private final long mBlobSize;
+    private final int mBlockSizeLog;
+    private final int mMtuSize;
+
+    /**
+     * BLOB Transfer Start is an acknowledged message used to start a new BLOB transfer (see Mesh Model Spec. v1.1 Section 7.3).
+     * The response to the BLOB Transfer Start message is a {@link BlobTransferStatus} message.
+     *
+     * @param appKey       {@link ApplicationKey} key for this message
+     * @param transferMode Transfer mode, {@link #TRANSFER_MODE_PUSH} or {@link #TRANSFER_MODE_PULL}
+     * @param blobId       64-bit identifier of the BLOB
+     * @param blobSize     Size of the BLOB in octets
+     * @param blockSizeLog Size of a block as a power of 2, from {@link #MIN_BLOCK_SIZE_LOG} to {@link #MAX_BLOCK_SIZE_LOG}
+     * @param mtuSize      Maximum size of an access PDU the client is able to receive
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public BlobTransferStart(@NonNull final ApplicationKey appKey,
+                             @TransferMode final int transferMode,
+                             final long blobId,
+                             final long blobSize,
+                             final int blockSizeLog,
+                             final int mtuSize) throws IllegalArgumentException {
+        super(appKey);
+        if (transferMode != TRANSFER_MODE_PUSH && transferMode != TRANSFER_MODE_PULL)
+            throw new IllegalArgumentException("Invalid transfer mode: " + transferMode);
+        if (blobSize < 1 || blobSize > 0xFFFFFFFFL)
+            throw new IllegalArgumentException("BLOB size must be in range 1 to 0xFFFFFFFF");
+        if (blockSizeLog < MIN_BLOCK_SIZE_LOG || blockSizeLog > MAX_BLOCK_SIZE_LOG)
+            throw new IllegalArgumentException("Block size log must be in range " + MIN_BLOCK_SIZE_LOG + " to " + MAX_BLOCK_SIZE_LOG);
+        if (mtuSize < 0 || mtuSize > 0xFFFF)
+            throw new IllegalArgumentException("MTU size must be a 16-bit value");
+        this.mTransferMode = transferMode;
+        this.mBlobId = blobId;
+        this.mBlobSize = blobSize;
+        this.mBlockSizeLog = blockSizeLog;
+        this.mMtuSize = mtuSize;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        MeshLogger.verbose(TAG, () -> "BLOB ID: " + Long.toHexString(mBlobId) + ", size: " + mBlobSize +
+                ", block size log: " + mBlockSizeLog + ", transfer mode: " + mTransferMode);
+        mParameters = ByteBuffer.allocate(BLOB_TRANSFER_START_PARAMS_LENGTH).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) (mTransferMode << 6))
+                .putLong(mBlobId)
+                .putInt((int) mBlobSize)
+                .put((byte) mBlockSizeLog)
+                .putShort((short) mMtuSize)
+                .array();
+    }
+
+    /**
+     * Returns the transfer mode.
+     */
+    @TransferMode
+    public int getTransferMode() {
+        return mTransferMode;
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB.
+     */
+    public long getBlobId() {
+        return mBlobId;
+    }
+
+    /**
+     * Returns the size of the BLOB in octets.
+     */
+    public long getBlobSize() {
+        return mBlobSize;
+    }
+
+    /**
+     * Returns the size of a block as a power of 2.
+     */
+    public int getBlockSizeLog() {
+        return mBlockSizeLog;
+    }
+
+    /**
+     * Returns the maximum size of an access PDU the client is able to receive.
+     */
+    public int getMtuSize() {
+        return mMtuSize;
+    }
+}
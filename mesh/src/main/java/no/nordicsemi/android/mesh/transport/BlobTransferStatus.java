@@ -0,0 +1,181 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the BlobTransferStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class BlobTransferStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = BlobTransferStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.BLOB_TRANSFER_STATUS;
+    private static final int BLOB_ID_OFFSET = 2;
+    private static final int BLOB_SIZE_OFFSET = 10;
+    private static final int BLOCKS_NOT_RECEIVED_OFFSET = 17;
+
+    public static final int STATUS_SUCCESS = 0x00;
+    public static final int STATUS_INVALID_BLOCK_NUMBER = 0x01;
+    public static final int STATUS_INVALID_BLOCK_SIZE = 0x02;
+    public static final int STATUS_INVALID_CHUNK_SIZE = 0x03;
+    public static final int STATUS_WRONG_PHASE = 0x04;
+    public static final int STATUS_INVALID_PARAMETER = 0x05;
+    public static final int STATUS_WRONG_BLOB_ID = 0x06;
+    public static final int STATUS_BLOB_TOO_LARGE = 0x07;
+    public static final int STATUS_UNSUPPORTED_TRANSFER_MODE = 0x08;
+    public static final int STATUS_INTERNAL_ERROR = 0x09;
+    public static final int STATUS_INFORMATION_UNAVAILABLE = 0x0A;
+
+    public static final int PHASE_INACTIVE = 0x00;
+    public static final int PHASE_WAITING_FOR_TRANSFER_START = 0x01;
+    public static final int PHASE_WAITING_FOR_NEXT_BLOCK = 0x02;
+    public static final int PHASE_WAITING_FOR_NEXT_CHUNK = 0x03;
+    public static final int PHASE_COMPLETE = 0x04;
+    public static final int PHASE_SUSPENDED = 0x05;
+
+    private int mStatus;
+    private int mTransferMode;
+    private int mTransferPhase;
+    private Long mBlobId;
+    private long mBlobSize;
+    private int mBlockSizeLog;
+    private int mMtuSize;
+    private BitSet mBlocksNotReceived;
+
+    private static final Creator<BlobTransferStatus> CREATOR = new Creator<BlobTransferStatus>() {
+        @Override
+        public BlobTransferStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new BlobTransferStatus(message);
+        }
+
+        @Override
+        public BlobTransferStatus[] newArray(int size) {
+            return new BlobTransferStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the BlobTransferStatus message.
+     *
+     * @param message Access Message
+     */
+    public BlobTransferStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        MeshLogger.verbose(TAG, () -> "Received BLOB transfer status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true));
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters).order(ByteOrder.LITTLE_ENDIAN);
+        final int octet = buffer.get() & 0xFF;
+        mStatus = octet & 0x0F;
+        mTransferMode = octet >> 6;
+        mTransferPhase = buffer.get() & 0xFF;
+        if (mParameters.length >= BLOB_SIZE_OFFSET) {
+            mBlobId = buffer.getLong(BLOB_ID_OFFSET);
+        }
+        if (mParameters.length >= BLOCKS_NOT_RECEIVED_OFFSET) {
+            buffer.position(BLOB_SIZE_OFFSET);
+            mBlobSize = buffer.getInt() & 0xFFFFFFFFL;
+            mBlockSizeLog = buffer.get() & 0xFF;
+            mMtuSize = buffer.getShort() & 0xFFFF;
+            mBlocksNotReceived = BlobChunkDecoder.decodeBitField(mParameters, BLOCKS_NOT_RECEIVED_OFFSET);
+        }
+        MeshLogger.verbose(TAG, () -> "Status: " + mStatus + ", transfer mode: " + mTransferMode + ", phase: " + mTransferPhase);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the status code of the last operation.
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns true if the last operation was successful.
+     */
+    public boolean isSuccessful() {
+        return mStatus == STATUS_SUCCESS;
+    }
+
+    /**
+     * Returns the transfer mode of the BLOB transfer, 0 if no transfer is active.
+     */
+    public int getTransferMode() {
+        return mTransferMode;
+    }
+
+    /**
+     * Returns the phase of the BLOB transfer.
+     */
+    public int getTransferPhase() {
+        return mTransferPhase;
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB or null if not reported.
+     */
+    @Nullable
+    public Long getBlobId() {
+        return mBlobId;
+    }
+
+    /**
+     * Returns the size of the BLOB in octets, 0 if not reported.
+     */
+    public long getBlobSize() {
+        return mBlobSize;
+    }
+
+    /**
+     * Returns the size of a block as a power of 2, 0 if not reported.
+     */
+    public int getBlockSizeLog() {
+        return mBlockSizeLog;
+    }
+
+    /**
+     * Returns the maximum size of an access PDU the server is able to receive, 0 if not reported.
+     */
+    public int getMtuSize() {
+        return mMtuSize;
+    }
+
+    /**
+     * Returns the blocks that have not been received by the server, or null if not reported.
+     */
+    @Nullable
+    public BitSet getBlocksNotReceived() {
+        return mBlocksNotReceived == null ? null : (BitSet) mBlocksNotReceived.clone();
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
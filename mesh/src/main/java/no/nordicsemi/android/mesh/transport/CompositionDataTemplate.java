@@ -0,0 +1,327 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.Features;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.models.SigModelParser;
+import no.nordicsemi.android.mesh.models.VendorModel;
+import no.nordicsemi.android.mesh.utils.DeviceFeatureUtils;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Immutable layout of Composition Data Page 0, shared by all nodes reporting the same composition.
+ * <p>
+ * Installations usually contain many nodes of the same product, which report identical composition data. Templates are
+ * cached by the content of the page, which starts with the company, product and version identifiers, so a page that
+ * has been seen before is not parsed again. Each node still gets its own elements and models created from the template,
+ * as app key bindings, subscriptions and publication settings are specific to a node.
+ * </p>
+ * <p>
+ * A template that is already known for a product can be applied to a newly provisioned node using
+ * {@link no.nordicsemi.android.mesh.MeshNetwork#applyCompositionDataTemplate(ProvisionedMeshNode, CompositionDataTemplate)}
+ * instead of sending a {@link ConfigCompositionDataGet}.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public final class CompositionDataTemplate {
+
+    private static final String TAG = CompositionDataTemplate.class.getSimpleName();
+    private static final int PAGE_OFFSET = 2; // Opcode and page number
+    private static final int ELEMENTS_OFFSET = PAGE_OFFSET + 10;
+    private static final int CACHE_CAPACITY = 32;
+
+    private static final Map<ByteBuffer, CompositionDataTemplate> TEMPLATES =
+            new LinkedHashMap<ByteBuffer, CompositionDataTemplate>(CACHE_CAPACITY + 1, 1.0f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<ByteBuffer, CompositionDataTemplate> eldest) {
+                    return size() > CACHE_CAPACITY;
+                }
+            };
+
+    private final int companyIdentifier;
+    private final int productIdentifier;
+    private final int versionIdentifier;
+    private final int crpl;
+    private final int features;
+    private final int[] locationDescriptors;
+    private final int[][] sigModelIds;
+    private final int[][] vendorModelIds;
+
+    private CompositionDataTemplate(final int companyIdentifier,
+                                    final int productIdentifier,
+                                    final int versionIdentifier,
+                                    final int crpl,
+                                    final int features,
+                                    @NonNull final int[] locationDescriptors,
+                                    @NonNull final int[][] sigModelIds,
+                                    @NonNull final int[][] vendorModelIds) {
+        this.companyIdentifier = companyIdentifier;
+        this.productIdentifier = productIdentifier;
+        this.versionIdentifier = versionIdentifier;
+        this.crpl = crpl;
+        this.features = features;
+        this.locationDescriptors = locationDescriptors;
+        this.sigModelIds = sigModelIds;
+        this.vendorModelIds = vendorModelIds;
+    }
+
+    /**
+     * Returns the template of the composition data page contained in a Config Composition Data Status, parsing the
+     * page only if it has not been seen recently.
+     *
+     * @param accessPayload Access payload of the Config Composition Data Status.
+     */
+    @NonNull
+    static CompositionDataTemplate fromAccessPayload(@NonNull final byte[] accessPayload) {
+        synchronized (TEMPLATES) {
+            final CompositionDataTemplate template =
+                    TEMPLATES.get(ByteBuffer.wrap(accessPayload, PAGE_OFFSET, accessPayload.length - PAGE_OFFSET));
+            if (template != null) {
+                MeshLogger.verbose(TAG, () -> "Using cached composition data template: " + template);
+                return template;
+            }
+        }
+        final CompositionDataTemplate template = parse(accessPayload);
+        synchronized (TEMPLATES) {
+            TEMPLATES.put(ByteBuffer.wrap(Arrays.copyOfRange(accessPayload, PAGE_OFFSET, accessPayload.length)), template);
+        }
+        return template;
+    }
+
+    /**
+     * Returns the most recently used template received from a node with the given identifiers or null if none has
+     * been received.
+     *
+     * @param companyIdentifier 16-bit company identifier assigned by Bluetooth SIG.
+     * @param productIdentifier 16-bit vendor assigned product identifier.
+     * @param versionIdentifier 16-bit vendor assigned product version identifier.
+     */
+    @Nullable
+    public static CompositionDataTemplate find(final int companyIdentifier,
+                                               final int productIdentifier,
+                                               final int versionIdentifier) {
+        CompositionDataTemplate result = null;
+        synchronized (TEMPLATES) {
+            for (CompositionDataTemplate template : TEMPLATES.values()) {
+                if (template.matches(companyIdentifier, productIdentifier, versionIdentifier)) {
+                    result = template;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Creates a template from the composition data stored in a node.
+     *
+     * @param node Node whose composition data is known.
+     * @return the template or null if the composition data of the node has not been received.
+     */
+    @Nullable
+    public static CompositionDataTemplate fromNode(@NonNull final ProvisionedMeshNode node) {
+        final Features nodeFeatures = node.getNodeFeatures();
+        if (node.getCompanyIdentifier() == null || node.getProductIdentifier() == null ||
+                node.getVersionIdentifier() == null || node.getCrpl() == null || nodeFeatures == null)
+            return null;
+
+        final int elementCount = node.getElements().size();
+        final int[] locationDescriptors = new int[elementCount];
+        final int[][] sigModelIds = new int[elementCount][];
+        final int[][] vendorModelIds = new int[elementCount][];
+        int index = 0;
+        for (Element element : node.getElements().values()) {
+            final List<Integer> sigModels = new ArrayList<>();
+            final List<Integer> vendorModels = new ArrayList<>();
+            for (MeshModel model : element.getMeshModels().values()) {
+                if (model instanceof VendorModel) {
+                    vendorModels.add(model.getModelId());
+                } else {
+                    sigModels.add(model.getModelId());
+                }
+            }
+            locationDescriptors[index] = element.getLocationDescriptor();
+            sigModelIds[index] = toArray(sigModels);
+            vendorModelIds[index] = toArray(vendorModels);
+            index++;
+        }
+        final int features = (nodeFeatures.isLowPowerFeatureSupported() ? 1 << 3 : 0) |
+                (nodeFeatures.isFriendFeatureSupported() ? 1 << 2 : 0) |
+                (nodeFeatures.isProxyFeatureSupported() ? 1 << 1 : 0) |
+                (nodeFeatures.isRelayFeatureSupported() ? 1 : 0);
+        return new CompositionDataTemplate(node.getCompanyIdentifier(), node.getProductIdentifier(), node.getVersionIdentifier(),
+                node.getCrpl(), features, locationDescriptors, sigModelIds, vendorModelIds);
+    }
+
+    /**
+     * Parses Composition Data Page 0.
+     *
+     * @param accessPayload Access payload of the Config Composition Data Status.
+     */
+    private static CompositionDataTemplate parse(@NonNull final byte[] accessPayload) {
+        final int companyIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[2], accessPayload[3]);
+        final int productIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[4], accessPayload[5]);
+        final int versionIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[6], accessPayload[7]);
+        final int crpl = MeshParserUtils.unsignedBytesToInt(accessPayload[8], accessPayload[9]);
+        final int features = MeshParserUtils.unsignedBytesToInt(accessPayload[10], accessPayload[11]);
+
+        // Elements contain a location descriptor, the number of SIG and vendor models, followed by the
+        // 16-bit SIG model identifiers and the 32-bit vendor model identifiers
+        final List<int[]> elements = new ArrayList<>();
+        int offset = ELEMENTS_OFFSET;
+        while (offset < accessPayload.length) {
+            final int locationDescriptor = MeshParserUtils.unsignedBytesToInt(accessPayload[offset], accessPayload[offset + 1]);
+            final int numSigModelIds = accessPayload[offset + 2];
+            final int numVendorModelIds = accessPayload[offset + 3];
+            offset += 4;
+            final int[] element = new int[3 + numSigModelIds + numVendorModelIds];
+            element[0] = locationDescriptor;
+            element[1] = numSigModelIds;
+            element[2] = numVendorModelIds;
+            for (int i = 0; i < numSigModelIds; i++) {
+                element[3 + i] = MeshParserUtils.unsignedBytesToInt(accessPayload[offset], accessPayload[offset + 1]);
+                offset += 2;
+            }
+            for (int i = 0; i < numVendorModelIds; i++) {
+                // Vendor models contain a 16-bit company identifier and a 16-bit model identifier
+                final int vendorCompanyIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[offset], accessPayload[offset + 1]);
+                final int modelIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[offset + 2], accessPayload[offset + 3]);
+                element[3 + numSigModelIds + i] = vendorCompanyIdentifier << 16 | modelIdentifier;
+                offset += 4;
+            }
+            elements.add(element);
+        }
+
+        final int[] locationDescriptors = new int[elements.size()];
+        final int[][] sigModelIds = new int[elements.size()][];
+        final int[][] vendorModelIds = new int[elements.size()][];
+        for (int i = 0; i < elements.size(); i++) {
+            final int[] element = elements.get(i);
+            locationDescriptors[i] = element[0];
+            sigModelIds[i] = Arrays.copyOfRange(element, 3, 3 + element[1]);
+            vendorModelIds[i] = Arrays.copyOfRange(element, 3 + element[1], element.length);
+        }
+        final CompositionDataTemplate template = new CompositionDataTemplate(companyIdentifier, productIdentifier, versionIdentifier,
+                crpl, features, locationDescriptors, sigModelIds, vendorModelIds);
+        MeshLogger.verbose(TAG, () -> "Parsed composition data template: " + template);
+        return template;
+    }
+
+    private static int[] toArray(@NonNull final List<Integer> values) {
+        final int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Creates the elements and models of a node reporting this composition data.
+     *
+     * @param unicastAddress Unicast address of the primary element of the node.
+     * @return elements keyed by their element address.
+     */
+    @NonNull
+    Map<Integer, Element> createElements(final int unicastAddress) {
+        final Map<Integer, Element> elements = new LinkedHashMap<>();
+        for (int i = 0; i < locationDescriptors.length; i++) {
+            final Map<Integer, MeshModel> models = new LinkedHashMap<>();
+            for (int modelId : sigModelIds[i]) {
+                models.put(modelId, SigModelParser.getSigModel(modelId));
+            }
+            for (int modelId : vendorModelIds[i]) {
+                models.put(modelId, new VendorModel(modelId));
+            }
+            final int elementAddress = unicastAddress + i;
+            elements.put(elementAddress, new Element(elementAddress, locationDescriptors[i], models));
+        }
+        return elements;
+    }
+
+    /**
+     * Returns true if the template was received from a node with the given identifiers.
+     *
+     * @param companyIdentifier 16-bit company identifier assigned by Bluetooth SIG.
+     * @param productIdentifier 16-bit vendor assigned product identifier.
+     * @param versionIdentifier 16-bit vendor assigned product version identifier.
+     */
+    public boolean matches(final int companyIdentifier, final int productIdentifier, final int versionIdentifier) {
+        return this.companyIdentifier == companyIdentifier &&
+                this.productIdentifier == productIdentifier &&
+                this.versionIdentifier == versionIdentifier;
+    }
+
+    /**
+     * Returns the 16-bit company identifier assigned by Bluetooth SIG.
+     */
+    public int getCompanyIdentifier() {
+        return companyIdentifier;
+    }
+
+    /**
+     * Returns the 16-bit vendor assigned product identifier.
+     */
+    public int getProductIdentifier() {
+        return productIdentifier;
+    }
+
+    /**
+     * Returns the 16-bit vendor assigned product version identifier.
+     */
+    public int getVersionIdentifier() {
+        return versionIdentifier;
+    }
+
+    /**
+     * Returns the minimum number of replay protection list entries in a device.
+     */
+    public int getCrpl() {
+        return crpl;
+    }
+
+    /**
+     * Returns the 16-bit features field indicating the device features.
+     */
+    public int getFeatures() {
+        return features;
+    }
+
+    /**
+     * Returns the number of elements of a node reporting this composition data.
+     */
+    public int getElementCount() {
+        return locationDescriptors.length;
+    }
+
+    /**
+     * Returns the features supported by a node reporting this composition data, all disabled.
+     */
+    @NonNull
+    Features createFeatures() {
+        return new Features(DeviceFeatureUtils.supportsFriendFeature(features) ? Features.DISABLED : Features.UNSUPPORTED,
+                DeviceFeatureUtils.supportsLowPowerFeature(features) ? Features.DISABLED : Features.UNSUPPORTED,
+                DeviceFeatureUtils.supportsProxyFeature(features) ? Features.DISABLED : Features.UNSUPPORTED,
+                DeviceFeatureUtils.supportsRelayFeature(features) ? Features.DISABLED : Features.UNSUPPORTED);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder()
+                .append(String.format(Locale.US, "CID: %04X, PID: %04X, VID: %04X, CRPL: %04X, Features: %04X",
+                        companyIdentifier, productIdentifier, versionIdentifier, crpl, features));
+        for (int i = 0; i < locationDescriptors.length; i++) {
+            builder.append(String.format(Locale.US, ", Element %d: Location: %04X, SIG models: %s, Vendor models: %s",
+                    i, locationDescriptors[i], Arrays.toString(sigModelIds[i]), Arrays.toString(vendorModelIds[i])));
+        }
+        return builder.toString();
+    }
+}
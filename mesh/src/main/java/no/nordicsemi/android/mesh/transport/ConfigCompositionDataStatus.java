@@ -29,12 +29,9 @@ import no.nordicsemi.android.mesh.logger.MeshLogger;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.LinkedHashMap;
-import java.util.Locale;
 import java.util.Map;
 
 import androidx.annotation.NonNull;
-import no.nordicsemi.android.mesh.models.SigModelParser;
-import no.nordicsemi.android.mesh.models.VendorModel;
 import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
 import no.nordicsemi.android.mesh.utils.DeviceFeatureUtils;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
@@ -58,6 +55,7 @@ public class ConfigCompositionDataStatus extends ConfigStatusMessage implements
     private boolean friendFeatureSupported;
     private boolean lowPowerFeatureSupported;
     private final Map<Integer, Element> mElements = new LinkedHashMap<>();
+    private CompositionDataTemplate template;
 
     private static final Creator<ConfigCompositionDataStatus> CREATOR = new Creator<ConfigCompositionDataStatus>() {
         @Override
@@ -93,108 +91,22 @@ public class ConfigCompositionDataStatus extends ConfigStatusMessage implements
      */
     private void parseCompositionDataPages() {
         final AccessMessage message = (AccessMessage) mMessage;
-        final byte[] accessPayload = message.getAccessPdu();
-
-        //Bluetooth SIG 16-bit company identifier
-        companyIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[2], accessPayload[3]);
-        MeshLogger.verbose(TAG, "Company identifier: " + String.format(Locale.US, "%04X", companyIdentifier));
-
-        //16-bit vendor-assigned product identifier;
-        productIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[4], accessPayload[5]);
-        MeshLogger.verbose(TAG, "Product identifier: " + String.format(Locale.US, "%04X", productIdentifier));
-
-        //16-bit vendor-assigned product version identifier;
-        versionIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[6], accessPayload[7]);
-        MeshLogger.verbose(TAG, "Version identifier: " + String.format(Locale.US, "%04X", versionIdentifier));
-
-        //16-bit representation of the minimum number of replay protection list entries in a device
-        crpl = MeshParserUtils.unsignedBytesToInt(accessPayload[8], accessPayload[9]);
-        MeshLogger.verbose(TAG, "crpl: " + String.format(Locale.US, "%04X", crpl));
-
-        //16-bit device features
-        features = MeshParserUtils.unsignedBytesToInt(accessPayload[10], accessPayload[11]);
-        MeshLogger.verbose(TAG, "Features: " + String.format(Locale.US, "%04X", features));
-
+        // Nodes of the same product report the same page, which is parsed only once
+        template = CompositionDataTemplate.fromAccessPayload(message.getAccessPdu());
+        companyIdentifier = template.getCompanyIdentifier();
+        productIdentifier = template.getProductIdentifier();
+        versionIdentifier = template.getVersionIdentifier();
+        crpl = template.getCrpl();
+        features = template.getFeatures();
         relayFeatureSupported = DeviceFeatureUtils.supportsRelayFeature(features);
-        MeshLogger.verbose(TAG, "Relay feature: " + relayFeatureSupported);
-
         proxyFeatureSupported = DeviceFeatureUtils.supportsProxyFeature(features);
-        MeshLogger.verbose(TAG, "Proxy feature: " + proxyFeatureSupported);
-
         friendFeatureSupported = DeviceFeatureUtils.supportsFriendFeature(features);
-        MeshLogger.verbose(TAG, "Friend feature: " + friendFeatureSupported);
-
         lowPowerFeatureSupported = DeviceFeatureUtils.supportsLowPowerFeature(features);
-        MeshLogger.verbose(TAG, "Low power feature: " + lowPowerFeatureSupported);
-
-        // Parsing the elements which is a variable number of octets
-        // Elements contain following
-        // location descriptor,
-        // Number of SIG model IDs in this element
-        // Number of vendor model in this element
-        // SIG model ID octents - Variable
-        // Vendor model ID octents - Variable
-        parseElements(accessPayload, message.getSrc());
-        MeshLogger.verbose(TAG, "Number of elements: " + mElements.size());
-    }
 
-    /**
-     * Parses the elements within the composition data status
-     *
-     * @param accessPayload underlying payload containing the elements
-     * @param src           source address
-     */
-    private void parseElements(final byte[] accessPayload, final int src) {
-        //Let's clear t he dummy elements we had added during provisioning to occupy the addresses in use.
+        // Elements and models hold the configuration of a node and are therefore created for every node
         mElements.clear();
-        int tempOffset = ELEMENTS_OFFSET;
-        int counter = 0;
-        int elementAddress = 0;
-        while (tempOffset < accessPayload.length) {
-            final Map<Integer, MeshModel> models = new LinkedHashMap<>();
-            final int locationDescriptor = MeshParserUtils.unsignedBytesToInt(accessPayload[tempOffset], accessPayload[tempOffset + 1]);
-            MeshLogger.verbose(TAG, "Location identifier: " + String.format(Locale.US, "%04X", locationDescriptor));
-
-            tempOffset = tempOffset + 2;
-            final int numSigModelIds = accessPayload[tempOffset];
-            MeshLogger.verbose(TAG, "Number of sig models: " + String.format(Locale.US, "%04X", numSigModelIds));
-
-            tempOffset = tempOffset + 1;
-            final int numVendorModelIds = accessPayload[tempOffset];
-            MeshLogger.verbose(TAG, "Number of vendor models: " + String.format(Locale.US, "%04X", numVendorModelIds));
-
-            tempOffset = tempOffset + 1;
-            if (numSigModelIds > 0) {
-                for (int i = 0; i < numSigModelIds; i++) {
-                    final int modelId = MeshParserUtils.unsignedBytesToInt(accessPayload[tempOffset], accessPayload[tempOffset + 1]);
-                    models.put(modelId, SigModelParser.getSigModel(modelId)); // sig models are 16-bit
-                    MeshLogger.verbose(TAG, "Sig model ID " + i + " : " + String.format(Locale.US, "%04X", modelId));
-                    tempOffset = tempOffset + 2;
-                }
-            }
-
-            if (numVendorModelIds > 0) {
-                for (int i = 0; i < numVendorModelIds; i++) {
-                    // vendor models are 32-bit that contains a 16-bit company identifier and a 16-bit model identifier
-                    final int companyIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[tempOffset], accessPayload[tempOffset + 1]);
-                    final int modelIdentifier = MeshParserUtils.unsignedBytesToInt(accessPayload[tempOffset + 2], accessPayload[tempOffset + 3]);
-                    final int vendorModelIdentifier = companyIdentifier << 16 | modelIdentifier;
-                    models.put(vendorModelIdentifier, new VendorModel(vendorModelIdentifier));
-                    MeshLogger.verbose(TAG, "Vendor - model ID " + i + " : " + String.format(Locale.US, "%08X", vendorModelIdentifier));
-                    tempOffset = tempOffset + 4;
-                }
-            }
-
-            if (counter == 0) {
-                elementAddress = src;
-            } else {
-                elementAddress++;
-            }
-            counter++;
-            final Element element = new Element(elementAddress, locationDescriptor, models);
-            final int unicastAddress = elementAddress;
-            mElements.put(unicastAddress, element);
-        }
+        mElements.putAll(template.createElements(message.getSrc()));
+        MeshLogger.verbose(TAG, () -> "Number of elements: " + mElements.size());
     }
 
     /**
@@ -287,6 +199,16 @@ public class ConfigCompositionDataStatus extends ConfigStatusMessage implements
         return mElements;
     }
 
+    /**
+     * Returns the composition data template shared by all nodes reporting the same composition data.
+     *
+     * @return composition data template
+     */
+    @NonNull
+    public CompositionDataTemplate getCompositionDataTemplate() {
+        return template;
+    }
+
     private int parseCompanyIdentifier(final short companyIdentifier) {
         return ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN).putShort(companyIdentifier).getShort(0);
     }
@@ -0,0 +1,83 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+
+/**
+ * To be used as a wrapper class to create an Opcodes Aggregator Sequence message aggregating configuration messages.
+ * <p>
+ * The aggregated messages are encrypted with the device key of the node and must be acknowledged messages, the node
+ * responds with a single {@link OpcodesAggregatorStatus} containing the status of each message in the same order.
+ * Use {@link #create(int, List)} to split a list of messages into as few sequence messages as possible.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public class ConfigOpcodesAggregatorSequence extends ConfigMessage {
+
+    private static final String TAG = ConfigOpcodesAggregatorSequence.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.OPCODES_AGGREGATOR_SEQUENCE;
+
+    private final int mElementAddress;
+    private final List<MeshMessage> mItems;
+
+    /**
+     * Constructs ConfigOpcodesAggregatorSequence message.
+     *
+     * @param elementAddress Address of the element the configuration messages are addressed to.
+     * @param items          Configuration messages to be aggregated.
+     * @throws IllegalArgumentException if the element address is invalid, a message is not a configuration message or
+     *                                  the messages do not fit in a single access payload.
+     */
+    public ConfigOpcodesAggregatorSequence(final int elementAddress, @NonNull final List<? extends MeshMessage> items) {
+        for (MeshMessage item : items) {
+            if (!(item instanceof ConfigMessage) || item instanceof ConfigOpcodesAggregatorSequence)
+                throw new IllegalArgumentException("Only configuration messages can be aggregated in a configuration sequence.");
+        }
+        this.mElementAddress = elementAddress;
+        this.mItems = Collections.unmodifiableList(new ArrayList<MeshMessage>(items));
+        assembleMessageParameters();
+    }
+
+    /**
+     * Packs the given configuration messages, in order, into as few sequence messages as possible.
+     *
+     * @param elementAddress Address of the element the configuration messages are addressed to.
+     * @param messages       Configuration messages to be aggregated.
+     * @return list of sequence messages to be sent one after the other.
+     * @throws IllegalArgumentException if the element address is invalid or a message is not a configuration message.
+     */
+    @NonNull
+    public static List<ConfigOpcodesAggregatorSequence> create(final int elementAddress,
+                                                               @NonNull final List<? extends MeshMessage> messages) {
+        return OpcodesAggregatorItems.pack(messages, items -> new ConfigOpcodesAggregatorSequence(elementAddress, items));
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mParameters = OpcodesAggregatorItems.createSequenceParameters(mElementAddress, mItems);
+    }
+
+    /**
+     * Returns the address of the element the messages are addressed to.
+     */
+    public int getElementAddress() {
+        return mElementAddress;
+    }
+
+    /**
+     * Returns the aggregated messages.
+     */
+    @NonNull
+    public List<MeshMessage> getItems() {
+        return mItems;
+    }
+}
@@ -25,12 +25,15 @@ package no.nordicsemi.android.mesh.transport;
 import android.os.Parcel;
 import android.util.SparseArray;
 
+import java.util.SortedMap;
+import java.util.TreeMap;
+
 import no.nordicsemi.android.mesh.control.TransportControlMessage;
 
 @SuppressWarnings("WeakerAccess")
 public final class ControlMessage extends Message {
 
-    protected SparseArray<byte[]> lowerTransportControlPdu = new SparseArray<>();
+    protected SortedMap<Integer, byte[]> lowerTransportControlPdu = new TreeMap<>();
     private byte[] transportControlPdu;
     private TransportControlMessage transportControlMessage;
 
@@ -52,7 +55,7 @@ public final class ControlMessage extends Message {
 
     public ControlMessage(final Parcel source) {
         super(source);
-        lowerTransportControlPdu = readSparseArrayToParcelable(source);
+        lowerTransportControlPdu = readSegmentsFromParcel(source);
         transportControlPdu = source.createByteArray();
         transportControlMessage = (TransportControlMessage) source.readValue(TransportControlMessage.class.getClassLoader());
     }
@@ -70,11 +73,22 @@ public final class ControlMessage extends Message {
         this.transportControlPdu = transportControlPdu;
     }
 
+    /**
+     * Returns a copy of the lower transport pdus of this message keyed by the segment offset.
+     */
     public SparseArray<byte[]> getLowerTransportControlPdu() {
-        return lowerTransportControlPdu;
+        return toSparseArray(lowerTransportControlPdu);
     }
 
     public void setLowerTransportControlPdu(final SparseArray<byte[]> segmentedAccessMessages) {
+        this.lowerTransportControlPdu = toSortedMap(segmentedAccessMessages);
+    }
+
+    SortedMap<Integer, byte[]> getLowerTransportControlPduMap() {
+        return lowerTransportControlPdu;
+    }
+
+    void setLowerTransportControlPduMap(final SortedMap<Integer, byte[]> segmentedAccessMessages) {
         this.lowerTransportControlPdu = segmentedAccessMessages;
     }
 
@@ -94,7 +108,7 @@ public final class ControlMessage extends Message {
     @Override
     public void writeToParcel(final Parcel dest, final int flags) {
         super.writeToParcel(dest, flags);
-        writeSparseArrayToParcelable(dest, lowerTransportControlPdu);
+        writeSegmentsToParcel(dest, lowerTransportControlPdu);
         dest.writeByteArray(transportControlPdu);
         dest.writeValue(transportControlMessage);
     }
@@ -0,0 +1,45 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.NetworkKey;
+
+/**
+ * Network PDU that has been de-obfuscated and decrypted by the network layer.
+ */
+final class DecodedNetworkPdu {
+
+    final NetworkKey networkKey;
+    final byte[] pdu;
+    final byte[] networkHeader;
+    final byte[] decryptedPayload;
+    final int ivIndex;
+    final byte[] sequenceNumber;
+    final int src;
+
+    /**
+     * Constructs the decoded network pdu.
+     *
+     * @param networkKey       Network key used to secure the pdu.
+     * @param pdu              Received pdu.
+     * @param networkHeader    De-obfuscated network header.
+     * @param decryptedPayload Decrypted network payload.
+     * @param ivIndex          IV Index used to secure the pdu.
+     * @param sequenceNumber   Sequence number of the pdu.
+     * @param src              Source address of the pdu.
+     */
+    DecodedNetworkPdu(@NonNull final NetworkKey networkKey,
+                      @NonNull final byte[] pdu,
+                      @NonNull final byte[] networkHeader,
+                      @NonNull final byte[] decryptedPayload,
+                      final int ivIndex,
+                      @NonNull final byte[] sequenceNumber,
+                      final int src) {
+        this.networkKey = networkKey;
+        this.pdu = pdu;
+        this.networkHeader = networkHeader;
+        this.decryptedPayload = decryptedPayload;
+        this.ivIndex = ivIndex;
+        this.sequenceNumber = sequenceNumber;
+        this.src = src;
+    }
+}
@@ -24,10 +24,7 @@ import no.nordicsemi.android.mesh.control.TransportControlMessage;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
 import no.nordicsemi.android.mesh.models.ConfigurationServerModel;
 import no.nordicsemi.android.mesh.models.SceneServer;
-import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
-import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
 import no.nordicsemi.android.mesh.opcodes.ProxyConfigMessageOpCodes;
-import no.nordicsemi.android.mesh.utils.AddressArray;
 import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 import no.nordicsemi.android.mesh.utils.NetworkTransmitSettings;
@@ -68,24 +65,40 @@ class DefaultNoOperationMessageState extends MeshMessageState {
                       @NonNull final byte[] decryptedNetworkPayload,
                       final int ivIndex,
                       @NonNull final byte[] sequenceNumber) {
-        final Message message;
         try {
-            message = mMeshTransport.parseMeshMessage(key, node, pdu, networkHeader, decryptedNetworkPayload, ivIndex, sequenceNumber);
-            if (message != null) {
-                if (message instanceof AccessMessage) {
-                    parseAccessMessage((AccessMessage) message);
-                } else {
-                    parseControlMessage((ControlMessage) message);
-                }
+            onMeshMessageParsed(mMeshTransport.parseMeshMessage(key, node, pdu, networkHeader, decryptedNetworkPayload, ivIndex, sequenceNumber));
+        } catch (ExtendedInvalidCipherTextException e) {
+            onMeshMessageDecryptionFailed(e);
+        }
+    }
+
+    /**
+     * Handles a message parsed by the mesh transport.
+     *
+     * @param message Parsed message or null if the message has not been reassembled yet.
+     */
+    void onMeshMessageParsed(@Nullable final Message message) {
+        if (message != null) {
+            if (message instanceof AccessMessage) {
+                parseAccessMessage((AccessMessage) message);
             } else {
-                MeshLogger.verbose(TAG, "Message reassembly may not be completed yet!");
+                parseControlMessage((ControlMessage) message);
             }
-        } catch (ExtendedInvalidCipherTextException e) {
-            MeshLogger.error(TAG, "Decryption failed in " + e.getTag() + " : " + e.getMessage());
-            mMeshStatusCallbacks.onMessageDecryptionFailed(e.getTag(), e.getMessage());
+        } else {
+            MeshLogger.verbose(TAG, "Message reassembly may not be completed yet!");
         }
     }
 
+    /**
+     * Handles a message that could not be decrypted by the mesh transport.
+     *
+     * @param e Decryption failure.
+     */
+    void onMeshMessageDecryptionFailed(@NonNull final ExtendedInvalidCipherTextException e) {
+        MeshLogger.error(TAG, "Decryption failed in " + e.getTag() + " : " + e.getMessage());
+        mMeshStatusCallbacks.onMessageDecryptionFailed(e.getTag(), e.getMessage());
+    }
+
     /**
      * Parses Access message received
      *
@@ -93,457 +106,354 @@ class DefaultNoOperationMessageState extends MeshMessageState {
      */
     private void parseAccessMessage(final AccessMessage message) {
         final ProvisionedMeshNode node = mInternalTransportCallbacks.getNode(message.getSrc());
-        final int opCodeLength = MeshParserUtils.getOpCodeLength(message.getAccessPdu()[0] & 0xFF);
-        //OpCode length
-        switch (opCodeLength) {
-            case 1:
-                if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS) {
-                    final ConfigCompositionDataStatus status = new ConfigCompositionDataStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.setCompositionData(status);
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.HEALTH_CURRENT_STATUS) {
-                    final HealthCurrentStatus healthCurrentStatus = new HealthCurrentStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(healthCurrentStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), healthCurrentStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.HEALTH_FAULT_STATUS) {
-                    final HealthFaultStatus healthFaultStatus = new HealthFaultStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(healthFaultStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), healthFaultStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCENE_STATUS) {
-                    final SceneStatus sceneStatus = new SceneStatus(message);
-                    if (sceneStatus.isSuccessful()) {
-                        final MeshModel model = getMeshModel(node, sceneStatus.getSrc(), SCENE_SERVER);
-                        if (model != null) {
-                            final SceneServer sceneServer = ((SceneServer) model);
-                            sceneServer.currentScene = sceneStatus.getCurrentScene();
-                            sceneServer.targetScene = sceneStatus.getTargetScene();
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(sceneStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), sceneStatus);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_STATUS) {
-                    final ConfigHeartbeatPublicationStatus status = new ConfigHeartbeatPublicationStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final ConfigurationServerModel model = (ConfigurationServerModel) getMeshModel(node, status.getSrc(), CONFIGURATION_SERVER);
-                            if (model != null) {
-                                model.setHeartbeatPublication(!isValidUnassignedAddress(status.getHeartbeatPublication().getDst()) ?
-                                        status.getHeartbeatPublication() : null);
-                            }
-                        }
+        final OpCodeRegistry.Entry<?> entry = meshMessageHandlerCallbacks.getOpCodeRegistry().get(message);
+        if (entry != null) {
+            onStatusReceived(entry, node, message);
+        } else if (MeshParserUtils.getOpCodeLength(message.getAccessPdu()[0] & 0xFF) != 3) {
+            handleUnknownPdu(message);
+        } else if (mMeshMessage instanceof VendorModelMessageAcked) {
+            final VendorModelMessageAcked vendorModelMessageAcked = (VendorModelMessageAcked) mMeshMessage;
+            final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageAcked.getModelIdentifier());
+            mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+            MeshLogger.verbose(TAG, () -> "Vendor model Access PDU Received: " + MeshParserUtils.bytesToHex(message.getAccessPdu(), false));
+        } else if (mMeshMessage instanceof VendorModelMessageUnacked) {
+            final VendorModelMessageUnacked vendorModelMessageUnacked = (VendorModelMessageUnacked) mMeshMessage;
+            final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageUnacked.getModelIdentifier());
+            mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+        } else {
+            handleUnknownPdu(message);
+        }
+    }
+
+    /**
+     * Decodes a status message registered in the {@link OpCodeRegistry}, updates the mesh network and notifies the app.
+     *
+     * @param entry   registry entry of the status message
+     * @param node    node the message was received from
+     * @param message access message received by the access layer
+     */
+    private <T extends MeshMessage> void onStatusReceived(@NonNull final OpCodeRegistry.Entry<T> entry,
+                                                          final ProvisionedMeshNode node,
+                                                          @NonNull final AccessMessage message) {
+        final T status = decodeStatus(entry, node, message);
+        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+    }
+
+    /**
+     * Decodes a status message registered in the {@link OpCodeRegistry} and updates the mesh network.
+     *
+     * @param entry   registry entry of the status message
+     * @param node    node the message was received from
+     * @param message access message received by the access layer
+     */
+    private <T extends MeshMessage> T decodeStatus(@NonNull final OpCodeRegistry.Entry<T> entry,
+                                                   final ProvisionedMeshNode node,
+                                                   @NonNull final AccessMessage message) {
+        final T status = entry.decoder.decode(message);
+        if (entry.updater != null) {
+            entry.updater.update(this, node, message, status);
+        }
+        if (entry.updatesMeshNetwork) {
+            mInternalTransportCallbacks.updateMeshNetwork(status);
+        }
+        return status;
+    }
+
+    void updateCompositionData(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigCompositionDataStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            node.setCompositionData(status);
+        }
+    }
+
+    void updateHeartbeatPublication(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigHeartbeatPublicationStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final ConfigurationServerModel model = (ConfigurationServerModel) getMeshModel(node, status.getSrc(), CONFIGURATION_SERVER);
+                if (model != null) {
+                    model.setHeartbeatPublication(!isValidUnassignedAddress(status.getHeartbeatPublication().getDst()) ?
+                            status.getHeartbeatPublication() : null);
+                }
+            }
+        }
+    }
+
+    void updateHeartbeatSubscription(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigHeartbeatSubscriptionStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, message.getSrc(), CONFIGURATION_SERVER);
+                if (model != null) {
+                    ((ConfigurationServerModel) model).
+                            setHeartbeatSubscription((!isValidUnassignedAddress(status.getHeartbeatSubscription().getSrc()) ||
+                                    !isValidUnassignedAddress(status.getHeartbeatSubscription().getDst()))
+                                    ? status.getHeartbeatSubscription() : null);
+                }
+            }
+        }
+    }
+
+    void updateDefaultTtl(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigDefaultTtlStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            node.setTtl(status.getTtl());
+        }
+    }
+
+    void updateNetKey(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigNetKeyStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                if (mMeshMessage instanceof ConfigNetKeyAdd) {
+                    node.setAddedNetKeyIndex(status.getNetKeyIndex());
+                    // Let's mark any keys added to the node as insecure if the node was provisioned insecurely.
+                    if (!node.isSecurelyProvisioned()) {
+                        final NetworkKey key = mInternalTransportCallbacks.getMeshNetwork().getNetKey(status.getNetKeyIndex());
+                        key.markAsInsecure();
                     }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_LOCATION_GLOBAL_STATUS) {
-                    final GenericLocationGlobalStatus genericLocationGlobalStatus = new GenericLocationGlobalStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericLocationGlobalStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericLocationGlobalStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_STATUS) {
-                    final SensorDescriptorStatus status = new SensorDescriptorStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_CADENCE_STATUS) {
-                    final SensorCadenceStatus status = new SensorCadenceStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_SETTINGS_STATUS) {
-                    final SensorSettingsStatus status = new SensorSettingsStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_SETTING_STATUS) {
-                    final SensorSettingStatus status = new SensorSettingStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_STATUS) {
-                    final SensorStatus status = new SensorStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_COLUMN_STATUS) {
-                    final SensorColumnStatus status = new SensorColumnStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SENSOR_SERIES_STATUS) {
-                    final SensorSeriesStatus status = new SensorSeriesStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCHEDULER_ACTION_STATUS) {
-                    final SchedulerActionStatus schedulerActionStatus = new SchedulerActionStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(schedulerActionStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), schedulerActionStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_ADMIN_PROPERTY_STATUS ||
-                        message.getOpCode() == ApplicationMessageOpCodes.GENERIC_MANUFACTURER_PROPERTY_STATUS ||
-                        message.getOpCode() == ApplicationMessageOpCodes.GENERIC_USER_PROPERTY_STATUS) {
-                    final GenericPropertyStatus status = new GenericPropertyStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.TIME_STATUS) {
-                    final TimeStatus timeStatus = new TimeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(timeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), timeStatus);
+                } else if (mMeshMessage instanceof ConfigNetKeyUpdate) {
+                    node.updateAddedNetKey(status.getNetKeyIndex());
+                } else if (mMeshMessage instanceof ConfigNetKeyDelete) {
+                    node.removeAddedNetKeyIndex(status.getNetKeyIndex());
+                }
+            }
+        }
+    }
+
+    void updateNetKeyList(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigNetKeyList netKeyList) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (netKeyList.isSuccessful()) {
+                node.updateNetKeyList(netKeyList.getKeyIndexes());
+            }
+        }
+    }
+
+    void updateAppKey(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigAppKeyStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                if (mMeshMessage instanceof ConfigAppKeyAdd) {
+                    node.setAddedAppKeyIndex(status.getAppKeyIndex());
+                } else if (mMeshMessage instanceof ConfigAppKeyUpdate) {
+                    node.updateAddedAppKey(status.getAppKeyIndex());
+                } else if (mMeshMessage instanceof ConfigAppKeyDelete) {
+                    node.removeAddedAppKeyIndex(status.getAppKeyIndex());
+                }
+            }
+        }
+    }
+
+    void updateAppKeyList(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigAppKeyList appKeyList) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (appKeyList.isSuccessful()) {
+                node.updateAppKeyList(appKeyList.getNetKeyIndex(), appKeyList.getKeyIndexes(),
+                        mInternalTransportCallbacks.getApplicationKeys(appKeyList.getNetKeyIndex()));
+            }
+        }
+    }
+
+    void updateModelApp(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigModelAppStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                if (mMeshMessage instanceof ConfigModelAppBind) {
+                    node.setAppKeyBindStatus(status);
                 } else {
-                    handleUnknownPdu(message);
+                    node.setAppKeyUnbindStatus(status);
                 }
-                break;
-            case 2:
-                if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_DEFAULT_TTL_STATUS) {
-                    final ConfigDefaultTtlStatus status = new ConfigDefaultTtlStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.setTtl(status.getTtl());
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_ON_POWER_UP_STATUS) {
-                    final GenericOnPowerUpStatus genericOnPowerUpStatus = new GenericOnPowerUpStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericOnPowerUpStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericOnPowerUpStatus);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NETKEY_STATUS) {
-                    final ConfigNetKeyStatus status = new ConfigNetKeyStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            if (mMeshMessage instanceof ConfigNetKeyAdd) {
-                                node.setAddedNetKeyIndex(status.getNetKeyIndex());
-                                // Let's mark any keys added to the node as insecure if the node was provisioned insecurely.
-                                if (!node.isSecurelyProvisioned()) {
-                                    final NetworkKey key = mInternalTransportCallbacks.getMeshNetwork().getNetKey(status.getNetKeyIndex());
-                                    key.markAsInsecure();
-                                }
-                            } else if (mMeshMessage instanceof ConfigNetKeyUpdate) {
-                                node.updateAddedNetKey(status.getNetKeyIndex());
-                            } else if (mMeshMessage instanceof ConfigNetKeyDelete) {
-                                node.removeAddedNetKeyIndex(status.getNetKeyIndex());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NETKEY_LIST) {
-                    final ConfigNetKeyList netKeyList = new ConfigNetKeyList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (netKeyList.isSuccessful()) {
-                            node.updateNetKeyList(netKeyList.getKeyIndexes());
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(netKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), netKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_APPKEY_STATUS) {
-                    final ConfigAppKeyStatus status = new ConfigAppKeyStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            if (mMeshMessage instanceof ConfigAppKeyAdd) {
-                                node.setAddedAppKeyIndex(status.getAppKeyIndex());
-                            } else if (mMeshMessage instanceof ConfigAppKeyUpdate) {
-                                node.updateAddedAppKey(status.getAppKeyIndex());
-                            } else if (mMeshMessage instanceof ConfigAppKeyDelete) {
-                                node.removeAddedAppKeyIndex(status.getAppKeyIndex());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_APPKEY_LIST) {
-                    final ConfigAppKeyList appKeyList = new ConfigAppKeyList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (appKeyList.isSuccessful()) {
-                            node.updateAppKeyList(appKeyList.getNetKeyIndex(), appKeyList.getKeyIndexes(),
-                                    mInternalTransportCallbacks.getApplicationKeys(appKeyList.getNetKeyIndex()));
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(appKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), appKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_MODEL_APP_STATUS) {
-                    final ConfigModelAppStatus status = new ConfigModelAppStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            if (mMeshMessage instanceof ConfigModelAppBind) {
-                                node.setAppKeyBindStatus(status);
-                            } else {
-                                node.setAppKeyUnbindStatus(status);
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_SIG_MODEL_APP_LIST) {
-                    final ConfigSigModelAppList appKeyList = new ConfigSigModelAppList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (appKeyList.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
-                            if (model != null) {
-                                model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(appKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), appKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_APP_LIST) {
-                    final ConfigVendorModelAppList appKeyList = new ConfigVendorModelAppList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (appKeyList.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
-                            if (model != null) {
-                                model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(appKeyList);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), appKeyList);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_STATUS) {
-                    final ConfigModelPublicationStatus status = new ConfigModelPublicationStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                if (mMeshMessage instanceof ConfigModelPublicationGet) {
-                                    model.updatePublicationStatus(status);
-                                } else if (mMeshMessage instanceof ConfigModelPublicationSet) {
-                                    model.setPublicationStatus(status, null);
-                                } else if (mMeshMessage instanceof ConfigModelPublicationVirtualAddressSet) {
-                                    final UUID labelUUID = ((ConfigModelPublicationVirtualAddressSet) mMeshMessage).
-                                            getLabelUuid();
-                                    model.setPublicationStatus(status, labelUUID);
-                                }
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_STATUS) {
-                    final ConfigModelSubscriptionStatus status = new ConfigModelSubscriptionStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                if (mMeshMessage instanceof ConfigModelSubscriptionAdd) {
-                                    model.addSubscriptionAddress(status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressAdd) {
-                                    model.addSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressAdd) mMeshMessage).
-                                            getLabelUuid(), status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionOverwrite) {
-                                    model.overwriteSubscriptionAddress(status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressOverwrite) {
-                                    model.overwriteSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressOverwrite) mMeshMessage).
-                                            getLabelUuid(), status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionDelete) {
-                                    model.removeSubscriptionAddress(status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressDelete) {
-                                    model.removeSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressDelete) mMeshMessage).
-                                            getLabelUuid(), status.getSubscriptionAddress());
-                                } else if (mMeshMessage instanceof ConfigModelSubscriptionDeleteAll) {
-                                    model.removeAllSubscriptionAddresses();
-                                }
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_SIG_MODEL_SUBSCRIPTION_LIST) {
-                    final ConfigSigModelSubscriptionList status = new ConfigSigModelSubscriptionList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
-                            }
-                            createGroups(status.getSubscriptionAddresses());
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_SUBSCRIPTION_LIST) {
-                    final ConfigVendorModelSubscriptionList status = new ConfigVendorModelSubscriptionList(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
-                            if (model != null) {
-                                model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
-                            }
-                            createGroups(status.getSubscriptionAddresses());
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_HEARTBEAT_SUBSCRIPTION_STATUS) {
-                    final ConfigHeartbeatSubscriptionStatus status = new ConfigHeartbeatSubscriptionStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        if (status.isSuccessful()) {
-                            final MeshModel model = getMeshModel(node, message.getSrc(), CONFIGURATION_SERVER);
-                            if (model != null) {
-                                ((ConfigurationServerModel) model).
-                                        setHeartbeatSubscription((!isValidUnassignedAddress(status.getHeartbeatSubscription().getSrc()) ||
-                                                !isValidUnassignedAddress(status.getHeartbeatSubscription().getDst()))
-                                                ? status.getHeartbeatSubscription() : null);
-                            }
-                        }
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NODE_IDENTITY_STATUS) {
-                    final ConfigNodeIdentityStatus status = new ConfigNodeIdentityStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.nodeIdentityState = status.getNodeIdentityState();
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS) {
-                    final ConfigNodeResetStatus status = new ConfigNodeResetStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        mInternalTransportCallbacks.onMeshNodeReset(node);
-                    }
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_NETWORK_TRANSMIT_STATUS) {
-                    final ConfigNetworkTransmitStatus status = new ConfigNetworkTransmitStatus(message);
-                    final NetworkTransmitSettings networkTransmitSettings =
-                            new NetworkTransmitSettings(status.getNetworkTransmitCount(), status.getNetworkTransmitIntervalSteps());
-                    node.setNetworkTransmitSettings(networkTransmitSettings);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_RELAY_STATUS) {
-                    final ConfigRelayStatus status = new ConfigRelayStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        final RelaySettings relaySettings =
-                                new RelaySettings(status.getRelayRetransmitCount(), status.getRelayRetransmitIntervalSteps());
-                        node.setRelaySettings(relaySettings);
-                        // Let's update the feature state based on the status message.
-                        node.nodeFeatures.setRelay(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_BEACON_STATUS) {
-                    final ConfigBeaconStatus status = new ConfigBeaconStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.setSecureNetworkBeaconSupported(status.isEnable());
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_FRIEND_STATUS) {
-                    final ConfigFriendStatus status = new ConfigFriendStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.nodeFeatures.setFriend(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
-                    }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_KEY_REFRESH_PHASE_STATUS) {
-                    final ConfigKeyRefreshPhaseStatus status = new ConfigKeyRefreshPhaseStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_GATT_PROXY_STATUS) {
-                    final ConfigGattProxyStatus status = new ConfigGattProxyStatus(message);
-                    if (!isReceivedViaProxyFilter(message)) {
-                        node.nodeFeatures.setProxy(status.isProxyFeatureEnabled() ? Features.ENABLED : Features.DISABLED);
+            }
+        }
+    }
+
+    void updateSigModelAppList(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigSigModelAppList appKeyList) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (appKeyList.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
+                if (model != null) {
+                    model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
+                }
+            }
+        }
+    }
+
+    void updateVendorModelAppList(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigVendorModelAppList appKeyList) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (appKeyList.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, appKeyList.getElementAddress(), appKeyList.getModelIdentifier());
+                if (model != null) {
+                    model.setBoundAppKeyIndexes(appKeyList.getKeyIndexes());
+                }
+            }
+        }
+    }
+
+    void updateModelPublication(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigModelPublicationStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    if (mMeshMessage instanceof ConfigModelPublicationGet) {
+                        model.updatePublicationStatus(status);
+                    } else if (mMeshMessage instanceof ConfigModelPublicationSet) {
+                        model.setPublicationStatus(status, null);
+                    } else if (mMeshMessage instanceof ConfigModelPublicationVirtualAddressSet) {
+                        final UUID labelUUID = ((ConfigModelPublicationVirtualAddressSet) mMeshMessage).
+                                getLabelUuid();
+                        model.setPublicationStatus(status, labelUUID);
                     }
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ConfigMessageOpCodes.CONFIG_LOW_POWER_NODE_POLLTIMEOUT_STATUS) {
-                    final ConfigLowPowerNodePollTimeoutStatus status = new ConfigLowPowerNodePollTimeoutStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_ON_OFF_STATUS) {
-                    final GenericOnOffStatus status = new GenericOnOffStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_LEVEL_STATUS) {
-                    final GenericLevelStatus genericLevelStatus = new GenericLevelStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericLevelStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericLevelStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_POWER_LEVEL_STATUS) {
-                    final GenericPowerLevelStatus genericPowerLevelStatus = new GenericPowerLevelStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericPowerLevelStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericPowerLevelStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_BATTERY_STATUS) {
-                    final GenericBatteryStatus status = new GenericBatteryStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LIGHTNESS_STATUS) {
-                    final LightLightnessStatus lightLightnessStatus = new LightLightnessStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLightnessStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLightnessStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_CTL_STATUS) {
-                    final LightCtlStatus lightCtlStatus = new LightCtlStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightCtlStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightCtlStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_CTL_TEMPERATURE_RANGE_STATUS) {
-                    final LightCtlTemperatureRangeStatus lightCtlTemperatureRangeStatus = new LightCtlTemperatureRangeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightCtlTemperatureRangeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightCtlTemperatureRangeStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_HSL_STATUS) {
-                    final LightHslStatus lightHslStatus = new LightHslStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightHslStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightHslStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_MODE_STATUS) {
-                    final LightLCModeStatus lightLcModeStatus = new LightLCModeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLcModeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLcModeStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_OCCUPANCY_MODE_STATUS) {
-                    final LightLCOccupancyModeStatus lightLcOccupancyModeStatus = new LightLCOccupancyModeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLcOccupancyModeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLcOccupancyModeStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_LIGHT_ON_OFF_STATUS) {
-                    final LightLCLightOnOffStatus lightLcLightOnOffStatus = new LightLCLightOnOffStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(lightLcLightOnOffStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), lightLcLightOnOffStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.LIGHT_LC_PROPERTY_STATUS) {
-                    final LightLCPropertyStatus status = new LightLCPropertyStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(status);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCENE_REGISTER_STATUS) {
-                    if (mMeshMessage instanceof SceneRegisterGet) {
-                        final SceneRegisterStatus status = new SceneRegisterStatus(message);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    } else if (mMeshMessage instanceof SceneStore) {
-                        final SceneRegisterStatus status = new SceneRegisterStatus(message);
-                        storeScene(node, status);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    } else if (mMeshMessage instanceof SceneRecall) {
-                        final SceneStatus status = new SceneStatus(message);
-                        storeScene(node, status);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    } else if (mMeshMessage instanceof SceneDelete) {
-                        final SceneRegisterStatus status = new SceneRegisterStatus(message);
-                        deleteScene(node, status);
-                        mInternalTransportCallbacks.updateMeshNetwork(status);
-                        mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+                }
+            }
+        }
+    }
+
+    void updateModelSubscription(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigModelSubscriptionStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    if (mMeshMessage instanceof ConfigModelSubscriptionAdd) {
+                        model.addSubscriptionAddress(status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressAdd) {
+                        model.addSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressAdd) mMeshMessage).
+                                getLabelUuid(), status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionOverwrite) {
+                        model.overwriteSubscriptionAddress(status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressOverwrite) {
+                        model.overwriteSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressOverwrite) mMeshMessage).
+                                getLabelUuid(), status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionDelete) {
+                        model.removeSubscriptionAddress(status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionVirtualAddressDelete) {
+                        model.removeSubscriptionAddress(((ConfigModelSubscriptionVirtualAddressDelete) mMeshMessage).
+                                getLabelUuid(), status.getSubscriptionAddress());
+                    } else if (mMeshMessage instanceof ConfigModelSubscriptionDeleteAll) {
+                        model.removeAllSubscriptionAddresses();
                     }
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.SCHEDULER_STATUS) {
-                    final SchedulerStatus schedulerStatus = new SchedulerStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(schedulerStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), schedulerStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.TIME_ZONE_STATUS) {
-                    final TimeZoneStatus timeZoneStatus = new TimeZoneStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(timeZoneStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), timeZoneStatus);
-                } else if (message.getOpCode() == ApplicationMessageOpCodes.GENERIC_DEFAULT_TRANSITION_TIME_STATUS) {
-                    final GenericDefaultTransitionTimeStatus genericDefaultTransitionTimeStatus = new GenericDefaultTransitionTimeStatus(message);
-                    mInternalTransportCallbacks.updateMeshNetwork(genericDefaultTransitionTimeStatus);
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), genericDefaultTransitionTimeStatus);
-                } else {
-                    handleUnknownPdu(message);
                 }
-                break;
-            case 3:
-                if (mMeshMessage instanceof VendorModelMessageAcked) {
-                    final VendorModelMessageAcked vendorModelMessageAcked = (VendorModelMessageAcked) mMeshMessage;
-                    final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageAcked.getModelIdentifier());
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
-                    MeshLogger.verbose(TAG, "Vendor model Access PDU Received: " + MeshParserUtils.bytesToHex(message.getAccessPdu(), false));
-                } else if (mMeshMessage instanceof VendorModelMessageUnacked) {
-                    final VendorModelMessageUnacked vendorModelMessageUnacked = (VendorModelMessageUnacked) mMeshMessage;
-                    final VendorModelMessageStatus status = new VendorModelMessageStatus(message, vendorModelMessageUnacked.getModelIdentifier());
-                    mMeshStatusCallbacks.onMeshMessageReceived(message.getSrc(), status);
+            }
+        }
+    }
+
+    void updateSigModelSubscriptionList(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigSigModelSubscriptionList status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
+                }
+                createGroups(status.getSubscriptionAddresses());
+            }
+        }
+    }
+
+    void updateVendorModelSubscriptionList(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigVendorModelSubscriptionList status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            if (status.isSuccessful()) {
+                final MeshModel model = getMeshModel(node, status.getElementAddress(), status.getModelIdentifier());
+                if (model != null) {
+                    model.updateSubscriptionAddressesList(status.getSubscriptionAddresses());
+                }
+                createGroups(status.getSubscriptionAddresses());
+            }
+        }
+    }
+
+    void updateNodeIdentity(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigNodeIdentityStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            node.nodeIdentityState = status.getNodeIdentityState();
+        }
+    }
+
+    void resetNode(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigNodeResetStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            mInternalTransportCallbacks.onMeshNodeReset(node);
+        }
+    }
+
+    void updateNetworkTransmit(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigNetworkTransmitStatus status) {
+        final NetworkTransmitSettings networkTransmitSettings =
+                new NetworkTransmitSettings(status.getNetworkTransmitCount(), status.getNetworkTransmitIntervalSteps());
+        node.setNetworkTransmitSettings(networkTransmitSettings);
+    }
+
+    void updateRelay(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigRelayStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            final RelaySettings relaySettings =
+                    new RelaySettings(status.getRelayRetransmitCount(), status.getRelayRetransmitIntervalSteps());
+            node.setRelaySettings(relaySettings);
+            // Let's update the feature state based on the status message.
+            node.nodeFeatures.setRelay(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
+        }
+    }
+
+    void updateBeacon(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigBeaconStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            node.setSecureNetworkBeaconSupported(status.isEnable());
+        }
+    }
+
+    void updateFriend(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigFriendStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            node.nodeFeatures.setFriend(status.isEnabled() ? Features.ENABLED : Features.DISABLED);
+        }
+    }
+
+    void updateGattProxy(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final ConfigGattProxyStatus status) {
+        if (!isReceivedViaProxyFilter(message)) {
+            node.nodeFeatures.setProxy(status.isProxyFeatureEnabled() ? Features.ENABLED : Features.DISABLED);
+        }
+    }
+
+    void updateScene(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final SceneStatus sceneStatus) {
+        if (sceneStatus.isSuccessful()) {
+            final MeshModel model = getMeshModel(node, sceneStatus.getSrc(), SCENE_SERVER);
+            if (model != null) {
+                final SceneServer sceneServer = ((SceneServer) model);
+                sceneServer.currentScene = sceneStatus.getCurrentScene();
+                sceneServer.targetScene = sceneStatus.getTargetScene();
+            }
+        }
+    }
+
+    void updateSceneRegister(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final SceneRegisterStatus status) {
+        if (mMeshMessage instanceof SceneStore) {
+            storeScene(node, status);
+        } else if (mMeshMessage instanceof SceneDelete) {
+            deleteScene(node, status);
+        }
+    }
+
+    /**
+     * Decodes the aggregated status messages and updates the mesh network from each of them. Every status message is
+     * handled against the message at the same position in the sequence sent to the node, as if it had been sent alone.
+     */
+    void updateOpcodesAggregator(final ProvisionedMeshNode node, @NonNull final AccessMessage message, @NonNull final OpcodesAggregatorStatus status) {
+        final MeshMessage sequence = mMeshMessage;
+        final List<MeshMessage> requests;
+        if (sequence instanceof ConfigOpcodesAggregatorSequence) {
+            requests = ((ConfigOpcodesAggregatorSequence) sequence).getItems();
+        } else if (sequence instanceof OpcodesAggregatorSequence) {
+            requests = ((OpcodesAggregatorSequence) sequence).getItems();
+        } else {
+            requests = null;
+        }
+        final OpCodeRegistry registry = meshMessageHandlerCallbacks.getOpCodeRegistry();
+        final List<MeshMessage> statusMessages = new ArrayList<>(status.getItems().size());
+        try {
+            for (int i = 0; i < status.getItems().size(); i++) {
+                final AccessMessage item = status.getItems().get(i);
+                mMeshMessage = requests != null && i < requests.size() ? requests.get(i) : null;
+                final OpCodeRegistry.Entry<?> entry = registry.get(item);
+                if (entry != null) {
+                    statusMessages.add(decodeStatus(entry, node, item));
+                } else if (mMeshMessage instanceof VendorModelMessageAcked) {
+                    statusMessages.add(new VendorModelMessageStatus(item, ((VendorModelMessageAcked) mMeshMessage).getModelIdentifier()));
                 } else {
-                    handleUnknownPdu(message);
+                    MeshLogger.verbose(TAG, () -> "Unknown aggregated Access PDU Received: " + MeshParserUtils.bytesToHex(item.getAccessPdu(), false));
                 }
-                break;
+            }
+        } finally {
+            mMeshMessage = sequence;
         }
+        status.setStatusMessages(statusMessages);
     }
 
     private void handleUnknownPdu(final AccessMessage message) {
-        MeshLogger.verbose(TAG, "Unknown Access PDU Received: " + MeshParserUtils.bytesToHex(message.getAccessPdu(), false));
+        MeshLogger.verbose(TAG, () -> "Unknown Access PDU Received: " + MeshParserUtils.bytesToHex(message.getAccessPdu(), false));
         mMeshStatusCallbacks.onUnknownPduReceived(message.getSrc(), message.getAccessPdu());
     }
 
@@ -554,11 +464,11 @@ class DefaultNoOperationMessageState extends MeshMessageState {
      */
     private void parseControlMessage(final ControlMessage controlMessage) {
         //Get the segment count count of the access message
-        final int segmentCount = message.getNetworkLayerPdu().size();
+        final int segmentCount = message.getNetworkLayerPduMap().size();
         if (controlMessage.getPduType() == MeshManagerApi.PDU_TYPE_NETWORK) {
             final TransportControlMessage transportControlMessage = controlMessage.getTransportControlMessage();
             if (transportControlMessage.getState() == TransportControlMessage.TransportControlMessageState.LOWER_TRANSPORT_BLOCK_ACKNOWLEDGEMENT) {
-                MeshLogger.verbose(TAG, "Acknowledgement payload: " + MeshParserUtils.bytesToHex(controlMessage.getTransportControlPdu(), false));
+                MeshLogger.verbose(TAG, () -> "Acknowledgement payload: " + MeshParserUtils.bytesToHex(controlMessage.getTransportControlPdu(), false));
                 final ArrayList<Integer> retransmitPduIndexes = BlockAcknowledgementMessage.getSegmentsToBeRetransmitted(controlMessage.getTransportControlPdu(), segmentCount);
                 mMeshStatusCallbacks.onBlockAcknowledgementReceived(controlMessage.getSrc(), controlMessage);
                 executeResend(retransmitPduIndexes);
@@ -581,9 +491,7 @@ class DefaultNoOperationMessageState extends MeshMessageState {
                 } else if (mMeshMessage instanceof ProxyConfigAddAddressToFilter) {
                     filter = updateProxyFilter(mInternalTransportCallbacks.getProxyFilter(), status.getFilterType());
                     final ProxyConfigAddAddressToFilter addAddressToFilter = (ProxyConfigAddAddressToFilter) mMeshMessage;
-                    for (AddressArray addressArray : addAddressToFilter.getAddresses()) {
-                        filter.addAddress(addressArray);
-                    }
+                    filter.addAddresses(addAddressToFilter.getAddresses());
                     mInternalTransportCallbacks.setProxyFilter(filter);
                     mInternalTransportCallbacks.updateMeshNetwork(status);
                     mMeshStatusCallbacks.onMeshMessageReceived(controlMessage.getSrc(), status);
@@ -591,9 +499,7 @@ class DefaultNoOperationMessageState extends MeshMessageState {
                 } else if (mMeshMessage instanceof ProxyConfigRemoveAddressFromFilter) {
                     filter = updateProxyFilter(mInternalTransportCallbacks.getProxyFilter(), status.getFilterType());
                     final ProxyConfigRemoveAddressFromFilter removeAddressFromFilter = (ProxyConfigRemoveAddressFromFilter) mMeshMessage;
-                    for (AddressArray addressArray : removeAddressFromFilter.getAddresses()) {
-                        filter.removeAddress(addressArray);
-                    }
+                    filter.removeAddresses(removeAddressFromFilter.getAddresses());
                     mInternalTransportCallbacks.setProxyFilter(filter);
                     mInternalTransportCallbacks.updateMeshNetwork(status);
                     mMeshStatusCallbacks.onMeshMessageReceived(controlMessage.getSrc(), status);
@@ -620,21 +526,11 @@ class DefaultNoOperationMessageState extends MeshMessageState {
     @SuppressWarnings("BooleanMethodIsAlwaysInverted")
     private boolean isReceivedViaProxyFilter(@NonNull final Message message) {
         final ProxyFilter filter = mInternalTransportCallbacks.getProxyFilter();
-        if (filter != null && !filter.getAddresses().isEmpty()) {
+        if (filter != null && !filter.isEmpty()) {
             if (filter.getFilterType().getType() == ProxyFilterType.INCLUSION_LIST_FILTER) {
-                return filterAddressMatches(filter, message.getDst());
+                return filter.contains(message.getDst());
             } else {
-                return !filterAddressMatches(filter, message.getDst());
-            }
-        }
-        return false;
-    }
-
-    private boolean filterAddressMatches(@NonNull final ProxyFilter filter, final int dst) {
-        for (AddressArray addressArray : filter.getAddresses()) {
-            final int address = MeshParserUtils.unsignedBytesToInt(addressArray.getAddress()[1], addressArray.getAddress()[0]);
-            if (address == dst) {
-                return true;
+                return !filter.contains(message.getDst());
             }
         }
         return false;
@@ -667,18 +563,7 @@ class DefaultNoOperationMessageState extends MeshMessageState {
             final SceneServer sceneServer = (SceneServer) getMeshModel(node, status.getSrc(), SCENE_SERVER);
             if (sceneServer != null) {
                 mInternalTransportCallbacks.storeScene(status.getSrc(), status.getCurrentScene(), status.getSceneList());
-                if (!sceneServer.sceneNumbers.contains(status.getCurrentScene())) {
-                    sceneServer.sceneNumbers.add(status.getCurrentScene());
-                }
-                sceneServer.currentScene = status.getCurrentScene();
-            }
-        }
-    }
-
-    private void storeScene(final ProvisionedMeshNode node, final SceneStatus status) {
-        if (status.isSuccessful()) {
-            final SceneServer sceneServer = (SceneServer) getMeshModel(node, status.getSrc(), SCENE_SERVER);
-            if (sceneServer != null) {
+                sceneServer.addSceneNumber(status.getCurrentScene());
                 sceneServer.currentScene = status.getCurrentScene();
             }
         }
@@ -690,8 +575,7 @@ class DefaultNoOperationMessageState extends MeshMessageState {
             if (sceneServer != null) {
                 final int deletedScene = ((SceneDelete) mMeshMessage).getSceneNumber();
                 mInternalTransportCallbacks.deleteScene(status.getSrc(), deletedScene, status.getSceneList());
-                if (sceneServer.sceneNumbers.contains(deletedScene))
-                    sceneServer.sceneNumbers.remove((Integer) deletedScene);
+                sceneServer.removeSceneNumber(deletedScene);
             }
         }
     }
@@ -0,0 +1,48 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareDistributionFirmwareGet extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_FIRMWARE_GET;
+
+    private final FirmwareId mFirmwareId;
+
+    /**
+     * Firmware Distribution Firmware Get is an acknowledged message used to find a firmware image stored on a Firmware Distribution Server (see Mesh DFU Spec. v1.0 Section 8).
+     * The response to the Firmware Distribution Firmware Get message is a {@link FirmwareDistributionFirmwareStatus} message.
+     *
+     * @param appKey     {@link ApplicationKey} key for this message
+     * @param firmwareId Firmware ID of the firmware image
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareDistributionFirmwareGet(@NonNull final ApplicationKey appKey,
+                                           @NonNull final FirmwareId firmwareId) throws IllegalArgumentException {
+        super(appKey);
+        this.mFirmwareId = firmwareId;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = mFirmwareId.toByteArray();
+    }
+
+    /**
+     * Returns the Firmware ID of the firmware image.
+     */
+    @NonNull
+    public FirmwareId getFirmwareId() {
+        return mFirmwareId;
+    }
+}
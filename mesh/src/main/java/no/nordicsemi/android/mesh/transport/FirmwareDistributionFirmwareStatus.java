@@ -0,0 +1,120 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the FirmwareDistributionFirmwareStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class FirmwareDistributionFirmwareStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = FirmwareDistributionFirmwareStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_FIRMWARE_STATUS;
+    private static final int FIRMWARE_ID_OFFSET = 5;
+
+    // Reported when no firmware image matches the request
+    public static final int FIRMWARE_IMAGE_INDEX_NOT_FOUND = 0xFFFF;
+
+    private int mStatus;
+    private int mEntryCount;
+    private int mFirmwareImageIndex;
+    private FirmwareId mFirmwareId;
+
+    private static final Creator<FirmwareDistributionFirmwareStatus> CREATOR = new Creator<FirmwareDistributionFirmwareStatus>() {
+        @Override
+        public FirmwareDistributionFirmwareStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new FirmwareDistributionFirmwareStatus(message);
+        }
+
+        @Override
+        public FirmwareDistributionFirmwareStatus[] newArray(int size) {
+            return new FirmwareDistributionFirmwareStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the FirmwareDistributionFirmwareStatus message.
+     *
+     * @param message Access Message
+     */
+    public FirmwareDistributionFirmwareStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters).order(ByteOrder.LITTLE_ENDIAN);
+        mStatus = buffer.get() & 0xFF;
+        mEntryCount = buffer.getShort() & 0xFFFF;
+        mFirmwareImageIndex = buffer.getShort() & 0xFFFF;
+        mFirmwareId = FirmwareId.parse(mParameters, FIRMWARE_ID_OFFSET, mParameters.length - FIRMWARE_ID_OFFSET);
+        MeshLogger.verbose(TAG, () -> "Received firmware distribution firmware status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", status: " + mStatus + ", image index: " + mFirmwareImageIndex + ", firmware ID: " + mFirmwareId);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the status code of the last operation, one of the status codes of {@link FirmwareDistributionStatus}.
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns true if the last operation was successful.
+     */
+    public boolean isSuccessful() {
+        return mStatus == FirmwareDistributionStatus.STATUS_SUCCESS;
+    }
+
+    /**
+     * Returns the number of firmware images stored on the distributor.
+     */
+    public int getEntryCount() {
+        return mEntryCount;
+    }
+
+    /**
+     * Returns the index of the firmware image or {@link #FIRMWARE_IMAGE_INDEX_NOT_FOUND}.
+     */
+    public int getFirmwareImageIndex() {
+        return mFirmwareImageIndex;
+    }
+
+    /**
+     * Returns the Firmware ID of the firmware image or null if not reported.
+     */
+    @Nullable
+    public FirmwareId getFirmwareId() {
+        return mFirmwareId;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
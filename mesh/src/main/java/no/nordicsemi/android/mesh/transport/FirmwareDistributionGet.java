@@ -0,0 +1,34 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareDistributionGet extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_GET;
+
+    /**
+     * Firmware Distribution Get is an acknowledged message used to get the state of the firmware distribution on a Firmware Distribution Server (see Mesh DFU Spec. v1.0 Section 8).
+     * The response to the Firmware Distribution Get message is a {@link FirmwareDistributionStatus} message.
+     *
+     * @param appKey {@link ApplicationKey} key for this message
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareDistributionGet(@NonNull final ApplicationKey appKey) throws IllegalArgumentException {
+        super(appKey);
+        assembleMessageParameters();
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+}
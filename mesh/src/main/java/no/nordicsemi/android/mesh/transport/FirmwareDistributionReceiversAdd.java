@@ -0,0 +1,71 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareDistributionReceiversAdd extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_ADD;
+    private static final int RECEIVER_ENTRY_LENGTH = 3;
+    // Entries that fit in the largest access message along with the 2 octet opcode
+    public static final int MAX_RECEIVERS = 126;
+
+    private final int[] mAddresses;
+    private final int[] mFirmwareImageIndexes;
+
+    /**
+     * Firmware Distribution Receivers Add is an acknowledged message used to add receivers to the list of a Firmware Distribution Server (see Mesh DFU Spec. v1.0 Section 8).
+     * The response to the Firmware Distribution Receivers Add message is a {@link FirmwareDistributionReceiversStatus} message.
+     *
+     * @param appKey               {@link ApplicationKey} key for this message
+     * @param addresses            Unicast addresses of the receivers
+     * @param firmwareImageIndexes Index of the firmware image to be updated on each receiver
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareDistributionReceiversAdd(@NonNull final ApplicationKey appKey,
+                                            @NonNull final int[] addresses,
+                                            @NonNull final int[] firmwareImageIndexes) throws IllegalArgumentException {
+        super(appKey);
+        if (addresses.length == 0 || addresses.length > MAX_RECEIVERS)
+            throw new IllegalArgumentException("Number of receivers must be in range 1 to " + MAX_RECEIVERS);
+        if (addresses.length != firmwareImageIndexes.length)
+            throw new IllegalArgumentException("A firmware image index must be given for each receiver");
+        for (int i = 0; i < addresses.length; i++) {
+            if (!MeshAddress.isValidUnicastAddress(addresses[i]))
+                throw new IllegalArgumentException("Receiver address must be a unicast address");
+            if (firmwareImageIndexes[i] < 0 || firmwareImageIndexes[i] > 0xFF)
+                throw new IllegalArgumentException("Firmware image index must be an 8-bit value");
+        }
+        this.mAddresses = addresses.clone();
+        this.mFirmwareImageIndexes = firmwareImageIndexes.clone();
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        final ByteBuffer buffer = ByteBuffer.allocate(mAddresses.length * RECEIVER_ENTRY_LENGTH).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < mAddresses.length; i++) {
+            buffer.putShort((short) mAddresses[i]).put((byte) mFirmwareImageIndexes[i]);
+        }
+        mParameters = buffer.array();
+    }
+
+    /**
+     * Returns the number of receivers added by this message.
+     */
+    public int getReceiverCount() {
+        return mAddresses.length;
+    }
+}
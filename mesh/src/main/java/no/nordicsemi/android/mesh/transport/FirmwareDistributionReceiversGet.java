@@ -0,0 +1,68 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareDistributionReceiversGet extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_GET;
+    private static final int FIRMWARE_DISTRIBUTION_RECEIVERS_GET_PARAMS_LENGTH = 4;
+
+    private final int mFirstIndex;
+    private final int mEntriesLimit;
+
+    /**
+     * Firmware Distribution Receivers Get is an acknowledged message used to get the state of the receivers of a Firmware Distribution Server (see Mesh DFU Spec. v1.0 Section 8).
+     * The response to the Firmware Distribution Receivers Get message is a {@link FirmwareDistributionReceiversList} message.
+     *
+     * @param appKey       {@link ApplicationKey} key for this message
+     * @param firstIndex   Index of the first receiver requested
+     * @param entriesLimit Maximum number of receivers to be returned, at least 1
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareDistributionReceiversGet(@NonNull final ApplicationKey appKey,
+                                            final int firstIndex,
+                                            final int entriesLimit) throws IllegalArgumentException {
+        super(appKey);
+        if (firstIndex < 0 || firstIndex > 0xFFFF)
+            throw new IllegalArgumentException("First index must be a 16-bit value");
+        if (entriesLimit < 1 || entriesLimit > 0xFFFF)
+            throw new IllegalArgumentException("Entries limit must be in range 1 to 0xFFFF");
+        this.mFirstIndex = firstIndex;
+        this.mEntriesLimit = entriesLimit;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = ByteBuffer.allocate(FIRMWARE_DISTRIBUTION_RECEIVERS_GET_PARAMS_LENGTH).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) mFirstIndex)
+                .putShort((short) mEntriesLimit)
+                .array();
+    }
+
+    /**
+     * Returns the index of the first receiver requested.
+     */
+    public int getFirstIndex() {
+        return mFirstIndex;
+    }
+
+    /**
+     * Returns the maximum number of receivers to be returned.
+     */
+    public int getEntriesLimit() {
+        return mEntriesLimit;
+    }
+}
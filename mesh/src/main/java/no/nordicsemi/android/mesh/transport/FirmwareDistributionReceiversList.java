@@ -0,0 +1,194 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the FirmwareDistributionReceiversList Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class FirmwareDistributionReceiversList extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = FirmwareDistributionReceiversList.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_LIST;
+    private static final int RECEIVERS_OFFSET = 4;
+    private static final int RECEIVER_ENTRY_LENGTH = 5;
+
+    private int mReceiversListCount;
+    private int mFirstIndex;
+    private List<ReceiverEntry> mReceivers;
+
+    /**
+     * State of a receiver of a Firmware Distribution Server.
+     */
+    public static final class ReceiverEntry {
+        private final int address;
+        private final int updatePhase;
+        private final int updateStatus;
+        private final int transferStatus;
+        private final int transferProgress;
+        private final int firmwareImageIndex;
+
+        private ReceiverEntry(final int address,
+                              final int updatePhase,
+                              final int updateStatus,
+                              final int transferStatus,
+                              final int transferProgress,
+                              final int firmwareImageIndex) {
+            this.address = address;
+            this.updatePhase = updatePhase;
+            this.updateStatus = updateStatus;
+            this.transferStatus = transferStatus;
+            this.transferProgress = transferProgress;
+            this.firmwareImageIndex = firmwareImageIndex;
+        }
+
+        /**
+         * Returns the unicast address of the receiver.
+         */
+        public int getAddress() {
+            return address;
+        }
+
+        /**
+         * Returns the last update phase retrieved from the receiver, one of the phases of {@link FirmwareUpdateStatus}.
+         */
+        public int getUpdatePhase() {
+            return updatePhase;
+        }
+
+        /**
+         * Returns the status of the last firmware update message exchanged with the receiver, one of the status
+         * codes of {@link FirmwareUpdateStatus}.
+         */
+        public int getUpdateStatus() {
+            return updateStatus;
+        }
+
+        /**
+         * Returns the status of the last BLOB transfer message exchanged with the receiver, one of the status codes
+         * of {@link BlobTransferStatus}.
+         */
+        public int getTransferStatus() {
+            return transferStatus;
+        }
+
+        /**
+         * Returns the progress of the BLOB transfer to the receiver in percent.
+         */
+        public int getTransferProgress() {
+            return transferProgress;
+        }
+
+        /**
+         * Returns the index of the firmware image being updated on the receiver.
+         */
+        public int getFirmwareImageIndex() {
+            return firmwareImageIndex;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "ReceiverEntry{address=" + MeshAddress.formatAddress(address, true) + ", updatePhase=" + updatePhase +
+                    ", updateStatus=" + updateStatus + ", transferStatus=" + transferStatus +
+                    ", transferProgress=" + transferProgress + "%, firmwareImageIndex=" + firmwareImageIndex + "}";
+        }
+    }
+
+    private static final Creator<FirmwareDistributionReceiversList> CREATOR = new Creator<FirmwareDistributionReceiversList>() {
+        @Override
+        public FirmwareDistributionReceiversList createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new FirmwareDistributionReceiversList(message);
+        }
+
+        @Override
+        public FirmwareDistributionReceiversList[] newArray(int size) {
+            return new FirmwareDistributionReceiversList[size];
+        }
+    };
+
+    /**
+     * Constructs the FirmwareDistributionReceiversList message.
+     *
+     * @param message Access Message
+     */
+    public FirmwareDistributionReceiversList(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters).order(ByteOrder.LITTLE_ENDIAN);
+        mReceiversListCount = buffer.getShort() & 0xFFFF;
+        mFirstIndex = buffer.getShort() & 0xFFFF;
+        final List<ReceiverEntry> receivers = new ArrayList<>((mParameters.length - RECEIVERS_OFFSET) / RECEIVER_ENTRY_LENGTH);
+        while (buffer.remaining() >= RECEIVER_ENTRY_LENGTH) {
+            // Address (15 bits), update phase (4 bits), update status (3 bits), transfer status (4 bits)
+            // and transfer progress in units of 2 percent (6 bits)
+            final int entry = buffer.getInt();
+            final int firmwareImageIndex = buffer.get() & 0xFF;
+            receivers.add(new ReceiverEntry(entry & 0x7FFF,
+                    (entry >>> 15) & 0x0F,
+                    (entry >>> 19) & 0x07,
+                    (entry >>> 22) & 0x0F,
+                    ((entry >>> 26) & 0x3F) * 2,
+                    firmwareImageIndex));
+        }
+        mReceivers = Collections.unmodifiableList(receivers);
+        MeshLogger.verbose(TAG, () -> "Received firmware distribution receivers list from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", receivers: " + mReceiversListCount + ", first index: " + mFirstIndex + ", entries: " + mReceivers);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the total number of receivers in the list of the server.
+     */
+    public int getReceiversListCount() {
+        return mReceiversListCount;
+    }
+
+    /**
+     * Returns the index of the first receiver in this message.
+     */
+    public int getFirstIndex() {
+        return mFirstIndex;
+    }
+
+    /**
+     * Returns the receivers reported in this message.
+     */
+    @NonNull
+    public List<ReceiverEntry> getReceivers() {
+        return mReceivers;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
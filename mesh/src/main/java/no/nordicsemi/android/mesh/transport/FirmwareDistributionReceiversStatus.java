@@ -0,0 +1,91 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the FirmwareDistributionReceiversStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class FirmwareDistributionReceiversStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = FirmwareDistributionReceiversStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_STATUS;
+
+    private int mStatus;
+    private int mReceiversListCount;
+
+    private static final Creator<FirmwareDistributionReceiversStatus> CREATOR = new Creator<FirmwareDistributionReceiversStatus>() {
+        @Override
+        public FirmwareDistributionReceiversStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new FirmwareDistributionReceiversStatus(message);
+        }
+
+        @Override
+        public FirmwareDistributionReceiversStatus[] newArray(int size) {
+            return new FirmwareDistributionReceiversStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the FirmwareDistributionReceiversStatus message.
+     *
+     * @param message Access Message
+     */
+    public FirmwareDistributionReceiversStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        mStatus = mParameters[0] & 0xFF;
+        mReceiversListCount = (mParameters[1] & 0xFF) | (mParameters[2] & 0xFF) << 8;
+        MeshLogger.verbose(TAG, () -> "Received firmware distribution receivers status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", status: " + mStatus + ", receivers: " + mReceiversListCount);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the status code of the last operation, one of the status codes of {@link FirmwareDistributionStatus}.
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns true if the last operation was successful.
+     */
+    public boolean isSuccessful() {
+        return mStatus == FirmwareDistributionStatus.STATUS_SUCCESS;
+    }
+
+    /**
+     * Returns the number of receivers in the list of the server.
+     */
+    public int getReceiversListCount() {
+        return mReceiversListCount;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,128 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.IntDef;
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareDistributionStart extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_START;
+    private static final int FIRMWARE_DISTRIBUTION_START_PARAMS_LENGTH = 10;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({UPDATE_POLICY_VERIFY_ONLY, UPDATE_POLICY_VERIFY_AND_APPLY})
+    public @interface UpdatePolicy {
+    }
+
+    public static final int UPDATE_POLICY_VERIFY_ONLY = 0x00; //Receivers wait for a Firmware Distribution Apply
+    public static final int UPDATE_POLICY_VERIFY_AND_APPLY = 0x01; //Receivers apply the firmware once verified
+
+    private final int mAppKeyIndex;
+    private final int mTtl;
+    private final int mTimeoutBase;
+    private final int mTransferMode;
+    private final int mUpdatePolicy;
+    private final int mFirmwareImageIndex;
+    private final int mMulticastAddress;
+
+    /**
+     * Firmware Distribution Start is an acknowledged message used to start distributing a firmware image to the receivers of a Firmware Distribution Server (see Mesh DFU Spec. v1.0 Section 8).
+     * The response to the Firmware Distribution Start message is a {@link FirmwareDistributionStatus} message.
+     *
+     * @param appKey             {@link ApplicationKey} key for this message
+     * @param appKeyIndex        Index of the application key used by the distributor to communicate with the receivers
+     * @param ttl                TTL used by the distributor
+     * @param timeoutBase        Timeout base of the BLOB transfer to the receivers
+     * @param transferMode       BLOB transfer mode, {@link BlobTransferStart#TRANSFER_MODE_PUSH} or {@link BlobTransferStart#TRANSFER_MODE_PULL}
+     * @param updatePolicy       {@link #UPDATE_POLICY_VERIFY_ONLY} or {@link #UPDATE_POLICY_VERIFY_AND_APPLY}
+     * @param firmwareImageIndex Index of the firmware image to be distributed in the list of the distributor
+     * @param multicastAddress   Group address the receivers are subscribed to, or {@link MeshAddress#UNASSIGNED_ADDRESS} to send the image to each receiver
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareDistributionStart(@NonNull final ApplicationKey appKey,
+                                     final int appKeyIndex,
+                                     final int ttl,
+                                     final int timeoutBase,
+                                     @BlobTransferStart.TransferMode final int transferMode,
+                                     @UpdatePolicy final int updatePolicy,
+                                     final int firmwareImageIndex,
+                                     final int multicastAddress) throws IllegalArgumentException {
+        super(appKey);
+        if (appKeyIndex < 0 || appKeyIndex > 0xFFF)
+            throw new IllegalArgumentException("Application key index must be a 12-bit value");
+        if (ttl < 0 || ttl > 0xFF)
+            throw new IllegalArgumentException("TTL must be an 8-bit value");
+        if (timeoutBase < 0 || timeoutBase > 0xFFFF)
+            throw new IllegalArgumentException("Timeout base must be a 16-bit value");
+        if (transferMode != BlobTransferStart.TRANSFER_MODE_PUSH && transferMode != BlobTransferStart.TRANSFER_MODE_PULL)
+            throw new IllegalArgumentException("Invalid transfer mode: " + transferMode);
+        if (updatePolicy != UPDATE_POLICY_VERIFY_ONLY && updatePolicy != UPDATE_POLICY_VERIFY_AND_APPLY)
+            throw new IllegalArgumentException("Invalid update policy: " + updatePolicy);
+        if (firmwareImageIndex < 0 || firmwareImageIndex > 0xFFFF)
+            throw new IllegalArgumentException("Firmware image index must be a 16-bit value");
+        if (multicastAddress != MeshAddress.UNASSIGNED_ADDRESS && !MeshAddress.isValidGroupAddress(multicastAddress))
+            throw new IllegalArgumentException("Multicast address must be a group address");
+        this.mAppKeyIndex = appKeyIndex;
+        this.mTtl = ttl;
+        this.mTimeoutBase = timeoutBase;
+        this.mTransferMode = transferMode;
+        this.mUpdatePolicy = updatePolicy;
+        this.mFirmwareImageIndex = firmwareImageIndex;
+        this.mMulticastAddress = multicastAddress;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = ByteBuffer.allocate(FIRMWARE_DISTRIBUTION_START_PARAMS_LENGTH).order(ByteOrder.LITTLE_ENDIAN)
+                .putShort((short) mAppKeyIndex)
+                .put((byte) mTtl)
+                .putShort((short) mTimeoutBase)
+                .put((byte) (mTransferMode | mUpdatePolicy << 2))
+                .putShort((short) mFirmwareImageIndex)
+                .putShort((short) mMulticastAddress)
+                .array();
+    }
+
+    /**
+     * Returns the BLOB transfer mode used by the distributor.
+     */
+    public int getTransferMode() {
+        return mTransferMode;
+    }
+
+    /**
+     * Returns the update policy.
+     */
+    public int getUpdatePolicy() {
+        return mUpdatePolicy;
+    }
+
+    /**
+     * Returns the index of the firmware image to be distributed.
+     */
+    public int getFirmwareImageIndex() {
+        return mFirmwareImageIndex;
+    }
+
+    /**
+     * Returns the group address the image is sent to.
+     */
+    public int getMulticastAddress() {
+        return mMulticastAddress;
+    }
+}
@@ -0,0 +1,189 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the FirmwareDistributionStatus Message.
+ * <p>
+ * The status codes defined here are shared by all messages of the Firmware Distribution Server.
+ * </p>
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class FirmwareDistributionStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = FirmwareDistributionStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_STATUS;
+    private static final int FIRMWARE_DISTRIBUTION_STATUS_FULL_LENGTH = 12;
+
+    public static final int STATUS_SUCCESS = 0x00;
+    public static final int STATUS_INSUFFICIENT_RESOURCES = 0x01;
+    public static final int STATUS_WRONG_PHASE = 0x02;
+    public static final int STATUS_INTERNAL_ERROR = 0x03;
+    public static final int STATUS_FIRMWARE_NOT_FOUND = 0x04;
+    public static final int STATUS_INVALID_APPKEY_INDEX = 0x05;
+    public static final int STATUS_RECEIVERS_LIST_EMPTY = 0x06;
+    public static final int STATUS_BUSY_WITH_DISTRIBUTION = 0x07;
+    public static final int STATUS_BUSY_WITH_UPLOAD = 0x08;
+    public static final int STATUS_URI_NOT_SUPPORTED = 0x09;
+    public static final int STATUS_URI_MALFORMED = 0x0A;
+    public static final int STATUS_URI_UNREACHABLE = 0x0B;
+    public static final int STATUS_NEW_FIRMWARE_NOT_AVAILABLE = 0x0C;
+    public static final int STATUS_SUSPEND_FAILED = 0x0D;
+
+    public static final int PHASE_IDLE = 0x00;
+    public static final int PHASE_TRANSFER_ACTIVE = 0x01;
+    public static final int PHASE_TRANSFER_SUCCESS = 0x02;
+    public static final int PHASE_APPLYING_UPDATE = 0x03;
+    public static final int PHASE_COMPLETED = 0x04;
+    public static final int PHASE_FAILED = 0x05;
+    public static final int PHASE_CANCELLING_UPDATE = 0x06;
+    public static final int PHASE_TRANSFER_SUSPENDED = 0x07;
+
+    private int mStatus;
+    private int mDistributionPhase;
+    private int mMulticastAddress;
+    private int mAppKeyIndex;
+    private int mTtl;
+    private int mTimeoutBase;
+    private int mTransferMode;
+    private int mUpdatePolicy;
+    private int mFirmwareImageIndex;
+
+    private static final Creator<FirmwareDistributionStatus> CREATOR = new Creator<FirmwareDistributionStatus>() {
+        @Override
+        public FirmwareDistributionStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new FirmwareDistributionStatus(message);
+        }
+
+        @Override
+        public FirmwareDistributionStatus[] newArray(int size) {
+            return new FirmwareDistributionStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the FirmwareDistributionStatus message.
+     *
+     * @param message Access Message
+     */
+    public FirmwareDistributionStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters).order(ByteOrder.LITTLE_ENDIAN);
+        mStatus = buffer.get() & 0xFF;
+        mDistributionPhase = buffer.get() & 0xFF;
+        if (mParameters.length >= FIRMWARE_DISTRIBUTION_STATUS_FULL_LENGTH) {
+            mMulticastAddress = buffer.getShort() & 0xFFFF;
+            mAppKeyIndex = buffer.getShort() & 0xFFFF;
+            mTtl = buffer.get() & 0xFF;
+            mTimeoutBase = buffer.getShort() & 0xFFFF;
+            final int octet = buffer.get() & 0xFF;
+            mTransferMode = octet & 0x03;
+            mUpdatePolicy = (octet >> 2) & 0x01;
+            mFirmwareImageIndex = buffer.getShort() & 0xFFFF;
+        }
+        MeshLogger.verbose(TAG, () -> "Received firmware distribution status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", status: " + mStatus + ", phase: " + mDistributionPhase);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the status code of the last operation.
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns true if the last operation was successful.
+     */
+    public boolean isSuccessful() {
+        return mStatus == STATUS_SUCCESS;
+    }
+
+    /**
+     * Returns the phase of the firmware distribution.
+     */
+    public int getDistributionPhase() {
+        return mDistributionPhase;
+    }
+
+    /**
+     * Returns the group address the image is sent to, 0 if not reported or sent to each receiver.
+     */
+    public int getMulticastAddress() {
+        return mMulticastAddress;
+    }
+
+    /**
+     * Returns the index of the application key used by the distributor, 0 if not reported.
+     */
+    public int getAppKeyIndex() {
+        return mAppKeyIndex;
+    }
+
+    /**
+     * Returns the TTL used by the distributor, 0 if not reported.
+     */
+    public int getTtl() {
+        return mTtl;
+    }
+
+    /**
+     * Returns the timeout base of the BLOB transfer, 0 if not reported.
+     */
+    public int getTimeoutBase() {
+        return mTimeoutBase;
+    }
+
+    /**
+     * Returns the BLOB transfer mode used by the distributor, 0 if not reported.
+     */
+    public int getTransferMode() {
+        return mTransferMode;
+    }
+
+    /**
+     * Returns the update policy of the distribution, 0 if not reported.
+     */
+    public int getUpdatePolicy() {
+        return mUpdatePolicy;
+    }
+
+    /**
+     * Returns the index of the firmware image being distributed, 0 if not reported.
+     */
+    public int getFirmwareImageIndex() {
+        return mFirmwareImageIndex;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,107 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareDistributionUploadStart extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_UPLOAD_START;
+    private static final int FIRMWARE_DISTRIBUTION_UPLOAD_START_PARAMS_LENGTH = 16;
+    public static final int MAX_METADATA_LENGTH = 255;
+
+    private final int mTtl;
+    private final int mTimeoutBase;
+    private final long mBlobId;
+    private final long mFirmwareSize;
+    private final byte[] mMetadata;
+    private final FirmwareId mFirmwareId;
+
+    /**
+     * Firmware Distribution Upload Start is an acknowledged message used to start uploading a firmware image to a Firmware Distribution Server (see Mesh DFU Spec. v1.0 Section 8).
+     * The image is then sent using a BLOB transfer with the given BLOB ID.
+     * The response to the Firmware Distribution Upload Start message is a {@link FirmwareDistributionUploadStatus} message.
+     *
+     * @param appKey       {@link ApplicationKey} key for this message
+     * @param ttl          TTL used by the distributor for the BLOB transfer
+     * @param timeoutBase  Timeout base of the BLOB transfer
+     * @param blobId       64-bit identifier of the BLOB containing the firmware image
+     * @param firmwareSize Size of the firmware image in octets
+     * @param metadata     Metadata of the firmware image, or null
+     * @param firmwareId   Firmware ID of the firmware image
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareDistributionUploadStart(@NonNull final ApplicationKey appKey,
+                                           final int ttl,
+                                           final int timeoutBase,
+                                           final long blobId,
+                                           final long firmwareSize,
+                                           @Nullable final byte[] metadata,
+                                           @NonNull final FirmwareId firmwareId) throws IllegalArgumentException {
+        super(appKey);
+        if (ttl < 0 || ttl > 0xFF)
+            throw new IllegalArgumentException("TTL must be an 8-bit value");
+        if (timeoutBase < 0 || timeoutBase > 0xFFFF)
+            throw new IllegalArgumentException("Timeout base must be a 16-bit value");
+        if (firmwareSize < 1 || firmwareSize > 0xFFFFFFFFL)
+            throw new IllegalArgumentException("Firmware size must be in range 1 to 0xFFFFFFFF");
+        if (metadata != null && metadata.length > MAX_METADATA_LENGTH)
+            throw new IllegalArgumentException("Metadata cannot be longer than " + MAX_METADATA_LENGTH + " octets");
+        this.mTtl = ttl;
+        this.mTimeoutBase = timeoutBase;
+        this.mBlobId = blobId;
+        this.mFirmwareSize = firmwareSize;
+        this.mMetadata = metadata == null ? new byte[0] : metadata.clone();
+        this.mFirmwareId = firmwareId;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        final byte[] firmwareId = mFirmwareId.toByteArray();
+        mParameters = ByteBuffer.allocate(FIRMWARE_DISTRIBUTION_UPLOAD_START_PARAMS_LENGTH + mMetadata.length + firmwareId.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) mTtl)
+                .putShort((short) mTimeoutBase)
+                .putLong(mBlobId)
+                .putInt((int) mFirmwareSize)
+                .put((byte) mMetadata.length)
+                .put(mMetadata)
+                .put(firmwareId)
+                .array();
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB containing the firmware image.
+     */
+    public long getBlobId() {
+        return mBlobId;
+    }
+
+    /**
+     * Returns the size of the firmware image in octets.
+     */
+    public long getFirmwareSize() {
+        return mFirmwareSize;
+    }
+
+    /**
+     * Returns the Firmware ID of the firmware image.
+     */
+    @NonNull
+    public FirmwareId getFirmwareId() {
+        return mFirmwareId;
+    }
+}
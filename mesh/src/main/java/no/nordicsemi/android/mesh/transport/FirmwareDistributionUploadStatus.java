@@ -0,0 +1,129 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the FirmwareDistributionUploadStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class FirmwareDistributionUploadStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = FirmwareDistributionUploadStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_UPLOAD_STATUS;
+    private static final int FIRMWARE_ID_OFFSET = 3;
+
+    public static final int PHASE_IDLE = 0x00;
+    public static final int PHASE_TRANSFER_ACTIVE = 0x01;
+    public static final int PHASE_TRANSFER_ERROR = 0x02;
+    public static final int PHASE_TRANSFER_SUCCESS = 0x03;
+
+    private int mStatus;
+    private int mUploadPhase;
+    private int mUploadProgress;
+    private boolean mOutOfBand;
+    private FirmwareId mFirmwareId;
+
+    private static final Creator<FirmwareDistributionUploadStatus> CREATOR = new Creator<FirmwareDistributionUploadStatus>() {
+        @Override
+        public FirmwareDistributionUploadStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new FirmwareDistributionUploadStatus(message);
+        }
+
+        @Override
+        public FirmwareDistributionUploadStatus[] newArray(int size) {
+            return new FirmwareDistributionUploadStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the FirmwareDistributionUploadStatus message.
+     *
+     * @param message Access Message
+     */
+    public FirmwareDistributionUploadStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        mStatus = mParameters[0] & 0xFF;
+        mUploadPhase = mParameters[1] & 0xFF;
+        if (mParameters.length >= FIRMWARE_ID_OFFSET) {
+            mUploadProgress = mParameters[2] & 0x7F;
+            mOutOfBand = (mParameters[2] & 0x80) != 0;
+            mFirmwareId = FirmwareId.parse(mParameters, FIRMWARE_ID_OFFSET, mParameters.length - FIRMWARE_ID_OFFSET);
+        }
+        MeshLogger.verbose(TAG, () -> "Received firmware distribution upload status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", status: " + mStatus + ", phase: " + mUploadPhase + ", progress: " + mUploadProgress + "%");
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the status code of the last operation, one of the status codes of {@link FirmwareDistributionStatus}.
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns true if the last operation was successful.
+     */
+    public boolean isSuccessful() {
+        return mStatus == FirmwareDistributionStatus.STATUS_SUCCESS;
+    }
+
+    /**
+     * Returns the phase of the firmware image upload.
+     */
+    public int getUploadPhase() {
+        return mUploadPhase;
+    }
+
+    /**
+     * Returns the progress of the upload in percent, 0 if not reported.
+     */
+    public int getUploadProgress() {
+        return mUploadProgress;
+    }
+
+    /**
+     * Returns true if the firmware image is retrieved by the distributor out of band.
+     */
+    public boolean isOutOfBand() {
+        return mOutOfBand;
+    }
+
+    /**
+     * Returns the Firmware ID of the firmware image being uploaded or null if not reported.
+     */
+    @Nullable
+    public FirmwareId getFirmwareId() {
+        return mFirmwareId;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
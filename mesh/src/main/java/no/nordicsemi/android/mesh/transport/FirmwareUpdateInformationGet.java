@@ -0,0 +1,59 @@
+package no.nordicsemi.android.mesh.transport;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareUpdateInformationGet extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_UPDATE_INFORMATION_GET;
+
+    private final int mFirstIndex;
+    private final int mEntriesLimit;
+
+    /**
+     * Firmware Update Information Get is an acknowledged message used to get the firmware images installed on a node (see Mesh DFU Spec. v1.0 Section 8).
+     * The response to the Firmware Update Information Get message is a {@link FirmwareUpdateInformationStatus} message.
+     *
+     * @param appKey       {@link ApplicationKey} key for this message
+     * @param firstIndex   Index of the first firmware image requested
+     * @param entriesLimit Maximum number of firmware images to be returned
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareUpdateInformationGet(@NonNull final ApplicationKey appKey,
+                                        final int firstIndex,
+                                        final int entriesLimit) throws IllegalArgumentException {
+        super(appKey);
+        if (firstIndex < 0 || firstIndex > 0xFF || entriesLimit < 0 || entriesLimit > 0xFF)
+            throw new IllegalArgumentException("First index and entries limit must be 8-bit values");
+        this.mFirstIndex = firstIndex;
+        this.mEntriesLimit = entriesLimit;
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = new byte[]{(byte) mFirstIndex, (byte) mEntriesLimit};
+    }
+
+    /**
+     * Returns the index of the first firmware image requested.
+     */
+    public int getFirstIndex() {
+        return mFirstIndex;
+    }
+
+    /**
+     * Returns the maximum number of firmware images to be returned.
+     */
+    public int getEntriesLimit() {
+        return mEntriesLimit;
+    }
+}
@@ -0,0 +1,161 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the FirmwareUpdateInformationStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class FirmwareUpdateInformationStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = FirmwareUpdateInformationStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_UPDATE_INFORMATION_STATUS;
+
+    private int mListCount;
+    private int mFirstIndex;
+    private List<FirmwareInformation> mFirmwareInformation;
+
+    /**
+     * Firmware image installed on a node.
+     */
+    public static final class FirmwareInformation {
+        private final int index;
+        private final FirmwareId firmwareId;
+        private final String updateUri;
+
+        private FirmwareInformation(final int index, @NonNull final FirmwareId firmwareId, @Nullable final String updateUri) {
+            this.index = index;
+            this.firmwareId = firmwareId;
+            this.updateUri = updateUri;
+        }
+
+        /**
+         * Returns the index of the firmware image on the node, used to select the image to be updated.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the Firmware ID of the installed firmware.
+         */
+        @NonNull
+        public FirmwareId getFirmwareId() {
+            return firmwareId;
+        }
+
+        /**
+         * Returns the URI where a new firmware can be checked for or null if not provided.
+         */
+        @Nullable
+        public String getUpdateUri() {
+            return updateUri;
+        }
+
+        @NonNull
+        @Override
+        public String toString() {
+            return "FirmwareInformation{index=" + index + ", firmwareId=" + firmwareId + ", updateUri=" + updateUri + "}";
+        }
+    }
+
+    private static final Creator<FirmwareUpdateInformationStatus> CREATOR = new Creator<FirmwareUpdateInformationStatus>() {
+        @Override
+        public FirmwareUpdateInformationStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new FirmwareUpdateInformationStatus(message);
+        }
+
+        @Override
+        public FirmwareUpdateInformationStatus[] newArray(int size) {
+            return new FirmwareUpdateInformationStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the FirmwareUpdateInformationStatus message.
+     *
+     * @param message Access Message
+     */
+    public FirmwareUpdateInformationStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @SuppressWarnings("CharsetObjectCanBeUsed")
+    @Override
+    void parseStatusParameters() {
+        mListCount = mParameters[0] & 0xFF;
+        mFirstIndex = mParameters[1] & 0xFF;
+        final List<FirmwareInformation> firmwareInformation = new ArrayList<>();
+        int offset = 2;
+        while (offset < mParameters.length) {
+            final int firmwareIdLength = mParameters[offset++] & 0xFF;
+            final FirmwareId firmwareId = FirmwareId.parse(mParameters, offset, firmwareIdLength);
+            offset += firmwareIdLength;
+            if (firmwareId == null || offset >= mParameters.length)
+                break;
+            final int uriLength = mParameters[offset++] & 0xFF;
+            if (offset + uriLength > mParameters.length)
+                break;
+            final String uri = uriLength == 0 ? null : new String(mParameters, offset, uriLength, Charset.forName("UTF-8"));
+            offset += uriLength;
+            firmwareInformation.add(new FirmwareInformation(mFirstIndex + firmwareInformation.size(), firmwareId, uri));
+        }
+        mFirmwareInformation = Collections.unmodifiableList(firmwareInformation);
+        MeshLogger.verbose(TAG, () -> "Received firmware update information status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", firmware images: " + mListCount + ", information: " + mFirmwareInformation);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the total number of firmware images installed on the node.
+     */
+    public int getListCount() {
+        return mListCount;
+    }
+
+    /**
+     * Returns the index of the first firmware image in this message.
+     */
+    public int getFirstIndex() {
+        return mFirstIndex;
+    }
+
+    /**
+     * Returns the firmware images reported in this message.
+     */
+    @NonNull
+    public List<FirmwareInformation> getFirmwareInformation() {
+        return mFirmwareInformation;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -0,0 +1,103 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class FirmwareUpdateStart extends ApplicationMessage {
+
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_UPDATE_START;
+    private static final int FIRMWARE_UPDATE_START_PARAMS_LENGTH = 12;
+    public static final int MAX_METADATA_LENGTH = 255;
+
+    private final int mTtl;
+    private final int mTimeoutBase;
+    private final long mBlobId;
+    private final int mFirmwareImageIndex;
+    private final byte[] mMetadata;
+
+    /**
+     * Firmware Update Start is an acknowledged message used to start a firmware update on a Firmware Update Server (see Mesh DFU Spec. v1.0 Section 8).
+     * The response to the Firmware Update Start message is a {@link FirmwareUpdateStatus} message.
+     *
+     * @param appKey             {@link ApplicationKey} key for this message
+     * @param ttl                TTL used by the server for the BLOB transfer
+     * @param timeoutBase        Timeout base of the BLOB transfer, the timeout being 10 * (timeout base + 2) seconds multiplied by the TTL
+     * @param blobId             64-bit identifier of the BLOB containing the new firmware
+     * @param firmwareImageIndex Index of the firmware image to be updated on the server
+     * @param metadata           Metadata of the new firmware, or null
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareUpdateStart(@NonNull final ApplicationKey appKey,
+                               final int ttl,
+                               final int timeoutBase,
+                               final long blobId,
+                               final int firmwareImageIndex,
+                               @Nullable final byte[] metadata) throws IllegalArgumentException {
+        super(appKey);
+        if (ttl < 0 || ttl > 0xFF)
+            throw new IllegalArgumentException("TTL must be an 8-bit value");
+        if (timeoutBase < 0 || timeoutBase > 0xFFFF)
+            throw new IllegalArgumentException("Timeout base must be a 16-bit value");
+        if (firmwareImageIndex < 0 || firmwareImageIndex > 0xFF)
+            throw new IllegalArgumentException("Firmware image index must be an 8-bit value");
+        if (metadata != null && metadata.length > MAX_METADATA_LENGTH)
+            throw new IllegalArgumentException("Metadata cannot be longer than " + MAX_METADATA_LENGTH + " octets");
+        this.mTtl = ttl;
+        this.mTimeoutBase = timeoutBase;
+        this.mBlobId = blobId;
+        this.mFirmwareImageIndex = firmwareImageIndex;
+        this.mMetadata = metadata == null ? new byte[0] : metadata.clone();
+        assembleMessageParameters();
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = ByteBuffer.allocate(FIRMWARE_UPDATE_START_PARAMS_LENGTH + mMetadata.length).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) mTtl)
+                .putShort((short) mTimeoutBase)
+                .putLong(mBlobId)
+                .put((byte) mFirmwareImageIndex)
+                .put(mMetadata)
+                .array();
+    }
+
+    /**
+     * Returns the TTL used by the server for the BLOB transfer.
+     */
+    public int getTtl() {
+        return mTtl;
+    }
+
+    /**
+     * Returns the timeout base of the BLOB transfer.
+     */
+    public int getTimeoutBase() {
+        return mTimeoutBase;
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB containing the new firmware.
+     */
+    public long getBlobId() {
+        return mBlobId;
+    }
+
+    /**
+     * Returns the index of the firmware image to be updated.
+     */
+    public int getFirmwareImageIndex() {
+        return mFirmwareImageIndex;
+    }
+}
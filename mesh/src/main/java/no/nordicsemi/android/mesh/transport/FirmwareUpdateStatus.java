@@ -0,0 +1,165 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+
+/**
+ * To be used as a wrapper class for when creating the FirmwareUpdateStatus Message.
+ */
+@SuppressWarnings({"WeakerAccess"})
+public final class FirmwareUpdateStatus extends ApplicationStatusMessage implements Parcelable {
+
+    private static final String TAG = FirmwareUpdateStatus.class.getSimpleName();
+    private static final int OP_CODE = ApplicationMessageOpCodes.FIRMWARE_UPDATE_STATUS;
+    private static final int FIRMWARE_UPDATE_STATUS_FULL_LENGTH = 14;
+
+    public static final int STATUS_SUCCESS = 0x00;
+    public static final int STATUS_INSUFFICIENT_RESOURCES = 0x01;
+    public static final int STATUS_WRONG_PHASE = 0x02;
+    public static final int STATUS_INTERNAL_ERROR = 0x03;
+    public static final int STATUS_WRONG_FIRMWARE_INDEX = 0x04;
+    public static final int STATUS_METADATA_CHECK_FAILED = 0x05;
+    public static final int STATUS_TEMPORARILY_UNAVAILABLE = 0x06;
+    public static final int STATUS_BLOB_TRANSFER_BUSY = 0x07;
+
+    public static final int PHASE_IDLE = 0x00;
+    public static final int PHASE_TRANSFER_ERROR = 0x01;
+    public static final int PHASE_TRANSFER_ACTIVE = 0x02;
+    public static final int PHASE_VERIFICATION_ACTIVE = 0x03;
+    public static final int PHASE_VERIFICATION_SUCCEEDED = 0x04;
+    public static final int PHASE_VERIFICATION_FAILED = 0x05;
+    public static final int PHASE_APPLYING_UPDATE = 0x06;
+    // Only reported by a Firmware Distribution Server for receivers it could not retrieve the phase from
+    public static final int PHASE_UNKNOWN = 0x0A;
+
+    private int mStatus;
+    private int mUpdatePhase;
+    private int mTtl;
+    private int mAdditionalInformation;
+    private int mTimeoutBase;
+    private Long mBlobId;
+    private int mFirmwareImageIndex;
+
+    private static final Creator<FirmwareUpdateStatus> CREATOR = new Creator<FirmwareUpdateStatus>() {
+        @Override
+        public FirmwareUpdateStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            return new FirmwareUpdateStatus(message);
+        }
+
+        @Override
+        public FirmwareUpdateStatus[] newArray(int size) {
+            return new FirmwareUpdateStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the FirmwareUpdateStatus message.
+     *
+     * @param message Access Message
+     */
+    public FirmwareUpdateStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    void parseStatusParameters() {
+        final ByteBuffer buffer = ByteBuffer.wrap(mParameters).order(ByteOrder.LITTLE_ENDIAN);
+        final int octet = buffer.get() & 0xFF;
+        mStatus = octet & 0x07;
+        mUpdatePhase = octet >> 5;
+        if (mParameters.length >= FIRMWARE_UPDATE_STATUS_FULL_LENGTH) {
+            mTtl = buffer.get() & 0xFF;
+            mAdditionalInformation = buffer.get() & 0x1F;
+            mTimeoutBase = buffer.getShort() & 0xFFFF;
+            mBlobId = buffer.getLong();
+            mFirmwareImageIndex = buffer.get() & 0xFF;
+        }
+        MeshLogger.verbose(TAG, () -> "Received firmware update status from: " + MeshAddress.formatAddress(mMessage.getSrc(), true) +
+                ", status: " + mStatus + ", phase: " + mUpdatePhase);
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns the status code of the last operation.
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * Returns true if the last operation was successful.
+     */
+    public boolean isSuccessful() {
+        return mStatus == STATUS_SUCCESS;
+    }
+
+    /**
+     * Returns the phase of the firmware update.
+     */
+    public int getUpdatePhase() {
+        return mUpdatePhase;
+    }
+
+    /**
+     * Returns the TTL used for the BLOB transfer, 0 if not reported.
+     */
+    public int getTtl() {
+        return mTtl;
+    }
+
+    /**
+     * Returns how the node will change once the new firmware is applied, for example if its composition data changes.
+     */
+    public int getAdditionalInformation() {
+        return mAdditionalInformation;
+    }
+
+    /**
+     * Returns the timeout base of the BLOB transfer, 0 if not reported.
+     */
+    public int getTimeoutBase() {
+        return mTimeoutBase;
+    }
+
+    /**
+     * Returns the 64-bit identifier of the BLOB being received or null if not reported.
+     */
+    @Nullable
+    public Long getBlobId() {
+        return mBlobId;
+    }
+
+    /**
+     * Returns the index of the firmware image being updated, 0 if not reported.
+     */
+    public int getFirmwareImageIndex() {
+        return mFirmwareImageIndex;
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -201,7 +201,7 @@ public final class InternalMeshModelDeserializer implements JsonDeserializer<Mes
             if (jsonObject.has("sceneNumbers")) {
                 final JsonArray scenesArray = jsonObject.get("sceneNumbers").getAsJsonArray();
                 for (JsonElement element : scenesArray) {
-                    meshModel.sceneNumbers.add(element.getAsInt());
+                    meshModel.addSceneNumber(element.getAsInt());
                 }
             }
         }
@@ -22,6 +22,8 @@
 
 package no.nordicsemi.android.mesh.transport;
 
+import androidx.annotation.NonNull;
+
 /**
  * Callbacks to notify the mesh message handler to notify events from transport layers.
  */
@@ -34,4 +36,10 @@ interface InternalMeshMsgHandlerCallbacks {
      */
     void onIncompleteTimerExpired(final int address);
 
+    /**
+     * Returns the registry of status messages that may be decoded from received access messages
+     */
+    @NonNull
+    OpCodeRegistry getOpCodeRegistry();
+
 }
@@ -22,13 +22,16 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.util.SparseArray;
-
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import no.nordicsemi.android.mesh.MeshManagerApi;
 import no.nordicsemi.android.mesh.control.BlockAcknowledgementMessage;
@@ -57,27 +60,12 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
     private static final int UNSEGMENTED_ACK_MESSAGE_HEADER_LENGTH = 3;
     private static final long INCOMPLETE_TIMER_DELAY = 10 * 1000; // According to the spec the incomplete timer must be a minimum of 10 seconds.
 
-    private final SparseArray<byte[]> segmentedAccessMessageMap = new SparseArray<>();
-    private final SparseArray<byte[]> segmentedControlMessageMap = new SparseArray<>();
+    static final int DEFAULT_MAX_CONCURRENT_REASSEMBLIES = 8;
+
+    private final Map<Integer, ReassemblyContext> mAccessReassemblyContexts = new HashMap<>();
+    private final Map<Integer, ReassemblyContext> mControlReassemblyContexts = new HashMap<>();
+    private int mMaxConcurrentReassemblies = DEFAULT_MAX_CONCURRENT_REASSEMBLIES;
     LowerTransportLayerCallbacks mLowerTransportLayerCallbacks;
-    private boolean mSegmentedAccessAcknowledgementTimerStarted;
-    private Integer mSegmentedAccessBlockAck;
-    private boolean mSegmentedControlAcknowledgementTimerStarted;
-    private Integer mSegmentedControlBlockAck;
-    private boolean mIncompleteTimerStarted;
-    /**
-     * Runnable for incomplete timer
-     */
-    private final Runnable mIncompleteTimerRunnable = new Runnable() {
-        @Override
-        public void run() {
-            mLowerTransportLayerCallbacks.onIncompleteTimerExpired();
-            //Reset the incomplete timer flag once it expires
-            mIncompleteTimerStarted = false;
-        }
-    };
-    private boolean mBlockAckSent;
-    private long mDuration;
 
     /**
      * Sets the lower transport layer callbacks
@@ -86,6 +74,21 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
      */
     abstract void setLowerTransportLayerCallbacks(@NonNull final LowerTransportLayerCallbacks callbacks);
 
+    /**
+     * Sets the maximum number of segmented messages that may be reassembled concurrently.
+     * <p>
+     * Segments of a new segmented message are ignored while this limit is reached. The sender will retransmit them
+     * once the segments of the messages currently being reassembled have been received or have timed out.
+     * </p>
+     *
+     * @param maxConcurrentReassemblies maximum number of concurrent reassembly contexts.
+     */
+    final void setMaxConcurrentReassemblies(final int maxConcurrentReassemblies) {
+        if (maxConcurrentReassemblies < 1)
+            throw new IllegalArgumentException("At least one reassembly context is required");
+        mMaxConcurrentReassemblies = maxConcurrentReassemblies;
+    }
+
     /**
      * Creates the network layer pdu
      *
@@ -118,18 +121,18 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
     public final void createLowerTransportAccessPDU(@NonNull final AccessMessage message) {
         final byte[] upperTransportPDU = message.getUpperTransportPdu();
-        final SparseArray<byte[]> lowerTransportAccessPduMap;
+        final SortedMap<Integer, byte[]> lowerTransportAccessPduMap;
         if (upperTransportPDU.length <= MAX_UNSEGMENTED_ACCESS_PAYLOAD_LENGTH) {
             message.setSegmented(false);
             final byte[] lowerTransportPDU = createUnsegmentedAccessMessage(message);
-            lowerTransportAccessPduMap = new SparseArray<>();
+            lowerTransportAccessPduMap = new TreeMap<>();
             lowerTransportAccessPduMap.put(0, lowerTransportPDU);
         } else {
             message.setSegmented(true);
             lowerTransportAccessPduMap = createSegmentedAccessMessage(message);
         }
 
-        message.setLowerTransportAccessPdu(lowerTransportAccessPduMap);
+        message.setLowerTransportAccessPduMap(lowerTransportAccessPduMap);
     }
 
     @Override
@@ -137,9 +140,9 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
     public final void createLowerTransportControlPDU(@NonNull final ControlMessage message) {
         switch (message.getPduType()) {
             case MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION:
-                final SparseArray<byte[]> lowerTransportControlPduArray = new SparseArray<>();
+                final SortedMap<Integer, byte[]> lowerTransportControlPduArray = new TreeMap<>();
                 lowerTransportControlPduArray.put(0, message.getTransportControlPdu());
-                message.setLowerTransportControlPdu(lowerTransportControlPduArray);
+                message.setLowerTransportControlPduMap(lowerTransportControlPduArray);
                 break;
             case MeshManagerApi.PDU_TYPE_NETWORK:
                 final byte[] transportControlPdu = message.getTransportControlPdu();
@@ -155,14 +158,14 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
 
     @Override
     final void reassembleLowerTransportAccessPDU(@NonNull final AccessMessage accessMessage) {
-        final SparseArray<byte[]> lowerTransportAccessPdu = removeLowerTransportAccessMessageHeader(accessMessage);
+        final SortedMap<Integer, byte[]> lowerTransportAccessPdu = removeLowerTransportAccessMessageHeader(accessMessage);
         final byte[] upperTransportPdu = MeshParserUtils.concatenateSegmentedMessages(lowerTransportAccessPdu);
         accessMessage.setUpperTransportPdu(upperTransportPdu);
     }
 
     @Override
     final void reassembleLowerTransportControlPDU(@NonNull final ControlMessage controlMessage) {
-        final SparseArray<byte[]> lowerTransportPdu = removeLowerTransportControlMessageHeader(controlMessage);
+        final SortedMap<Integer, byte[]> lowerTransportPdu = removeLowerTransportControlMessageHeader(controlMessage);
         final byte[] lowerTransportControlPdu = MeshParserUtils.concatenateSegmentedMessages(lowerTransportPdu);
         controlMessage.setTransportControlPdu(lowerTransportControlPdu);
     }
@@ -173,8 +176,8 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
      * @param message access message received.
      * @return map containing the messages.
      */
-    private SparseArray<byte[]> removeLowerTransportAccessMessageHeader(@NonNull final AccessMessage message) {
-        final SparseArray<byte[]> messages = message.getLowerTransportAccessPdu();
+    private SortedMap<Integer, byte[]> removeLowerTransportAccessMessageHeader(@NonNull final AccessMessage message) {
+        final SortedMap<Integer, byte[]> messages = message.getLowerTransportAccessPduMap();
         if (message.isSegmented()) {
             for (int i = 0; i < messages.size(); i++) {
                 final byte[] data = messages.get(i);
@@ -195,8 +198,8 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
      * @param message control message.
      * @return map containing the messages.
      */
-    private SparseArray<byte[]> removeLowerTransportControlMessageHeader(@NonNull final ControlMessage message) {
-        final SparseArray<byte[]> messages = message.getLowerTransportControlPdu();
+    private SortedMap<Integer, byte[]> removeLowerTransportControlMessageHeader(@NonNull final ControlMessage message) {
+        final SortedMap<Integer, byte[]> messages = message.getLowerTransportControlPduMap();
         if (messages.size() > 1) {
             for (int i = 0; i < messages.size(); i++) {
                 final byte[] data = messages.get(i);
@@ -249,7 +252,7 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
         lowerTransportBuffer.put(header);
         lowerTransportBuffer.put(encryptedUpperTransportPDU);
         final byte[] lowerTransportPDU = lowerTransportBuffer.array();
-        MeshLogger.verbose(TAG, "Unsegmented Lower transport access PDU " + MeshParserUtils.bytesToHex(lowerTransportPDU, false));
+        MeshLogger.verbose(TAG, () -> "Unsegmented Lower transport access PDU " + MeshParserUtils.bytesToHex(lowerTransportPDU, false));
         return lowerTransportPDU;
     }
 
@@ -259,7 +262,7 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
      * @param message access message.
      * @return Segmented access message.
      */
-    private SparseArray<byte[]> createSegmentedAccessMessage(@NonNull final AccessMessage message) {
+    private SortedMap<Integer, byte[]> createSegmentedAccessMessage(@NonNull final AccessMessage message) {
         final byte[] encryptedUpperTransportPDU = message.getUpperTransportPdu();
         final int akfAid = ((message.getAkf() << 6) | message.getAid());
         final int aszmic = message.getAszmic();
@@ -268,7 +271,7 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
 
         final int numberOfSegments = (encryptedUpperTransportPDU.length + (MAX_SEGMENTED_ACCESS_PAYLOAD_LENGTH - 1)) / MAX_SEGMENTED_ACCESS_PAYLOAD_LENGTH;
         final int segN = numberOfSegments - 1; //Zero based segN
-        final SparseArray<byte[]> lowerTransportPduMap = new SparseArray<>();
+        final SortedMap<Integer, byte[]> lowerTransportPduMap = new TreeMap<>();
         int offset = 0;
         int length;
         for (int segO = 0; segO < numberOfSegments; segO++) {
@@ -283,7 +286,8 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
             offset += length;
 
             final byte[] lowerTransportPDU = lowerTransportBuffer.array();
-            MeshLogger.verbose(TAG, "Segmented Lower transport access PDU: " + MeshParserUtils.bytesToHex(lowerTransportPDU, false) + " " + segO + " of " + numberOfSegments);
+            final int segment = segO;
+            MeshLogger.verbose(TAG, () -> "Segmented Lower transport access PDU: " + MeshParserUtils.bytesToHex(lowerTransportPDU, false) + " " + segment + " of " + numberOfSegments);
             lowerTransportPduMap.put(segO, lowerTransportPDU);
         }
         return lowerTransportPduMap;
@@ -316,10 +320,10 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
 
         lowerTransportBuffer.put(upperTransportControlPDU);
         final byte[] lowerTransportPDU = lowerTransportBuffer.array();
-        MeshLogger.verbose(TAG, "Unsegmented Lower transport control PDU " + MeshParserUtils.bytesToHex(lowerTransportPDU, false));
-        final SparseArray<byte[]> lowerTransportControlPduMap = new SparseArray<>();
+        MeshLogger.verbose(TAG, () -> "Unsegmented Lower transport control PDU " + MeshParserUtils.bytesToHex(lowerTransportPDU, false));
+        final SortedMap<Integer, byte[]> lowerTransportControlPduMap = new TreeMap<>();
         lowerTransportControlPduMap.put(0, lowerTransportPDU);
-        message.setLowerTransportControlPdu(lowerTransportControlPduMap);
+        message.setLowerTransportControlPduMap(lowerTransportControlPduMap);
     }
 
     /**
@@ -337,7 +341,7 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
 
         final int numberOfSegments = (encryptedUpperTransportControlPDU.length + (MAX_SEGMENTED_CONTROL_PAYLOAD_LENGTH - 1)) / MAX_SEGMENTED_CONTROL_PAYLOAD_LENGTH;
         final int segN = numberOfSegments - 1; //Zero based segN
-        final SparseArray<byte[]> lowerTransportControlPduMap = new SparseArray<>();
+        final SortedMap<Integer, byte[]> lowerTransportControlPduMap = new TreeMap<>();
         int offset = 0;
         int length;
         for (int segO = 0; segO < numberOfSegments; segO++) {
@@ -352,10 +356,11 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
             offset += length;
 
             final byte[] lowerTransportPDU = lowerTransportBuffer.array();
-            MeshLogger.verbose(TAG, "Segmented Lower transport access PDU: " + MeshParserUtils.bytesToHex(lowerTransportPDU, false) + " " + segO + " of " + numberOfSegments);
+            final int segment = segO;
+            MeshLogger.verbose(TAG, () -> "Segmented Lower transport access PDU: " + MeshParserUtils.bytesToHex(lowerTransportPDU, false) + " " + segment + " of " + numberOfSegments);
             lowerTransportControlPduMap.put(segO, lowerTransportPDU);
         }
-        controlMessage.setLowerTransportControlPdu(lowerTransportControlPduMap);
+        controlMessage.setLowerTransportControlPduMap(lowerTransportControlPduMap);
     }
 
     /**
@@ -387,11 +392,11 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
         final int akf = (header >> 6) & 0x01;
         final int aid = header & 0x3F;
         if (seg == 0) { //Unsegmented message
-            MeshLogger.debug(TAG, "IV Index of received message: " + ivIndex);
+            MeshLogger.debug(TAG, () -> "IV Index of received message: " + ivIndex);
             final int seqAuth = (ivIndex << 24) | MeshParserUtils.convert24BitsToInt(sequenceNumber);
             final byte[] src = MeshParserUtils.getSrcAddress(pdu);
             final int srcAdd = MeshParserUtils.unsignedBytesToInt(src[1], src[0]);
-            MeshLogger.debug(TAG, "SeqAuth: " + seqAuth);
+            MeshLogger.debug(TAG, () -> "SeqAuth: " + seqAuth);
             if (!isValidSeqAuth(seqAuth, srcAdd)) {
                 return null;
             }
@@ -405,25 +410,25 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
                 final ByteBuffer lowerTransportBuffer = ByteBuffer.allocate(lowerTransportPduLength).order(ByteOrder.BIG_ENDIAN);
                 lowerTransportBuffer.put(pdu, 10, lowerTransportPduLength);
                 final byte[] lowerTransportPDU = lowerTransportBuffer.array();
-                final SparseArray<byte[]> messages = new SparseArray<>();
+                final SortedMap<Integer, byte[]> messages = new TreeMap<>();
                 messages.put(0, lowerTransportPDU);
                 message.setSegmented(false);
                 message.setAszmic(0); //aszmic is always 0 for unsegmented access messages
                 message.setAkf(akf);
                 message.setAid(aid);
-                message.setLowerTransportAccessPdu(messages);
+                message.setLowerTransportAccessPduMap(messages);
             } else {
                 final int lowerTransportPduLength = pdu.length - 10;
                 final ByteBuffer lowerTransportBuffer = ByteBuffer.allocate(lowerTransportPduLength).order(ByteOrder.BIG_ENDIAN);
                 lowerTransportBuffer.put(pdu, 10, lowerTransportPduLength);
                 final byte[] lowerTransportPDU = lowerTransportBuffer.array();
-                final SparseArray<byte[]> messages = new SparseArray<>();
+                final SortedMap<Integer, byte[]> messages = new TreeMap<>();
                 messages.put(0, lowerTransportPDU);
                 message.setSegmented(false);
                 message.setAszmic(0); //aszmic is always 0 for unsegmented access messages
                 message.setAkf(akf);
                 message.setAid(aid);
-                message.setLowerTransportAccessPdu(messages);
+                message.setLowerTransportAccessPduMap(messages);
             }
         }
         return message;
@@ -431,14 +436,21 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
 
     /**
      * Parses a segmented lower transport access pdu.
+     * <p>
+     * Segments are reassembled in a {@link ReassemblyContext} identified by the source address and the SeqZero of the
+     * message, allowing several segmented messages to be received at the same time.
+     * </p>
      *
      * @param ttl            TTL of the acknowledgement
+     * @param networkPdu     Network pdu that carried the segment.
      * @param pdu            The complete pdu was received from the node. This is already de-obfuscated and decrypted at network layer.
      * @param ivIndex        Current IV Index of the network
      * @param sequenceNumber Sequence number
+     * @return the reassembled access message or null if segments are still missing.
      */
     /*package*/
     final AccessMessage parseSegmentedAccessLowerTransportPDU(final int ttl,
+                                                              @NonNull final byte[] networkPdu,
                                                               @NonNull final byte[] pdu,
                                                               final int ivIndex,
                                                               @NonNull final byte[] sequenceNumber) {
@@ -454,128 +466,76 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
         final byte[] src = MeshParserUtils.getSrcAddress(pdu);
         final byte[] dst = MeshParserUtils.getDstAddress(pdu);
 
-        final int blockAckSrc = MeshParserUtils.unsignedBytesToInt(dst[1], dst[0]); //Destination of the received packet would be the source for the ack
-        final int blockAckDst = MeshParserUtils.unsignedBytesToInt(src[1], src[0]); //Source of the received packet would be the destination for the ack
+        final int srcAddress = MeshParserUtils.unsignedBytesToInt(src[1], src[0]);
+        final int dstAddress = MeshParserUtils.unsignedBytesToInt(dst[1], dst[0]);
 
-        MeshLogger.verbose(TAG, "SEG O: " + segO);
-        MeshLogger.verbose(TAG, "SEG N: " + segN);
+        MeshLogger.verbose(TAG, () -> "SEG O: " + segO);
+        MeshLogger.verbose(TAG, () -> "SEG N: " + segN);
 
         final int seqNumber = getTransportLayerSequenceNumber(MeshParserUtils.convert24BitsToInt(sequenceNumber), seqZero);
         final int seqAuth = ivIndex << 24 | seqNumber;
-        final Integer lastSeqAuth = mMeshNode.getSeqAuth(blockAckDst);
-        if (lastSeqAuth != null)
-            MeshLogger.verbose(TAG, "Last SeqAuth value " + lastSeqAuth);
-
-        MeshLogger.verbose(TAG, "Current SeqAuth value " + seqAuth);
+        MeshLogger.verbose(TAG, () -> "Current SeqAuth value " + seqAuth);
 
         final int payloadLength = pdu.length - 10;
         final ByteBuffer payloadBuffer = ByteBuffer.allocate(payloadLength);
         payloadBuffer.put(pdu, 10, payloadLength);
 
-        //Check if the current SeqAuth value is greater than the last and if the incomplete timer has not started, start it!
-        if ((lastSeqAuth == null || lastSeqAuth < seqAuth)) {
+        ReassemblyContext context = mAccessReassemblyContexts.get(ReassemblyContext.key(srcAddress, seqZero));
+        if (context == null || context.getSeqAuth() != seqAuth) {
+            final Integer lastSeqAuth = mMeshNode.getSeqAuth(srcAddress);
+            if (lastSeqAuth != null) {
+                MeshLogger.verbose(TAG, () -> "Last SeqAuth value " + lastSeqAuth);
+                if (lastSeqAuth >= seqAuth) {
+                    MeshLogger.verbose(TAG, "Ignoring segment of a message that has already been received or has timed out");
+                    return null;
+                }
+            }
+            if (context != null) {
+                // SeqZero has wrapped around and the source started a new message, the old one will never complete.
+                removeReassemblyContext(mAccessReassemblyContexts, context);
+            }
+            if (getActiveReassemblyCount() >= mMaxConcurrentReassemblies) {
+                MeshLogger.warn(TAG, "Maximum number of concurrent reassemblies reached, ignoring segment from: " +
+                        MeshAddress.formatAddress(srcAddress, false));
+                return null;
+            }
             // We do not need to rely on the sequence number here
             // Setting hte sequence number here will reset the already incremented sequence number for a message sent to all nodes.
             // mMeshNode.setSequenceNumber(seqNumber);
-            segmentedAccessMessageMap.clear();
-            segmentedAccessMessageMap.put(segO, payloadBuffer.array());
-            mMeshNode.setSeqAuth(blockAckDst, seqAuth);
+            mMeshNode.setSeqAuth(srcAddress, seqAuth);
+            context = new ReassemblyContext(srcAddress, dstAddress, seqZero, seqAuth, segN, ttl);
+            mAccessReassemblyContexts.put(context.getKey(), context);
+            MeshLogger.verbose(TAG, () -> "Starting incomplete timer for src: " + MeshAddress.formatAddress(srcAddress, false));
+        } else {
+            MeshLogger.verbose(TAG, () -> "Restarting incomplete timer for src: " + MeshAddress.formatAddress(srcAddress, false));
+        }
 
-            MeshLogger.verbose(TAG, "Starting incomplete timer for src: " + MeshAddress.formatAddress(blockAckDst, false));
-            initIncompleteTimer();
+        if (!context.addSegment(segO, payloadBuffer.array(), networkPdu)) {
+            MeshLogger.verbose(TAG, () -> "Ignoring duplicate segment " + segO + " from: " + MeshAddress.formatAddress(srcAddress, false));
+            return null;
+        }
+        MeshLogger.verbose(TAG, "Received segment message count: %d", context.getReceivedSegmentCount());
 
+        if (!context.isComplete()) {
+            startIncompleteTimer(mAccessReassemblyContexts, context, true);
             // Start acknowledgement calculation and timer only for messages directed to a unicast address.
             if (MeshAddress.isValidUnicastAddress(dst)) {
-                // Calculate the initial block acknowledgement value
-                mSegmentedAccessBlockAck = BlockAcknowledgementMessage.calculateBlockAcknowledgement(null, segO);
                 //Start the block acknowledgement timer irrespective of which segment was received first
-                initSegmentedAccessAcknowledgementTimer(seqZero, ttl, blockAckSrc, blockAckDst, segN);
-            }
-
-            // We need to ensure there could be an unsegmented message that could be sent as a
-            // segmented message i.e. segO = 0 and segN = 0. This will ensure the multi-segmented
-            // messages that may not arrive in order will be reassembled correctly or rather ignored.
-            if (segO == 0 && segN == 0) {
-                if (MeshAddress.isValidUnicastAddress(dst)) {
-                    mSegmentedAccessBlockAck = BlockAcknowledgementMessage.calculateBlockAcknowledgement(mSegmentedAccessBlockAck, segO);
-                    handleImmediateBlockAcks(seqZero, ttl, blockAckSrc, blockAckDst, segN);
-                } else {
-                    //We should cancel the incomplete timer since we have received all segments
-                    cancelIncompleteTimer();
-                }
-
-                final AccessMessage accessMessage = new AccessMessage();
-                accessMessage.setAszmic(szmic);
-                accessMessage.setSequenceNumber(MeshParserUtils.getSequenceNumberBytes(seqNumber));
-                accessMessage.setAkf(akf);
-                accessMessage.setAid(aid);
-                accessMessage.setSegmented(true);
-                final SparseArray<byte[]> segmentedMessages = segmentedAccessMessageMap.clone();
-                accessMessage.setLowerTransportAccessPdu(segmentedMessages);
-                return accessMessage;
-            }
-
-        } else {
-            //if the seqauth values are the same and the init complete timer has already started for a received segmented message, we need to restart the incomplete timer
-            if (lastSeqAuth == seqAuth) {
-                if (mIncompleteTimerStarted) {
-                    if (segmentedAccessMessageMap.get(segO) == null) {
-                        segmentedAccessMessageMap.put(segO, payloadBuffer.array());
-                    }
-                    final int receivedSegmentedMessageCount = segmentedAccessMessageMap.size();
-                    MeshLogger.verbose(TAG, "Received segment message count: " + receivedSegmentedMessageCount);
-                    //Add +1 to segN since its zero based
-                    if (receivedSegmentedMessageCount != (segN + 1)) {
-                        restartIncompleteTimer();
-                        mSegmentedAccessBlockAck = BlockAcknowledgementMessage.calculateBlockAcknowledgement(mSegmentedAccessBlockAck, segO);
-                        MeshLogger.verbose(TAG, "Restarting incomplete timer for src: " + MeshAddress.formatAddress(blockAckDst, false));
-
-                        //Start acknowledgement calculation and timer only for messages directed to a unicast address.
-                        //We also have to make sure we restart the acknowledgement timer only if the acknowledgement timer is not active and the incomplete timer is active
-                        if (MeshAddress.isValidUnicastAddress(dst) && !mSegmentedAccessAcknowledgementTimerStarted) {
-                            MeshLogger.verbose(TAG, "Restarting block acknowledgement timer for src: " + MeshAddress.formatAddress(blockAckDst, false));
-                            //Start the block acknowledgement timer irrespective of which segment was received first
-                            initSegmentedAccessAcknowledgementTimer(seqZero, ttl, blockAckSrc, blockAckDst, segN);
-                        }
-                    } else {
-                        if (MeshAddress.isValidUnicastAddress(dst)) {
-                            mSegmentedAccessBlockAck = BlockAcknowledgementMessage.calculateBlockAcknowledgement(mSegmentedAccessBlockAck, segO);
-                            handleImmediateBlockAcks(seqZero, ttl, blockAckSrc, blockAckDst, segN);
-                        } else {
-                            //We should cancel the incomplete timer since we have received all segments
-                            cancelIncompleteTimer();
-                        }
-
-                        final AccessMessage accessMessage = new AccessMessage();
-                        accessMessage.setAszmic(szmic);
-                        accessMessage.setSequenceNumber(MeshParserUtils.getSequenceNumberBytes(seqNumber));
-                        accessMessage.setAkf(akf);
-                        accessMessage.setAid(aid);
-                        accessMessage.setSegmented(true);
-                        final SparseArray<byte[]> segmentedMessages = segmentedAccessMessageMap.clone();
-                        accessMessage.setLowerTransportAccessPdu(segmentedMessages);
-                        return accessMessage;
-                    }
-                } else {
-                    MeshLogger.verbose(TAG, "Ignoring message since the incomplete timer has expired and all messages have been received");
-                }
+                startAcknowledgementTimer(context);
             }
+            return null;
         }
-        return null;
-    }
 
-    /**
-     * Send immediate block acknowledgement
-     *
-     * @param seqZero seqzero of the message
-     * @param ttl     ttl of the message
-     * @param src     source address of the message
-     * @param dst     destination address of the message
-     * @param segN    total segment count
-     */
-    private void handleImmediateBlockAcks(final int seqZero, final int ttl, final int src, final int dst, final int segN) {
-        cancelIncompleteTimer();
-        sendBlockAck(seqZero, ttl, src, dst, segN);
+        completeReassembly(mAccessReassemblyContexts, context);
+        final AccessMessage accessMessage = new AccessMessage();
+        accessMessage.setAszmic(szmic);
+        accessMessage.setSequenceNumber(MeshParserUtils.getSequenceNumberBytes(seqNumber));
+        accessMessage.setAkf(akf);
+        accessMessage.setAid(aid);
+        accessMessage.setSegmented(true);
+        accessMessage.setLowerTransportAccessPduMap(context.getSegments());
+        accessMessage.setNetworkLayerPdu(context.getNetworkPdus());
+        return accessMessage;
     }
 
     /**
@@ -587,7 +547,7 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
     final void parseUnsegmentedControlLowerTransportPDU(@NonNull final ControlMessage controlMessage,
                                                         @NonNull final byte[] decryptedProxyPdu) throws ExtendedInvalidCipherTextException {
 
-        final SparseArray<byte[]> unsegmentedMessages = new SparseArray<>();
+        final SortedMap<Integer, byte[]> unsegmentedMessages = new TreeMap<>();
         final int lowerTransportPduLength = decryptedProxyPdu.length - 10;
         final ByteBuffer lowerTransportBuffer = ByteBuffer.allocate(lowerTransportPduLength).order(ByteOrder.BIG_ENDIAN);
         lowerTransportBuffer.put(decryptedProxyPdu, 10, lowerTransportPduLength);
@@ -602,12 +562,12 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
                 controlMessage.setPduType(MeshManagerApi.PDU_TYPE_NETWORK);//Set the pdu type here
                 controlMessage.setAszmic(0);
                 controlMessage.setOpCode(opCode);
-                controlMessage.setLowerTransportControlPdu(unsegmentedMessages);
+                controlMessage.setLowerTransportControlPduMap(unsegmentedMessages);
                 parseLowerTransportLayerPDU(controlMessage);
                 break;
             case MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION:
                 controlMessage.setPduType(MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION);
-                controlMessage.setLowerTransportControlPdu(unsegmentedMessages);
+                controlMessage.setLowerTransportControlPduMap(unsegmentedMessages);
                 parseUpperTransportPDU(controlMessage);
                 break;
         }
@@ -616,10 +576,12 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
     /**
      * Parses a segmented lower transport control pdu.
      *
-     * @param pdu The complete pdu was received from the node. This is already de-obfuscated and decrypted at network layer.
+     * @param networkPdu Network pdu that carried the segment.
+     * @param pdu        The complete pdu was received from the node. This is already de-obfuscated and decrypted at network layer.
+     * @return the reassembled control message or null if segments are still missing.
      */
     /*package*/
-    final ControlMessage parseSegmentedControlLowerTransportPDU(@NonNull final byte[] pdu) {
+    final ControlMessage parseSegmentedControlLowerTransportPDU(@NonNull final byte[] networkPdu, @NonNull final byte[] pdu) {
 
         final byte header = pdu[10]; //Lower transport pdu starts here
         final int akf = (header >> 6) & 0x01;
@@ -634,153 +596,167 @@ abstract class LowerTransportLayer extends UpperTransportLayer {
         final byte[] src = MeshParserUtils.getSrcAddress(pdu);
         final byte[] dst = MeshParserUtils.getDstAddress(pdu);
 
-        final int blockAckSrc = MeshParserUtils.unsignedBytesToInt(dst[1], dst[0]); //Destination of the received packet would be the source for the ack
-        final int blockAckDst = MeshParserUtils.unsignedBytesToInt(src[1], src[0]); //Source of the received packet would be the destination for the ack
+        final int srcAddress = MeshParserUtils.unsignedBytesToInt(src[1], src[0]);
+        final int dstAddress = MeshParserUtils.unsignedBytesToInt(dst[1], dst[0]);
 
-        MeshLogger.verbose(TAG, "SEG O: " + segO);
-        MeshLogger.verbose(TAG, "SEG N: " + segN);
+        MeshLogger.verbose(TAG, () -> "SEG O: " + segO);
+        MeshLogger.verbose(TAG, () -> "SEG N: " + segN);
 
-        //Start the timer irrespective of which segment was received first
-        initSegmentedControlAcknowledgementTimer(seqZero, ttl, blockAckDst, blockAckSrc, segN);
-        mSegmentedControlBlockAck = BlockAcknowledgementMessage.calculateBlockAcknowledgement(mSegmentedControlBlockAck, segO);
-        MeshLogger.verbose(TAG, "Block acknowledgement value for " + mSegmentedControlBlockAck + " Seg O " + segO);
+        final int upperTransportSequenceNumber = getTransportLayerSequenceNumber(MeshParserUtils.getSequenceNumberFromPDU(pdu), seqZero);
 
-        final int payloadLength = pdu.length - 10;
+        ReassemblyContext context = mControlReassemblyContexts.get(ReassemblyContext.key(srcAddress, seqZero));
+        if (context == null || context.getSeqAuth() != upperTransportSequenceNumber) {
+            if (context != null) {
+                removeReassemblyContext(mControlReassemblyContexts, context);
+            }
+            if (getActiveReassemblyCount() >= mMaxConcurrentReassemblies) {
+                MeshLogger.warn(TAG, "Maximum number of concurrent reassemblies reached, ignoring segment from: " +
+                        MeshAddress.formatAddress(srcAddress, false));
+                return null;
+            }
+            context = new ReassemblyContext(srcAddress, dstAddress, seqZero, upperTransportSequenceNumber, segN, ttl);
+            mControlReassemblyContexts.put(context.getKey(), context);
+        }
 
-        final ByteBuffer payloadBuffer = ByteBuffer.allocate(payloadLength);
-        payloadBuffer.put(pdu, 10, payloadLength);
-        segmentedControlMessageMap.put(segO, payloadBuffer.array());
-
-        //Check the message count against the zero-based segN;
-        final int receivedSegmentedMessageCount = segmentedControlMessageMap.size() - 1;
-        if (segN == receivedSegmentedMessageCount) {
-            MeshLogger.verbose(TAG, "All segments received");
-            //Remove the incomplete timer if all segments were received
-            mHandler.removeCallbacks(mIncompleteTimerRunnable);
-            MeshLogger.verbose(TAG, "Block ack sent? " + mBlockAckSent);
-            if (mDuration > System.currentTimeMillis() && !mBlockAckSent) {
-                if (MeshAddress.isValidUnicastAddress(dst)) {
-                    mHandler.removeCallbacksAndMessages(null);
-                    MeshLogger.verbose(TAG, "Cancelling Scheduled block ack and incomplete timer, sending an immediate block ack");
-                    sendBlockAck(seqZero, ttl, blockAckSrc, blockAckDst, segN);
-                    //mBlockAckSent = false;
-                }
+        if (!context.addSegment(segO, Arrays.copyOfRange(pdu, 10, pdu.length), networkPdu)) {
+            MeshLogger.verbose(TAG, () -> "Ignoring duplicate segment " + segO + " from: " + MeshAddress.formatAddress(srcAddress, false));
+            return null;
+        }
+        MeshLogger.verbose(TAG, "Block acknowledgement value for %d Seg O %d", context.getBlockAck(), segO);
+
+        if (!context.isComplete()) {
+            startIncompleteTimer(mControlReassemblyContexts, context, false);
+            if (MeshAddress.isValidUnicastAddress(dst)) {
+                //Start the timer irrespective of which segment was received first
+                startAcknowledgementTimer(context);
             }
-            final int upperTransportSequenceNumber = getTransportLayerSequenceNumber(MeshParserUtils.getSequenceNumberFromPDU(pdu), seqZero);
-            final byte[] sequenceNumber = MeshParserUtils.getSequenceNumberBytes(upperTransportSequenceNumber);
-            final ControlMessage message = new ControlMessage();
-            message.setAszmic(szmic);
-            message.setSequenceNumber(sequenceNumber);
-            message.setAkf(akf);
-            message.setAid(aid);
-            message.setSegmented(true);
-            final SparseArray<byte[]> segmentedMessages = segmentedControlMessageMap.clone();
-            segmentedControlMessageMap.clear();
-            message.setLowerTransportControlPdu(segmentedMessages);
-            return message;
+            return null;
         }
 
-        return null;
+        MeshLogger.verbose(TAG, "All segments received");
+        completeReassembly(mControlReassemblyContexts, context);
+        final ControlMessage message = new ControlMessage();
+        message.setAszmic(szmic);
+        message.setSequenceNumber(MeshParserUtils.getSequenceNumberBytes(upperTransportSequenceNumber));
+        message.setAkf(akf);
+        message.setAid(aid);
+        message.setSegmented(true);
+        message.setLowerTransportControlPduMap(context.getSegments());
+        message.setNetworkLayerPdu(context.getNetworkPdus());
+        return message;
     }
 
     /**
-     * Start incomplete timer for segmented messages.
+     * Returns the number of segmented messages currently being reassembled.
      */
-    private void initIncompleteTimer() {
-        mHandler.postDelayed(mIncompleteTimerRunnable, INCOMPLETE_TIMER_DELAY);
-        mIncompleteTimerStarted = true;
+    private int getActiveReassemblyCount() {
+        return mAccessReassemblyContexts.size() + mControlReassemblyContexts.size();
     }
 
     /**
-     * Restarts the incomplete timer
+     * Finalises the reassembly of a message once all segments have been received.
+     * <p>
+     * Messages sent to a unicast address are acknowledged immediately instead of waiting for the acknowledgement timer.
+     * </p>
+     *
+     * @param contexts Contexts the reassembly context belongs to.
+     * @param context  Reassembly context.
      */
-    private void restartIncompleteTimer() {
-        //Remove the existing incomplete timer
-        if (mIncompleteTimerStarted) {
-            mHandler.removeCallbacks(mIncompleteTimerRunnable);
+    private void completeReassembly(@NonNull final Map<Integer, ReassemblyContext> contexts, @NonNull final ReassemblyContext context) {
+        removeReassemblyContext(contexts, context);
+        if (MeshAddress.isValidUnicastAddress(context.getDst())) {
+            MeshLogger.verbose(TAG, "Cancelling scheduled block ack and incomplete timer, sending an immediate block ack");
+            sendBlockAck(context);
         }
-        //Call init to start the timer again
-        initIncompleteTimer();
     }
 
     /**
-     * Cancels an already started the incomplete timer
+     * Removes a reassembly context and cancels its timers.
+     *
+     * @param contexts Contexts the reassembly context belongs to.
+     * @param context  Reassembly context.
      */
-    private void cancelIncompleteTimer() {
-        //Remove the existing incomplete timer
-        mIncompleteTimerStarted = false;
-        mHandler.removeCallbacks(mIncompleteTimerRunnable);
+    private void removeReassemblyContext(@NonNull final Map<Integer, ReassemblyContext> contexts, @NonNull final ReassemblyContext context) {
+        contexts.remove(context.getKey());
+        if (context.getIncompleteTimer() != null) {
+            context.getIncompleteTimer().cancel();
+            context.setIncompleteTimer(null);
+        }
+        if (context.getAcknowledgementTimer() != null) {
+            context.getAcknowledgementTimer().cancel();
+            context.setAcknowledgementTimer(null);
+        }
     }
 
     /**
-     * Start acknowledgement timer for segmented messages.
+     * Starts or restarts the incomplete timer of a segmented message.
      *
-     * @param seqZero Seqzero of the segmented messages.
-     * @param ttl     TTL of the segmented messages.
-     * @param dst     Destination address.
+     * @param contexts Contexts the reassembly context belongs to.
+     * @param context  Reassembly context.
+     * @param notify   True if the lower transport layer callbacks must be notified once the timer expires.
      */
-    private void initSegmentedAccessAcknowledgementTimer(final int seqZero, final int ttl, final int src, final int dst, final int segN) {
-        if (!mSegmentedAccessAcknowledgementTimerStarted) {
-            mSegmentedAccessAcknowledgementTimerStarted = true;
-            MeshLogger.verbose(TAG, "TTL: " + ttl);
-            final int duration = (BLOCK_ACK_TIMER + (50 * ttl));
-            MeshLogger.verbose(TAG, "Duration: " + duration);
-            mDuration = System.currentTimeMillis() + duration;
-            mHandler.postDelayed(() -> {
-                MeshLogger.verbose(TAG, "Acknowledgement timer expiring");
-                sendBlockAck(seqZero, ttl, src, dst, segN);
-            }, duration);
+    private void startIncompleteTimer(@NonNull final Map<Integer, ReassemblyContext> contexts,
+                                      @NonNull final ReassemblyContext context,
+                                      final boolean notify) {
+        if (context.getIncompleteTimer() != null) {
+            context.getIncompleteTimer().cancel();
         }
+        context.setIncompleteTimer(mScheduler.schedule(() -> {
+            MeshLogger.verbose(TAG, () -> "Incomplete timer expired for src: " + MeshAddress.formatAddress(context.getSrc(), false));
+            // Segments may be reassembled on the receive executor
+            synchronized (LowerTransportLayer.this) {
+                removeReassemblyContext(contexts, context);
+            }
+            if (notify) {
+                mLowerTransportLayerCallbacks.onIncompleteTimerExpired();
+            }
+        }, INCOMPLETE_TIMER_DELAY));
     }
 
     /**
-     * Start acknowledgement timer for segmented messages.
+     * Start acknowledgement timer for segmented messages if it has not been started already.
      *
-     * @param seqZero Seqzero of the segmented messages.
-     * @param ttl     TTL of the segmented messages.
-     * @param src     Source address which is the element address
-     * @param dst     Destination address.
+     * @param context Reassembly context.
      */
-    private void initSegmentedControlAcknowledgementTimer(final int seqZero, final int ttl, final int src, final int dst, final int segN) {
-        if (!mSegmentedControlAcknowledgementTimerStarted) {
-            mSegmentedControlAcknowledgementTimerStarted = true;
-            final int duration = BLOCK_ACK_TIMER + (50 * ttl);
-            mDuration = System.currentTimeMillis() + duration;
-            mHandler.postDelayed(() -> sendBlockAck(seqZero, ttl, src, dst, segN), duration);
+    private void startAcknowledgementTimer(@NonNull final ReassemblyContext context) {
+        if (!context.isAcknowledgementTimerStarted()) {
+            MeshLogger.verbose(TAG, () -> "TTL: " + context.getTtl());
+            final int duration = BLOCK_ACK_TIMER + (50 * context.getTtl());
+            MeshLogger.verbose(TAG, () -> "Duration: " + duration);
+            context.setAcknowledgementTimer(mScheduler.schedule(() -> {
+                MeshLogger.verbose(TAG, "Acknowledgement timer expiring");
+                synchronized (LowerTransportLayer.this) {
+                    context.setAcknowledgementTimer(null);
+                    sendBlockAck(context);
+                }
+            }, duration));
         }
     }
 
     /**
-     * Send block acknowledgement
+     * Send block acknowledgement for the segments received so far.
+     * <p>
+     * The acknowledgement is sent from the destination of the segmented message back to its source.
+     * </p>
      *
-     * @param seqZero Seqzero of the segmented messages.
-     * @param ttl     TTL of the segmented messages.
-     * @param src     Source address which is the element address
-     * @param dst     Destination address.
+     * @param context Reassembly context.
      */
-    private void sendBlockAck(final int seqZero, final int ttl, final int src, final int dst, final int segN) {
-        final int blockAck = mSegmentedAccessBlockAck;
-        if (BlockAcknowledgementMessage.hasAllSegmentsBeenReceived(blockAck, segN)) {
-            MeshLogger.verbose(TAG, "All segments received cancelling incomplete timer");
-            cancelIncompleteTimer();
-        }
-
-        final byte[] upperTransportControlPdu = createAcknowledgementPayload(seqZero, blockAck);
-        MeshLogger.verbose(TAG, "Block acknowledgement payload: " + MeshParserUtils.bytesToHex(upperTransportControlPdu, false));
+    private void sendBlockAck(@NonNull final ReassemblyContext context) {
+        final int blockAck = context.getBlockAck();
+        final byte[] upperTransportControlPdu = createAcknowledgementPayload(context.getSeqZero(), blockAck);
+        MeshLogger.verbose(TAG, () -> "Block acknowledgement payload: " + MeshParserUtils.bytesToHex(upperTransportControlPdu, false));
         final ControlMessage controlMessage = new ControlMessage();
         controlMessage.setOpCode(TransportLayerOpCodes.SAR_ACK_OPCODE);
         controlMessage.setTransportControlPdu(upperTransportControlPdu);
-        controlMessage.setTtl(ttl);
+        controlMessage.setTtl(context.getTtl());
         controlMessage.setPduType(MeshManagerApi.PDU_TYPE_NETWORK);
-        controlMessage.setSrc(src);
-        controlMessage.setDst(dst);
+        controlMessage.setSrc(context.getDst());
+        controlMessage.setDst(context.getSrc());
         controlMessage.setIvIndex(mUpperTransportLayerCallbacks.getIvIndex());
         final int sequenceNumber = mUpperTransportLayerCallbacks.getNode(controlMessage.getSrc()).incrementSequenceNumber();
         final byte[] sequenceNum = MeshParserUtils.getSequenceNumberBytes(sequenceNumber);
         controlMessage.setSequenceNumber(sequenceNum);
-        mBlockAckSent = true;
         mLowerTransportLayerCallbacks.sendSegmentAcknowledgementMessage(controlMessage);
-        mSegmentedAccessAcknowledgementTimerStarted = false;
     }
 
     /**
@@ -24,7 +24,7 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
 
     MeshMessage mMeshMessage;
     final MeshTransport mMeshTransport;
-    private final InternalMeshMsgHandlerCallbacks meshMessageHandlerCallbacks;
+    final InternalMeshMsgHandlerCallbacks meshMessageHandlerCallbacks;
     protected InternalTransportCallbacks mInternalTransportCallbacks;
     MeshStatusCallbacks mMeshStatusCallbacks;
     int mSrc;
@@ -79,9 +79,9 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
      * Starts sending the mesh pdu
      */
     public void executeSend() {
-        if (message.getNetworkLayerPdu().size() > 0) {
-            for (int i = 0; i < message.getNetworkLayerPdu().size(); i++) {
-                mInternalTransportCallbacks.onMeshPduCreated(mDst, message.getNetworkLayerPdu().get(i));
+        if (message.getNetworkLayerPduMap().size() > 0) {
+            for (int i = 0; i < message.getNetworkLayerPduMap().size(); i++) {
+                mInternalTransportCallbacks.onMeshPduCreated(mDst, message.getNetworkLayerPduMap().get(i));
             }
 
             if (mMeshStatusCallbacks != null) {
@@ -96,14 +96,14 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
      * @param retransmitPduIndexes list of indexes of the messages to be
      */
     final void executeResend(final List<Integer> retransmitPduIndexes) {
-        if (message.getNetworkLayerPdu().size() > 0 && !retransmitPduIndexes.isEmpty()) {
+        if (message.getNetworkLayerPduMap().size() > 0 && !retransmitPduIndexes.isEmpty()) {
             for (int i = 0; i < retransmitPduIndexes.size(); i++) {
                 final int segO = retransmitPduIndexes.get(i);
-                if (message.getNetworkLayerPdu().get(segO) != null) {
-                    final byte[] pdu = message.getNetworkLayerPdu().get(segO);
-                    MeshLogger.verbose(TAG, "Resending segment " + segO + " : " + MeshParserUtils.bytesToHex(pdu, false));
+                if (message.getNetworkLayerPduMap().get(segO) != null) {
+                    final byte[] pdu = message.getNetworkLayerPduMap().get(segO);
+                    MeshLogger.verbose(TAG, () -> "Resending segment " + segO + " : " + MeshParserUtils.bytesToHex(pdu, false));
                     final Message retransmitMeshMessage = mMeshTransport.createRetransmitMeshMessage(message, segO);
-                    mInternalTransportCallbacks.onMeshPduCreated(mDst, retransmitMeshMessage.getNetworkLayerPdu().get(segO));
+                    mInternalTransportCallbacks.onMeshPduCreated(mDst, retransmitMeshMessage.getNetworkLayerPduMap().get(segO));
                 }
             }
         }
@@ -130,8 +130,8 @@ abstract class MeshMessageState implements LowerTransportLayerCallbacks {
     public void sendSegmentAcknowledgementMessage(final ControlMessage controlMessage) {
         //We don't send acknowledgements here
         final ControlMessage message = mMeshTransport.createSegmentBlockAcknowledgementMessage(controlMessage);
-        MeshLogger.verbose(TAG, "Sending acknowledgement: " + MeshParserUtils.bytesToHex(message.getNetworkLayerPdu().get(0), false));
-        mInternalTransportCallbacks.onMeshPduCreated(message.getDst(), message.getNetworkLayerPdu().get(0));
+        MeshLogger.verbose(TAG, () -> "Sending acknowledgement: " + MeshParserUtils.bytesToHex(message.getNetworkLayerPduMap().get(0), false));
+        mInternalTransportCallbacks.onMeshPduCreated(message.getDst(), message.getNetworkLayerPduMap().get(0));
         mMeshStatusCallbacks.onBlockAcknowledgementProcessed(message.getDst(), controlMessage);
     }
 
@@ -29,14 +29,13 @@ import com.google.gson.annotations.Expose;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.Uint16Set;
 
 /**
  * Base mesh model class
@@ -51,11 +50,9 @@ public abstract class MeshModel implements Parcelable {
     @Expose
     protected int mModelId;
     @Expose
-    final List<Integer> mBoundAppKeyIndexes = new ArrayList<>();
-    @Expose(serialize = false)
-    final Map<Integer, String> mBoundAppKeys = new LinkedHashMap<>();
+    final Uint16Set mBoundAppKeyIndexes = new Uint16Set();
     @Expose
-    final List<Integer> subscriptionAddresses = new ArrayList<>();
+    final Uint16Set subscriptionAddresses = new Uint16Set();
     @Expose
     final List<UUID> labelUuids = new ArrayList<>();
     @Expose
@@ -63,7 +60,7 @@ public abstract class MeshModel implements Parcelable {
     protected int currentScene;
     protected int targetScene;
     @Expose
-    protected List<Integer> sceneNumbers = new ArrayList<>();
+    private final Uint16Set sceneNumbers = new Uint16Set();
 
     public MeshModel(final int modelId) {
         this.mModelId = modelId;
@@ -73,11 +70,11 @@ public abstract class MeshModel implements Parcelable {
 
     protected MeshModel(final Parcel in) {
         mModelId = in.readInt();
-        in.readList(mBoundAppKeyIndexes, Integer.class.getClassLoader());
+        mBoundAppKeyIndexes.readFromParcel(in);
         mPublicationSettings = (PublicationSettings) in.readValue(PublicationSettings.class.getClassLoader());
-        in.readList(subscriptionAddresses, Integer.class.getClassLoader());
+        subscriptionAddresses.readFromParcel(in);
         in.readList(labelUuids, UUID.class.getClassLoader());
-        in.readList(sceneNumbers, Integer.class.getClassLoader());
+        sceneNumbers.readFromParcel(in);
     }
 
     /**
@@ -89,11 +86,11 @@ public abstract class MeshModel implements Parcelable {
      */
     protected final void parcelMeshModel(final Parcel dest, final int flags) {
         dest.writeInt(mModelId);
-        dest.writeList(mBoundAppKeyIndexes);
+        mBoundAppKeyIndexes.writeToParcel(dest);
         dest.writeValue(mPublicationSettings);
-        dest.writeList(subscriptionAddresses);
+        subscriptionAddresses.writeToParcel(dest);
         dest.writeList(labelUuids);
-        dest.writeList(sceneNumbers);
+        sceneNumbers.writeToParcel(dest);
     }
 
     /**
@@ -114,12 +111,36 @@ public abstract class MeshModel implements Parcelable {
      * Returns bound appkey indexes for this model
      */
     public List<Integer> getBoundAppKeyIndexes() {
-        return Collections.unmodifiableList(mBoundAppKeyIndexes);
+        return mBoundAppKeyIndexes.asList();
+    }
+
+    /**
+     * Returns the number of app keys bound to this model
+     */
+    public int getBoundAppKeyCount() {
+        return mBoundAppKeyIndexes.size();
+    }
+
+    /**
+     * Returns the bound app key index at the given position, without boxing
+     *
+     * @param position Position in the order the keys were bound
+     */
+    public int getBoundAppKeyIndexAt(final int position) {
+        return mBoundAppKeyIndexes.get(position);
+    }
+
+    /**
+     * Returns true if the given app key is bound to this model
+     *
+     * @param appKeyIndex Index of the app key
+     */
+    public boolean isAppKeyBound(final int appKeyIndex) {
+        return mBoundAppKeyIndexes.contains(appKeyIndex);
     }
 
     protected void setBoundAppKeyIndex(final int appKeyIndex) {
-        if (!mBoundAppKeyIndexes.contains(appKeyIndex))
-            mBoundAppKeyIndexes.add(appKeyIndex);
+        mBoundAppKeyIndexes.add(appKeyIndex);
     }
 
     protected void setBoundAppKeyIndexes(@NonNull final List<Integer> indexes) {
@@ -127,12 +148,8 @@ public abstract class MeshModel implements Parcelable {
         mBoundAppKeyIndexes.addAll(indexes);
     }
 
-    @SuppressWarnings("RedundantCollectionOperation")
     protected void removeBoundAppKeyIndex(final int appKeyIndex) {
-        if (mBoundAppKeyIndexes.contains(appKeyIndex)) {
-            final int position = mBoundAppKeyIndexes.indexOf(appKeyIndex);
-            mBoundAppKeyIndexes.remove(position);
-        }
+        mBoundAppKeyIndexes.remove(appKeyIndex);
     }
 
     /**
@@ -141,7 +158,56 @@ public abstract class MeshModel implements Parcelable {
      * @return subscription addresses
      */
     public List<Integer> getSubscribedAddresses() {
-        return Collections.unmodifiableList(subscriptionAddresses);
+        return subscriptionAddresses.asList();
+    }
+
+    /**
+     * Returns the number of subscription addresses belonging to this model
+     */
+    public int getSubscribedAddressCount() {
+        return subscriptionAddresses.size();
+    }
+
+    /**
+     * Returns the subscription address at the given position, without boxing
+     *
+     * @param position Position in the order the addresses were added
+     */
+    public int getSubscribedAddressAt(final int position) {
+        return subscriptionAddresses.get(position);
+    }
+
+    /**
+     * Returns true if this model is subscribed to the given address
+     *
+     * @param address Subscription address
+     */
+    public boolean isSubscribedTo(final int address) {
+        return subscriptionAddresses.contains(address);
+    }
+
+    /**
+     * Returns the scene numbers stored on this model
+     */
+    protected List<Integer> getSceneNumbers() {
+        return sceneNumbers.asList();
+    }
+
+    /**
+     * Returns true if the given scene is stored on this model
+     *
+     * @param sceneNumber Scene number
+     */
+    protected boolean hasSceneNumber(final int sceneNumber) {
+        return sceneNumbers.contains(sceneNumber);
+    }
+
+    protected void addSceneNumber(final int sceneNumber) {
+        sceneNumbers.add(sceneNumber);
+    }
+
+    protected void removeSceneNumber(final int sceneNumber) {
+        sceneNumbers.remove(sceneNumber);
     }
 
     /**
@@ -226,9 +292,7 @@ public abstract class MeshModel implements Parcelable {
      * @param subscriptionAddress Subscription address
      */
     protected void addSubscriptionAddress(final int subscriptionAddress) {
-        if (!subscriptionAddresses.contains(subscriptionAddress)) {
-            subscriptionAddresses.add(subscriptionAddress);
-        }
+        subscriptionAddresses.add(subscriptionAddress);
     }
 
     /**
@@ -242,9 +306,7 @@ public abstract class MeshModel implements Parcelable {
             labelUuids.add(labelUuid);
         }
 
-        if (!subscriptionAddresses.contains(address)) {
-            subscriptionAddresses.add(address);
-        }
+        subscriptionAddresses.add(address);
     }
 
     /**
@@ -22,8 +22,6 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.content.Context;
-import android.os.Handler;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
 
 import java.util.UUID;
@@ -33,6 +31,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import no.nordicsemi.android.mesh.ApplicationKey;
 import no.nordicsemi.android.mesh.MeshManagerApi;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 
@@ -47,30 +46,23 @@ final class MeshTransport extends NetworkLayer {
     /**
      * Constructs the MeshTransport
      *
-     * @param context context
+     * @param scheduler scheduler running the timers of the transport
      */
-    MeshTransport(@NonNull final Context context) {
-        this.mContext = context;
-        initHandler();
+    MeshTransport(@NonNull final MeshScheduler scheduler) {
+        this.mScheduler = scheduler;
     }
 
     /**
      * Constructs MeshTransport
      *
-     * @param context Context
-     * @param node    Mesh node
+     * @param scheduler scheduler running the timers of the transport
+     * @param node      Mesh node
      */
     @VisibleForTesting(otherwise = VisibleForTesting.PROTECTED)
-    MeshTransport(@NonNull final Context context, @NonNull final ProvisionedMeshNode node) {
+    MeshTransport(@NonNull final MeshScheduler scheduler, @NonNull final ProvisionedMeshNode node) {
         super();
-        this.mContext = context;
+        this.mScheduler = scheduler;
         this.mMeshNode = node;
-        initHandler();
-    }
-
-    @Override
-    protected final void initHandler() {
-        this.mHandler = new Handler(mContext.getMainLooper());
     }
 
     @Override
@@ -129,15 +121,15 @@ final class MeshTransport extends NetworkLayer {
         final int sequenceNumber = node.incrementSequenceNumber();
         final byte[] sequenceNum = MeshParserUtils.getSequenceNumberBytes(sequenceNumber);
 
-        MeshLogger.verbose(TAG, "Src address: " + MeshAddress.formatAddress(src, false));
-        MeshLogger.verbose(TAG, "Dst address: " + MeshAddress.formatAddress(dst, false));
-        MeshLogger.verbose(TAG, "Key: " + MeshParserUtils.bytesToHex(key, false));
-        MeshLogger.verbose(TAG, "akf: " + akf);
-        MeshLogger.verbose(TAG, "aid: " + aid);
-        MeshLogger.verbose(TAG, "aszmic: " + aszmic);
-        MeshLogger.verbose(TAG, "Sequence number: " + sequenceNumber);
-        MeshLogger.verbose(TAG, "Access message opcode: " + Integer.toHexString(accessOpCode));
-        MeshLogger.verbose(TAG, "Access message parameters: " + MeshParserUtils.bytesToHex(accessMessageParameters, false));
+        MeshLogger.verbose(TAG, () -> "Src address: " + MeshAddress.formatAddress(src, false));
+        MeshLogger.verbose(TAG, () -> "Dst address: " + MeshAddress.formatAddress(dst, false));
+        MeshLogger.verbose(TAG, () -> "Key: " + MeshParserUtils.bytesToHex(key, false));
+        MeshLogger.verbose(TAG, () -> "akf: " + akf);
+        MeshLogger.verbose(TAG, () -> "aid: " + aid);
+        MeshLogger.verbose(TAG, () -> "aszmic: " + aszmic);
+        MeshLogger.verbose(TAG, () -> "Sequence number: " + sequenceNumber);
+        MeshLogger.verbose(TAG, () -> "Access message opcode: " + Integer.toHexString(accessOpCode));
+        MeshLogger.verbose(TAG, () -> "Access message parameters: " + MeshParserUtils.bytesToHex(accessMessageParameters, false));
 
         final AccessMessage message = new AccessMessage();
         message.setSrc(src);
@@ -188,15 +180,15 @@ final class MeshTransport extends NetworkLayer {
         final int sequenceNumber = node.incrementSequenceNumber();
         final byte[] sequenceNum = MeshParserUtils.getSequenceNumberBytes(sequenceNumber);
 
-        MeshLogger.verbose(TAG, "Src address: " + MeshAddress.formatAddress(src, false));
-        MeshLogger.verbose(TAG, "Dst address: " + MeshAddress.formatAddress(dst, false));
-        MeshLogger.verbose(TAG, "Key: " + MeshParserUtils.bytesToHex(key.getKey(), false));
-        MeshLogger.verbose(TAG, "akf: " + akf);
-        MeshLogger.verbose(TAG, "aid: " + aid);
-        MeshLogger.verbose(TAG, "aszmic: " + aszmic);
-        MeshLogger.verbose(TAG, "Sequence number: " + sequenceNumber);
-        MeshLogger.verbose(TAG, "Access message opcode: " + Integer.toHexString(accessOpCode));
-        MeshLogger.verbose(TAG, "Access message parameters: " + MeshParserUtils.bytesToHex(accessMessageParameters, false));
+        MeshLogger.verbose(TAG, () -> "Src address: " + MeshAddress.formatAddress(src, false));
+        MeshLogger.verbose(TAG, () -> "Dst address: " + MeshAddress.formatAddress(dst, false));
+        MeshLogger.verbose(TAG, () -> "Key: " + MeshParserUtils.bytesToHex(key.getKey(), false));
+        MeshLogger.verbose(TAG, () -> "akf: " + akf);
+        MeshLogger.verbose(TAG, () -> "aid: " + aid);
+        MeshLogger.verbose(TAG, () -> "aszmic: " + aszmic);
+        MeshLogger.verbose(TAG, () -> "Sequence number: " + sequenceNumber);
+        MeshLogger.verbose(TAG, () -> "Access message opcode: " + Integer.toHexString(accessOpCode));
+        MeshLogger.verbose(TAG, () -> "Access message parameters: " + MeshParserUtils.bytesToHex(accessMessageParameters, false));
 
         final AccessMessage message = new AccessMessage();
         message.setSrc(src);
@@ -251,15 +243,15 @@ final class MeshTransport extends NetworkLayer {
         final int sequenceNumber = node.incrementSequenceNumber();
         final byte[] sequenceNum = MeshParserUtils.getSequenceNumberBytes(sequenceNumber);
 
-        MeshLogger.verbose(TAG, "Src address: " + MeshAddress.formatAddress(src, false));
-        MeshLogger.verbose(TAG, "Dst address: " + MeshAddress.formatAddress(dst, false));
-        MeshLogger.verbose(TAG, "Key: " + MeshParserUtils.bytesToHex(key.getKey(), false));
-        MeshLogger.verbose(TAG, "akf: " + akf);
-        MeshLogger.verbose(TAG, "aid: " + aid);
-        MeshLogger.verbose(TAG, "aszmic: " + aszmic);
-        MeshLogger.verbose(TAG, "Sequence number: " + sequenceNumber);
-        MeshLogger.verbose(TAG, "Access message opcode: " + Integer.toHexString(accessOpCode));
-        MeshLogger.verbose(TAG, "Access message parameters: " + MeshParserUtils.bytesToHex(accessMessageParameters, false));
+        MeshLogger.verbose(TAG, () -> "Src address: " + MeshAddress.formatAddress(src, false));
+        MeshLogger.verbose(TAG, () -> "Dst address: " + MeshAddress.formatAddress(dst, false));
+        MeshLogger.verbose(TAG, () -> "Key: " + MeshParserUtils.bytesToHex(key.getKey(), false));
+        MeshLogger.verbose(TAG, () -> "akf: " + akf);
+        MeshLogger.verbose(TAG, () -> "aid: " + aid);
+        MeshLogger.verbose(TAG, () -> "aszmic: " + aszmic);
+        MeshLogger.verbose(TAG, () -> "Sequence number: " + sequenceNumber);
+        MeshLogger.verbose(TAG, () -> "Access message opcode: " + Integer.toHexString(accessOpCode));
+        MeshLogger.verbose(TAG, () -> "Access message parameters: " + MeshParserUtils.bytesToHex(accessMessageParameters, false));
 
         final AccessMessage message = new AccessMessage();
         message.setCompanyIdentifier(companyIdentifier);
@@ -299,11 +291,11 @@ final class MeshTransport extends NetworkLayer {
         final int sequenceNumber = node.incrementSequenceNumber();
         final byte[] sequenceNum = MeshParserUtils.getSequenceNumberBytes(sequenceNumber);
 
-        MeshLogger.verbose(TAG, "Src address: " + MeshAddress.formatAddress(src, false));
-        MeshLogger.verbose(TAG, "Dst address: " + MeshAddress.formatAddress(dst, false));
-        MeshLogger.verbose(TAG, "Sequence number: " + sequenceNumber);
-        MeshLogger.verbose(TAG, "Control message opcode: " + Integer.toHexString(opcode));
-        MeshLogger.verbose(TAG, "Control message parameters: " + MeshParserUtils.bytesToHex(parameters, false));
+        MeshLogger.verbose(TAG, () -> "Src address: " + MeshAddress.formatAddress(src, false));
+        MeshLogger.verbose(TAG, () -> "Dst address: " + MeshAddress.formatAddress(dst, false));
+        MeshLogger.verbose(TAG, () -> "Sequence number: " + sequenceNumber);
+        MeshLogger.verbose(TAG, () -> "Control message opcode: " + Integer.toHexString(opcode));
+        MeshLogger.verbose(TAG, () -> "Control message parameters: " + MeshParserUtils.bytesToHex(parameters, false));
 
         final ControlMessage message = new ControlMessage();
         message.setSrc(src);
@@ -26,6 +26,10 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.util.SparseArray;
 
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
 import no.nordicsemi.android.mesh.ApplicationKey;
 import no.nordicsemi.android.mesh.NetworkKey;
 
@@ -33,7 +37,7 @@ import no.nordicsemi.android.mesh.NetworkKey;
 abstract class Message implements Parcelable {
 
     protected int ctl;                              // If ctl = 0 access message and ctl = 1 control message
-    protected SparseArray<byte[]> networkLayerPdu;  // Mesh pdu
+    protected SortedMap<Integer, byte[]> networkLayerPdu; // Mesh pdu
     private int pduType;                            // PDU Type
     private int ttl = 100;                          // Time to live
     private int src;                                // Source address
@@ -58,7 +62,7 @@ abstract class Message implements Parcelable {
 
     protected Message(final Parcel source) {
         ctl = source.readInt();
-        networkLayerPdu = readSparseArrayToParcelable(source);
+        networkLayerPdu = readSegmentsFromParcel(source);
         pduType = source.readInt();
         ttl = source.readInt();
         src = source.readInt();
@@ -82,7 +86,7 @@ abstract class Message implements Parcelable {
     @Override
     public void writeToParcel(final Parcel dest, final int flags) {
         dest.writeInt(ctl);
-        writeSparseArrayToParcelable(dest, networkLayerPdu);
+        writeSegmentsToParcel(dest, networkLayerPdu);
         dest.writeInt(pduType);
         dest.writeInt(ttl);
         dest.writeInt(src);
@@ -249,28 +253,54 @@ abstract class Message implements Parcelable {
         this.segmented = segmented;
     }
 
+    /**
+     * Returns a copy of the network pdus of this message keyed by the segment offset.
+     */
     public final SparseArray<byte[]> getNetworkLayerPdu() {
+        return toSparseArray(networkLayerPdu);
+    }
+
+    final SortedMap<Integer, byte[]> getNetworkLayerPduMap() {
         return networkLayerPdu;
     }
 
-    final void setNetworkLayerPdu(final SparseArray<byte[]> pdu) {
+    final void setNetworkLayerPdu(final SortedMap<Integer, byte[]> pdu) {
         networkLayerPdu = pdu;
     }
 
-    protected final void writeSparseArrayToParcelable(final Parcel dest, final SparseArray<byte[]> array) {
-        final int size = array.size();
-        dest.writeInt(size);
-        for (int i = 0; i < size; i++) {
-            dest.writeByteArray(array.valueAt(i));
+    protected final void writeSegmentsToParcel(final Parcel dest, final SortedMap<Integer, byte[]> segments) {
+        dest.writeInt(segments.size());
+        for (byte[] segment : segments.values()) {
+            dest.writeByteArray(segment);
+        }
+    }
+
+    static SparseArray<byte[]> toSparseArray(final SortedMap<Integer, byte[]> segments) {
+        if (segments == null)
+            return null;
+        final SparseArray<byte[]> array = new SparseArray<>(segments.size());
+        for (Map.Entry<Integer, byte[]> entry : segments.entrySet()) {
+            array.put(entry.getKey(), entry.getValue());
+        }
+        return array;
+    }
+
+    static SortedMap<Integer, byte[]> toSortedMap(final SparseArray<byte[]> array) {
+        if (array == null)
+            return null;
+        final SortedMap<Integer, byte[]> segments = new TreeMap<>();
+        for (int i = 0; i < array.size(); i++) {
+            segments.put(array.keyAt(i), array.valueAt(i));
         }
+        return segments;
     }
 
-    protected final SparseArray<byte[]> readSparseArrayToParcelable(final Parcel src) {
-        final SparseArray<byte[]> array = new SparseArray<>();
+    protected final SortedMap<Integer, byte[]> readSegmentsFromParcel(final Parcel src) {
+        final SortedMap<Integer, byte[]> segments = new TreeMap<>();
         final int size = src.readInt();
         for (int i = 0; i < size; i++) {
-            array.put(i, src.createByteArray());
+            segments.put(i, src.createByteArray());
         }
-        return array;
+        return segments;
     }
 }
@@ -22,7 +22,6 @@
 package no.nordicsemi.android.mesh.transport;
 
 import no.nordicsemi.android.mesh.logger.MeshLogger;
-import android.util.SparseArray;
 
 import org.spongycastle.crypto.InvalidCipherTextException;
 
@@ -30,6 +29,8 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -39,6 +40,7 @@ import no.nordicsemi.android.mesh.NetworkKey;
 import no.nordicsemi.android.mesh.Provisioner;
 import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.MeshCrypto;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 import no.nordicsemi.android.mesh.utils.SecureUtils;
 
@@ -52,8 +54,6 @@ abstract class NetworkLayer extends LowerTransportLayer {
 
     private static final String TAG = NetworkLayer.class.getSimpleName();
     NetworkLayerCallbacks mNetworkLayerCallbacks;
-    private SparseArray<byte[]> segmentedAccessMessagesMessages;
-    private SparseArray<byte[]> segmentedControlMessagesMessages;
 
     /**
      * Set network layer callbacks
@@ -95,10 +95,10 @@ abstract class NetworkLayer extends LowerTransportLayer {
         final SecureUtils.K2Output k2Output = getK2Output(message);
         final int nid = k2Output.getNid();
         final byte[] encryptionKey = k2Output.getEncryptionKey();
-        MeshLogger.verbose(TAG, "Encryption key: " + MeshParserUtils.bytesToHex(encryptionKey, false));
+        MeshLogger.verbose(TAG, () -> "Encryption key: " + MeshParserUtils.bytesToHex(encryptionKey, false));
 
         final byte[] privacyKey = k2Output.getPrivacyKey();
-        MeshLogger.verbose(TAG, "Privacy key: " + MeshParserUtils.bytesToHex(privacyKey, false));
+        MeshLogger.verbose(TAG, () -> "Privacy key: " + MeshParserUtils.bytesToHex(privacyKey, false));
         final int ctl = message.getCtl();
         final int ttl = message.getTtl();
         final int ivi = message.getIvIndex()[3] & 0x01; // least significant bit of IV Index
@@ -106,8 +106,8 @@ abstract class NetworkLayer extends LowerTransportLayer {
         final byte ctlTTL = (byte) ((ctl << 7) | (ttl & 0x7F));
 
         final int src = message.getSrc();
-        final SparseArray<byte[]> lowerTransportPduMap;
-        final SparseArray<byte[]> encryptedPduPayload = new SparseArray<>();
+        final SortedMap<Integer, byte[]> lowerTransportPduMap;
+        final SortedMap<Integer, byte[]> encryptedPduPayload = new TreeMap<>();
         final List<byte[]> sequenceNumbers = new ArrayList<>();
 
         final ProvisionedMeshNode node = mUpperTransportLayerCallbacks.getNode(message.getSrc());
@@ -115,9 +115,9 @@ abstract class NetworkLayer extends LowerTransportLayer {
         switch (message.getPduType()) {
             case MeshManagerApi.PDU_TYPE_NETWORK:
                 if (message instanceof AccessMessage) {
-                    lowerTransportPduMap = ((AccessMessage) message).getLowerTransportAccessPdu();
+                    lowerTransportPduMap = ((AccessMessage) message).getLowerTransportAccessPduMap();
                 } else {
-                    lowerTransportPduMap = ((ControlMessage) message).getLowerTransportControlPdu();
+                    lowerTransportPduMap = ((ControlMessage) message).getLowerTransportControlPduMap();
                 }
                 for (int i = 0; i < lowerTransportPduMap.size(); i++) {
                     final byte[] lowerTransportPdu = lowerTransportPduMap.get(i);
@@ -126,16 +126,17 @@ abstract class NetworkLayer extends LowerTransportLayer {
                         final byte[] sequenceNumber = MeshParserUtils.getSequenceNumberBytes(node.incrementSequenceNumber());
                         message.setSequenceNumber(sequenceNumber);
                     }
-                    sequenceNumbers.add(message.getSequenceNumber());
-                    MeshLogger.verbose(TAG, "Sequence Number: " + MeshParserUtils.bytesToHex(sequenceNumbers.get(i), false));
+                    final byte[] sequenceNumber = message.getSequenceNumber();
+                    sequenceNumbers.add(sequenceNumber);
+                    MeshLogger.verbose(TAG, () -> "Sequence Number: " + MeshParserUtils.bytesToHex(sequenceNumber, false));
                     final byte[] nonce = createNetworkNonce(ctlTTL, sequenceNumbers.get(i), src, message.getIvIndex());
                     final byte[] encryptedPayload = encryptPdu(lowerTransportPdu, encryptionKey, nonce, message.getDst(), SecureUtils.getNetMicLength(message.getCtl()));
                     encryptedPduPayload.put(i, encryptedPayload);
-                    MeshLogger.verbose(TAG, "Encrypted Network payload: " + MeshParserUtils.bytesToHex(encryptedPayload, false));
+                    MeshLogger.verbose(TAG, () -> "Encrypted Network payload: " + MeshParserUtils.bytesToHex(encryptedPayload, false));
                 }
                 break;
             case MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION:
-                lowerTransportPduMap = ((ControlMessage) message).getLowerTransportControlPdu();
+                lowerTransportPduMap = ((ControlMessage) message).getLowerTransportControlPduMap();
                 for (int i = 0; i < lowerTransportPduMap.size(); i++) {
                     final byte[] lowerTransportPdu = lowerTransportPduMap.get(i);
                     final byte[] sequenceNum = MeshParserUtils.getSequenceNumberBytes(node.incrementSequenceNumber());
@@ -144,20 +145,20 @@ abstract class NetworkLayer extends LowerTransportLayer {
                     final byte[] nonce = createProxyNonce(message.getSequenceNumber(), src, message.getIvIndex());
                     final byte[] encryptedPayload = encryptPdu(lowerTransportPdu, encryptionKey, nonce, message.getDst(), SecureUtils.getNetMicLength(message.getCtl()));
                     encryptedPduPayload.put(i, encryptedPayload);
-                    MeshLogger.verbose(TAG, "Encrypted Network payload: " + MeshParserUtils.bytesToHex(encryptedPayload, false));
+                    MeshLogger.verbose(TAG, () -> "Encrypted Network payload: " + MeshParserUtils.bytesToHex(encryptedPayload, false));
                 }
                 break;
         }
 
-        final SparseArray<byte[]> pduArray = new SparseArray<>();
+        final SortedMap<Integer, byte[]> pduArray = new TreeMap<>();
         for (int i = 0; i < encryptedPduPayload.size(); i++) {
             //Create the privacy random
             final byte[] encryptedPayload = encryptedPduPayload.get(i);
             final byte[] privacyRandom = createPrivacyRandom(encryptedPayload);
             //Next we create the PECB
-            final byte[] pecb = createPECB(message.getIvIndex(), privacyRandom, privacyKey);
+            final byte[] pecb = MeshCrypto.createPECB(message.getIvIndex(), privacyRandom, privacyKey);
 
-            final byte[] header = obfuscateNetworkHeader(ctlTTL, sequenceNumbers.get(i), src, pecb);
+            final byte[] header = MeshCrypto.obfuscateNetworkHeader(ctlTTL, sequenceNumbers.get(i), src, pecb);
             final byte[] pdu = ByteBuffer.allocate(1 + 1 + header.length + encryptedPayload.length).order(ByteOrder.BIG_ENDIAN)
                     .put((byte) pduType)
                     .put(iviNID)
@@ -176,10 +177,10 @@ abstract class NetworkLayer extends LowerTransportLayer {
         final SecureUtils.K2Output k2Output = getK2Output(message);
         final int nid = k2Output.getNid();
         final byte[] encryptionKey = k2Output.getEncryptionKey();
-        MeshLogger.verbose(TAG, "Encryption key: " + MeshParserUtils.bytesToHex(encryptionKey, false));
+        MeshLogger.verbose(TAG, () -> "Encryption key: " + MeshParserUtils.bytesToHex(encryptionKey, false));
 
         final byte[] privacyKey = k2Output.getPrivacyKey();
-        MeshLogger.verbose(TAG, "Privacy key: " + MeshParserUtils.bytesToHex(privacyKey, false));
+        MeshLogger.verbose(TAG, () -> "Privacy key: " + MeshParserUtils.bytesToHex(privacyKey, false));
         final int ctl = message.getCtl();
         final int ttl = message.getTtl();
         final int ivi = message.getIvIndex()[3] & 0x01; // least significant bit of IV Index
@@ -187,11 +188,11 @@ abstract class NetworkLayer extends LowerTransportLayer {
         final byte ctlTTL = (byte) ((ctl << 7) | (ttl & 0x7F));
 
         final int src = message.getSrc();
-        final SparseArray<byte[]> lowerTransportPduMap;
+        final SortedMap<Integer, byte[]> lowerTransportPduMap;
         if (message instanceof AccessMessage) {
-            lowerTransportPduMap = ((AccessMessage) message).getLowerTransportAccessPdu();
+            lowerTransportPduMap = ((AccessMessage) message).getLowerTransportAccessPduMap();
         } else {
-            lowerTransportPduMap = ((ControlMessage) message).getLowerTransportControlPdu();
+            lowerTransportPduMap = ((ControlMessage) message).getLowerTransportControlPduMap();
         }
 
         byte[] encryptedNetworkPayload = null;
@@ -204,13 +205,14 @@ abstract class NetworkLayer extends LowerTransportLayer {
             final byte[] sequenceNum = MeshParserUtils.getSequenceNumberBytes(node.incrementSequenceNumber());
             message.setSequenceNumber(sequenceNum);
 
-            MeshLogger.verbose(TAG, "Sequence Number: " + MeshParserUtils.bytesToHex(sequenceNum, false));
+            MeshLogger.verbose(TAG, () -> "Sequence Number: " + MeshParserUtils.bytesToHex(sequenceNum, false));
 
             final byte[] nonce = createNetworkNonce(ctlTTL, sequenceNum, src, message.getIvIndex());
             encryptedNetworkPayload = encryptPdu(lowerTransportPdu, encryptionKey, nonce, message.getDst(), SecureUtils.getNetMicLength(message.getCtl()));
             if (encryptedNetworkPayload == null)
                 return null;
-            MeshLogger.verbose(TAG, "Encrypted Network payload: " + MeshParserUtils.bytesToHex(encryptedNetworkPayload, false));
+            final byte[] encryptedPayload = encryptedNetworkPayload;
+            MeshLogger.verbose(TAG, () -> "Encrypted Network payload: " + MeshParserUtils.bytesToHex(encryptedPayload, false));
         }
 
         if (encryptedNetworkPayload == null)
@@ -218,16 +220,16 @@ abstract class NetworkLayer extends LowerTransportLayer {
 
         final byte[] privacyRandom = createPrivacyRandom(encryptedNetworkPayload);
         //Next we create the PECB
-        final byte[] pecb = createPECB(message.getIvIndex(), privacyRandom, privacyKey);
+        final byte[] pecb = MeshCrypto.createPECB(message.getIvIndex(), privacyRandom, privacyKey);
 
-        final byte[] header = obfuscateNetworkHeader(ctlTTL, message.getSequenceNumber(), src, pecb);
+        final byte[] header = MeshCrypto.obfuscateNetworkHeader(ctlTTL, message.getSequenceNumber(), src, pecb);
         final byte[] pdu = ByteBuffer.allocate(1 + 1 + header.length + encryptedNetworkPayload.length).order(ByteOrder.BIG_ENDIAN)
                 .put((byte) pduType)
                 .put(iviNID)
                 .put(header)
                 .put(encryptedNetworkPayload)
                 .array();
-        message.getNetworkLayerPdu().put(segment, pdu);
+        message.getNetworkLayerPduMap().put(segment, pdu);
         return message;
     }
 
@@ -252,17 +254,55 @@ abstract class NetworkLayer extends LowerTransportLayer {
                                    @NonNull final byte[] decryptedNetworkPayload,
                                    final int ivIndex,
                                    @NonNull final byte[] sequenceNumber) throws ExtendedInvalidCipherTextException {
+        return parseMeshMessage(key, node, data, networkHeader, decryptedNetworkPayload, ivIndex, sequenceNumber, true);
+    }
+
+    /**
+     * Parses the lower transport pdu of a received mesh message without decrypting its upper transport pdu.
+     * <p>
+     * Access messages are returned once reassembled, and are to be decrypted using
+     * {@link UpperTransportLayer#decryptAccessMessage(AccessMessage, UpperTransportKeys)} with the keys returned by
+     * {@link #getUpperTransportKeys(AccessMessage)}. Control messages are returned parsed.
+     * </p>
+     *
+     * @param key                     Network Key used to decrypt
+     * @param node                    Mesh node.
+     * @param data                    PDU received from the mesh node.
+     * @param networkHeader           Network header.
+     * @param decryptedNetworkPayload Decrypted network payload.
+     * @param ivIndex                 IV Index of the network.
+     * @return complete {@link Message} that was successfully reassembled or null otherwise.
+     */
+    final Message parseLowerTransportMessage(@NonNull final NetworkKey key,
+                                             @NonNull final ProvisionedMeshNode node,
+                                             @NonNull final byte[] data,
+                                             @NonNull final byte[] networkHeader,
+                                             @NonNull final byte[] decryptedNetworkPayload,
+                                             final int ivIndex,
+                                             @NonNull final byte[] sequenceNumber) throws ExtendedInvalidCipherTextException {
+        return parseMeshMessage(key, node, data, networkHeader, decryptedNetworkPayload, ivIndex, sequenceNumber, false);
+    }
+
+    private Message parseMeshMessage(@NonNull final NetworkKey key,
+                                     @NonNull final ProvisionedMeshNode node,
+                                     @NonNull final byte[] data,
+                                     @NonNull final byte[] networkHeader,
+                                     @NonNull final byte[] decryptedNetworkPayload,
+                                     final int ivIndex,
+                                     @NonNull final byte[] sequenceNumber,
+                                     final boolean decryptUpperTransportPdu) throws ExtendedInvalidCipherTextException {
         mMeshNode = node;
         final Provisioner provisioner = mNetworkLayerCallbacks.getProvisioner();
         final int ctlTtl = networkHeader[0];
         final int ctl = (ctlTtl >> 7) & 0x01;
         final int ttl = ctlTtl & 0x7F;
-        MeshLogger.verbose(TAG, "TTL for received message: " + ttl);
+        MeshLogger.verbose(TAG, () -> "TTL for received message: " + ttl);
         final int src = MeshParserUtils.unsignedBytesToInt(networkHeader[5], networkHeader[4]);
         if (ctl == 1) {
             return parseControlMessage(key, provisioner.getProvisionerAddress(), data, networkHeader, decryptedNetworkPayload, src, sequenceNumber);
         } else {
-            return parseAccessMessage(key, data, networkHeader, decryptedNetworkPayload, src, sequenceNumber, ivIndex);
+            return parseAccessMessage(key, data, networkHeader, decryptedNetworkPayload, src, sequenceNumber, ivIndex,
+                    decryptUpperTransportPdu);
         }
     }
 
@@ -276,6 +316,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
      * @param src                     Source address.
      * @param sequenceNumber          Sequence number of the received message.
      * @param ivIndex                 IV Index used for decryption.
+     * @param decryptUpperTransportPdu True to decrypt the upper transport pdu once reassembled.
      * @return access message
      */
     @VisibleForTesting
@@ -285,14 +326,15 @@ abstract class NetworkLayer extends LowerTransportLayer {
                                              @NonNull final byte[] decryptedNetworkPayload,
                                              final int src,
                                              @NonNull final byte[] sequenceNumber,
-                                             int ivIndex) throws ExtendedInvalidCipherTextException {
+                                             int ivIndex,
+                                             final boolean decryptUpperTransportPdu) throws ExtendedInvalidCipherTextException {
         try {
             int receivedTtl = networkHeader[0] & 0x7F;
             final int dst = MeshParserUtils.unsignedBytesToInt(decryptedNetworkPayload[1], decryptedNetworkPayload[0]);
-            MeshLogger.verbose(TAG, "Dst: " + MeshAddress.formatAddress(dst, true));
+            MeshLogger.verbose(TAG, () -> "Dst: " + MeshAddress.formatAddress(dst, true));
 
             if (isSegmentedMessage(decryptedNetworkPayload[2])) {
-                MeshLogger.verbose(TAG, "Received a segmented access message from: " + MeshAddress.formatAddress(src, false));
+                MeshLogger.verbose(TAG, () -> "Received a segmented access message from: " + MeshAddress.formatAddress(src, false));
 
                 //Check if the received segmented message is from the same src as the previous segment
                 //Ideal case this check is not needed but let's leave it for now.
@@ -301,13 +343,6 @@ abstract class NetworkLayer extends LowerTransportLayer {
                     return null;
                 }
 
-                if (segmentedAccessMessagesMessages == null) {
-                    segmentedAccessMessagesMessages = new SparseArray<>();
-                    segmentedAccessMessagesMessages.put(0, data);
-                } else {
-                    final int k = segmentedAccessMessagesMessages.size();
-                    segmentedAccessMessagesMessages.put(k, data);
-                }
                 //Removing the mDst here
                 final byte[] pdu = ByteBuffer.allocate(2 + networkHeader.length + decryptedNetworkPayload.length)
                         .order(ByteOrder.BIG_ENDIAN)
@@ -320,19 +355,15 @@ abstract class NetworkLayer extends LowerTransportLayer {
                 // If the received segments were sent with TTL set to 0, it is recommended that the
                 // corresponding Segment Acknowledgment message is sent with TTL set to 0.
                 final int ttl = receivedTtl == 0 ? receivedTtl : mNetworkLayerCallbacks.getProvisioner().getGlobalTtl();
-                final AccessMessage message = parseSegmentedAccessLowerTransportPDU(ttl, pdu, ivIndex, sequenceNumber);
+                final AccessMessage message = parseSegmentedAccessLowerTransportPDU(ttl, data, pdu, ivIndex, sequenceNumber);
 
                 if (message != null) {
-                    final SparseArray<byte[]> segmentedMessages = segmentedAccessMessagesMessages.clone();
-                    segmentedAccessMessagesMessages = null;
                     message.setNetworkKey(key);
                     message.setIvIndex(MeshParserUtils.intToBytes(ivIndex));
-                    message.setNetworkLayerPdu(segmentedMessages);
                     message.setTtl(receivedTtl);
                     message.setSrc(src);
                     message.setDst(dst);
-                    parseUpperTransportPDU(message);
-                    parseAccessLayerPDU(message);
+                    parseUpperTransportPDU(message, decryptUpperTransportPdu);
                 }
                 return message;
 
@@ -350,15 +381,14 @@ abstract class NetworkLayer extends LowerTransportLayer {
                     return null;
                 message.setNetworkKey(key);
                 message.setIvIndex(MeshParserUtils.intToBytes(ivIndex));
-                final SparseArray<byte[]> pduArray = new SparseArray<>();
+                final SortedMap<Integer, byte[]> pduArray = new TreeMap<>();
                 pduArray.put(0, data);
                 message.setNetworkLayerPdu(pduArray);
                 message.setTtl(receivedTtl);
                 message.setSrc(src);
                 message.setDst(dst);
                 message.setSequenceNumber(sequenceNumber);
-                parseUpperTransportPDU(message);
-                parseAccessLayerPDU(message);
+                parseUpperTransportPDU(message, decryptUpperTransportPdu);
                 return message;
             }
         } catch (InvalidCipherTextException ex) {
@@ -366,6 +396,16 @@ abstract class NetworkLayer extends LowerTransportLayer {
         }
     }
 
+    private void parseUpperTransportPDU(@NonNull final AccessMessage message,
+                                        final boolean decryptUpperTransportPdu) throws ExtendedInvalidCipherTextException {
+        if (decryptUpperTransportPdu) {
+            parseUpperTransportPDU(message);
+            parseAccessLayerPDU(message);
+        } else {
+            reassembleLowerTransportAccessPDU(message);
+        }
+    }
+
     /**
      * Parses control message
      *
@@ -451,7 +491,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
         final ControlMessage message = new ControlMessage();
         message.setNetworkKey(key);
         message.setIvIndex(mUpperTransportLayerCallbacks.getIvIndex());
-        final SparseArray<byte[]> proxyPduArray = new SparseArray<>();
+        final SortedMap<Integer, byte[]> proxyPduArray = new TreeMap<>();
         proxyPduArray.put(0, data);
         message.setNetworkLayerPdu(proxyPduArray);
         message.setTtl(ttl);
@@ -476,21 +516,10 @@ abstract class NetworkLayer extends LowerTransportLayer {
      * @return a complete {@link ControlMessage} or null if the message was unable to parsed
      */
     private ControlMessage parseSegmentedControlMessage(@NonNull final NetworkKey key, @NonNull final byte[] data, @NonNull final byte[] decryptedProxyPdu, final int ttl, final int src, final int dst) {
-        if (segmentedControlMessagesMessages == null) {
-            segmentedControlMessagesMessages = new SparseArray<>();
-            segmentedControlMessagesMessages.put(0, data);
-        } else {
-            final int k = segmentedControlMessagesMessages.size();
-            segmentedAccessMessagesMessages.put(k, data);
-        }
-
-        final ControlMessage message = parseSegmentedControlLowerTransportPDU(decryptedProxyPdu);
+        final ControlMessage message = parseSegmentedControlLowerTransportPDU(data, decryptedProxyPdu);
         if (message != null) {
-            final SparseArray<byte[]> segmentedMessages = segmentedControlMessagesMessages.clone();
-            segmentedControlMessagesMessages = null;
             message.setNetworkKey(key);
             message.setIvIndex(mUpperTransportLayerCallbacks.getIvIndex());
-            message.setNetworkLayerPdu(segmentedMessages);
             message.setTtl(ttl);
             message.setSrc(src);
             message.setDst(dst);
@@ -514,34 +543,6 @@ abstract class NetworkLayer extends LowerTransportLayer {
         return networkKey.getTxDerivatives();
     }
 
-    /**
-     * Obfuscates the network header
-     *
-     * @param ctlTTL         Message type and ttl bit
-     * @param sequenceNumber Sequence number of the message
-     * @param src            Source address
-     * @param pecb           Value derived from the privacy random
-     * @return Obfuscated network header
-     */
-    private byte[] obfuscateNetworkHeader(final byte ctlTTL, @NonNull final byte[] sequenceNumber, final int src, @NonNull final byte[] pecb) {
-
-        final ByteBuffer buffer = ByteBuffer.allocate(1 + sequenceNumber.length + 2).order(ByteOrder.BIG_ENDIAN);
-        buffer.put(ctlTTL);
-        buffer.put(sequenceNumber);   //sequence number
-        buffer.putShort((short) src);       //source address
-
-        final byte[] headerBuffer = buffer.array();
-
-        final ByteBuffer bufferPECB = ByteBuffer.allocate(6);
-        bufferPECB.put(pecb, 0, 6);
-
-        final byte[] obfuscated = new byte[6];
-        for (int i = 0; i < 6; i++)
-            obfuscated[i] = (byte) (headerBuffer[i] ^ pecb[i]);
-
-        return obfuscated;
-    }
-
     /**
      * De-obfuscates the network header
      *
@@ -551,23 +552,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
     static byte[] deObfuscateNetworkHeader(@NonNull final byte[] pdu,
                                            @NonNull final byte[] ivIndex,
                                            @NonNull final byte[] privacyKey) {
-        final ByteBuffer obfuscatedNetworkBuffer = ByteBuffer.allocate(6);
-        obfuscatedNetworkBuffer.order(ByteOrder.BIG_ENDIAN);
-        obfuscatedNetworkBuffer.put(pdu, 2, 6);
-        final byte[] obfuscatedData = obfuscatedNetworkBuffer.array();
-
-        final ByteBuffer privacyRandomBuffer = ByteBuffer.allocate(7);
-        privacyRandomBuffer.order(ByteOrder.BIG_ENDIAN);
-        privacyRandomBuffer.put(pdu, 8, 7);
-        final byte[] privacyRandom = createPrivacyRandom(privacyRandomBuffer.array());
-
-        final byte[] pecb = createPECB(ivIndex, privacyRandom, privacyKey);
-        final byte[] deObfuscatedData = new byte[6];
-
-        for (int i = 0; i < 6; i++)
-            deObfuscatedData[i] = (byte) (obfuscatedData[i] ^ pecb[i]);
-
-        return deObfuscatedData;
+        return MeshCrypto.deObfuscateNetworkHeader(pdu, ivIndex, privacyKey);
     }
 
     /**
@@ -582,16 +567,6 @@ abstract class NetworkLayer extends LowerTransportLayer {
         return privacyRandom;
     }
 
-    private static byte[] createPECB(@NonNull final byte[] ivIndex, @NonNull final byte[] privacyRandom, @NonNull final byte[] privacyKey) {
-        final ByteBuffer buffer = ByteBuffer.allocate(5 + privacyRandom.length + ivIndex.length);
-        buffer.order(ByteOrder.BIG_ENDIAN);
-        buffer.put(new byte[]{0x00, 0x00, 0x00, 0x00, 0x00});
-        buffer.put(ivIndex);
-        buffer.put(privacyRandom);
-        final byte[] temp = buffer.array();
-        return SecureUtils.encryptWithAES(temp, privacyKey);
-    }
-
     /**
      * Creates the network nonce
      *
@@ -601,14 +576,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
      * @return Network nonce
      */
     static byte[] createNetworkNonce(final byte ctlTTL, @NonNull final byte[] sequenceNumber, final int src, @NonNull final byte[] ivIndex) {
-        final ByteBuffer networkNonce = ByteBuffer.allocate(13);
-        networkNonce.put((byte) NONCE_TYPE_NETWORK); //Nonce type
-        networkNonce.put(ctlTTL); // CTL and TTL
-        networkNonce.put(sequenceNumber);
-        networkNonce.putShort((short) src);
-        networkNonce.put(new byte[]{PAD_NETWORK_NONCE, PAD_NETWORK_NONCE}); //PAD
-        networkNonce.put(ivIndex);
-        return networkNonce.array();
+        return MeshCrypto.createNetworkNonce(ctlTTL, sequenceNumber, src, ivIndex);
     }
 
     /**
@@ -619,14 +587,7 @@ abstract class NetworkLayer extends LowerTransportLayer {
      * @return Proxy nonce
      */
     static byte[] createProxyNonce(@NonNull final byte[] sequenceNumber, final int src, @NonNull final byte[] ivIndex) {
-        final ByteBuffer applicationNonceBuffer = ByteBuffer.allocate(13);
-        applicationNonceBuffer.put((byte) NONCE_TYPE_PROXY); //Nonce type
-        applicationNonceBuffer.put((byte) PAD_PROXY_NONCE); //PAD
-        applicationNonceBuffer.put(sequenceNumber);
-        applicationNonceBuffer.putShort((short) src);
-        applicationNonceBuffer.put(new byte[]{PAD_PROXY_NONCE, PAD_PROXY_NONCE});
-        applicationNonceBuffer.put(ivIndex);
-        return applicationNonceBuffer.array();
+        return MeshCrypto.createProxyNonce(sequenceNumber, src, ivIndex);
     }
 
     /**
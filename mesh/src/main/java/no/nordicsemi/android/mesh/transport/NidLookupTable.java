@@ -0,0 +1,117 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.MeshNetwork;
+import no.nordicsemi.android.mesh.NetworkKey;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+/**
+ * Lookup table of the network keys that may have been used to encrypt a received network PDU, indexed by NID.
+ * <p>
+ * Each NID maps to the list of network key derivatives, current or old during a key refresh, having that NID. The
+ * table remembers the mesh network and the version of the network keys it was built from, see
+ * {@link NetworkKey#getKeysVersion()}, and is rebuilt only when a key is added, removed, updated or refreshed. Checking
+ * this only compares a reference and a counter and does not require any AES operations.
+ * </p>
+ */
+final class NidLookupTable {
+
+    private static final int NID_COUNT = 0x80;
+    private static final Candidate[] NO_CANDIDATES = new Candidate[0];
+
+    private final Candidate[][] candidates = new Candidate[NID_COUNT][];
+    private MeshNetwork indexedNetwork;
+    private int indexedVersion;
+
+    /**
+     * Network key derivatives matching a NID.
+     */
+    static final class Candidate {
+        final NetworkKey networkKey;
+        final SecureUtils.K2Output k2Output;
+
+        Candidate(@NonNull final NetworkKey networkKey, @NonNull final SecureUtils.K2Output k2Output) {
+            this.networkKey = networkKey;
+            this.k2Output = k2Output;
+        }
+    }
+
+    NidLookupTable() {
+        invalidate();
+    }
+
+    /**
+     * Returns the candidates matching the given NID, rebuilding the table if the network keys have changed.
+     *
+     * @param network Mesh network.
+     * @param nid     NID of the received network PDU.
+     */
+    @NonNull
+    Candidate[] getCandidates(@NonNull final MeshNetwork network, final int nid) {
+        if (!isIndexed(network)) {
+            rebuild(network);
+        }
+        return candidates[nid & 0x7F];
+    }
+
+    /**
+     * Returns true if the table is up to date with the network keys of the given mesh network.
+     *
+     * @param network Mesh network.
+     */
+    boolean isIndexed(@NonNull final MeshNetwork network) {
+        return indexedNetwork == network && indexedVersion == NetworkKey.getKeysVersion();
+    }
+
+    /**
+     * Marks the table as outdated, forcing it to be rebuilt on the next lookup.
+     */
+    void invalidate() {
+        indexedNetwork = null;
+        for (int i = 0; i < NID_COUNT; i++) {
+            candidates[i] = NO_CANDIDATES;
+        }
+    }
+
+    /**
+     * Rebuilds the table from the network keys of the given mesh network.
+     *
+     * @param network Mesh network.
+     */
+    void rebuild(@NonNull final MeshNetwork network) {
+        // The version is read first so that a key changed while the table is being built triggers another rebuild
+        final int version = NetworkKey.getKeysVersion();
+        final List<List<Candidate>> lists = new ArrayList<>(NID_COUNT);
+        for (int i = 0; i < NID_COUNT; i++) {
+            lists.add(null);
+        }
+        for (NetworkKey networkKey : network.getNetKeys()) {
+            // The current key is tried before the old key as in the key refresh procedure the old key is phased out
+            add(lists, networkKey, networkKey.getDerivatives());
+            add(lists, networkKey, networkKey.getOldDerivatives());
+        }
+        for (int i = 0; i < NID_COUNT; i++) {
+            final List<Candidate> list = lists.get(i);
+            candidates[i] = list == null ? NO_CANDIDATES : list.toArray(new Candidate[0]);
+        }
+        indexedNetwork = network;
+        indexedVersion = version;
+    }
+
+    private static void add(@NonNull final List<List<Candidate>> lists,
+                            @NonNull final NetworkKey networkKey,
+                            final SecureUtils.K2Output k2Output) {
+        if (k2Output == null)
+            return;
+        final int nid = k2Output.getNid() & 0x7F;
+        List<Candidate> list = lists.get(nid);
+        if (list == null) {
+            list = new ArrayList<>(1);
+            lists.set(nid, list);
+        }
+        list.add(new Candidate(networkKey, k2Output));
+    }
+}
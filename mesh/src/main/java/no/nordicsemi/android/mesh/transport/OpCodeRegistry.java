@@ -0,0 +1,264 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Registry of the status messages that can be decoded from a received access message.
+ * <p>
+ * Each entry is keyed by the opcode of the status message and holds the decoder creating the status message and an
+ * optional handler updating the state of the mesh network with the received status. The registry comes populated with
+ * all supported configuration and application status messages, and status messages of vendor models may be registered
+ * using {@link #registerVendorModelStatus(int, int, StatusDecoder)}. Vendor opcodes are keyed together with their
+ * company identifier so that they never collide with single octet SIG opcodes.
+ * </p>
+ */
+public final class OpCodeRegistry {
+
+    private static final int VENDOR_OPCODE_MASK = 0xC0;
+
+    // Opcodes sorted in ascending order and the entries at the same positions, looked up by a binary search so that
+    // decoding a received message does not box the opcode
+    private int[] opCodes = new int[80];
+    private Entry<?>[] entries = new Entry<?>[80];
+    private int size;
+
+    /**
+     * Decodes a status message from a received access message.
+     *
+     * @param <T> Type of the status message.
+     */
+    public interface StatusDecoder<T extends MeshMessage> {
+
+        /**
+         * Decodes the status message.
+         *
+         * @param message Access message received.
+         * @return decoded status message
+         */
+        @NonNull
+        T decode(@NonNull final AccessMessage message);
+    }
+
+    /**
+     * Updates the state of the mesh network with a received status message.
+     *
+     * @param <T> Type of the status message.
+     */
+    interface StateUpdater<T extends MeshMessage> {
+
+        /**
+         * Updates the state of the mesh network.
+         *
+         * @param state   State that received the status message.
+         * @param node    Node the status message was received from.
+         * @param message Access message received.
+         * @param status  Decoded status message.
+         */
+        void update(@NonNull final DefaultNoOperationMessageState state,
+                    final ProvisionedMeshNode node,
+                    @NonNull final AccessMessage message,
+                    @NonNull final T status);
+    }
+
+    /**
+     * Registry entry of a status message.
+     *
+     * @param <T> Type of the status message.
+     */
+    static final class Entry<T extends MeshMessage> {
+        final StatusDecoder<T> decoder;
+        final StateUpdater<T> updater;
+        final boolean updatesMeshNetwork;
+
+        Entry(@NonNull final StatusDecoder<T> decoder,
+              @Nullable final StateUpdater<T> updater,
+              final boolean updatesMeshNetwork) {
+            this.decoder = decoder;
+            this.updater = updater;
+            this.updatesMeshNetwork = updatesMeshNetwork;
+        }
+    }
+
+    /**
+     * Constructs the registry populated with the supported configuration and application status messages.
+     */
+    OpCodeRegistry() {
+        registerConfigStatusMessages();
+        registerApplicationStatusMessages();
+    }
+
+    private void registerConfigStatusMessages() {
+        register(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS, ConfigCompositionDataStatus::new, DefaultNoOperationMessageState::updateCompositionData);
+        register(ConfigMessageOpCodes.CONFIG_HEARTBEAT_PUBLICATION_STATUS, ConfigHeartbeatPublicationStatus::new, DefaultNoOperationMessageState::updateHeartbeatPublication);
+        register(ConfigMessageOpCodes.CONFIG_HEARTBEAT_SUBSCRIPTION_STATUS, ConfigHeartbeatSubscriptionStatus::new, DefaultNoOperationMessageState::updateHeartbeatSubscription);
+        register(ConfigMessageOpCodes.CONFIG_DEFAULT_TTL_STATUS, ConfigDefaultTtlStatus::new, DefaultNoOperationMessageState::updateDefaultTtl);
+        register(ConfigMessageOpCodes.CONFIG_NETKEY_STATUS, ConfigNetKeyStatus::new, DefaultNoOperationMessageState::updateNetKey);
+        register(ConfigMessageOpCodes.CONFIG_NETKEY_LIST, ConfigNetKeyList::new, DefaultNoOperationMessageState::updateNetKeyList);
+        register(ConfigMessageOpCodes.CONFIG_APPKEY_STATUS, ConfigAppKeyStatus::new, DefaultNoOperationMessageState::updateAppKey);
+        register(ConfigMessageOpCodes.CONFIG_APPKEY_LIST, ConfigAppKeyList::new, DefaultNoOperationMessageState::updateAppKeyList);
+        register(ConfigMessageOpCodes.CONFIG_MODEL_APP_STATUS, ConfigModelAppStatus::new, DefaultNoOperationMessageState::updateModelApp);
+        register(ConfigMessageOpCodes.CONFIG_SIG_MODEL_APP_LIST, ConfigSigModelAppList::new, DefaultNoOperationMessageState::updateSigModelAppList);
+        register(ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_APP_LIST, ConfigVendorModelAppList::new, DefaultNoOperationMessageState::updateVendorModelAppList);
+        register(ConfigMessageOpCodes.CONFIG_MODEL_PUBLICATION_STATUS, ConfigModelPublicationStatus::new, DefaultNoOperationMessageState::updateModelPublication);
+        register(ConfigMessageOpCodes.CONFIG_MODEL_SUBSCRIPTION_STATUS, ConfigModelSubscriptionStatus::new, DefaultNoOperationMessageState::updateModelSubscription);
+        register(ConfigMessageOpCodes.CONFIG_SIG_MODEL_SUBSCRIPTION_LIST, ConfigSigModelSubscriptionList::new, DefaultNoOperationMessageState::updateSigModelSubscriptionList);
+        register(ConfigMessageOpCodes.CONFIG_VENDOR_MODEL_SUBSCRIPTION_LIST, ConfigVendorModelSubscriptionList::new, DefaultNoOperationMessageState::updateVendorModelSubscriptionList);
+        register(ConfigMessageOpCodes.CONFIG_NODE_IDENTITY_STATUS, ConfigNodeIdentityStatus::new, DefaultNoOperationMessageState::updateNodeIdentity);
+        // The node is removed from the network on reset, hence the mesh network is not updated with the status
+        put(ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS,
+                new Entry<>(ConfigNodeResetStatus::new, DefaultNoOperationMessageState::resetNode, false));
+        register(ConfigMessageOpCodes.CONFIG_NETWORK_TRANSMIT_STATUS, ConfigNetworkTransmitStatus::new, DefaultNoOperationMessageState::updateNetworkTransmit);
+        register(ConfigMessageOpCodes.CONFIG_RELAY_STATUS, ConfigRelayStatus::new, DefaultNoOperationMessageState::updateRelay);
+        register(ConfigMessageOpCodes.CONFIG_BEACON_STATUS, ConfigBeaconStatus::new, DefaultNoOperationMessageState::updateBeacon);
+        register(ConfigMessageOpCodes.CONFIG_FRIEND_STATUS, ConfigFriendStatus::new, DefaultNoOperationMessageState::updateFriend);
+        register(ConfigMessageOpCodes.CONFIG_KEY_REFRESH_PHASE_STATUS, ConfigKeyRefreshPhaseStatus::new, null);
+        register(ConfigMessageOpCodes.CONFIG_GATT_PROXY_STATUS, ConfigGattProxyStatus::new, DefaultNoOperationMessageState::updateGattProxy);
+        register(ConfigMessageOpCodes.CONFIG_LOW_POWER_NODE_POLLTIMEOUT_STATUS, ConfigLowPowerNodePollTimeoutStatus::new, null);
+        // Each aggregated status message updates the mesh network when decoded by the updater
+        put(ConfigMessageOpCodes.OPCODES_AGGREGATOR_STATUS,
+                new Entry<>(OpcodesAggregatorStatus::new, DefaultNoOperationMessageState::updateOpcodesAggregator, false));
+    }
+
+    private void registerApplicationStatusMessages() {
+        register(ApplicationMessageOpCodes.HEALTH_CURRENT_STATUS, HealthCurrentStatus::new, null);
+        register(ApplicationMessageOpCodes.HEALTH_FAULT_STATUS, HealthFaultStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_ON_OFF_STATUS, GenericOnOffStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_LEVEL_STATUS, GenericLevelStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_DEFAULT_TRANSITION_TIME_STATUS, GenericDefaultTransitionTimeStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_ON_POWER_UP_STATUS, GenericOnPowerUpStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_POWER_LEVEL_STATUS, GenericPowerLevelStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_BATTERY_STATUS, GenericBatteryStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_LOCATION_GLOBAL_STATUS, GenericLocationGlobalStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_ADMIN_PROPERTY_STATUS, GenericPropertyStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_MANUFACTURER_PROPERTY_STATUS, GenericPropertyStatus::new, null);
+        register(ApplicationMessageOpCodes.GENERIC_USER_PROPERTY_STATUS, GenericPropertyStatus::new, null);
+        register(ApplicationMessageOpCodes.SENSOR_DESCRIPTOR_STATUS, SensorDescriptorStatus::new, null);
+        register(ApplicationMessageOpCodes.SENSOR_CADENCE_STATUS, SensorCadenceStatus::new, null);
+        register(ApplicationMessageOpCodes.SENSOR_SETTINGS_STATUS, SensorSettingsStatus::new, null);
+        register(ApplicationMessageOpCodes.SENSOR_SETTING_STATUS, SensorSettingStatus::new, null);
+        register(ApplicationMessageOpCodes.SENSOR_STATUS, SensorStatus::new, null);
+        register(ApplicationMessageOpCodes.SENSOR_COLUMN_STATUS, SensorColumnStatus::new, null);
+        register(ApplicationMessageOpCodes.SENSOR_SERIES_STATUS, SensorSeriesStatus::new, null);
+        register(ApplicationMessageOpCodes.TIME_STATUS, TimeStatus::new, null);
+        register(ApplicationMessageOpCodes.TIME_ZONE_STATUS, TimeZoneStatus::new, null);
+        register(ApplicationMessageOpCodes.SCENE_STATUS, SceneStatus::new, DefaultNoOperationMessageState::updateScene);
+        register(ApplicationMessageOpCodes.SCENE_REGISTER_STATUS, SceneRegisterStatus::new, DefaultNoOperationMessageState::updateSceneRegister);
+        register(ApplicationMessageOpCodes.SCHEDULER_STATUS, SchedulerStatus::new, null);
+        register(ApplicationMessageOpCodes.SCHEDULER_ACTION_STATUS, SchedulerActionStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_LIGHTNESS_STATUS, LightLightnessStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_CTL_STATUS, LightCtlStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_CTL_TEMPERATURE_RANGE_STATUS, LightCtlTemperatureRangeStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_HSL_STATUS, LightHslStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_LC_MODE_STATUS, LightLCModeStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_LC_OCCUPANCY_MODE_STATUS, LightLCOccupancyModeStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_LC_LIGHT_ON_OFF_STATUS, LightLCLightOnOffStatus::new, null);
+        register(ApplicationMessageOpCodes.LIGHT_LC_PROPERTY_STATUS, LightLCPropertyStatus::new, null);
+        // BLOB transfer statuses only drive the transfer in progress, hence the mesh network is not updated with them
+        put(ApplicationMessageOpCodes.BLOB_INFORMATION_STATUS, new Entry<>(BlobInformationStatus::new, null, false));
+        put(ApplicationMessageOpCodes.BLOB_TRANSFER_STATUS, new Entry<>(BlobTransferStatus::new, null, false));
+        put(ApplicationMessageOpCodes.BLOB_BLOCK_STATUS, new Entry<>(BlobBlockStatus::new, null, false));
+        put(ApplicationMessageOpCodes.BLOB_PARTIAL_BLOCK_REPORT, new Entry<>(BlobPartialBlockReport::new, null, false));
+        // Firmware update and distribution statuses describe the state of a procedure, not of the mesh network
+        put(ApplicationMessageOpCodes.FIRMWARE_UPDATE_INFORMATION_STATUS, new Entry<>(FirmwareUpdateInformationStatus::new, null, false));
+        put(ApplicationMessageOpCodes.FIRMWARE_UPDATE_STATUS, new Entry<>(FirmwareUpdateStatus::new, null, false));
+        put(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_STATUS, new Entry<>(FirmwareDistributionReceiversStatus::new, null, false));
+        put(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_RECEIVERS_LIST, new Entry<>(FirmwareDistributionReceiversList::new, null, false));
+        put(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_STATUS, new Entry<>(FirmwareDistributionStatus::new, null, false));
+        put(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_UPLOAD_STATUS, new Entry<>(FirmwareDistributionUploadStatus::new, null, false));
+        put(ApplicationMessageOpCodes.FIRMWARE_DISTRIBUTION_FIRMWARE_STATUS, new Entry<>(FirmwareDistributionFirmwareStatus::new, null, false));
+    }
+
+    private <T extends MeshMessage> void register(final int opCode,
+                                                  @NonNull final StatusDecoder<T> decoder,
+                                                  @Nullable final StateUpdater<T> updater) {
+        put(opCode, new Entry<>(decoder, updater, true));
+    }
+
+    /**
+     * Registers the status message of a vendor model. Status messages received with the given opcode will be decoded
+     * using the given decoder and delivered via {@link no.nordicsemi.android.mesh.MeshStatusCallbacks#onMeshMessageReceived(int, MeshMessage)}.
+     * Any existing registration for the same opcode will be replaced.
+     *
+     * @param companyIdentifier 16-bit company identifier of the vendor model
+     * @param opCode            6-bit vendor opcode of the status message, the two most significant bits of the first octet are ignored
+     * @param decoder           Decoder creating the status message
+     * @throws IllegalArgumentException if the company identifier or the opcode is invalid
+     */
+    public void registerVendorModelStatus(final int companyIdentifier,
+                                          final int opCode,
+                                          @NonNull final StatusDecoder<? extends VendorModelMessageStatus> decoder) {
+        put(getVendorKey(companyIdentifier, opCode), new Entry<>(decoder, null, false));
+    }
+
+    /**
+     * Removes the status message registration of a vendor model.
+     *
+     * @param companyIdentifier 16-bit company identifier of the vendor model
+     * @param opCode            6-bit vendor opcode of the status message
+     * @throws IllegalArgumentException if the company identifier or the opcode is invalid
+     */
+    public void unregisterVendorModelStatus(final int companyIdentifier, final int opCode) {
+        remove(getVendorKey(companyIdentifier, opCode));
+    }
+
+    /**
+     * Returns the registry entry for a received access message or null if the status message is not registered.
+     *
+     * @param message Access message received.
+     */
+    @Nullable
+    Entry<?> get(@NonNull final AccessMessage message) {
+        final int opCodeLength = MeshParserUtils.getOpCodeLength(message.getAccessPdu()[0] & 0xFF);
+        if (opCodeLength == 3) {
+            return getEntry(getVendorKey(message.getCompanyIdentifier(), message.getOpCode()));
+        }
+        return getEntry(message.getOpCode());
+    }
+
+    @Nullable
+    private Entry<?> getEntry(final int opCode) {
+        final int index = Arrays.binarySearch(opCodes, 0, size, opCode);
+        return index >= 0 ? entries[index] : null;
+    }
+
+    private void put(final int opCode, @NonNull final Entry<?> entry) {
+        int index = Arrays.binarySearch(opCodes, 0, size, opCode);
+        if (index >= 0) {
+            entries[index] = entry;
+            return;
+        }
+        index = -(index + 1);
+        if (size == opCodes.length) {
+            opCodes = Arrays.copyOf(opCodes, size * 2);
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+        System.arraycopy(opCodes, index, opCodes, index + 1, size - index);
+        System.arraycopy(entries, index, entries, index + 1, size - index);
+        opCodes[index] = opCode;
+        entries[index] = entry;
+        size++;
+    }
+
+    private void remove(final int opCode) {
+        final int index = Arrays.binarySearch(opCodes, 0, size, opCode);
+        if (index < 0)
+            return;
+        System.arraycopy(opCodes, index + 1, opCodes, index, size - index - 1);
+        System.arraycopy(entries, index + 1, entries, index, size - index - 1);
+        entries[--size] = null;
+    }
+
+    private static int getVendorKey(final int companyIdentifier, final int opCode) {
+        if (companyIdentifier != (companyIdentifier & 0xFFFF))
+            throw new IllegalArgumentException("Company identifier must be 16-bits");
+        if (opCode != (opCode & 0xFF))
+            throw new IllegalArgumentException("Vendor opcode must be a single octet");
+        return (VENDOR_OPCODE_MASK | (opCode & 0x3F)) << 16 | companyIdentifier;
+    }
+}
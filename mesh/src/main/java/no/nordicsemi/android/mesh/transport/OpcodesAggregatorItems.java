@@ -0,0 +1,197 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Encodes and decodes the items list of the Opcodes Aggregator Sequence and Status messages.
+ * <p>
+ * Each item is the opcode and parameters of a message prefixed with its length. The length is encoded in a single
+ * octet as (length << 1) if it is shorter than 128 octets, otherwise in two octets as (length << 1 | 1), little endian.
+ * </p>
+ */
+final class OpcodesAggregatorItems {
+
+    /**
+     * Maximum length of a segmented access payload using a 32-bit TransMIC, 32 segments of 12 octets less the MIC.
+     */
+    static final int MAX_ACCESS_PAYLOAD_LENGTH = 380;
+    // Opcode and element address of the Opcodes Aggregator Sequence message
+    private static final int SEQUENCE_HEADER_LENGTH = 4;
+    static final int MAX_ITEMS_LENGTH = MAX_ACCESS_PAYLOAD_LENGTH - SEQUENCE_HEADER_LENGTH;
+    private static final int SHORT_ITEM_MAX_LENGTH = 0x7F;
+
+    private OpcodesAggregatorItems() {
+    }
+
+    /**
+     * Factory creating a sequence message from a subset of messages.
+     */
+    interface SequenceFactory<S extends MeshMessage> {
+        @NonNull
+        S create(@NonNull final List<MeshMessage> items);
+    }
+
+    /**
+     * Returns the opcode and parameters of a message as sent in an access payload.
+     *
+     * @param message Mesh message.
+     */
+    @NonNull
+    static byte[] getOpCodeAndParameters(@NonNull final MeshMessage message) {
+        final byte[] opCode;
+        if (message instanceof VendorModelMessageAcked) {
+            opCode = MeshParserUtils.createVendorOpCode(message.getOpCode(), ((VendorModelMessageAcked) message).getCompanyIdentifier());
+        } else if (message instanceof VendorModelMessageUnacked) {
+            opCode = MeshParserUtils.createVendorOpCode(message.getOpCode(), ((VendorModelMessageUnacked) message).getCompanyIdentifier());
+        } else {
+            opCode = MeshParserUtils.getOpCode(message.getOpCode());
+        }
+        final byte[] parameters = message.getParameters();
+        final int length = parameters == null ? 0 : parameters.length;
+        final ByteBuffer buffer = ByteBuffer.allocate(opCode.length + length);
+        buffer.put(opCode);
+        if (parameters != null) {
+            buffer.put(parameters);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Returns the encoded length of a message in the items list.
+     *
+     * @param message Mesh message.
+     */
+    static int getItemLength(@NonNull final MeshMessage message) {
+        final int length = getOpCodeAndParameters(message).length;
+        return length + (length > SHORT_ITEM_MAX_LENGTH ? 2 : 1);
+    }
+
+    /**
+     * Creates the parameters of an Opcodes Aggregator Sequence message.
+     *
+     * @param elementAddress Address of the element the messages are addressed to.
+     * @param items          Messages to be aggregated.
+     * @throws IllegalArgumentException if the element address is invalid, there are no items or they do not fit in a
+     *                                  single access payload.
+     */
+    @NonNull
+    static byte[] createSequenceParameters(final int elementAddress, @NonNull final List<MeshMessage> items) {
+        if (!MeshAddress.isValidUnicastAddress(elementAddress))
+            throw new IllegalArgumentException("Element address must be a unicast address.");
+        if (items.isEmpty())
+            throw new IllegalArgumentException("At least one message must be aggregated.");
+        final List<byte[]> encodedItems = new ArrayList<>(items.size());
+        int length = 2;
+        for (MeshMessage item : items) {
+            final byte[] encodedItem = getOpCodeAndParameters(item);
+            encodedItems.add(encodedItem);
+            length += encodedItem.length + (encodedItem.length > SHORT_ITEM_MAX_LENGTH ? 2 : 1);
+        }
+        if (length - 2 > MAX_ITEMS_LENGTH)
+            throw new IllegalArgumentException("Aggregated messages exceed the maximum length of " + MAX_ITEMS_LENGTH + " octets.");
+
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putShort((short) elementAddress);
+        for (byte[] encodedItem : encodedItems) {
+            if (encodedItem.length > SHORT_ITEM_MAX_LENGTH) {
+                buffer.putShort((short) (encodedItem.length << 1 | 1));
+            } else {
+                buffer.put((byte) (encodedItem.length << 1));
+            }
+            buffer.put(encodedItem);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Packs the given messages, in order, into as few sequence messages as possible.
+     *
+     * @param messages Messages to be aggregated.
+     * @param factory  Factory creating a sequence message for each subset of messages.
+     * @throws IllegalArgumentException if a single message does not fit in a sequence message.
+     */
+    @NonNull
+    static <S extends MeshMessage> List<S> pack(@NonNull final List<? extends MeshMessage> messages,
+                                               @NonNull final SequenceFactory<S> factory) {
+        final List<S> sequences = new ArrayList<>();
+        List<MeshMessage> items = new ArrayList<>();
+        int length = 0;
+        for (MeshMessage message : messages) {
+            final int itemLength = getItemLength(message);
+            if (itemLength > MAX_ITEMS_LENGTH)
+                throw new IllegalArgumentException("Message with opcode 0x" + Integer.toHexString(message.getOpCode()) +
+                        " is too long to be aggregated.");
+            if (length + itemLength > MAX_ITEMS_LENGTH) {
+                sequences.add(factory.create(items));
+                items = new ArrayList<>();
+                length = 0;
+            }
+            items.add(message);
+            length += itemLength;
+        }
+        if (!items.isEmpty()) {
+            sequences.add(factory.create(items));
+        }
+        return sequences;
+    }
+
+    /**
+     * Parses the items list of a received Opcodes Aggregator Status message into access messages.
+     *
+     * @param message Received Opcodes Aggregator Status access message.
+     * @param offset  Offset of the items list within the parameters.
+     * @throws IllegalArgumentException if the items list is malformed.
+     */
+    @NonNull
+    static List<AccessMessage> parseItems(@NonNull final AccessMessage message, final int offset) {
+        final byte[] parameters = message.getParameters();
+        final List<AccessMessage> items = new ArrayList<>();
+        int index = offset;
+        while (index < parameters.length) {
+            final int length;
+            if ((parameters[index] & 0x01) == 0) {
+                length = (parameters[index] & 0xFF) >> 1;
+                index += 1;
+            } else {
+                if (index + 1 >= parameters.length)
+                    throw new IllegalArgumentException("Invalid item length in Opcodes Aggregator Status.");
+                length = MeshParserUtils.unsignedBytesToInt(parameters[index], parameters[index + 1]) >> 1;
+                index += 2;
+            }
+            if (length == 0 || index + length > parameters.length)
+                throw new IllegalArgumentException("Invalid item length in Opcodes Aggregator Status.");
+            final byte[] accessPdu = new byte[length];
+            System.arraycopy(parameters, index, accessPdu, 0, length);
+            index += length;
+            items.add(createItemMessage(message, accessPdu));
+        }
+        return items;
+    }
+
+    private static AccessMessage createItemMessage(@NonNull final AccessMessage message, @NonNull final byte[] accessPdu) {
+        final AccessMessage item = new AccessMessage();
+        item.setSrc(message.getSrc());
+        item.setDst(message.getDst());
+        item.setAkf(message.getAkf());
+        item.setAid(message.getAid());
+        item.setAccessPdu(accessPdu);
+        final int opCodeLength = MeshParserUtils.getOpCodeLength(accessPdu[0] & 0xFF);
+        if (opCodeLength > accessPdu.length)
+            throw new IllegalArgumentException("Invalid opcode in Opcodes Aggregator Status item.");
+        item.setOpCode(MeshParserUtils.getOpCode(accessPdu, opCodeLength));
+        if (opCodeLength == 3) {
+            item.setCompanyIdentifier(MeshParserUtils.unsignedBytesToInt(accessPdu[1], accessPdu[2]));
+        }
+        final byte[] itemParameters = new byte[accessPdu.length - opCodeLength];
+        System.arraycopy(accessPdu, opCodeLength, itemParameters, 0, itemParameters.length);
+        item.setParameters(itemParameters);
+        return item;
+    }
+}
@@ -0,0 +1,96 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+/**
+ * To be used as a wrapper class to create an Opcodes Aggregator Sequence message aggregating application messages.
+ * <p>
+ * All aggregated messages must be acknowledged messages encrypted with the same application key as the sequence, the
+ * node responds with a single {@link OpcodesAggregatorStatus} containing the status of each message in the same order.
+ * Use {@link #create(ApplicationKey, int, List)} to split a list of messages into as few sequence messages as possible.
+ * </p>
+ */
+@SuppressWarnings("unused")
+public class OpcodesAggregatorSequence extends ApplicationMessage {
+
+    private static final String TAG = OpcodesAggregatorSequence.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.OPCODES_AGGREGATOR_SEQUENCE;
+
+    private final int mElementAddress;
+    private final List<MeshMessage> mItems;
+
+    /**
+     * Constructs OpcodesAggregatorSequence message.
+     *
+     * @param appKey         {@link ApplicationKey} key for this message
+     * @param elementAddress Address of the element the application messages are addressed to.
+     * @param items          Application messages to be aggregated.
+     * @throws IllegalArgumentException if the element address is invalid, a message is not an application message
+     *                                  using the same application key or the messages do not fit in a single access payload.
+     */
+    public OpcodesAggregatorSequence(@NonNull final ApplicationKey appKey,
+                                     final int elementAddress,
+                                     @NonNull final List<? extends MeshMessage> items) {
+        super(appKey);
+        for (MeshMessage item : items) {
+            if (!(item instanceof ApplicationMessage) || item instanceof OpcodesAggregatorSequence)
+                throw new IllegalArgumentException("Only application messages can be aggregated in an application sequence.");
+            if (!Arrays.equals(appKey.getKey(), ((ApplicationMessage) item).getAppKey().getKey()))
+                throw new IllegalArgumentException("Aggregated messages must use the application key of the sequence.");
+        }
+        this.mElementAddress = elementAddress;
+        this.mItems = Collections.unmodifiableList(new ArrayList<MeshMessage>(items));
+        assembleMessageParameters();
+    }
+
+    /**
+     * Packs the given application messages, in order, into as few sequence messages as possible.
+     *
+     * @param appKey         {@link ApplicationKey} used by the messages.
+     * @param elementAddress Address of the element the application messages are addressed to.
+     * @param messages       Application messages to be aggregated.
+     * @return list of sequence messages to be sent one after the other.
+     * @throws IllegalArgumentException if the element address is invalid or a message is not an application message
+     *                                  using the given application key.
+     */
+    @NonNull
+    public static List<OpcodesAggregatorSequence> create(@NonNull final ApplicationKey appKey,
+                                                         final int elementAddress,
+                                                         @NonNull final List<? extends MeshMessage> messages) {
+        return OpcodesAggregatorItems.pack(messages, items -> new OpcodesAggregatorSequence(appKey, elementAddress, items));
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    @Override
+    void assembleMessageParameters() {
+        mAid = SecureUtils.calculateK4(mAppKey.getKey());
+        mParameters = OpcodesAggregatorItems.createSequenceParameters(mElementAddress, mItems);
+    }
+
+    /**
+     * Returns the address of the element the messages are addressed to.
+     */
+    public int getElementAddress() {
+        return mElementAddress;
+    }
+
+    /**
+     * Returns the aggregated messages.
+     */
+    @NonNull
+    public List<MeshMessage> getItems() {
+        return mItems;
+    }
+}
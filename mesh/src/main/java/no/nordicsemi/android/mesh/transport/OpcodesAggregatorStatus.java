@@ -0,0 +1,125 @@
+package no.nordicsemi.android.mesh.transport;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+/**
+ * Creates the Opcodes Aggregator Status message.
+ * <p>
+ * The status messages of the aggregated messages are decoded into their typed status messages, in the order of the
+ * messages in the {@link ConfigOpcodesAggregatorSequence} or {@link OpcodesAggregatorSequence}, and are available
+ * through {@link #getStatusMessages()}. The state of the node is updated from each of them as if they were received
+ * individually.
+ * </p>
+ */
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class OpcodesAggregatorStatus extends ConfigStatusMessage implements Parcelable {
+
+    private static final String TAG = OpcodesAggregatorStatus.class.getSimpleName();
+    private static final int OP_CODE = ConfigMessageOpCodes.OPCODES_AGGREGATOR_STATUS;
+    private static final int ITEMS_OFFSET = 3;
+
+    private int mElementAddress;
+    private List<AccessMessage> mItems;
+    private List<MeshMessage> mStatusMessages = Collections.emptyList();
+
+    private static final Creator<OpcodesAggregatorStatus> CREATOR = new Creator<OpcodesAggregatorStatus>() {
+        @Override
+        public OpcodesAggregatorStatus createFromParcel(Parcel in) {
+            final AccessMessage message = in.readParcelable(AccessMessage.class.getClassLoader());
+            //noinspection ConstantConditions
+            return new OpcodesAggregatorStatus(message);
+        }
+
+        @Override
+        public OpcodesAggregatorStatus[] newArray(int size) {
+            return new OpcodesAggregatorStatus[size];
+        }
+    };
+
+    /**
+     * Constructs the OpcodesAggregatorStatus message.
+     *
+     * @param message Access Message
+     */
+    public OpcodesAggregatorStatus(@NonNull final AccessMessage message) {
+        super(message);
+        this.mParameters = message.getParameters();
+        parseStatusParameters();
+    }
+
+    @Override
+    final void parseStatusParameters() {
+        mStatusCode = MeshParserUtils.unsignedByteToInt(mParameters[0]);
+        // Status codes beyond the foundation status codes known to this library are reported as RFU
+        mStatusCodeName = mStatusCode < StatusCodeNames.RFU.getStatusCode() ? getStatusCodeName(mStatusCode) : "RFU";
+        mElementAddress = MeshParserUtils.unsignedBytesToInt(mParameters[1], mParameters[2]);
+        mItems = Collections.unmodifiableList(OpcodesAggregatorItems.parseItems((AccessMessage) mMessage, ITEMS_OFFSET));
+        MeshLogger.verbose(TAG, "Status code: " + mStatusCode);
+        MeshLogger.verbose(TAG, "Status message: " + mStatusCodeName);
+        MeshLogger.verbose(TAG, "Element address: " + MeshAddress.formatAddress(mElementAddress, false));
+        MeshLogger.verbose(TAG, "Number of items: " + mItems.size());
+    }
+
+    @Override
+    public int getOpCode() {
+        return OP_CODE;
+    }
+
+    /**
+     * Returns if the aggregated messages were processed successfully.
+     *
+     * @return true if succeeded or false otherwise
+     */
+    public boolean isSuccessful() {
+        return mStatusCode == 0x00;
+    }
+
+    /**
+     * Returns the address of the element the aggregated messages were addressed to.
+     */
+    public int getElementAddress() {
+        return mElementAddress;
+    }
+
+    /**
+     * Returns the access messages of the aggregated status messages as received.
+     */
+    @NonNull
+    public List<AccessMessage> getItems() {
+        return mItems;
+    }
+
+    /**
+     * Returns the decoded status messages of the aggregated messages.
+     */
+    @NonNull
+    public List<MeshMessage> getStatusMessages() {
+        return mStatusMessages;
+    }
+
+    void setStatusMessages(@NonNull final List<MeshMessage> statusMessages) {
+        mStatusMessages = Collections.unmodifiableList(new ArrayList<>(statusMessages));
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    @Override
+    public void writeToParcel(final Parcel dest, final int flags) {
+        final AccessMessage message = (AccessMessage) mMessage;
+        dest.writeParcelable(message, flags);
+    }
+}
@@ -475,7 +475,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
                             for (int j = 0; j < model.getBoundAppKeyIndexes().size(); j++) {
                                 final int boundKeyIndex = model.getBoundAppKeyIndexes().get(j);
                                 if (boundKeyIndex == index) {
-                                    model.mBoundAppKeyIndexes.remove(j);
+                                    model.mBoundAppKeyIndexes.removeAt(j);
                                     break;
                                 }
                             }
@@ -494,19 +494,27 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
      */
     void setCompositionData(
             @NonNull final ConfigCompositionDataStatus configCompositionDataStatus) {
-        companyIdentifier = configCompositionDataStatus.getCompanyIdentifier();
-        productIdentifier = configCompositionDataStatus.getProductIdentifier();
-        versionIdentifier = configCompositionDataStatus.getVersionIdentifier();
-        crpl = configCompositionDataStatus.getCrpl();
-        final boolean relayFeatureSupported = configCompositionDataStatus.isRelayFeatureSupported();
-        final boolean proxyFeatureSupported = configCompositionDataStatus.isProxyFeatureSupported();
-        final boolean friendFeatureSupported = configCompositionDataStatus.isFriendFeatureSupported();
-        final boolean lowPowerFeatureSupported = configCompositionDataStatus.isLowPowerFeatureSupported();
-        nodeFeatures = new Features(friendFeatureSupported ? Features.DISABLED : Features.UNSUPPORTED,
-                lowPowerFeatureSupported ? Features.DISABLED : Features.UNSUPPORTED,
-                proxyFeatureSupported ? Features.DISABLED : Features.UNSUPPORTED,
-                relayFeatureSupported ? Features.DISABLED : Features.UNSUPPORTED);
-        mElements.putAll(configCompositionDataStatus.getElements());
+        setCompositionData(configCompositionDataStatus.getCompositionDataTemplate(), configCompositionDataStatus.getElements());
+    }
+
+    /**
+     * Sets the composition data from a template known for this product, creating new elements and models for the node.
+     *
+     * @param template Composition data template
+     */
+    @RestrictTo(RestrictTo.Scope.LIBRARY)
+    public void setCompositionData(@NonNull final CompositionDataTemplate template) {
+        setCompositionData(template, template.createElements(unicastAddress));
+    }
+
+    private void setCompositionData(@NonNull final CompositionDataTemplate template,
+                                    @NonNull final Map<Integer, Element> elements) {
+        companyIdentifier = template.getCompanyIdentifier();
+        productIdentifier = template.getProductIdentifier();
+        versionIdentifier = template.getVersionIdentifier();
+        crpl = template.getCrpl();
+        nodeFeatures = template.createFeatures();
+        mElements.putAll(elements);
     }
 
     /**
@@ -588,7 +596,7 @@ public final class ProvisionedMeshNode extends ProvisionedBaseMeshNode {
     /**
      * Increments the sequence number
      */
-    public int incrementSequenceNumber() {
+    public synchronized int incrementSequenceNumber() {
         return sequenceNumber = sequenceNumber + 1;
     }
 }
@@ -5,6 +5,9 @@ package no.nordicsemi.android.mesh.transport;
  */
 abstract class ProxyConfigMessage extends MeshMessage {
 
+    // Proxy configuration messages are sent in a single Network PDU of up to 29 octets, leaving 11 octets of parameters
+    static final int MAX_FILTER_ADDRESSES = 5;
+
     /**
      * Creates the parameters for a given mesh message.
      */
@@ -3,6 +3,8 @@ package no.nordicsemi.android.mesh.transport;
 import java.util.ArrayList;
 import java.util.List;
 
+import androidx.annotation.NonNull;
+
 import no.nordicsemi.android.mesh.opcodes.ProxyConfigMessageOpCodes;
 import no.nordicsemi.android.mesh.utils.AddressArray;
 
@@ -24,11 +26,29 @@ public class ProxyConfigRemoveAddressFromFilter extends ProxyConfigMessage {
         assembleMessageParameters();
     }
 
+    /**
+     * Splits the given addresses, in order, into as few messages as possible.
+     *
+     * @param addresses List of addresses to be removed from the filter
+     * @return list of messages to be sent one after the other.
+     * @throws IllegalArgumentException if the address list is empty.
+     */
+    @NonNull
+    public static List<ProxyConfigRemoveAddressFromFilter> create(@NonNull final List<AddressArray> addresses) throws IllegalArgumentException {
+        if (addresses.isEmpty())
+            throw new IllegalArgumentException("Address list cannot be empty!");
+        final List<ProxyConfigRemoveAddressFromFilter> messages = new ArrayList<>();
+        for (int i = 0; i < addresses.size(); i += MAX_FILTER_ADDRESSES) {
+            messages.add(new ProxyConfigRemoveAddressFromFilter(addresses.subList(i, Math.min(i + MAX_FILTER_ADDRESSES, addresses.size()))));
+        }
+        return messages;
+    }
+
     @Override
     void assembleMessageParameters() throws IllegalArgumentException {
         if (addresses.isEmpty())
             throw new IllegalArgumentException("Address list cannot be empty!");
-        final int length = (int) Math.pow(2, addresses.size());
+        final int length = 2 * addresses.size();
         mParameters = new byte[length];
         int count = 0;
         for (AddressArray addressArray : addresses) {
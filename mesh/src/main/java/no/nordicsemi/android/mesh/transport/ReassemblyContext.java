@@ -0,0 +1,164 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.timer.MeshScheduler;
+
+/**
+ * Holds the reassembly state of a single segmented message that is being received.
+ * <p>
+ * A context is identified by the source address and the SeqZero of the message. Each context keeps its own segments,
+ * block acknowledgement value and timers so that segmented messages from different sources, or different segmented
+ * messages from the same source, can be reassembled concurrently without interfering with each other.
+ * </p>
+ */
+final class ReassemblyContext {
+
+    private static final int SEQ_ZERO_MASK = 0x1FFF;
+    private static final int SEQ_ZERO_BITS = 13;
+
+    private final int src;
+    private final int dst;
+    private final int seqZero;
+    private final int seqAuth;
+    private final int segN;
+    private final int ttl;
+    private final SortedMap<Integer, byte[]> segments = new TreeMap<>();
+    private final SortedMap<Integer, byte[]> networkPdus = new TreeMap<>();
+    private int blockAck;
+    private MeshScheduler.Cancellable incompleteTimer;
+    private MeshScheduler.Cancellable acknowledgementTimer;
+
+    /**
+     * Constructs a reassembly context.
+     *
+     * @param src     Source address of the segmented message.
+     * @param dst     Destination address of the segmented message.
+     * @param seqZero SeqZero of the segmented message.
+     * @param seqAuth SeqAuth of the segmented message.
+     * @param segN    Zero based index of the last segment.
+     * @param ttl     TTL to be used when acknowledging the segments.
+     */
+    ReassemblyContext(final int src, final int dst, final int seqZero, final int seqAuth, final int segN, final int ttl) {
+        this.src = src;
+        this.dst = dst;
+        this.seqZero = seqZero;
+        this.seqAuth = seqAuth;
+        this.segN = segN;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the key identifying a segmented message from a given source.
+     *
+     * @param src     Source address.
+     * @param seqZero SeqZero of the segmented message.
+     */
+    static int key(final int src, final int seqZero) {
+        return (src << SEQ_ZERO_BITS) | (seqZero & SEQ_ZERO_MASK);
+    }
+
+    int getKey() {
+        return key(src, seqZero);
+    }
+
+    int getSrc() {
+        return src;
+    }
+
+    int getDst() {
+        return dst;
+    }
+
+    int getSeqZero() {
+        return seqZero;
+    }
+
+    int getSeqAuth() {
+        return seqAuth;
+    }
+
+    int getSegN() {
+        return segN;
+    }
+
+    int getTtl() {
+        return ttl;
+    }
+
+    /**
+     * Stores a received segment.
+     *
+     * @param segO       Segment offset.
+     * @param payload    Lower transport pdu of the segment.
+     * @param networkPdu Network pdu carrying the segment, may be null if not required.
+     * @return true if the segment was new or false if it had been received already.
+     */
+    boolean addSegment(final int segO, @NonNull final byte[] payload, final byte[] networkPdu) {
+        if (segO > segN || segments.get(segO) != null)
+            return false;
+        segments.put(segO, payload);
+        if (networkPdu != null) {
+            networkPdus.put(segO, networkPdu);
+        }
+        blockAck |= 1 << segO;
+        return true;
+    }
+
+    /**
+     * Returns true if all the segments of the message have been received.
+     */
+    boolean isComplete() {
+        return segments.size() == segN + 1;
+    }
+
+    /**
+     * Returns the number of segments received so far.
+     */
+    int getReceivedSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Returns a copy of the received segments ordered by the segment offset.
+     */
+    SortedMap<Integer, byte[]> getSegments() {
+        return new TreeMap<>(segments);
+    }
+
+    /**
+     * Returns a copy of the network pdus that carried the segments ordered by the segment offset.
+     */
+    SortedMap<Integer, byte[]> getNetworkPdus() {
+        return new TreeMap<>(networkPdus);
+    }
+
+    /**
+     * Returns the block acknowledgement value for the segments received so far.
+     */
+    int getBlockAck() {
+        return blockAck;
+    }
+
+    MeshScheduler.Cancellable getIncompleteTimer() {
+        return incompleteTimer;
+    }
+
+    void setIncompleteTimer(final MeshScheduler.Cancellable incompleteTimer) {
+        this.incompleteTimer = incompleteTimer;
+    }
+
+    MeshScheduler.Cancellable getAcknowledgementTimer() {
+        return acknowledgementTimer;
+    }
+
+    void setAcknowledgementTimer(final MeshScheduler.Cancellable acknowledgementTimer) {
+        this.acknowledgementTimer = acknowledgementTimer;
+    }
+
+    boolean isAcknowledgementTimerStarted() {
+        return acknowledgementTimer != null;
+    }
+}
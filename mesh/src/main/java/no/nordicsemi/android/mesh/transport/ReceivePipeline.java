@@ -0,0 +1,166 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.logger.MeshLogger;
+import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
+
+/**
+ * Receive pipeline decoding network pdus in parallel on an executor.
+ * <p>
+ * Network pdus are de-obfuscated and decrypted on the executor as soon as they are received, and are delivered on the
+ * delivery executor in the order they were received, once all the pdus received before them have been decoded. The rest
+ * of the processing of a source address is confined to an actor of the source, that runs its tasks one at a time on the
+ * executor, so that messages from different sources are processed in parallel while the messages of a source keep
+ * their order.
+ * </p>
+ */
+final class ReceivePipeline {
+
+    private static final String TAG = ReceivePipeline.class.getSimpleName();
+
+    /**
+     * Decodes a network pdu without accessing the mesh network, as it may be called from any thread.
+     */
+    interface Decoder {
+        /**
+         * Returns the decoded pdu or null if the pdu could not be decoded using any of the candidate keys.
+         *
+         * @param pdu        Received network pdu.
+         * @param candidates Network keys that may have been used to secure the pdu.
+         * @param ivIndex    IV Index used to secure the pdu.
+         */
+        @Nullable
+        DecodedNetworkPdu decode(@NonNull byte[] pdu,
+                                 @NonNull NidLookupTable.Candidate[] candidates,
+                                 int ivIndex) throws ExtendedInvalidCipherTextException;
+    }
+
+    interface Callbacks {
+        /**
+         * Invoked on the delivery executor for every decoded pdu, in the order the pdus were received.
+         *
+         * @param decodedPdu Decoded network pdu.
+         */
+        void onNetworkPduDecoded(@NonNull DecodedNetworkPdu decodedPdu);
+    }
+
+    private static final class Ticket {
+        private volatile boolean completed;
+        private DecodedNetworkPdu decodedPdu;
+    }
+
+    private final Executor executor;
+    private final Executor deliveryExecutor;
+    private final Decoder decoder;
+    private final Callbacks callbacks;
+    private final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+    private final Map<Integer, SerialExecutor> actors = new HashMap<>();
+
+    /**
+     * Constructs the receive pipeline.
+     *
+     * @param executor         Executor decoding the pdus and running the actors of the source addresses.
+     * @param deliveryExecutor Executor the decoded pdus are delivered on, which must run one task at a time.
+     * @param decoder          Network pdu decoder.
+     * @param callbacks        Callbacks notified of the decoded pdus.
+     */
+    ReceivePipeline(@NonNull final Executor executor,
+                    @NonNull final Executor deliveryExecutor,
+                    @NonNull final Decoder decoder,
+                    @NonNull final Callbacks callbacks) {
+        this.executor = executor;
+        this.deliveryExecutor = deliveryExecutor;
+        this.decoder = decoder;
+        this.callbacks = callbacks;
+    }
+
+    /**
+     * Returns the executor the decoded pdus are delivered on.
+     */
+    @NonNull
+    Executor getDeliveryExecutor() {
+        return deliveryExecutor;
+    }
+
+    /**
+     * Decodes a network pdu on the executor.
+     *
+     * @param pdu        Received network pdu.
+     * @param candidates Network keys that may have been used to secure the pdu.
+     * @param ivIndex    IV Index used to secure the pdu.
+     */
+    void submit(@NonNull final byte[] pdu, @NonNull final NidLookupTable.Candidate[] candidates, final int ivIndex) {
+        final Ticket ticket = new Ticket();
+        synchronized (tickets) {
+            tickets.add(ticket);
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    ticket.decodedPdu = decoder.decode(pdu, candidates, ivIndex);
+                } catch (ExtendedInvalidCipherTextException ex) {
+                    MeshLogger.verbose(TAG, () -> "Network pdu decryption failed: " + ex.getMessage());
+                } catch (RuntimeException ex) {
+                    MeshLogger.error(TAG, "Decoding network pdu failed", ex);
+                } finally {
+                    complete(ticket);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            MeshLogger.error(TAG, "Network pdu dropped, executor rejected the task");
+            complete(ticket);
+        }
+    }
+
+    private void complete(@NonNull final Ticket ticket) {
+        ticket.completed = true;
+        synchronized (tickets) {
+            // Deliveries are posted while holding the lock so that they are queued in the order of reception
+            Ticket head;
+            while ((head = tickets.peek()) != null && head.completed) {
+                tickets.poll();
+                final DecodedNetworkPdu decodedPdu = head.decodedPdu;
+                if (decodedPdu != null) {
+                    deliveryExecutor.execute(() -> callbacks.onNetworkPduDecoded(decodedPdu));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a task on the actor of a source address, after the tasks that were previously submitted for that address.
+     * <p>
+     * Must be called on the delivery executor.
+     * </p>
+     *
+     * @param src  Source address.
+     * @param task Task to run.
+     */
+    void executeForSource(final int src, @NonNull final Runnable task) {
+        SerialExecutor actor = actors.get(src);
+        if (actor == null) {
+            actor = new SerialExecutor(executor);
+            actors.put(src, actor);
+        }
+        actor.execute(task);
+    }
+
+    /**
+     * Removes the actor of a source address. Tasks already submitted for the address still run.
+     * <p>
+     * Must be called on the delivery executor.
+     * </p>
+     *
+     * @param src Source address.
+     */
+    void removeSource(final int src) {
+        actors.remove(src);
+    }
+}
@@ -0,0 +1,79 @@
+package no.nordicsemi.android.mesh.transport;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.ApplicationKey;
+
+/**
+ * Snapshot of the keys that may have been used to secure the upper transport pdu of a received access message.
+ * <p>
+ * The snapshot is taken on the thread the mesh network is used on, so that the message may be decrypted on any thread
+ * while the keys and groups of the network are being updated.
+ * </p>
+ */
+final class UpperTransportKeys {
+
+    /**
+     * Application key, current or old during a key refresh, and its AID.
+     */
+    static final class ApplicationKeyMaterial {
+        final byte[] key;
+        final int aid;
+
+        ApplicationKeyMaterial(@NonNull final byte[] key, final int aid) {
+            this.key = key;
+            this.aid = aid;
+        }
+    }
+
+    @Nullable
+    final byte[] deviceKey;
+    @NonNull
+    final List<ApplicationKeyMaterial> applicationKeys;
+    @NonNull
+    final List<UUID> labels;
+
+    private UpperTransportKeys(@Nullable final byte[] deviceKey,
+                               @NonNull final List<ApplicationKeyMaterial> applicationKeys,
+                               @NonNull final List<UUID> labels) {
+        this.deviceKey = deviceKey;
+        this.applicationKeys = applicationKeys;
+        this.labels = labels;
+    }
+
+    /**
+     * Returns a snapshot of the device key of the source of a message.
+     *
+     * @param deviceKey Device key of the node that sent the message.
+     */
+    @NonNull
+    static UpperTransportKeys ofDeviceKey(@Nullable final byte[] deviceKey) {
+        return new UpperTransportKeys(deviceKey == null ? null : deviceKey.clone(),
+                Collections.<ApplicationKeyMaterial>emptyList(), Collections.<UUID>emptyList());
+    }
+
+    /**
+     * Returns a snapshot of application keys and label UUIDs.
+     *
+     * @param keys   Application keys bound to the network key the message was received with.
+     * @param labels Label UUIDs of the virtual destination address of the message, which must not be modified
+     *               afterwards, or an empty list.
+     */
+    @NonNull
+    static UpperTransportKeys ofApplicationKeys(@NonNull final List<ApplicationKey> keys, @NonNull final List<UUID> labels) {
+        final List<ApplicationKeyMaterial> applicationKeys = new ArrayList<>(keys.size());
+        for (ApplicationKey key : keys) {
+            // The current key is tried before the old key as in the key refresh procedure the old key is phased out
+            applicationKeys.add(new ApplicationKeyMaterial(key.getKey().clone(), key.getAid()));
+            if (key.getOldKey() != null) {
+                applicationKeys.add(new ApplicationKeyMaterial(key.getOldKey().clone(), key.getOldAid()));
+            }
+        }
+        return new UpperTransportKeys(null, applicationKeys, labels);
+    }
+}
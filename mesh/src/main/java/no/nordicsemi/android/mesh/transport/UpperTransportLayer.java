@@ -28,12 +28,14 @@ import org.spongycastle.crypto.InvalidCipherTextException;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Collections;
 import java.util.List;
+import java.util.UUID;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import no.nordicsemi.android.mesh.ApplicationKey;
-import no.nordicsemi.android.mesh.Group;
 import no.nordicsemi.android.mesh.MeshManagerApi;
 import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
 import no.nordicsemi.android.mesh.utils.MeshAddress;
@@ -114,7 +116,7 @@ abstract class UpperTransportLayer extends AccessLayer {
             super.createMeshMessage(message);
             final AccessMessage accessMessage = (AccessMessage) message;
             final byte[] encryptedTransportPDU = encryptUpperTransportPDU(accessMessage);
-            MeshLogger.verbose(TAG, "Encrypted upper transport pdu: " + MeshParserUtils.bytesToHex(encryptedTransportPDU, false));
+            MeshLogger.verbose(TAG, () -> "Encrypted upper transport pdu: " + MeshParserUtils.bytesToHex(encryptedTransportPDU, false));
             accessMessage.setUpperTransportPdu(encryptedTransportPDU);
         } else {
             createUpperTransportPDU(message);
@@ -130,7 +132,7 @@ abstract class UpperTransportLayer extends AccessLayer {
         super.createVendorMeshMessage(message);
         final AccessMessage accessMessage = (AccessMessage) message;
         final byte[] encryptedTransportPDU = encryptUpperTransportPDU(accessMessage);
-        MeshLogger.verbose(TAG, "Encrypted upper transport pdu: " + MeshParserUtils.bytesToHex(encryptedTransportPDU, false));
+        MeshLogger.verbose(TAG, () -> "Encrypted upper transport pdu: " + MeshParserUtils.bytesToHex(encryptedTransportPDU, false));
         accessMessage.setUpperTransportPdu(encryptedTransportPDU);
     }
 
@@ -145,7 +147,7 @@ abstract class UpperTransportLayer extends AccessLayer {
             //Access message
             final AccessMessage accessMessage = (AccessMessage) message;
             final byte[] encryptedTransportPDU = encryptUpperTransportPDU(accessMessage);
-            MeshLogger.verbose(TAG, "Encrypted upper transport pdu: " + MeshParserUtils.bytesToHex(encryptedTransportPDU, false));
+            MeshLogger.verbose(TAG, () -> "Encrypted upper transport pdu: " + MeshParserUtils.bytesToHex(encryptedTransportPDU, false));
             accessMessage.setUpperTransportPdu(encryptedTransportPDU);
         } else {
             final ControlMessage controlMessage = (ControlMessage) message;
@@ -163,7 +165,7 @@ abstract class UpperTransportLayer extends AccessLayer {
             }
             final byte[] accessPdu = accessMessageBuffer.array();
 
-            MeshLogger.verbose(TAG, "Created Transport Control PDU " + MeshParserUtils.bytesToHex(accessPdu, false));
+            MeshLogger.verbose(TAG, () -> "Created Transport Control PDU " + MeshParserUtils.bytesToHex(accessPdu, false));
             controlMessage.setTransportControlPdu(accessPdu);
         }
     }
@@ -189,8 +191,8 @@ abstract class UpperTransportLayer extends AccessLayer {
                     break;
                 case MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION:
                     final ControlMessage controlMessage = (ControlMessage) message;
-                    if (controlMessage.getLowerTransportControlPdu().size() == 1) {
-                        final byte[] lowerTransportControlPdu = controlMessage.getLowerTransportControlPdu().get(0);
+                    if (controlMessage.getLowerTransportControlPduMap().size() == 1) {
+                        final byte[] lowerTransportControlPdu = controlMessage.getLowerTransportControlPduMap().get(0);
                         final ByteBuffer buffer = ByteBuffer.wrap(lowerTransportControlPdu)
                                 .order(ByteOrder.BIG_ENDIAN);
                         message.setOpCode(buffer.get());
@@ -226,11 +228,11 @@ abstract class UpperTransportLayer extends AccessLayer {
         if (akf == APPLICATION_KEY_IDENTIFIER) {
             key = message.getDeviceKey();
             nonce = createDeviceNonce(aszmic, sequenceNumber, src, dst, ivIndex);
-            MeshLogger.verbose(TAG, "Device nonce: " + MeshParserUtils.bytesToHex(nonce, false));
+            MeshLogger.verbose(TAG, () -> "Device nonce: " + MeshParserUtils.bytesToHex(nonce, false));
         } else {
             key = message.getApplicationKey().getKey();
             nonce = createApplicationNonce(aszmic, sequenceNumber, src, dst, ivIndex);
-            MeshLogger.verbose(TAG, "Application nonce: " + MeshParserUtils.bytesToHex(nonce, false));
+            MeshLogger.verbose(TAG, () -> "Application nonce: " + MeshParserUtils.bytesToHex(nonce, false));
         }
 
         int transMicLength;
@@ -254,28 +256,78 @@ abstract class UpperTransportLayer extends AccessLayer {
      * @param accessMessage Access message object containing the upper transport pdu
      */
     private byte[] decryptUpperTransportPDU(@NonNull final AccessMessage accessMessage) throws InvalidCipherTextException {
+        return decryptUpperTransportPDU(accessMessage, getUpperTransportKeys(accessMessage));
+    }
+
+    /**
+     * Returns a snapshot of the keys that may have been used to secure the upper transport pdu of an access message.
+     *
+     * @param accessMessage Access message received from the node being processed.
+     */
+    @NonNull
+    final UpperTransportKeys getUpperTransportKeys(@NonNull final AccessMessage accessMessage) {
+        if (APPLICATION_KEY_IDENTIFIER == accessMessage.getAkf())
+            return UpperTransportKeys.ofDeviceKey(mMeshNode.getDeviceKey());
+
+        final List<ApplicationKey> keys = mUpperTransportLayerCallbacks.getApplicationKeys(accessMessage.getNetworkKey().getKeyIndex());
+        // Only the label UUIDs hashing to the virtual address the message was sent to need to be authenticated
+        final List<UUID> labels = MeshAddress.isValidVirtualAddress(accessMessage.getDst()) ?
+                mUpperTransportLayerCallbacks.getVirtualGroupLabels(accessMessage.getDst()) : Collections.<UUID>emptyList();
+        return UpperTransportKeys.ofApplicationKeys(keys, labels);
+    }
+
+    /**
+     * Decrypts the upper transport pdu of an access message reassembled by the lower transport layer and parses its
+     * access pdu.
+     * <p>
+     * Only the given keys are used, hence this may be called from any thread.
+     * </p>
+     *
+     * @param accessMessage Access message containing the reassembled upper transport pdu
+     * @param keys          Keys that may have been used to secure the upper transport pdu
+     */
+    static void decryptAccessMessage(@NonNull final AccessMessage accessMessage,
+                                     @NonNull final UpperTransportKeys keys) throws ExtendedInvalidCipherTextException {
+        try {
+            accessMessage.setAccessPdu(decryptUpperTransportPDU(accessMessage, keys));
+        } catch (InvalidCipherTextException ex) {
+            throw new ExtendedInvalidCipherTextException(ex.getMessage(), ex.getCause(), TAG);
+        }
+        parseAccessLayerPDU(accessMessage);
+    }
+
+    /**
+     * Returns the decrypted upper transport pdu
+     *
+     * @param accessMessage Access message object containing the upper transport pdu
+     * @param keys          Keys that may have been used to secure the upper transport pdu
+     */
+    private static byte[] decryptUpperTransportPDU(@NonNull final AccessMessage accessMessage,
+                                                   @NonNull final UpperTransportKeys keys) throws InvalidCipherTextException {
         byte[] decryptedUpperTransportPDU;
-        byte[] key;
         final int transportMicLength = accessMessage.getAszmic() == SZMIC ? MAXIMUM_TRANSMIC_LENGTH : MINIMUM_TRANSMIC_LENGTH;
         //Check if the key used for encryption is an application key or a device key
         final byte[] nonce;
         if (APPLICATION_KEY_IDENTIFIER == accessMessage.getAkf()) {
-            key = mMeshNode.getDeviceKey();
             //If its a device key that was used to encrypt the message we need to create a device nonce to decrypt it
             nonce = createDeviceNonce(accessMessage.getAszmic(), accessMessage.getSequenceNumber(), accessMessage.getSrc(), accessMessage.getDst(), accessMessage.getIvIndex());
-            decryptedUpperTransportPDU = SecureUtils.decryptCCM(accessMessage.getUpperTransportPdu(), key, nonce, transportMicLength);
+            decryptedUpperTransportPDU = SecureUtils.decryptCCM(accessMessage.getUpperTransportPdu(), keys.deviceKey, nonce, transportMicLength);
         } else {
-            final List<ApplicationKey> keys = mUpperTransportLayerCallbacks.getApplicationKeys(accessMessage.getNetworkKey().getKeyIndex());
-            if (keys.isEmpty())
+            if (keys.applicationKeys.isEmpty())
                 throw new IllegalArgumentException("Unable to find the app key to decrypt the message");
 
             nonce = createApplicationNonce(accessMessage.getAszmic(), accessMessage.getSequenceNumber(), accessMessage.getSrc(),
                     accessMessage.getDst(), accessMessage.getIvIndex());
 
             if (MeshAddress.isValidVirtualAddress(accessMessage.getDst())) {
-                decryptedUpperTransportPDU = decrypt(accessMessage, mUpperTransportLayerCallbacks.gerVirtualGroups(), keys, nonce, transportMicLength);
+                decryptedUpperTransportPDU = null;
+                for (UUID label : keys.labels) {
+                    decryptedUpperTransportPDU = decrypt(accessMessage, keys.applicationKeys, nonce, MeshParserUtils.uuidToBytes(label), transportMicLength);
+                    if (decryptedUpperTransportPDU != null)
+                        break;
+                }
             } else {
-                decryptedUpperTransportPDU = decrypt(accessMessage, keys, nonce, transportMicLength);
+                decryptedUpperTransportPDU = decrypt(accessMessage, keys.applicationKeys, nonce, null, transportMicLength);
             }
         }
 
@@ -290,51 +342,28 @@ abstract class UpperTransportLayer extends AccessLayer {
         return decryptedUpperTransportPDU;
     }
 
-    private byte[] decrypt(@NonNull final AccessMessage accessMessage, @NonNull final List<Group> groups, @NonNull List<ApplicationKey> keys, final byte[] nonce, final int transportMicLength) {
-        for (ApplicationKey key : keys) {
-            for (Group group : groups) {
-                if(group.getAddressLabel() != null) {
-                    if (key.getAid() == accessMessage.getAid()) {
-                        try {
-                            return SecureUtils
-                                    .decryptCCM(accessMessage.getUpperTransportPdu(), key.getKey(), nonce, MeshParserUtils.uuidToBytes(group.getAddressLabel()), transportMicLength);
-                        } catch (Exception ex) {
-                            // Retrying decryption
-                        }
-                    }
-                    if (key.getOldAid() == accessMessage.getAid()) {
-
-                        try {
-                            return SecureUtils
-                                    .decryptCCM(accessMessage.getUpperTransportPdu(), key.getOldKey(), nonce, MeshParserUtils.uuidToBytes(group.getAddressLabel()), transportMicLength);
-                        } catch (Exception ex) {
-                            // Retrying decryption
-                        }
-                    }
-                }
-            }
-        }
-        return null;
-    }
-
-    private byte[] decrypt(@NonNull final AccessMessage accessMessage, @NonNull List<ApplicationKey> keys, final byte[] nonce, final int transportMicLength) {
-        for (ApplicationKey key : keys) {
-            if (key.getAid() == accessMessage.getAid()) {
-                try {
-                    return SecureUtils
-                            .decryptCCM(accessMessage.getUpperTransportPdu(), key.getKey(), nonce, transportMicLength);
-                } catch (Exception ex) {
-                    // Retrying decryption.
-                }
-
-            }
-            if (key.getOldAid() == accessMessage.getAid()) {
-                try {
-                    return SecureUtils
-                            .decryptCCM(accessMessage.getUpperTransportPdu(), key.getKey(), nonce, transportMicLength);
-                } catch (Exception ex) {
-                    // Retrying decryption.
-                }
+    /**
+     * Decrypts the upper transport pdu using the application keys matching the AID of the message.
+     *
+     * @param accessMessage      Access message containing the upper transport pdu
+     * @param keys               Application keys bound to the network key of the message, current and old
+     * @param nonce              Application nonce
+     * @param label              Label UUID of the virtual destination address, or null
+     * @param transportMicLength Length of the transport MIC
+     * @return decrypted upper transport pdu or null if the message could not be authenticated with any of the keys
+     */
+    @Nullable
+    private static byte[] decrypt(@NonNull final AccessMessage accessMessage,
+                                  @NonNull final List<UpperTransportKeys.ApplicationKeyMaterial> keys,
+                                  @NonNull final byte[] nonce,
+                                  @Nullable final byte[] label,
+                                  final int transportMicLength) {
+        for (UpperTransportKeys.ApplicationKeyMaterial key : keys) {
+            if (key.aid == accessMessage.getAid()) {
+                final byte[] decryptedUpperTransportPDU = SecureUtils
+                        .tryDecryptCCM(accessMessage.getUpperTransportPdu(), key.key, nonce, label, transportMicLength);
+                if (decryptedUpperTransportPDU != null)
+                    return decryptedUpperTransportPDU;
             }
         }
         return null;
@@ -349,11 +378,11 @@ abstract class UpperTransportLayer extends AccessLayer {
      * @param dst            destination address
      * @return Application nonce
      */
-    private byte[] createApplicationNonce(final int aszmic,
-                                          @NonNull final byte[] sequenceNumber,
-                                          final int src,
-                                          final int dst,
-                                          @NonNull final byte[] ivIndex) {
+    private static byte[] createApplicationNonce(final int aszmic,
+                                                 @NonNull final byte[] sequenceNumber,
+                                                 final int src,
+                                                 final int dst,
+                                                 @NonNull final byte[] ivIndex) {
         final ByteBuffer applicationNonceBuffer = ByteBuffer.allocate(13);
         applicationNonceBuffer.put((byte) NONCE_TYPE_APPLICATION); //Nonce type
         applicationNonceBuffer.put((byte) ((aszmic << 7) | PAD_APPLICATION_DEVICE_NONCE)); //ASZMIC (SZMIC if a segmented access message) and PAD
@@ -373,11 +402,11 @@ abstract class UpperTransportLayer extends AccessLayer {
      * @param dst            destination address
      * @return Device  nonce
      */
-    private byte[] createDeviceNonce(final int aszmic,
-                                     @NonNull final byte[] sequenceNumber,
-                                     final int src,
-                                     final int dst,
-                                     @NonNull final byte[] ivIndex) {
+    private static byte[] createDeviceNonce(final int aszmic,
+                                            @NonNull final byte[] sequenceNumber,
+                                            final int src,
+                                            final int dst,
+                                            @NonNull final byte[] ivIndex) {
         final ByteBuffer deviceNonceBuffer = ByteBuffer.allocate(13);
         deviceNonceBuffer.put((byte) NONCE_TYPE_DEVICE); //Nonce type
         deviceNonceBuffer.put((byte) ((aszmic << 7) | PAD_APPLICATION_DEVICE_NONCE)); //ASZMIC (SZMIC if a segmented access message) and PAD
@@ -23,10 +23,10 @@
 package no.nordicsemi.android.mesh.transport;
 
 import java.util.List;
+import java.util.UUID;
 
-import androidx.annotation.Nullable;
+import androidx.annotation.NonNull;
 import no.nordicsemi.android.mesh.ApplicationKey;
-import no.nordicsemi.android.mesh.Group;
 
 /**
  * Upper transport layer call backs
@@ -61,8 +61,11 @@ public interface UpperTransportLayerCallbacks {
     List<ApplicationKey> getApplicationKeys(final int boundNetKeyIndex);
 
     /**
-     * Returns the list of groups
+     * Returns the label UUIDs of the virtual groups with the given virtual address.
+     *
+     * @param address Virtual address.
+     * @return label UUIDs or an empty list if there is no virtual group with the given address
      */
-    @Nullable
-    List<Group> gerVirtualGroups();
+    @NonNull
+    List<UUID> getVirtualGroupLabels(final int address);
 }
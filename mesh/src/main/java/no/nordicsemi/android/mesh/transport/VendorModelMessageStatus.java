@@ -31,9 +31,14 @@ import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 
 /**
  * To be used as a wrapper class for when creating the VendorModelMessageStatus Message.
+ * <p>
+ * Status messages of vendor models may extend this class and be registered using
+ * {@link no.nordicsemi.android.mesh.MeshManagerApi#registerVendorModelStatus(int, int, OpCodeRegistry.StatusDecoder)}
+ * to be decoded in to their own type.
+ * </p>
  */
 @SuppressWarnings({"WeakerAccess"})
-public final class VendorModelMessageStatus extends ApplicationStatusMessage implements Parcelable {
+public class VendorModelMessageStatus extends ApplicationStatusMessage implements Parcelable {
 
     private static final String TAG = VendorModelMessageStatus.class.getSimpleName();
     private final int mModelIdentifier;
@@ -0,0 +1,110 @@
+package no.nordicsemi.android.mesh.utils;
+
+import java.util.Arrays;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Firmware ID identifying a firmware image, made of the company identifier of the vendor and vendor specific version
+ * information.
+ */
+@SuppressWarnings({"WeakerAccess", "unused"})
+public final class FirmwareId {
+
+    private static final int COMPANY_IDENTIFIER_LENGTH = 2;
+    public static final int MAX_VERSION_INFORMATION_LENGTH = 106;
+    public static final int MAX_LENGTH = COMPANY_IDENTIFIER_LENGTH + MAX_VERSION_INFORMATION_LENGTH;
+
+    private final int companyIdentifier;
+    private final byte[] versionInformation;
+
+    /**
+     * Constructs a Firmware ID.
+     *
+     * @param companyIdentifier  Company identifier of the vendor of the firmware.
+     * @param versionInformation Vendor specific version information, up to {@link #MAX_VERSION_INFORMATION_LENGTH} octets.
+     * @throws IllegalArgumentException if any illegal arguments are passed
+     */
+    public FirmwareId(final int companyIdentifier, @NonNull final byte[] versionInformation) {
+        if (companyIdentifier < 0 || companyIdentifier > 0xFFFF)
+            throw new IllegalArgumentException("Company identifier must be a 16-bit value");
+        if (versionInformation.length > MAX_VERSION_INFORMATION_LENGTH)
+            throw new IllegalArgumentException("Version information cannot be longer than " + MAX_VERSION_INFORMATION_LENGTH + " octets");
+        this.companyIdentifier = companyIdentifier;
+        this.versionInformation = versionInformation.clone();
+    }
+
+    /**
+     * Parses a Firmware ID.
+     *
+     * @param data   Buffer containing the Firmware ID.
+     * @param offset Offset of the Firmware ID.
+     * @param length Length of the Firmware ID.
+     * @return the Firmware ID or null if it is too short to contain a company identifier.
+     */
+    @Nullable
+    public static FirmwareId parse(@NonNull final byte[] data, final int offset, final int length) {
+        if (length < COMPANY_IDENTIFIER_LENGTH || length > MAX_LENGTH || offset + length > data.length)
+            return null;
+        final int companyIdentifier = (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+        return new FirmwareId(companyIdentifier,
+                Arrays.copyOfRange(data, offset + COMPANY_IDENTIFIER_LENGTH, offset + length));
+    }
+
+    /**
+     * Returns the company identifier of the vendor of the firmware.
+     */
+    public int getCompanyIdentifier() {
+        return companyIdentifier;
+    }
+
+    /**
+     * Returns the vendor specific version information.
+     */
+    @NonNull
+    public byte[] getVersionInformation() {
+        return versionInformation.clone();
+    }
+
+    /**
+     * Returns the length of the Firmware ID in octets.
+     */
+    public int getLength() {
+        return COMPANY_IDENTIFIER_LENGTH + versionInformation.length;
+    }
+
+    /**
+     * Returns the Firmware ID as sent in mesh messages.
+     */
+    @NonNull
+    public byte[] toByteArray() {
+        final byte[] data = new byte[getLength()];
+        data[0] = (byte) companyIdentifier;
+        data[1] = (byte) (companyIdentifier >> 8);
+        System.arraycopy(versionInformation, 0, data, COMPANY_IDENTIFIER_LENGTH, versionInformation.length);
+        return data;
+    }
+
+    @Override
+    public boolean equals(@Nullable final Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof FirmwareId))
+            return false;
+        final FirmwareId firmwareId = (FirmwareId) o;
+        return companyIdentifier == firmwareId.companyIdentifier && Arrays.equals(versionInformation, firmwareId.versionInformation);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * companyIdentifier + Arrays.hashCode(versionInformation);
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "FirmwareId{companyIdentifier=" + String.format("0x%04X", companyIdentifier) +
+                ", versionInformation=" + MeshParserUtils.bytesToHex(versionInformation, true) + "}";
+    }
+}
@@ -22,9 +22,7 @@
 package no.nordicsemi.android.mesh.utils;
 
 import android.content.Context;
-import android.text.TextUtils;
 import no.nordicsemi.android.mesh.logger.MeshLogger;
-import android.util.SparseArray;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
@@ -34,9 +32,11 @@ import java.util.Date;
 import java.util.List;
 import java.util.Locale;
 import java.util.Random;
+import java.util.SortedMap;
 import java.util.UUID;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import no.nordicsemi.android.mesh.NodeKey;
 import no.nordicsemi.android.mesh.R;
 
@@ -163,7 +163,7 @@ public class MeshParserUtils {
      */
     public static boolean validateNetworkKeyInput(@NonNull final String networkKey) throws IllegalArgumentException {
 
-        if (TextUtils.isEmpty(networkKey)) {
+        if (isEmpty(networkKey)) {
             throw new IllegalArgumentException("Network key cannot be empty!");
         } else if (!networkKey.matches(PATTERN_KEY)) {
             throw new IllegalArgumentException("Network key must be 16 bytes long!");
@@ -182,7 +182,7 @@ public class MeshParserUtils {
      */
     public static boolean validateKeyIndexInput(final Context context, final String input) throws IllegalArgumentException {
 
-        if (TextUtils.isEmpty(input)) {
+        if (isEmpty(input)) {
             throw new IllegalArgumentException(context.getString(R.string.error_empty_key_index));
         }
 
@@ -210,7 +210,7 @@ public class MeshParserUtils {
      */
     public static boolean validateIvIndexInput(final Context context, final String input) throws IllegalArgumentException {
 
-        if (TextUtils.isEmpty(input)) {
+        if (isEmpty(input)) {
             throw new IllegalArgumentException(context.getString(R.string.error_empty_iv_index));
         }
 
@@ -256,7 +256,7 @@ public class MeshParserUtils {
      * @throws IllegalArgumentException in case of an invalid was entered as an input and the message containing the error
      */
     public static boolean validateKeyInput(@NonNull final String key) throws IllegalArgumentException {
-        if (TextUtils.isEmpty(key)) {
+        if (isEmpty(key)) {
             throw new IllegalArgumentException("Key cannot be empty!");
         } else if (!key.matches(PATTERN_KEY)) {
             throw new IllegalArgumentException("key must be a 32-character hexadecimal string!");
@@ -273,7 +273,7 @@ public class MeshParserUtils {
      * @throws IllegalArgumentException in case of an invalid was entered as an input and the message containing the error
      */
     public static boolean validatePublicKeyInput(@NonNull final String key) throws IllegalArgumentException {
-        if (TextUtils.isEmpty(key)) {
+        if (isEmpty(key)) {
             throw new IllegalArgumentException("Key cannot be empty!");
         } else if (!key.matches(PATTERN_PUBLIC_KEY)) {
             throw new IllegalArgumentException("key must be a 128-character hexadecimal string!");
@@ -331,20 +331,20 @@ public class MeshParserUtils {
         return ByteBuffer.allocate(2).put(pdu, 8, 2).array(); // get mDst address from pdu
     }
 
-    private static int getSegmentedMessageLength(final SparseArray<byte[]> segmentedMessageMap) {
+    private static int getSegmentedMessageLength(final SortedMap<Integer, byte[]> segmentedMessageMap) {
         int length = 0;
-        for (int i = 0; i < segmentedMessageMap.size(); i++) {
-            length += segmentedMessageMap.get(i).length;
+        for (byte[] segment : segmentedMessageMap.values()) {
+            length += segment.length;
         }
         return length;
     }
 
-    public static byte[] concatenateSegmentedMessages(final SparseArray<byte[]> segmentedMessages) {
+    public static byte[] concatenateSegmentedMessages(final SortedMap<Integer, byte[]> segmentedMessages) {
         final int length = getSegmentedMessageLength(segmentedMessages);
         final ByteBuffer completeBuffer = ByteBuffer.allocate(length);
         completeBuffer.order(ByteOrder.BIG_ENDIAN);
-        for (int i = 0; i < segmentedMessages.size(); i++) {
-            completeBuffer.put(segmentedMessages.get(i));
+        for (byte[] segment : segmentedMessages.values()) {
+            completeBuffer.put(segment);
         }
         return completeBuffer.array();
     }
@@ -378,7 +378,7 @@ public class MeshParserUtils {
     public static byte[] getOpCode(final int opCode) {
         if (opCode < 0x80) {
             return new byte[]{(byte) (opCode & 0xFF)};
-        } else if (opCode < 0x4000 || (opCode & 0xFFFC00) == 0x8000) {
+        } else if (opCode < 0x4000 || (opCode & 0xFFC000) == 0x8000) {
             return new byte[]{(byte) (0x80 | ((opCode >> 8) & 0x3F)), (byte) (opCode & 0xFF)};
         } else {
             return new byte[]{(byte) (0xC0 | ((opCode >> 16) & 0x3F)),
@@ -818,4 +818,11 @@ public class MeshParserUtils {
         return ttl <= 0x7F;
     }
 
+    /**
+     * Returns true if the string is null or empty, without depending on the Android framework.
+     */
+    private static boolean isEmpty(@Nullable final CharSequence value) {
+        return value == null || value.length() == 0;
+    }
+
 }
\ No newline at end of file
@@ -6,17 +6,26 @@ import androidx.annotation.NonNull;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.ProxyConfigAddAddressToFilter;
+import no.nordicsemi.android.mesh.transport.ProxyConfigRemoveAddressFromFilter;
+
 /**
  * Contains the proxy filter configuration set to a node
+ * <p>
+ * Unicast, group and virtual addresses are kept in a sorted array of primitives, so that an address can be looked up
+ * with a binary search and addresses can be added or removed in bulk by merging sorted arrays.
+ * </p>
  */
 @SuppressWarnings("unused")
 public class ProxyFilter implements Parcelable {
 
     private final ProxyFilterType filterType;
-    private final List<AddressArray> addresses = new ArrayList<>();
+    private int[] addresses = new int[0];
 
     /**
      * Constructs the proxy filter
@@ -29,13 +38,16 @@ public class ProxyFilter implements Parcelable {
 
     private ProxyFilter(Parcel in) {
         filterType = in.readParcelable(ProxyFilterType.class.getClassLoader());
-        in.readList(addresses, AddressArray.class.getClassLoader());
+        final int[] addresses = in.createIntArray();
+        if (addresses != null) {
+            this.addresses = addresses;
+        }
     }
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeParcelable(filterType, flags);
-        dest.writeList(addresses);
+        dest.writeIntArray(addresses);
     }
 
     @Override
@@ -63,10 +75,24 @@ public class ProxyFilter implements Parcelable {
     }
 
     /**
-     * Returns the list of addresses containing {@link AddressArray} added to the proxy filter
+     * Returns the list of addresses containing {@link AddressArray} added to the proxy filter, in ascending order
      */
     public List<AddressArray> getAddresses() {
-        return Collections.unmodifiableList(addresses);
+        return Collections.unmodifiableList(toAddressArrays(addresses));
+    }
+
+    /**
+     * Returns the number of addresses in the proxy filter
+     */
+    public int getAddressCount() {
+        return addresses.length;
+    }
+
+    /**
+     * Returns true if the proxy filter contains no addresses
+     */
+    public boolean isEmpty() {
+        return addresses.length == 0;
     }
 
     /**
@@ -75,43 +101,34 @@ public class ProxyFilter implements Parcelable {
      * @param addressArray address to be added
      */
     public void addAddress(final AddressArray addressArray) {
-        if (!contains(addressArray)) {
-            addresses.add(addressArray);
-        }
+        addAddresses(Collections.singletonList(addressArray));
     }
 
     /**
-     * Checks is the address exists within the list of proxy filter addresses.
+     * Adds a list of addresses to the ProxyFilter
      *
-     * @param addressArray address
+     * @param addressArrays addresses to be added
      */
-    private boolean contains(@NonNull final AddressArray addressArray) {
-        for (AddressArray arr : addresses) {
-            if (Arrays.equals(addressArray.getAddress(), arr.getAddress())) {
-                return true;
-            }
-        }
-        return false;
+    public void addAddresses(@NonNull final List<AddressArray> addressArrays) {
+        addresses = union(addresses, toSortedSet(addressArrays));
     }
 
     /**
      * Checks is the address exists within the list of proxy filter addresses.
-     * <p>
-     * Currently does not support virtual addresses.
-     * </p>
      *
-     * @param address Unicast, Group address
+     * @param address Unicast, Group or Virtual address
      */
     public final boolean contains(@NonNull final byte[] address) {
-        if (MeshAddress.isValidUnicastAddress(address) || MeshAddress.isValidSubscriptionAddress(address)) {
-            final AddressArray addressArray = new AddressArray(address[0], address[1]);
-            for (AddressArray arr : addresses) {
-                if (Arrays.equals(addressArray.getAddress(), arr.getAddress())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return MeshAddress.isValidProxyFilterAddress(address) && contains(toAddress(address));
+    }
+
+    /**
+     * Checks is the address exists within the list of proxy filter addresses.
+     *
+     * @param address Unicast, Group or Virtual address
+     */
+    public final boolean contains(final int address) {
+        return Arrays.binarySearch(addresses, address) >= 0;
     }
 
     /**
@@ -120,7 +137,123 @@ public class ProxyFilter implements Parcelable {
      * @param addressArray address to be removed
      */
     public void removeAddress(final AddressArray addressArray) {
-        addresses.remove(addressArray);
+        removeAddresses(Collections.singletonList(addressArray));
+    }
+
+    /**
+     * Removes a list of addresses from the ProxyFilter
+     *
+     * @param addressArrays addresses to be removed
+     */
+    public void removeAddresses(@NonNull final List<AddressArray> addressArrays) {
+        addresses = difference(addresses, toSortedSet(addressArrays));
+    }
+
+    /**
+     * Returns the messages required to make the proxy filter match the given addresses, such as the addresses a
+     * provisioner must receive messages for.
+     * <p>
+     * For an inclusion list the addresses that are no longer required are removed before the missing addresses are
+     * added, while for an exclusion list the given addresses are removed from the filter. Addresses are packed into as
+     * few messages as possible and the filter is updated as the status of each message is received.
+     * </p>
+     *
+     * @param addresses Unicast, Group or Virtual addresses the proxy filter should let through.
+     * @return list of messages to be sent one after the other, empty if the filter already matches.
+     */
+    @NonNull
+    public List<MeshMessage> createSyncMessages(@NonNull final Collection<Integer> addresses) {
+        final int[] target = new int[addresses.size()];
+        int count = 0;
+        for (Integer address : addresses) {
+            if (MeshAddress.isValidProxyFilterAddress(address)) {
+                target[count++] = address;
+            }
+        }
+        final int[] sortedTarget = toSortedSet(target, count);
+        final List<MeshMessage> messages = new ArrayList<>();
+        final int[] toRemove;
+        final int[] toAdd;
+        if (filterType.getType() == ProxyFilterType.INCLUSION_LIST_FILTER) {
+            toRemove = difference(this.addresses, sortedTarget);
+            toAdd = difference(sortedTarget, this.addresses);
+        } else {
+            toRemove = difference(this.addresses, difference(this.addresses, sortedTarget));
+            toAdd = new int[0];
+        }
+        if (toRemove.length > 0) {
+            messages.addAll(ProxyConfigRemoveAddressFromFilter.create(toAddressArrays(toRemove)));
+        }
+        if (toAdd.length > 0) {
+            messages.addAll(ProxyConfigAddAddressToFilter.create(toAddressArrays(toAdd)));
+        }
+        return messages;
+    }
+
+    private static int toAddress(@NonNull final byte[] address) {
+        return (address[0] & 0xFF) << 8 | address[1] & 0xFF;
+    }
+
+    private static List<AddressArray> toAddressArrays(@NonNull final int[] addresses) {
+        final List<AddressArray> addressArrays = new ArrayList<>(addresses.length);
+        for (int address : addresses) {
+            addressArrays.add(new AddressArray((byte) (address >> 8), (byte) address));
+        }
+        return addressArrays;
+    }
+
+    private static int[] toSortedSet(@NonNull final List<AddressArray> addressArrays) {
+        final int[] addresses = new int[addressArrays.size()];
+        for (int i = 0; i < addresses.length; i++) {
+            addresses[i] = toAddress(addressArrays.get(i).getAddress());
+        }
+        return toSortedSet(addresses, addresses.length);
+    }
+
+    private static int[] toSortedSet(@NonNull final int[] addresses, final int length) {
+        Arrays.sort(addresses, 0, length);
+        int count = 0;
+        for (int i = 0; i < length; i++) {
+            if (count == 0 || addresses[count - 1] != addresses[i]) {
+                addresses[count++] = addresses[i];
+            }
+        }
+        return count == addresses.length ? addresses : Arrays.copyOf(addresses, count);
+    }
+
+    /**
+     * Returns the sorted addresses contained in either of the sorted arrays.
+     */
+    private static int[] union(@NonNull final int[] a, @NonNull final int[] b) {
+        final int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, count = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                result[count++] = a[i++];
+            } else if (a[i] > b[j]) {
+                result[count++] = b[j++];
+            } else {
+                result[count++] = a[i++];
+                j++;
+            }
+        }
+        while (i < a.length) result[count++] = a[i++];
+        while (j < b.length) result[count++] = b[j++];
+        return count == result.length ? result : Arrays.copyOf(result, count);
     }
 
+    /**
+     * Returns the sorted addresses of the first sorted array that are not contained in the second one.
+     */
+    private static int[] difference(@NonNull final int[] a, @NonNull final int[] b) {
+        final int[] result = new int[a.length];
+        int j = 0, count = 0;
+        for (int address : a) {
+            while (j < b.length && b[j] < address) j++;
+            if (j == b.length || b[j] != address) {
+                result[count++] = address;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
 }
@@ -24,26 +24,15 @@ package no.nordicsemi.android.mesh.utils;
 
 import android.os.Parcel;
 import android.os.Parcelable;
-import no.nordicsemi.android.mesh.logger.MeshLogger;
 
 import com.google.gson.annotations.Expose;
 
-import org.spongycastle.crypto.BlockCipher;
-import org.spongycastle.crypto.CipherParameters;
 import org.spongycastle.crypto.InvalidCipherTextException;
-import org.spongycastle.crypto.engines.AESEngine;
-import org.spongycastle.crypto.engines.AESLightEngine;
-import org.spongycastle.crypto.macs.CMac;
-import org.spongycastle.crypto.modes.CCMBlockCipher;
-import org.spongycastle.crypto.params.AEADParameters;
-import org.spongycastle.crypto.params.KeyParameter;
-
-import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+
 import java.nio.charset.Charset;
-import java.security.SecureRandom;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import no.nordicsemi.android.mesh.SecureNetworkBeacon;
 
 @SuppressWarnings({"WeakerAccess", "CharsetObjectCanBeUsed"})
@@ -101,31 +90,10 @@ public class SecureUtils {
     protected static final byte[] SALT_KEY = {0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00};
     //Padding for the random nonce
     protected static final byte[] NONCE_PADDING = {0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00, 0x00};
-    private static final String TAG = SecureUtils.class.getSimpleName();
-    /**
-     * Salt input for identity key
-     */
-    private static final byte[] NKIK = "nkik".getBytes(Charset.forName("US-ASCII"));
-
-    /**
-     * Salt input for beacon key
-     */
-    private static final byte[] NKBK = "nkbk".getBytes(Charset.forName("US-ASCII"));
-    /**
-     * Salt input for identity key
-     */
-    private static final byte[] ID128 = "id128".getBytes(Charset.forName("US-ASCII"));
-    //Padding for the random nonce
-    private static final byte[] HASH_PADDING = {0x00, 0x00, 0x00, 0x00, 0x00, 0x00};
-    private static final int HASH_LENGTH = 8;
     public static int NRF_MESH_KEY_SIZE = 16;
 
     public static byte[] generateRandomNumber() {
-        final SecureRandom random = new SecureRandom();
-        final byte[] randomBytes = new byte[16];
-        random.nextBytes(randomBytes);
-
-        return randomBytes;
+        return MeshCrypto.generateRandomNumber();
     }
 
     public static String generateRandomNetworkKey() {
@@ -139,39 +107,44 @@ public class SecureUtils {
 
 
     public static byte[] calculateSalt(final byte[] data) {
-        return calculateCMAC(data, SALT_KEY);
+        return MeshCrypto.calculateSalt(data);
     }
 
+    /**
+     * Calculates the AES-CMAC of the given data.
+     * <p>
+     * This is used by the key derivation and provisioning functions where the key is mostly a transient value, hence
+     * the crypto context of the key is not cached.
+     * </p>
+     *
+     * @param data data
+     * @param key  key
+     */
     public static byte[] calculateCMAC(final byte[] data, final byte[] key) {
-        final byte[] cmac = new byte[16];
-
-        CipherParameters cipherParameters = new KeyParameter(key);
-        BlockCipher blockCipher = new AESEngine();
-        CMac mac = new CMac(blockCipher);
+        return MeshCrypto.calculateCMAC(data, key);
+    }
 
-        mac.init(cipherParameters);
-        mac.update(data, 0, data.length);
-        mac.doFinal(cmac, 0);
-        return cmac;
+    /**
+     * Calculates the AES-CMAC of the given data without allocating
+     *
+     * @param in     input buffer
+     * @param inOff  offset of the data in the input buffer
+     * @param len    length of the data
+     * @param key    key
+     * @param out    output buffer, must have room for 16 bytes
+     * @param outOff offset in the output buffer
+     */
+    public static void calculateCMAC(@NonNull final byte[] in, final int inOff, final int len,
+                                     @NonNull final byte[] key,
+                                     @NonNull final byte[] out, final int outOff) {
+        MeshCrypto.calculateCMAC(in, inOff, len, key, out, outOff);
     }
 
     public static byte[] encryptCCM(@NonNull final byte[] data,
                                     @NonNull final byte[] key,
                                     @NonNull final byte[] nonce,
                                     final int micSize) {
-        final byte[] ccm = new byte[data.length + micSize];
-
-        final CCMBlockCipher ccmBlockCipher = new CCMBlockCipher(new AESEngine());
-        final AEADParameters aeadParameters = new AEADParameters(new KeyParameter(key), micSize * 8, nonce);
-        ccmBlockCipher.init(true, aeadParameters);
-        ccmBlockCipher.processBytes(data, 0, data.length, ccm, data.length);
-        try {
-            ccmBlockCipher.doFinal(ccm, 0);
-            return ccm;
-        } catch (InvalidCipherTextException e) {
-            MeshLogger.error(TAG, "Error wile encrypting: " + e.getMessage());
-            return null;
-        }
+        return MeshCrypto.encryptCCM(data, key, nonce, null, micSize);
     }
 
     public static byte[] encryptCCM(@NonNull final byte[] data,
@@ -179,33 +152,37 @@ public class SecureUtils {
                                     @NonNull final byte[] nonce,
                                     @NonNull final byte[] additionalData,
                                     final int micSize) {
-        final byte[] ccm = new byte[data.length + micSize];
-
-        final CCMBlockCipher ccmBlockCipher = new CCMBlockCipher(new AESEngine());
-        final AEADParameters aeadParameters = new AEADParameters(new KeyParameter(key), micSize * 8, nonce, additionalData);
-        ccmBlockCipher.init(true, aeadParameters);
-        ccmBlockCipher.processBytes(data, 0, data.length, ccm, data.length);
-        try {
-            ccmBlockCipher.doFinal(ccm, 0);
-            return ccm;
-        } catch (InvalidCipherTextException e) {
-            MeshLogger.error(TAG, "Error wile encrypting: " + e.getMessage());
-            return null;
-        }
+        return MeshCrypto.encryptCCM(data, key, nonce, additionalData, micSize);
+    }
+
+    /**
+     * Encrypts the given data using AES-CCM without allocating
+     *
+     * @param in             input buffer
+     * @param inOff          offset of the data in the input buffer
+     * @param len            length of the data
+     * @param key            key
+     * @param nonce          nonce
+     * @param additionalData additional data, may be null
+     * @param micSize        size of the MIC
+     * @param out            output buffer, must have room for len + micSize bytes
+     * @param outOff         offset in the output buffer
+     * @return number of bytes written
+     */
+    public static int encryptCCM(@NonNull final byte[] in, final int inOff, final int len,
+                                 @NonNull final byte[] key,
+                                 @NonNull final byte[] nonce,
+                                 @Nullable final byte[] additionalData,
+                                 final int micSize,
+                                 @NonNull final byte[] out, final int outOff) {
+        return MeshCrypto.encryptCCM(in, inOff, len, key, nonce, additionalData, micSize, out, outOff);
     }
 
     public static byte[] decryptCCM(@NonNull final byte[] data,
                                     @NonNull final byte[] key,
                                     @NonNull final byte[] nonce,
                                     final int micSize) throws InvalidCipherTextException {
-        final byte[] ccm = new byte[data.length - micSize];
-
-        final CCMBlockCipher ccmBlockCipher = new CCMBlockCipher(new AESEngine());
-        final AEADParameters aeadParameters = new AEADParameters(new KeyParameter(key), micSize * 8, nonce);
-        ccmBlockCipher.init(false, aeadParameters);
-        ccmBlockCipher.processBytes(data, 0, data.length, ccm, 0);
-        ccmBlockCipher.doFinal(ccm, 0);
-        return ccm;
+        return MeshCrypto.decryptCCM(data, key, nonce, null, micSize);
     }
 
     public static byte[] decryptCCM(@NonNull final byte[] data,
@@ -213,18 +190,73 @@ public class SecureUtils {
                                     @NonNull final byte[] nonce,
                                     @NonNull final byte[] additionalData,
                                     final int micSize) throws InvalidCipherTextException {
-        final byte[] ccm = new byte[data.length - micSize];
-
-        final CCMBlockCipher ccmBlockCipher = new CCMBlockCipher(new AESEngine());
-        final AEADParameters aeadParameters = new AEADParameters(new KeyParameter(key), micSize * 8, nonce, additionalData);
-        ccmBlockCipher.init(false, aeadParameters);
-        ccmBlockCipher.processBytes(data, 0, data.length, ccm, 0);
-        ccmBlockCipher.doFinal(ccm, 0);
-        return ccm;
+        return MeshCrypto.decryptCCM(data, key, nonce, additionalData, micSize);
+    }
+
+    /**
+     * Decrypts the given data using AES-CCM without allocating
+     *
+     * @param in             input buffer containing the encrypted data followed by the MIC
+     * @param inOff          offset of the data in the input buffer
+     * @param len            length of the data including the MIC
+     * @param key            key
+     * @param nonce          nonce
+     * @param additionalData additional data, may be null
+     * @param micSize        size of the MIC
+     * @param out            output buffer, must have room for len - micSize bytes
+     * @param outOff         offset in the output buffer
+     * @return number of bytes written
+     * @throws InvalidCipherTextException if the MIC does not match
+     */
+    public static int decryptCCM(@NonNull final byte[] in, final int inOff, final int len,
+                                 @NonNull final byte[] key,
+                                 @NonNull final byte[] nonce,
+                                 @Nullable final byte[] additionalData,
+                                 final int micSize,
+                                 @NonNull final byte[] out, final int outOff) throws InvalidCipherTextException {
+        return MeshCrypto.decryptCCM(in, inOff, len, key, nonce, additionalData, micSize, out, outOff);
+    }
+
+    /**
+     * Decrypts and verifies the given data using AES-CCM without throwing if the MIC does not match.
+     *
+     * @param data           encrypted data followed by the MIC
+     * @param key            128-bit key
+     * @param nonce          nonce
+     * @param additionalData additional data to be authenticated, may be null
+     * @param micSize        size of the MIC in bytes
+     * @return decrypted data or null if the MIC does not match
+     */
+    @Nullable
+    public static byte[] tryDecryptCCM(@NonNull final byte[] data,
+                                       @NonNull final byte[] key,
+                                       @NonNull final byte[] nonce,
+                                       @Nullable final byte[] additionalData,
+                                       final int micSize) {
+        return MeshCrypto.tryDecryptCCM(data, key, nonce, additionalData, micSize);
+    }
+
+    /**
+     * Returns the crypto context of a given key for the calling thread.
+     *
+     * @param key 128-bit key
+     * @see MeshCrypto#getCryptoContext(byte[])
+     */
+    public static CryptoContext getCryptoContext(@NonNull final byte[] key) {
+        return MeshCrypto.getCryptoContext(key);
+    }
+
+    /**
+     * Discards the cached crypto contexts so that expanded keys are not retained once a key is removed or the network is reset.
+     *
+     * @see MeshCrypto#clearCryptoContexts()
+     */
+    public static void clearCryptoContexts() {
+        MeshCrypto.clearCryptoContexts();
     }
 
     public static byte[] calculateK1(final byte[] ecdh, final byte[] confirmationSalt, final byte[] text) {
-        return calculateCMAC(text, calculateCMAC(ecdh, confirmationSalt));
+        return MeshCrypto.calculateK1(ecdh, confirmationSalt, text);
     }
 
     /**
@@ -234,33 +266,10 @@ public class SecureUtils {
      * @param p    master input
      */
     public static K2Output calculateK2(final byte[] data, final byte[] p) {
-        if (data == null || p == null)
+        final MeshCrypto.K2 k2 = MeshCrypto.calculateK2(data, p);
+        if (k2 == null)
             return null;
-
-        final byte[] salt = calculateSalt(SMK2);
-        final byte[] t = calculateCMAC(data, salt);
-
-        final byte[] t0 = {};
-        final ByteBuffer inputBufferT0 = ByteBuffer.allocate(t0.length + p.length + 1);
-        inputBufferT0.put(t0);
-        inputBufferT0.put(p);
-        inputBufferT0.put((byte) 0x01);
-        final byte[] t1 = calculateCMAC(inputBufferT0.array(), t);
-        final byte nid = (byte) (t1[15] & 0x7F);
-
-        final ByteBuffer inputBufferT1 = ByteBuffer.allocate(t1.length + p.length + 1);
-        inputBufferT1.put(t1);
-        inputBufferT1.put(p);
-        inputBufferT1.put((byte) 0x02);
-        final byte[] encryptionKey = calculateCMAC(inputBufferT1.array(), t);
-
-        final ByteBuffer inputBufferT2 = ByteBuffer.allocate(encryptionKey.length + p.length + 1);
-        inputBufferT2.put(encryptionKey);
-        inputBufferT2.put(p);
-        inputBufferT2.put((byte) 0x03);
-        final byte[] privacyKey = calculateCMAC(inputBufferT2.array(), t);
-
-        return new K2Output(nid, encryptionKey, privacyKey);
+        return new K2Output(k2.getNid(), k2.getEncryptionKey(), k2.getPrivacyKey());
     }
 
     /**
@@ -269,26 +278,7 @@ public class SecureUtils {
      * @param n network key
      */
     public static byte[] calculateK3(final byte[] n) {
-        if (n == null)
-            return null;
-
-        final byte[] salt = calculateSalt(SMK3);
-
-        final byte[] t = calculateCMAC(n, salt);
-
-        ByteBuffer buffer = ByteBuffer.allocate(SMK3_DATA.length + 1);
-        buffer.put(SMK3_DATA);
-        buffer.put((byte) 0x01);
-        final byte[] cmacInput = buffer.array();
-
-        final byte[] result = calculateCMAC(cmacInput, t);
-
-        //Only the least significant 8 bytes are returned
-        final byte[] networkId = new byte[8];
-        final int srcOffset = result.length - networkId.length;
-
-        System.arraycopy(result, srcOffset, networkId, 0, networkId.length);
-        return networkId;
+        return MeshCrypto.calculateK3(n);
     }
 
     /**
@@ -297,22 +287,7 @@ public class SecureUtils {
      * @param n key
      */
     public static byte calculateK4(final byte[] n) {
-        if (n == null || n.length != 16)
-            throw new IllegalArgumentException("Key cannot be empty and must be 16-bytes long.");
-
-        byte[] salt = calculateSalt(SMK4);
-
-        final byte[] t = calculateCMAC(n, salt);
-
-        ByteBuffer buffer = ByteBuffer.allocate(SMK4_DATA.length + 1);
-        buffer.put(SMK4_DATA);
-        buffer.put((byte) 0x01);
-        final byte[] cmacInput = buffer.array();
-
-        final byte[] result = calculateCMAC(cmacInput, t);
-
-        //Only the least siginificant 6 bytes are returned
-        return (byte) ((result[15]) & 0x3F);
+        return MeshCrypto.calculateK4(n);
     }
 
     /**
@@ -322,14 +297,7 @@ public class SecureUtils {
      * @return hash value
      */
     public static byte[] calculateIdentityKey(final byte[] n) {
-        if (n == null)
-            return null;
-        final byte[] salt = calculateSalt(NKIK);
-        ByteBuffer buffer = ByteBuffer.allocate(ID128.length + 1);
-        buffer.put(ID128);
-        buffer.put((byte) 0x01);
-        final byte[] p = buffer.array();
-        return calculateK1(n, salt, p);
+        return MeshCrypto.calculateIdentityKey(n);
     }
 
     /**
@@ -339,12 +307,7 @@ public class SecureUtils {
      * @return hash value
      */
     public static byte[] calculateBeaconKey(final byte[] n) {
-        final byte[] salt = calculateSalt(NKBK);
-        ByteBuffer buffer = ByteBuffer.allocate(ID128.length + 1);
-        buffer.put(ID128);
-        buffer.put((byte) 0x01);
-        final byte[] p = buffer.array();
-        return calculateK1(n, salt, p);
+        return MeshCrypto.calculateBeaconKey(n);
     }
 
     /**
@@ -359,13 +322,7 @@ public class SecureUtils {
                                                            final int flags,
                                                            @NonNull final byte[] networkId,
                                                            final int ivIndex) {
-        final int inputLength = 1 + networkId.length + 4;
-        final ByteBuffer pBuffer = ByteBuffer.allocate(inputLength);
-        pBuffer.put((byte) flags);
-        pBuffer.put(networkId);
-        pBuffer.putInt(ivIndex);
-        final byte[] beaconKey = calculateBeaconKey(n);
-        return calculateCMAC(pBuffer.array(), beaconKey);
+        return MeshCrypto.calculateAuthValueSecureNetBeacon(n, flags, networkId, ivIndex);
     }
 
     /**
@@ -380,18 +337,7 @@ public class SecureUtils {
                                                                 final int flags,
                                                                 @NonNull final byte[] networkId,
                                                                 final int ivIndex) {
-        final byte[] authentication = calculateAuthValueSecureNetBeacon(n, flags, networkId, ivIndex);
-
-        final int inputLength = 1 + networkId.length + 4;
-        final ByteBuffer pBuffer = ByteBuffer.allocate(inputLength);
-        pBuffer.put((byte) flags);
-        pBuffer.put(networkId);
-        pBuffer.putInt(ivIndex);
-        final ByteBuffer secNetBeaconBuffer = ByteBuffer.allocate(1 + inputLength + 8);
-        secNetBeaconBuffer.put((byte) 0x01);
-        secNetBeaconBuffer.put(pBuffer.array());
-        secNetBeaconBuffer.put(authentication, 0, 8);
-        return new SecureNetworkBeacon(secNetBeaconBuffer.array());
+        return new SecureNetworkBeacon(MeshCrypto.calculateSecureNetworkBeacon(n, 0x01, flags, networkId, ivIndex));
     }
 
     /**
@@ -407,18 +353,7 @@ public class SecureUtils {
                                                       final int flags,
                                                       @NonNull final byte[] networkId,
                                                       final int ivIndex) {
-        final byte[] authentication = calculateAuthValueSecureNetBeacon(n, flags, networkId, ivIndex);
-
-        final int inputLength = 1 + networkId.length + 4;
-        final ByteBuffer pBuffer = ByteBuffer.allocate(inputLength);
-        pBuffer.put((byte) flags);
-        pBuffer.put(networkId);
-        pBuffer.putInt(ivIndex);
-        final ByteBuffer secNetBeaconBuffer = ByteBuffer.allocate(1 + inputLength + 8);
-        secNetBeaconBuffer.put((byte) beaconType);
-        secNetBeaconBuffer.put(pBuffer.array());
-        secNetBeaconBuffer.put(authentication, 0, 8);
-        return secNetBeaconBuffer.array();
+        return MeshCrypto.calculateSecureNetworkBeacon(n, beaconType, flags, networkId, ivIndex);
     }
 
     /**
@@ -430,36 +365,15 @@ public class SecureUtils {
      * @return hash value
      */
     public static byte[] calculateHash(final byte[] identityKey, final byte[] random, final byte[] src) {
-        final int length = HASH_PADDING.length + random.length + src.length;
-        final ByteBuffer bufferHashInput = ByteBuffer.allocate(length).order(ByteOrder.BIG_ENDIAN);
-        bufferHashInput.put(HASH_PADDING);
-        bufferHashInput.put(random);
-        bufferHashInput.put(src);
-        final byte[] hashInput = bufferHashInput.array();
-        final byte[] hash = SecureUtils.encryptWithAES(hashInput, identityKey);
-
-        final ByteBuffer buffer = ByteBuffer.allocate(HASH_LENGTH).order(ByteOrder.BIG_ENDIAN);
-        buffer.put(hash, 8, HASH_LENGTH);
-
-        return buffer.array();
+        return MeshCrypto.calculateHash(identityKey, random, src);
     }
 
     public static byte[] encryptWithAES(final byte[] data, final byte[] key) {
-        final byte[] encrypted = new byte[data.length];
-        final CipherParameters cipherParameters = new KeyParameter(key);
-        final AESLightEngine engine = new AESLightEngine();
-        engine.init(true, cipherParameters);
-        engine.processBlock(data, 0, encrypted, 0);
-
-        return encrypted;
+        return MeshCrypto.encryptWithAES(data, key);
     }
 
     public static int getNetMicLength(final int ctl) {
-        if (ctl == 0) {
-            return 4; //length;
-        } else {
-            return 8; //length
-        }
+        return MeshCrypto.getNetMicLength(ctl);
     }
 
     /**
@@ -468,11 +382,7 @@ public class SecureUtils {
      * @param aszmic application size message integrity check
      */
     public static int getTransMicLength(final int aszmic) {
-        if (aszmic == 0) {
-            return 4; //length;
-        } else {
-            return 8; //length
-        }
+        return MeshCrypto.getTransMicLength(aszmic);
     }
 
     public static class K2Output implements Parcelable {
@@ -0,0 +1,240 @@
+package no.nordicsemi.android.mesh.utils;
+
+import android.os.Parcel;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.RestrictTo;
+
+/**
+ * Insertion ordered set of unsigned 16-bit values such as key indexes, addresses and scene numbers.
+ * <p>
+ * Values are stored in a char array which is allocated on the first insertion, instead of a list of boxed integers.
+ * Models usually hold a handful of these values, so lookups are a linear scan. {@link #asList()} returns a read-only
+ * view which is created once and reflects later changes. The set is serialized to JSON as an array of integers, the
+ * same as a list of integers.
+ * </p>
+ */
+@RestrictTo(RestrictTo.Scope.LIBRARY)
+@JsonAdapter(Uint16Set.GsonAdapter.class)
+public final class Uint16Set {
+
+    private static final char[] EMPTY = new char[0];
+
+    private char[] values = EMPTY;
+    private int size;
+    private List<Integer> view;
+
+    /**
+     * Returns the number of values in the set.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the set contains no values.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the value at the given position, in insertion order.
+     *
+     * @param index Position of the value.
+     */
+    public int get(final int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return values[index];
+    }
+
+    /**
+     * Returns true if the set contains the given value.
+     *
+     * @param value 16-bit value.
+     */
+    public boolean contains(final int value) {
+        return indexOf(value) >= 0;
+    }
+
+    /**
+     * Returns the position of the given value or -1 if the set does not contain it.
+     *
+     * @param value 16-bit value.
+     */
+    public int indexOf(final int value) {
+        if (value < 0 || value > 0xFFFF)
+            return -1;
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a value to the end of the set if the set does not contain it already.
+     *
+     * @param value 16-bit value.
+     * @return true if the value was added.
+     */
+    public boolean add(final int value) {
+        if (value < 0 || value > 0xFFFF)
+            throw new IllegalArgumentException("Value must be an unsigned 16-bit value: " + value);
+        if (contains(value))
+            return false;
+        if (size == values.length) {
+            // Sets rarely hold more than a few values, so grow by two values at a time
+            values = Arrays.copyOf(values, size == 0 ? 2 : size + 2);
+        }
+        values[size++] = (char) value;
+        return true;
+    }
+
+    /**
+     * Adds all values, skipping the ones the set already contains.
+     *
+     * @param values 16-bit values.
+     */
+    public void addAll(@NonNull final Iterable<Integer> values) {
+        for (Integer value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value 16-bit value.
+     * @return true if the set contained the value.
+     */
+    public boolean remove(final int value) {
+        final int index = indexOf(value);
+        if (index < 0)
+            return false;
+        removeAt(index);
+        return true;
+    }
+
+    /**
+     * Removes the value at the given position.
+     *
+     * @param index Position of the value.
+     */
+    public void removeAt(final int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Removes all values from the set.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns a read-only list view of the set.
+     */
+    @NonNull
+    public List<Integer> asList() {
+        if (view == null) {
+            view = new AbstractList<Integer>() {
+                @Override
+                public Integer get(final int index) {
+                    return Uint16Set.this.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public boolean contains(final Object o) {
+                    return o instanceof Integer && Uint16Set.this.contains((Integer) o);
+                }
+
+                @Override
+                public int indexOf(final Object o) {
+                    return o instanceof Integer ? Uint16Set.this.indexOf((Integer) o) : -1;
+                }
+            };
+        }
+        return view;
+    }
+
+    /**
+     * Writes the set to a parcel.
+     *
+     * @param dest Parcel.
+     */
+    public void writeToParcel(@NonNull final Parcel dest) {
+        dest.writeCharArray(Arrays.copyOf(values, size));
+    }
+
+    /**
+     * Replaces the values of the set with the ones read from a parcel.
+     *
+     * @param in Parcel.
+     */
+    public void readFromParcel(@NonNull final Parcel in) {
+        final char[] values = in.createCharArray();
+        this.values = values == null || values.length == 0 ? EMPTY : values;
+        size = this.values.length;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return asList().toString();
+    }
+
+    /**
+     * Serializes the set as a JSON array of integers.
+     */
+    static final class GsonAdapter extends TypeAdapter<Uint16Set> {
+
+        @Override
+        public void write(final JsonWriter out, final Uint16Set set) throws IOException {
+            if (set == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginArray();
+            for (int i = 0; i < set.size; i++) {
+                out.value((int) set.values[i]);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public Uint16Set read(final JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            final Uint16Set set = new Uint16Set();
+            in.beginArray();
+            while (in.hasNext()) {
+                set.add(in.nextInt());
+            }
+            in.endArray();
+            return set;
+        }
+    }
+}
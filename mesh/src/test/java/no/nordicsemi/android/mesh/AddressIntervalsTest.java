@@ -0,0 +1,65 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class AddressIntervalsTest {
+
+    @Test
+    public void testAdjacentIntervalsAreMerged() {
+        final AddressIntervals intervals = new AddressIntervals();
+        intervals.add(0x0001, 0x0003);
+        intervals.add(0x0007);
+        intervals.add(0x0005, 0x0006);
+        assertEquals(2, intervals.getIntervalCount());
+        intervals.add(0x0004);
+        assertEquals(1, intervals.getIntervalCount());
+        assertTrue(intervals.contains(0x0001));
+        assertTrue(intervals.contains(0x0007));
+        assertFalse(intervals.contains(0x0008));
+    }
+
+    @Test
+    public void testFirstFit() {
+        final AddressIntervals intervals = new AddressIntervals();
+        intervals.add(0x0001, 0x0002);
+        intervals.add(0x0005);
+        intervals.add(0x0008, 0x0009);
+        assertEquals(0x0003, intervals.firstFit(0x0001, 0x00FF, 2));
+        assertEquals(0x0006, intervals.firstFit(0x0004, 0x00FF, 2));
+        assertEquals(0x000A, intervals.firstFit(0x0001, 0x00FF, 3));
+        assertEquals(0x000A, intervals.firstFit(0x0001, 0x000C, 3));
+        assertEquals(-1, intervals.firstFit(0x0001, 0x000B, 3));
+        intervals.add(0x0007);
+        assertEquals(0x0003, intervals.bestFit(0x0001, 0x00FF, 2));
+        assertEquals(0x0006, intervals.bestFit(0x0001, 0x00FF, 1));
+    }
+
+    @Test
+    public void testLargestGap() {
+        final AddressIntervals intervals = new AddressIntervals();
+        intervals.add(0x0001, 0x0002);
+        intervals.add(0x0006, 0x0007);
+        intervals.add(0x0009, 0x000A);
+        assertArrayEquals(new int[]{0x0003, 0x0005}, intervals.largestGap(0x0001, 0x000A));
+        assertArrayEquals(new int[]{0x000B, 0x000F}, intervals.largestGap(0x0001, 0x000F));
+        intervals.add(0x0003, 0x0005);
+        intervals.add(0x0008);
+        assertNull(intervals.largestGap(0x0001, 0x000A));
+    }
+
+    @Test
+    public void testNextAvailableUnicastAddress() throws Exception {
+        final MeshNetwork network = new ImportExportUtils().importNetwork(ImportExportUtilsTest.NETWORK_JSON);
+        final Provisioner provisioner = network.getProvisioners().get(0);
+        assertEquals(0x0003, network.nextAvailableUnicastAddress(2, provisioner));
+        network.deleteNode(network.getNode(0x0001));
+        // Addresses of a removed node are excluded until the IV Index is updated twice
+        assertEquals(0x0003, network.nextAvailableUnicastAddress(1, provisioner));
+    }
+}
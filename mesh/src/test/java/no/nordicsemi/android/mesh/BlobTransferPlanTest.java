@@ -0,0 +1,55 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class BlobTransferPlanTest {
+
+    @Test
+    public void testChunksFillWholeSegments() {
+        final BlobTransferPlan plan = BlobTransferPlan.create(100000, 6, 0x20, 32, 256, 380);
+        assertNotNull(plan);
+        // 245 octets of data, 3 octets of opcode and chunk number and 4 octets of TransMIC fill 21 segments
+        assertEquals(245, plan.getChunkSize());
+        // The largest block that fits in 32 chunks
+        assertEquals(12, plan.getBlockSizeLog());
+        assertEquals(25, plan.getBlockCount());
+        assertEquals(4096, plan.getBlockSize(0));
+        assertEquals(17, plan.getChunkCount(0));
+        assertEquals(1696, plan.getBlockSize(24));
+        assertEquals(7, plan.getChunkCount(24));
+    }
+
+    @Test
+    public void testSmallChunksAreUnsegmented() {
+        final BlobTransferPlan plan = BlobTransferPlan.create(1000, 6, 12, 0xFFFF, 10, 380);
+        assertNotNull(plan);
+        assertEquals(8, plan.getChunkSize());
+        assertEquals(12, plan.getBlockSizeLog());
+        assertEquals(1, plan.getBlockCount());
+        assertEquals(125, plan.getChunkCount(0));
+    }
+
+    @Test
+    public void testChunkSizeLimitedByMtu() {
+        final BlobTransferPlan plan = BlobTransferPlan.create(1000, 6, 12, 0xFFFF, 256, 20);
+        assertNotNull(plan);
+        assertEquals(17, plan.getChunkSize());
+    }
+
+    @Test
+    public void testBlockSizeLimitedByBuffer() {
+        final BlobTransferPlan plan = BlobTransferPlan.create(0xFFFFFFFFL, 6, 0x20, 0xFFFF, 256, 380);
+        assertNotNull(plan);
+        assertEquals(20, plan.getBlockSizeLog());
+        assertEquals(4096, plan.getBlockCount());
+    }
+
+    @Test
+    public void testUnsatisfiableLimits() {
+        assertNull(BlobTransferPlan.create(1000, 12, 12, 2, 8, 380));
+    }
+}
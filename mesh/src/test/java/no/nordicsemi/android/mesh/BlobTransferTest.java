@@ -0,0 +1,390 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.transport.AccessMessage;
+import no.nordicsemi.android.mesh.transport.BlobBlockGet;
+import no.nordicsemi.android.mesh.transport.BlobBlockStart;
+import no.nordicsemi.android.mesh.transport.BlobBlockStatus;
+import no.nordicsemi.android.mesh.transport.BlobChunkTransfer;
+import no.nordicsemi.android.mesh.transport.BlobInformationGet;
+import no.nordicsemi.android.mesh.transport.BlobInformationStatus;
+import no.nordicsemi.android.mesh.transport.BlobPartialBlockReport;
+import no.nordicsemi.android.mesh.transport.BlobTransferCancel;
+import no.nordicsemi.android.mesh.transport.BlobTransferGet;
+import no.nordicsemi.android.mesh.transport.BlobTransferStart;
+import no.nordicsemi.android.mesh.transport.BlobTransferStatus;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+
+public class BlobTransferTest {
+
+    private static final int MULTICAST_ADDRESS = 0xC000;
+    private static final long PULL_TIMEOUT = 1000;
+    // 100 octets sent in a block of 64 octets and a block of 36 octets, using chunks of 8 octets
+    private static final int BLOB_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 8;
+
+    private final VirtualClockScheduler scheduler = new VirtualClockScheduler();
+    private final List<Sent> sent = new ArrayList<>();
+    private final MeshTransactionManager.MeshMessageSender sender = (dst, meshMessage) -> sent.add(new Sent(dst, meshMessage));
+    private final MeshTransactionManager manager = new MeshTransactionManager(scheduler, sender);
+    private final Map<Integer, FakeServer> servers = new HashMap<>();
+    private final List<Integer> transferredBlocks = new ArrayList<>();
+    private final List<int[]> failures = new ArrayList<>();
+    private final List<Chunk> chunks = new ArrayList<>();
+    private int finished;
+    private final BlobTransfer transfer = new BlobTransfer(scheduler, manager, sender,
+            new ApplicationKey(0, new byte[16]), 0x1122334455667788L, BlobSource.fromByteArray(new byte[BLOB_SIZE]),
+            new BlobTransferCallbacks() {
+                @Override
+                public void onBlockTransferred(@NonNull final BlobTransfer transfer, final int blockNumber, final int blockCount) {
+                    transferredBlocks.add(blockNumber);
+                }
+
+                @Override
+                public void onReceiverFailed(@NonNull final BlobTransfer transfer, final int address, final int reason, final int status) {
+                    failures.add(new int[]{address, reason});
+                }
+
+                @Override
+                public void onTransferFinished(@NonNull final BlobTransfer transfer) {
+                    finished++;
+                }
+            });
+
+    @Test
+    public void testPushTransfer() {
+        addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PUSH);
+        transfer.start();
+        run();
+
+        final BlobTransferPlan plan = transfer.getPlan();
+        assertNotNull(plan);
+        assertEquals(2, plan.getBlockCount());
+        assertEquals(MAX_CHUNK_SIZE, plan.getChunkSize());
+        assertEquals(BlobTransfer.STATE_COMPLETED, transfer.getState());
+        assertEquals(1, finished);
+        assertEquals(2, transferredBlocks.size());
+        assertEquals(1, transfer.getCompletedReceivers().size());
+        assertTrue(failures.isEmpty());
+        // Every chunk is sent exactly once
+        assertEquals(8 + 5, chunks.size());
+        assertEquals(8 + 5, servers.get(0x0002).chunksReceived);
+    }
+
+    @Test
+    public void testMulticastPushTransfer() {
+        transfer.setMulticastAddress(MULTICAST_ADDRESS);
+        addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PUSH);
+        addReceiver(0x0004, BlobTransferStart.TRANSFER_MODE_PUSH);
+        transfer.start();
+        run();
+
+        assertEquals(BlobTransfer.STATE_COMPLETED, transfer.getState());
+        assertEquals(2, transfer.getCompletedReceivers().size());
+        // Chunks needed by both receivers are sent once to the multicast address
+        assertEquals(8 + 5, chunks.size());
+        for (Chunk chunk : chunks) {
+            assertEquals(MULTICAST_ADDRESS, chunk.dst);
+        }
+    }
+
+    @Test
+    public void testMissingChunksAreRetransmitted() {
+        transfer.setMulticastAddress(MULTICAST_ADDRESS);
+        addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PUSH).dropOnce(3, 5);
+        addReceiver(0x0004, BlobTransferStart.TRANSFER_MODE_PUSH);
+        transfer.start();
+        run();
+
+        assertEquals(BlobTransfer.STATE_COMPLETED, transfer.getState());
+        assertEquals(2, transfer.getCompletedReceivers().size());
+        // Only the chunks the receiver reported missing are sent again, and only to that receiver
+        assertEquals(8 + 5 + 2, chunks.size());
+        final List<Chunk> retransmitted = chunks.subList(8, 10);
+        assertEquals(0x0002, retransmitted.get(0).dst);
+        assertEquals(3, retransmitted.get(0).number);
+        assertEquals(0x0002, retransmitted.get(1).dst);
+        assertEquals(5, retransmitted.get(1).number);
+        // A BLOB Block Get follows each round, two for the first block and one for the second
+        assertEquals(3, servers.get(0x0002).blockGets);
+    }
+
+    @Test
+    public void testPullTransfer() {
+        addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PULL);
+        transfer.setPullTimeout(PULL_TIMEOUT);
+        transfer.start();
+        run();
+
+        assertEquals(BlobTransfer.STATE_COMPLETED, transfer.getState());
+        assertEquals(2, transferredBlocks.size());
+        assertEquals(8 + 5, chunks.size());
+        // Chunks are only sent when requested, the receiver is never polled
+        assertEquals(0, servers.get(0x0002).blockGets);
+    }
+
+    @Test
+    public void testPullReceiverIsPolledAfterTimeout() {
+        final FakeServer server = addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PULL).dropOnce(2);
+        server.reportsPerBlock = 1;
+        transfer.setPullTimeout(PULL_TIMEOUT);
+        transfer.start();
+        run();
+
+        assertEquals(BlobTransfer.STATE_COMPLETED, transfer.getState());
+        // The chunk lost in the first block is sent again once the receiver reports it missing when polled
+        assertEquals(8 + 5 + 1, chunks.size());
+        assertEquals(2, chunks.get(8).number);
+        assertTrue(server.blockGets > 0);
+    }
+
+    @Test
+    public void testReceiverTimeout() {
+        addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PUSH);
+        addReceiver(0x0004, BlobTransferStart.TRANSFER_MODE_PUSH).silent = true;
+        transfer.start();
+        run();
+
+        // The transfer continues with the remaining receiver once the other one has failed
+        assertEquals(BlobTransfer.STATE_COMPLETED, transfer.getState());
+        assertEquals(1, failures.size());
+        assertEquals(0x0004, failures.get(0)[0]);
+        assertEquals(BlobTransfer.FAILURE_TIMEOUT, failures.get(0)[1]);
+        assertEquals(1, transfer.getCompletedReceivers().size());
+        assertEquals(Integer.valueOf(0x0002), transfer.getCompletedReceivers().get(0));
+    }
+
+    @Test
+    public void testAllReceiversTimeout() {
+        addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PUSH).silent = true;
+        transfer.start();
+        run();
+
+        assertEquals(BlobTransfer.STATE_FAILED, transfer.getState());
+        assertEquals(1, finished);
+        assertEquals(1, failures.size());
+        assertTrue(chunks.isEmpty());
+    }
+
+    @Test
+    public void testCancel() {
+        addReceiver(0x0002, BlobTransferStart.TRANSFER_MODE_PUSH);
+        transfer.start();
+        while (transferredBlocks.isEmpty()) {
+            step();
+        }
+        transfer.cancel();
+        // Chunks sent before the transfer was cancelled may not have been delivered yet
+        int chunkCount = chunks.size();
+        for (Sent message : sent) {
+            if (message.meshMessage instanceof BlobChunkTransfer) {
+                chunkCount++;
+            }
+        }
+        run();
+
+        assertEquals(BlobTransfer.STATE_CANCELLED, transfer.getState());
+        assertEquals(1, finished);
+        assertEquals(chunkCount, chunks.size());
+        assertTrue(servers.get(0x0002).cancelled);
+        // No chunk or timer of the transfer is left behind
+        assertEquals(0, scheduler.getPendingTaskCount());
+    }
+
+    private FakeServer addReceiver(final int address, final int transferMode) {
+        transfer.addReceiver(address, transferMode);
+        final FakeServer server = new FakeServer(address);
+        servers.put(address, server);
+        return server;
+    }
+
+    /**
+     * Delivers the messages sent by the transfer and advances the clock until the transfer has finished.
+     */
+    private void run() {
+        for (int i = 0; i < 20000 && (!transfer.isFinished() || !sent.isEmpty()); i++) {
+            step();
+        }
+        assertTrue(transfer.isFinished());
+    }
+
+    private void step() {
+        while (!sent.isEmpty()) {
+            final Sent message = sent.remove(0);
+            if (message.meshMessage instanceof BlobChunkTransfer) {
+                chunks.add(new Chunk(message.dst, ((BlobChunkTransfer) message.meshMessage).getChunkNumber()));
+            }
+            for (FakeServer server : servers.values()) {
+                if (server.address == message.dst || (message.dst == MULTICAST_ADDRESS && server.isPush())) {
+                    server.handle(message.meshMessage);
+                }
+            }
+        }
+        scheduler.advanceBy(10);
+    }
+
+    private static AccessMessage createAccessMessage(final int src, final byte[] parameters) {
+        final AccessMessage message = new AccessMessage();
+        message.setSrc(src);
+        message.setParameters(parameters);
+        return message;
+    }
+
+    private static final class Sent {
+        private final int dst;
+        private final MeshMessage meshMessage;
+
+        private Sent(final int dst, final MeshMessage meshMessage) {
+            this.dst = dst;
+            this.meshMessage = meshMessage;
+        }
+    }
+
+    private static final class Chunk {
+        private final int dst;
+        private final int number;
+
+        private Chunk(final int dst, final int number) {
+            this.dst = dst;
+            this.number = number;
+        }
+    }
+
+    /**
+     * BLOB Transfer Server supporting both transfer modes, which may lose chunks of the first block or not respond.
+     */
+    private final class FakeServer {
+        private final int address;
+        private final BitSet dropOnce = new BitSet();
+        private boolean silent;
+        private boolean cancelled;
+        private int reportsPerBlock = Integer.MAX_VALUE;
+        private int transferMode;
+        private int blockNumber;
+        private int chunkCount;
+        private BitSet received = new BitSet();
+        private BitSet requested = new BitSet();
+        private int reports;
+        private int chunksReceived;
+        private int blockGets;
+
+        private FakeServer(final int address) {
+            this.address = address;
+        }
+
+        private FakeServer dropOnce(final int... chunkNumbers) {
+            for (int chunkNumber : chunkNumbers) {
+                dropOnce.set(chunkNumber);
+            }
+            return this;
+        }
+
+        private boolean isPush() {
+            return transferMode == BlobTransferStart.TRANSFER_MODE_PUSH;
+        }
+
+        private void handle(@NonNull final MeshMessage meshMessage) {
+            if (silent)
+                return;
+            if (meshMessage instanceof BlobInformationGet) {
+                // Block size of 64 octets, up to 16 chunks of 8 octets, both transfer modes
+                respond(new BlobInformationStatus(createAccessMessage(address, ByteBuffer.allocate(13).order(ByteOrder.LITTLE_ENDIAN)
+                        .put((byte) 6).put((byte) 6).putShort((short) 16).putShort((short) MAX_CHUNK_SIZE)
+                        .putInt(0xFFFF).putShort((short) 380).put((byte) 0x03).array())));
+            } else if (meshMessage instanceof BlobTransferStart) {
+                transferMode = ((BlobTransferStart) meshMessage).getTransferMode();
+                respond(createTransferStatus(BlobTransferStatus.PHASE_WAITING_FOR_NEXT_BLOCK));
+            } else if (meshMessage instanceof BlobBlockStart) {
+                blockNumber = ((BlobBlockStart) meshMessage).getBlockNumber();
+                chunkCount = transfer.getPlan().getChunkCount(blockNumber);
+                received = new BitSet();
+                reports = 0;
+                respond(createBlockStatus());
+                if (!isPush()) {
+                    report();
+                }
+            } else if (meshMessage instanceof BlobChunkTransfer) {
+                final int chunkNumber = ((BlobChunkTransfer) meshMessage).getChunkNumber();
+                if (blockNumber == 0 && dropOnce.get(chunkNumber)) {
+                    dropOnce.clear(chunkNumber);
+                    return;
+                }
+                chunksReceived++;
+                received.set(chunkNumber);
+                final BitSet outstanding = (BitSet) requested.clone();
+                outstanding.andNot(received);
+                if (!isPush() && outstanding.isEmpty()) {
+                    report();
+                }
+            } else if (meshMessage instanceof BlobBlockGet) {
+                blockGets++;
+                respond(createBlockStatus());
+            } else if (meshMessage instanceof BlobTransferGet) {
+                respond(createTransferStatus(BlobTransferStatus.PHASE_COMPLETE));
+            } else if (meshMessage instanceof BlobTransferCancel) {
+                cancelled = true;
+                respond(createTransferStatus(BlobTransferStatus.PHASE_INACTIVE));
+            }
+        }
+
+        private void respond(@NonNull final MeshMessage status) {
+            manager.onMeshMessageReceived(address, status);
+        }
+
+        /**
+         * Sends a BLOB Partial Block Report requesting the missing chunks, after a while.
+         */
+        private void report() {
+            if (reports++ >= reportsPerBlock)
+                return;
+            requested = getMissingChunks();
+            final ByteBuffer parameters = ByteBuffer.allocate(requested.cardinality());
+            for (int chunk = requested.nextSetBit(0); chunk >= 0; chunk = requested.nextSetBit(chunk + 1)) {
+                parameters.put((byte) chunk);
+            }
+            final BlobPartialBlockReport report = new BlobPartialBlockReport(createAccessMessage(address, parameters.array()));
+            scheduler.schedule(() -> transfer.onMeshMessageReceived(address, report), 100);
+        }
+
+        private BitSet getMissingChunks() {
+            final BitSet missingChunks = new BitSet();
+            missingChunks.set(0, chunkCount);
+            missingChunks.andNot(received);
+            return missingChunks;
+        }
+
+        private BlobTransferStatus createTransferStatus(final int phase) {
+            return new BlobTransferStatus(createAccessMessage(address, new byte[]{(byte) (transferMode << 6), (byte) phase}));
+        }
+
+        private BlobBlockStatus createBlockStatus() {
+            final BitSet missingChunks = getMissingChunks();
+            final byte[] bitField = missingChunks.toByteArray();
+            final int format = missingChunks.isEmpty() ? BlobBlockStatus.FORMAT_NO_CHUNKS_MISSING : BlobBlockStatus.FORMAT_SOME_CHUNKS_MISSING;
+            final ByteBuffer parameters = ByteBuffer.allocate(5 + (missingChunks.isEmpty() ? 0 : bitField.length))
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .put((byte) (format << 6))
+                    .putShort((short) blockNumber)
+                    .putShort((short) MAX_CHUNK_SIZE);
+            if (!missingChunks.isEmpty()) {
+                parameters.put(bitField);
+            }
+            return new BlobBlockStatus(createAccessMessage(address, parameters.array()));
+        }
+    }
+}
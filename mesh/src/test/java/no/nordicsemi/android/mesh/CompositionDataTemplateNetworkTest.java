@@ -0,0 +1,103 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import no.nordicsemi.android.mesh.provisionerstates.ProvisioningCapabilities;
+import no.nordicsemi.android.mesh.provisionerstates.UnprovisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.AccessMessage;
+import no.nordicsemi.android.mesh.transport.CompositionDataTemplate;
+import no.nordicsemi.android.mesh.transport.ConfigCompositionDataStatus;
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class CompositionDataTemplateNetworkTest {
+
+    // Page 0 of CID 0x0059, PID 0x7E01, VID 0x0002 with two elements
+    private static final String ACCESS_PAYLOAD = "0200" + "5900" + "017E" + "0200" + "0800" + "0300" +
+            "0000" + "02" + "01" + "0000" + "0010" + "59000100" +
+            "0100" + "01" + "00" + "0010";
+    // Page 0 of the same product with a single element
+    private static final String OTHER_ACCESS_PAYLOAD = "0200" + "5900" + "017E" + "0200" + "0800" + "0300" +
+            "0000" + "01" + "00" + "0010";
+
+    @Test
+    public void testTemplateAppliedToNodeWithoutElements() {
+        final MeshNetwork network = new MeshNetwork("7A2E8B8C-2B4B-4F67-9D1C-8E2F0C3B1A55");
+        final ProvisionedMeshNode node = createNode();
+        network.nodes.add(node);
+
+        final CompositionDataTemplate template = createTemplate(ACCESS_PAYLOAD);
+        assertTrue(network.applyCompositionDataTemplate(node, template));
+        assertEquals(2, node.getElements().size());
+    }
+
+    @Test
+    public void testTemplateAppliedToProvisionedNode() {
+        final MeshNetwork network = new MeshNetwork("7A2E8B8C-2B4B-4F67-9D1C-8E2F0C3B1A55");
+        // A node that has just been provisioned has placeholder elements without models occupying its addresses
+        final ProvisionedMeshNode node = createProvisionedNode(2);
+        assertEquals(2, node.getElements().size());
+        network.nodes.add(node);
+
+        assertTrue(network.applyCompositionDataTemplate(node, createTemplate(ACCESS_PAYLOAD)));
+        assertEquals(Integer.valueOf(0x0059), node.getCompanyIdentifier());
+        assertEquals(2, node.getElements().size());
+        assertEquals(3, node.getElements().get(0x0030).getMeshModels().size());
+        assertEquals(1, node.getElements().get(0x0031).getMeshModels().size());
+    }
+
+    @Test
+    public void testTemplateNotAppliedToConfiguredNode() {
+        final MeshNetwork network = new MeshNetwork("7A2E8B8C-2B4B-4F67-9D1C-8E2F0C3B1A55");
+        final ProvisionedMeshNode node = createNode();
+        network.nodes.add(node);
+        assertTrue(network.applyCompositionDataTemplate(node, createTemplate(OTHER_ACCESS_PAYLOAD)));
+        final Map<Integer, Element> elements = node.getElements();
+
+        // Neither a template of a different element count nor of the same element count replaces the elements
+        assertFalse(network.applyCompositionDataTemplate(node, createTemplate(ACCESS_PAYLOAD)));
+        assertFalse(network.applyCompositionDataTemplate(node, createTemplate(OTHER_ACCESS_PAYLOAD)));
+        assertSame(elements, node.getElements());
+        assertEquals(1, node.getElements().size());
+    }
+
+    @Test
+    public void testTemplateNotAppliedToUnknownNode() {
+        final MeshNetwork network = new MeshNetwork("7A2E8B8C-2B4B-4F67-9D1C-8E2F0C3B1A55");
+        assertFalse(network.applyCompositionDataTemplate(createNode(), createTemplate(ACCESS_PAYLOAD)));
+    }
+
+    private static CompositionDataTemplate createTemplate(final String accessPayload) {
+        final AccessMessage message = new AccessMessage();
+        message.setAccessPdu(MeshParserUtils.toByteArray(accessPayload));
+        return new ConfigCompositionDataStatus(message).getCompositionDataTemplate();
+    }
+
+    private static ProvisionedMeshNode createProvisionedNode(final int numberOfElements) {
+        final ProvisioningCapabilities capabilities = mock(ProvisioningCapabilities.class);
+        when(capabilities.getNumberOfElements()).thenReturn((byte) numberOfElements);
+        final UnprovisionedMeshNode unprovisionedNode = mock(UnprovisionedMeshNode.class);
+        when(unprovisionedNode.getDeviceUuid()).thenReturn(UUID.fromString("0a1b2c3d-0000-0000-0000-000000000001"));
+        when(unprovisionedNode.getUnicastAddress()).thenReturn(0x0030);
+        when(unprovisionedNode.getProvisioningCapabilities()).thenReturn(capabilities);
+        return new ProvisionedMeshNode(unprovisionedNode);
+    }
+
+    private static ProvisionedMeshNode createNode() {
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUuid("0a1b2c3d-0000-0000-0000-000000000001");
+        node.setUnicastAddress(0x0030);
+        return node;
+    }
+}
@@ -0,0 +1,434 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.transport.AccessMessage;
+import no.nordicsemi.android.mesh.transport.BlobBlockGet;
+import no.nordicsemi.android.mesh.transport.BlobBlockStart;
+import no.nordicsemi.android.mesh.transport.BlobBlockStatus;
+import no.nordicsemi.android.mesh.transport.BlobChunkTransfer;
+import no.nordicsemi.android.mesh.transport.BlobInformationGet;
+import no.nordicsemi.android.mesh.transport.BlobInformationStatus;
+import no.nordicsemi.android.mesh.transport.BlobTransferCancel;
+import no.nordicsemi.android.mesh.transport.BlobTransferGet;
+import no.nordicsemi.android.mesh.transport.BlobTransferStart;
+import no.nordicsemi.android.mesh.transport.BlobTransferStatus;
+import no.nordicsemi.android.mesh.transport.FirmwareDistributionStart;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateApply;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateCancel;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateGet;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateStart;
+import no.nordicsemi.android.mesh.transport.FirmwareUpdateStatus;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.utils.FirmwareId;
+
+public class FirmwareDistributionTest {
+
+    private static final long BLOB_ID = 0x1122334455667788L;
+    private static final int BLOB_SIZE = 100;
+    private static final int MAX_CHUNK_SIZE = 8;
+
+    private final VirtualClockScheduler scheduler = new VirtualClockScheduler();
+    private final List<Sent> sent = new ArrayList<>();
+    private final MeshTransactionManager.MeshMessageSender sender = (dst, meshMessage) -> sent.add(new Sent(dst, meshMessage));
+    private final MeshTransactionManager manager = new MeshTransactionManager(scheduler, sender);
+    private final Map<Integer, FakeReceiver> receivers = new HashMap<>();
+    private final List<Integer> states = new ArrayList<>();
+    private final List<int[]> failures = new ArrayList<>();
+    private FirmwareDistribution distribution = createDistribution(BlobSource.fromByteArray(new byte[BLOB_SIZE]));
+
+    @Test
+    public void testAddReceiver() {
+        try {
+            distribution.start();
+            fail("A distribution without receivers cannot be started");
+        } catch (IllegalStateException ignored) {
+        }
+        try {
+            distribution.addReceiver(0xC000, 0);
+            fail("A group address cannot be a receiver");
+        } catch (IllegalArgumentException ignored) {
+        }
+        try {
+            distribution.addReceiver(0x0002, 0x100);
+            fail("The firmware image index is an 8-bit value");
+        } catch (IllegalArgumentException ignored) {
+        }
+        addReceiver(0x0004);
+        addReceiver(0x0002);
+
+        final List<FirmwareDistribution.ReceiverState> receiverStates = distribution.getReceivers();
+        assertEquals(2, receiverStates.size());
+        // Receivers are reported in the order of their addresses
+        assertEquals(0x0002, receiverStates.get(0).getAddress());
+        assertEquals(0x0004, receiverStates.get(1).getAddress());
+        assertEquals(FirmwareDistribution.STATE_IDLE, distribution.getState());
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    public void testDistribution() {
+        addReceiver(0x0002);
+        addReceiver(0x0004);
+        distribution.start();
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_COMPLETED, distribution.getState());
+        assertStates(FirmwareDistribution.STATE_SYNCHRONIZING, FirmwareDistribution.STATE_STARTING,
+                FirmwareDistribution.STATE_TRANSFERRING, FirmwareDistribution.STATE_VERIFYING,
+                FirmwareDistribution.STATE_APPLYING, FirmwareDistribution.STATE_COMPLETED);
+        assertTrue(failures.isEmpty());
+        for (FirmwareDistribution.ReceiverState receiver : distribution.getReceivers()) {
+            assertFalse(receiver.isFailed());
+            assertEquals(100, receiver.getTransferProgress());
+            assertEquals(FirmwareUpdateStatus.PHASE_APPLYING_UPDATE, receiver.getUpdatePhase());
+        }
+        for (FakeReceiver receiver : receivers.values()) {
+            assertEquals(8 + 5, receiver.chunksReceived);
+        }
+        assertEquals(0, scheduler.getPendingTaskCount());
+    }
+
+    @Test
+    public void testReceiverRejectsUpdate() {
+        addReceiver(0x0002);
+        addReceiver(0x0004).startStatus = FirmwareUpdateStatus.STATUS_WRONG_FIRMWARE_INDEX;
+        distribution.start();
+        run();
+
+        // The distribution continues with the receiver that accepted the update
+        assertEquals(FirmwareDistribution.STATE_COMPLETED, distribution.getState());
+        assertFailure(0x0004, FirmwareDistribution.FAILURE_REJECTED, FirmwareUpdateStatus.STATUS_WRONG_FIRMWARE_INDEX);
+        assertEquals(8 + 5, receivers.get(0x0002).chunksReceived);
+        assertEquals(0, receivers.get(0x0004).chunksReceived);
+        assertEquals(FirmwareUpdateStatus.PHASE_APPLYING_UPDATE, receivers.get(0x0002).phase);
+    }
+
+    @Test
+    public void testReceiverTimeout() {
+        addReceiver(0x0002);
+        addReceiver(0x0004).silent = true;
+        distribution.start();
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_COMPLETED, distribution.getState());
+        assertFailure(0x0004, FirmwareDistribution.FAILURE_TIMEOUT, -1);
+        assertEquals(FirmwareUpdateStatus.PHASE_APPLYING_UPDATE, receivers.get(0x0002).phase);
+    }
+
+    @Test
+    public void testReceiverFailsVerification() {
+        addReceiver(0x0002);
+        addReceiver(0x0004).verificationFails = true;
+        distribution.start();
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_COMPLETED, distribution.getState());
+        assertFailure(0x0004, FirmwareDistribution.FAILURE_VERIFICATION, FirmwareUpdateStatus.STATUS_SUCCESS);
+        // The firmware image is only applied on the receiver that verified it
+        assertFalse(receivers.get(0x0004).applied);
+        assertTrue(receivers.get(0x0002).applied);
+    }
+
+    @Test
+    public void testSuspendedWhenNoReceiverResponds() {
+        final FakeReceiver receiver = addReceiver(0x0002);
+        receiver.silent = true;
+        distribution.start();
+        run();
+
+        // The distribution is suspended rather than failed, as the receiver may be reached later
+        assertEquals(FirmwareDistribution.STATE_SUSPENDED, distribution.getState());
+        assertFailure(0x0002, FirmwareDistribution.FAILURE_TIMEOUT, -1);
+        assertEquals(0, scheduler.getPendingTaskCount());
+
+        receiver.silent = false;
+        distribution.start();
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_COMPLETED, distribution.getState());
+        assertFalse(distribution.getReceivers().get(0).isFailed());
+        assertTrue(receiver.applied);
+    }
+
+    @Test
+    public void testTransferResumedFromInputStream() {
+        final int[] opened = new int[1];
+        distribution = createDistribution(BlobSource.fromInputStream(() -> {
+            opened[0]++;
+            return new ByteArrayInputStream(new byte[BLOB_SIZE]);
+        }, BLOB_SIZE));
+        final FakeReceiver receiver = addReceiver(0x0002);
+        // The connection is lost in the middle of the first block
+        receiver.silentAfterChunks = 4;
+        distribution.start();
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_SUSPENDED, distribution.getState());
+        assertEquals(FirmwareUpdateStatus.PHASE_TRANSFER_ACTIVE, receiver.phase);
+
+        receiver.silent = false;
+        distribution.start();
+        run();
+
+        // The first block is read again from a new stream
+        assertEquals(FirmwareDistribution.STATE_COMPLETED, distribution.getState());
+        assertEquals(2, opened[0]);
+        assertTrue(receiver.applied);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInputStreamReadOnceIsRejected() {
+        createDistribution(BlobSource.fromInputStream(new ByteArrayInputStream(new byte[BLOB_SIZE]), BLOB_SIZE));
+    }
+
+    @Test
+    public void testVerifyOnlyAndApply() {
+        addReceiver(0x0002);
+        distribution.setUpdatePolicy(FirmwareDistributionStart.UPDATE_POLICY_VERIFY_ONLY);
+        try {
+            distribution.apply();
+            fail("The firmware cannot be applied before it has been verified");
+        } catch (IllegalStateException ignored) {
+        }
+        distribution.start();
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_VERIFIED, distribution.getState());
+        assertFalse(receivers.get(0x0002).applied);
+        assertEquals(FirmwareUpdateStatus.PHASE_VERIFICATION_SUCCEEDED, distribution.getReceivers().get(0).getUpdatePhase());
+
+        distribution.apply();
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_COMPLETED, distribution.getState());
+        assertTrue(receivers.get(0x0002).applied);
+        assertStates(FirmwareDistribution.STATE_SYNCHRONIZING, FirmwareDistribution.STATE_STARTING,
+                FirmwareDistribution.STATE_TRANSFERRING, FirmwareDistribution.STATE_VERIFYING,
+                FirmwareDistribution.STATE_VERIFIED, FirmwareDistribution.STATE_APPLYING,
+                FirmwareDistribution.STATE_COMPLETED);
+    }
+
+    @Test
+    public void testCancel() {
+        addReceiver(0x0002);
+        addReceiver(0x0004);
+        distribution.start();
+        while (receivers.get(0x0002).chunksReceived == 0) {
+            step();
+        }
+        assertEquals(FirmwareDistribution.STATE_TRANSFERRING, distribution.getState());
+        distribution.cancel();
+        final int chunksReceived = receivers.get(0x0002).chunksReceived;
+        run();
+
+        assertEquals(FirmwareDistribution.STATE_CANCELLED, distribution.getState());
+        assertEquals(chunksReceived, receivers.get(0x0002).chunksReceived);
+        for (FakeReceiver receiver : receivers.values()) {
+            assertTrue(receiver.cancelled);
+            assertEquals(FirmwareUpdateStatus.PHASE_IDLE, receiver.phase);
+        }
+        // Neither the transfer nor the distribution leave a timer behind
+        assertEquals(0, scheduler.getPendingTaskCount());
+        // A cancelled distribution cannot be started again
+        try {
+            distribution.start();
+            fail("A cancelled distribution cannot be started again");
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    private FirmwareDistribution createDistribution(@NonNull final BlobSource source) {
+        return new FirmwareDistribution(scheduler, manager, sender, new ApplicationKey(0, new byte[16]),
+                new FirmwareId(0x0059, new byte[]{0x01, 0x02}), BLOB_ID, source, new FirmwareDistributionCallbacks() {
+            @Override
+            public void onStateChanged(@NonNull final FirmwareDistribution distribution, final int state) {
+                states.add(state);
+            }
+
+            @Override
+            public void onUploadProgress(@NonNull final FirmwareDistribution distribution, final int progress) {
+            }
+
+            @Override
+            public void onReceiversUpdated(@NonNull final FirmwareDistribution distribution) {
+            }
+
+            @Override
+            public void onReceiverFailed(@NonNull final FirmwareDistribution distribution, final int address, final int reason, final int status) {
+                failures.add(new int[]{address, reason, status});
+            }
+        });
+    }
+
+    private FakeReceiver addReceiver(final int address) {
+        distribution.addReceiver(address, 0);
+        final FakeReceiver receiver = new FakeReceiver(address);
+        receivers.put(address, receiver);
+        return receiver;
+    }
+
+    private void assertStates(final Integer... expected) {
+        assertEquals(Arrays.asList(expected), states);
+    }
+
+    private void assertFailure(final int address, final int reason, final int status) {
+        assertEquals(1, failures.size());
+        assertEquals(address, failures.get(0)[0]);
+        assertEquals(reason, failures.get(0)[1]);
+        assertEquals(status, failures.get(0)[2]);
+    }
+
+    /**
+     * Delivers the messages sent by the distribution and advances the clock until it waits for the user.
+     */
+    private void run() {
+        for (int i = 0; i < 20000 && (!isWaiting() || !sent.isEmpty()); i++) {
+            step();
+        }
+        assertTrue(isWaiting());
+    }
+
+    private boolean isWaiting() {
+        final int state = distribution.getState();
+        return distribution.isFinished() || state == FirmwareDistribution.STATE_SUSPENDED || state == FirmwareDistribution.STATE_VERIFIED;
+    }
+
+    private void step() {
+        while (!sent.isEmpty()) {
+            final Sent message = sent.remove(0);
+            final FakeReceiver receiver = receivers.get(message.dst);
+            if (receiver != null) {
+                receiver.handle(message.meshMessage);
+            }
+        }
+        scheduler.advanceBy(10);
+    }
+
+    private static AccessMessage createAccessMessage(final int src, final byte[] parameters) {
+        final AccessMessage message = new AccessMessage();
+        message.setSrc(src);
+        message.setParameters(parameters);
+        return message;
+    }
+
+    private static final class Sent {
+        private final int dst;
+        private final MeshMessage meshMessage;
+
+        private Sent(final int dst, final MeshMessage meshMessage) {
+            this.dst = dst;
+            this.meshMessage = meshMessage;
+        }
+    }
+
+    /**
+     * Firmware Update Server with a BLOB Transfer Server receiving pushed chunks, which may reject the update, fail to
+     * verify the firmware image or not respond.
+     */
+    private final class FakeReceiver {
+        private final int address;
+        private boolean silent;
+        private int silentAfterChunks = Integer.MAX_VALUE;
+        private boolean verificationFails;
+        private int startStatus = FirmwareUpdateStatus.STATUS_SUCCESS;
+        private int phase = FirmwareUpdateStatus.PHASE_IDLE;
+        private long blobId;
+        private int blockNumber;
+        private int chunksReceived;
+        private boolean applied;
+        private boolean cancelled;
+
+        private FakeReceiver(final int address) {
+            this.address = address;
+        }
+
+        private void handle(@NonNull final MeshMessage meshMessage) {
+            if (silent)
+                return;
+            if (meshMessage instanceof FirmwareUpdateGet) {
+                respond(createUpdateStatus(FirmwareUpdateStatus.STATUS_SUCCESS));
+            } else if (meshMessage instanceof FirmwareUpdateStart) {
+                if (startStatus == FirmwareUpdateStatus.STATUS_SUCCESS) {
+                    blobId = ((FirmwareUpdateStart) meshMessage).getBlobId();
+                    phase = FirmwareUpdateStatus.PHASE_TRANSFER_ACTIVE;
+                }
+                respond(createUpdateStatus(startStatus));
+            } else if (meshMessage instanceof FirmwareUpdateApply) {
+                applied = phase == FirmwareUpdateStatus.PHASE_VERIFICATION_SUCCEEDED;
+                if (applied) {
+                    phase = FirmwareUpdateStatus.PHASE_APPLYING_UPDATE;
+                }
+                respond(createUpdateStatus(applied ? FirmwareUpdateStatus.STATUS_SUCCESS : FirmwareUpdateStatus.STATUS_WRONG_PHASE));
+            } else if (meshMessage instanceof FirmwareUpdateCancel) {
+                cancelled = true;
+                phase = FirmwareUpdateStatus.PHASE_IDLE;
+                respond(createUpdateStatus(FirmwareUpdateStatus.STATUS_SUCCESS));
+            } else if (meshMessage instanceof BlobInformationGet) {
+                // Block size of 64 octets, up to 16 chunks of 8 octets, push transfer mode only
+                respond(new BlobInformationStatus(createAccessMessage(address, ByteBuffer.allocate(13).order(ByteOrder.LITTLE_ENDIAN)
+                        .put((byte) 6).put((byte) 6).putShort((short) 16).putShort((short) MAX_CHUNK_SIZE)
+                        .putInt(0xFFFF).putShort((short) 380).put((byte) 0x01).array())));
+            } else if (meshMessage instanceof BlobTransferStart) {
+                respond(createTransferStatus(BlobTransferStatus.PHASE_WAITING_FOR_NEXT_BLOCK));
+            } else if (meshMessage instanceof BlobBlockStart) {
+                blockNumber = ((BlobBlockStart) meshMessage).getBlockNumber();
+                respond(createBlockStatus(BlobBlockStatus.FORMAT_ALL_CHUNKS_MISSING));
+            } else if (meshMessage instanceof BlobChunkTransfer) {
+                silent = ++chunksReceived == silentAfterChunks;
+            } else if (meshMessage instanceof BlobBlockGet) {
+                respond(createBlockStatus(BlobBlockStatus.FORMAT_NO_CHUNKS_MISSING));
+            } else if (meshMessage instanceof BlobTransferGet) {
+                // The firmware image is verified once it has been received
+                phase = verificationFails ? FirmwareUpdateStatus.PHASE_VERIFICATION_FAILED : FirmwareUpdateStatus.PHASE_VERIFICATION_SUCCEEDED;
+                respond(createTransferStatus(BlobTransferStatus.PHASE_COMPLETE));
+            } else if (meshMessage instanceof BlobTransferCancel) {
+                respond(createTransferStatus(BlobTransferStatus.PHASE_INACTIVE));
+            }
+        }
+
+        private void respond(@NonNull final MeshMessage status) {
+            manager.onMeshMessageReceived(address, status);
+        }
+
+        private FirmwareUpdateStatus createUpdateStatus(final int status) {
+            return new FirmwareUpdateStatus(createAccessMessage(address, ByteBuffer.allocate(14).order(ByteOrder.LITTLE_ENDIAN)
+                    .put((byte) (phase << 5 | status))
+                    .put((byte) FirmwareDistribution.DEFAULT_TTL)
+                    .put((byte) 0)
+                    .putShort((short) FirmwareDistribution.DEFAULT_TIMEOUT_BASE)
+                    .putLong(blobId)
+                    .put((byte) 0)
+                    .array()));
+        }
+
+        private BlobTransferStatus createTransferStatus(final int transferPhase) {
+            return new BlobTransferStatus(createAccessMessage(address,
+                    new byte[]{(byte) (BlobTransferStart.TRANSFER_MODE_PUSH << 6), (byte) transferPhase}));
+        }
+
+        private BlobBlockStatus createBlockStatus(final int format) {
+            return new BlobBlockStatus(createAccessMessage(address, ByteBuffer.allocate(5).order(ByteOrder.LITTLE_ENDIAN)
+                    .put((byte) (format << 6))
+                    .putShort((short) blockNumber)
+                    .putShort((short) MAX_CHUNK_SIZE)
+                    .array()));
+        }
+    }
+}
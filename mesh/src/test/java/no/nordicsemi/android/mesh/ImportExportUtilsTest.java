@@ -0,0 +1,132 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+
+import no.nordicsemi.android.mesh.transport.MeshModel;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class ImportExportUtilsTest {
+
+    static final String NETWORK_JSON = "{" +
+            "\"$schema\":\"http://json-schema.org/draft-04/schema#\"," +
+            "\"id\":\"http://www.bluetooth.com/specifications/assigned-numbers/mesh-profile/cdb-schema.json#\"," +
+            "\"version\":\"1.0.0\"," +
+            "\"meshUUID\":\"5F3A1B2C4D5E4F60A1B2C3D4E5F60718\"," +
+            "\"meshName\":\"Test\"," +
+            "\"timestamp\":\"2020-01-01T00:00:00Z\"," +
+            "\"netKeys\":[{\"name\":\"Net Key\",\"index\":0,\"key\":\"7DD7364CD842AD18C17C2B820C84C3D6\",\"phase\":0," +
+            "\"minSecurity\":\"secure\",\"timestamp\":\"2020-01-01T00:00:00Z\"}]," +
+            "\"appKeys\":[" +
+            "{\"name\":\"App Key 1\",\"index\":0,\"boundNetKey\":0,\"key\":\"63964771734FBD76E3B40519D1D94A48\"}," +
+            "{\"name\":\"App Key 2\",\"index\":1,\"boundNetKey\":0,\"key\":\"63964771734FBD76E3B40519D1D94A49\"}]," +
+            "\"provisioners\":[{\"provisionerName\":\"Provisioner\",\"UUID\":\"0A1B2C3D000000000000000000000001\"," +
+            "\"allocatedUnicastRange\":[{\"lowAddress\":\"0001\",\"highAddress\":\"199A\"}]," +
+            "\"allocatedGroupRange\":[],\"allocatedSceneRange\":[]}]," +
+            "\"nodes\":[" + createNode("0A1B2C3D000000000000000000000001", "0001") + "," +
+            createNode("0A1B2C3D000000000000000000000002", "0002") + "]," +
+            "\"groups\":[{\"name\":\"Kitchen\",\"address\":\"C000\",\"parentAddress\":\"0000\"}," +
+            "{\"name\":\"Bedroom\",\"address\":\"C001\",\"parentAddress\":\"0000\"}]," +
+            "\"scenes\":[{\"name\":\"Scene\",\"addresses\":[\"0001\",\"0002\"],\"number\":\"0001\"}]" +
+            "}";
+
+    private static String createNode(final String uuid, final String unicastAddress) {
+        return "{\"UUID\":\"" + uuid + "\",\"name\":\"Node\",\"deviceKey\":\"9D6DD0E96EB25DC19A40ED9914F8F03F\"," +
+                "\"unicastAddress\":\"" + unicastAddress + "\",\"security\":\"secure\",\"configComplete\":true," +
+                "\"netKeys\":[{\"index\":0,\"updated\":false}],\"appKeys\":[{\"index\":0,\"updated\":false}]," +
+                "\"elements\":[{\"name\":\"Element\",\"index\":0,\"location\":\"0000\",\"models\":[" +
+                "{\"modelId\":\"1000\",\"bind\":[0,1],\"subscribe\":[\"C000\",\"C001\"]," +
+                "\"publish\":{\"address\":\"C001\",\"index\":1,\"ttl\":5,\"period\":0," +
+                "\"retransmit\":{\"count\":0,\"interval\":50},\"credentials\":0}}]}]," +
+                "\"excluded\":false}";
+    }
+
+    @Test
+    public void testStreamingRoundTrip() throws Exception {
+        final ImportExportUtils utils = new ImportExportUtils();
+        final MeshNetwork network = utils.importNetwork(new ByteArrayInputStream(NETWORK_JSON.getBytes("UTF-8")));
+        assertEquals(2, network.getNodes().size());
+        assertEquals(Integer.valueOf(0x0001), network.getProvisioners().get(0).getProvisionerAddress());
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        utils.export(network, outputStream);
+        assertEquals(utils.export(network, false), outputStream.toString("UTF-8"));
+
+        final MeshNetwork imported = utils.importNetwork(outputStream.toString("UTF-8"));
+        assertEquals(network.getMeshUUID(), imported.getMeshUUID());
+        assertEquals(2, imported.getNodes().size());
+        assertEquals(2, imported.getGroups().size());
+        final ProvisionedMeshNode node = imported.getNode(0x0002);
+        assertNotNull(node);
+        assertEquals(network.getMeshUUID(), node.getMeshUuid());
+        assertArrayEquals(network.getNode(0x0002).getDeviceKey(), node.getDeviceKey());
+        assertEquals(2, getModel(node).getSubscribedAddresses().size());
+    }
+
+    @Test
+    public void testPartialExportAppliesConfigs() throws Exception {
+        final ImportExportUtils utils = new ImportExportUtils();
+        final MeshNetwork network = utils.importNetwork(NETWORK_JSON);
+        final ProvisionedMeshNode provisionerNode = network.getNode(0x0001);
+        final ProvisionedMeshNode node = network.getNode(0x0002);
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        utils.export(network, outputStream,
+                new NetworkKeysConfig(new NetworkKeysConfig.ExportAll()),
+                new ApplicationKeysConfig(new ApplicationKeysConfig.ExportSome(Collections.singletonList(network.getAppKey(0)))),
+                new NodesConfig(new NodesConfig.ExportSome(Collections.singletonList(provisionerNode), Collections.singletonList(node))),
+                new ProvisionersConfig(new ProvisionersConfig.ExportAll()),
+                new GroupsConfig(new GroupsConfig.ExportSome(Collections.singletonList(network.getGroups().get(0)))),
+                new ScenesConfig(new ScenesConfig.ExportAll()));
+
+        final MeshNetwork exported = utils.importNetwork(outputStream.toString("UTF-8"));
+        assertEquals(1, exported.getAppKeys().size());
+        assertEquals(1, exported.getGroups().size());
+        assertEquals(2, exported.getScenes().get(0).getAddresses().size());
+        assertNotNull(exported.getNode(0x0001).getDeviceKey());
+        assertEquals(0, exported.getNode(0x0002).getDeviceKey().length);
+
+        final MeshModel model = getModel(exported.getNode(0x0002));
+        assertEquals(Collections.singletonList(0), model.getBoundAppKeyIndexes());
+        assertEquals(Collections.singletonList(0xC000), model.getSubscribedAddresses());
+        assertNull(model.getPublicationSettings());
+
+        // The exported network is not modified
+        assertNotNull(node.getDeviceKey());
+        assertEquals(2, getModel(node).getSubscribedAddresses().size());
+        assertNotNull(getModel(node).getPublicationSettings());
+    }
+
+    @Test
+    public void testKeyRefreshPhaseRoundTrip() throws Exception {
+        final ImportExportUtils utils = new ImportExportUtils();
+        final MeshNetwork network = utils.importNetwork(NETWORK_JSON);
+        final NetworkKey networkKey = network.getNetKeys().get(0);
+        networkKey.setOldKey(networkKey.getKey());
+        networkKey.setKey(MeshParserUtils.toByteArray("0953FA93E7CAAC9638F58820220A398E"));
+        networkKey.setPhase(NetworkKey.KEY_DISTRIBUTION);
+
+        final MeshNetwork imported = utils.importNetwork(utils.export(network, false));
+        assertEquals(NetworkKey.KEY_DISTRIBUTION, imported.getNetKeys().get(0).getPhase());
+
+        // Keys are also persisted using Gson, which only includes exposed fields
+        final Gson gson = new GsonBuilder().excludeFieldsWithoutExposeAnnotation().create();
+        assertEquals(NetworkKey.KEY_DISTRIBUTION, gson.fromJson(gson.toJson(networkKey), NetworkKey.class).getPhase());
+    }
+
+    private static MeshModel getModel(final ProvisionedMeshNode node) {
+        return node.getElements().get(node.getUnicastAddress()).getMeshModels().get(0x1000);
+    }
+}
@@ -0,0 +1,123 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.transport.NetworkLayerCallbacks;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.transport.UpperTransportLayerCallbacks;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class MeshMessageHandlerTest {
+
+    private static final String DELIVERY_THREAD = "delivery";
+    private static final int NODE_ADDRESS = 0x0003;
+    private static final int PROVISIONER_ADDRESS = 0x1201;
+
+    private final List<String> callbackThreads = Collections.synchronizedList(new ArrayList<String>());
+    private ExecutorService executor;
+    private ExecutorService deliveryExecutor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+        deliveryExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, DELIVERY_THREAD));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+        deliveryExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testReceivedMessagesAreHandledOnDeliveryExecutor() throws Exception {
+        // Message #6 of the sample data, a segmented Config AppKey Add secured using the device key. It is not a message a
+        // provisioner handles and is reported as an unknown pdu once reassembled and decrypted.
+        final NetworkKey networkKey = new NetworkKey(0, MeshParserUtils.toByteArray("7dd7364cd842ad18c17c2b820c84c3d6"));
+        final MeshNetwork network = new MeshNetwork(UUID.randomUUID().toString());
+        network.addNetKey(networkKey);
+        network.setIvIndex(new IvIndex(0x12345678, false, Calendar.getInstance()));
+
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUnicastAddress(NODE_ADDRESS);
+        node.setDeviceKey(MeshParserUtils.toByteArray("9d6dd0e96eb25dc19a40ed9914f8f03f"));
+        final ProvisionedMeshNode provisionerNode = new ProvisionedMeshNode();
+        provisionerNode.setUnicastAddress(PROVISIONER_ADDRESS);
+        final Provisioner provisioner = mock(Provisioner.class);
+        doAnswer(record(PROVISIONER_ADDRESS)).when(provisioner).getProvisionerAddress();
+        doAnswer(record(5)).when(provisioner).getGlobalTtl();
+
+        final InternalTransportCallbacks internalTransportCallbacks = mock(InternalTransportCallbacks.class, record(null));
+        doAnswer(record(node)).when(internalTransportCallbacks).getNode(NODE_ADDRESS);
+        doAnswer(record(provisionerNode)).when(internalTransportCallbacks).getNode(PROVISIONER_ADDRESS);
+        final NetworkLayerCallbacks networkLayerCallbacks = mock(NetworkLayerCallbacks.class, record(null));
+        doAnswer(record(provisioner)).when(networkLayerCallbacks).getProvisioner();
+        doAnswer(record(networkKey)).when(networkLayerCallbacks).getPrimaryNetworkKey();
+        doAnswer(record(network.getNetKeys())).when(networkLayerCallbacks).getNetworkKeys();
+        final UpperTransportLayerCallbacks upperTransportLayerCallbacks = mock(UpperTransportLayerCallbacks.class, record(null));
+        doAnswer(record(node)).when(upperTransportLayerCallbacks).getNode(NODE_ADDRESS);
+        doAnswer(record(provisionerNode)).when(upperTransportLayerCallbacks).getNode(PROVISIONER_ADDRESS);
+        doAnswer(record(MeshParserUtils.toByteArray("12345678"))).when(upperTransportLayerCallbacks).getIvIndex();
+        final MeshStatusCallbacks statusCallbacks = mock(MeshStatusCallbacks.class, record(null));
+
+        final MeshMessageHandler handler = new MeshMessageHandler(new VirtualClockScheduler(), internalTransportCallbacks,
+                networkLayerCallbacks, upperTransportLayerCallbacks);
+        handler.setMeshStatusCallbacks(statusCallbacks);
+        handler.setReceiveExecutor(executor, deliveryExecutor);
+
+        handler.parseMeshPduNotifications(MeshParserUtils.toByteArray("0068cab5c5348a230afba8c63d4e686364979deaf4fd40961145939cda0e"), network);
+        handler.parseMeshPduNotifications(MeshParserUtils.toByteArray("00681615b5dd4a846cae0c032bf0746f44f1b8cc8ce5edc57e55beed49c0"), network);
+
+        verify(statusCallbacks, timeout(5000)).onUnknownPduReceived(eq(NODE_ADDRESS),
+                aryEq(MeshParserUtils.toByteArray("0056341263964771734fbd76e3b40519d1d94a48")));
+        // The segments are acknowledged once the message has been reassembled
+        verify(internalTransportCallbacks, timeout(5000)).onMeshPduCreated(eq(NODE_ADDRESS), any(byte[].class));
+        deliveryExecutor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+
+        assertTrue(callbackThreads.size() > 0);
+        for (String thread : callbackThreads) {
+            assertEquals(DELIVERY_THREAD, thread);
+        }
+    }
+
+    /**
+     * Returns an answer recording the thread the mock was invoked on and returning the given value, or the default
+     * value of the mock if null.
+     */
+    private <T> Answer<T> record(final Object value) {
+        return invocation -> {
+            callbackThreads.add(Thread.currentThread().getName());
+            if (value != null) {
+                //noinspection unchecked
+                return (T) value;
+            }
+            //noinspection unchecked
+            return (T) Mockito.RETURNS_DEFAULTS.answer(invocation);
+        };
+    }
+}
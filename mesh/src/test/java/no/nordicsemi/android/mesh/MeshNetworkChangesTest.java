@@ -0,0 +1,71 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.Test;
+
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MeshNetworkChangesTest {
+
+    @Test
+    public void testDrainClearsChanges() {
+        final MeshNetworkChanges changes = new MeshNetworkChanges();
+        assertTrue(changes.isEmpty());
+        changes.markNetworkChanged();
+        changes.markGroupsChanged();
+        assertFalse(changes.isEmpty());
+
+        final MeshNetworkChanges drained = changes.drain();
+        assertTrue(drained.isNetworkChanged());
+        assertTrue(drained.isGroupsChanged());
+        assertFalse(drained.isNetKeysChanged());
+        assertFalse(drained.isAppKeysChanged());
+        assertFalse(drained.isProvisionersChanged());
+        assertFalse(drained.isScenesChanged());
+        assertTrue(changes.isEmpty());
+        assertTrue(changes.drain().isEmpty());
+    }
+
+    @Test
+    public void testChangedNodeSupersedesSequenceNumber() {
+        final MeshNetworkChanges changes = new MeshNetworkChanges();
+        final ProvisionedMeshNode node = createNode("A");
+        final ProvisionedMeshNode other = createNode("B");
+
+        changes.markSequenceNumberChanged(node);
+        changes.markSequenceNumberChanged(other);
+        changes.markNodeChanged(node);
+        // The whole row is written, the sequence number is not written separately
+        changes.markSequenceNumberChanged(node);
+
+        final MeshNetworkChanges drained = changes.drain();
+        assertEquals(1, drained.getChangedNodes().size());
+        assertSame(node, drained.getChangedNodes().get(0));
+        assertEquals(1, drained.getChangedSequenceNumbers().size());
+        assertSame(other, drained.getChangedSequenceNumbers().get(0));
+    }
+
+    @Test
+    public void testNodeChangesAreCoalesced() {
+        final MeshNetworkChanges changes = new MeshNetworkChanges();
+        final ProvisionedMeshNode node = createNode("A");
+        changes.markNodeChanged(node);
+        changes.markNodeChanged(node);
+        changes.markSequenceNumberChanged(createNode("B"));
+        changes.markSequenceNumberChanged(createNode("B"));
+
+        final MeshNetworkChanges drained = changes.drain();
+        assertEquals(1, drained.getChangedNodes().size());
+        assertEquals(1, drained.getChangedSequenceNumbers().size());
+    }
+
+    private static ProvisionedMeshNode createNode(final String uuid) {
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUuid(uuid);
+        return node;
+    }
+}
@@ -0,0 +1,138 @@
+package no.nordicsemi.android.mesh;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MeshNetworkWriterTest {
+
+    private static final long TIMEOUT = 5000;
+
+    private ScheduledThreadPoolExecutor executor;
+    private MeshNetworkWriter writer;
+
+    @Before
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        writer = new MeshNetworkWriter(executor);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testWritesAreCoalesced() throws Exception {
+        final AtomicInteger writes = new AtomicInteger();
+        final CountDownLatch written = new CountDownLatch(1);
+        final Runnable write = () -> {
+            writes.incrementAndGet();
+            written.countDown();
+        };
+        writer.schedule(write, 100);
+        writer.schedule(write, 100);
+        writer.schedule(write, 100);
+        assertEquals(1, executor.getQueue().size());
+
+        assertTrue(written.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        executor.submit(() -> {
+        }).get();
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void testFlushWritesPendingChangesOnce() throws Exception {
+        final AtomicInteger writes = new AtomicInteger();
+        writer.schedule(writes::incrementAndGet, 60 * 1000);
+
+        writer.flush().get(TIMEOUT, TimeUnit.MILLISECONDS);
+        assertEquals(1, writes.get());
+        // The pending write has been replaced by the flush
+        assertEquals(0, executor.getQueue().size());
+    }
+
+    @Test
+    public void testFlushWithoutChanges() throws Exception {
+        assertTrue(writer.flush().isDone());
+    }
+
+    @Test
+    public void testFlushWaitsForRunningWrite() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger completed = new AtomicInteger();
+        writer.schedule(() -> {
+            started.countDown();
+            try {
+                release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completed.incrementAndGet();
+        }, 0);
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        final Future<?> flush = writer.flush();
+        Thread.sleep(50);
+        assertFalse(flush.isDone());
+        assertEquals(0, completed.get());
+
+        release.countDown();
+        flush.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        assertTrue(completed.get() >= 1);
+    }
+
+    @Test
+    public void testChangesMarkedDuringWriteAreWritten() throws Exception {
+        final MeshNetworkChanges changes = new MeshNetworkChanges();
+        final List<MeshNetworkChanges> written = new ArrayList<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable write = () -> {
+            final MeshNetworkChanges drained = changes.drain();
+            if (drained.isEmpty())
+                return;
+            started.countDown();
+            try {
+                release.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (written) {
+                written.add(drained);
+            }
+        };
+
+        changes.markNetworkChanged();
+        writer.schedule(write, 0);
+        assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        // The running write has already drained the changes
+        changes.markNetKeysChanged();
+        writer.schedule(write, 60 * 1000);
+        release.countDown();
+        writer.flush().get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+        assertTrue(changes.isEmpty());
+        synchronized (written) {
+            assertEquals(2, written.size());
+            assertTrue(written.get(0).isNetworkChanged());
+            assertFalse(written.get(0).isNetKeysChanged());
+            assertTrue(written.get(1).isNetKeysChanged());
+        }
+    }
+}
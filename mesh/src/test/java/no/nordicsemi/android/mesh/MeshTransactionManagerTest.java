@@ -0,0 +1,172 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.transport.AccessMessage;
+import no.nordicsemi.android.mesh.transport.ConfigCompositionDataGet;
+import no.nordicsemi.android.mesh.transport.ConfigNodeReset;
+import no.nordicsemi.android.mesh.transport.ConfigNodeResetStatus;
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+
+public class MeshTransactionManagerTest {
+
+    private final VirtualClockScheduler scheduler = new VirtualClockScheduler();
+    private final List<Integer> sent = new ArrayList<>();
+    private final List<Integer> failures = new ArrayList<>();
+    private final MeshTransactionManager manager = new MeshTransactionManager(scheduler, (dst, meshMessage) -> sent.add(dst));
+    private final MeshTransactionCallbacks callbacks = new MeshTransactionCallbacks() {
+        @Override
+        public void onTransactionCompleted(@NonNull final MeshTransaction transaction, @Nullable final MeshMessage response) {
+        }
+
+        @Override
+        public void onTransactionFailed(@NonNull final MeshTransaction transaction, final int reason) {
+            failures.add(reason);
+        }
+    };
+
+    @Test
+    public void testResponseOpCodes() {
+        assertEquals(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS,
+                MeshTransactionManager.getResponseOpCode(new ConfigCompositionDataGet()));
+        assertEquals(ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS,
+                MeshTransactionManager.getResponseOpCode(new ConfigNodeReset()));
+    }
+
+    @Test
+    public void testPipelining() {
+        manager.setMaxConcurrentTransactions(2);
+        final MeshTransaction first = manager.send(0x0001, new ConfigNodeReset(), callbacks);
+        final MeshTransaction second = manager.send(0x0001, new ConfigNodeReset(), callbacks);
+        manager.send(0x0002, new ConfigNodeReset(), callbacks);
+        manager.send(0x0003, new ConfigNodeReset(), callbacks);
+        // A single transaction per destination and no more than two in total are in progress
+        assertEquals(2, sent.size());
+        assertEquals(2, manager.getActiveTransactionCount());
+        assertEquals(2, manager.getQueuedTransactionCount());
+
+        // Responses from other nodes or with another opcode are ignored
+        manager.onMeshMessageReceived(0x0003, createNodeResetStatus());
+        assertEquals(MeshTransaction.STATE_IN_PROGRESS, first.getState());
+
+        final MeshMessage response = createNodeResetStatus();
+        manager.onMeshMessageReceived(0x0001, response);
+        assertEquals(MeshTransaction.STATE_COMPLETED, first.getState());
+        assertSame(response, first.getResponse());
+        assertEquals(3, sent.size());
+        assertEquals(Integer.valueOf(0x0003), sent.get(2));
+        assertEquals(MeshTransaction.STATE_QUEUED, second.getState());
+
+        manager.onMeshMessageReceived(0x0002, createNodeResetStatus());
+        assertEquals(Integer.valueOf(0x0001), sent.get(3));
+        assertEquals(MeshTransaction.STATE_IN_PROGRESS, second.getState());
+    }
+
+    @Test
+    public void testRetriesAndCancellation() {
+        manager.setMaxRetries(1);
+        final MeshTransaction transaction = manager.send(0x0001, new ConfigNodeReset(), callbacks);
+        final MeshTransaction queued = manager.send(0x0001, new ConfigNodeReset(), callbacks);
+        manager.onTransactionFailed(0x0001);
+        assertEquals(2, sent.size());
+        assertEquals(1, transaction.getRetryCount());
+
+        manager.onTransactionFailed(0x0001);
+        assertEquals(MeshTransaction.STATE_FAILED, transaction.getState());
+        assertEquals(Integer.valueOf(MeshTransaction.FAILURE_TIMEOUT), failures.get(0));
+        assertEquals(MeshTransaction.STATE_IN_PROGRESS, queued.getState());
+
+        assertTrue(queued.cancel());
+        assertEquals(Integer.valueOf(MeshTransaction.FAILURE_CANCELLED), failures.get(1));
+        assertEquals(0, manager.getActiveTransactionCount());
+        assertNull(queued.getResponse());
+    }
+
+    @Test
+    public void testTimeoutsDoubleOnEveryRetry() {
+        manager.setTimeout(1000);
+        manager.setMaxRetries(1);
+        final MeshTransaction transaction = manager.send(0x0001, new ConfigNodeReset(), callbacks);
+        scheduler.advanceBy(999);
+        assertEquals(1, sent.size());
+        scheduler.advanceBy(1);
+        assertEquals(2, sent.size());
+        assertEquals(1, transaction.getRetryCount());
+
+        scheduler.advanceBy(1999);
+        assertEquals(MeshTransaction.STATE_IN_PROGRESS, transaction.getState());
+        scheduler.advanceBy(1);
+        assertEquals(MeshTransaction.STATE_FAILED, transaction.getState());
+        assertEquals(Integer.valueOf(MeshTransaction.FAILURE_TIMEOUT), failures.get(0));
+        assertEquals(0, scheduler.getPendingTaskCount());
+    }
+
+    @Test
+    public void testUnacknowledgedMessagesComplete() {
+        final MeshTransaction transaction = manager.send(0xC000, new ConfigNodeReset(), callbacks);
+        assertEquals(MeshTransaction.STATE_COMPLETED, transaction.getState());
+        assertEquals(0, manager.getActiveTransactionCount());
+    }
+
+    @Test
+    public void testCallbacksAreInvokedWithoutLock() {
+        final List<MeshTransaction> sentFromCallback = new ArrayList<>();
+        final MeshTransaction transaction = manager.send(0x0001, new ConfigNodeReset(), new MeshTransactionCallbacks() {
+            @Override
+            public void onTransactionCompleted(@NonNull final MeshTransaction transaction, @Nullable final MeshMessage response) {
+                assertFalse(Thread.holdsLock(manager));
+                sentFromCallback.add(manager.send(0x0001, new ConfigNodeReset(), callbacks));
+            }
+
+            @Override
+            public void onTransactionFailed(@NonNull final MeshTransaction transaction, final int reason) {
+            }
+        });
+        manager.onMeshMessageReceived(0x0001, createNodeResetStatus());
+        assertEquals(MeshTransaction.STATE_COMPLETED, transaction.getState());
+        assertEquals(1, sentFromCallback.size());
+        assertEquals(MeshTransaction.STATE_IN_PROGRESS, sentFromCallback.get(0).getState());
+        assertEquals(2, sent.size());
+    }
+
+    @Test
+    public void testCallbacksAreNotInvokedBeforeSendReturns() {
+        final MeshTransaction[] returned = new MeshTransaction[1];
+        final List<MeshTransaction> notified = new ArrayList<>();
+        returned[0] = manager.send(0xC000, new ConfigNodeReset(), new MeshTransactionCallbacks() {
+            @Override
+            public void onTransactionCompleted(@NonNull final MeshTransaction transaction, @Nullable final MeshMessage response) {
+                assertSame(returned[0], transaction);
+                notified.add(transaction);
+            }
+
+            @Override
+            public void onTransactionFailed(@NonNull final MeshTransaction transaction, final int reason) {
+            }
+        });
+        assertEquals(MeshTransaction.STATE_COMPLETED, returned[0].getState());
+        assertTrue(notified.isEmpty());
+        scheduler.advanceBy(0);
+        assertEquals(1, notified.size());
+    }
+
+    private static MeshMessage createNodeResetStatus() {
+        final AccessMessage message = new AccessMessage();
+        message.setOpCode(ConfigMessageOpCodes.CONFIG_NODE_RESET_STATUS);
+        message.setParameters(new byte[0]);
+        return new ConfigNodeResetStatus(message);
+    }
+}
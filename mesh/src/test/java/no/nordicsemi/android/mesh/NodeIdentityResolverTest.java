@@ -0,0 +1,128 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class NodeIdentityResolverTest {
+
+    private static final byte[] RANDOM = MeshParserUtils.toByteArray("34AE608FBBC1F2C6");
+    private static final byte[] NET_KEY_0 = MeshParserUtils.toByteArray("7DD7364CD842AD18C17C2B820C84C3D6");
+    private static final byte[] NET_KEY_1 = MeshParserUtils.toByteArray("F7A2A44F8E8A8029064F173DDC1E2B00");
+    private static final byte[] OLD_NET_KEY_1 = MeshParserUtils.toByteArray("EFB2255E6422D330088E09BB015ED707");
+
+    @Test
+    public void testResolveNodeIdentity() {
+        final MeshNetwork network = createNetwork(10);
+        final NetworkKey key1 = network.netKeys.get(1);
+        final ProvisionedMeshNode node = network.nodes.get(7);
+
+        final NodeIdentity identity = new NodeIdentityResolver()
+                .resolve(network, hash(key1.getIdentityKey(), node), RANDOM);
+        assertNotNull(identity);
+        assertSame(node, identity.getNode());
+        assertSame(key1, identity.getNetworkKey());
+        assertFalse(identity.isOldKey());
+    }
+
+    @Test
+    public void testResolveNodeIdentityWithOldKey() {
+        final MeshNetwork network = createNetwork(10);
+        final NetworkKey key1 = network.netKeys.get(1);
+        final ProvisionedMeshNode node = network.nodes.get(3);
+
+        final NodeIdentity identity = new NodeIdentityResolver()
+                .resolve(network, hash(key1.getOldIdentityKey(), node), RANDOM);
+        assertNotNull(identity);
+        assertSame(node, identity.getNode());
+        assertSame(key1, identity.getNetworkKey());
+        assertTrue(identity.isOldKey());
+    }
+
+    @Test
+    public void testUnknownNodeIdentity() {
+        final MeshNetwork network = createNetwork(10);
+        final ProvisionedMeshNode node = createNode(0x7000);
+
+        assertNull(new NodeIdentityResolver().resolve(network, hash(network.netKeys.get(0).getIdentityKey(), node), RANDOM));
+    }
+
+    @Test
+    public void testResolveNodeIdentityInParallel() {
+        final MeshNetwork network = createNetwork(NodeIdentityResolver.PARALLEL_THRESHOLD * 2);
+        final NetworkKey key0 = network.netKeys.get(0);
+        final ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            final NodeIdentityResolver resolver = new NodeIdentityResolver();
+            resolver.setExecutor(executor);
+            for (int index : new int[]{0, network.nodes.size() / 2, network.nodes.size() - 1}) {
+                final ProvisionedMeshNode node = network.nodes.get(index);
+                final NodeIdentity identity = resolver.resolve(network, hash(key0.getIdentityKey(), node), RANDOM);
+                assertNotNull(identity);
+                assertSame(node, identity.getNode());
+                assertSame(key0, identity.getNetworkKey());
+            }
+            assertNull(resolver.resolve(network, hash(key0.getIdentityKey(), createNode(0x7000)), RANDOM));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCachedNodeIdentityIsValidated() {
+        final MeshNetwork network = createNetwork(10);
+        final NetworkKey key0 = network.netKeys.get(0);
+        final ProvisionedMeshNode node = network.nodes.get(5);
+        final byte[] hash = hash(key0.getIdentityKey(), node);
+
+        final NodeIdentityResolver resolver = new NodeIdentityResolver();
+        final NodeIdentity identity = resolver.resolve(network, hash, RANDOM);
+        assertNotNull(identity);
+        assertSame(identity, resolver.resolve(network, hash, RANDOM));
+
+        // The identity key changes with the key
+        key0.setKey(NET_KEY_1);
+        assertNull(resolver.resolve(network, hash, RANDOM));
+        key0.setKey(NET_KEY_0);
+        assertNotNull(resolver.resolve(network, hash, RANDOM));
+
+        network.nodes.remove(node);
+        assertNull(resolver.resolve(network, hash, RANDOM));
+    }
+
+    private static MeshNetwork createNetwork(final int nodeCount) {
+        final MeshNetwork network = new MeshNetwork("7A2E8B8C-2B4B-4F67-9D1C-8E2F0C3B1A55");
+        network.netKeys.add(new NetworkKey(0, NET_KEY_0));
+        final NetworkKey key1 = new NetworkKey(1, NET_KEY_1);
+        key1.setOldKey(OLD_NET_KEY_1);
+        network.netKeys.add(key1);
+        for (int i = 0; i < nodeCount; i++) {
+            network.nodes.add(createNode(0x0001 + i * 2));
+        }
+        assertEquals(nodeCount, network.nodes.size());
+        return network;
+    }
+
+    private static ProvisionedMeshNode createNode(final int unicastAddress) {
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUnicastAddress(unicastAddress);
+        return node;
+    }
+
+    private static byte[] hash(final byte[] identityKey, final ProvisionedMeshNode node) {
+        return SecureUtils.calculateHash(identityKey, RANDOM, MeshAddress.addressIntToBytes(node.getUnicastAddress()));
+    }
+}
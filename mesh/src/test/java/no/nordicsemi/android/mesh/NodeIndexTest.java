@@ -0,0 +1,64 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+public class NodeIndexTest {
+
+    @Test
+    public void testGetNode() {
+        final ProvisionedMeshNode node1 = createNode(0x0010, "0a1b2c3d-0000-0000-0000-000000000001");
+        final ProvisionedMeshNode node2 = createNode(0x0001, "0a1b2c3d-0000-0000-0000-000000000002");
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
+        nodes.add(node1);
+        nodes.add(node2);
+
+        final NodeIndex index = new NodeIndex();
+        index.rebuild(nodes);
+        assertTrue(index.isIndexed(nodes));
+        assertSame(node1, index.getNode(0x0010));
+        assertSame(node2, index.getNode(0x0001));
+        assertNull(index.getNode(0x0002));
+        assertSame(node2, index.getNode("0A1B2C3D-0000-0000-0000-000000000002"));
+        assertNull(index.getNode("0a1b2c3d-0000-0000-0000-000000000003"));
+    }
+
+    @Test
+    public void testAddAndRemoveNode() {
+        final ProvisionedMeshNode node1 = createNode(0x0001, "0a1b2c3d-0000-0000-0000-000000000001");
+        final ProvisionedMeshNode node2 = createNode(0x0005, "0a1b2c3d-0000-0000-0000-000000000002");
+        final List<ProvisionedMeshNode> nodes = new ArrayList<>();
+        nodes.add(node1);
+
+        final NodeIndex index = new NodeIndex();
+        index.rebuild(nodes);
+        nodes.add(node2);
+        assertFalse(index.isIndexed(nodes));
+        index.add(nodes, node2);
+        assertTrue(index.isIndexed(nodes));
+        assertSame(node2, index.getNode(0x0005));
+
+        nodes.remove(node1);
+        index.remove(nodes, node1);
+        assertTrue(index.isIndexed(nodes));
+        assertNull(index.getNode(0x0001));
+        assertNull(index.getNode("0a1b2c3d-0000-0000-0000-000000000001"));
+        assertSame(node2, index.getNode(0x0005));
+    }
+
+    private static ProvisionedMeshNode createNode(final int unicastAddress, final String uuid) {
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUnicastAddress(unicastAddress);
+        node.setUuid(uuid);
+        return node;
+    }
+}
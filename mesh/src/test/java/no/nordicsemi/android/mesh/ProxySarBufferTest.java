@@ -0,0 +1,54 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class ProxySarBufferTest {
+
+    @Test
+    public void testSegmentsAreReassembled() {
+        final ProxySarBuffer buffer = new ProxySarBuffer(MeshManagerApi.PDU_TYPE_PROVISIONING);
+        final byte[] first = MeshParserUtils.toByteArray("43" + "03" + "0102");
+        final byte[] continuation = MeshParserUtils.toByteArray("83" + "030405");
+        final byte[] last = MeshParserUtils.toByteArray("C3" + "06");
+
+        assertFalse(buffer.append(first, first.length));
+        assertTrue(buffer.isInProgress());
+        assertFalse(buffer.append(continuation, continuation.length));
+        assertTrue(buffer.append(last, last.length));
+        assertFalse(buffer.isInProgress());
+        assertArrayEquals(MeshParserUtils.toByteArray("03" + "03" + "0102" + "030405" + "06"), buffer.getPdu());
+
+        // The buffer is reused and a first segment discards an incomplete message
+        assertFalse(buffer.append(first, first.length));
+        assertFalse(buffer.append(first, first.length));
+        assertTrue(buffer.append(last, last.length));
+        assertArrayEquals(MeshParserUtils.toByteArray("03" + "03" + "0102" + "06"), buffer.getPdu());
+    }
+
+    @Test
+    public void testSegmentsWithoutFirstSegmentAreIgnored() {
+        final ProxySarBuffer buffer = new ProxySarBuffer(MeshManagerApi.PDU_TYPE_PROXY_CONFIGURATION);
+        final byte[] last = MeshParserUtils.toByteArray("C2" + "0102");
+        assertFalse(buffer.append(last, last.length));
+        assertFalse(buffer.isInProgress());
+    }
+
+    @Test
+    public void testBufferGrowsBeyondMaximumProxyPduLength() {
+        final ProxySarBuffer buffer = new ProxySarBuffer(MeshManagerApi.PDU_TYPE_NETWORK);
+        final byte[] segment = new byte[ProxySarBuffer.MAX_PROXY_PDU_LENGTH];
+        segment[0] = 0x40;
+        assertFalse(buffer.append(segment, segment.length));
+        segment[0] = (byte) 0xC0;
+        segment[1] = 0x01;
+        assertTrue(buffer.append(segment, segment.length));
+        assertEquals(2 * ProxySarBuffer.MAX_PROXY_PDU_LENGTH - 1, buffer.getPdu().length);
+    }
+}
@@ -5,6 +5,7 @@ import org.junit.Test;
 import java.util.Calendar;
 
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
 
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -238,4 +239,53 @@ public class SecureNetworkBeaconTest {
         assertTrue(result4);
         assertTrue(result5);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAuthenticationWithNetworkKey() {
+        final byte[] key = MeshParserUtils.toByteArray("7DD7364CD842AD18C17C2B820C84C3D6");
+        final NetworkKey networkKey = new NetworkKey(0, key);
+        final SecureNetworkBeacon beacon = SecureUtils.createSecureNetworkBeacon(key, 0x02,
+                SecureUtils.calculateK3(key), 0x12345678);
+        final SecureNetworkBeacon snb = new SecureNetworkBeacon(beacon.beaconData);
+        assertTrue(snb.isAuthenticatedBy(networkKey));
+
+        final NetworkKey otherKey = new NetworkKey(1, MeshParserUtils.toByteArray("F7A2A44F8E8A8029064F173DDC1E2B00"));
+        assertFalse(snb.isAuthenticatedBy(otherKey));
+
+        // The cached beacon key must follow a change of the key
+        otherKey.setKey(key);
+        assertTrue(snb.isAuthenticatedBy(otherKey));
+
+        final byte[] tampered = beacon.beaconData.clone();
+        tampered[tampered.length - 1] ^= 0x01;
+        assertFalse(new SecureNetworkBeacon(tampered).isAuthenticatedBy(networkKey));
+    }
+
+    @Test
+    public void testBeaconCache() {
+        final SecureNetworkBeaconCache cache = new SecureNetworkBeaconCache(2);
+        final byte[] beacon0 = MeshParserUtils.toByteArray("0102EE6C0EFF5298ECFF000000025E5AA7B268B5E044");
+        final byte[] beacon1 = MeshParserUtils.toByteArray("0102EE6C0EFF5298ECFF00000034A53312BF9198C86F");
+        final byte[] beacon2 = MeshParserUtils.toByteArray("0002EE6C0EFF5298ECFF00000034A53312BF9198C86F");
+        cache.add(beacon0);
+        cache.add(beacon1);
+        assertTrue(cache.contains(beacon0.clone()));
+        // beacon1 is now the least recently seen beacon and gets evicted
+        cache.add(beacon2);
+        assertTrue(cache.contains(beacon0));
+        assertFalse(cache.contains(beacon1));
+        assertTrue(cache.contains(beacon2));
+        cache.clear();
+        assertFalse(cache.contains(beacon0));
+    }
+
+    @Test
+    public void testMatchesIvIndex() {
+        final byte[] data = MeshParserUtils.toByteArray("0102EE6C0EFF5298ECFF000000025E5AA7B268B5E044");
+        final SecureNetworkBeacon snb = new SecureNetworkBeacon(data);
+
+        assertTrue(snb.matches(new IvIndex(2, true, Calendar.getInstance())));
+        assertFalse(snb.matches(new IvIndex(2, false, Calendar.getInstance())));
+        assertFalse(snb.matches(new IvIndex(1, true, Calendar.getInstance())));
+    }
+}
@@ -0,0 +1,57 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import no.nordicsemi.android.mesh.transport.Element;
+import no.nordicsemi.android.mesh.transport.MeshModel;
+import no.nordicsemi.android.mesh.transport.ProvisionedMeshNode;
+
+public class SubscriptionIndexTest {
+
+    @Test
+    public void testGroupMembers() {
+        final MeshNetwork network = new ImportExportUtils().importNetwork(ImportExportUtilsTest.NETWORK_JSON);
+        final Group group = network.getGroups().get(0);
+        final ProvisionedMeshNode node = network.getNode(0x0002);
+        final Element element = node.getElements().get(0x0002);
+
+        final List<MeshModel> models = network.getModels(group);
+        assertEquals(2, models.size());
+        assertSame(element.getMeshModels().get(0x1000), models.get(1));
+        final List<Element> elements = network.getElements(group);
+        assertEquals(2, elements.size());
+        assertSame(element, elements.get(1));
+        assertTrue(network.getModels(new Group(0xC002, network.getMeshUUID())).isEmpty());
+    }
+
+    @Test
+    public void testNodeUpdates() {
+        final MeshNetwork network = new ImportExportUtils().importNetwork(ImportExportUtilsTest.NETWORK_JSON);
+        final Group group = network.getGroups().get(1);
+        final ProvisionedMeshNode node = network.getNode(0x0002);
+        assertEquals(2, network.getModels(group).size());
+
+        final SubscriptionIndex index = network.getSubscriptionIndex();
+        assertTrue(index.isIndexed(network.nodes));
+        network.nodes.remove(node);
+        index.remove(network.nodes, node);
+        assertTrue(index.isIndexed(network.nodes));
+        assertEquals(1, network.getModels(group).size());
+
+        network.nodes.add(node);
+        index.add(network.nodes, node);
+        assertEquals(2, network.getElements(group).size());
+
+        // Updating a node that is not indexed invalidates the index
+        index.update(network.nodes, new ProvisionedMeshNode());
+        assertFalse(index.isIndexed(network.nodes));
+        assertEquals(2, network.getModels(group).size());
+    }
+}
@@ -0,0 +1,80 @@
+package no.nordicsemi.android.mesh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class VirtualAddressIndexTest {
+
+    private static final String MESH_UUID = "0a1b2c3d-0000-0000-0000-000000000000";
+
+    @Test
+    public void testGetLabelUuid() {
+        final UUID label = UUID.fromString("0073e7e4-d8b9-440f-af84-15df4c56c0e1");
+        final Group virtualGroup = new Group(label, null, MESH_UUID);
+        final Group group = new Group(0xC000, MESH_UUID);
+        final List<Group> groups = new ArrayList<>();
+        groups.add(virtualGroup);
+        groups.add(group);
+
+        final VirtualAddressIndex index = new VirtualAddressIndex();
+        index.rebuild(groups);
+        assertTrue(index.isIndexed(groups));
+        assertEquals(Collections.singletonList(label), index.getLabelUuids(virtualGroup.getAddress()));
+        assertTrue(index.getLabelUuids(0xC000).isEmpty());
+    }
+
+    @Test
+    public void testAddAndRemoveGroup() {
+        final UUID label = UUID.fromString("f4a002c7-fb1e-4ca0-a469-a021de0db875");
+        final Group virtualGroup = new Group(label, null, MESH_UUID);
+        final List<Group> groups = new ArrayList<>();
+
+        final VirtualAddressIndex index = new VirtualAddressIndex();
+        index.rebuild(groups);
+        groups.add(virtualGroup);
+        assertFalse(index.isIndexed(groups));
+        index.add(groups, virtualGroup);
+        assertTrue(index.isIndexed(groups));
+        assertEquals(Collections.singletonList(label), index.getLabelUuids(virtualGroup.getAddress()));
+
+        groups.remove(virtualGroup);
+        index.remove(groups, virtualGroup);
+        assertTrue(index.isIndexed(groups));
+        assertTrue(index.getLabelUuids(virtualGroup.getAddress()).isEmpty());
+    }
+
+    @Test
+    public void testLabelsHashingToSameAddress() {
+        // Both label UUIDs hash to the virtual address 0xA0D6
+        final UUID label = UUID.fromString("f22c88bd-8d43-7311-afb9-ea12a8a60235");
+        final UUID otherLabel = UUID.fromString("ec1c5cfc-f0dc-5082-fefd-f000185b3c0b");
+        final Group virtualGroup = new Group(label, null, MESH_UUID);
+        final Group otherVirtualGroup = new Group(otherLabel, null, MESH_UUID);
+        assertEquals(0xA0D6, virtualGroup.getAddress());
+        assertEquals(0xA0D6, otherVirtualGroup.getAddress());
+        final List<Group> groups = new ArrayList<>();
+        groups.add(virtualGroup);
+
+        final VirtualAddressIndex index = new VirtualAddressIndex();
+        index.rebuild(groups);
+        final List<UUID> labels = index.getLabelUuids(0xA0D6);
+        groups.add(otherVirtualGroup);
+        index.add(groups, otherVirtualGroup);
+        assertEquals(Arrays.asList(label, otherLabel), index.getLabelUuids(0xA0D6));
+        // Lists returned earlier are not modified
+        assertEquals(Collections.singletonList(label), labels);
+
+        groups.remove(virtualGroup);
+        index.remove(groups, virtualGroup);
+        assertEquals(Collections.singletonList(otherLabel), index.getLabelUuids(0xA0D6));
+    }
+}
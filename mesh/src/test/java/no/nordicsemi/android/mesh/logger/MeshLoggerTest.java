@@ -0,0 +1,64 @@
+package no.nordicsemi.android.mesh.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MeshLoggerTest {
+
+    private static final String TAG = "MeshLoggerTest";
+
+    @After
+    public void tearDown() {
+        MeshLogger.setMinLevel(Log.VERBOSE);
+        MeshLogger.setLogHandler(null);
+        MeshLogger.setLogBuffer(null);
+    }
+
+    @Test
+    public void testMessagesBelowMinLevelAreNotFormatted() {
+        final List<String> messages = new ArrayList<>();
+        MeshLogger.setLogHandler((priority, tag, message) -> messages.add(message));
+        MeshLogger.setMinLevel(Log.DEBUG);
+        final boolean[] formatted = new boolean[1];
+        MeshLogger.verbose(TAG, () -> {
+            formatted[0] = true;
+            return "verbose";
+        });
+        MeshLogger.verbose(TAG, "verbose %d", 1);
+        MeshLogger.debug(TAG, () -> "debug");
+        MeshLogger.debug(TAG, "debug %d", 2);
+        assertFalse(formatted[0]);
+        assertFalse(MeshLogger.isLoggable(Log.VERBOSE));
+        assertEquals(2, messages.size());
+        assertEquals("debug 2", messages.get(1));
+    }
+
+    @Test
+    public void testLogBufferKeepsMostRecentMessages() {
+        final MeshLogBuffer buffer = new MeshLogBuffer(3);
+        MeshLogger.setLogHandler((priority, tag, message) -> {
+        });
+        MeshLogger.setLogBuffer(buffer);
+        for (int i = 0; i < 5; i++) {
+            MeshLogger.info(TAG, "message " + i);
+        }
+        final List<MeshLogBuffer.Entry> entries = buffer.getEntries();
+        assertEquals(3, entries.size());
+        assertEquals("message 2", entries.get(0).getMessage());
+        assertEquals("message 4", entries.get(2).getMessage());
+        assertEquals(Log.INFO, entries.get(2).getPriority());
+        assertTrue(entries.get(0).getSequenceNumber() < entries.get(1).getSequenceNumber());
+
+        buffer.clear();
+        assertTrue(buffer.getEntries().isEmpty());
+    }
+}
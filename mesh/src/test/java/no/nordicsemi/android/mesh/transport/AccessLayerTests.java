@@ -22,16 +22,12 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.content.Context;
 
-import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.Mock;
-import org.mockito.junit.MockitoJUnit;
-import org.mockito.junit.MockitoRule;
 
 import java.util.Locale;
 
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 
 import static org.junit.Assert.assertEquals;
@@ -43,11 +39,7 @@ import static org.junit.Assert.assertEquals;
  */
 public class AccessLayerTests {
 
-    @Rule
-    public MockitoRule rule = MockitoJUnit.rule();
-
-    @Mock
-    Context context;
+    private final VirtualClockScheduler scheduler = new VirtualClockScheduler();
 
     @Test
     public void create_access_message_isCorrect() {
@@ -55,7 +47,7 @@ public class AccessLayerTests {
         final String expectedAccessMessage = "800300563412";
 
         final ProvisionedMeshNode meshNode = new ProvisionedMeshNode();
-        final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
         final int opCode = 0x8003;
         final byte[] parameters = MeshParserUtils.toByteArray("00563412");
         final AccessMessage accessMessage = new AccessMessage();
@@ -78,7 +70,7 @@ public class AccessLayerTests {
         accessMessage.setParameters(parameters);
 
         final ProvisionedMeshNode meshNode = new ProvisionedMeshNode();
-        final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
         meshLayerTestBase.createAccessMessage(accessMessage);
         final byte[] actualAccessMessage = accessMessage.getAccessPdu();
         assertEquals(expectedAccessMessage, MeshParserUtils.bytesToHex(actualAccessMessage, false));
@@ -101,7 +93,7 @@ public class AccessLayerTests {
         accessMessage.setParameters(parameters);
         accessMessage.setCompanyIdentifier(companyIdentifier);
         accessMessage.setParameters(parameters);
-        final MeshTransport meshTransport = new MeshTransport(context, meshNode);
+        final MeshTransport meshTransport = new MeshTransport(scheduler, meshNode);
         meshTransport.createCustomAccessMessage(accessMessage);
         final byte[] actualAccessMessage = accessMessage.getAccessPdu();
         assertEquals(expectedAccessMessage, MeshParserUtils.bytesToHex(actualAccessMessage, false));
@@ -122,7 +114,7 @@ public class AccessLayerTests {
         accessMessage.setParameters(parameters);
 
         final ProvisionedMeshNode meshNode = new ProvisionedMeshNode();
-        final MeshTransport meshTransport = new MeshTransport(context, meshNode);
+        final MeshTransport meshTransport = new MeshTransport(scheduler, meshNode);
         meshTransport.createCustomAccessMessage(accessMessage);
         final byte[] actualAccessMessage = accessMessage.getAccessPdu();
         assertEquals(expectedAccessMessage, MeshParserUtils.bytesToHex(actualAccessMessage, false));
@@ -0,0 +1,167 @@
+package no.nordicsemi.android.mesh.transport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.BitSet;
+
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class BlobMessagesTest {
+
+    private static final ApplicationKey APP_KEY = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734fbd76e3b40519d1d94a48"));
+
+    @Test
+    public void testBlobTransferStartRoundTrip() {
+        final BlobTransferStart start = new BlobTransferStart(APP_KEY, BlobTransferStart.TRANSFER_MODE_PULL,
+                0x1122334455667788L, 0xFFFFFFFEL, 12, 380);
+        final byte[] parameters = start.getParameters();
+        assertArrayEquals(MeshParserUtils.toByteArray("80" + "8877665544332211" + "FEFFFFFF" + "0C" + "7C01"), parameters);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(parameters).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(start.getTransferMode(), (buffer.get() & 0xFF) >> 6);
+        assertEquals(start.getBlobId(), buffer.getLong());
+        assertEquals(start.getBlobSize(), buffer.getInt() & 0xFFFFFFFFL);
+        assertEquals(start.getBlockSizeLog(), buffer.get() & 0xFF);
+        assertEquals(start.getMtuSize(), buffer.getShort() & 0xFFFF);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBlobTransferStartInvalidBlockSize() {
+        new BlobTransferStart(APP_KEY, BlobTransferStart.TRANSFER_MODE_PUSH, 1, 100, BlobTransferStart.MAX_BLOCK_SIZE_LOG + 1, 380);
+    }
+
+    @Test
+    public void testBlobChunkTransfer() {
+        final byte[] block = MeshParserUtils.toByteArray("000102030405060708090A0B");
+        final BlobChunkTransfer chunk = new BlobChunkTransfer(APP_KEY, 0x0102, block, 4, 6);
+        assertEquals(0x0102, chunk.getChunkNumber());
+        assertArrayEquals(MeshParserUtils.toByteArray("0201" + "040506070809"), chunk.getParameters());
+    }
+
+    @Test
+    public void testBlobBlockStatusWithMissingChunkBitField() {
+        final BitSet missingChunks = new BitSet();
+        missingChunks.set(0);
+        missingChunks.set(9);
+        missingChunks.set(17);
+        final BlobBlockStatus status = new BlobBlockStatus(createAccessMessage(
+                createBlockStatusParameters(BlobTransferStatus.STATUS_SUCCESS, BlobBlockStatus.FORMAT_SOME_CHUNKS_MISSING,
+                        0x0203, 0x00F0, missingChunks.toByteArray())));
+
+        assertTrue(status.isSuccessful());
+        assertEquals(BlobBlockStatus.FORMAT_SOME_CHUNKS_MISSING, status.getFormat());
+        assertEquals(0x0203, status.getBlockNumber());
+        assertEquals(0x00F0, status.getChunkSize());
+        assertEquals(missingChunks, status.getMissingChunks(18));
+        // Bits padding the field beyond the last chunk are not reported
+        final BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(9);
+        assertEquals(expected, status.getMissingChunks(10));
+    }
+
+    @Test
+    public void testBlobBlockStatusWithEncodedMissingChunks() {
+        // Chunks 0x05, 0x80 and 0x0800 encoded as UTF-8 characters of 1, 2 and 3 octets
+        final BlobBlockStatus status = new BlobBlockStatus(createAccessMessage(
+                createBlockStatusParameters(BlobTransferStatus.STATUS_SUCCESS, BlobBlockStatus.FORMAT_ENCODED_MISSING_CHUNKS,
+                        1, 8, MeshParserUtils.toByteArray("05" + "C280" + "E0A080"))));
+
+        final BitSet expected = new BitSet();
+        expected.set(0x05);
+        expected.set(0x80);
+        expected.set(0x0800);
+        assertEquals(expected, status.getMissingChunks(0x1000));
+    }
+
+    @Test
+    public void testBlobBlockStatusAllAndNoChunksMissing() {
+        final BlobBlockStatus allMissing = new BlobBlockStatus(createAccessMessage(
+                createBlockStatusParameters(BlobTransferStatus.STATUS_SUCCESS, BlobBlockStatus.FORMAT_ALL_CHUNKS_MISSING, 0, 8, new byte[0])));
+        final BitSet expected = new BitSet();
+        expected.set(0, 5);
+        assertEquals(expected, allMissing.getMissingChunks(5));
+
+        final BlobBlockStatus noneMissing = new BlobBlockStatus(createAccessMessage(
+                createBlockStatusParameters(BlobTransferStatus.STATUS_SUCCESS, BlobBlockStatus.FORMAT_NO_CHUNKS_MISSING, 0, 8, new byte[0])));
+        assertTrue(noneMissing.getMissingChunks(5).isEmpty());
+    }
+
+    @Test
+    public void testBlobBlockStatusError() {
+        final BlobBlockStatus status = new BlobBlockStatus(createAccessMessage(
+                createBlockStatusParameters(BlobTransferStatus.STATUS_INVALID_BLOCK_NUMBER, BlobBlockStatus.FORMAT_ALL_CHUNKS_MISSING, 7, 8, new byte[0])));
+        assertFalse(status.isSuccessful());
+        assertEquals(BlobTransferStatus.STATUS_INVALID_BLOCK_NUMBER, status.getStatus());
+        assertEquals(7, status.getBlockNumber());
+    }
+
+    @Test
+    public void testBlobPartialBlockReport() {
+        final BlobPartialBlockReport report = new BlobPartialBlockReport(createAccessMessage(MeshParserUtils.toByteArray("00" + "7F" + "C280")));
+        final BitSet expected = new BitSet();
+        expected.set(0x00);
+        expected.set(0x7F);
+        expected.set(0x80);
+        assertEquals(expected, report.getRequestedChunks());
+        assertFalse(report.isBlockComplete());
+
+        assertTrue(new BlobPartialBlockReport(createAccessMessage(new byte[0])).isBlockComplete());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBlobPartialBlockReportTruncated() {
+        new BlobPartialBlockReport(createAccessMessage(MeshParserUtils.toByteArray("05" + "C2")));
+    }
+
+    @Test
+    public void testBlobInformationStatus() {
+        final byte[] parameters = ByteBuffer.allocate(13).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) 0x06)
+                .put((byte) 0x0C)
+                .putShort((short) 0x0020)
+                .putShort((short) 0x0100)
+                .putInt(0xFFFFFFF0)
+                .putShort((short) 380)
+                .put((byte) 0x02)
+                .array();
+        final BlobInformationStatus status = new BlobInformationStatus(createAccessMessage(parameters));
+
+        assertEquals(0x06, status.getMinBlockSizeLog());
+        assertEquals(0x0C, status.getMaxBlockSizeLog());
+        assertEquals(0x0020, status.getMaxTotalChunks());
+        assertEquals(0x0100, status.getMaxChunkSize());
+        assertEquals(0xFFFFFFF0L, status.getMaxBlobSize());
+        assertEquals(380, status.getMtuSize());
+        assertFalse(status.isTransferModeSupported(BlobTransferStart.TRANSFER_MODE_PUSH));
+        assertTrue(status.isTransferModeSupported(BlobTransferStart.TRANSFER_MODE_PULL));
+    }
+
+    private static byte[] createBlockStatusParameters(final int status,
+                                                      final int format,
+                                                      final int blockNumber,
+                                                      final int chunkSize,
+                                                      final byte[] missingChunks) {
+        return ByteBuffer.allocate(5 + missingChunks.length).order(ByteOrder.LITTLE_ENDIAN)
+                .put((byte) (format << 6 | status))
+                .putShort((short) blockNumber)
+                .putShort((short) chunkSize)
+                .put(missingChunks)
+                .array();
+    }
+
+    private static AccessMessage createAccessMessage(final byte[] parameters) {
+        final AccessMessage message = new AccessMessage();
+        message.setSrc(0x0002);
+        message.setParameters(parameters);
+        return message;
+    }
+}
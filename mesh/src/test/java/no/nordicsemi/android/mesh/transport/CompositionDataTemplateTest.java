@@ -0,0 +1,71 @@
+package no.nordicsemi.android.mesh.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import no.nordicsemi.android.mesh.models.VendorModel;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class CompositionDataTemplateTest {
+
+    // Page 0 of CID 0x0059, PID 0x7E01, VID 0x0002 with relay and proxy features, an element with the configuration
+    // server, the generic on off server and a vendor model, and an element with the generic on off server
+    private static final String ACCESS_PAYLOAD = "0200" + "5900" + "017E" + "0200" + "0800" + "0300" +
+            "0000" + "02" + "01" + "0000" + "0010" + "59000100" +
+            "0100" + "01" + "00" + "0010";
+    private static final int VENDOR_MODEL_ID = 0x0059 << 16 | 0x0001;
+
+    @Test
+    public void testIdenticalPagesShareTemplate() {
+        final CompositionDataTemplate template = CompositionDataTemplate.fromAccessPayload(MeshParserUtils.toByteArray(ACCESS_PAYLOAD));
+        assertEquals(0x0059, template.getCompanyIdentifier());
+        assertEquals(0x7E01, template.getProductIdentifier());
+        assertEquals(0x0002, template.getVersionIdentifier());
+        assertEquals(0x0008, template.getCrpl());
+        assertEquals(2, template.getElementCount());
+
+        assertSame(template, CompositionDataTemplate.fromAccessPayload(MeshParserUtils.toByteArray(ACCESS_PAYLOAD)));
+        assertSame(template, CompositionDataTemplate.find(0x0059, 0x7E01, 0x0002));
+    }
+
+    @Test
+    public void testNodesHaveTheirOwnModels() {
+        final CompositionDataTemplate template = CompositionDataTemplate.fromAccessPayload(MeshParserUtils.toByteArray(ACCESS_PAYLOAD));
+        final Map<Integer, Element> first = template.createElements(0x0010);
+        final Map<Integer, Element> second = template.createElements(0x0020);
+
+        assertEquals(2, first.size());
+        assertTrue(first.containsKey(0x0011));
+        assertTrue(second.containsKey(0x0021));
+        final MeshModel model = first.get(0x0010).getMeshModels().get(VENDOR_MODEL_ID);
+        assertTrue(model instanceof VendorModel);
+        assertNotSame(model, second.get(0x0020).getMeshModels().get(VENDOR_MODEL_ID));
+        assertEquals(3, first.get(0x0010).getMeshModels().size());
+    }
+
+    @Test
+    public void testTemplateAppliedToNode() {
+        final CompositionDataTemplate template = CompositionDataTemplate.fromAccessPayload(MeshParserUtils.toByteArray(ACCESS_PAYLOAD));
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUnicastAddress(0x0030);
+        node.setCompositionData(template);
+
+        assertEquals(Integer.valueOf(0x7E01), node.getProductIdentifier());
+        assertEquals(2, node.getElements().size());
+        assertTrue(node.getNodeFeatures().isRelayFeatureSupported());
+        assertTrue(node.getNodeFeatures().isProxyFeatureSupported());
+        assertFalse(node.getNodeFeatures().isFriendFeatureSupported());
+
+        final CompositionDataTemplate fromNode = CompositionDataTemplate.fromNode(node);
+        assertNotNull(fromNode);
+        assertEquals(template.toString(), fromNode.toString());
+    }
+}
@@ -24,10 +24,12 @@ package no.nordicsemi.android.mesh.transport;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.spongycastle.crypto.InvalidCipherTextException;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.UUID;
@@ -38,6 +40,8 @@ import no.nordicsemi.android.mesh.utils.SecureUtils;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
 
 /**
  * Example local unit test, which will execute on the development machine (host).
@@ -174,4 +178,38 @@ public class EncryptionTests {
         final int address = 0xB529;
         Assert.assertEquals(uuid, MeshAddress.getLabelUuid(uuids, address));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void ccm_in_place_isCorrect() throws InvalidCipherTextException {
+        final byte[] key = MeshParserUtils.toByteArray("63964771734fbd76e3b40519d1d94a48");
+        final byte[] nonce = MeshParserUtils.toByteArray("010007080d1234973612345677");
+        final byte[] label = MeshParserUtils.uuidToBytes(UUID.fromString("0073e7e4-d8b9-440f-af84-15df4c56c0e1"));
+        final byte[] data = MeshParserUtils.toByteArray("d50a0048656c6c6f");
+        final byte[] expected = SecureUtils.encryptCCM(data, key, nonce, label, 4);
+
+        final byte[] buffer = new byte[2 + data.length + 4];
+        System.arraycopy(data, 0, buffer, 2, data.length);
+        assertEquals(expected.length, SecureUtils.encryptCCM(buffer, 2, data.length, key, nonce, label, 4, buffer, 2));
+        assertArrayEquals(expected, Arrays.copyOfRange(buffer, 2, buffer.length));
+
+        assertEquals(data.length, SecureUtils.decryptCCM(buffer, 2, expected.length, key, nonce, label, 4, buffer, 2));
+        assertArrayEquals(data, Arrays.copyOfRange(buffer, 2, 2 + data.length));
+
+        expected[expected.length - 1] ^= 0x01;
+        assertThrows(InvalidCipherTextException.class, () -> SecureUtils.decryptCCM(expected, key, nonce, label, 4));
+    }
+
+    @Test
+    public void ccm_try_decrypt_isCorrect() {
+        final byte[] key = MeshParserUtils.toByteArray("63964771734fbd76e3b40519d1d94a48");
+        final byte[] nonce = MeshParserUtils.toByteArray("010007080d1234973612345677");
+        final byte[] label = MeshParserUtils.uuidToBytes(UUID.fromString("0073e7e4-d8b9-440f-af84-15df4c56c0e1"));
+        final byte[] otherLabel = MeshParserUtils.uuidToBytes(UUID.fromString("f4a002c7-fb1e-4ca0-a469-a021de0db875"));
+        final byte[] data = MeshParserUtils.toByteArray("d50a0048656c6c6f");
+        final byte[] encrypted = SecureUtils.encryptCCM(data, key, nonce, label, 4);
+
+        assertArrayEquals(data, SecureUtils.tryDecryptCCM(encrypted, key, nonce, label, 4));
+        assertNull(SecureUtils.tryDecryptCCM(encrypted, key, nonce, otherLabel, 4));
+        assertNull(SecureUtils.tryDecryptCCM(new byte[2], key, nonce, label, 4));
+    }
+}
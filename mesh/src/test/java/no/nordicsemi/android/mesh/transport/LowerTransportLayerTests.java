@@ -22,21 +22,32 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.content.Context;
-import android.util.SparseArray;
-
 import org.junit.Assert;
-import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.Mock;
-import org.mockito.junit.MockitoJUnit;
-import org.mockito.junit.MockitoRule;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
 
+import androidx.annotation.NonNull;
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
+import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Example local unit test, which will execute on the development machine (host).
@@ -46,11 +57,7 @@ import static org.junit.Assert.assertEquals;
 //TODO revisit this
 public class LowerTransportLayerTests {
 
-    @Rule
-    public MockitoRule rule = MockitoJUnit.rule();
-
-    @Mock
-    Context context;
+    private final VirtualClockScheduler scheduler = new VirtualClockScheduler();
 
     @Test
     public void create_unsegmented_access_message_isCorrect() {
@@ -65,7 +72,7 @@ public class LowerTransportLayerTests {
         final int akf = 0;
         final byte[] upperTransportPdu = MeshParserUtils.toByteArray("89511bf1d1a81c11dcef".toUpperCase(Locale.US));
 
-        final MeshTransport meshLayerTestBase = new MeshTransport(context);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler);
         final AccessMessage accessMessage = new AccessMessage();
         accessMessage.setSrc(src);
         accessMessage.setDst(dst);
@@ -78,7 +85,7 @@ public class LowerTransportLayerTests {
 
         meshLayerTestBase.createLowerTransportAccessPDU(accessMessage);
 
-        final SparseArray<byte[]> actualTransportAccessPdu = accessMessage.getLowerTransportAccessPdu();
+        final SortedMap<Integer, byte[]> actualTransportAccessPdu = accessMessage.getLowerTransportAccessPduMap();
         Assert.assertArrayEquals(expectedLowerTransportPdu, actualTransportAccessPdu.get(0));
     }
 
@@ -86,7 +93,7 @@ public class LowerTransportLayerTests {
     public void create_segmented_access_message_isCorrect() {
         //Message #6
 
-        final SparseArray<String> expectedSegmentedTransportPDU = new SparseArray<>();
+        final SortedMap<Integer, String> expectedSegmentedTransportPDU = new TreeMap<>();
         expectedSegmentedTransportPDU.put(0, "8026ac01ee9dddfd2169326d23f3afdf".toUpperCase(Locale.US));
         expectedSegmentedTransportPDU.put(1, "8026ac21cfdc18c52fdef772e0e17308".toUpperCase(Locale.US));
 
@@ -99,7 +106,7 @@ public class LowerTransportLayerTests {
         final int akf = 0;
         final byte[] upperTransportPdu = MeshParserUtils.toByteArray("ee9dddfd2169326d23f3afdfcfdc18c52fdef772e0e17308".toUpperCase(Locale.US));
 
-        final MeshTransport meshLayerTestBase = new MeshTransport(context);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler);
         final AccessMessage accessMessage = new AccessMessage();
         accessMessage.setSrc(src);
         accessMessage.setDst(dst);
@@ -112,7 +119,7 @@ public class LowerTransportLayerTests {
 
         meshLayerTestBase.createLowerTransportAccessPDU(accessMessage);
 
-        final SparseArray<byte[]> actualSegmentedTransportPdu = accessMessage.getLowerTransportAccessPdu();
+        final SortedMap<Integer, byte[]> actualSegmentedTransportPdu = accessMessage.getLowerTransportAccessPduMap();
 
         Assert.assertTrue("Segment count does not match", expectedSegmentedTransportPDU.size() != actualSegmentedTransportPdu.size());
 
@@ -138,7 +145,7 @@ public class LowerTransportLayerTests {
         final int akf = 0;
         final byte[] upperTransportPdu = MeshParserUtils.toByteArray("4b50057e400000010000".toUpperCase(Locale.US));
 
-        final MeshTransport meshLayerTestBase = new MeshTransport(context);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler);
         final ControlMessage controlMessage = new ControlMessage();
         controlMessage.setSrc(src);
         controlMessage.setDst(dst);
@@ -150,7 +157,207 @@ public class LowerTransportLayerTests {
         controlMessage.setTransportControlPdu(upperTransportPdu);
 
         meshLayerTestBase.createLowerTransportControlPDU(controlMessage);
-        final SparseArray<byte[]> actualTransportAccessPdu = controlMessage.getLowerTransportControlPdu();
+        final SortedMap<Integer, byte[]> actualTransportAccessPdu = controlMessage.getLowerTransportControlPduMap();
         Assert.assertArrayEquals(expectedLowerTransportPdu, actualTransportAccessPdu.get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void reassemble_interleaved_segmented_access_messages_isCorrect() {
+        final MeshTransport meshTransport = new MeshTransport(scheduler, new ProvisionedMeshNode());
+        final byte[] first = MeshParserUtils.toByteArray("000102030405060708090A0B0C0D0E0F1011");
+        final byte[] second = MeshParserUtils.toByteArray("F0F1F2F3F4F5F6F7F8F9FAFBFCFDFEFF0001");
+
+        // Segments of two messages from different sources arrive interleaved and out of order.
+        assertNull(parseSegment(meshTransport, 0x0002, 0x0100, 0, 1, first));
+        assertNull(parseSegment(meshTransport, 0x0003, 0x0200, 1, 1, second));
+        final AccessMessage firstMessage = parseSegment(meshTransport, 0x0002, 0x0100, 1, 1, first);
+        final AccessMessage secondMessage = parseSegment(meshTransport, 0x0003, 0x0200, 0, 1, second);
+
+        assertNotNull(firstMessage);
+        assertNotNull(secondMessage);
+        meshTransport.reassembleLowerTransportAccessPDU(firstMessage);
+        meshTransport.reassembleLowerTransportAccessPDU(secondMessage);
+        assertArrayEquals(first, firstMessage.getUpperTransportPdu());
+        assertArrayEquals(second, secondMessage.getUpperTransportPdu());
+        assertEquals(2, firstMessage.getNetworkLayerPduMap().size());
+        // The network pdus are kept by segment offset regardless of the order they arrived in
+        assertArrayEquals(MeshParserUtils.getSequenceNumberBytes(0x0200),
+                Arrays.copyOfRange(secondMessage.getNetworkLayerPduMap().get(0), 3, 6));
+        assertArrayEquals(MeshParserUtils.getSequenceNumberBytes(0x0201),
+                Arrays.copyOfRange(secondMessage.getNetworkLayerPduMap().get(1), 3, 6));
+    }
+
+    @Test
+    public void reassemble_segmented_access_messages_limit_isRespected() {
+        final MeshTransport meshTransport = new MeshTransport(scheduler, new ProvisionedMeshNode());
+        meshTransport.setMaxConcurrentReassemblies(1);
+        final byte[] payload = MeshParserUtils.toByteArray("000102030405060708090A0B0C0D0E0F1011");
+
+        assertNull(parseSegment(meshTransport, 0x0002, 0x0100, 0, 1, payload));
+        // A second message cannot be reassembled while the first one is in progress.
+        assertNull(parseSegment(meshTransport, 0x0003, 0x0200, 0, 1, payload));
+        assertNull(parseSegment(meshTransport, 0x0003, 0x0200, 1, 1, payload));
+        assertNotNull(parseSegment(meshTransport, 0x0002, 0x0100, 1, 1, payload));
+    }
+
+    @Test
+    public void reassemble_sample_segmented_access_message_isCorrect() throws ExtendedInvalidCipherTextException {
+        // Message #6 of the sample data, a Config AppKey Add sent from 0x0003 to 0x1201
+        final ProvisionedMeshNode node = new ProvisionedMeshNode();
+        node.setUnicastAddress(0x1201);
+        final MeshTransport meshTransport = new MeshTransport(scheduler, node);
+        meshTransport.setUpperTransportLayerCallbacks(createUpperTransportLayerCallbacks(node));
+        final List<ControlMessage> acknowledgements = new ArrayList<>();
+        meshTransport.setLowerTransportLayerCallbacks(createLowerTransportLayerCallbacks(acknowledgements, new int[1]));
+
+        final byte[] sequenceNumber = MeshParserUtils.toByteArray("3129ab");
+        assertNull(meshTransport.parseSegmentedAccessLowerTransportPDU(4,
+                createSampleNetworkPdu(sequenceNumber, "8026ac01ee9dddfd2169326d23f3afdf"),
+                createSampleNetworkPdu(sequenceNumber, "8026ac01ee9dddfd2169326d23f3afdf"), 0x12345678, sequenceNumber));
+        assertTrue(acknowledgements.isEmpty());
+        final byte[] nextSequenceNumber = MeshParserUtils.toByteArray("3129ac");
+        final AccessMessage message = meshTransport.parseSegmentedAccessLowerTransportPDU(4,
+                createSampleNetworkPdu(nextSequenceNumber, "8026ac21cfdc18c52fdef772e0e17308"),
+                createSampleNetworkPdu(nextSequenceNumber, "8026ac21cfdc18c52fdef772e0e17308"), 0x12345678, nextSequenceNumber);
+
+        assertNotNull(message);
+        meshTransport.reassembleLowerTransportAccessPDU(message);
+        assertArrayEquals(MeshParserUtils.toByteArray("ee9dddfd2169326d23f3afdfcfdc18c52fdef772e0e17308"),
+                message.getUpperTransportPdu());
+        message.setSrc(0x0003);
+        message.setDst(0x1201);
+        message.setIvIndex(MeshParserUtils.toByteArray("12345678"));
+        UpperTransportLayer.decryptAccessMessage(message,
+                UpperTransportKeys.ofDeviceKey(MeshParserUtils.toByteArray("9d6dd0e96eb25dc19a40ed9914f8f03f")));
+        assertEquals(ConfigMessageOpCodes.CONFIG_APPKEY_ADD, message.getOpCode());
+        assertArrayEquals(MeshParserUtils.toByteArray("56341263964771734fbd76e3b40519d1d94a48"), message.getParameters());
+
+        // Both segments are acknowledged at once as soon as the message has been reassembled
+        assertEquals(1, acknowledgements.size());
+        assertEquals(0x0003, acknowledgements.get(0).getDst());
+        assertArrayEquals(MeshParserUtils.toByteArray("26ac00000003"), acknowledgements.get(0).getTransportControlPdu());
+        assertEquals(0, scheduler.getPendingTaskCount());
+    }
+
+    @Test
+    public void incomplete_timer_discards_partial_message() {
+        final MeshTransport meshTransport = new MeshTransport(scheduler, new ProvisionedMeshNode());
+        meshTransport.setMaxConcurrentReassemblies(1);
+        final int[] expired = new int[1];
+        meshTransport.setLowerTransportLayerCallbacks(createLowerTransportLayerCallbacks(new ArrayList<ControlMessage>(), expired));
+        final byte[] payload = MeshParserUtils.toByteArray("000102030405060708090A0B0C0D0E0F1011");
+
+        assertNull(parseSegment(meshTransport, 0x0002, 0x0100, 0, 1, payload));
+        assertEquals(1, scheduler.getPendingTaskCount());
+        // The partial message takes the only reassembly context
+        assertNull(parseSegment(meshTransport, 0x0003, 0x0200, 0, 1, payload));
+        scheduler.advanceBy(9999);
+        assertEquals(0, expired[0]);
+        scheduler.advanceBy(1);
+        assertEquals(1, expired[0]);
+        assertEquals(0, scheduler.getPendingTaskCount());
+
+        // The context has been released, another message can be reassembled
+        assertNull(parseSegment(meshTransport, 0x0003, 0x0200, 0, 1, payload));
+        final AccessMessage message = parseSegment(meshTransport, 0x0003, 0x0200, 1, 1, payload);
+        assertNotNull(message);
+        meshTransport.reassembleLowerTransportAccessPDU(message);
+        assertArrayEquals(payload, message.getUpperTransportPdu());
+        scheduler.advanceBy(10000);
+        assertEquals(1, expired[0]);
+    }
+
+    private static LowerTransportLayerCallbacks createLowerTransportLayerCallbacks(final List<ControlMessage> acknowledgements,
+                                                                                  final int[] expired) {
+        return new LowerTransportLayerCallbacks() {
+            @Override
+            public void sendSegmentAcknowledgementMessage(final ControlMessage controlMessage) {
+                acknowledgements.add(controlMessage);
+            }
+
+            @Override
+            public void onIncompleteTimerExpired() {
+                expired[0]++;
+            }
+
+            @Override
+            public int getTtl() {
+                return 5;
+            }
+        };
+    }
+
+    private static UpperTransportLayerCallbacks createUpperTransportLayerCallbacks(final ProvisionedMeshNode node) {
+        return new UpperTransportLayerCallbacks() {
+            @Override
+            public ProvisionedMeshNode getNode(final int unicastAddress) {
+                return node;
+            }
+
+            @Override
+            public byte[] getIvIndex() {
+                return MeshParserUtils.toByteArray("12345678");
+            }
+
+            @Override
+            public byte[] getApplicationKey(final int aid) {
+                return null;
+            }
+
+            @Override
+            public List<ApplicationKey> getApplicationKeys(final int boundNetKeyIndex) {
+                return Collections.emptyList();
+            }
+
+            @NonNull
+            @Override
+            public List<UUID> getVirtualGroupLabels(final int address) {
+                return Collections.emptyList();
+            }
+        };
+    }
+
+    /**
+     * Returns a decrypted network pdu of the sample data sent from 0x0003 to 0x1201.
+     */
+    private static byte[] createSampleNetworkPdu(final byte[] sequenceNumber, final String lowerTransportPdu) {
+        final byte[] pdu = MeshParserUtils.toByteArray(lowerTransportPdu);
+        return ByteBuffer.allocate(10 + pdu.length).order(ByteOrder.BIG_ENDIAN)
+                .put((byte) 0x00)
+                .put((byte) 0x68)
+                .put((byte) 0x04)
+                .put(sequenceNumber)
+                .putShort((short) 0x0003)
+                .putShort((short) 0x1201)
+                .put(pdu)
+                .array();
+    }
+
+    /**
+     * Creates a segment of a segmented access message sent to a group address and passes it to the lower transport layer.
+     */
+    private AccessMessage parseSegment(final MeshTransport meshTransport,
+                                       final int src,
+                                       final int seqZero,
+                                       final int segO,
+                                       final int segN,
+                                       final byte[] upperTransportPdu) {
+        final int offset = segO * 12;
+        final int length = Math.min(12, upperTransportPdu.length - offset);
+        final byte[] sequenceNumber = MeshParserUtils.getSequenceNumberBytes(seqZero + segO);
+        final byte[] pdu = ByteBuffer.allocate(14 + length).order(ByteOrder.BIG_ENDIAN)
+                .put((byte) 0x00)
+                .put((byte) 0x68)
+                .put((byte) 0x04)
+                .put(sequenceNumber)
+                .putShort((short) src)
+                .putShort((short) 0xC000)
+                .put((byte) 0xE6)
+                .put((byte) ((seqZero >> 6) & 0x7F))
+                .put((byte) (((seqZero << 2) & 0xFC) | ((segO >> 3) & 0x03)))
+                .put((byte) (((segO << 5) & 0xE0) | (segN & 0x1F)))
+                .put(upperTransportPdu, offset, length)
+                .array();
+        return meshTransport.parseSegmentedAccessLowerTransportPDU(4, pdu, pdu, 0, sequenceNumber);
+    }
+}
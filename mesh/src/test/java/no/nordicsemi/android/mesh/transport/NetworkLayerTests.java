@@ -22,22 +22,17 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.content.Context;
-import android.util.SparseArray;
-
-
 import org.junit.Assert;
-import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.Mock;
-import org.mockito.junit.MockitoJUnit;
-import org.mockito.junit.MockitoRule;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 import no.nordicsemi.android.mesh.utils.SecureUtils;
 
@@ -51,11 +46,7 @@ import static org.junit.Assert.assertEquals;
 //TODO revisit this
 public class NetworkLayerTests {
 
-    @Rule
-    public MockitoRule rule = MockitoJUnit.rule();
-
-    @Mock
-    private Context context;
+    private final VirtualClockScheduler scheduler = new VirtualClockScheduler();
 
     @Test
     public void create_network_pdu_isCorrect() {
@@ -78,20 +69,20 @@ public class NetworkLayerTests {
 
         final ProvisionedMeshNode meshNode = new ProvisionedMeshNode();
 
-        final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
         final AccessMessage accessMessage = new AccessMessage();
         accessMessage.setTtl(ttl);
         accessMessage.setSrc(src);
         accessMessage.setDst(dst);
         accessMessage.setSequenceNumber(sequenceNumber);
         accessMessage.setIvIndex(ivIndex);
-        final SparseArray<byte[]> lowerTransportAccessPdu = new SparseArray<>();
+        final SortedMap<Integer, byte[]> lowerTransportAccessPdu = new TreeMap<>();
         lowerTransportAccessPdu.put(0, lowerTransportPdu);
-        accessMessage.setLowerTransportAccessPdu(lowerTransportAccessPdu);
+        accessMessage.setLowerTransportAccessPduMap(lowerTransportAccessPdu);
 
         final Message message = meshLayerTestBase.createNetworkLayerPDU(accessMessage);
 
-        final SparseArray<byte[]> actualNetworkTransportPdu = message.getNetworkLayerPdu();
+        final SortedMap<Integer, byte[]> actualNetworkTransportPdu = message.getNetworkLayerPduMap();
 
         Assert.assertFalse("Segment count does not match", expectedNetworkPdu.size() != actualNetworkTransportPdu.size());
 
@@ -126,21 +117,21 @@ public class NetworkLayerTests {
         final SecureUtils.K2Output k2Output = SecureUtils.calculateK2(netkey, SecureUtils.K2_MASTER_INPUT);
         final ProvisionedMeshNode meshNode = new ProvisionedMeshNode();
 
-        final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
         final AccessMessage accessMessage = new AccessMessage();
         accessMessage.setTtl(ttl);
         accessMessage.setSrc(src);
         accessMessage.setDst(dst);
         accessMessage.setSequenceNumber(sequenceNumber);
         accessMessage.setIvIndex(ivIndex);
-        final SparseArray<byte[]> lowerTransportAccessPdu = new SparseArray<>();
+        final SortedMap<Integer, byte[]> lowerTransportAccessPdu = new TreeMap<>();
         lowerTransportAccessPdu.put(0, lowerTransportPdu0);
         lowerTransportAccessPdu.put(1, lowerTransportPdu1);
-        accessMessage.setLowerTransportAccessPdu(lowerTransportAccessPdu);
+        accessMessage.setLowerTransportAccessPduMap(lowerTransportAccessPdu);
 
         final Message message = meshLayerTestBase.createNetworkLayerPDU(accessMessage);
 
-        final SparseArray<byte[]> actualNetworkTransportPdu = message.getNetworkLayerPdu();
+        final SortedMap<Integer, byte[]> actualNetworkTransportPdu = message.getNetworkLayerPduMap();
 
         Assert.assertFalse("Segment count does not match", expectedNetworkPdu.size() != actualNetworkTransportPdu.size());
 
@@ -164,7 +155,7 @@ public class NetworkLayerTests {
         meshNode.setDeviceKey(MeshParserUtils.toByteArray("9d6dd0e96eb25dc19a40ed9914f8f03f"));
         final byte[] pdu = MeshParserUtils.toByteArray("0068e80e5da5af0e6b9be7f5a642f2f98680e61c3a8b47f228");
 
-        /*final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        /*final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
         try {
             final Message message = meshLayerTestBase.parsePdu(pdu);
             final String actualAccessPayload = MeshParserUtils.bytesToHex(((AccessMessage) message).getAccessPdu(), false);
@@ -188,7 +179,7 @@ public class NetworkLayerTests {
         final ArrayList<byte[]> segmentedPdu = new ArrayList<>();
         segmentedPdu.add(MeshParserUtils.toByteArray("0068cab5c5348a230afba8c63d4e686364979deaf4fd40961145939cda0e"));
         segmentedPdu.add(MeshParserUtils.toByteArray("00681615b5dd4a846cae0c032bf0746f44f1b8cc8ce5edc57e55beed49c0"));
-        final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
 
         /*try {
             for (byte[] pdu : segmentedPdu) {
@@ -224,20 +215,20 @@ public class NetworkLayerTests {
         final SecureUtils.K2Output k2Output = SecureUtils.calculateK2(netkey, SecureUtils.K2_MASTER_INPUT);
         final ProvisionedMeshNode meshNode = new ProvisionedMeshNode();
 
-        final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
         final AccessMessage accessMessage = new AccessMessage();
         accessMessage.setTtl(ttl);
         accessMessage.setSrc(src);
         accessMessage.setDst(dst);
         accessMessage.setSequenceNumber(sequenceNumber);
         accessMessage.setIvIndex(ivIndex);
-        final SparseArray<byte[]> lowerTransportAccessPdu = new SparseArray<>();
+        final SortedMap<Integer, byte[]> lowerTransportAccessPdu = new TreeMap<>();
         lowerTransportAccessPdu.put(0, lowerTransportPdu0);
-        accessMessage.setLowerTransportAccessPdu(lowerTransportAccessPdu);
+        accessMessage.setLowerTransportAccessPduMap(lowerTransportAccessPdu);
 
         final Message message = meshLayerTestBase.createNetworkLayerPDU(accessMessage);
 
-        final SparseArray<byte[]> actualNetworkTransportPdu = message.getNetworkLayerPdu();
+        final SortedMap<Integer, byte[]> actualNetworkTransportPdu = message.getNetworkLayerPduMap();
 
         Assert.assertFalse("Segment count does not match", expectedProxyConfigurationPdu.size() != actualNetworkTransportPdu.size());
 
@@ -0,0 +1,79 @@
+package no.nordicsemi.android.mesh.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.UUID;
+
+import no.nordicsemi.android.mesh.MeshNetwork;
+import no.nordicsemi.android.mesh.NetworkKey;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class NidLookupTableTest {
+
+    @Test
+    public void testGetCandidates() {
+        final NetworkKey primaryKey = new NetworkKey(0, MeshParserUtils.toByteArray("7dd7364cd842ad18c17c2b820c84c3d6"));
+        final NetworkKey secondaryKey = new NetworkKey(1, MeshParserUtils.toByteArray("f7a2a44f8e8a8029064f173ddc1e2b00"));
+        final MeshNetwork network = new MeshNetwork(UUID.randomUUID().toString());
+        network.addNetKey(primaryKey);
+        network.addNetKey(secondaryKey);
+
+        final NidLookupTable table = new NidLookupTable();
+        final int nid = primaryKey.getDerivatives().getNid();
+        final NidLookupTable.Candidate[] candidates = table.getCandidates(network, nid);
+        assertTrue(table.isIndexed(network));
+        assertEquals(1, candidates.length);
+        assertSame(primaryKey, candidates[0].networkKey);
+        assertSame(primaryKey.getDerivatives(), candidates[0].k2Output);
+    }
+
+    @Test
+    public void testKeyRefreshRebuildsTable() {
+        final NetworkKey networkKey = new NetworkKey(0, MeshParserUtils.toByteArray("7dd7364cd842ad18c17c2b820c84c3d6"));
+        final MeshNetwork network = new MeshNetwork(UUID.randomUUID().toString());
+        network.addNetKey(networkKey);
+
+        final NidLookupTable table = new NidLookupTable();
+        final int oldNid = networkKey.getDerivatives().getNid();
+        table.getCandidates(network, oldNid);
+
+        networkKey.setOldKey(networkKey.getKey());
+        networkKey.setKey(MeshParserUtils.toByteArray("f7a2a44f8e8a8029064f173ddc1e2b00"));
+        assertFalse(table.isIndexed(network));
+
+        final NidLookupTable.Candidate[] oldCandidates = table.getCandidates(network, oldNid);
+        assertTrue(table.isIndexed(network));
+        assertEquals(1, oldCandidates.length);
+        assertSame(networkKey.getOldDerivatives(), oldCandidates[0].k2Output);
+
+        final NidLookupTable.Candidate[] newCandidates = table.getCandidates(network, networkKey.getDerivatives().getNid());
+        assertEquals(1, newCandidates.length);
+        assertSame(networkKey.getDerivatives(), newCandidates[0].k2Output);
+    }
+
+    @Test
+    public void testAddingKeyRebuildsTable() {
+        final NetworkKey primaryKey = new NetworkKey(0, MeshParserUtils.toByteArray("7dd7364cd842ad18c17c2b820c84c3d6"));
+        final NetworkKey secondaryKey = new NetworkKey(1, MeshParserUtils.toByteArray("f7a2a44f8e8a8029064f173ddc1e2b00"));
+        final MeshNetwork network = new MeshNetwork(UUID.randomUUID().toString());
+        network.addNetKey(primaryKey);
+
+        final NidLookupTable table = new NidLookupTable();
+        final int nid = secondaryKey.getDerivatives().getNid();
+        assertEquals(0, table.getCandidates(network, nid).length);
+        assertTrue(table.isIndexed(network));
+        // Another network is indexed separately even though the keys have not changed
+        assertFalse(table.isIndexed(new MeshNetwork(UUID.randomUUID().toString())));
+
+        network.addNetKey(secondaryKey);
+        assertFalse(table.isIndexed(network));
+        final NidLookupTable.Candidate[] candidates = table.getCandidates(network, nid);
+        assertEquals(1, candidates.length);
+        assertSame(secondaryKey, candidates[0].networkKey);
+    }
+}
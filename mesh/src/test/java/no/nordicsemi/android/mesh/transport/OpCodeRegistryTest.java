@@ -0,0 +1,90 @@
+package no.nordicsemi.android.mesh.transport;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import no.nordicsemi.android.mesh.opcodes.ApplicationMessageOpCodes;
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class OpCodeRegistryTest {
+
+    private static final int COMPANY_IDENTIFIER = 0x0059;
+
+    @Test
+    public void testSigStatusMessagesAreRegistered() {
+        final OpCodeRegistry registry = new OpCodeRegistry();
+        assertNotNull(registry.get(createAccessMessage(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS)));
+        assertNotNull(registry.get(createAccessMessage(ConfigMessageOpCodes.CONFIG_APPKEY_STATUS)));
+        assertNotNull(registry.get(createAccessMessage(ApplicationMessageOpCodes.GENERIC_ON_OFF_STATUS)));
+        assertNull(registry.get(createAccessMessage(ApplicationMessageOpCodes.GENERIC_ON_OFF_GET)));
+    }
+
+    @Test
+    public void testVendorStatusRegistration() {
+        final OpCodeRegistry registry = new OpCodeRegistry();
+        // The 6-bit vendor opcode equals the single octet opcode of the composition data status
+        final AccessMessage vendorMessage = createVendorAccessMessage(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS);
+        assertNull(registry.get(vendorMessage));
+
+        final OpCodeRegistry.StatusDecoder<VendorModelMessageStatus> decoder = message -> new VendorModelMessageStatus(message, 0x00590001);
+        registry.registerVendorModelStatus(COMPANY_IDENTIFIER, 0xC0 | ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS, decoder);
+        final OpCodeRegistry.Entry<?> entry = registry.get(vendorMessage);
+        assertNotNull(entry);
+        assertSame(decoder, entry.decoder);
+        assertNotSame(entry, registry.get(createAccessMessage(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS)));
+
+        registry.unregisterVendorModelStatus(COMPANY_IDENTIFIER, ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS);
+        assertNull(registry.get(vendorMessage));
+    }
+
+    @Test
+    public void testManyVendorStatusRegistrations() {
+        final OpCodeRegistry registry = new OpCodeRegistry();
+        final OpCodeRegistry.StatusDecoder<VendorModelMessageStatus> decoder = message -> new VendorModelMessageStatus(message, 0x00590001);
+        for (int opCode = 0x3F; opCode >= 0; opCode--) {
+            registry.registerVendorModelStatus(COMPANY_IDENTIFIER, opCode, decoder);
+        }
+        for (int opCode = 0; opCode <= 0x3F; opCode += 2) {
+            registry.unregisterVendorModelStatus(COMPANY_IDENTIFIER, opCode);
+        }
+        for (int opCode = 0; opCode <= 0x3F; opCode++) {
+            final OpCodeRegistry.Entry<?> entry = registry.get(createVendorAccessMessage(opCode));
+            if (opCode % 2 == 0) {
+                assertNull(entry);
+            } else {
+                assertNotNull(entry);
+                assertSame(decoder, entry.decoder);
+            }
+        }
+        assertNotNull(registry.get(createAccessMessage(ConfigMessageOpCodes.CONFIG_COMPOSITION_DATA_STATUS)));
+        assertNotNull(registry.get(createAccessMessage(ApplicationMessageOpCodes.GENERIC_ON_OFF_STATUS)));
+    }
+
+    @Test
+    public void testInvalidVendorStatusRegistration() {
+        final OpCodeRegistry registry = new OpCodeRegistry();
+        assertThrows(IllegalArgumentException.class, () -> registry.unregisterVendorModelStatus(0x10000, 0x01));
+        assertThrows(IllegalArgumentException.class, () -> registry.unregisterVendorModelStatus(COMPANY_IDENTIFIER, 0x100));
+    }
+
+    private static AccessMessage createAccessMessage(final int opCode) {
+        final AccessMessage message = new AccessMessage();
+        message.setAccessPdu(MeshParserUtils.getOpCode(opCode));
+        message.setOpCode(opCode);
+        return message;
+    }
+
+    private static AccessMessage createVendorAccessMessage(final int opCode) {
+        final AccessMessage message = new AccessMessage();
+        message.setAccessPdu(MeshParserUtils.createVendorOpCode(opCode, COMPANY_IDENTIFIER));
+        message.setOpCode(opCode);
+        message.setCompanyIdentifier(COMPANY_IDENTIFIER);
+        return message;
+    }
+}
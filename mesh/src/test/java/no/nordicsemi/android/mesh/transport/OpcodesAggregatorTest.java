@@ -0,0 +1,73 @@
+package no.nordicsemi.android.mesh.transport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import no.nordicsemi.android.mesh.opcodes.ConfigMessageOpCodes;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class OpcodesAggregatorTest {
+
+    private static final int ELEMENT_ADDRESS = 0x0002;
+    private static final int GENERIC_ON_OFF_SERVER = 0x1000;
+
+    @Test
+    public void testSequencesArePackedWithinSegmentationLimit() {
+        final List<MeshMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            messages.add(new ConfigModelAppBind(ELEMENT_ADDRESS, GENERIC_ON_OFF_SERVER, i));
+        }
+        for (int i = 0; i < 40; i++) {
+            messages.add(new ConfigModelSubscriptionAdd(ELEMENT_ADDRESS, 0xC000 + i, GENERIC_ON_OFF_SERVER));
+        }
+        final List<ConfigOpcodesAggregatorSequence> sequences = ConfigOpcodesAggregatorSequence.create(ELEMENT_ADDRESS, messages);
+        assertEquals(2, sequences.size());
+        int count = 0;
+        for (ConfigOpcodesAggregatorSequence sequence : sequences) {
+            assertTrue(sequence.getParameters().length + 2 <= OpcodesAggregatorItems.MAX_ACCESS_PAYLOAD_LENGTH);
+            count += sequence.getItems().size();
+        }
+        assertEquals(messages.size(), count);
+        assertEquals(messages.get(0), sequences.get(0).getItems().get(0));
+    }
+
+    @Test
+    public void testSequenceParameters() {
+        final ConfigModelAppBind bind = new ConfigModelAppBind(ELEMENT_ADDRESS, GENERIC_ON_OFF_SERVER, 1);
+        final ConfigOpcodesAggregatorSequence sequence =
+                new ConfigOpcodesAggregatorSequence(ELEMENT_ADDRESS, Collections.singletonList(bind));
+        // Element address followed by an item of 8 octets: the 2-octet opcode and the 6 octets of parameters
+        assertArrayEquals(MeshParserUtils.toByteArray("02001080" + "3D" + "0200" + "0100" + "0010"), sequence.getParameters());
+        assertArrayEquals(new byte[]{(byte) 0xB8, 0x09}, MeshParserUtils.getOpCode(sequence.getOpCode()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new ConfigOpcodesAggregatorSequence(ELEMENT_ADDRESS, Collections.singletonList(sequence)));
+    }
+
+    @Test
+    public void testStatusItemsAreParsed() {
+        final AccessMessage message = new AccessMessage();
+        message.setSrc(ELEMENT_ADDRESS);
+        message.setOpCode(ConfigMessageOpCodes.OPCODES_AGGREGATOR_STATUS);
+        // Success, element address and a Config Model App Status item for a SIG model
+        message.setParameters(MeshParserUtils.toByteArray("00" + "0200" + "12" + "803E" + "00" + "0200" + "0100" + "0010"));
+
+        final OpcodesAggregatorStatus status = new OpcodesAggregatorStatus(message);
+        assertTrue(status.isSuccessful());
+        assertEquals(ELEMENT_ADDRESS, status.getElementAddress());
+        assertEquals(1, status.getItems().size());
+
+        final AccessMessage item = status.getItems().get(0);
+        assertEquals(ConfigMessageOpCodes.CONFIG_MODEL_APP_STATUS, item.getOpCode());
+        final ConfigModelAppStatus appStatus = new ConfigModelAppStatus(item);
+        assertEquals(1, appStatus.getAppKeyIndex());
+        assertEquals(GENERIC_ON_OFF_SERVER, appStatus.getModelIdentifier());
+    }
+}
@@ -0,0 +1,83 @@
+package no.nordicsemi.android.mesh.transport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import no.nordicsemi.android.mesh.NetworkKey;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+
+public class ReceivePipelineTest {
+
+    private static final int PDU_COUNT = 200;
+    private static final int SOURCE_COUNT = 4;
+
+    @Test
+    public void testPdusAreDeliveredInOrderOfReception() throws InterruptedException {
+        final NetworkKey networkKey = new NetworkKey(0, MeshParserUtils.toByteArray("7dd7364cd842ad18c17c2b820c84c3d6"));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final ExecutorService deliveryExecutor = Executors.newSingleThreadExecutor();
+        final Random random = new Random(42);
+        final List<Integer> delivered = new ArrayList<>();
+        final Map<Integer, List<Integer>> processed = new HashMap<>();
+        final CountDownLatch latch = new CountDownLatch(PDU_COUNT - PDU_COUNT / 10);
+
+        final ReceivePipeline[] pipeline = new ReceivePipeline[1];
+        pipeline[0] = new ReceivePipeline(executor, deliveryExecutor, (pdu, candidates, ivIndex) -> {
+            try {
+                Thread.sleep(random.nextInt(3));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // Every tenth pdu cannot be decoded
+            final int index = pdu[0] & 0xFF;
+            if (index % 10 == 9)
+                return null;
+            return new DecodedNetworkPdu(networkKey, pdu, new byte[6], new byte[0], ivIndex, new byte[3], index % SOURCE_COUNT);
+        }, decodedPdu -> {
+            final int index = decodedPdu.pdu[0] & 0xFF;
+            delivered.add(index);
+            pipeline[0].executeForSource(decodedPdu.src, () -> {
+                synchronized (processed) {
+                    List<Integer> indexes = processed.get(decodedPdu.src);
+                    if (indexes == null) {
+                        indexes = new ArrayList<>();
+                        processed.put(decodedPdu.src, indexes);
+                    }
+                    indexes.add(index);
+                }
+                latch.countDown();
+            });
+        });
+
+        for (int i = 0; i < PDU_COUNT; i++) {
+            pipeline[0].submit(new byte[]{(byte) i}, new NidLookupTable.Candidate[0], 0);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+        deliveryExecutor.shutdown();
+        assertTrue(deliveryExecutor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(PDU_COUNT - PDU_COUNT / 10, delivered.size());
+        for (int i = 1; i < delivered.size(); i++) {
+            assertTrue(delivered.get(i - 1) < delivered.get(i));
+        }
+        assertEquals(SOURCE_COUNT, processed.size());
+        for (List<Integer> indexes : processed.values()) {
+            for (int i = 1; i < indexes.size(); i++) {
+                assertTrue(indexes.get(i - 1) < indexes.get(i));
+            }
+        }
+    }
+}
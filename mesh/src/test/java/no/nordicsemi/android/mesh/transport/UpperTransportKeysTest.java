@@ -0,0 +1,96 @@
+package no.nordicsemi.android.mesh.transport;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+
+import no.nordicsemi.android.mesh.ApplicationKey;
+import no.nordicsemi.android.mesh.utils.ExtendedInvalidCipherTextException;
+import no.nordicsemi.android.mesh.utils.MeshAddress;
+import no.nordicsemi.android.mesh.utils.MeshParserUtils;
+import no.nordicsemi.android.mesh.utils.SecureUtils;
+
+public class UpperTransportKeysTest {
+
+    private static final byte[] SEQUENCE_NUMBER = {0x00, 0x00, 0x06};
+    private static final byte[] IV_INDEX = MeshParserUtils.toByteArray("12345678");
+    private static final byte[] ACCESS_PDU = MeshParserUtils.toByteArray("800300563412");
+
+    @Test
+    public void testDecryptWithDeviceKeySnapshot() throws ExtendedInvalidCipherTextException {
+        // Message #16 of the sample data
+        final byte[] deviceKey = MeshParserUtils.toByteArray("9d6dd0e96eb25dc19a40ed9914f8f03f");
+        final AccessMessage message = createAccessMessage(0, 0, 0x0003, MeshParserUtils.toByteArray("89511bf1d1a81c11dcef"));
+
+        final UpperTransportKeys keys = UpperTransportKeys.ofDeviceKey(deviceKey);
+        Arrays.fill(deviceKey, (byte) 0);
+        UpperTransportLayer.decryptAccessMessage(message, keys);
+
+        assertArrayEquals(ACCESS_PDU, message.getAccessPdu());
+        assertEquals(0x8003, message.getOpCode());
+        assertArrayEquals(MeshParserUtils.toByteArray("00563412"), message.getParameters());
+    }
+
+    @Test
+    public void testDecryptWithApplicationKeySnapshot() throws ExtendedInvalidCipherTextException {
+        final ApplicationKey applicationKey = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734fbd76e3b40519d1d94a48"));
+        final byte[] upperTransportPdu = SecureUtils.encryptCCM(ACCESS_PDU, applicationKey.getKey(), createApplicationNonce(0x0003), 4);
+        final AccessMessage message = createAccessMessage(1, applicationKey.getAid(), 0x0003, upperTransportPdu);
+
+        final UpperTransportKeys keys = UpperTransportKeys.ofApplicationKeys(Collections.singletonList(applicationKey),
+                Collections.<UUID>emptyList());
+        // The key may be updated on the thread the network is used on while the message is being decrypted
+        applicationKey.setKey(MeshParserUtils.toByteArray("f7a2a44f8e8a8029064f173ddc1e2b00"));
+        UpperTransportLayer.decryptAccessMessage(message, keys);
+
+        assertArrayEquals(ACCESS_PDU, message.getAccessPdu());
+    }
+
+    @Test
+    public void testDecryptWithEachLabel() throws ExtendedInvalidCipherTextException {
+        final ApplicationKey applicationKey = new ApplicationKey(0, MeshParserUtils.toByteArray("63964771734fbd76e3b40519d1d94a48"));
+        // Both label UUIDs hash to the virtual address 0xA0D6
+        final UUID label = UUID.fromString("f22c88bd-8d43-7311-afb9-ea12a8a60235");
+        final UUID otherLabel = UUID.fromString("ec1c5cfc-f0dc-5082-fefd-f000185b3c0b");
+        final int address = MeshAddress.generateVirtualAddress(otherLabel);
+        final byte[] upperTransportPdu = SecureUtils.encryptCCM(ACCESS_PDU, applicationKey.getKey(), createApplicationNonce(address),
+                MeshParserUtils.uuidToBytes(otherLabel), 4);
+        final AccessMessage message = createAccessMessage(1, applicationKey.getAid(), address, upperTransportPdu);
+
+        final UpperTransportKeys keys = UpperTransportKeys.ofApplicationKeys(Collections.singletonList(applicationKey),
+                Arrays.asList(label, otherLabel));
+        UpperTransportLayer.decryptAccessMessage(message, keys);
+
+        assertArrayEquals(ACCESS_PDU, message.getAccessPdu());
+    }
+
+    private static AccessMessage createAccessMessage(final int akf, final int aid, final int dst, final byte[] upperTransportPdu) {
+        final AccessMessage message = new AccessMessage();
+        message.setAkf(akf);
+        message.setAid(aid);
+        message.setAszmic(0);
+        message.setSequenceNumber(SEQUENCE_NUMBER);
+        message.setSrc(0x1201);
+        message.setDst(dst);
+        message.setIvIndex(IV_INDEX);
+        message.setUpperTransportPdu(upperTransportPdu);
+        return message;
+    }
+
+    private static byte[] createApplicationNonce(final int dst) {
+        return ByteBuffer.allocate(13)
+                .put((byte) 0x01)
+                .put((byte) 0x00)
+                .put(SEQUENCE_NUMBER)
+                .putShort((short) 0x1201)
+                .putShort((short) dst)
+                .put(IV_INDEX)
+                .array();
+    }
+}
@@ -22,18 +22,14 @@
 
 package no.nordicsemi.android.mesh.transport;
 
-import android.content.Context;
 import android.util.Log;
 
-import org.junit.Rule;
 import org.junit.Test;
-import org.mockito.Mock;
 import org.mockito.Mockito;
-import org.mockito.junit.MockitoJUnit;
-import org.mockito.junit.MockitoRule;
 
 import java.util.Locale;
 
+import no.nordicsemi.android.mesh.timer.VirtualClockScheduler;
 import no.nordicsemi.android.mesh.utils.MeshParserUtils;
 
 import static org.junit.Assert.assertEquals;
@@ -46,11 +42,7 @@ import static org.junit.Assert.assertEquals;
 //TODO revisit this
 public class UpperTransportLayerTests {
 
-    @Rule
-    public MockitoRule rule = MockitoJUnit.rule();
-
-    @Mock
-    Context context;
+    private final VirtualClockScheduler scheduler = new VirtualClockScheduler();
 
     @Test
     public void create_upper_transport_pdu_access_message_isCorrect() {
@@ -67,7 +59,7 @@ public class UpperTransportLayerTests {
         final byte[] accessPdu = MeshParserUtils.toByteArray("800300563412");
 
         final ProvisionedMeshNode meshNode = new ProvisionedMeshNode();
-        final MeshTransport meshLayerTestBase = new MeshTransport(context, meshNode);
+        final MeshTransport meshLayerTestBase = new MeshTransport(scheduler, meshNode);
         final AccessMessage accessMessage = new AccessMessage();
         accessMessage.setSrc(src);
         accessMessage.setDst(dst);
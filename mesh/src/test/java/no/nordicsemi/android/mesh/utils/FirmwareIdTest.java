@@ -0,0 +1,43 @@
+package no.nordicsemi.android.mesh.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class FirmwareIdTest {
+
+    @Test
+    public void testParseAndSerialize() {
+        final byte[] data = new byte[]{0x00, 0x59, 0x00, 0x01, 0x02, 0x03, 0x7F};
+        final FirmwareId firmwareId = FirmwareId.parse(data, 1, 5);
+        assertNotNull(firmwareId);
+        assertEquals(0x0059, firmwareId.getCompanyIdentifier());
+        assertArrayEquals(new byte[]{0x01, 0x02, 0x03}, firmwareId.getVersionInformation());
+        assertEquals(5, firmwareId.getLength());
+        assertArrayEquals(new byte[]{0x59, 0x00, 0x01, 0x02, 0x03}, firmwareId.toByteArray());
+        assertEquals(new FirmwareId(0x0059, new byte[]{0x01, 0x02, 0x03}), firmwareId);
+    }
+
+    @Test
+    public void testVersionInformationIsOptional() {
+        final FirmwareId firmwareId = FirmwareId.parse(new byte[]{0x34, 0x12}, 0, 2);
+        assertNotNull(firmwareId);
+        assertEquals(0x1234, firmwareId.getCompanyIdentifier());
+        assertEquals(0, firmwareId.getVersionInformation().length);
+    }
+
+    @Test
+    public void testInvalidLengths() {
+        assertNull(FirmwareId.parse(new byte[]{0x59}, 0, 1));
+        assertNull(FirmwareId.parse(new byte[]{0x59, 0x00}, 1, 2));
+        assertNull(FirmwareId.parse(new byte[FirmwareId.MAX_LENGTH + 1], 0, FirmwareId.MAX_LENGTH + 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testVersionInformationTooLong() {
+        new FirmwareId(0x0059, new byte[FirmwareId.MAX_VERSION_INFORMATION_LENGTH + 1]);
+    }
+}
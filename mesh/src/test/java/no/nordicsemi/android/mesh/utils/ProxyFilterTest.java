@@ -0,0 +1,79 @@
+package no.nordicsemi.android.mesh.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import no.nordicsemi.android.mesh.transport.MeshMessage;
+import no.nordicsemi.android.mesh.transport.ProxyConfigAddAddressToFilter;
+import no.nordicsemi.android.mesh.transport.ProxyConfigRemoveAddressFromFilter;
+
+public class ProxyFilterTest {
+
+    @Test
+    public void testBulkAddAndRemove() {
+        final ProxyFilter filter = new ProxyFilter(new ProxyFilterType(ProxyFilterType.INCLUSION_LIST_FILTER));
+        filter.addAddresses(toAddressArrays(0xC001, 0x0001, 0x8123, 0xC001));
+        filter.addAddress(toAddressArray(0x0002));
+        assertEquals(4, filter.getAddressCount());
+        assertTrue(filter.contains(0x8123));
+        assertTrue(filter.contains(new byte[]{(byte) 0x81, 0x23}));
+        assertEquals(toAddressArrays(0x0001, 0x0002, 0x8123, 0xC001), filter.getAddresses());
+
+        filter.removeAddresses(toAddressArrays(0x0002, 0xC001, 0xC002));
+        assertEquals(toAddressArrays(0x0001, 0x8123), filter.getAddresses());
+        filter.removeAddress(toAddressArray(0x0001));
+        filter.removeAddress(toAddressArray(0x8123));
+        assertTrue(filter.isEmpty());
+        assertFalse(filter.contains(0x0001));
+    }
+
+    @Test
+    public void testSyncMessagesAreMinimalAndPacked() {
+        final ProxyFilter filter = new ProxyFilter(new ProxyFilterType(ProxyFilterType.INCLUSION_LIST_FILTER));
+        filter.addAddresses(toAddressArrays(0x0001, 0xC000, 0xC001));
+
+        final List<Integer> target = new ArrayList<>(Arrays.asList(0x0001, 0xFFFF));
+        for (int i = 0; i < 7; i++) {
+            target.add(0xC010 + i);
+        }
+        final List<MeshMessage> messages = filter.createSyncMessages(target);
+        assertEquals(3, messages.size());
+        assertEquals(toAddressArrays(0xC000, 0xC001), ((ProxyConfigRemoveAddressFromFilter) messages.get(0)).getAddresses());
+        assertEquals(5, ((ProxyConfigAddAddressToFilter) messages.get(1)).getAddresses().size());
+        assertEquals(toAddressArrays(0xC015, 0xC016, 0xFFFF), ((ProxyConfigAddAddressToFilter) messages.get(2)).getAddresses());
+
+        filter.removeAddresses(toAddressArrays(0xC000, 0xC001));
+        for (MeshMessage message : messages.subList(1, 3)) {
+            filter.addAddresses(((ProxyConfigAddAddressToFilter) message).getAddresses());
+        }
+        assertTrue(filter.createSyncMessages(target).isEmpty());
+    }
+
+    @Test
+    public void testSyncRemovesAddressesFromExclusionList() {
+        final ProxyFilter filter = new ProxyFilter(new ProxyFilterType(ProxyFilterType.EXCLUSION_LIST_FILTER));
+        filter.addAddresses(toAddressArrays(0x0001, 0xC000));
+        final List<MeshMessage> messages = filter.createSyncMessages(Arrays.asList(0xC000, 0xC001));
+        assertEquals(1, messages.size());
+        assertEquals(toAddressArrays(0xC000), ((ProxyConfigRemoveAddressFromFilter) messages.get(0)).getAddresses());
+    }
+
+    private static AddressArray toAddressArray(final int address) {
+        return new AddressArray((byte) (address >> 8), (byte) address);
+    }
+
+    private static List<AddressArray> toAddressArrays(final int... addresses) {
+        final List<AddressArray> addressArrays = new ArrayList<>();
+        for (int address : addresses) {
+            addressArrays.add(toAddressArray(address));
+        }
+        return addressArrays;
+    }
+}
@@ -0,0 +1,70 @@
+package no.nordicsemi.android.mesh.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class Uint16SetTest {
+
+    @Test
+    public void testInsertionOrderIsKept() {
+        final Uint16Set set = new Uint16Set();
+        assertTrue(set.add(0xC001));
+        assertTrue(set.add(0x0003));
+        assertTrue(set.add(0xFFFF));
+        assertFalse(set.add(0x0003));
+        assertEquals(3, set.size());
+        assertEquals(0xC001, set.get(0));
+        assertEquals(0xFFFF, set.get(2));
+        assertEquals(Arrays.asList(0xC001, 0x0003, 0xFFFF), set.asList());
+
+        assertTrue(set.remove(0xC001));
+        assertFalse(set.remove(0xC001));
+        set.removeAt(1);
+        assertEquals(Arrays.asList(0x0003), set.asList());
+    }
+
+    @Test
+    public void testListViewReflectsChanges() {
+        final Uint16Set set = new Uint16Set();
+        final List<Integer> view = set.asList();
+        assertTrue(view.isEmpty());
+        set.add(0x0100);
+        assertEquals(1, view.size());
+        assertTrue(view.contains(0x0100));
+        assertSame(view, set.asList());
+        set.clear();
+        assertTrue(view.isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testListViewIsReadOnly() {
+        new Uint16Set().asList().add(1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsValuesWiderThan16Bits() {
+        new Uint16Set().add(0x10000);
+    }
+
+    @Test
+    public void testSerializedAsIntegerArray() {
+        final Holder holder = new Holder();
+        holder.values.addAll(Arrays.asList(0x0001, 0xC000, 0x8001));
+        final String json = new Gson().toJson(holder);
+        assertEquals("{\"values\":[1,49152,32769]}", json);
+        assertEquals(holder.values.asList(), new Gson().fromJson(json, Holder.class).values.asList());
+    }
+
+    private static final class Holder {
+        private final Uint16Set values = new Uint16Set();
+    }
+}